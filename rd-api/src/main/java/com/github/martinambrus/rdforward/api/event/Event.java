@@ -1,9 +1,16 @@
 package com.github.martinambrus.rdforward.api.event;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Fabric-compatible event container. Each event holds a list of listeners
@@ -36,15 +43,74 @@ public class Event<T> {
      */
     public static volatile BiConsumer<Event<?>, Object> registrationHook;
 
+    /**
+     * Optional per-listener timing sink. When set, every event created with
+     * a {@link TimingWrapper} rebuilds its invoker with each listener
+     * wrapped; when {@code null}, or for events without a wrapper, the
+     * invokers call listeners directly and dispatch costs nothing extra.
+     */
+    private static volatile ListenerTimer listenerTimer;
+
+    /** Weakly-held registry of every event, so a timer change can rebuild all invokers. */
+    private static final Set<Event<?>> ALL_EVENTS =
+            Collections.newSetFromMap(new WeakHashMap<>());
+
     protected final List<T> handlers = new CopyOnWriteArrayList<>();
     protected final T emptyInvoker;
     protected final Function<List<T>, T> invokerFactory;
+    /** Typed timing wrapper, or {@code null} if this event's listeners aren't timed. */
+    protected final TimingWrapper<T> timingWrapper;
     protected volatile T invoker;
 
+    /** Owning mod id of listeners registered inside {@link EventOwnership#withOwner}. */
+    private final Map<Object, String> owners = Collections.synchronizedMap(new IdentityHashMap<>());
+
     protected Event(T emptyInvoker, Function<List<T>, T> invokerFactory) {
+        this(emptyInvoker, invokerFactory, null);
+    }
+
+    protected Event(T emptyInvoker, Function<List<T>, T> invokerFactory, TimingWrapper<T> timingWrapper) {
         this.emptyInvoker = emptyInvoker;
         this.invokerFactory = invokerFactory;
+        this.timingWrapper = timingWrapper;
         this.invoker = emptyInvoker;
+        synchronized (ALL_EVENTS) { ALL_EVENTS.add(this); }
+    }
+
+    /**
+     * Install (or remove, with {@code null}) the per-listener timing sink
+     * and rebuild every live event's invoker so the change takes effect
+     * on the next dispatch.
+     */
+    public static void setListenerTimer(ListenerTimer timer) {
+        listenerTimer = timer;
+        List<Event<?>> snapshot;
+        synchronized (ALL_EVENTS) { snapshot = new ArrayList<>(ALL_EVENTS); }
+        for (Event<?> e : snapshot) {
+            if (!e.handlers.isEmpty()) e.rebuildInvoker();
+        }
+    }
+
+    /** @return the installed timing sink, or {@code null} if timing is off. */
+    public static ListenerTimer getListenerTimer() {
+        return listenerTimer;
+    }
+
+    /**
+     * Run {@code task} on behalf of {@code modId} the way a timed listener
+     * runs: asking the installed timer to admit it and reporting its time.
+     * For dispatchers outside the event system (scheduled tasks). Runs the
+     * task directly when no timer is installed.
+     *
+     * @return false if the timer refused the call
+     */
+    public static boolean runTimed(String modId, Runnable task) {
+        ListenerTimer timer = listenerTimer;
+        if (timer == null) {
+            task.run();
+            return true;
+        }
+        return ListenerTiming.time(modId, timer, task);
     }
 
     /** Create a new event. */
@@ -52,6 +118,12 @@ public class Event<T> {
         return new Event<>(emptyInvoker, invokerFactory);
     }
 
+    /** Create a new event whose listeners are timed through {@code timingWrapper}. */
+    public static <T> Event<T> create(T emptyInvoker, Function<List<T>, T> invokerFactory,
+                                      TimingWrapper<T> timingWrapper) {
+        return new Event<>(emptyInvoker, invokerFactory, timingWrapper);
+    }
+
     /** Invoker that calls all registered listeners. Main firing entry point. */
     public T invoker() {
         return invoker;
@@ -59,6 +131,8 @@ public class Event<T> {
 
     /** Register a listener. Listeners are called in registration order. */
     public void register(T listener) {
+        String owner = EventOwnership.currentOwner();
+        if (owner != null) owners.put(listener, owner);
         handlers.add(listener);
         rebuildInvoker();
         BiConsumer<Event<?>, Object> hook = registrationHook;
@@ -71,6 +145,7 @@ public class Event<T> {
      */
     public boolean unregister(T listener) {
         boolean removed = handlers.remove(listener);
+        owners.remove(listener);
         if (removed) rebuildInvoker();
         return removed;
     }
@@ -78,6 +153,7 @@ public class Event<T> {
     /** Remove all listeners and reset invoker to the empty no-op. */
     public void clearListeners() {
         handlers.clear();
+        owners.clear();
         invoker = emptyInvoker;
     }
 
@@ -86,7 +162,68 @@ public class Event<T> {
         return handlers.size();
     }
 
+    /** Snapshot of the registered listeners in registration order. */
+    public List<T> listeners() {
+        return new ArrayList<>(handlers);
+    }
+
+    /**
+     * Remove every listener matching {@code filter} — e.g. all listeners
+     * whose class came from an unloaded mod's class loader, whatever owner
+     * they were registered under. Returns the number removed.
+     */
+    public int unregisterIf(Predicate<? super T> filter) {
+        int removed = 0;
+        for (T listener : handlers) {
+            if (filter.test(listener) && unregister(listener)) removed++;
+        }
+        return removed;
+    }
+
+    /** Snapshot of every live event, plain and prioritized — for leak diagnostics. */
+    public static List<Event<?>> allEvents() {
+        synchronized (ALL_EVENTS) { return new ArrayList<>(ALL_EVENTS); }
+    }
+
     protected void rebuildInvoker() {
-        invoker = handlers.isEmpty() ? emptyInvoker : invokerFactory.apply(handlers);
+        if (handlers.isEmpty()) {
+            invoker = emptyInvoker;
+            return;
+        }
+        ListenerTimer timer = listenerTimer;
+        if (timer == null || timingWrapper == null) {
+            invoker = invokerFactory.apply(handlers);
+            return;
+        }
+        List<T> timed = new ArrayList<>(handlers.size());
+        for (T listener : handlers) {
+            String owner = owners.get(listener);
+            timed.add(timed(listener, owner != null ? owner : PrioritizedEvent.SERVER_OWNER, timer));
+        }
+        invoker = invokerFactory.apply(timed);
+    }
+
+    /**
+     * Wrap {@code listener} with this event's {@link TimingWrapper} so
+     * each call is reported to {@code timer} under {@code modId} and calls
+     * the timer doesn't {@linkplain ListenerTimer#admit admit} are skipped.
+     * Returns the listener unwrapped if the event has no wrapper.
+     */
+    protected final T timed(T listener, String modId, ListenerTimer timer) {
+        if (timingWrapper == null) return listener;
+        return timingWrapper.wrap(listener, new ListenerTiming(modId, timer));
+    }
+
+    /**
+     * Thread CPU clock, in its own class so {@code java.management} is only
+     * loaded once a timer asks for CPU time.
+     */
+    static final class CpuClock {
+        private static final java.lang.management.ThreadMXBean THREADS =
+                java.lang.management.ManagementFactory.getThreadMXBean();
+
+        static long now() {
+            return THREADS.getCurrentThreadCpuTime();
+        }
     }
 }
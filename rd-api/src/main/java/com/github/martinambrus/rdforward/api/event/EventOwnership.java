@@ -2,10 +2,12 @@ package com.github.martinambrus.rdforward.api.event;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 /**
  * Tracks which mod registered which listener on a plain {@link Event} so
@@ -21,7 +23,9 @@ import java.util.concurrent.ConcurrentHashMap;
  *
  * <p>{@link PrioritizedEvent} registers owners through its own
  * {@code register(priority, listener, modId)} path — those listeners do
- * not flow through this tracker. Both paths coexist.
+ * not flow through this tracker. Both paths coexist. Its owner-less
+ * {@code register} overloads read {@link #currentOwner()} so listeners
+ * registered inside {@code withOwner} are still attributed to the mod.
  */
 public final class EventOwnership {
 
@@ -88,6 +92,40 @@ public final class EventOwnership {
         return Collections.unmodifiableMap(out);
     }
 
+    /** Raw listeners tracked per mod — for leak diagnostics. */
+    public static Map<String, List<Object>> listenersByMod() {
+        Map<String, List<Object>> out = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Registration>> e : BY_MOD.entrySet()) {
+            List<Object> list = new ArrayList<>();
+            synchronized (e.getValue()) {
+                for (Registration r : e.getValue()) list.add(r.listener());
+            }
+            out.put(e.getKey(), list);
+        }
+        return out;
+    }
+
+    /**
+     * Unregister and forget every tracked listener matching {@code filter},
+     * whichever mod it is filed under. @return number of records dropped.
+     */
+    public static int forgetIf(Predicate<Object> filter) {
+        int dropped = 0;
+        for (List<Registration> regs : BY_MOD.values()) {
+            synchronized (regs) {
+                for (Iterator<Registration> it = regs.iterator(); it.hasNext(); ) {
+                    Registration r = it.next();
+                    if (filter.test(r.listener())) {
+                        r.removeFromEvent();
+                        it.remove();
+                        dropped++;
+                    }
+                }
+            }
+        }
+        return dropped;
+    }
+
     private static void track(Event<?> event, Object listener) {
         String owner = CURRENT.get();
         if (owner == null) return;
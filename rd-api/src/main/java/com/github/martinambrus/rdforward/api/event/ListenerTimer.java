@@ -0,0 +1,44 @@
+package com.github.martinambrus.rdforward.api.event;
+
+/**
+ * Sink for per-listener dispatch timings, installed by the server's
+ * profiler via {@link Event#setListenerTimer(ListenerTimer)}.
+ *
+ * <p>Called once per invocation of a listener on an event created with a
+ * {@link TimingWrapper}, with the owning mod id
+ * ({@link PrioritizedEvent#SERVER_OWNER} for core listeners) and the
+ * wall-clock time the listener took. Implementations run on the
+ * dispatching thread and must not allocate or block.
+ *
+ * <p>A timer can also ask for the thread CPU time of each call
+ * ({@link #measuresCpuTime()}) and veto calls before they happen
+ * ({@link #admit(String)}) to throttle or disable a mod that keeps
+ * overrunning its budget.
+ */
+@FunctionalInterface
+public interface ListenerTimer {
+
+    void record(String modId, long nanos);
+
+    /**
+     * Like {@link #record(String, long)}, plus the CPU time the calling
+     * thread spent in the listener, or -1 when CPU time isn't measured.
+     */
+    default void record(String modId, long wallNanos, long cpuNanos) {
+        record(modId, wallNanos);
+    }
+
+    /** Whether dispatchers should measure thread CPU time for {@link #record(String, long, long)}. */
+    default boolean measuresCpuTime() {
+        return false;
+    }
+
+    /**
+     * Called before each listener call. Returning {@code false} skips the
+     * call; the listener then counts as having returned
+     * {@link EventResult#PASS} (or nothing, for void callbacks).
+     */
+    default boolean admit(String modId) {
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.martinambrus.rdforward.api.event;
+
+import java.util.function.Supplier;
+
+/**
+ * Timing handle a {@link TimingWrapper} closes over: one per wrapped
+ * listener, bound to the listener's owning mod and the installed
+ * {@link ListenerTimer}. It asks the timer to admit each call, reads the
+ * clocks and records the result, so a wrapper only passes the arguments
+ * through:
+ *
+ * <pre>
+ *   (listener, timing) -&gt; (player, message) -&gt; timing.call(() -&gt; listener.onChat(player, message))
+ * </pre>
+ */
+public final class ListenerTiming {
+
+    private final String modId;
+    private final ListenerTimer timer;
+
+    ListenerTiming(String modId, ListenerTimer timer) {
+        this.modId = modId;
+        this.timer = timer;
+    }
+
+    /** Time a void callback; a call the timer refuses doesn't run. */
+    public void run(Runnable call) {
+        time(modId, timer, call);
+    }
+
+    /** Time an {@link EventResult} callback; a call the timer refuses counts as {@link EventResult#PASS}. */
+    public EventResult call(Supplier<EventResult> call) {
+        if (!timer.admit(modId)) return EventResult.PASS;
+        boolean cpu = timer.measuresCpuTime();
+        long cpuStart = cpu ? Event.CpuClock.now() : 0;
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            record(modId, timer, start, cpu, cpuStart);
+        }
+    }
+
+    /**
+     * Run {@code task} for {@code modId} if {@code timer} admits it and
+     * report its time.
+     *
+     * @return false if the timer refused the call
+     */
+    static boolean time(String modId, ListenerTimer timer, Runnable task) {
+        if (!timer.admit(modId)) return false;
+        boolean cpu = timer.measuresCpuTime();
+        long cpuStart = cpu ? Event.CpuClock.now() : 0;
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            record(modId, timer, start, cpu, cpuStart);
+        }
+        return true;
+    }
+
+    private static void record(String modId, ListenerTimer timer, long start, boolean cpu, long cpuStart) {
+        long wall = System.nanoTime() - start;
+        timer.record(modId, wall, cpu ? Event.CpuClock.now() - cpuStart : -1);
+    }
+}
@@ -56,7 +56,12 @@ public class PrioritizedEvent<T> extends Event<T> {
             new EnumMap<>(EventPriority.class);
 
     protected PrioritizedEvent(T emptyInvoker, PrioritizedInvokerFactory<T> factory) {
-        super(emptyInvoker, adaptFactory(factory));
+        this(emptyInvoker, factory, null);
+    }
+
+    protected PrioritizedEvent(T emptyInvoker, PrioritizedInvokerFactory<T> factory,
+                               TimingWrapper<T> timingWrapper) {
+        super(emptyInvoker, adaptFactory(factory), timingWrapper);
         this.prioritizedFactory = factory;
         for (EventPriority p : EventPriority.values()) {
             byPriority.put(p, new CopyOnWriteArrayList<>());
@@ -94,15 +99,31 @@ public class PrioritizedEvent<T> extends Event<T> {
         return new PrioritizedEvent<>(emptyInvoker, factory);
     }
 
-    /** Register at NORMAL priority, unknown mod owner (SERVER_OWNER). */
+    /** Create a new prioritized event whose listeners are timed through {@code timingWrapper}. */
+    public static <T> PrioritizedEvent<T> create(T emptyInvoker, PrioritizedInvokerFactory<T> factory,
+                                                 TimingWrapper<T> timingWrapper) {
+        return new PrioritizedEvent<>(emptyInvoker, factory, timingWrapper);
+    }
+
+    /**
+     * Register at NORMAL priority. The owner is the mod whose
+     * {@link EventOwnership#withOwner} scope is active (so bridge plugins
+     * registering during their enable are attributed to their own id),
+     * otherwise {@link #SERVER_OWNER}.
+     */
     @Override
     public void register(T listener) {
-        register(EventPriority.NORMAL, listener, SERVER_OWNER);
+        register(EventPriority.NORMAL, listener, currentOwner());
     }
 
-    /** Register at explicit priority, owner defaults to SERVER_OWNER. */
+    /** Register at explicit priority, owner as for {@link #register(Object)}. */
     public void register(EventPriority priority, T listener) {
-        register(priority, listener, SERVER_OWNER);
+        register(priority, listener, currentOwner());
+    }
+
+    private static String currentOwner() {
+        String owner = EventOwnership.currentOwner();
+        return owner != null ? owner : SERVER_OWNER;
     }
 
     /** Register at explicit priority + explicit owner. */
@@ -233,16 +254,17 @@ public class PrioritizedEvent<T> extends Event<T> {
     @Override
     protected void rebuildInvoker() {
         BiPredicate<PrioritizedEvent<?>, ListenerInfo> gate = dispatchGate;
+        ListenerTimer timer = getListenerTimer();
         List<T> dispatch = new ArrayList<>();
         for (EventPriority p : EventPriority.values()) {
             if (p == EventPriority.MONITOR) continue;
             for (OwnedListener<T> o : byPriority.get(p)) {
-                if (allowedByGate(gate, o, p)) dispatch.add(o.listener);
+                if (allowedByGate(gate, o, p)) dispatch.add(dispatchTarget(o, timer));
             }
         }
         List<T> monitor = new ArrayList<>();
         for (OwnedListener<T> o : byPriority.get(EventPriority.MONITOR)) {
-            if (allowedByGate(gate, o, EventPriority.MONITOR)) monitor.add(o.listener);
+            if (allowedByGate(gate, o, EventPriority.MONITOR)) monitor.add(dispatchTarget(o, timer));
         }
 
         if (dispatch.isEmpty() && monitor.isEmpty()) {
@@ -252,6 +274,10 @@ public class PrioritizedEvent<T> extends Event<T> {
         }
     }
 
+    private T dispatchTarget(OwnedListener<T> o, ListenerTimer timer) {
+        return timer == null ? o.listener : timed(o.listener, o.modId, timer);
+    }
+
     private boolean allowedByGate(BiPredicate<PrioritizedEvent<?>, ListenerInfo> gate,
                                   OwnedListener<T> o, EventPriority p) {
         if (gate == null) return true;
@@ -0,0 +1,15 @@
+package com.github.martinambrus.rdforward.api.event;
+
+/**
+ * Wraps a listener in a typed callback that passes its arguments through
+ * {@link ListenerTiming#run} or {@link ListenerTiming#call}, passed to
+ * {@code Event.create} / {@code PrioritizedEvent.create}. Events without
+ * one are never timed.
+ *
+ * @param <T> the callback interface type
+ */
+@FunctionalInterface
+public interface TimingWrapper<T> {
+
+    T wrap(T listener, ListenerTiming timing);
+}
@@ -3,6 +3,7 @@ package com.github.martinambrus.rdforward.api.event.server;
 import com.github.martinambrus.rdforward.api.event.Event;
 import com.github.martinambrus.rdforward.api.event.EventResult;
 import com.github.martinambrus.rdforward.api.event.PrioritizedEvent;
+import com.github.martinambrus.rdforward.api.event.TimingWrapper;
 
 /**
  * Registry of all server-side events that mods can listen to.
@@ -12,7 +13,8 @@ import com.github.martinambrus.rdforward.api.event.PrioritizedEvent;
  * {@code Event.invoker()}. Cancellable events ({@link #BLOCK_BREAK},
  * {@link #BLOCK_PLACE}, {@link #CHAT}) use {@link PrioritizedEvent} so mods
  * can override each other with explicit priorities; non-cancellable events
- * use plain {@link Event}.
+ * use plain {@link Event}. Every event is created with a
+ * {@link TimingWrapper} so the profiler can time listeners per mod.
  *
  * <p>Dispatch stops on the first non-PASS result from LOWEST..HIGHEST
  * listeners. MONITOR listeners always run and their return values are
@@ -39,7 +41,8 @@ public final class ServerEvents {
                 }
                 for (BlockBreakCallback l : monitor) l.onBlockBreak(player, x, y, z, blockType);
                 return outcome;
-            }
+            },
+            (l, t) -> (player, x, y, z, blockType) -> t.call(() -> l.onBlockBreak(player, x, y, z, blockType))
     );
 
     /** Fired before a block is placed. Cancellable. */
@@ -53,7 +56,8 @@ public final class ServerEvents {
                 }
                 for (BlockPlaceCallback l : monitor) l.onBlockPlace(player, x, y, z, newBlockType);
                 return outcome;
-            }
+            },
+            (l, t) -> (player, x, y, z, newBlockType) -> t.call(() -> l.onBlockPlace(player, x, y, z, newBlockType))
     );
 
     /** Fired when a chat message is received. Cancellable. */
@@ -67,7 +71,8 @@ public final class ServerEvents {
                 }
                 for (ChatCallback l : monitor) l.onChat(player, message);
                 return outcome;
-            }
+            },
+            (l, t) -> (player, message) -> t.call(() -> l.onChat(player, message))
     );
 
     /** Fired when a player has finished logging in. */
@@ -75,7 +80,8 @@ public final class ServerEvents {
             (name, version) -> {},
             listeners -> (name, version) -> {
                 for (PlayerJoinCallback l : listeners) l.onPlayerJoin(name, version);
-            }
+            },
+            (l, t) -> (name, version) -> t.run(() -> l.onPlayerJoin(name, version))
     );
 
     /** Fired when a player disconnects. */
@@ -83,7 +89,8 @@ public final class ServerEvents {
             name -> {},
             listeners -> name -> {
                 for (PlayerLeaveCallback l : listeners) l.onPlayerLeave(name);
-            }
+            },
+            (l, t) -> name -> t.run(() -> l.onPlayerLeave(name))
     );
 
     /** Fired when a player sends a position update. */
@@ -91,7 +98,8 @@ public final class ServerEvents {
             (name, x, y, z, yaw, pitch) -> {},
             listeners -> (name, x, y, z, yaw, pitch) -> {
                 for (PlayerMoveCallback l : listeners) l.onPlayerMove(name, x, y, z, yaw, pitch);
-            }
+            },
+            (l, t) -> (name, x, y, z, yaw, pitch) -> t.run(() -> l.onPlayerMove(name, x, y, z, yaw, pitch))
     );
 
     /** Fired once after the server has finished initializing. */
@@ -99,7 +107,8 @@ public final class ServerEvents {
             () -> {},
             listeners -> () -> {
                 for (ServerStartedCallback l : listeners) l.onServerStarted();
-            }
+            },
+            (l, t) -> () -> t.run(l::onServerStarted)
     );
 
     /** Fired once when the server begins shutting down. */
@@ -107,7 +116,8 @@ public final class ServerEvents {
             () -> {},
             listeners -> () -> {
                 for (ServerStoppingCallback l : listeners) l.onServerStopping();
-            }
+            },
+            (l, t) -> () -> t.run(l::onServerStopping)
     );
 
     /** Fired every server tick (20 TPS). */
@@ -115,7 +125,8 @@ public final class ServerEvents {
             tickCount -> {},
             listeners -> tickCount -> {
                 for (ServerTickCallback l : listeners) l.onServerTick(tickCount);
-            }
+            },
+            (l, t) -> tickCount -> t.run(() -> l.onServerTick(tickCount))
     );
 
     /** Fired before the world is saved. */
@@ -123,7 +134,8 @@ public final class ServerEvents {
             () -> {},
             listeners -> () -> {
                 for (WorldSaveCallback l : listeners) l.onWorldSave();
-            }
+            },
+            (l, t) -> () -> t.run(l::onWorldSave)
     );
 
     /**
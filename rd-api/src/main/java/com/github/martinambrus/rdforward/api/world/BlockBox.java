@@ -0,0 +1,47 @@
+package com.github.martinambrus.rdforward.api.world;
+
+/**
+ * Axis-aligned box of block positions, inclusive on both ends.
+ *
+ * <p>Region buffers used with {@link World#readRegion} are laid out in
+ * the server's own order: x varies fastest, then z, then y. Use
+ * {@link #indexOf} to locate a block in such a buffer.
+ *
+ * @param minX lowest x, inclusive
+ * @param minY lowest y, inclusive
+ * @param minZ lowest z, inclusive
+ * @param maxX highest x, inclusive
+ * @param maxY highest y, inclusive
+ * @param maxZ highest z, inclusive
+ */
+public record BlockBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+
+    /** Corners may be given in any order; they are normalized to min/max. */
+    public BlockBox {
+        if (minX > maxX) { int t = minX; minX = maxX; maxX = t; }
+        if (minY > maxY) { int t = minY; minY = maxY; maxY = t; }
+        if (minZ > maxZ) { int t = minZ; minZ = maxZ; maxZ = t; }
+    }
+
+    public static BlockBox of(int x1, int y1, int z1, int x2, int y2, int z2) {
+        return new BlockBox(x1, y1, z1, x2, y2, z2);
+    }
+
+    public int sizeX() { return maxX - minX + 1; }
+    public int sizeY() { return maxY - minY + 1; }
+    public int sizeZ() { return maxZ - minZ + 1; }
+
+    /** Number of blocks in the box. */
+    public long volume() {
+        return (long) sizeX() * sizeY() * sizeZ();
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    /** Position of (x, y, z) in a region buffer for this box. */
+    public int indexOf(int x, int y, int z) {
+        return ((y - minY) * sizeZ() + (z - minZ)) * sizeX() + (x - minX);
+    }
+}
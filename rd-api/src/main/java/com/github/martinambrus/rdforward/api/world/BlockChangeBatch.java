@@ -0,0 +1,74 @@
+package com.github.martinambrus.rdforward.api.world;
+
+import java.util.Arrays;
+
+/**
+ * A list of block changes to hand to {@link World#applyBatch} in one call.
+ *
+ * <p>Stored as parallel primitive arrays, so building a batch of millions
+ * of changes allocates a handful of arrays instead of one object per
+ * block. If the same position appears more than once, the last change
+ * wins. A batch can be cleared and reused.
+ */
+public final class BlockChangeBatch {
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] xs;
+    private int[] ys;
+    private int[] zs;
+    private int[] typeIds;
+    private int size;
+
+    public BlockChangeBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public BlockChangeBatch(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        xs = new int[capacity];
+        ys = new int[capacity];
+        zs = new int[capacity];
+        typeIds = new int[capacity];
+    }
+
+    public BlockChangeBatch add(int x, int y, int z, BlockType type) {
+        return add(x, y, z, type.getId());
+    }
+
+    public BlockChangeBatch add(int x, int y, int z, int typeId) {
+        if (size == xs.length) grow();
+        xs[size] = x;
+        ys[size] = y;
+        zs[size] = z;
+        typeIds[size] = typeId;
+        size++;
+        return this;
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    public int x(int i) { return xs[checkIndex(i)]; }
+    public int y(int i) { return ys[checkIndex(i)]; }
+    public int z(int i) { return zs[checkIndex(i)]; }
+    public int typeId(int i) { return typeIds[checkIndex(i)]; }
+
+    public void clear() {
+        size = 0;
+    }
+
+    private int checkIndex(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+        return i;
+    }
+
+    private void grow() {
+        int capacity = xs.length * 2;
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        zs = Arrays.copyOf(zs, capacity);
+        typeIds = Arrays.copyOf(typeIds, capacity);
+    }
+}
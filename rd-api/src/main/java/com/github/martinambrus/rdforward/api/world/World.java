@@ -24,4 +24,69 @@ public interface World {
     long getTime();
 
     void setTime(long time);
+
+    /**
+     * Copy the block ids in {@code box} into {@code dest}, laid out as
+     * described by {@link BlockBox#indexOf}. Positions outside the world
+     * read as air (0).
+     *
+     * <p>The default implementation reads one block at a time; the
+     * server's implementation copies whole rows under a single lock.
+     *
+     * @throws IllegalArgumentException if {@code dest} is smaller than the box
+     */
+    default void readRegion(BlockBox box, byte[] dest) {
+        if (dest.length < box.volume()) {
+            throw new IllegalArgumentException("buffer holds " + dest.length + " blocks, box has " + box.volume());
+        }
+        int i = 0;
+        for (int y = box.minY(); y <= box.maxY(); y++) {
+            for (int z = box.minZ(); z <= box.maxZ(); z++) {
+                for (int x = box.minX(); x <= box.maxX(); x++) {
+                    Block block = getBlockAt(x, y, z);
+                    dest[i++] = block == null ? 0 : (byte) block.getType().getId();
+                }
+            }
+        }
+    }
+
+    /**
+     * Set every in-bounds block in {@code box} to {@code type}. Positions
+     * outside the world are skipped.
+     *
+     * <p>The server applies the fill one chunk section at a time and
+     * updates clients per chunk rather than per block.
+     *
+     * @return number of blocks that actually changed
+     */
+    default int fill(BlockBox box, BlockType type) {
+        int changed = 0;
+        for (int y = box.minY(); y <= box.maxY(); y++) {
+            for (int z = box.minZ(); z <= box.maxZ(); z++) {
+                for (int x = box.minX(); x <= box.maxX(); x++) {
+                    if (isInBounds(x, y, z) && setBlock(x, y, z, type)) changed++;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Apply every change in {@code batch}. Out-of-bounds entries are
+     * skipped; for repeated positions the last entry wins.
+     *
+     * <p>The server groups the changes by chunk section, applies each
+     * group under one lock and updates clients per chunk rather than per
+     * block.
+     *
+     * @return number of changes that altered a block
+     */
+    default int applyBatch(BlockChangeBatch batch) {
+        int changed = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            int x = batch.x(i), y = batch.y(i), z = batch.z(i);
+            if (isInBounds(x, y, z) && setBlock(x, y, z, BlockTypes.byId(batch.typeId(i)))) changed++;
+        }
+        return changed;
+    }
 }
@@ -1,5 +1,6 @@
 package com.github.martinambrus.rdforward.api.event;
 
+import com.github.martinambrus.rdforward.api.event.TestEvents.Callback;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,17 +16,12 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class EventOwnershipTest {
 
-    @FunctionalInterface
-    interface Callback { void run(); }
-
     private Event<Callback> event;
 
     @BeforeEach
     void setUp() {
         EventOwnership.install();
-        event = Event.create(
-                () -> {},
-                listeners -> () -> listeners.forEach(Callback::run));
+        event = TestEvents.plain();
     }
 
     @AfterEach
@@ -94,4 +90,34 @@ class EventOwnershipTest {
         EventOwnership.withOwner("modA", () -> event.register(l));
         assertEquals(1, EventOwnership.unregisterAllForMod("modA"));
     }
+
+    @Test
+    void listenerTimerAttributesPlainEventListenersToOwner() {
+        List<String> timed = new java.util.ArrayList<>();
+        EventOwnership.withOwner("modA", () -> event.register(() -> {}));
+        event.register(() -> {});
+        try {
+            Event.setListenerTimer((modId, nanos) -> timed.add(modId));
+            event.invoker().run();
+        } finally {
+            Event.setListenerTimer(null);
+        }
+        assertEquals(List.of("modA", PrioritizedEvent.SERVER_OWNER), timed);
+    }
+
+    @Test
+    void eventWithoutTimingWrapperIsNotTimed() {
+        List<String> timed = new java.util.ArrayList<>();
+        Event<Callback> untimed = Event.create(() -> {}, listeners -> () -> listeners.forEach(Callback::run));
+        Callback listener = () -> {};
+        untimed.register(listener);
+        try {
+            Event.setListenerTimer((modId, nanos) -> timed.add(modId));
+            untimed.invoker().run();
+            assertEquals(List.of(listener), untimed.listeners());
+        } finally {
+            Event.setListenerTimer(null);
+        }
+        assertTrue(timed.isEmpty());
+    }
 }
@@ -1,5 +1,6 @@
 package com.github.martinambrus.rdforward.api.event;
 
+import com.github.martinambrus.rdforward.api.event.TestEvents.TraceCallback;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,28 +15,13 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PrioritizedEventTest {
 
-    @FunctionalInterface
-    interface Callback {
-        EventResult run(List<String> trace);
-    }
-
-    private PrioritizedEvent<Callback> event;
+    private PrioritizedEvent<TraceCallback> event;
     private BiPredicate<PrioritizedEvent<?>, ListenerInfo> savedGate;
 
     @BeforeEach
     void setUp() {
         savedGate = PrioritizedEvent.dispatchGate;
-        event = PrioritizedEvent.create(
-                trace -> EventResult.PASS,
-                (dispatch, monitor) -> trace -> {
-                    EventResult outcome = EventResult.PASS;
-                    for (Callback c : dispatch) {
-                        EventResult r = c.run(trace);
-                        if (r != EventResult.PASS) { outcome = r; break; }
-                    }
-                    for (Callback c : monitor) c.run(trace);
-                    return outcome;
-                });
+        event = TestEvents.prioritized();
     }
 
     @AfterEach
@@ -87,7 +73,7 @@ class PrioritizedEventTest {
 
     @Test
     void unregisterByOwnerRemovesAcrossPriorities() {
-        Callback keep = t -> { t.add("keep"); return EventResult.PASS; };
+        TraceCallback keep = t -> { t.add("keep"); return EventResult.PASS; };
         event.register(EventPriority.LOWEST, t -> { t.add("a-low"); return EventResult.PASS; }, "modA");
         event.register(EventPriority.HIGH,   t -> { t.add("a-high"); return EventResult.PASS; }, "modA");
         event.register(EventPriority.NORMAL, keep, "modB");
@@ -107,7 +93,7 @@ class PrioritizedEventTest {
 
     @Test
     void unregisterAllByOwnerSweepsAcrossEvents() {
-        PrioritizedEvent<Callback> other = PrioritizedEvent.create(
+        PrioritizedEvent<TraceCallback> other = PrioritizedEvent.create(
                 t -> EventResult.PASS,
                 (d, m) -> t -> EventResult.PASS);
 
@@ -156,4 +142,67 @@ class PrioritizedEventTest {
         assertTrue(info.stream().anyMatch(i -> i.modId().equals("modX") && i.priority() == EventPriority.HIGH));
         assertTrue(info.stream().anyMatch(i -> i.modId().equals("modY") && i.priority() == EventPriority.MONITOR));
     }
+
+    @Test
+    void listenerTimerRecordsPerOwnerAndKeepsResults() {
+        List<String> timed = new ArrayList<>();
+        event.register(EventPriority.NORMAL, t -> { t.add("a"); return EventResult.PASS; }, "modA");
+        event.register(EventPriority.HIGH, t -> { t.add("b"); return EventResult.FAIL; }, "modB");
+        event.register(EventPriority.HIGHEST, t -> { t.add("c"); return EventResult.PASS; }, "modC");
+        try {
+            Event.setListenerTimer((modId, nanos) -> timed.add(modId));
+
+            List<String> trace = new ArrayList<>();
+            EventResult result = event.invoker().run(trace);
+
+            assertEquals(List.of("a", "b"), trace);
+            assertEquals(EventResult.FAIL, result);
+            assertEquals(List.of("modA", "modB"), timed);
+        } finally {
+            Event.setListenerTimer(null);
+        }
+
+        timed.clear();
+        event.invoker().run(new ArrayList<>());
+        assertTrue(timed.isEmpty());
+    }
+
+    @Test
+    void ownerlessRegisterUsesEnclosingOwnerScope() {
+        event.register(t -> EventResult.PASS);
+        EventOwnership.withOwner("bridgePlugin", () ->
+                event.register(EventPriority.HIGH, t -> EventResult.PASS));
+
+        List<ListenerInfo> info = event.getListenerInfo();
+        assertTrue(info.stream().anyMatch(i -> i.modId().equals(PrioritizedEvent.SERVER_OWNER)));
+        assertTrue(info.stream().anyMatch(i -> i.modId().equals("bridgePlugin") && i.priority() == EventPriority.HIGH));
+        assertTrue(event.unregisterByOwner("bridgePlugin"));
+    }
+
+    @Test
+    void listenerTimerCanRefuseCalls() {
+        List<String> timed = new ArrayList<>();
+        event.register(EventPriority.NORMAL, t -> { t.add("slow"); return EventResult.FAIL; }, "slowMod");
+        event.register(EventPriority.LOW, t -> { t.add("ok"); return EventResult.PASS; }, "okMod");
+        try {
+            Event.setListenerTimer(new ListenerTimer() {
+                @Override
+                public void record(String modId, long nanos) {
+                    timed.add(modId);
+                }
+
+                @Override
+                public boolean admit(String modId) {
+                    return !modId.equals("slowMod");
+                }
+            });
+
+            List<String> trace = new ArrayList<>();
+            assertEquals(EventResult.PASS, event.invoker().run(trace));
+            assertEquals(List.of("ok"), trace);
+            assertEquals(List.of("okMod"), timed);
+        } finally {
+            Event.setListenerTimer(null);
+        }
+    }
 }
@@ -0,0 +1,44 @@
+package com.github.martinambrus.rdforward.api.event;
+
+import java.util.List;
+
+/**
+ * Events shared by the event tests, created the way ServerEvents creates
+ * them, with a {@link TimingWrapper} so listener timing can be tested.
+ */
+final class TestEvents {
+
+    private TestEvents() {}
+
+    @FunctionalInterface
+    interface Callback { void run(); }
+
+    @FunctionalInterface
+    interface TraceCallback {
+        EventResult run(List<String> trace);
+    }
+
+    /** Plain event calling every listener in registration order. */
+    static Event<Callback> plain() {
+        return Event.create(
+                () -> {},
+                listeners -> () -> listeners.forEach(Callback::run),
+                (l, t) -> () -> t.run(l::run));
+    }
+
+    /** Prioritized event that stops at the first non-PASS result; MONITOR always runs. */
+    static PrioritizedEvent<TraceCallback> prioritized() {
+        return PrioritizedEvent.create(
+                trace -> EventResult.PASS,
+                (dispatch, monitor) -> trace -> {
+                    EventResult outcome = EventResult.PASS;
+                    for (TraceCallback c : dispatch) {
+                        EventResult r = c.run(trace);
+                        if (r != EventResult.PASS) { outcome = r; break; }
+                    }
+                    for (TraceCallback c : monitor) c.run(trace);
+                    return outcome;
+                },
+                (l, t) -> trace -> t.call(() -> l.run(trace)));
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.martinambrus.rdforward.api.world;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the bulk region API: box normalization and buffer layout,
+ * batch growth, and the per-block default implementations that worlds
+ * without a native bulk path fall back to.
+ */
+class WorldBulkOperationsTest {
+
+    /** Minimal in-memory world using only the per-block methods. */
+    private static final class ArrayWorld implements World {
+        final byte[] blocks = new byte[4 * 4 * 4];
+        int setCalls;
+
+        @Override public String getName() { return "test"; }
+        @Override public int getWidth() { return 4; }
+        @Override public int getHeight() { return 4; }
+        @Override public int getDepth() { return 4; }
+
+        @Override
+        public Block getBlockAt(int x, int y, int z) {
+            if (!isInBounds(x, y, z)) return null;
+            BlockType type = BlockTypes.byId(blocks[(y * 4 + z) * 4 + x]);
+            return new Block() {
+                @Override public BlockType getType() { return type; }
+                @Override public int getX() { return x; }
+                @Override public int getY() { return y; }
+                @Override public int getZ() { return z; }
+                @Override public World getWorld() { return ArrayWorld.this; }
+                @Override public boolean setType(BlockType t) { return setBlock(x, y, z, t); }
+            };
+        }
+
+        @Override
+        public boolean setBlock(int x, int y, int z, BlockType type) {
+            setCalls++;
+            int i = (y * 4 + z) * 4 + x;
+            if (blocks[i] == type.getId()) return false;
+            blocks[i] = (byte) type.getId();
+            return true;
+        }
+
+        @Override
+        public boolean isInBounds(int x, int y, int z) {
+            return x >= 0 && x < 4 && y >= 0 && y < 4 && z >= 0 && z < 4;
+        }
+
+        @Override public long getTime() { return 0; }
+        @Override public void setTime(long time) {}
+    }
+
+    @Test
+    void boxNormalizesCornersAndIndexesXFastest() {
+        BlockBox box = BlockBox.of(3, 5, 7, 1, 2, 4);
+        assertEquals(new BlockBox(1, 2, 4, 3, 5, 7), box);
+        assertEquals(3 * 4 * 4, box.volume());
+        assertEquals(0, box.indexOf(1, 2, 4));
+        assertEquals(1, box.indexOf(2, 2, 4));
+        assertEquals(3, box.indexOf(1, 2, 5));
+        assertEquals(12, box.indexOf(1, 3, 4));
+        assertTrue(box.contains(3, 5, 7));
+        assertFalse(box.contains(0, 5, 7));
+    }
+
+    @Test
+    void batchGrowsAndClears() {
+        BlockChangeBatch batch = new BlockChangeBatch(1);
+        for (int i = 0; i < 100; i++) batch.add(i, i + 1, i + 2, i % 3);
+        assertEquals(100, batch.size());
+        assertEquals(99, batch.x(99));
+        assertEquals(101, batch.z(99));
+        assertEquals(0, batch.typeId(99));
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.x(100));
+        batch.clear();
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    void defaultFillSkipsOutOfBoundsAndCountsChanges() {
+        ArrayWorld world = new ArrayWorld();
+        world.setBlock(0, 0, 0, BlockTypes.STONE);
+
+        int changed = world.fill(BlockBox.of(-1, 0, 0, 1, 0, 1), BlockTypes.STONE);
+        assertEquals(3, changed, "(0,0,0) was already stone");
+
+        byte[] dest = new byte[(int) BlockBox.of(-1, 0, 0, 1, 0, 1).volume()];
+        world.readRegion(BlockBox.of(-1, 0, 0, 1, 0, 1), dest);
+        assertArrayEquals(new byte[] {0, 1, 1, 0, 1, 1}, dest);
+    }
+
+    @Test
+    void defaultApplyBatchAppliesInOrder() {
+        ArrayWorld world = new ArrayWorld();
+        BlockChangeBatch batch = new BlockChangeBatch()
+                .add(1, 1, 1, BlockTypes.DIRT)
+                .add(9, 9, 9, BlockTypes.DIRT)
+                .add(1, 1, 1, BlockTypes.GLASS);
+        assertEquals(2, world.applyBatch(batch));
+        assertEquals(BlockTypes.GLASS.getId(), world.getBlockAt(1, 1, 1).getType().getId());
+        assertEquals(2, world.setCalls, "out-of-bounds entry never reaches setBlock");
+    }
+
+    @Test
+    void readRegionRejectsShortBuffer() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ArrayWorld().readRegion(BlockBox.of(0, 0, 0, 1, 1, 1), new byte[7]));
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.martinambrus.rdforward.bench;
+
+import com.github.martinambrus.rdforward.server.ServerWorld;
+import com.github.martinambrus.rdforward.world.FlatWorldGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tick's worth of block changes through
+ * {@link ServerWorld#processPendingBlockChanges}: queue {@code changes}
+ * edits, then apply them and build the broadcast packets. 1 is a single
+ * player building, 64 a busy server, 1024 a large paste or explosion.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockChangeBenchmark {
+
+    @Param({"1", "64", "1024"})
+    int changes;
+
+    private ServerWorld world;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        world = new ServerWorld(256, 64, 256);
+        world.generate(new FlatWorldGenerator(), ChunkFixtures.SEED);
+    }
+
+    @Benchmark
+    public Object tick() {
+        for (int i = 0; i < changes; i++) {
+            int n = cursor++;
+            // Sweep the 16 air layers above the surface (y=42), placing stone
+            // on even passes and clearing it on odd ones, so every queued
+            // change is a real state change
+            byte type = ((n >> 20) & 1) == 0 ? (byte) 1 : (byte) 0;
+            world.queueBlockChange(n & 255, 43 + ((n >> 16) & 15), (n >> 8) & 255, type);
+        }
+        return world.processPendingBlockChanges();
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.martinambrus.rdforward.bench;
+
+import com.github.martinambrus.rdforward.server.bedrock.BedrockBlockMapper;
+import com.github.martinambrus.rdforward.server.bedrock.BedrockChunkConverter;
+import com.github.martinambrus.rdforward.server.bedrock.BedrockProtocolConstants;
+import com.github.martinambrus.rdforward.server.lce.LCEChunkSerializer;
+import com.github.martinambrus.rdforward.world.alpha.AlphaChunk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chunk conversion for the non-Java-Edition families: Bedrock
+ * (palette sub-chunks, both the direct and the canonical-data path) and
+ * Legacy Console Edition. The Bedrock converter caches by chunk coord, so
+ * the cache is cleared before each call to measure the real conversion.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkConvertBenchmark {
+
+    private AlphaChunk chunk;
+    private BedrockChunkConverter bedrock;
+
+    @Setup
+    public void setup() {
+        chunk = ChunkFixtures.generated(-2, 5);
+        chunk.getOrBuildCanonical();
+        bedrock = new BedrockChunkConverter(
+                new BedrockBlockMapper(BedrockProtocolConstants.getVanillaBlockStates()));
+    }
+
+    @Benchmark
+    public Object bedrockConvert() {
+        bedrock.clearCache();
+        return bedrock.convertChunk(chunk);
+    }
+
+    @Benchmark
+    public Object bedrockConvertFromCanonical() {
+        bedrock.clearCache();
+        return bedrock.convertChunkFromCanonical(chunk);
+    }
+
+    @Benchmark
+    public Object lceBuildChunkPackets() {
+        return LCEChunkSerializer.buildChunkPackets(chunk);
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.martinambrus.rdforward.bench;
+
+import com.github.martinambrus.rdforward.world.AlphaWorldGenerator;
+import com.github.martinambrus.rdforward.world.alpha.AlphaChunk;
+
+/**
+ * Shared chunk fixtures so every benchmark works on the same realistic
+ * terrain (Alpha generator output: stone, caves, ores, water, trees)
+ * instead of hand-filled layers that compress unrealistically well.
+ */
+final class ChunkFixtures {
+
+    static final long SEED = 8_675_309L;
+
+    private ChunkFixtures() {}
+
+    /** A generated, lit chunk at the given position. */
+    static AlphaChunk generated(int chunkX, int chunkZ) {
+        AlphaChunk chunk = new AlphaWorldGenerator().generateChunk(chunkX, chunkZ, SEED);
+        chunk.generateSkylightMap();
+        return chunk;
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.martinambrus.rdforward.bench;
+
+import com.github.martinambrus.rdforward.world.alpha.AlphaChunk;
+import com.github.martinambrus.rdforward.world.alpha.CanonicalChunkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every per-version chunk serializer in {@link AlphaChunk} plus the
+ * version-independent {@link CanonicalChunkData#build} step. These run once
+ * per (chunk, protocol bucket) on a cache miss, so they bound how fast a
+ * joining player's view distance can be filled.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkSerializeBenchmark {
+
+    private AlphaChunk chunk;
+
+    @Setup
+    public void setup() {
+        chunk = ChunkFixtures.generated(3, -7);
+    }
+
+    @Benchmark
+    public Object canonicalBuild() {
+        return CanonicalChunkData.build(chunk);
+    }
+
+    @Benchmark
+    public Object alpha() throws IOException {
+        return chunk.serializeForAlphaProtocol();
+    }
+
+    @Benchmark
+    public Object v28() throws IOException {
+        return chunk.serializeForV28Protocol();
+    }
+
+    @Benchmark
+    public Object v47() {
+        return chunk.serializeForV47Protocol();
+    }
+
+    @Benchmark
+    public Object v109() {
+        return chunk.serializeForV109Protocol();
+    }
+
+    @Benchmark
+    public Object v393() {
+        return chunk.serializeForV393Protocol();
+    }
+
+    @Benchmark
+    public Object v477() {
+        return chunk.serializeForV477Protocol();
+    }
+
+    @Benchmark
+    public Object v573() {
+        return chunk.serializeForV573Protocol();
+    }
+
+    @Benchmark
+    public Object v735() {
+        return chunk.serializeForV735Protocol();
+    }
+
+    @Benchmark
+    public Object v755() {
+        return chunk.serializeForV755Protocol();
+    }
+
+    @Benchmark
+    public Object v757() {
+        return chunk.serializeForV757Protocol();
+    }
+
+    @Benchmark
+    public Object v759() {
+        return chunk.serializeForV759Protocol();
+    }
+
+    @Benchmark
+    public Object v770() {
+        return chunk.serializeForV770Protocol();
+    }
+}
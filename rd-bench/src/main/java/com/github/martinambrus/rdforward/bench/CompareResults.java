@@ -0,0 +1,134 @@
+package com.github.martinambrus.rdforward.bench;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and prints a per-benchmark delta table.
+ * Exits with status 1 if any benchmark got worse by more than the threshold
+ * percentage and the change is larger than the combined error margins of
+ * both runs, so noisy benchmarks don't fail the check on their own.
+ *
+ * Usage: CompareResults &lt;baseline.json&gt; &lt;current.json&gt; [thresholdPercent]
+ */
+public final class CompareResults {
+
+    private CompareResults() {}
+
+    /** One benchmark score, keyed by benchmark name + params. */
+    private record Score(String mode, double score, double error, String unit) {
+        /** True for throughput-style modes where a higher score is better. */
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        Path baselinePath = Path.of(args[0]);
+        Path currentPath = Path.of(args[1]);
+        double threshold = args.length >= 3 ? Double.parseDouble(args[2]) : 10.0;
+        if (!Files.isRegularFile(baselinePath)) {
+            System.err.println("[Bench] No baseline at " + baselinePath
+                    + " — run :rd-bench:jmhSaveBaseline on the reference commit first.");
+            System.exit(2);
+        }
+        if (!Files.isRegularFile(currentPath)) {
+            System.err.println("[Bench] No results at " + currentPath + " — run :rd-bench:jmh first.");
+            System.exit(2);
+        }
+
+        Map<String, Score> baseline = read(baselinePath);
+        Map<String, Score> current = read(currentPath);
+
+        int regressions = 0;
+        int improvements = 0;
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Delta");
+        for (Map.Entry<String, Score> entry : new TreeMap<>(current).entrySet()) {
+            String key = entry.getKey();
+            Score now = entry.getValue();
+            Score before = baseline.get(key);
+            if (before == null) {
+                System.out.printf("%-70s %14s %14s %9s%n", key, "-", format(now), "new");
+                continue;
+            }
+            double deltaPercent = (now.score() - before.score()) / before.score() * 100.0;
+            // Positive "worse" means the change is in the bad direction for this mode
+            double worsePercent = now.higherIsBetter() ? -deltaPercent : deltaPercent;
+            boolean significant = Math.abs(now.score() - before.score())
+                    > errorOrZero(now.error()) + errorOrZero(before.error());
+
+            String verdict = "";
+            if (significant && worsePercent > threshold) {
+                verdict = "  REGRESSION";
+                regressions++;
+            } else if (significant && -worsePercent > threshold) {
+                verdict = "  improved";
+                improvements++;
+            }
+            System.out.printf("%-70s %14s %14s %+8.1f%%%s%n",
+                    key, format(before), format(now), deltaPercent, verdict);
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-70s %14s %14s %9s%n", key, format(baseline.get(key)), "-", "removed");
+            }
+        }
+
+        System.out.println();
+        System.out.println("[Bench] " + regressions + " regression(s), " + improvements
+                + " improvement(s) beyond " + threshold + "% (outside error margins)");
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static double errorOrZero(double error) {
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String format(Score s) {
+        return String.format("%.3f %s", s.score(), s.unit());
+    }
+
+    private static Map<String, Score> read(Path path) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            JsonArray runs = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : runs) {
+                JsonObject run = element.getAsJsonObject();
+                String name = run.get("benchmark").getAsString();
+                // Strip the package so the table stays readable
+                name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+                StringBuilder key = new StringBuilder(name);
+                if (run.has("params")) {
+                    for (Map.Entry<String, JsonElement> param : run.getAsJsonObject("params").entrySet()) {
+                        key.append(' ').append(param.getKey()).append('=').append(param.getValue().getAsString());
+                    }
+                }
+                JsonObject metric = run.getAsJsonObject("primaryMetric");
+                JsonElement error = metric.get("scoreError");
+                scores.put(key.toString(), new Score(
+                        run.get("mode").getAsString(),
+                        metric.get("score").getAsDouble(),
+                        error == null || !error.isJsonPrimitive() || !error.getAsJsonPrimitive().isNumber()
+                                ? Double.NaN : error.getAsDouble(),
+                        metric.get("scoreUnit").getAsString()));
+            }
+        }
+        return scores;
+    }
+}
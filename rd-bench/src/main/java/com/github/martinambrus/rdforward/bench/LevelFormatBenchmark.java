@@ -0,0 +1,70 @@
+package com.github.martinambrus.rdforward.bench;
+
+import com.github.martinambrus.rdforward.world.alpha.AlphaChunk;
+import com.github.martinambrus.rdforward.world.alpha.AlphaLevelFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Alpha chunk persistence: NBT snapshot ({@code prepareSave}, runs on the
+ * tick thread under the SAVE lock), the full save including GZip + file
+ * write, and load. Uses a temp directory so the OS page cache, not the
+ * disk, is what's measured after warmup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelFormatBenchmark {
+
+    private File worldDir;
+    private AlphaChunk chunk;
+
+    @Setup
+    public void setup() throws IOException {
+        worldDir = Files.createTempDirectory("rd-bench-world").toFile();
+        chunk = ChunkFixtures.generated(1, 1);
+        AlphaLevelFormat.saveChunk(worldDir, chunk);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<java.nio.file.Path> paths = Files.walk(worldDir.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public Object prepareSave() {
+        return AlphaLevelFormat.prepareSave(worldDir, chunk);
+    }
+
+    @Benchmark
+    public AlphaChunk save() throws IOException {
+        AlphaLevelFormat.saveChunk(worldDir, chunk);
+        return chunk;
+    }
+
+    @Benchmark
+    public AlphaChunk load() throws IOException {
+        return AlphaLevelFormat.loadChunk(worldDir, 1, 1);
+    }
+}
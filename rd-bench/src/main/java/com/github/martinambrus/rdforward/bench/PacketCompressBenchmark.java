@@ -0,0 +1,69 @@
+package com.github.martinambrus.rdforward.bench;
+
+import com.github.martinambrus.rdforward.protocol.codec.PacketCompressEncoder;
+import com.github.martinambrus.rdforward.world.alpha.AlphaChunk;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PacketCompressEncoder} throughput across payload sizes: 64 bytes
+ * stays under the default 256-byte threshold (pass-through framing), 4 KiB
+ * is a typical mid-size packet, 64 KiB approximates a full chunk packet.
+ * Payloads are slices of real chunk block data so the deflate ratio matches
+ * production rather than compressing zeros.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketCompressBenchmark {
+
+    @Param({"64", "4096", "65536"})
+    int payloadSize;
+
+    private EmbeddedChannel channel;
+    private ByteBuf payload;
+
+    @Setup
+    public void setup() {
+        channel = new EmbeddedChannel(new PacketCompressEncoder(256));
+        AlphaChunk chunk = ChunkFixtures.generated(0, 0);
+        byte[] source = new byte[payloadSize];
+        byte[] blocks = chunk.getBlocks();
+        for (int i = 0; i < payloadSize; i++) {
+            source[i] = blocks[i % blocks.length];
+        }
+        payload = Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(source));
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int compress() {
+        channel.writeOutbound(payload.duplicate());
+        ByteBuf out = channel.readOutbound();
+        int size = out.readableBytes();
+        out.release();
+        return size;
+    }
+}
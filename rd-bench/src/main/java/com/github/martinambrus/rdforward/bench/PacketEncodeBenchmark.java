@@ -0,0 +1,96 @@
+package com.github.martinambrus.rdforward.bench;
+
+import com.github.martinambrus.rdforward.protocol.codec.NettyPacketEncoder;
+import com.github.martinambrus.rdforward.protocol.packet.ConnectionState;
+import com.github.martinambrus.rdforward.protocol.packet.NettyPacketRegistry;
+import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import com.github.martinambrus.rdforward.protocol.packet.PacketDirection;
+import com.github.martinambrus.rdforward.protocol.packet.netty.EntityRelativeMovePacketV109;
+import com.github.martinambrus.rdforward.protocol.packet.netty.EntityTeleportPacketV109;
+import com.github.martinambrus.rdforward.protocol.packet.netty.KeepAlivePacketV340;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-packet cost of the Netty-era encode path: the version-aware
+ * {@link NettyPacketRegistry#getPacketId} lookup that runs for every
+ * outbound packet, and the full {@link NettyPacketEncoder} (lookup + VarInt
+ * id + payload write) on the packets that dominate steady-state traffic.
+ *
+ * protocolVersion spans the overlay chain: 340 resolves in an early holder,
+ * 775 checks the newest overlay first, 767 falls through several.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketEncodeBenchmark {
+
+    @Param({"340", "767", "775"})
+    int protocolVersion;
+
+    private EmbeddedChannel channel;
+    private Packet relativeMove;
+    private Packet teleport;
+    private Packet keepAlive;
+
+    @Setup
+    public void setup() {
+        NettyPacketEncoder encoder = new NettyPacketEncoder(ConnectionState.PLAY);
+        encoder.setProtocolVersion(protocolVersion);
+        channel = new EmbeddedChannel(encoder);
+        relativeMove = new EntityRelativeMovePacketV109(42, (short) 128, (short) 0, (short) -64);
+        teleport = new EntityTeleportPacketV109(42, 100.5, 64.0, -200.25, 90, 0);
+        keepAlive = new KeepAlivePacketV340(123_456_789L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int registryLookup() {
+        return NettyPacketRegistry.getPacketId(ConnectionState.PLAY, PacketDirection.SERVER_TO_CLIENT,
+                EntityRelativeMovePacketV109.class, protocolVersion);
+    }
+
+    @Benchmark
+    public int encodeRelativeMove() {
+        return encode(relativeMove);
+    }
+
+    @Benchmark
+    public int encodeTeleport() {
+        return encode(teleport);
+    }
+
+    @Benchmark
+    public int encodeKeepAlive() {
+        return encode(keepAlive);
+    }
+
+    private int encode(Packet packet) {
+        channel.writeOutbound(packet);
+        ByteBuf out = channel.readOutbound();
+        int size = out.readableBytes();
+        out.release();
+        return size;
+    }
+}
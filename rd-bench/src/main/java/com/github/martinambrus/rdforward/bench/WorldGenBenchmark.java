@@ -0,0 +1,51 @@
+package com.github.martinambrus.rdforward.bench;
+
+import com.github.martinambrus.rdforward.world.AlphaWorldGenerator;
+import com.github.martinambrus.rdforward.world.alpha.AlphaChunk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Terrain generation and skylight, the CPU cost the chunk generation
+ * workers pay for every chunk that isn't already on disk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorldGenBenchmark {
+
+    private final AlphaWorldGenerator generator = new AlphaWorldGenerator();
+    private AlphaChunk chunk;
+    private int nextChunk;
+
+    @Setup
+    public void setup() {
+        chunk = ChunkFixtures.generated(0, 0);
+    }
+
+    /** Walks along X so each call generates a new chunk, like a player exploring. */
+    @Benchmark
+    public AlphaChunk generateChunk() {
+        int x = nextChunk++;
+        return generator.generateChunk(x, x >> 4, ChunkFixtures.SEED);
+    }
+
+    @Benchmark
+    public AlphaChunk generateSkylightMap() {
+        chunk.generateSkylightMap();
+        return chunk;
+    }
+}
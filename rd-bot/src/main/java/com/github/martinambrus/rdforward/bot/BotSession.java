@@ -73,7 +73,7 @@ public class BotSession {
     private final AtomicInteger positionUpdateCount = new AtomicInteger();
     /** Packed (chunkX, chunkZ) -> byte[32768] block IDs in AlphaChunk YZX order. */
     private final ConcurrentHashMap<Long, byte[]> chunkBlocks = new ConcurrentHashMap<>();
-    /** Packed (chunkX, chunkZ) set for Bedrock chunks (received, not yet parsed). */
+    /** Packed (chunkX, chunkZ) set for chunks received but not kept (Bedrock, or lightweight mode). */
     private final Set<Long> bedrockChunksReceived = ConcurrentHashMap.newKeySet();
     /** Spawn Y (set once during markLoginComplete from current y). */
     private volatile double spawnY = Double.NaN;
@@ -99,6 +99,15 @@ public class BotSession {
     // Listeners for wait-for-packet
     private final CopyOnWriteArrayList<PacketListener<?>> packetListeners = new CopyOnWriteArrayList<>();
 
+    /**
+     * Load-test mode: skip the packet log, chat log and per-chunk block
+     * arrays, which grow without bound and are only needed by assertions.
+     * Chunk arrival is still tracked as a key, and wait methods that rely
+     * on packet listeners keep working.
+     */
+    private volatile boolean lightweight;
+    private volatile Observer observer;
+
     public BotSession(Channel channel, ProtocolVersion version) {
         this.channel = channel;
         this.bedrockSession = null;
@@ -116,7 +125,9 @@ public class BotSession {
     // ---- Recording methods (called by BotPacketHandler) ----
 
     void recordPacket(Packet packet) {
-        receivedPackets.add(packet);
+        if (!lightweight) {
+            receivedPackets.add(packet);
+        }
         notifyListeners(packet);
     }
 
@@ -142,11 +153,17 @@ public class BotSession {
     }
 
     void recordChat(String message) {
-        chatMessages.add(message);
+        if (!lightweight) {
+            chatMessages.add(message);
+        }
+        Observer o = observer;
+        if (o != null) o.onChat(message);
     }
 
     void recordBlockChange(int x, int y, int z, int blockType) {
         blockChanges.put(packCoords(x, y, z), blockType);
+        Observer o = observer;
+        if (o != null) o.onBlockChange(x, y, z, blockType);
     }
 
     void recordSpawnPlayer(int entityId, String playerName) {
@@ -158,11 +175,19 @@ public class BotSession {
     }
 
     void recordChunkBlocks(int chunkX, int chunkZ, byte[] blockIds) {
-        chunkBlocks.put(packChunkCoord(chunkX, chunkZ), blockIds);
+        if (lightweight) {
+            bedrockChunksReceived.add(packChunkCoord(chunkX, chunkZ));
+        } else {
+            chunkBlocks.put(packChunkCoord(chunkX, chunkZ), blockIds);
+        }
+        Observer o = observer;
+        if (o != null) o.onChunk(chunkX, chunkZ);
     }
 
     void recordBedrockChunk(int chunkX, int chunkZ) {
         bedrockChunksReceived.add(packChunkCoord(chunkX, chunkZ));
+        Observer o = observer;
+        if (o != null) o.onChunk(chunkX, chunkZ);
     }
 
     void recordAddToInventory(int itemId, int count) {
@@ -358,13 +383,12 @@ public class BotSession {
     public boolean waitForChunkAt(int worldX, int worldZ, long timeoutMs) throws InterruptedException {
         int chunkX = worldX >> 4;
         int chunkZ = worldZ >> 4;
-        long key = packChunkCoord(chunkX, chunkZ);
         long deadline = System.currentTimeMillis() + timeoutMs;
         while (System.currentTimeMillis() < deadline) {
-            if (chunkBlocks.containsKey(key) || bedrockChunksReceived.contains(key)) return true;
+            if (hasChunk(chunkX, chunkZ)) return true;
             Thread.sleep(50);
         }
-        return chunkBlocks.containsKey(key) || bedrockChunksReceived.contains(key);
+        return hasChunk(chunkX, chunkZ);
     }
 
     /**
@@ -768,6 +792,9 @@ public class BotSession {
     public float getYaw() { return yaw; }
     public float getPitch() { return pitch; }
     public boolean isLoginComplete() { return loginComplete; }
+    public boolean isLightweight() { return lightweight; }
+    public void setLightweight(boolean lightweight) { this.lightweight = lightweight; }
+    public void setObserver(Observer observer) { this.observer = observer; }
     public ProtocolVersion getVersion() { return version; }
     public CopyOnWriteArrayList<Packet> getReceivedPackets() { return receivedPackets; }
     public CopyOnWriteArrayList<String> getChatMessages() { return chatMessages; }
@@ -828,6 +855,15 @@ public class BotSession {
         return feetBlock == 0 && belowBlock != 0;
     }
 
+    /**
+     * Returns true if chunk data for the given chunk has been received,
+     * whether it was kept in full or only recorded as arrived.
+     */
+    public boolean hasChunk(int chunkX, int chunkZ) {
+        long key = packChunkCoord(chunkX, chunkZ);
+        return chunkBlocks.containsKey(key) || bedrockChunksReceived.contains(key);
+    }
+
     // ---- Helpers ----
 
     private static long packChunkCoord(int chunkX, int chunkZ) {
@@ -845,6 +881,17 @@ public class BotSession {
         }
     }
 
+    /**
+     * Callback for load generators that need to react to world updates as
+     * they arrive instead of polling. Called on the bot's network thread,
+     * so implementations must be quick and thread-safe.
+     */
+    public interface Observer {
+        default void onChunk(int chunkX, int chunkZ) {}
+        default void onBlockChange(int x, int y, int z, int blockType) {}
+        default void onChat(String message) {}
+    }
+
     /**
      * Internal listener that waits for a specific packet type.
      */
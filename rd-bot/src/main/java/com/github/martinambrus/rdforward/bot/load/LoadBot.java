@@ -0,0 +1,287 @@
+package com.github.martinambrus.rdforward.bot.load;
+
+import com.github.martinambrus.rdforward.bot.BotSession;
+import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
+import com.github.martinambrus.rdforward.protocol.packet.classic.PlayerTeleportPacket;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scripted behaviour for one connected load-test bot.
+ *
+ * Every {@link #STEP_MS} the bot takes a walking-speed step along a
+ * wandering heading, turning back toward spawn once it strays further
+ * than the configured radius, so it keeps crossing chunk borders. At
+ * intervals it stops to place a short row of blocks in front of itself
+ * and break them again, and it sends chat messages carrying a sequence
+ * token.
+ *
+ * Latencies are measured from the send to the server's echo, observed
+ * through {@link BotSession.Observer} on the network thread:
+ * <ul>
+ *   <li>chunk arrival: crossing into a new chunk until the first chunk
+ *       this bot has not seen before arrives</li>
+ *   <li>block round trip: place/break sent until the matching block
+ *       change comes back</li>
+ *   <li>chat round trip: message sent until it is broadcast back</li>
+ * </ul>
+ * Requests without an answer after {@link #TIMEOUT_NANOS} count as timeouts.
+ */
+final class LoadBot implements BotSession.Observer {
+
+    static final long STEP_MS = 100;
+    /** About 4.3 blocks/s, vanilla walking speed. */
+    private static final double STEP_DISTANCE = 0.43;
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    /** Delay between placing a burst and breaking it again. */
+    private static final long BREAK_DELAY_MS = 1000;
+    /** Cobblestone: valid in every protocol's item and block tables. */
+    private static final int BLOCK_ITEM = 4;
+
+    private final String name;
+    private final BotSession session;
+    private final LoadTestConfig config;
+    private final LoadTestReport report;
+    private final Random random;
+
+    private final double spawnX, spawnZ, feetY;
+    private double x, z;
+    private double heading;
+
+    private int chunkX, chunkZ;
+    /** Chunks this bot has received, so resends are not mistaken for new arrivals. */
+    private final Set<Long> seenChunks = ConcurrentHashMap.newKeySet();
+    /** nanoTime of the last chunk border crossing still waiting for a new chunk, or 0. */
+    private volatile long chunkPendingSince;
+
+    /** Packed block position -> nanoTime the place/break was sent. */
+    private final Map<Long, Long> pendingPlaces = new ConcurrentHashMap<>();
+    private final Map<Long, Long> pendingBreaks = new ConcurrentHashMap<>();
+    /** Chat sequence token -> nanoTime the message was sent. */
+    private final Map<String, Long> pendingChats = new ConcurrentHashMap<>();
+    private int chatSequence;
+
+    private long nextBlockAt, nextChatAt;
+    /** While building, the bot stands still so its blocks stay within reach. */
+    private long pausedUntil;
+    private boolean closed;
+    private EventLoop loop;
+    private ScheduledFuture<?> task;
+
+    LoadBot(String name, BotSession session, LoadTestConfig config, LoadTestReport report, long seed) {
+        this.name = name;
+        this.session = session;
+        this.config = config;
+        this.report = report;
+        this.random = new Random(seed);
+        this.spawnX = session.getX();
+        this.spawnZ = session.getZ();
+        this.feetY = feetLevel(session);
+        this.x = spawnX;
+        this.z = spawnZ;
+        this.heading = random.nextDouble() * Math.PI * 2;
+        this.chunkX = floorChunk(x);
+        this.chunkZ = floorChunk(z);
+
+        long now = System.currentTimeMillis();
+        // Spread the first actions so bots that joined together do not act in lockstep
+        nextBlockAt = config.blockIntervalMs > 0 ? now + (long) (random.nextDouble() * config.blockIntervalMs) : Long.MAX_VALUE;
+        nextChatAt = config.chatIntervalMs > 0 ? now + (long) (random.nextDouble() * config.chatIntervalMs) : Long.MAX_VALUE;
+        session.setObserver(this);
+    }
+
+    /** Start stepping on one of the shared event loops. */
+    void start(EventLoopGroup group) {
+        loop = group.next();
+        task = loop.scheduleAtFixedRate(this::step,
+                random.nextInt((int) STEP_MS), STEP_MS, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        if (task != null) task.cancel(false);
+        session.setObserver(null);
+    }
+
+    ProtocolVersion getVersion() {
+        return session.getVersion();
+    }
+
+    private void step() {
+        if (closed) return;
+        if (!session.isConnected()) {
+            closed = true;
+            report.recordDisconnect(name);
+            stop();
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            expirePending(System.nanoTime());
+            if (now >= pausedUntil) {
+                walk();
+            }
+            if (now >= nextBlockAt) {
+                placeBurst(now);
+                nextBlockAt = now + config.blockIntervalMs;
+            }
+            if (now >= nextChatAt) {
+                sendChat();
+                nextChatAt = now + config.chatIntervalMs;
+            }
+        } catch (RuntimeException e) {
+            // Never let one bot's failure cancel its schedule silently
+            report.recordError(name, e);
+        }
+    }
+
+    private void walk() {
+        double dx = x - spawnX;
+        double dz = z - spawnZ;
+        if (dx * dx + dz * dz > (double) config.walkRadius * config.walkRadius) {
+            heading = Math.atan2(-dz, -dx) + (random.nextDouble() - 0.5) * 0.5;
+        } else if (random.nextInt(20) == 0) {
+            heading += (random.nextDouble() - 0.5) * Math.PI / 2;
+        }
+        x += Math.cos(heading) * STEP_DISTANCE;
+        z += Math.sin(heading) * STEP_DISTANCE;
+        float yaw = (float) Math.toDegrees(heading) - 90f;
+        if (session.getVersion().isAtLeast(ProtocolVersion.ALPHA_1_0_15)) {
+            session.sendPosition(x, feetY, z, yaw, 0);
+        } else {
+            // sendPosition speaks Alpha; Classic/RubyDung move with a
+            // fixed-point, eye-level teleport and byte angles
+            double eyeY = feetY + (double) 1.62f;
+            session.sendPacket(new PlayerTeleportPacket(0xFF,
+                    (short) Math.round(x * 32), (short) Math.round(eyeY * 32), (short) Math.round(z * 32),
+                    (int) (yaw * 256 / 360) & 0xFF, 0));
+        }
+
+        int cx = floorChunk(x);
+        int cz = floorChunk(z);
+        if (cx != chunkX || cz != chunkZ) {
+            chunkX = cx;
+            chunkZ = cz;
+            report.recordChunkCrossing();
+            if (chunkPendingSince == 0) {
+                chunkPendingSince = System.nanoTime();
+            }
+        }
+    }
+
+    private void placeBurst(long now) {
+        int bx = (int) Math.floor(x);
+        int bz = (int) Math.floor(z) + 2;
+        int groundY = (int) Math.floor(feetY) - 1;
+        int first = bx - config.blockBurst / 2;
+        long sentAt = System.nanoTime();
+        for (int i = 0; i < config.blockBurst; i++) {
+            pendingPlaces.put(pack(first + i, groundY + 1, bz), sentAt);
+            session.sendBlockPlace(first + i, groundY, bz, 1, BLOCK_ITEM);
+        }
+        report.recordBlocksSent(config.blockBurst);
+        pausedUntil = now + BREAK_DELAY_MS + STEP_MS;
+        loop.schedule(() -> breakBurst(first, groundY + 1, bz),
+                BREAK_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void breakBurst(int firstX, int y, int z) {
+        if (closed || !session.isConnected()) return;
+        long sentAt = System.nanoTime();
+        for (int i = 0; i < config.blockBurst; i++) {
+            pendingBreaks.put(pack(firstX + i, y, z), sentAt);
+            // Creative mode: STATUS_STARTED breaks instantly
+            session.sendDigging(0, firstX + i, y, z, 1);
+        }
+        report.recordBlocksSent(config.blockBurst);
+    }
+
+    private void sendChat() {
+        String token = name + "#" + (chatSequence++);
+        pendingChats.put(token, System.nanoTime());
+        session.sendChat("load " + token);
+    }
+
+    private void expirePending(long now) {
+        report.recordBlockTimeouts(expire(pendingPlaces, now) + expire(pendingBreaks, now));
+        report.recordChatTimeouts(expire(pendingChats, now));
+        long since = chunkPendingSince;
+        if (since != 0 && now - since > TIMEOUT_NANOS) {
+            // Walked back into chunks it already has: nothing new is owed
+            chunkPendingSince = 0;
+        }
+    }
+
+    private static <K> int expire(Map<K, Long> pending, long now) {
+        int expired = 0;
+        for (Iterator<Long> it = pending.values().iterator(); it.hasNext(); ) {
+            if (now - it.next() > TIMEOUT_NANOS) {
+                it.remove();
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    // ---- Observer (network thread) ----
+
+    @Override
+    public void onChunk(int cx, int cz) {
+        if (!seenChunks.add(pack(cx, 0, cz))) return;
+        long since = chunkPendingSince;
+        if (since != 0) {
+            chunkPendingSince = 0;
+            report.recordChunkLatency(System.nanoTime() - since);
+        }
+        report.recordChunkReceived();
+    }
+
+    @Override
+    public void onBlockChange(int bx, int by, int bz, int blockType) {
+        long key = pack(bx, by, bz);
+        Long sentAt = blockType == 0 ? pendingBreaks.remove(key) : pendingPlaces.remove(key);
+        if (sentAt != null) {
+            report.recordBlockLatency(blockType != 0, System.nanoTime() - sentAt);
+        }
+    }
+
+    @Override
+    public void onChat(String message) {
+        int at = message.indexOf(name + "#");
+        if (at < 0) return;
+        int end = at + name.length() + 1;
+        while (end < message.length() && Character.isDigit(message.charAt(end))) end++;
+        Long sentAt = pendingChats.remove(message.substring(at, end));
+        if (sentAt != null) {
+            report.recordChatLatency(System.nanoTime() - sentAt);
+        }
+    }
+
+    /**
+     * The session's last server-reported Y at feet level, as sendPosition
+     * takes it. Netty 1.8+ reports feet; everything else, Bedrock included,
+     * reports eye level.
+     */
+    private static double feetLevel(BotSession session) {
+        ProtocolVersion version = session.getVersion();
+        if (version != ProtocolVersion.BEDROCK && version.isAtLeast(ProtocolVersion.RELEASE_1_8)) {
+            return session.getY();
+        }
+        return session.getY() - (double) 1.62f;
+    }
+
+    private static int floorChunk(double coord) {
+        return (int) Math.floor(coord) >> 4;
+    }
+
+    private static long pack(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | ((long) y & 0xFFFL);
+    }
+}
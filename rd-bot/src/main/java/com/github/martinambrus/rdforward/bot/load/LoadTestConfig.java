@@ -0,0 +1,153 @@
+package com.github.martinambrus.rdforward.bot.load;
+
+import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Settings for a load-test run, parsed from {@code --key=value} arguments.
+ *
+ * <pre>
+ *   --host=localhost       server to connect to (ignored with --embedded)
+ *   --port=25565           TCP port; Bedrock bots use --bedrock-port
+ *   --bedrock-port=19132
+ *   --embedded             start an RDServer in this process on random ports
+ *   --bots=200             number of bots
+ *   --ramp=20              bots started per second
+ *   --connect-threads=8    concurrent blocking logins
+ *   --threads=4            event loop threads shared by all bots
+ *   --duration=120         seconds to run after the last bot has joined
+ *   --mix=RELEASE_1_8=40,BETA_1_7_3=20,RELEASE_1_21_11=30,BEDROCK=10
+ *   --walk-radius=64       blocks from spawn a bot may wander
+ *   --block-interval=5000  ms between place/break bursts (0 disables)
+ *   --block-burst=4        blocks per burst
+ *   --chat-interval=15000  ms between chat messages (0 disables)
+ *   --seed=1               RNG seed for protocol assignment and behaviour
+ *   --report=file.txt      also write the report to this file
+ * </pre>
+ */
+public final class LoadTestConfig {
+
+    String host = "localhost";
+    int port = 25565;
+    int bedrockPort = 19132;
+    boolean embedded;
+    int bots = 100;
+    int rampPerSecond = 20;
+    int connectThreads = 8;
+    int eventLoopThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    int durationSeconds = 60;
+    String mix = "RELEASE_1_8=40,BETA_1_7_3=20,RELEASE_1_21_11=30,CLASSIC=10";
+    int walkRadius = 64;
+    long blockIntervalMs = 5000;
+    int blockBurst = 4;
+    long chatIntervalMs = 15000;
+    long seed = 1;
+    String reportFile;
+
+    /** Weighted protocol choices, resolved from {@link #mix}. */
+    private final List<ProtocolVersion> versions = new ArrayList<>();
+    private final List<Integer> weights = new ArrayList<>();
+    private int totalWeight;
+
+    public static LoadTestConfig parse(String[] args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            String key = eq < 0 ? arg.substring(2) : arg.substring(2, eq);
+            String value = eq < 0 ? "true" : arg.substring(eq + 1);
+            switch (key) {
+                case "host": config.host = value; break;
+                case "port": config.port = Integer.parseInt(value); break;
+                case "bedrock-port": config.bedrockPort = Integer.parseInt(value); break;
+                case "embedded": config.embedded = Boolean.parseBoolean(value); break;
+                case "bots": config.bots = Math.max(1, Integer.parseInt(value)); break;
+                case "ramp": config.rampPerSecond = Math.max(1, Integer.parseInt(value)); break;
+                case "connect-threads": config.connectThreads = Math.max(1, Integer.parseInt(value)); break;
+                case "threads": config.eventLoopThreads = Math.max(1, Integer.parseInt(value)); break;
+                case "duration": config.durationSeconds = Math.max(1, Integer.parseInt(value)); break;
+                case "mix": config.mix = value; break;
+                case "walk-radius": config.walkRadius = Math.max(0, Integer.parseInt(value)); break;
+                case "block-interval": config.blockIntervalMs = Math.max(0, Long.parseLong(value)); break;
+                case "block-burst": config.blockBurst = Math.max(1, Integer.parseInt(value)); break;
+                case "chat-interval": config.chatIntervalMs = Math.max(0, Long.parseLong(value)); break;
+                case "seed": config.seed = Long.parseLong(value); break;
+                case "report": config.reportFile = value; break;
+                default: throw new IllegalArgumentException("Unknown option: --" + key);
+            }
+        }
+        config.resolveMix();
+        return config;
+    }
+
+    private void resolveMix() {
+        versions.clear();
+        weights.clear();
+        totalWeight = 0;
+        for (String entry : mix.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) continue;
+            int eq = entry.indexOf('=');
+            String name = eq < 0 ? entry : entry.substring(0, eq).trim();
+            int weight = eq < 0 ? 1 : Integer.parseInt(entry.substring(eq + 1).trim());
+            if (weight <= 0) continue;
+            ProtocolVersion version;
+            try {
+                version = ProtocolVersion.valueOf(name.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown protocol version in --mix: " + name);
+            }
+            if (version == ProtocolVersion.RUBYDUNG || version == ProtocolVersion.LCE_TU19) {
+                throw new IllegalArgumentException("No bot client for " + name);
+            }
+            versions.add(version);
+            weights.add(weight);
+            totalWeight += weight;
+        }
+        if (versions.isEmpty()) {
+            throw new IllegalArgumentException("--mix selects no protocol versions");
+        }
+    }
+
+    /**
+     * Assign a protocol version to each bot. Counts follow the weights
+     * exactly (largest remainder), then the order is shuffled so every
+     * ramp step sees the whole mix.
+     */
+    public List<ProtocolVersion> assignVersions() {
+        List<ProtocolVersion> result = new ArrayList<>(bots);
+        double[] remainders = new double[versions.size()];
+        int assigned = 0;
+        for (int i = 0; i < versions.size(); i++) {
+            double exact = (double) bots * weights.get(i) / totalWeight;
+            int count = (int) exact;
+            remainders[i] = exact - count;
+            for (int j = 0; j < count; j++) result.add(versions.get(i));
+            assigned += count;
+        }
+        while (assigned < bots) {
+            int best = 0;
+            for (int i = 1; i < remainders.length; i++) {
+                if (remainders[i] > remainders[best]) best = i;
+            }
+            result.add(versions.get(best));
+            remainders[best] = -1;
+            assigned++;
+        }
+        Collections.shuffle(result, new Random(seed));
+        return result;
+    }
+
+    public String describe() {
+        return bots + " bots, ramp " + rampPerSecond + "/s, " + durationSeconds + "s, mix " + mix
+                + ", walk radius " + walkRadius
+                + ", blocks " + (blockIntervalMs > 0 ? blockBurst + " every " + blockIntervalMs + "ms" : "off")
+                + ", chat " + (chatIntervalMs > 0 ? "every " + chatIntervalMs + "ms" : "off");
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.martinambrus.rdforward.bot.load;
+
+import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
+import com.github.martinambrus.rdforward.server.profiler.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe counters and latency histograms collected during a load test,
+ * plus the plain-text report printed at the end. Uses the server profiler's
+ * {@link LatencyHistogram} so bot-side and server-side numbers share the
+ * same bucketing.
+ */
+public final class LoadTestReport {
+
+    /** Errors printed in full before further ones are only counted. */
+    private static final int MAX_LOGGED_ERRORS = 10;
+
+    private final LatencyHistogram join = new LatencyHistogram();
+    private final LatencyHistogram chunk = new LatencyHistogram();
+    private final LatencyHistogram place = new LatencyHistogram();
+    private final LatencyHistogram breaks = new LatencyHistogram();
+    private final LatencyHistogram chat = new LatencyHistogram();
+    private final Map<ProtocolVersion, LatencyHistogram> joinByVersion = new ConcurrentHashMap<>();
+    private final Map<ProtocolVersion, AtomicInteger> failuresByVersion = new ConcurrentHashMap<>();
+
+    private final LongAdder joinFailures = new LongAdder();
+    private final LongAdder disconnects = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder chunkCrossings = new LongAdder();
+    private final LongAdder chunksReceived = new LongAdder();
+    private final LongAdder blocksSent = new LongAdder();
+    private final LongAdder blockTimeouts = new LongAdder();
+    private final LongAdder chatTimeouts = new LongAdder();
+
+    void recordJoin(ProtocolVersion version, long nanos) {
+        join.record(nanos);
+        joinByVersion.computeIfAbsent(version, v -> new LatencyHistogram()).record(nanos);
+    }
+
+    void recordJoinFailure(ProtocolVersion version, String name, Exception cause) {
+        joinFailures.increment();
+        failuresByVersion.computeIfAbsent(version, v -> new AtomicInteger()).incrementAndGet();
+        logError(name + " (" + version + ") failed to join: " + cause.getMessage());
+    }
+
+    void recordDisconnect(String name) {
+        disconnects.increment();
+        logError(name + " was disconnected");
+    }
+
+    void recordError(String name, Exception e) {
+        logError(name + ": " + e);
+    }
+
+    private void logError(String message) {
+        errors.increment();
+        if (errors.sum() <= MAX_LOGGED_ERRORS) {
+            System.err.println("[LoadTest] " + message);
+        }
+    }
+
+    void recordChunkCrossing() { chunkCrossings.increment(); }
+    void recordChunkReceived() { chunksReceived.increment(); }
+    void recordChunkLatency(long nanos) { chunk.record(nanos); }
+    void recordBlocksSent(int count) { blocksSent.add(count); }
+    void recordBlockTimeouts(int count) { if (count > 0) blockTimeouts.add(count); }
+    void recordChatTimeouts(int count) { if (count > 0) chatTimeouts.add(count); }
+    void recordChatLatency(long nanos) { chat.record(nanos); }
+
+    void recordBlockLatency(boolean placed, long nanos) {
+        (placed ? place : breaks).record(nanos);
+    }
+
+    public long getJoins() { return join.getCount(); }
+    public long getJoinFailures() { return joinFailures.sum(); }
+    public long getDisconnects() { return disconnects.sum(); }
+    public long getBlockRoundTrips() { return place.getCount() + breaks.getCount(); }
+    public long getChunksReceived() { return chunksReceived.sum(); }
+    public long getChatRoundTrips() { return chat.getCount(); }
+
+    /** Format the report; {@code elapsedMs} is the measured phase after ramp-up. */
+    public String format(LoadTestConfig config, long elapsedMs) {
+        StringBuilder sb = new StringBuilder(2048);
+        sb.append("=== RDForward load test ===\n");
+        sb.append(config.describe()).append('\n');
+        sb.append(String.format("Run time: %.1fs%n", elapsedMs / 1000.0));
+        sb.append(String.format("Joined: %d, failed: %d, disconnected during run: %d%n",
+                join.getCount(), joinFailures.sum(), disconnects.sum()));
+        sb.append(String.format("Chunks received: %d, chunk borders crossed: %d%n",
+                chunksReceived.sum(), chunkCrossings.sum()));
+        sb.append(String.format("Block actions sent: %d, round trips: %d, timeouts: %d%n",
+                blocksSent.sum(), place.getCount() + breaks.getCount(), blockTimeouts.sum()));
+        sb.append(String.format("Chat round trips: %d, timeouts: %d%n", chat.getCount(), chatTimeouts.sum()));
+        sb.append('\n');
+        sb.append(String.format("%-22s %8s %9s %9s %9s %9s %9s%n",
+                "Latency (ms)", "count", "mean", "p50", "p90", "p99", "max"));
+        appendRow(sb, "join", join);
+        appendRow(sb, "chunk arrival", chunk);
+        appendRow(sb, "block place rtt", place);
+        appendRow(sb, "block break rtt", breaks);
+        appendRow(sb, "chat rtt", chat);
+        if (joinByVersion.size() > 1 || !failuresByVersion.isEmpty()) {
+            sb.append("\nJoin latency by protocol:\n");
+            Map<ProtocolVersion, LatencyHistogram> sorted = new TreeMap<>(joinByVersion);
+            for (ProtocolVersion v : failuresByVersion.keySet()) {
+                sorted.putIfAbsent(v, new LatencyHistogram());
+            }
+            for (Map.Entry<ProtocolVersion, LatencyHistogram> e : sorted.entrySet()) {
+                AtomicInteger failed = failuresByVersion.get(e.getKey());
+                String label = e.getKey().name() + (failed != null ? " (" + failed.get() + " failed)" : "");
+                appendRow(sb, label, e.getValue());
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendRow(StringBuilder sb, String label, LatencyHistogram h) {
+        sb.append(String.format("%-22s %8d %9.1f %9.1f %9.1f %9.1f %9.1f%n", label, h.getCount(),
+                ms(h.getMean()), ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+                ms(h.getValueAtPercentile(99)), ms(h.getMax())));
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
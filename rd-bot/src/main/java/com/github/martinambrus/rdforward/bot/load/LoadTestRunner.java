@@ -0,0 +1,220 @@
+package com.github.martinambrus.rdforward.bot.load;
+
+import com.github.martinambrus.rdforward.bot.BotBedrockClient;
+import com.github.martinambrus.rdforward.bot.BotClient;
+import com.github.martinambrus.rdforward.bot.BotSession;
+import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
+import com.github.martinambrus.rdforward.server.RDServer;
+import com.github.martinambrus.rdforward.server.api.GriefProtection;
+import com.github.martinambrus.rdforward.server.api.ServerProperties;
+import io.netty.channel.nio.NioEventLoopGroup;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless load generator: connects hundreds of protocol-level bots from
+ * one process and drives them with {@link LoadBot} scripts.
+ *
+ * All bots share a single {@link NioEventLoopGroup}; logins are blocking,
+ * so they run on a small connector pool and are started at a fixed ramp
+ * rate. Once every bot has joined (or failed), the run continues for the
+ * configured duration and then prints a {@link LoadTestReport}.
+ *
+ * Targets an RDServer on the given host/port, or with {@code --embedded}
+ * starts one in-process on random ports. For an external server, set
+ * {@code spawn-protection=0} and raise {@code max-players}, or the bots'
+ * block bursts near spawn and extra logins will be refused.
+ *
+ * Run with {@code gradle :rd-bot:loadTest -Pload.args="--embedded --bots=200"}.
+ */
+public final class LoadTestRunner {
+
+    private static final long JOIN_TIMEOUT_MS = 30_000;
+
+    private final LoadTestConfig config;
+    private final LoadTestReport report = new LoadTestReport();
+    private final List<LoadBot> bots = Collections.synchronizedList(new ArrayList<>());
+    private final List<Runnable> disconnectors = Collections.synchronizedList(new ArrayList<>());
+
+    private RDServer server;
+    private NioEventLoopGroup group;
+
+    public LoadTestRunner(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("[LoadTest] " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        LoadTestReport report = new LoadTestRunner(config).run();
+        System.exit(report.getJoins() > 0 ? 0 : 1);
+    }
+
+    /** Run the whole test and return its report (also printed to stdout). */
+    public LoadTestReport run() throws Exception {
+        System.out.println("[LoadTest] " + config.describe());
+        if (config.embedded) {
+            startEmbeddedServer();
+        }
+        group = new NioEventLoopGroup(config.eventLoopThreads);
+        try {
+            long rampStart = System.nanoTime();
+            connectAll();
+            System.out.printf("[LoadTest] Ramp-up finished in %.1fs: %d joined, %d failed%n",
+                    (System.nanoTime() - rampStart) / 1e9, report.getJoins(), report.getJoinFailures());
+
+            long runStart = System.currentTimeMillis();
+            long end = runStart + config.durationSeconds * 1000L;
+            long nextProgress = runStart + 10_000;
+            while (System.currentTimeMillis() < end) {
+                Thread.sleep(Math.min(1000, Math.max(1, end - System.currentTimeMillis())));
+                if (System.currentTimeMillis() >= nextProgress) {
+                    System.out.printf("[LoadTest] %ds: %d chunks, %d block round trips, %d chat round trips, %d disconnected%n",
+                            (System.currentTimeMillis() - runStart) / 1000, report.getChunksReceived(),
+                            report.getBlockRoundTrips(), report.getChatRoundTrips(), report.getDisconnects());
+                    nextProgress += 10_000;
+                }
+            }
+            long elapsed = System.currentTimeMillis() - runStart;
+
+            synchronized (bots) {
+                for (LoadBot bot : bots) bot.stop();
+            }
+            String text = report.format(config, elapsed);
+            System.out.print(text);
+            if (config.reportFile != null) {
+                Files.writeString(Path.of(config.reportFile), text, StandardCharsets.UTF_8);
+                System.out.println("[LoadTest] Report written to " + config.reportFile);
+            }
+            return report;
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void startEmbeddedServer() throws InterruptedException {
+        ServerProperties.set("spawn-protection", "0");
+        ServerProperties.set("max-players", String.valueOf(Math.max(ServerProperties.getMaxPlayers(), config.bots)));
+        server = new RDServer(0);
+        server.setBedrockPort(0);
+        server.start();
+        // Bots build and break their own blocks; the grief budget would
+        // cap a long run without telling us anything about performance.
+        GriefProtection.disable();
+        config.host = "localhost";
+        config.port = server.getActualPort();
+        config.bedrockPort = server.getActualBedrockPort();
+        System.out.println("[LoadTest] Embedded server on port " + config.port
+                + " (Bedrock " + config.bedrockPort + ")");
+    }
+
+    private void connectAll() throws InterruptedException {
+        List<ProtocolVersion> versions = config.assignVersions();
+        ExecutorService connectors = Executors.newFixedThreadPool(config.connectThreads, r -> {
+            Thread t = new Thread(r, "RDForward-LoadConnect");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger started = new AtomicInteger();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rampPerSecond;
+        long next = System.nanoTime();
+        for (int i = 0; i < versions.size(); i++) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+            next += intervalNanos;
+            int index = i;
+            ProtocolVersion version = versions.get(i);
+            connectors.execute(() -> {
+                connect("Load" + index, version, index);
+                int n = started.incrementAndGet();
+                if (n % 50 == 0) {
+                    System.out.println("[LoadTest] " + n + "/" + versions.size() + " bots connected");
+                }
+            });
+        }
+        connectors.shutdown();
+        connectors.awaitTermination(JOIN_TIMEOUT_MS * 2 + versions.size() * 1000L, TimeUnit.MILLISECONDS);
+    }
+
+    private void connect(String name, ProtocolVersion version, int index) {
+        try {
+            BotSession session;
+            long start;
+            if (version == ProtocolVersion.BEDROCK) {
+                BotBedrockClient client = new BotBedrockClient(config.host, config.bedrockPort, name, group);
+                disconnectors.add(client::disconnect);
+                start = System.nanoTime();
+                session = client.connectSync(JOIN_TIMEOUT_MS);
+            } else {
+                warmUpIfNeeded(version, name);
+                BotClient client = new BotClient(config.host, config.port, version, name, group);
+                disconnectors.add(client::disconnect);
+                start = System.nanoTime();
+                session = client.connectSync(JOIN_TIMEOUT_MS);
+            }
+            if (session == null || !session.isLoginComplete()) {
+                throw new IllegalStateException("login did not complete");
+            }
+            report.recordJoin(version, System.nanoTime() - start);
+            session.setLightweight(true);
+            LoadBot bot = new LoadBot(name, session, config, report, config.seed * 31 + index);
+            bots.add(bot);
+            bot.start(group);
+        } catch (Exception e) {
+            report.recordJoinFailure(version, name, e);
+        }
+    }
+
+    /**
+     * Pre-1.2.0 Alpha clients are kicked on their first connect while the
+     * server saves a default spawn position; connect once and discard it
+     * so the measured join is the real one.
+     */
+    private void warmUpIfNeeded(ProtocolVersion version, String name) {
+        if (version.isAtLeast(ProtocolVersion.ALPHA_1_2_0)
+                || !version.isAtLeast(ProtocolVersion.ALPHA_1_0_15)) {
+            return;
+        }
+        BotClient warmup = new BotClient(config.host, config.port, version, name, group);
+        try {
+            warmup.connectSync(2000);
+        } catch (Exception ignored) {
+            // Expected: first connect is kicked
+        } finally {
+            warmup.disconnect();
+        }
+    }
+
+    private void shutdown() {
+        synchronized (disconnectors) {
+            for (Runnable r : disconnectors) {
+                try {
+                    r.run();
+                } catch (Exception ignored) {
+                    // Already closed
+                }
+            }
+        }
+        if (group != null) {
+            group.shutdownGracefully(0, 2, TimeUnit.SECONDS).awaitUninterruptibly();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+}
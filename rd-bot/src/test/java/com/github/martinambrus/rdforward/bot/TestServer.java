@@ -18,10 +18,10 @@ import java.util.Set;
 public class TestServer {
 
     private static final String[] STALE_FILES = {
-            "server-world.dat", "server-players.dat",
+            "server-world.dat", "server-players.dat", "server-players.dat.migrated",
             "banned-players.txt", "banned-ips.txt"
     };
-    private static final String STALE_DIR = "world";
+    private static final String[] STALE_DIRS = {"world", "playerdata"};
 
     private RDServer server;
     private int port;
@@ -74,7 +74,9 @@ public class TestServer {
         for (String name : STALE_FILES) {
             new File(name).delete();
         }
-        deleteDir(new File(STALE_DIR));
+        for (String name : STALE_DIRS) {
+            deleteDir(new File(name));
+        }
     }
 
     private void deleteDir(File dir) {
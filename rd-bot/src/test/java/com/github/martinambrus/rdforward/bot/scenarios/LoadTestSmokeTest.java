@@ -0,0 +1,55 @@
+package com.github.martinambrus.rdforward.bot.scenarios;
+
+import com.github.martinambrus.rdforward.bot.TestServer;
+import com.github.martinambrus.rdforward.bot.load.LoadTestConfig;
+import com.github.martinambrus.rdforward.bot.load.LoadTestReport;
+import com.github.martinambrus.rdforward.bot.load.LoadTestRunner;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the load generator briefly against the test server with a small
+ * mixed-protocol population, checking that bots join, walk into new
+ * chunks, get block round trips back and see their own chat.
+ */
+class LoadTestSmokeTest {
+
+    private static TestServer testServer;
+
+    @BeforeAll
+    static void startServer() throws InterruptedException {
+        testServer = new TestServer();
+        testServer.start();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        testServer.stop();
+    }
+
+    @Test
+    void smallMixedLoadRunCompletes() throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(new String[] {
+                "--port=" + testServer.getPort(),
+                "--bedrock-port=" + testServer.getServer().getActualBedrockPort(),
+                "--bots=6",
+                "--ramp=10",
+                "--threads=2",
+                "--duration=6",
+                "--mix=CLASSIC=1,BETA_1_7_3=1,RELEASE_1_8=1,RELEASE_1_21_11=1,BEDROCK=2",
+                "--walk-radius=40",
+                "--block-interval=2000",
+                "--block-burst=2",
+                "--chat-interval=2000"
+        });
+        LoadTestReport report = new LoadTestRunner(config).run();
+
+        assertEquals(6, report.getJoins(), "All bots should join");
+        assertEquals(0, report.getJoinFailures(), "No joins should fail");
+        assertEquals(0, report.getDisconnects(), "No bot should be disconnected mid-run");
+        assertTrue(report.getChunksReceived() > 0, "Bots should receive chunks");
+        assertTrue(report.getBlockRoundTrips() > 0, "Block changes should round-trip");
+        assertTrue(report.getChatRoundTrips() > 0, "Chat should round-trip");
+    }
+}
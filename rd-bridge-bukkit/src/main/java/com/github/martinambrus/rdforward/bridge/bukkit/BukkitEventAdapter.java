@@ -31,6 +31,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 
 /**
@@ -172,6 +173,48 @@ public final class BukkitEventAdapter {
         warnedPlugins.clear();
     }
 
+    /**
+     * Describe every {@link #dispatchPluginEvent} binding whose listener or
+     * event class matches {@code holds}, one line each. The mod loader's
+     * leak detector calls this reflectively (it has no compile-time link to
+     * this module) to name what keeps a reloaded plugin's class loader alive.
+     */
+    public static List<String> describeBindings(Predicate<Object> holds) {
+        List<String> out = new ArrayList<>();
+        for (Map.Entry<Class<?>, CopyOnWriteArrayList<Bound>> e : DIRECT.entrySet()) {
+            boolean eventHeld = holds.test(e.getKey());
+            for (Bound b : e.getValue()) {
+                if (eventHeld || holds.test(b.listener)) {
+                    out.add("Bukkit " + e.getKey().getSimpleName() + " handler "
+                            + b.listener.getClass().getName() + "." + b.method.getName());
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Remove the bindings {@link #describeBindings} lists for {@code holds}.
+     * Called reflectively by the mod loader's leak detector.
+     *
+     * @return number of bindings removed
+     */
+    public static int unbindIf(Predicate<Object> holds) {
+        int removed = 0;
+        for (Map.Entry<Class<?>, CopyOnWriteArrayList<Bound>> e : DIRECT.entrySet()) {
+            CopyOnWriteArrayList<Bound> bindings = e.getValue();
+            if (holds.test(e.getKey())) {
+                // The event class itself belongs to the old loader
+                if (DIRECT.remove(e.getKey(), bindings)) removed += bindings.size();
+                continue;
+            }
+            int before = bindings.size();
+            bindings.removeIf(b -> holds.test(b.listener));
+            removed += before - bindings.size();
+        }
+        return removed;
+    }
+
     private static boolean isCancellable(Class<?> evtType) {
         return evtType == BlockBreakEvent.class
                 || evtType == BlockPlaceEvent.class
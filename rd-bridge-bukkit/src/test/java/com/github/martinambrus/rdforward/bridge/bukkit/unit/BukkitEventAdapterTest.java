@@ -17,6 +17,8 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.function.Predicate;
 import java.util.logging.Handler;
 import java.util.logging.LogRecord;
 import java.util.logging.Logger;
@@ -24,6 +26,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class BukkitEventAdapterTest {
 
@@ -200,6 +203,23 @@ class BukkitEventAdapterTest {
         assertEquals(EventResult.PASS, r);
     }
 
+    @Test
+    void leakSweepListsAndRemovesOnlyMatchingBindings() {
+        AllEventsListener stale = new AllEventsListener();
+        AllEventsListener live = new AllEventsListener();
+        BukkitEventAdapter.register(stale, "old-generation");
+        BukkitEventAdapter.register(live, "new-generation");
+        Predicate<Object> holdsStale = o -> o == stale;
+
+        List<String> described = BukkitEventAdapter.describeBindings(holdsStale);
+        assertEquals(6, described.size(), "one line per @EventHandler: " + described);
+        assertTrue(described.stream().allMatch(d -> d.contains(AllEventsListener.class.getName())));
+
+        assertEquals(6, BukkitEventAdapter.unbindIf(holdsStale));
+        assertTrue(BukkitEventAdapter.describeBindings(holdsStale).isEmpty());
+        assertEquals(6, BukkitEventAdapter.describeBindings(o -> o == live).size());
+    }
+
     @Test
     void nullPluginNameAllowedForTestHarness() {
         AllEventsListener listener = new AllEventsListener();
@@ -0,0 +1,403 @@
+package com.github.martinambrus.rdforward.modloader;
+
+import com.github.martinambrus.rdforward.api.event.Event;
+import com.github.martinambrus.rdforward.api.event.EventOwnership;
+import com.github.martinambrus.rdforward.api.event.PrioritizedEvent;
+import com.github.martinambrus.rdforward.modloader.admin.EventManager;
+import com.github.martinambrus.rdforward.server.api.CommandRegistry;
+import com.github.martinambrus.rdforward.server.api.Scheduler;
+import com.github.martinambrus.rdforward.server.network.DefaultPluginChannel;
+import com.github.martinambrus.rdforward.server.network.PluginChannelManager;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Verifies that the class loader a mod ran in becomes unreachable after a
+ * hot reload. {@link ModManager#reload} hands the old loader to
+ * {@link #track}, which keeps only a weak reference to it. {@link #poll}
+ * then forgets every loader the GC has cleared and, for one still
+ * reachable after the grace period:
+ * <ol>
+ *   <li>reports which registry holds which object of that loader
+ *       ({@link #findRetainers}) and runs the sweeper, which removes those
+ *       entries whatever owner they were registered under;</li>
+ *   <li>if the loader is still reachable a grace period after the sweep,
+ *       logs it as leaked and stops tracking it.</li>
+ * </ol>
+ *
+ * <p>Only registries the server knows about are scanned, plus the bridge
+ * registries in {@link #BRIDGE_REGISTRIES}. Holders such as thread locals,
+ * JDK caches or statics in shared libraries are not visible here; the
+ * final leak message says so.
+ *
+ * <p>{@link #poll} never asks for a GC itself: a full collection can stall
+ * the main thread it runs on. {@link #collectAsync} gives the hint from a
+ * thread of its own, before the poll.
+ */
+public final class ClassLoaderLeakDetector {
+
+    private static final Logger LOG = Logger.getLogger(ClassLoaderLeakDetector.class.getName());
+
+    /** How long an old loader may stay reachable before it is reported. */
+    public static final long DEFAULT_GRACE_MS = 10_000L;
+
+    /** Object-graph depth followed when deciding whether a registered object holds a loader. */
+    private static final int SCAN_DEPTH = 2;
+    /** Collections larger than this are only scanned up to this many elements. */
+    private static final int MAX_ELEMENTS = 1000;
+
+    /**
+     * Registries kept by bridge modules, reached reflectively the way
+     * {@link BridgeRegistry} reaches their loaders. Each class has static
+     * {@code describeBindings(Predicate)} and {@code unbindIf(Predicate)}
+     * methods; a bridge that is not on the classpath is skipped. Bridge
+     * scheduler tasks and ServerEvents bindings live in the server's own
+     * registries and are covered there.
+     */
+    private static final List<String> BRIDGE_REGISTRIES = List.of(
+            "com.github.martinambrus.rdforward.bridge.bukkit.BukkitEventAdapter");
+
+    /** Removes registry entries that hold a leaked loader. @return number of entries removed */
+    @FunctionalInterface
+    public interface Sweeper {
+        int sweep(String modId, ClassLoader loader);
+    }
+
+    /**
+     * One loader found reachable after its grace period.
+     *
+     * @param afterSweep {@code true} when the loader survived the sweep too and is given up on
+     */
+    public record LeakReport(String modId, String loaderName, List<String> retainers, boolean afterSweep) {}
+
+    private static final class Generation {
+        final WeakReference<ClassLoader> ref;
+        final String modId;
+        final String loaderName;
+        final long unloadedAt;
+        long deadline;
+        boolean swept;
+
+        Generation(WeakReference<ClassLoader> ref, String modId, String loaderName, long unloadedAt, long deadline) {
+            this.ref = ref;
+            this.modId = modId;
+            this.loaderName = loaderName;
+            this.unloadedAt = unloadedAt;
+            this.deadline = deadline;
+        }
+    }
+
+    private final ReferenceQueue<ClassLoader> queue = new ReferenceQueue<>();
+    private final Map<Reference<? extends ClassLoader>, Generation> tracked = new ConcurrentHashMap<>();
+    private final Supplier<Collection<ModContainer>> liveMods;
+    private final AtomicInteger collected = new AtomicInteger();
+    private final AtomicInteger leaked = new AtomicInteger();
+    private volatile long graceNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_GRACE_MS);
+
+    /** @param liveMods the currently loaded mods, scanned for dependency peers of an old loader */
+    public ClassLoaderLeakDetector(Supplier<Collection<ModContainer>> liveMods) {
+        this.liveMods = liveMods;
+    }
+
+    public void setGraceMillis(long graceMs) {
+        this.graceNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, graceMs));
+    }
+
+    public long getGraceMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(graceNanos);
+    }
+
+    /** Start watching {@code loader}, which {@code modId} no longer uses. Holds it weakly. */
+    public void track(String modId, ClassLoader loader) {
+        long now = System.nanoTime();
+        WeakReference<ClassLoader> ref = new WeakReference<>(loader, queue);
+        String name = loader.getName() != null ? loader.getName() : loader.getClass().getName();
+        tracked.put(ref, new Generation(ref, modId, name, now, now + graceNanos));
+    }
+
+    /** @return loaders still being watched (neither collected nor given up on) */
+    public int pendingCount() {
+        drain();
+        return tracked.size();
+    }
+
+    /** @return old loaders confirmed collected */
+    public int getCollectedCount() {
+        return collected.get();
+    }
+
+    /** @return old loaders still reachable after their sweep */
+    public int getLeakedCount() {
+        return leaked.get();
+    }
+
+    /** @return whether some watched loader's grace period has run out at {@code now} */
+    public boolean hasDue(long now) {
+        drain();
+        for (Generation g : tracked.values()) {
+            if (now - g.deadline >= 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * GC hint (NOT relied on) before a {@link #poll}: gives a loader that is
+     * merely unswept garbage one chance to clear before it is reported. Runs
+     * on a daemon thread of its own, then calls {@code then} from it.
+     */
+    public void collectAsync(Runnable then) {
+        Thread t = new Thread(() -> {
+            System.gc();
+            then.run();
+        }, "ModLoader-LeakCheck");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Handle every watched loader whose grace period has run out at
+     * {@code now}. Call on the server main thread: the sweeper mutates the
+     * same registries the tick loop reads.
+     *
+     * @return a report per loader still reachable, empty when all were collected
+     */
+    public List<LeakReport> poll(long now, Sweeper sweeper) {
+        drain();
+        List<Generation> due = new ArrayList<>();
+        for (Generation g : tracked.values()) {
+            if (now - g.deadline >= 0) due.add(g);
+        }
+        if (due.isEmpty()) return List.of();
+
+        List<LeakReport> reports = new ArrayList<>();
+        for (Generation g : due) {
+            ClassLoader loader = g.ref.get();
+            if (loader == null) continue;
+            List<String> retainers = findRetainers(loader, liveMods.get());
+            long ageMs = TimeUnit.NANOSECONDS.toMillis(now - g.unloadedAt);
+            if (!g.swept) {
+                LOG.warning("[ModLoader] WARNING: ClassLoader " + g.loaderName + " of " + g.modId
+                        + " is still reachable " + ageMs + " ms after reload. Held by:"
+                        + describe(retainers));
+                int removed = sweeper.sweep(g.modId, loader);
+                LOG.warning("[ModLoader] Swept " + removed + " entr" + (removed == 1 ? "y" : "ies")
+                        + " holding " + g.loaderName + "; checking again in " + getGraceMillis() + " ms");
+                g.swept = true;
+                g.deadline = now + graceNanos;
+                reports.add(new LeakReport(g.modId, g.loaderName, retainers, false));
+            } else {
+                tracked.remove(g.ref);
+                leaked.incrementAndGet();
+                LOG.severe("[ModLoader] ERROR: ClassLoader " + g.loaderName + " of " + g.modId
+                        + " leaked: still reachable " + ageMs + " ms after reload and a sweep. Held by:"
+                        + describe(retainers)
+                        + "\n  (thread locals, JDK caches and statics in shared libraries are not scanned)."
+                        + " Each further reload of " + g.modId + " will grow Metaspace; restart to reclaim it.");
+                reports.add(new LeakReport(g.modId, g.loaderName, retainers, true));
+            }
+        }
+        return reports;
+    }
+
+    private void drain() {
+        Reference<? extends ClassLoader> ref;
+        while ((ref = queue.poll()) != null) {
+            Generation g = tracked.remove(ref);
+            if (g == null) continue;
+            collected.incrementAndGet();
+            LOG.fine("[ModLoader] ClassLoader " + g.loaderName + " of " + g.modId + " was collected "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - g.unloadedAt) + " ms after reload");
+        }
+    }
+
+    private static String describe(List<String> retainers) {
+        if (retainers.isEmpty()) return " nothing the server tracks";
+        StringBuilder sb = new StringBuilder();
+        for (String r : retainers) sb.append("\n  - ").append(r);
+        return sb.toString();
+    }
+
+    // -- registry scan --
+
+    /**
+     * List every object in a known registry that holds {@code loader}: event
+     * listeners (and their ownership records), scheduler tasks, commands,
+     * plugin channels, bridge registries, threads using it as context class
+     * loader, and live mods declaring it as a dependency.
+     */
+    public static List<String> findRetainers(ClassLoader loader, Collection<ModContainer> liveMods) {
+        Predicate<Object> holds = o -> retains(o, loader, SCAN_DEPTH);
+        List<String> out = new ArrayList<>();
+        for (Event<?> event : Event.allEvents()) {
+            for (Object listener : event.listeners()) {
+                if (holds.test(listener)) {
+                    out.add("event " + eventName(event) + " listener " + listener.getClass().getName());
+                }
+            }
+        }
+        for (Map.Entry<String, List<Object>> e : EventOwnership.listenersByMod().entrySet()) {
+            for (Object listener : e.getValue()) {
+                if (holds.test(listener)) {
+                    out.add("event ownership record for " + e.getKey() + ": " + listener.getClass().getName());
+                }
+            }
+        }
+        for (Scheduler.ScheduledTask task : Scheduler.pendingTasks()) {
+            if (holds.test(task.getTask())) {
+                out.add("scheduler task " + task.getTask().getClass().getName() + " (owner " + task.getOwner() + ")");
+            }
+        }
+        for (Map.Entry<String, CommandRegistry.RegisteredCommand> e : CommandRegistry.getCommands().entrySet()) {
+            if (holds.test(e.getValue().command)) {
+                out.add("command /" + e.getKey() + " handler " + e.getValue().command.getClass().getName());
+            }
+        }
+        for (var id : PluginChannelManager.channelIds()) {
+            DefaultPluginChannel channel = PluginChannelManager.get(id);
+            if (channel != null && holds.test(channel)) {
+                out.add("plugin channel " + id + " (owner " + channel.ownerModId() + ")");
+            }
+        }
+        for (String registry : BRIDGE_REGISTRIES) {
+            Object found = callBridge(registry, "describeBindings", holds);
+            if (found instanceof List<?> lines) {
+                for (Object line : lines) out.add(String.valueOf(line));
+            }
+        }
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getClass().getClassLoader() == loader) {
+                out.add("thread '" + t.getName() + "' (" + t.getState() + ") is an instance of a mod class");
+            } else if (t.getContextClassLoader() == loader) {
+                out.add("thread '" + t.getName() + "' (" + t.getState() + ") has it as context class loader");
+            }
+        }
+        for (ModContainer c : liveMods) {
+            if (c.classLoader() instanceof ModClassLoader peer && peer.dependsOn(loader)) {
+                out.add("mod " + c.id() + " depends on it; reload " + c.id() + " as well");
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Remove what {@link #findRetainers} can safely remove: listeners,
+     * ownership records, scheduler tasks, commands, channel receivers and
+     * bridge bindings holding {@code loader}, and reset threads' context
+     * class loader to its parent. Threads running mod code and dependent mods are only reported.
+     *
+     * @return number of entries removed or reset
+     */
+    public static int sweepByLoader(ClassLoader loader) {
+        Predicate<Object> holds = o -> retains(o, loader, SCAN_DEPTH);
+        int removed = EventOwnership.forgetIf(holds);
+        for (Event<?> event : Event.allEvents()) {
+            removed += event.unregisterIf(holds);
+        }
+        for (Scheduler.ScheduledTask task : Scheduler.pendingTasks()) {
+            if (holds.test(task.getTask())) {
+                task.cancel();
+                removed++;
+            }
+        }
+        for (Map.Entry<String, CommandRegistry.RegisteredCommand> e : CommandRegistry.getCommands().entrySet()) {
+            if (holds.test(e.getValue().command) && CommandRegistry.unregister(e.getKey())) removed++;
+        }
+        for (var id : PluginChannelManager.channelIds()) {
+            DefaultPluginChannel channel = PluginChannelManager.get(id);
+            if (channel != null && holds.test(channel)) {
+                channel.clearReceiver();
+                removed++;
+            }
+        }
+        for (String registry : BRIDGE_REGISTRIES) {
+            if (callBridge(registry, "unbindIf", holds) instanceof Integer n) removed += n;
+        }
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getContextClassLoader() == loader && t.getClass().getClassLoader() != loader) {
+                t.setContextClassLoader(loader.getParent());
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /** Call a static {@code method(Predicate)} on a bridge registry; null if the bridge is absent. */
+    private static Object callBridge(String fqcn, String method, Predicate<Object> holds) {
+        Method m;
+        try {
+            m = Class.forName(fqcn, true, ClassLoaderLeakDetector.class.getClassLoader())
+                    .getMethod(method, Predicate.class);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            return null; // bridge module not on the classpath
+        }
+        try {
+            return m.invoke(null, holds);
+        } catch (ReflectiveOperationException e) {
+            LOG.warning("[ModLoader] " + fqcn + "." + method + " failed: " + e);
+            return null;
+        }
+    }
+
+    private static String eventName(Event<?> event) {
+        if (event instanceof PrioritizedEvent<?> p) {
+            String id = EventManager.idOf(p);
+            if (id != null) return id;
+        }
+        return event.getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(event));
+    }
+
+    /**
+     * Whether {@code o} keeps {@code loader} reachable: it is the loader, its
+     * class (or, for a Class, itself) was defined by it, or — up to
+     * {@code depth} levels — an element or instance field does. Fields of
+     * JDK classes that can't be opened are skipped.
+     */
+    static boolean retains(Object o, ClassLoader loader, int depth) {
+        if (o == null) return false;
+        if (o == loader) return true;
+        Class<?> type = o instanceof Class<?> c ? c : o.getClass();
+        while (type.isArray()) type = type.getComponentType();
+        if (type.getClassLoader() == loader) return true;
+        if (depth == 0 || o instanceof Class<?> || o instanceof ClassLoader || o instanceof Thread) return false;
+
+        if (o instanceof Object[] array) {
+            for (int i = 0; i < array.length && i < MAX_ELEMENTS; i++) {
+                if (retains(array[i], loader, depth - 1)) return true;
+            }
+            return false;
+        }
+        if (o instanceof Collection<?> collection) {
+            return retains(collection.toArray(), loader, depth);
+        }
+        if (o instanceof Map<?, ?> map) {
+            return retains(map.keySet().toArray(), loader, depth) || retains(map.values().toArray(), loader, depth);
+        }
+        for (Class<?> k = o.getClass(); k != null && k != Object.class; k = k.getSuperclass()) {
+            for (Field f : k.getDeclaredFields()) {
+                if (Modifier.isStatic(f.getModifiers()) || f.getType().isPrimitive()) continue;
+                if (!f.trySetAccessible()) continue;
+                try {
+                    if (retains(f.get(o), loader, depth - 1)) return true;
+                } catch (IllegalAccessException ignored) {
+                    // inaccessible despite trySetAccessible — treat as not holding
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -45,6 +45,14 @@ public final class ModClassLoader extends URLClassLoader {
         return modId;
     }
 
+    /** Whether {@code loader} is a hard-dependency peer, which this loader keeps reachable. */
+    boolean dependsOn(ClassLoader loader) {
+        for (ModClassLoader dep : dependencies) {
+            if (dep == loader) return true;
+        }
+        return false;
+    }
+
     @Override
     protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
         synchronized (getClassLoadingLock(name)) {
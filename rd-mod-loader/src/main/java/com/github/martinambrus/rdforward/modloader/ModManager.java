@@ -34,6 +34,8 @@ public final class ModManager implements com.github.martinambrus.rdforward.api.m
     private final Server server;
     private final LinkedHashMap<String, ModContainer> containers = new LinkedHashMap<>();
     private final ModThreadTracker threadTracker = new ModThreadTracker();
+    private final ClassLoaderLeakDetector leakDetector = new ClassLoaderLeakDetector(this::containers);
+    private boolean leakCheckScheduled;
 
     public ModManager(Server server) {
         this.server = server;
@@ -43,6 +45,9 @@ public final class ModManager implements com.github.martinambrus.rdforward.api.m
     /** @return the per-manager thread tracker used by hot-reload cleanup. */
     public ModThreadTracker threadTracker() { return threadTracker; }
 
+    /** @return the detector that verifies old class loaders are collected after {@link #reload}. */
+    public ClassLoaderLeakDetector leakDetector() { return leakDetector; }
+
     /** Install the containers discovered by {@link ModLoader}. Must be called before {@link #enableAll()}. */
     public void setContainers(List<ModContainer> resolved) {
         containers.clear();
@@ -119,32 +124,23 @@ public final class ModManager implements com.github.martinambrus.rdforward.api.m
             }
         }
 
-        // Weak-reference probe per plan §3.3 step 3b. Captures the old class
-        // loader BEFORE disable so we can verify it is eligible for GC after
-        // resources are swept and the container releases its reference.
-        java.lang.ref.WeakReference<ClassLoader> oldLoaderRef =
-                new java.lang.ref.WeakReference<>(c.classLoader());
-
         disable(c);
         detectOrphans(modId);
 
-        // Drop strong refs to the old classloader before probing. rebind()
-        // would do this too but we need it *before* the GC hint fires so
-        // the weak-reference check is meaningful.
+        // Drop the container's strong refs to the old classloader and hand it
+        // to the leak detector (per plan §3.3 step 3b), which holds it weakly
+        // and checks it has been collected once the grace period is over.
+        java.net.URLClassLoader oldLoader = c.classLoader();
         try {
-            if (c.classLoader() != null) c.classLoader().close();
+            if (oldLoader != null) oldLoader.close();
         } catch (java.io.IOException ignored) {}
         c.setClassLoader(null);
         c.setServerInstance(null);
         c.setClientInstance(null);
-
-        // GC hint (NOT relied on). If the classloader is still held by something
-        // after the sweep, warn the admin — that's a likely leak source.
-        System.gc();
-        if (oldLoaderRef.get() != null) {
-            LOG.warning("[ModLoader] WARNING: ClassLoader for " + modId
-                    + " was not garbage collected. This may indicate a memory leak"
-                    + " (static references, thread locals, etc.)");
+        if (oldLoader != null) {
+            leakDetector.track(modId, oldLoader);
+            oldLoader = null; // don't let this frame pin it through rebind and enable
+            scheduleLeakCheck();
         }
 
         try {
@@ -166,6 +162,52 @@ public final class ModManager implements com.github.martinambrus.rdforward.api.m
         }
     }
 
+    /**
+     * Check class loaders left behind by {@link #reload}: report and sweep
+     * any still reachable after the grace period, and keep re-checking
+     * while some are pending. Runs on the main thread; the scheduled check
+     * gets there through {@link #collectThenCheckLeaks}.
+     */
+    public List<ClassLoaderLeakDetector.LeakReport> checkLeaks() {
+        leakCheckScheduled = false;
+        List<ClassLoaderLeakDetector.LeakReport> reports =
+                leakDetector.poll(System.nanoTime(), this::sweepLeakedLoader);
+        if (leakDetector.pendingCount() > 0) scheduleLeakCheck();
+        return reports;
+    }
+
+    private void scheduleLeakCheck() {
+        if (leakCheckScheduled) return;
+        leakCheckScheduled = true;
+        int ticks = (int) Math.min(Integer.MAX_VALUE, leakDetector.getGraceMillis() / 50 + 1);
+        server.getScheduler().runLater(PrioritizedEvent.SERVER_OWNER, ticks, this::collectThenCheckLeaks);
+    }
+
+    /**
+     * When loaders are due, hint a GC off the main thread first, then come
+     * back to it for {@link #checkLeaks}.
+     */
+    private void collectThenCheckLeaks() {
+        if (!leakDetector.hasDue(System.nanoTime())) {
+            checkLeaks();
+            return;
+        }
+        leakDetector.collectAsync(() ->
+                server.getScheduler().runLater(PrioritizedEvent.SERVER_OWNER, 0, this::checkLeaks));
+    }
+
+    /**
+     * Sweep everything still holding a leaked loader. By loader, because the
+     * reloaded mod's new generation shares the old one's id; by owner as
+     * well when the mod is no longer running.
+     */
+    private int sweepLeakedLoader(String modId, ClassLoader loader) {
+        int removed = ClassLoaderLeakDetector.sweepByLoader(loader);
+        ModContainer c = containers.get(modId);
+        if (c == null || c.state() != ModState.ENABLED) sweepOwnedResources(modId);
+        return removed;
+    }
+
     private void enable(ModContainer c) {
         c.setState(ModState.LOADING);
         try {
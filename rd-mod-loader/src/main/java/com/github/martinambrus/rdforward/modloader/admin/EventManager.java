@@ -284,6 +284,11 @@ public final class EventManager {
         return copy;
     }
 
+    /** @return the {@code Holder#FIELD} id of {@code event}, or null if it isn't a scanned event. */
+    public static String idOf(PrioritizedEvent<?> event) {
+        return idByEvent.get(event);
+    }
+
     /** @return the set of known event ids in insertion order (holder-class scan order). */
     public static Set<String> eventIds() {
         return Collections.unmodifiableSet(new LinkedHashSet<>(byId.keySet()));
@@ -12,7 +12,8 @@ import java.util.concurrent.ConcurrentHashMap;
  * Adapter from {@link com.github.martinambrus.rdforward.server.api.Scheduler}
  * (static, server-internal) to the mod-facing {@link Scheduler}. Tags each
  * task with its owning mod id so {@link #cancelByOwner(String)} can wipe
- * every remaining task on hot-reload / unload.
+ * every remaining task on hot-reload / unload, and so the task's run time
+ * is charged to that mod.
  */
 public final class RDScheduler implements Scheduler {
 
@@ -21,14 +22,14 @@ public final class RDScheduler implements Scheduler {
 
     @Override
     public ScheduledTask runLater(String modId, int delayTicks, Runnable task) {
-        var handle = com.github.martinambrus.rdforward.server.api.Scheduler.runLater(delayTicks, task);
+        var handle = com.github.martinambrus.rdforward.server.api.Scheduler.runLater(modId, delayTicks, task);
         track(modId, handle);
         return new TaskAdapter(handle);
     }
 
     @Override
     public ScheduledTask runRepeating(String modId, int initialDelay, int periodTicks, Runnable task) {
-        var handle = com.github.martinambrus.rdforward.server.api.Scheduler.runRepeating(initialDelay, periodTicks, task);
+        var handle = com.github.martinambrus.rdforward.server.api.Scheduler.runRepeating(modId, initialDelay, periodTicks, task);
         track(modId, handle);
         return new TaskAdapter(handle);
     }
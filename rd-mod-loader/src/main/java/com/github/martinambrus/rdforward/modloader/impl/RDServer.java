@@ -44,7 +44,7 @@ public final class RDServer implements Server {
 
     public RDServer(com.github.martinambrus.rdforward.server.RDServer delegate) {
         this.delegate = delegate;
-        this.world = new RDWorld(delegate.getWorld());
+        this.world = new RDWorld(this);
         PluginChannelManager.installPlayerFactory(cp -> new RDPlayer(cp, this));
     }
 
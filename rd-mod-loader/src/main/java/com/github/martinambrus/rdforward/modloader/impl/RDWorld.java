@@ -1,8 +1,11 @@
 package com.github.martinambrus.rdforward.modloader.impl;
 
 import com.github.martinambrus.rdforward.api.world.Block;
+import com.github.martinambrus.rdforward.api.world.BlockBox;
+import com.github.martinambrus.rdforward.api.world.BlockChangeBatch;
 import com.github.martinambrus.rdforward.api.world.BlockType;
 import com.github.martinambrus.rdforward.api.world.World;
+import com.github.martinambrus.rdforward.server.BlockChangeSet;
 import com.github.martinambrus.rdforward.server.ServerWorld;
 
 /** Adapter from {@link ServerWorld} to {@link World}. */
@@ -10,8 +13,8 @@ public final class RDWorld implements World {
 
     private final ServerWorld world;
 
-    public RDWorld(ServerWorld world) {
-        this.world = world;
+    public RDWorld(RDServer server) {
+        this.world = server.serverWorld();
     }
 
     public ServerWorld delegate() { return world; }
@@ -52,4 +55,43 @@ public final class RDWorld implements World {
 
     @Override
     public void setTime(long time) { world.setWorldTime(time); }
+
+    @Override
+    public void readRegion(BlockBox box, byte[] dest) {
+        if (dest.length < box.volume()) {
+            throw new IllegalArgumentException("buffer holds " + dest.length + " blocks, box has " + box.volume());
+        }
+        world.readRegion(box.minX(), box.minY(), box.minZ(), box.maxX(), box.maxY(), box.maxZ(), dest);
+    }
+
+    @Override
+    public int fill(BlockBox box, BlockType type) {
+        BlockChangeSet applied = new BlockChangeSet((int) Math.min(box.volume(), 4096));
+        world.fillRegion(box.minX(), box.minY(), box.minZ(), box.maxX(), box.maxY(), box.maxZ(),
+                (byte) type.getId(), applied);
+        publish(applied);
+        return applied.size();
+    }
+
+    @Override
+    public int applyBatch(BlockChangeBatch batch) {
+        BlockChangeSet changes = new BlockChangeSet(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            changes.add(batch.x(i), batch.y(i), batch.z(i), (byte) batch.typeId(i));
+        }
+        BlockChangeSet applied = new BlockChangeSet(batch.size());
+        world.applyBlockChanges(changes, applied);
+        publish(applied);
+        return applied.size();
+    }
+
+    /**
+     * Hand applied changes to the tick loop, which mirrors them into the
+     * chunk world and updates clients per chunk along with its own block
+     * changes. Mods may call fill/applyBatch from any thread.
+     */
+    private void publish(BlockChangeSet applied) {
+        if (applied.isEmpty()) return;
+        world.publishAppliedChanges(applied);
+    }
 }
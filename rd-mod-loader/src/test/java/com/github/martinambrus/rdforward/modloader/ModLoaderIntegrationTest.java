@@ -18,6 +18,7 @@ import com.github.martinambrus.rdforward.api.scheduler.Scheduler;
 import com.github.martinambrus.rdforward.api.server.Server;
 import com.github.martinambrus.rdforward.api.version.ProtocolVersion;
 import com.github.martinambrus.rdforward.api.world.World;
+import com.github.martinambrus.rdforward.modloader.fixtures.LeakyFixtureMod;
 import com.github.martinambrus.rdforward.modloader.fixtures.TestFixtureMod;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -415,6 +416,100 @@ class ModLoaderIntegrationTest {
         assertTrue(containers.isEmpty());
     }
 
+    @Test
+    void reloadLoopKeepsMetaspaceFlat(@TempDir Path dir) throws Exception {
+        Path modsDir = Files.createDirectories(dir.resolve("mods"));
+        writeModJar(modsDir.resolve("fixture.jar"),
+                TestFixtureMod.MOD_ID,
+                TestFixtureMod.class.getName());
+
+        List<ModContainer> containers = ModLoader.load(modsDir, getClass().getClassLoader());
+        com.github.martinambrus.rdforward.modloader.ModManager mm =
+                new com.github.martinambrus.rdforward.modloader.ModManager(new StubServer());
+        mm.setContainers(containers);
+        mm.enableAll();
+        mm.leakDetector().setGraceMillis(0);
+
+        // Warm up so JIT, lambda forms and loader plumbing are already loaded
+        for (int i = 0; i < 20; i++) mm.reload(TestFixtureMod.MOD_ID);
+        long[] before = settledClassesAndMetaspace();
+
+        final int iterations = 300;
+        for (int i = 0; i < iterations; i++) mm.reload(TestFixtureMod.MOD_ID);
+        long[] after = settledClassesAndMetaspace();
+
+        assertTrue(mm.checkLeaks().isEmpty(), "no old class loader may survive its grace period");
+        long classGrowth = after[0] - before[0];
+        long metaspaceGrowth = after[1] - before[1];
+        // A leaked generation keeps at least the mod class and its listener lambda loaded
+        assertTrue(classGrowth < iterations / 10,
+                "loaded classes grew by " + classGrowth + " over " + iterations + " reloads");
+        assertTrue(metaspaceGrowth < iterations * 3L * 1024,
+                "Metaspace grew by " + metaspaceGrowth / 1024 + " KB over " + iterations + " reloads");
+        assertEquals(0, mm.leakDetector().getLeakedCount());
+    }
+
+    @Test
+    void leakedClassLoaderIsReportedAndSweptByLoader(@TempDir Path dir) throws Exception {
+        Path modsDir = Files.createDirectories(dir.resolve("mods"));
+        writeModJar(modsDir.resolve("leaky.jar"),
+                LeakyFixtureMod.MOD_ID,
+                LeakyFixtureMod.class.getName());
+
+        List<ModContainer> containers = ModLoader.load(modsDir, getClass().getClassLoader());
+        com.github.martinambrus.rdforward.modloader.ModManager mm =
+                new com.github.martinambrus.rdforward.modloader.ModManager(new StubServer());
+        mm.setContainers(containers);
+        mm.enableAll();
+        mm.leakDetector().setGraceMillis(0);
+        try {
+            mm.reload(LeakyFixtureMod.MOD_ID);
+
+            List<ClassLoaderLeakDetector.LeakReport> reports = mm.checkLeaks();
+            assertEquals(1, reports.size(), "the per-owner sweep can't reach the leaky entries");
+            ClassLoaderLeakDetector.LeakReport report = reports.get(0);
+            assertEquals(LeakyFixtureMod.MOD_ID, report.modId());
+            assertFalse(report.afterSweep());
+            String leakyClass = LeakyFixtureMod.class.getName();
+            assertTrue(report.retainers().stream().anyMatch(r -> r.startsWith("event ") && r.contains(leakyClass)),
+                    "listener must be named: " + report.retainers());
+            assertTrue(report.retainers().stream().anyMatch(r -> r.startsWith("scheduler task ") && r.contains(leakyClass)),
+                    "task must be named: " + report.retainers());
+
+            // The sweep removed only the old generation's entries
+            assertEquals(1, ServerEvents.BLOCK_PLACE.listenerCount());
+
+            for (int attempt = 0; attempt < 20 && mm.leakDetector().pendingCount() > 0; attempt++) {
+                System.gc();
+                Thread.sleep(50L);
+            }
+            assertEquals(0, mm.leakDetector().pendingCount(), "old loader must be collectable after the sweep");
+            assertEquals(1, mm.leakDetector().getCollectedCount());
+            assertTrue(mm.checkLeaks().isEmpty());
+            assertEquals(0, mm.leakDetector().getLeakedCount());
+        } finally {
+            com.github.martinambrus.rdforward.server.api.Scheduler.reset();
+        }
+    }
+
+    /** Loaded class count and Metaspace bytes once GC has stopped unloading classes. */
+    private static long[] settledClassesAndMetaspace() throws InterruptedException {
+        java.lang.management.ClassLoadingMXBean classes = java.lang.management.ManagementFactory.getClassLoadingMXBean();
+        long loaded = -1;
+        for (int attempt = 0; attempt < 20; attempt++) {
+            System.gc();
+            Thread.sleep(50L);
+            long now = classes.getLoadedClassCount();
+            if (now == loaded) break;
+            loaded = now;
+        }
+        long metaspace = 0;
+        for (java.lang.management.MemoryPoolMXBean pool : java.lang.management.ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getName().equals("Metaspace")) metaspace = pool.getUsage().getUsed();
+        }
+        return new long[] {classes.getLoadedClassCount(), metaspace};
+    }
+
     private void writeJarWithDescriptor(Path target, String entryName, String contents, String mainClass)
             throws IOException {
         try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(target))) {
@@ -0,0 +1,30 @@
+package com.github.martinambrus.rdforward.modloader.fixtures;
+
+import com.github.martinambrus.rdforward.api.event.EventPriority;
+import com.github.martinambrus.rdforward.api.event.EventResult;
+import com.github.martinambrus.rdforward.api.event.PrioritizedEvent;
+import com.github.martinambrus.rdforward.api.event.server.ServerEvents;
+import com.github.martinambrus.rdforward.api.mod.ServerMod;
+import com.github.martinambrus.rdforward.api.server.Server;
+import com.github.martinambrus.rdforward.server.api.Scheduler;
+
+/**
+ * Fixture mod that pins its class loader the way a careless plugin does:
+ * a listener filed under the server's owner id and a task put straight on
+ * the server scheduler, neither of which the per-owner sweep can find.
+ */
+public class LeakyFixtureMod implements ServerMod {
+
+    public static final String MOD_ID = "leakyfixture";
+
+    @Override
+    public void onEnable(Server server) {
+        ServerEvents.BLOCK_PLACE.register(EventPriority.NORMAL,
+                (playerName, x, y, z, newBlockType) -> EventResult.PASS,
+                PrioritizedEvent.SERVER_OWNER);
+        Scheduler.runLater(PrioritizedEvent.SERVER_OWNER, Integer.MAX_VALUE, () -> {});
+    }
+
+    @Override
+    public void onDisable() {}
+}
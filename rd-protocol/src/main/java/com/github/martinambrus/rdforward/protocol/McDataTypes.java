@@ -678,4 +678,41 @@ public final class McDataTypes {
         if ((value & (0xFFFFFFFF << 28)) == 0) return 4;
         return 5;
     }
+
+    /**
+     * Read a VarLong (same encoding as VarInt, max 10 bytes).
+     * Used in 1.16.2+ for Section Blocks Update entries.
+     */
+    public static long readVarLong(ByteBuf buf) {
+        long value = 0;
+        int position = 0;
+        byte currentByte;
+
+        while (true) {
+            currentByte = buf.readByte();
+            value |= (long) (currentByte & 0x7F) << position;
+
+            if ((currentByte & 0x80) == 0) {
+                break;
+            }
+
+            position += 7;
+            if (position >= 64) {
+                throw new RuntimeException("VarLong is too big");
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Write a VarLong (same encoding as VarInt, max 10 bytes).
+     */
+    public static void writeVarLong(ByteBuf buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte((int) value);
+    }
 }
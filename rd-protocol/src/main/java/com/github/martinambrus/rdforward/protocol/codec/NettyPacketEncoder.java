@@ -49,6 +49,14 @@ public class NettyPacketEncoder extends MessageToByteEncoder<Packet> {
         packet.write(out);
     }
 
+    public ConnectionState getConnectionState() {
+        return connectionState;
+    }
+
+    public int getProtocolVersion() {
+        return protocolVersion;
+    }
+
     public void setConnectionState(ConnectionState state) {
         this.connectionState = state;
     }
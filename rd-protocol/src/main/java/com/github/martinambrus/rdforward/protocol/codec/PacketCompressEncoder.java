@@ -5,6 +5,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 
+import java.util.concurrent.atomic.LongAdder;
 import java.util.zip.Deflater;
 
 /**
@@ -20,20 +21,77 @@ import java.util.zip.Deflater;
  *
  * The frame encoder then prepends the outer VarInt totalLength.
  *
+ * The deflate level and the threshold can be changed while the connection
+ * is open. Clients reject compressed packets smaller than the threshold
+ * announced in Set Compression but accept uncompressed packets of any
+ * size, so the threshold can only be raised above the announced one.
+ * Counts bytes in and out so the achieved compression ratio can be shown
+ * per connection.
+ *
  * Each connection gets its own Deflater instance (not thread-safe).
  */
 public class PacketCompressEncoder extends MessageToByteEncoder<ByteBuf> {
 
-    private final int threshold;
-    private final Deflater deflater = new Deflater();
-    private byte[] encodeBuf = new byte[8192];
+    /**
+     * Threshold that leaves effectively everything uncompressed. Clients cap
+     * a frame at 2 MiB, so packets at least this large are still compressed
+     * to stay under that limit.
+     */
+    public static final int NO_COMPRESSION_THRESHOLD = 1 << 21;
+
+    /** zlib's level for {@link Deflater#DEFAULT_COMPRESSION}. */
+    public static final int DEFAULT_LEVEL = 6;
+
+    private final int announcedThreshold;
+    private volatile int threshold;
+    private volatile int level;
+
+    private Deflater deflater;
+    private int deflaterLevel;
+    private final byte[] encodeBuf = new byte[8192];
+
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
 
     public PacketCompressEncoder(int threshold) {
+        this(threshold, DEFAULT_LEVEL);
+    }
+
+    /**
+     * @param threshold the threshold sent to the client in Set Compression
+     * @param level     deflate level, 0-9 or {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public PacketCompressEncoder(int threshold, int level) {
+        this.announcedThreshold = threshold;
         this.threshold = threshold;
+        this.level = normalizeLevel(level);
     }
 
     @Override
     protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception {
+        int currentLevel = level;
+        if (deflater == null || deflaterLevel != currentLevel) {
+            // A fresh deflater rather than setLevel(): setLevel only applies
+            // after the next deflate() call, i.e. from the following packet.
+            if (deflater != null) deflater.end();
+            deflater = new Deflater(currentLevel);
+            deflaterLevel = currentLevel;
+        }
+        int in = msg.readableBytes();
+        int start = out.writerIndex();
+        compress(msg, out, threshold, deflater, encodeBuf);
+        bytesIn.add(in);
+        bytesOut.add(out.writerIndex() - start);
+    }
+
+    /**
+     * Write {@code msg} to {@code out} in the compressed-packet format for the
+     * given threshold. Shared with {@link PreEncodedFrame} so cached frames are
+     * byte-identical to what this handler would produce.
+     *
+     * @param scratch reusable deflate output buffer
+     */
+    static void compress(ByteBuf msg, ByteBuf out, int threshold, Deflater deflater, byte[] scratch) {
         int uncompressed = msg.readableBytes();
         if (uncompressed < threshold) {
             // Below threshold: write dataLength=0, then raw bytes
@@ -49,15 +107,62 @@ public class PacketCompressEncoder extends MessageToByteEncoder<ByteBuf> {
             deflater.setInput(input, 0, uncompressed);
             deflater.finish();
             while (!deflater.finished()) {
-                int count = deflater.deflate(encodeBuf);
-                out.writeBytes(encodeBuf, 0, count);
+                int count = deflater.deflate(scratch);
+                out.writeBytes(scratch, 0, count);
             }
             deflater.reset();
         }
     }
 
+    /** Map {@link Deflater#DEFAULT_COMPRESSION} to the level it stands for; clamp the rest to 0-9. */
+    public static int normalizeLevel(int level) {
+        if (level == Deflater.DEFAULT_COMPRESSION) return DEFAULT_LEVEL;
+        return Math.max(Deflater.NO_COMPRESSION, Math.min(Deflater.BEST_COMPRESSION, level));
+    }
+
+    /** Current threshold; never below {@link #getAnnouncedThreshold()}. */
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /** Threshold the client was told about in Set Compression. */
+    public int getAnnouncedThreshold() {
+        return announcedThreshold;
+    }
+
+    /** Change the threshold. Values below the announced threshold are raised to it. */
+    public void setThreshold(int threshold) {
+        this.threshold = Math.max(announcedThreshold, threshold);
+    }
+
+    /** Current deflate level, 0-9. */
+    public int getLevel() {
+        return level;
+    }
+
+    /** Change the deflate level; takes effect from the next packet. */
+    public void setLevel(int level) {
+        this.level = normalizeLevel(level);
+    }
+
+    /** Uncompressed packet bytes handed to this encoder. */
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    /** Bytes this encoder wrote, including the dataLength prefixes. */
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    /** Bytes out per byte in (lower is better), or 1.0 before anything was sent. */
+    public double getCompressionRatio() {
+        long in = bytesIn.sum();
+        return in == 0 ? 1.0 : (double) bytesOut.sum() / in;
+    }
+
     @Override
     public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
-        deflater.end();
+        if (deflater != null) deflater.end();
     }
 }
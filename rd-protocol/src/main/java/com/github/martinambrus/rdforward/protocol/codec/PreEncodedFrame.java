@@ -0,0 +1,81 @@
+package com.github.martinambrus.rdforward.protocol.codec;
+
+import com.github.martinambrus.rdforward.protocol.McDataTypes;
+import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+import io.netty.buffer.Unpooled;
+
+import java.util.zip.Deflater;
+
+/**
+ * One or more 1.7.2+ packets already in their final wire form: packet ID,
+ * payload, compression (when a threshold is set) and VarInt frame length.
+ *
+ * Written to a Netty pipeline like a Packet, it passes through
+ * {@link NettyPacketEncoder} and {@link PacketCompressEncoder} untouched
+ * (neither accepts it) and is unwrapped by {@link VarIntFrameEncoder}, so
+ * only encryption is still applied per connection. This lets the same
+ * encoded bytes be shared by every connection that agrees on packet IDs,
+ * compression threshold and deflate level, which is what makes caching chunk data
+ * worthwhile: deflate runs once instead of once per player.
+ *
+ * The content is read-only. Holders of a cached buffer should write
+ * {@code new PreEncodedFrame(cached.retainedDuplicate())} so each write
+ * gets its own indices and reference.
+ */
+public final class PreEncodedFrame extends DefaultByteBufHolder {
+
+    /** Threshold value meaning "compression not enabled on this connection". */
+    public static final int NO_COMPRESSION = -1;
+
+    public PreEncodedFrame(ByteBuf content) {
+        super(content);
+    }
+
+    /**
+     * Encode packets into one read-only buffer of consecutive frames, exactly
+     * as a pipeline of NettyPacketEncoder, PacketCompressEncoder (if
+     * {@code threshold >= 0}) and VarIntFrameEncoder would emit them.
+     *
+     * @param packetIds wire packet ID for each packet, in the same order
+     * @param threshold compression threshold, or {@link #NO_COMPRESSION}
+     * @param deflater  deflater to use (reset on return); not shared across threads.
+     *                  Its level must be the connection's
+     *                  {@link PacketCompressEncoder#getLevel()} for the bytes to match
+     */
+    public static ByteBuf encode(Packet[] packets, int[] packetIds, int threshold, Deflater deflater) {
+        ByteBuf frames = Unpooled.buffer();
+        ByteBuf body = Unpooled.buffer();
+        ByteBuf compressed = threshold >= 0 ? Unpooled.buffer() : null;
+        byte[] scratch = threshold >= 0 ? new byte[8192] : null;
+        try {
+            for (int i = 0; i < packets.length; i++) {
+                body.clear();
+                McDataTypes.writeVarInt(body, packetIds[i]);
+                packets[i].write(body);
+
+                ByteBuf payload = body;
+                if (compressed != null) {
+                    compressed.clear();
+                    PacketCompressEncoder.compress(body, compressed, threshold, deflater, scratch);
+                    payload = compressed;
+                }
+                McDataTypes.writeVarInt(frames, payload.readableBytes());
+                frames.writeBytes(payload);
+            }
+        } catch (RuntimeException e) {
+            frames.release();
+            throw e;
+        } finally {
+            body.release();
+            if (compressed != null) compressed.release();
+        }
+        return frames.capacity(frames.writerIndex()).asReadOnly();
+    }
+
+    @Override
+    public PreEncodedFrame replace(ByteBuf content) {
+        return new PreEncodedFrame(content);
+    }
+}
@@ -18,22 +18,35 @@ import java.util.List;
  * because downstream handlers (cipher, flush consolidation) process each message
  * independently and AES/CFB8 stream cipher state carries over between calls.
  *
+ * {@link PreEncodedFrame} messages are already framed (and compressed);
+ * their content is forwarded as-is so only the cipher stage still runs.
+ *
  * Sharable singleton since it has no per-connection state.
  * Derived from Velocity/Krypton's MinecraftVarintPrepender.
  */
 @ChannelHandler.Sharable
-public class VarIntFrameEncoder extends MessageToMessageEncoder<ByteBuf> {
+public class VarIntFrameEncoder extends MessageToMessageEncoder<Object> {
 
     public static final VarIntFrameEncoder INSTANCE = new VarIntFrameEncoder();
 
     @Override
-    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) {
-        int length = msg.readableBytes();
+    public boolean acceptOutboundMessage(Object msg) {
+        return msg instanceof ByteBuf || msg instanceof PreEncodedFrame;
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Object msg, List<Object> out) {
+        if (msg instanceof PreEncodedFrame frame) {
+            out.add(frame.content().retain());
+            return;
+        }
+        ByteBuf buf = (ByteBuf) msg;
+        int length = buf.readableBytes();
         int varintLength = McDataTypes.varIntSize(length);
 
         ByteBuf lenBuf = ctx.alloc().heapBuffer(varintLength);
         McDataTypes.writeVarInt(lenBuf, length);
         out.add(lenBuf);
-        out.add(msg.retain());
+        out.add(buf.retain());
     }
 }
@@ -239,6 +239,8 @@ public class NettyPacketRegistry {
         registerS2CReverse(NettyEntityPropertiesPacketV47.class, 0x20);
         registerS2CReverse(MapChunkPacketV47.class, 0x21);
         registerS2CReverse(NettyBlockChangePacketV47.class, 0x23);
+        registerS2CReverse(NettyMultiBlockChangePacket.class, 0x22);
+        registerS2CReverse(NettyMultiBlockChangePacketV47.class, 0x22);
         registerS2CReverse(NettySetSlotPacketV47.class, 0x2F);
         registerS2CReverse(NettyWindowItemsPacketV47.class, 0x30);
         registerS2CReverse(NettyPlayerListItemPacketV47.class, 0x38);
@@ -475,6 +477,7 @@ public class NettyPacketRegistry {
             registerV109S2CReverse(EntityTeleportPacketV109.class, 0x4A);
             // Reused V47 packet classes with remapped IDs
             registerV109S2CReverse(NettyBlockChangePacketV47.class, 0x0B);
+            registerV109S2CReverse(NettyMultiBlockChangePacketV47.class, 0x10);
             registerV109S2CReverse(NettyChatS2CPacketV47.class, 0x0F);
             registerV109S2CReverse(NettyWindowItemsPacketV47.class, 0x14);
             registerV109S2CReverse(NettySetSlotPacketV47.class, 0x16);
@@ -876,6 +879,7 @@ public class NettyPacketRegistry {
             registerV393S2CReverse(NettyEntityPropertiesPacketV47.class, 0x52);
             // V393-specific packet classes
             registerV393S2CReverse(NettyBlockChangePacketV393.class, 0x0B);
+            registerV393S2CReverse(NettyMultiBlockChangePacketV47.class, 0x0F);
             // New mandatory S2C packets
             registerV393S2CReverse(DeclareCommandsPacketV393.class, 0x11);
             registerV393S2CReverse(NettyEntityEventPacket.class, 0x1C);
@@ -1083,6 +1087,7 @@ public class NettyPacketRegistry {
             registerV573S2CReverse(NettySpawnPlayerPacketV573.class, 0x05);
             registerV573S2CReverse(AcknowledgePlayerDiggingPacketV573.class, 0x08);
             registerV573S2CReverse(NettyBlockChangePacketV477.class, 0x0C);
+            registerV573S2CReverse(NettyMultiBlockChangePacketV47.class, 0x10);
             registerV573S2CReverse(NettyChatS2CPacketV47.class, 0x0F);
             registerV573S2CReverse(DeclareCommandsPacketV393.class, 0x12);
             registerV573S2CReverse(NettyEntityEventPacket.class, 0x1C);
@@ -1193,6 +1198,7 @@ public class NettyPacketRegistry {
             registerV735S2CReverse(NettySpawnPlayerPacketV573.class, 0x04);
             registerV735S2CReverse(AcknowledgePlayerDiggingPacketV573.class, 0x07);
             registerV735S2CReverse(NettyBlockChangePacketV477.class, 0x0B);
+            registerV735S2CReverse(NettyMultiBlockChangePacketV47.class, 0x0F);
             registerV735S2CReverse(NettyChatS2CPacketV735.class, 0x0E);
             registerV735S2CReverse(DeclareCommandsPacketV393.class, 0x11);
             registerV735S2CReverse(NettyEntityEventPacket.class, 0x1B);
@@ -1386,6 +1392,7 @@ public class NettyPacketRegistry {
             registerV751S2CReverse(EntityLookAndMovePacketV109.class, 0x28);
             registerV751S2CReverse(EntityLookPacketV47.class, 0x29);
             registerV751S2CReverse(com.github.martinambrus.rdforward.protocol.packet.netty.EntityHeadRotationPacket.class, 0x3A);
+            registerV751S2CReverse(NettySectionBlocksUpdatePacketV751.class, 0x3B);
             registerV751S2CReverse(PlayerAbilitiesPacketV73.class, 0x30);
             registerV751S2CReverse(NettyPlayerListItemPacketV47.class, 0x32);
             registerV751S2CReverse(NettyPlayerPositionS2CPacketV109.class, 0x34);
@@ -1529,6 +1536,7 @@ public class NettyPacketRegistry {
             registerV755S2CReverse(EntityLookAndMovePacketV109.class, 0x2A);
             registerV755S2CReverse(EntityLookPacketV47.class, 0x2B);
             registerV755S2CReverse(com.github.martinambrus.rdforward.protocol.packet.netty.EntityHeadRotationPacket.class, 0x3E);
+            registerV755S2CReverse(NettySectionBlocksUpdatePacketV751.class, 0x3F);
             registerV755S2CReverse(PlayerAbilitiesPacketV73.class, 0x32);
             registerV755S2CReverse(NettyPlayerListItemPacketV47.class, 0x36);
             registerV755S2CReverse(NettyPlayerPositionS2CPacketV755.class, 0x38);
@@ -1773,6 +1781,7 @@ public class NettyPacketRegistry {
             registerV759S2CReverse(EntityLookAndMovePacketV109.class, 0x27);
             registerV759S2CReverse(EntityLookPacketV47.class, 0x28);
             registerV759S2CReverse(com.github.martinambrus.rdforward.protocol.packet.netty.EntityHeadRotationPacket.class, 0x3C);
+            registerV759S2CReverse(NettySectionBlocksUpdatePacketV751.class, 0x3D);
             registerV759S2CReverse(PlayerAbilitiesPacketV73.class, 0x2F);
             registerV759S2CReverse(NettyPlayerListItemPacketV759.class, 0x34);
             registerV759S2CReverse(NettyPlayerPositionS2CPacketV755.class, 0x36);
@@ -1945,6 +1954,7 @@ public class NettyPacketRegistry {
             registerV760S2CReverse(EntityLookAndMovePacketV109.class, 0x29);
             registerV760S2CReverse(EntityLookPacketV47.class, 0x2A);
             registerV760S2CReverse(com.github.martinambrus.rdforward.protocol.packet.netty.EntityHeadRotationPacket.class, 0x3F);
+            registerV760S2CReverse(NettySectionBlocksUpdatePacketV751.class, 0x40);
             registerV760S2CReverse(PlayerAbilitiesPacketV73.class, 0x31);
             registerV760S2CReverse(NettyPlayerListItemPacketV759.class, 0x37);
             registerV760S2CReverse(NettyPlayerPositionS2CPacketV755.class, 0x39);
@@ -2120,6 +2130,7 @@ public class NettyPacketRegistry {
             registerV761S2CReverse(EntityLookAndMovePacketV109.class, 0x28);
             registerV761S2CReverse(EntityLookPacketV47.class, 0x29);
             registerV761S2CReverse(com.github.martinambrus.rdforward.protocol.packet.netty.EntityHeadRotationPacket.class, 0x3E);
+            registerV761S2CReverse(NettySectionBlocksUpdatePacketV751.class, 0x3F);
             registerV761S2CReverse(PlayerAbilitiesPacketV73.class, 0x30);
             registerV761S2CReverse(NettyPlayerInfoRemovePacketV761.class, 0x35);
             registerV761S2CReverse(NettyPlayerInfoUpdatePacketV761.class, 0x36);
@@ -2307,6 +2318,7 @@ public class NettyPacketRegistry {
             registerV762S2CReverse(EntityLookAndMovePacketV109.class, 0x2C);
             registerV762S2CReverse(EntityLookPacketV47.class, 0x2D);
             registerV762S2CReverse(com.github.martinambrus.rdforward.protocol.packet.netty.EntityHeadRotationPacket.class, 0x42);
+            registerV762S2CReverse(NettySectionBlocksUpdatePacketV751.class, 0x43);
             registerV762S2CReverse(PlayerAbilitiesPacketV73.class, 0x34);
             registerV762S2CReverse(NettyPlayerInfoRemovePacketV761.class, 0x39);
             registerV762S2CReverse(NettyPlayerInfoUpdatePacketV761.class, 0x3A);
@@ -2480,6 +2492,8 @@ public class NettyPacketRegistry {
             registerV763S2CReverse(JoinGamePacketV763.class, 0x28);
             registerV763S2CReverse(MapChunkPacketV763.class, 0x24);
             registerV763S2CReverse(UpdateTagsPacketV763.class, 0x6E);
+            // Section Blocks Update lost its suppress-light-updates boolean
+            registerV763S2CReverse(NettySectionBlocksUpdatePacketV763.class, 0x43);
     
             // === V763 S2C forward map entries (for bot decoder) ===
             registerV763S2C(0x24, new PacketFactory() { public Packet create() { return new MapChunkPacketV763(); } });
@@ -2576,6 +2590,7 @@ public class NettyPacketRegistry {
             registerV764S2CReverse(EntityLookAndMovePacketV109.class, 0x2D);
             registerV764S2CReverse(EntityLookPacketV47.class, 0x2E);
             registerV764S2CReverse(com.github.martinambrus.rdforward.protocol.packet.netty.EntityHeadRotationPacket.class, 0x44);
+            registerV764S2CReverse(NettySectionBlocksUpdatePacketV763.class, 0x45);
             registerV764S2CReverse(PlayerAbilitiesPacketV73.class, 0x36);
             registerV764S2CReverse(NettyPlayerInfoRemovePacketV761.class, 0x3B);
             registerV764S2CReverse(NettyPlayerInfoUpdatePacketV761.class, 0x3C);
@@ -2736,6 +2751,7 @@ public class NettyPacketRegistry {
             // Packets with new class (changed wire format):
             registerV765S2CReverse(SystemChatPacketV765.class, 0x69);
             registerV765S2CReverse(NettyDisconnectPacketV765.class, 0x1B);
+            registerV765S2CReverse(NettySectionBlocksUpdatePacketV763.class, 0x47);
             // Packets shifted +2 (0x42 <= id < 0x6C):
             registerV765S2CReverse(SetChunkCacheCenterPacketV477.class, 0x52);
             registerV765S2CReverse(SetChunkCacheRadiusPacketV477.class, 0x53);
@@ -2925,6 +2941,7 @@ public class NettyPacketRegistry {
             registerV766S2CReverse(EntityLookAndMovePacketV109.class, 0x2F);
             registerV766S2CReverse(EntityLookPacketV47.class, 0x30);
             registerV766S2CReverse(com.github.martinambrus.rdforward.protocol.packet.netty.EntityHeadRotationPacket.class, 0x48);
+            registerV766S2CReverse(NettySectionBlocksUpdatePacketV763.class, 0x49);
             registerV766S2CReverse(PlayerAbilitiesPacketV73.class, 0x38);
             registerV766S2CReverse(NettyPlayerInfoRemovePacketV761.class, 0x3D);
             registerV766S2CReverse(NettyPlayerInfoUpdatePacketV761.class, 0x3E);
@@ -3140,6 +3157,7 @@ public class NettyPacketRegistry {
             registerV768S2CReverse(EntityLookAndMovePacketV109.class, 0x30);
             registerV768S2CReverse(EntityLookPacketV47.class, 0x32);
             registerV768S2CReverse(com.github.martinambrus.rdforward.protocol.packet.netty.EntityHeadRotationPacket.class, 0x4D);
+            registerV768S2CReverse(NettySectionBlocksUpdatePacketV763.class, 0x4E);
             registerV768S2CReverse(PlayerAbilitiesPacketV73.class, 0x3A);
             registerV768S2CReverse(NettyPlayerInfoRemovePacketV761.class, 0x3F);
             registerV768S2CReverse(NettyPlayerInfoUpdatePacketV761.class, 0x40);
@@ -3440,6 +3458,7 @@ public class NettyPacketRegistry {
             registerV770S2CReverse(EntityLookAndMovePacketV109.class, 0x2F);
             registerV770S2CReverse(EntityLookPacketV47.class, 0x31);
             registerV770S2CReverse(com.github.martinambrus.rdforward.protocol.packet.netty.EntityHeadRotationPacket.class, 0x4C);
+            registerV770S2CReverse(NettySectionBlocksUpdatePacketV763.class, 0x4D);
             registerV770S2CReverse(PlayerAbilitiesPacketV73.class, 0x39);
             registerV770S2CReverse(NettyPlayerInfoRemovePacketV761.class, 0x3E);
             registerV770S2CReverse(NettyPlayerInfoUpdatePacketV761.class, 0x3F);
@@ -3754,6 +3773,7 @@ public class NettyPacketRegistry {
             registerV773S2CReverse(EntityLookAndMovePacketV109.class, 0x34); // was 0x2F, +5
             registerV773S2CReverse(EntityLookPacketV47.class, 0x36);         // was 0x31, +5
             registerV773S2CReverse(com.github.martinambrus.rdforward.protocol.packet.netty.EntityHeadRotationPacket.class, 0x51); // was 0x4C, +5
+            registerV773S2CReverse(NettySectionBlocksUpdatePacketV763.class, 0x52); // was 0x4D, +5
             registerV773S2CReverse(PlayerAbilitiesPacketV73.class, 0x3E);    // was 0x39, +5
             registerV773S2CReverse(NettyPlayerInfoRemovePacketV761.class, 0x43); // was 0x3E, +5
             registerV773S2CReverse(NettyPlayerInfoUpdatePacketV761.class, 0x44); // was 0x3F, +5
@@ -3879,6 +3899,8 @@ public class NettyPacketRegistry {
                     NettyDestroyEntitiesPacketV47.class), 0x4D);      // was 0x4B, +2
             REVERSE.put(reverseKey(ConnectionState.PLAY, PacketDirection.SERVER_TO_CLIENT,
                     com.github.martinambrus.rdforward.protocol.packet.netty.EntityHeadRotationPacket.class), 0x53); // was 0x51, +2
+            REVERSE.put(reverseKey(ConnectionState.PLAY, PacketDirection.SERVER_TO_CLIENT,
+                    NettySectionBlocksUpdatePacketV763.class), 0x54); // was 0x52, +2
             REVERSE.put(reverseKey(ConnectionState.PLAY, PacketDirection.SERVER_TO_CLIENT,
                     SetChunkCacheCenterPacketV477.class), 0x5E);      // was 0x5C, +2
             REVERSE.put(reverseKey(ConnectionState.PLAY, PacketDirection.SERVER_TO_CLIENT,
@@ -441,6 +441,9 @@ public class PacketRegistry {
             register(v, PacketDirection.SERVER_TO_CLIENT, 0x33, new PacketFactory() {
                 public Packet create() { return new MapChunkPacket(); }
             });
+            register(v, PacketDirection.SERVER_TO_CLIENT, 0x34, new PacketFactory() {
+                public Packet create() { return new MultiBlockChangePacket(); }
+            });
             register(v, PacketDirection.SERVER_TO_CLIENT, 0x35, new PacketFactory() {
                 public Packet create() { return new BlockChangePacket(); }
             });
@@ -712,6 +715,9 @@ public class PacketRegistry {
                 register(betaV, PacketDirection.SERVER_TO_CLIENT, 0x33, new PacketFactory() {
                     public Packet create() { return new MapChunkPacketV28(); }
                 });
+                register(betaV, PacketDirection.SERVER_TO_CLIENT, 0x34, new PacketFactory() {
+                    public Packet create() { return new MultiBlockChangePacketV28(); }
+                });
                 // InputPacket (0x1B) removed in 12w01a (between v23 and v28)
                 REGISTRY.remove(registryKey(betaV, PacketDirection.CLIENT_TO_SERVER, 0x1B));
                 // EntityHeadRotation (0x23) added in Release 1.2.1 (v28)
@@ -0,0 +1,81 @@
+package com.github.martinambrus.rdforward.protocol.packet.alpha;
+
+import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Alpha/Beta protocol 0x34 (Server -> Client): Multi Block Change.
+ *
+ * Several block changes inside one chunk column in a single packet.
+ * Used up to Beta 1.8 / Release 1.1 (v23); v28+ uses
+ * {@link MultiBlockChangePacketV28}.
+ *
+ * Wire format:
+ *   [int]     chunk X
+ *   [int]     chunk Z
+ *   [short]   record count
+ *   [short[]] positions, (x << 12) | (z << 8) | y, chunk-relative
+ *   [byte[]]  block type IDs
+ *   [byte[]]  block metadata
+ */
+public class MultiBlockChangePacket implements Packet {
+
+    private int chunkX;
+    private int chunkZ;
+    private short[] positions;
+    private byte[] blockTypes;
+    private byte[] metadata;
+
+    public MultiBlockChangePacket() {}
+
+    public MultiBlockChangePacket(int chunkX, int chunkZ, short[] positions, byte[] blockTypes, byte[] metadata) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.positions = positions;
+        this.blockTypes = blockTypes;
+        this.metadata = metadata;
+    }
+
+    /** Pack a chunk-relative position into the record layout. */
+    public static short position(int localX, int y, int localZ) {
+        return (short) ((localX & 0xF) << 12 | (localZ & 0xF) << 8 | (y & 0xFF));
+    }
+
+    @Override
+    public int getPacketId() {
+        return 0x34;
+    }
+
+    @Override
+    public void write(ByteBuf buf) {
+        buf.writeInt(chunkX);
+        buf.writeInt(chunkZ);
+        buf.writeShort(positions.length);
+        for (short position : positions) {
+            buf.writeShort(position);
+        }
+        buf.writeBytes(blockTypes, 0, positions.length);
+        buf.writeBytes(metadata, 0, positions.length);
+    }
+
+    @Override
+    public void read(ByteBuf buf) {
+        chunkX = buf.readInt();
+        chunkZ = buf.readInt();
+        int count = buf.readUnsignedShort();
+        positions = new short[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = buf.readShort();
+        }
+        blockTypes = new byte[count];
+        buf.readBytes(blockTypes);
+        metadata = new byte[count];
+        buf.readBytes(metadata);
+    }
+
+    public int getChunkX() { return chunkX; }
+    public int getChunkZ() { return chunkZ; }
+    public short[] getPositions() { return positions; }
+    public byte[] getBlockTypes() { return blockTypes; }
+    public byte[] getMetadata() { return metadata; }
+}
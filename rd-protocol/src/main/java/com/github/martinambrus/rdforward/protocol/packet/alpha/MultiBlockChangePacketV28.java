@@ -0,0 +1,73 @@
+package com.github.martinambrus.rdforward.protocol.packet.alpha;
+
+import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Release 1.2.1+ protocol 0x34 (Server -> Client): Multi Block Change.
+ *
+ * v28 folded position, block ID and metadata into one int per record,
+ * preceded by the byte size of the record data.
+ *
+ * Wire format:
+ *   [int]   chunk X
+ *   [int]   chunk Z
+ *   [short] record count
+ *   [int]   data size (record count * 4)
+ *   [int[]] records, see {@link #record}
+ */
+public class MultiBlockChangePacketV28 implements Packet {
+
+    private int chunkX;
+    private int chunkZ;
+    private int[] records;
+
+    public MultiBlockChangePacketV28() {}
+
+    public MultiBlockChangePacketV28(int chunkX, int chunkZ, int[] records) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.records = records;
+    }
+
+    /**
+     * Pack one change: x(4) | z(4) | y(8) | block ID(12) | metadata(4),
+     * with x/z chunk-relative.
+     */
+    public static int record(int localX, int y, int localZ, int blockId, int metadata) {
+        return (localX & 0xF) << 28 | (localZ & 0xF) << 24 | (y & 0xFF) << 16
+                | (blockId & 0xFFF) << 4 | (metadata & 0xF);
+    }
+
+    @Override
+    public int getPacketId() {
+        return 0x34;
+    }
+
+    @Override
+    public void write(ByteBuf buf) {
+        buf.writeInt(chunkX);
+        buf.writeInt(chunkZ);
+        buf.writeShort(records.length);
+        buf.writeInt(records.length * 4);
+        for (int record : records) {
+            buf.writeInt(record);
+        }
+    }
+
+    @Override
+    public void read(ByteBuf buf) {
+        chunkX = buf.readInt();
+        chunkZ = buf.readInt();
+        int count = buf.readUnsignedShort();
+        buf.readInt(); // data size
+        records = new int[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = buf.readInt();
+        }
+    }
+
+    public int getChunkX() { return chunkX; }
+    public int getChunkZ() { return chunkZ; }
+    public int[] getRecords() { return records; }
+}
@@ -48,6 +48,8 @@ public class LCEBlockRegionUpdatePacket implements Packet {
     @Override
     public int getPacketId() { return 0x33; }
 
+    public byte[] getCompressedData() { return compressedData; }
+
     @Override
     public void write(ByteBuf buf) {
         byte chunkFlags = 0;
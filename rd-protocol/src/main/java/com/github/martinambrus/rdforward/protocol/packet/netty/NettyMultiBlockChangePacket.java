@@ -0,0 +1,63 @@
+package com.github.martinambrus.rdforward.protocol.packet.netty;
+
+import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.MultiBlockChangePacketV28;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * 1.7.2 Play state, S2C packet 0x22: Multi Block Change.
+ *
+ * Same layout as the pre-Netty v28 packet; records are packed with
+ * {@link MultiBlockChangePacketV28#record}.
+ *
+ * Wire format:
+ *   [int]   chunk X
+ *   [int]   chunk Z
+ *   [short] record count
+ *   [int]   data size (record count * 4)
+ *   [int[]] records, x(4) | z(4) | y(8) | block ID(12) | metadata(4)
+ */
+public class NettyMultiBlockChangePacket implements Packet {
+
+    private int chunkX;
+    private int chunkZ;
+    private int[] records;
+
+    public NettyMultiBlockChangePacket() {}
+
+    public NettyMultiBlockChangePacket(int chunkX, int chunkZ, int[] records) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.records = records;
+    }
+
+    @Override
+    public int getPacketId() { return 0x22; }
+
+    @Override
+    public void write(ByteBuf buf) {
+        buf.writeInt(chunkX);
+        buf.writeInt(chunkZ);
+        buf.writeShort(records.length);
+        buf.writeInt(records.length * 4);
+        for (int record : records) {
+            buf.writeInt(record);
+        }
+    }
+
+    @Override
+    public void read(ByteBuf buf) {
+        chunkX = buf.readInt();
+        chunkZ = buf.readInt();
+        int count = buf.readUnsignedShort();
+        buf.readInt(); // data size
+        records = new int[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = buf.readInt();
+        }
+    }
+
+    public int getChunkX() { return chunkX; }
+    public int getChunkZ() { return chunkZ; }
+    public int[] getRecords() { return records; }
+}
@@ -0,0 +1,80 @@
+package com.github.martinambrus.rdforward.protocol.packet.netty;
+
+import com.github.martinambrus.rdforward.protocol.McDataTypes;
+import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * 1.8 Play state, S2C packet 0x22: Multi Block Change.
+ *
+ * Used unchanged through 1.16.1 (v736); only the packet ID moves and,
+ * from 1.13, the block value is a global block state ID instead of
+ * (id << 4 | meta). Replaced by {@link NettySectionBlocksUpdatePacketV751}
+ * in 1.16.2.
+ *
+ * Wire format:
+ *   [int]    chunk X
+ *   [int]    chunk Z
+ *   [VarInt] record count
+ *   per record:
+ *     [ubyte]  horizontal position, (x << 4) | z, chunk-relative
+ *     [ubyte]  y
+ *     [VarInt] block (id << 4 | meta before 1.13, block state ID after)
+ */
+public class NettyMultiBlockChangePacketV47 implements Packet {
+
+    private int chunkX;
+    private int chunkZ;
+    private short[] positions;
+    private int[] blocks;
+
+    public NettyMultiBlockChangePacketV47() {}
+
+    /**
+     * @param positions per record, (horizontal << 8) | y, see {@link #position}
+     * @param blocks    per record block value, same order as {@code positions}
+     */
+    public NettyMultiBlockChangePacketV47(int chunkX, int chunkZ, short[] positions, int[] blocks) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.positions = positions;
+        this.blocks = blocks;
+    }
+
+    /** Pack a chunk-relative position as (x << 12) | (z << 8) | y. */
+    public static short position(int localX, int y, int localZ) {
+        return (short) ((localX & 0xF) << 12 | (localZ & 0xF) << 8 | (y & 0xFF));
+    }
+
+    @Override
+    public int getPacketId() { return 0x22; }
+
+    @Override
+    public void write(ByteBuf buf) {
+        buf.writeInt(chunkX);
+        buf.writeInt(chunkZ);
+        McDataTypes.writeVarInt(buf, positions.length);
+        for (int i = 0; i < positions.length; i++) {
+            buf.writeShort(positions[i]);
+            McDataTypes.writeVarInt(buf, blocks[i]);
+        }
+    }
+
+    @Override
+    public void read(ByteBuf buf) {
+        chunkX = buf.readInt();
+        chunkZ = buf.readInt();
+        int count = McDataTypes.readVarInt(buf);
+        positions = new short[count];
+        blocks = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = buf.readShort();
+            blocks[i] = McDataTypes.readVarInt(buf);
+        }
+    }
+
+    public int getChunkX() { return chunkX; }
+    public int getChunkZ() { return chunkZ; }
+    public short[] getPositions() { return positions; }
+    public int[] getBlocks() { return blocks; }
+}
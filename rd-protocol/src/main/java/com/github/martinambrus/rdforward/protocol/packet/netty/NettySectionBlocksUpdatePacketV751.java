@@ -0,0 +1,77 @@
+package com.github.martinambrus.rdforward.protocol.packet.netty;
+
+import com.github.martinambrus.rdforward.protocol.McDataTypes;
+import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * 1.16.2 Play state, S2C packet 0x3B: Section Blocks Update.
+ *
+ * Replaces Multi Block Change: changes are grouped per 16x16x16 section
+ * instead of per chunk column. 1.20 dropped the light-update flag, see
+ * {@link NettySectionBlocksUpdatePacketV763}.
+ *
+ * Wire format:
+ *   [long]     section position, x(22) | z(22) | y(20)
+ *   [boolean]  suppress light updates
+ *   [VarInt]   record count
+ *   [VarLong]  records, (block state << 12) | (x << 8) | (z << 4) | y,
+ *              section-relative
+ */
+public class NettySectionBlocksUpdatePacketV751 implements Packet {
+
+    private int sectionX;
+    private int sectionY;
+    private int sectionZ;
+    private long[] records;
+
+    public NettySectionBlocksUpdatePacketV751() {}
+
+    public NettySectionBlocksUpdatePacketV751(int sectionX, int sectionY, int sectionZ, long[] records) {
+        this.sectionX = sectionX;
+        this.sectionY = sectionY;
+        this.sectionZ = sectionZ;
+        this.records = records;
+    }
+
+    /** Pack one change; x/y/z are section-relative (0-15). */
+    public static long record(int localX, int localY, int localZ, int blockStateId) {
+        return (long) blockStateId << 12 | (localX & 0xF) << 8 | (localZ & 0xF) << 4 | (localY & 0xF);
+    }
+
+    static long sectionPosition(int x, int y, int z) {
+        return ((long) x & 0x3FFFFF) << 42 | ((long) z & 0x3FFFFF) << 20 | ((long) y & 0xFFFFF);
+    }
+
+    @Override
+    public int getPacketId() { return 0x3B; }
+
+    @Override
+    public void write(ByteBuf buf) {
+        buf.writeLong(sectionPosition(sectionX, sectionY, sectionZ));
+        buf.writeBoolean(true);
+        McDataTypes.writeVarInt(buf, records.length);
+        for (long record : records) {
+            McDataTypes.writeVarLong(buf, record);
+        }
+    }
+
+    @Override
+    public void read(ByteBuf buf) {
+        long pos = buf.readLong();
+        sectionX = (int) (pos >> 42);
+        sectionY = (int) (pos << 44 >> 44);
+        sectionZ = (int) (pos << 22 >> 42);
+        buf.readBoolean();
+        int count = McDataTypes.readVarInt(buf);
+        records = new long[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = McDataTypes.readVarLong(buf);
+        }
+    }
+
+    public int getSectionX() { return sectionX; }
+    public int getSectionY() { return sectionY; }
+    public int getSectionZ() { return sectionZ; }
+    public long[] getRecords() { return records; }
+}
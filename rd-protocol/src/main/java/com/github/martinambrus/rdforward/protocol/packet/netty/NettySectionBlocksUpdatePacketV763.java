@@ -0,0 +1,64 @@
+package com.github.martinambrus.rdforward.protocol.packet.netty;
+
+import com.github.martinambrus.rdforward.protocol.McDataTypes;
+import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * 1.20 Play state, S2C packet 0x43: Section Blocks Update.
+ *
+ * Same as {@link NettySectionBlocksUpdatePacketV751} without the
+ * suppress-light-updates boolean.
+ *
+ * Wire format:
+ *   [long]     section position, x(22) | z(22) | y(20)
+ *   [VarInt]   record count
+ *   [VarLong]  records, (block state << 12) | (x << 8) | (z << 4) | y,
+ *              section-relative
+ */
+public class NettySectionBlocksUpdatePacketV763 implements Packet {
+
+    private int sectionX;
+    private int sectionY;
+    private int sectionZ;
+    private long[] records;
+
+    public NettySectionBlocksUpdatePacketV763() {}
+
+    public NettySectionBlocksUpdatePacketV763(int sectionX, int sectionY, int sectionZ, long[] records) {
+        this.sectionX = sectionX;
+        this.sectionY = sectionY;
+        this.sectionZ = sectionZ;
+        this.records = records;
+    }
+
+    @Override
+    public int getPacketId() { return 0x43; }
+
+    @Override
+    public void write(ByteBuf buf) {
+        buf.writeLong(NettySectionBlocksUpdatePacketV751.sectionPosition(sectionX, sectionY, sectionZ));
+        McDataTypes.writeVarInt(buf, records.length);
+        for (long record : records) {
+            McDataTypes.writeVarLong(buf, record);
+        }
+    }
+
+    @Override
+    public void read(ByteBuf buf) {
+        long pos = buf.readLong();
+        sectionX = (int) (pos >> 42);
+        sectionY = (int) (pos << 44 >> 44);
+        sectionZ = (int) (pos << 22 >> 42);
+        int count = McDataTypes.readVarInt(buf);
+        records = new long[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = McDataTypes.readVarLong(buf);
+        }
+    }
+
+    public int getSectionX() { return sectionX; }
+    public int getSectionY() { return sectionY; }
+    public int getSectionZ() { return sectionZ; }
+    public long[] getRecords() { return records; }
+}
@@ -4,11 +4,9 @@ import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Translates block IDs between protocol versions.
@@ -18,7 +16,10 @@ import java.util.concurrent.ConcurrentHashMap;
  * must be translated to the closest equivalent in the client's version.
  *
  * Translation tables are loaded lazily from .properties resource files under
- * {@code block-mappings/} on first access for each version pair.
+ * {@code block-mappings/} on first access for each version pair, and compiled
+ * into flat arrays indexed by source block ID so a lookup is a single array
+ * read. Version pairs are found through a 2D array indexed by the enum
+ * ordinals of the two versions.
  *
  * Supported translation pairs:
  * - Classic -> RubyDung (50 -> 3 blocks)
@@ -29,31 +30,69 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class BlockTranslator {
 
-    private static final ConcurrentHashMap<String, Map<Integer, Integer>> TRANSLATION_TABLES =
-            new ConcurrentHashMap<String, Map<Integer, Integer>>();
-
-    /** Sentinel value for keys that have no translation file. */
-    private static final Map<Integer, Integer> NO_TABLE = Collections.emptyMap();
+    /**
+     * One version pair's mapping, resolved for every source ID.
+     *
+     * {@link #translate} and {@link #translateArray} have always treated
+     * unmapped IDs differently (air vs. unchanged), so both views are kept.
+     */
+    private static final class Table {
+        /** Target ID per source ID; unmapped IDs are 0 (Air). At least 256 entries. */
+        final int[] ids;
+        /** Target ID per byte-sized source ID; unmapped IDs map to themselves. */
+        final byte[] bytes;
 
-    private static String makeKey(ProtocolVersion from, ProtocolVersion to) {
-        return from.name() + "->" + to.name();
+        Table(Map<Integer, Integer> mapping) {
+            int size = 256;
+            for (Integer sourceId : mapping.keySet()) {
+                if (sourceId != null && sourceId >= size) size = sourceId + 1;
+            }
+            ids = new int[size];
+            bytes = new byte[256];
+            for (int i = 0; i < 256; i++) {
+                bytes[i] = (byte) i;
+            }
+            for (Map.Entry<Integer, Integer> e : mapping.entrySet()) {
+                Integer sourceId = e.getKey();
+                Integer targetId = e.getValue();
+                if (sourceId == null || targetId == null || sourceId < 0) continue;
+                ids[sourceId] = targetId;
+                if (sourceId < 256) bytes[sourceId] = (byte) (int) targetId;
+            }
+        }
     }
 
+    /** Sentinel for version pairs that have no translation file. */
+    private static final Table NO_TABLE = new Table(new HashMap<Integer, Integer>());
+
+    private static final int VERSION_COUNT = ProtocolVersion.values().length;
+
+    /**
+     * Compiled tables as [from.ordinal()][to.ordinal()]. A null slot has not
+     * been looked up yet; slots are filled under the class lock, and since
+     * {@link Table} is immutable with final fields a racing reader sees either
+     * null (and takes the lock) or a complete table.
+     */
+    private static final Table[][] TABLES = new Table[VERSION_COUNT][VERSION_COUNT];
+
     /**
      * Get (or lazily load) the translation table for a version pair.
      * Returns null if no table exists for this pair.
      */
-    private static Map<Integer, Integer> getTable(ProtocolVersion from, ProtocolVersion to) {
-        String key = makeKey(from, to);
-        Map<Integer, Integer> table = TRANSLATION_TABLES.get(key);
-        if (table != null) {
-            return table == NO_TABLE ? null : table;
-        }
-        // Lazy-load: determine the resource file for this version pair
-        table = loadTableForPair(from, to);
-        Map<Integer, Integer> existing = TRANSLATION_TABLES.putIfAbsent(key, table != null ? table : NO_TABLE);
-        if (existing != null) {
-            return existing == NO_TABLE ? null : existing;
+    private static Table getTable(ProtocolVersion from, ProtocolVersion to) {
+        Table table = TABLES[from.ordinal()][to.ordinal()];
+        if (table == null) {
+            table = loadSlot(from, to);
+        }
+        return table == NO_TABLE ? null : table;
+    }
+
+    private static synchronized Table loadSlot(ProtocolVersion from, ProtocolVersion to) {
+        Table table = TABLES[from.ordinal()][to.ordinal()];
+        if (table == null) {
+            table = loadTableForPair(from, to);
+            if (table == null) table = NO_TABLE;
+            TABLES[from.ordinal()][to.ordinal()] = table;
         }
         return table;
     }
@@ -62,7 +101,7 @@ public class BlockTranslator {
      * Determine which resource file to load for a given version pair, and load it.
      * Returns null if no mapping exists.
      */
-    private static Map<Integer, Integer> loadTableForPair(ProtocolVersion from, ProtocolVersion to) {
+    private static Table loadTableForPair(ProtocolVersion from, ProtocolVersion to) {
         // Classic v7 -> Classic 0.0.15a
         if (from == ProtocolVersion.CLASSIC && to == ProtocolVersion.CLASSIC_0_0_15A) {
             return loadProperties("classic-to-classic015a.properties");
@@ -94,21 +133,16 @@ public class BlockTranslator {
         return null;
     }
 
-    /** Cache for shared Alpha translation tables (all Alpha versions use the same file). */
-    private static final ConcurrentHashMap<String, Map<Integer, Integer>> ALPHA_TABLE_CACHE =
-            new ConcurrentHashMap<String, Map<Integer, Integer>>();
+    /** Compiled shared Alpha tables (all Alpha versions use the same file). Guarded by the class lock. */
+    private static final Map<String, Table> ALPHA_TABLE_CACHE = new HashMap<String, Table>();
 
-    private static Map<Integer, Integer> getSharedAlphaTable(String resourceName) {
-        Map<Integer, Integer> table = ALPHA_TABLE_CACHE.get(resourceName);
-        if (table != null) {
-            return table == NO_TABLE ? null : table;
-        }
-        table = loadProperties(resourceName);
-        Map<Integer, Integer> existing = ALPHA_TABLE_CACHE.putIfAbsent(resourceName, table != null ? table : NO_TABLE);
-        if (existing != null) {
-            return existing == NO_TABLE ? null : existing;
+    private static Table getSharedAlphaTable(String resourceName) {
+        Table table = ALPHA_TABLE_CACHE.get(resourceName);
+        if (table == null) {
+            table = loadProperties(resourceName);
+            ALPHA_TABLE_CACHE.put(resourceName, table != null ? table : NO_TABLE);
         }
-        return table;
+        return table == NO_TABLE ? null : table;
     }
 
     private static boolean isAlpha(ProtocolVersion pv) {
@@ -128,10 +162,10 @@ public class BlockTranslator {
     }
 
     /**
-     * Load a block mapping from a .properties resource file.
+     * Load a block mapping from a .properties resource file and compile it.
      * Returns null if the resource is not found.
      */
-    private static Map<Integer, Integer> loadProperties(String resourceName) {
+    private static Table loadProperties(String resourceName) {
         String path = "block-mappings/" + resourceName;
         try (InputStream is = BlockTranslator.class.getClassLoader().getResourceAsStream(path)) {
             if (is == null) {
@@ -141,17 +175,17 @@ public class BlockTranslator {
             Properties props = new Properties();
             props.load(is);
 
-            Map<Integer, Integer> table = new HashMap<Integer, Integer>();
+            Map<Integer, Integer> mapping = new HashMap<Integer, Integer>();
             for (String key : props.stringPropertyNames()) {
                 try {
                     int sourceId = Integer.parseInt(key.trim());
                     int targetId = Integer.parseInt(props.getProperty(key).trim());
-                    table.put(sourceId, targetId);
+                    mapping.put(sourceId, targetId);
                 } catch (NumberFormatException e) {
                     // Skip malformed entries
                 }
             }
-            return table;
+            return new Table(mapping);
         } catch (IOException e) {
             System.err.println("[BlockTranslator] Failed to load " + path + ": " + e.getMessage());
             return null;
@@ -164,50 +198,72 @@ public class BlockTranslator {
      * @param blockId the block ID in the source version
      * @param from    the source protocol version
      * @param to      the target protocol version
-     * @return the translated block ID, or the original ID if no mapping exists
+     * @return the translated block ID, the original ID if no table exists for
+     *         the pair, or 0 (Air) if the table has no mapping for it
      */
     public static int translate(int blockId, ProtocolVersion from, ProtocolVersion to) {
         if (from == to) {
             return blockId;
         }
 
-        Map<Integer, Integer> table = getTable(from, to);
+        Table table = getTable(from, to);
         if (table == null) {
             // No translation table for this version pair — return as-is
             return blockId;
         }
 
-        Integer translated = table.get(blockId);
-        // If no explicit mapping, return original (pass-through for identical IDs)
-        // or 0 (Air) for blocks that don't exist in the target version
-        return translated != null ? translated : 0;
+        // Blocks that don't exist in the target version become Air
+        int[] ids = table.ids;
+        return blockId >= 0 && blockId < ids.length ? ids[blockId] : 0;
     }
 
     /**
      * Translate an entire block array in-place.
-     * Used for chunk data translation.
+     * IDs without a mapping are left unchanged.
      */
     public static void translateArray(byte[] blocks, ProtocolVersion from, ProtocolVersion to) {
         if (from == to) return;
 
-        Map<Integer, Integer> table = getTable(from, to);
+        Table table = getTable(from, to);
         if (table == null) return;
 
+        byte[] map = table.bytes;
         for (int i = 0; i < blocks.length; i++) {
-            int blockId = blocks[i] & 0xFF;
-            Integer translated = table.get(blockId);
-            if (translated != null) {
-                blocks[i] = (byte) (int) translated;
-            }
+            blocks[i] = map[blocks[i] & 0xFF];
+        }
+    }
+
+    /**
+     * Copy {@code length} block IDs from {@code src} to {@code dest},
+     * translating them on the way (same rules as {@link #translateArray}).
+     * Lets serializers translate while taking their copy instead of copying
+     * first and translating the copy in a second pass. {@code src} is never
+     * modified; without a table for the pair this is a plain arraycopy.
+     */
+    public static void translateCopy(byte[] src, int srcPos, byte[] dest, int destPos, int length,
+                                     ProtocolVersion from, ProtocolVersion to) {
+        Table table = from == to ? null : getTable(from, to);
+        if (table == null) {
+            System.arraycopy(src, srcPos, dest, destPos, length);
+            return;
+        }
+
+        byte[] map = table.bytes;
+        for (int i = 0; i < length; i++) {
+            dest[destPos + i] = map[src[srcPos + i] & 0xFF];
         }
     }
 
     /**
      * Register a new translation table between two protocol versions.
      * This allows mods or future versions to add their own mappings.
+     * The mapping is compiled immediately; later changes to it have no effect.
      */
     public static void registerTranslation(ProtocolVersion from, ProtocolVersion to, Map<Integer, Integer> mapping) {
-        TRANSLATION_TABLES.put(makeKey(from, to), mapping);
+        Table table = new Table(mapping);
+        synchronized (BlockTranslator.class) {
+            TABLES[from.ordinal()][to.ordinal()] = table;
+        }
     }
 
     /**
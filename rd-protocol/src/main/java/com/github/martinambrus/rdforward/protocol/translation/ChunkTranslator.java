@@ -5,7 +5,9 @@ import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Arrays;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 
 /**
@@ -42,8 +44,8 @@ public class ChunkTranslator {
             return blocks;
         }
 
-        byte[] translated = Arrays.copyOf(blocks, blocks.length);
-        BlockTranslator.translateArray(translated, serverVersion, clientVersion);
+        byte[] translated = new byte[blocks.length];
+        BlockTranslator.translateCopy(blocks, 0, translated, 0, blocks.length, serverVersion, clientVersion);
         return translated;
     }
 
@@ -117,13 +119,30 @@ public class ChunkTranslator {
      * Used by both Classic level transfer and Alpha chunk packets.
      */
     public static byte[] compressGzip(byte[] data) throws IOException {
+        return compressGzip(data, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * GZip-compress at a given deflate level (0-9, or
+     * {@link Deflater#DEFAULT_COMPRESSION}).
+     */
+    public static byte[] compressGzip(byte[] data, int level) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (GZIPOutputStream gzip = new GZIPOutputStream(baos)) {
+        try (GZIPOutputStream gzip = gzipStream(baos, level)) {
             gzip.write(data);
         }
         return baos.toByteArray();
     }
 
+    /** A GZIPOutputStream whose deflater uses {@code level} instead of the default. */
+    public static GZIPOutputStream gzipStream(OutputStream out, int level) throws IOException {
+        return new GZIPOutputStream(out) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
     /**
      * Result of translating a chunk's block and metadata arrays.
      */
@@ -0,0 +1,106 @@
+package com.github.martinambrus.rdforward.protocol.codec;
+
+import com.github.martinambrus.rdforward.protocol.McDataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies runtime level/threshold changes on {@link PacketCompressEncoder}
+ * and its byte counters.
+ */
+class PacketCompressEncoderTest {
+
+    private static final int THRESHOLD = 256;
+
+    private static ByteBuf payload(int size) {
+        ByteBuf buf = Unpooled.buffer(size);
+        for (int i = 0; i < size; i++) {
+            buf.writeByte("abcdefgh".charAt(i % 8));
+        }
+        return buf;
+    }
+
+    /** Write one payload and return its dataLength prefix and remaining byte count. */
+    private static int[] send(EmbeddedChannel channel, int size) {
+        assertTrue(channel.writeOutbound(payload(size)));
+        ByteBuf out = channel.readOutbound();
+        try {
+            int dataLength = McDataTypes.readVarInt(out);
+            return new int[] {dataLength, out.readableBytes()};
+        } finally {
+            out.release();
+        }
+    }
+
+    @Test
+    void thresholdCannotDropBelowAnnouncedValue() {
+        PacketCompressEncoder encoder = new PacketCompressEncoder(THRESHOLD);
+        encoder.setThreshold(16);
+        assertEquals(THRESHOLD, encoder.getThreshold());
+        assertEquals(THRESHOLD, encoder.getAnnouncedThreshold());
+        encoder.setThreshold(PacketCompressEncoder.NO_COMPRESSION_THRESHOLD);
+        assertEquals(PacketCompressEncoder.NO_COMPRESSION_THRESHOLD, encoder.getThreshold());
+    }
+
+    @Test
+    void raisedThresholdSendsLargePacketsUncompressed() {
+        PacketCompressEncoder encoder = new PacketCompressEncoder(THRESHOLD);
+        EmbeddedChannel channel = new EmbeddedChannel(encoder);
+        assertEquals(4096, send(channel, 4096)[0], "compressed at the announced threshold");
+
+        encoder.setThreshold(PacketCompressEncoder.NO_COMPRESSION_THRESHOLD);
+        int[] raw = send(channel, 4096);
+        assertEquals(0, raw[0]);
+        assertEquals(4096, raw[1]);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void levelChangeAppliesToNextPacket() throws Exception {
+        PacketCompressEncoder encoder = new PacketCompressEncoder(THRESHOLD, Deflater.DEFAULT_COMPRESSION);
+        assertEquals(PacketCompressEncoder.DEFAULT_LEVEL, encoder.getLevel());
+        EmbeddedChannel channel = new EmbeddedChannel(encoder);
+
+        encoder.setLevel(Deflater.NO_COMPRESSION);
+        assertTrue(channel.writeOutbound(payload(4096)));
+        ByteBuf stored = channel.readOutbound();
+        assertEquals(4096, McDataTypes.readVarInt(stored));
+        byte[] zlib = new byte[stored.readableBytes()];
+        stored.readBytes(zlib);
+        stored.release();
+        assertTrue(zlib.length > 4096, "level 0 stores the data");
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(zlib);
+        byte[] restored = new byte[4096];
+        assertEquals(4096, inflater.inflate(restored));
+        inflater.end();
+        assertEquals('a', restored[0]);
+        assertEquals('h', restored[4095]);
+
+        encoder.setLevel(Deflater.BEST_COMPRESSION);
+        assertTrue(send(channel, 4096)[1] < 256);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void countsBytesInAndOut() {
+        PacketCompressEncoder encoder = new PacketCompressEncoder(THRESHOLD);
+        assertEquals(1.0, encoder.getCompressionRatio());
+        EmbeddedChannel channel = new EmbeddedChannel(encoder);
+        int small = 1 + send(channel, 100)[1];
+        int large = 2 + send(channel, 8192)[1];
+        channel.finishAndReleaseAll();
+
+        assertEquals(100 + 8192, encoder.getBytesIn());
+        assertEquals(small + large, encoder.getBytesOut());
+        assertTrue(encoder.getCompressionRatio() < 0.1);
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.martinambrus.rdforward.protocol.codec;
+
+import com.github.martinambrus.rdforward.protocol.packet.ConnectionState;
+import com.github.martinambrus.rdforward.protocol.packet.NettyPacketRegistry;
+import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import com.github.martinambrus.rdforward.protocol.packet.PacketDirection;
+import com.github.martinambrus.rdforward.protocol.packet.netty.NettyChatS2CPacketV47;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that pre-encoded frames are byte-identical to what the regular
+ * encoder/compressor/framer pipeline produces, and that the pipeline passes
+ * them through without re-encoding.
+ */
+class PreEncodedFrameTest {
+
+    private static final int PROTOCOL = 47;
+    private static final int THRESHOLD = 256;
+
+    private static Packet[] samplePackets() {
+        // One packet below and one above the compression threshold
+        return new Packet[] {
+                new NettyChatS2CPacketV47("{\"text\":\"short\"}", (byte) 0),
+                new NettyChatS2CPacketV47("{\"text\":\"" + "long ".repeat(200) + "\"}", (byte) 0)
+        };
+    }
+
+    private static int[] idsOf(Packet[] packets) {
+        int[] ids = new int[packets.length];
+        for (int i = 0; i < packets.length; i++) {
+            ids[i] = NettyPacketRegistry.getPacketId(ConnectionState.PLAY,
+                    PacketDirection.SERVER_TO_CLIENT, packets[i].getClass(), PROTOCOL);
+        }
+        return ids;
+    }
+
+    /** Outbound pipeline as installed for a 1.8+ connection (tail to head). */
+    private static EmbeddedChannel pipeline(int threshold, int level) {
+        NettyPacketEncoder packetEncoder = new NettyPacketEncoder(ConnectionState.PLAY);
+        packetEncoder.setProtocolVersion(PROTOCOL);
+        return threshold >= 0
+                ? new EmbeddedChannel(VarIntFrameEncoder.INSTANCE,
+                        new PacketCompressEncoder(threshold, level), packetEncoder)
+                : new EmbeddedChannel(VarIntFrameEncoder.INSTANCE, packetEncoder);
+    }
+
+    private static byte[] drain(EmbeddedChannel channel) {
+        ByteBuf all = Unpooled.buffer();
+        ByteBuf part;
+        while ((part = channel.readOutbound()) != null) {
+            all.writeBytes(part);
+            part.release();
+        }
+        byte[] bytes = ByteBufUtil.getBytes(all);
+        all.release();
+        return bytes;
+    }
+
+    private static void assertMatchesPipeline(int threshold, int level) {
+        Packet[] packets = samplePackets();
+        EmbeddedChannel reference = pipeline(threshold, level);
+        for (Packet p : packets) reference.writeOutbound(p);
+        byte[] expected = drain(reference);
+        reference.finishAndReleaseAll();
+
+        Deflater deflater = new Deflater(level);
+        ByteBuf frames = PreEncodedFrame.encode(packets, idsOf(packets), threshold, deflater);
+        deflater.end();
+        try {
+            assertTrue(frames.isReadOnly());
+            assertArrayEquals(expected, ByteBufUtil.getBytes(frames));
+
+            // Written through the same pipeline, the frame must come out unchanged
+            EmbeddedChannel passThrough = pipeline(threshold, level);
+            passThrough.writeOutbound(new PreEncodedFrame(frames.retainedDuplicate()));
+            assertArrayEquals(expected, drain(passThrough));
+            passThrough.finishAndReleaseAll();
+            assertEquals(1, frames.refCnt(), "pipeline must release its reference");
+        } finally {
+            frames.release();
+        }
+    }
+
+    @Test
+    void compressedFramesMatchPipelineOutput() {
+        assertMatchesPipeline(THRESHOLD, PacketCompressEncoder.DEFAULT_LEVEL);
+    }
+
+    @Test
+    void framesMatchPipelineAtEachLevel() {
+        assertMatchesPipeline(THRESHOLD, Deflater.BEST_SPEED);
+        assertMatchesPipeline(THRESHOLD, Deflater.BEST_COMPRESSION);
+    }
+
+    @Test
+    void uncompressedFramesMatchPipelineOutput() {
+        assertMatchesPipeline(PreEncodedFrame.NO_COMPRESSION, PacketCompressEncoder.DEFAULT_LEVEL);
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.martinambrus.rdforward.protocol.packet;
+
+import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.MultiBlockChangePacket;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.MultiBlockChangePacketV28;
+import com.github.martinambrus.rdforward.protocol.packet.netty.NettyMultiBlockChangePacketV47;
+import com.github.martinambrus.rdforward.protocol.packet.netty.NettySectionBlocksUpdatePacketV751;
+import com.github.martinambrus.rdforward.protocol.packet.netty.NettySectionBlocksUpdatePacketV763;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the multi-block change packets: S2C IDs per Netty version,
+ * pre-Netty registration, and that each layout reads back what it wrote.
+ */
+class MultiBlockChangePacketTest {
+
+    @ParameterizedTest(name = "v{0} MultiBlockChange S2C ID = 0x{1}")
+    @CsvSource({
+            "47,   22",  // 1.8
+            "109,  10",  // 1.9.4
+            "340,  10",  // 1.12.2 (falls through to v109)
+            "393,  0F",  // 1.13
+            "477,  0F",  // 1.14
+            "573,  10",  // 1.15
+            "735,  0F",  // 1.16
+    })
+    void multiBlockChangeHasCorrectPacketId(int protocolVersion, String expectedHex) {
+        assertEquals(Integer.parseInt(expectedHex, 16), NettyPacketRegistry.getPacketId(
+                ConnectionState.PLAY, PacketDirection.SERVER_TO_CLIENT,
+                NettyMultiBlockChangePacketV47.class, protocolVersion));
+    }
+
+    @ParameterizedTest(name = "v{0} SectionBlocksUpdate S2C ID = 0x{1}")
+    @CsvSource({
+            "751,  3B",  // 1.16.2
+            "755,  3F",  // 1.17
+            "758,  3F",  // 1.18.2
+            "759,  3D",  // 1.19
+            "760,  40",  // 1.19.1
+            "761,  3F",  // 1.19.3
+            "762,  43",  // 1.19.4
+    })
+    void sectionBlocksUpdateHasCorrectPacketId(int protocolVersion, String expectedHex) {
+        assertEquals(Integer.parseInt(expectedHex, 16), NettyPacketRegistry.getPacketId(
+                ConnectionState.PLAY, PacketDirection.SERVER_TO_CLIENT,
+                NettySectionBlocksUpdatePacketV751.class, protocolVersion));
+    }
+
+    @ParameterizedTest(name = "v{0} SectionBlocksUpdate (no light flag) S2C ID = 0x{1}")
+    @CsvSource({
+            "763,  43",  // 1.20
+            "764,  45",  // 1.20.2
+            "765,  47",  // 1.20.3
+            "766,  49",  // 1.20.5
+            "768,  4E",  // 1.21.2
+            "770,  4D",  // 1.21.5
+            "773,  52",  // 1.21.9
+            "774,  52",  // 1.21.11
+            "775,  54",  // 26.1
+    })
+    void sectionBlocksUpdateV763HasCorrectPacketId(int protocolVersion, String expectedHex) {
+        assertEquals(Integer.parseInt(expectedHex, 16), NettyPacketRegistry.getPacketId(
+                ConnectionState.PLAY, PacketDirection.SERVER_TO_CLIENT,
+                NettySectionBlocksUpdatePacketV763.class, protocolVersion));
+    }
+
+    @Test
+    void alphaMultiBlockChangeRegisteredBeforeAndAfterV28() {
+        assertInstanceOf(MultiBlockChangePacket.class, PacketRegistry.createPacket(
+                ProtocolVersion.BETA_1_7_3, PacketDirection.SERVER_TO_CLIENT, 0x34));
+        assertInstanceOf(MultiBlockChangePacketV28.class, PacketRegistry.createPacket(
+                ProtocolVersion.RELEASE_1_2_1, PacketDirection.SERVER_TO_CLIENT, 0x34));
+    }
+
+    @Test
+    void alphaMultiBlockChangeRoundTrip() {
+        MultiBlockChangePacket decoded = roundTrip(new MultiBlockChangePacket(-3, 7,
+                new short[] {MultiBlockChangePacket.position(1, 64, 2), MultiBlockChangePacket.position(15, 127, 15)},
+                new byte[] {4, 1}, new byte[] {0, 2}), new MultiBlockChangePacket());
+        assertEquals(-3, decoded.getChunkX());
+        assertEquals(7, decoded.getChunkZ());
+        assertEquals(0x1240, decoded.getPositions()[0]);
+        assertArrayEquals(new byte[] {4, 1}, decoded.getBlockTypes());
+        assertArrayEquals(new byte[] {0, 2}, decoded.getMetadata());
+    }
+
+    @Test
+    void v28RecordPacksPositionIdAndMeta() {
+        int record = MultiBlockChangePacketV28.record(3, 70, 12, 35, 14);
+        assertEquals(0x3C46023E, record);
+        MultiBlockChangePacketV28 decoded = roundTrip(
+                new MultiBlockChangePacketV28(1, 2, new int[] {record}), new MultiBlockChangePacketV28());
+        assertArrayEquals(new int[] {record}, decoded.getRecords());
+    }
+
+    @Test
+    void v47RoundTripWithLargeBlockStates() {
+        NettyMultiBlockChangePacketV47 decoded = roundTrip(new NettyMultiBlockChangePacketV47(5, -6,
+                new short[] {NettyMultiBlockChangePacketV47.position(15, 255, 0)}, new int[] {27_000}),
+                new NettyMultiBlockChangePacketV47());
+        assertEquals(5, decoded.getChunkX());
+        assertEquals(-6, decoded.getChunkZ());
+        assertEquals((short) 0xF0FF, decoded.getPositions()[0]);
+        assertArrayEquals(new int[] {27_000}, decoded.getBlocks());
+    }
+
+    @Test
+    void sectionBlocksUpdateRoundTripsNegativeSectionCoordinates() {
+        long record = NettySectionBlocksUpdatePacketV751.record(1, 2, 3, 26_000);
+        assertEquals((26_000L << 12) | 0x132, record);
+
+        NettySectionBlocksUpdatePacketV751 v751 = roundTrip(
+                new NettySectionBlocksUpdatePacketV751(-100, -4, 2_000_000, new long[] {record}),
+                new NettySectionBlocksUpdatePacketV751());
+        assertEquals(-100, v751.getSectionX());
+        assertEquals(-4, v751.getSectionY());
+        assertEquals(2_000_000, v751.getSectionZ());
+        assertArrayEquals(new long[] {record}, v751.getRecords());
+
+        NettySectionBlocksUpdatePacketV763 v763 = roundTrip(
+                new NettySectionBlocksUpdatePacketV763(7, 19, -1, new long[] {record, 0}),
+                new NettySectionBlocksUpdatePacketV763());
+        assertEquals(7, v763.getSectionX());
+        assertEquals(19, v763.getSectionY());
+        assertEquals(-1, v763.getSectionZ());
+        assertArrayEquals(new long[] {record, 0}, v763.getRecords());
+    }
+
+    private static <T extends Packet> T roundTrip(Packet packet, T target) {
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            packet.write(buf);
+            target.read(buf);
+            assertEquals(0, buf.readableBytes(), "Not all bytes consumed for " + packet.getClass().getSimpleName());
+            return target;
+        } finally {
+            buf.release();
+        }
+    }
+}
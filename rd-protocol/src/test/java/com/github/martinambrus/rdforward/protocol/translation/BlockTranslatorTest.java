@@ -162,4 +162,49 @@ class BlockTranslatorTest {
         assertTrue(BlockTranslator.hasTranslation(ProtocolVersion.ALPHA_1_2_3, ProtocolVersion.CLASSIC));
         assertTrue(BlockTranslator.hasTranslation(ProtocolVersion.ALPHA_1_2_5, ProtocolVersion.CLASSIC));
     }
+
+    // === translateCopy ===
+
+    @Test
+    void translateCopyMatchesTranslateArrayAndLeavesSourceAlone() {
+        byte[] src = new byte[256];
+        for (int i = 0; i < src.length; i++) src[i] = (byte) i;
+        byte[] expected = src.clone();
+        BlockTranslator.translateArray(expected, ProtocolVersion.ALPHA_1_2_5, ProtocolVersion.CLASSIC);
+
+        byte[] dest = new byte[260];
+        BlockTranslator.translateCopy(src, 0, dest, 4, src.length, ProtocolVersion.ALPHA_1_2_5, ProtocolVersion.CLASSIC);
+        assertArrayEquals(expected, java.util.Arrays.copyOfRange(dest, 4, 260));
+        assertEquals(0, dest[0]);
+        assertEquals((byte) 35, src[35], "source must not be translated in place");
+    }
+
+    @Test
+    void translateCopyWithoutTableIsPlainCopy() {
+        byte[] src = {9, 8, 7, 6};
+        byte[] dest = new byte[2];
+        BlockTranslator.translateCopy(src, 1, dest, 0, 2, ProtocolVersion.CLASSIC, ProtocolVersion.ALPHA_1_2_5);
+        assertArrayEquals(new byte[] {8, 7}, dest);
+    }
+
+    // === registerTranslation ===
+
+    @Test
+    void registeredTranslationIsCompiledAndReplacesPair() {
+        java.util.Map<Integer, Integer> mapping = new java.util.HashMap<>();
+        mapping.put(3, 5);
+        mapping.put(300, 7);
+        BlockTranslator.registerTranslation(ProtocolVersion.BETA_1_7_3, ProtocolVersion.CLASSIC_0_0_16A, mapping);
+        mapping.put(4, 6); // compiled at registration: ignored
+
+        assertTrue(BlockTranslator.hasTranslation(ProtocolVersion.BETA_1_7_3, ProtocolVersion.CLASSIC_0_0_16A));
+        assertEquals(5, BlockTranslator.translate(3, ProtocolVersion.BETA_1_7_3, ProtocolVersion.CLASSIC_0_0_16A));
+        assertEquals(7, BlockTranslator.translate(300, ProtocolVersion.BETA_1_7_3, ProtocolVersion.CLASSIC_0_0_16A));
+        assertEquals(0, BlockTranslator.translate(4, ProtocolVersion.BETA_1_7_3, ProtocolVersion.CLASSIC_0_0_16A));
+        assertEquals(0, BlockTranslator.translate(-1, ProtocolVersion.BETA_1_7_3, ProtocolVersion.CLASSIC_0_0_16A));
+
+        byte[] blocks = {3, 4};
+        BlockTranslator.translateArray(blocks, ProtocolVersion.BETA_1_7_3, ProtocolVersion.CLASSIC_0_0_16A);
+        assertArrayEquals(new byte[] {5, 4}, blocks, "unmapped IDs stay unchanged in arrays");
+    }
 }
@@ -0,0 +1,104 @@
+package com.github.martinambrus.rdforward.server;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission check for accepted TCP connections, installed on the server
+ * (listening) channel so it runs before a connection is registered with
+ * a worker event loop or given a pipeline.
+ *
+ * A connection is refused (closed without a byte sent) when its source
+ * prefix has used up its accept budget ({@link PrefixRateLimiter}) or its
+ * address already holds {@code maxPerAddress} open connections. Loopback
+ * addresses are exempt: local bots and proxies legitimately open many
+ * connections from one address.
+ */
+@ChannelHandler.Sharable
+public final class AcceptLimiter extends ChannelInboundHandlerAdapter {
+
+    private static final AtomicLong totalRateLimited = new AtomicLong();
+    private static final AtomicLong totalOverCap = new AtomicLong();
+
+    /** Null when accept rate limiting is off. */
+    private final PrefixRateLimiter rateLimiter;
+    /** 0 for no per-address cap. */
+    private final int maxPerAddress;
+    private final ConcurrentHashMap<InetAddress, Integer> open = new ConcurrentHashMap<>();
+
+    /**
+     * @param ratePerSecond accepted connections per second per source
+     *                      prefix, with bursts of twice as many; 0 disables
+     * @param maxPerAddress open connections per source address; 0 disables
+     */
+    public AcceptLimiter(int ratePerSecond, int maxPerAddress) {
+        this.rateLimiter = ratePerSecond > 0
+                ? new PrefixRateLimiter(4096, ratePerSecond, ratePerSecond * 2) : null;
+        this.maxPerAddress = Math.max(0, maxPerAddress);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (msg instanceof Channel && !admit((Channel) msg, System.nanoTime())) {
+            // Not registered yet, so there is no pipeline or event loop to go through
+            ((Channel) msg).unsafe().closeForcibly();
+            return;
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    /** Whether {@code child} may proceed; counts it towards its address's cap if so. */
+    boolean admit(Channel child, long nowNanos) {
+        InetAddress address = addressOf(child.remoteAddress());
+        if (address == null || address.isLoopbackAddress()) {
+            return true;
+        }
+        if (rateLimiter != null && !rateLimiter.tryAcquire(address, nowNanos)) {
+            totalRateLimited.incrementAndGet();
+            return false;
+        }
+        if (maxPerAddress == 0) {
+            return true;
+        }
+        boolean[] underCap = {false};
+        open.compute(address, (a, n) -> {
+            int count = n == null ? 0 : n;
+            if (count >= maxPerAddress) return n;
+            underCap[0] = true;
+            return count + 1;
+        });
+        if (!underCap[0]) {
+            totalOverCap.incrementAndGet();
+            return false;
+        }
+        child.closeFuture().addListener(f -> open.computeIfPresent(address, (a, n) -> n <= 1 ? null : n - 1));
+        return true;
+    }
+
+    /** Open connections counted against {@code address}'s cap. */
+    public int getOpenConnections(InetAddress address) {
+        return open.getOrDefault(address, 0);
+    }
+
+    private static InetAddress addressOf(SocketAddress address) {
+        return address instanceof InetSocketAddress ? ((InetSocketAddress) address).getAddress() : null;
+    }
+
+    /** Connections refused because their prefix was accepting too fast. */
+    public static long getTotalRateLimited() {
+        return totalRateLimited.get();
+    }
+
+    /** Connections refused because their address had too many open. */
+    public static long getTotalOverCap() {
+        return totalOverCap.get();
+    }
+}
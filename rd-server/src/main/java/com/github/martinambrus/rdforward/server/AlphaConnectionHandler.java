@@ -13,6 +13,7 @@ import com.github.martinambrus.rdforward.protocol.packet.classic.PlayerTeleportP
 import com.github.martinambrus.rdforward.protocol.packet.classic.SetBlockServerPacket;
 import com.github.martinambrus.rdforward.server.api.CommandRegistry;
 import com.github.martinambrus.rdforward.server.api.ServerProperties;
+import com.github.martinambrus.rdforward.server.auth.LoginCryptoPool;
 import com.github.martinambrus.rdforward.server.auth.MojangSessionVerifier;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
@@ -21,12 +22,12 @@ import java.util.List;
 import com.github.martinambrus.rdforward.api.event.server.ServerEvents;
 import com.github.martinambrus.rdforward.world.BlockRegistry;
 import io.netty.channel.ChannelHandlerContext;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.timeout.ReadTimeoutException;
 import javax.crypto.Cipher;
 
-import java.util.Map;
 
 import static com.github.martinambrus.rdforward.server.eaglercraft.EaglerCraftConstants.ATTR_IS_EAGLECRAFT;
 import static com.github.martinambrus.rdforward.server.eaglercraft.EaglerCraftConstants.EAGLER_152_PROTOCOL_VARIANT;
@@ -41,7 +42,9 @@ import static com.github.martinambrus.rdforward.server.eaglercraft.EaglerCraftCo
  * 3. Gameplay packet routing (position, digging, placement, chat)
  * 4. Disconnect/cleanup
  *
- * Incoming Alpha packets are handled directly. Outgoing Classic packets
+ * Login packets and keep-alive responses are handled on the event loop;
+ * gameplay packets go through an {@link InboundPacketQueue} and are applied
+ * on the tick thread. Outgoing Classic packets
  * (from PlayerManager broadcasts) are translated by ClassicToAlphaTranslator
  * in the outbound pipeline.
  */
@@ -77,6 +80,9 @@ public class AlphaConnectionHandler extends SimpleChannelInboundHandler<Packet>
     private ProtocolVersion clientVersion;
     private ConnectedPlayer player;
     private boolean loginComplete = false;
+    private InboundPacketQueue inbound;
+    /** Login slot from {@link LoginGate}, held from the first login packet until the player joins. */
+    private LoginGate.Ticket loginTicket;
 
     // v39+ encryption state — RSA keypair shared across all connections
     private static volatile KeyPair sharedRsaKeyPair;
@@ -166,6 +172,19 @@ public class AlphaConnectionHandler extends SimpleChannelInboundHandler<Packet>
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, Packet packet) {
         if (!loginComplete) {
+            if (loginTicket == null
+                    && (packet instanceof HandshakeC2SPacket || packet instanceof LoginC2SPacket)) {
+                // Take a login slot first; the packet is handled once it's held
+                loginTicket = LoginGate.enter(ctx.channel(), () -> channelRead0(ctx, packet), reason -> {
+                    ctx.writeAndFlush(new DisconnectPacket(reason));
+                    ctx.close();
+                });
+                return;
+            }
+            if (loginTicket == null || loginTicket.isQueued()) {
+                // Nothing is valid before the first login packet, or while it waits in the join queue
+                return;
+            }
             if (packet instanceof HandshakeC2SPacket) {
                 handleHandshake(ctx, (HandshakeC2SPacket) packet);
             } else if (packet instanceof EncryptionKeyResponsePacket) {
@@ -197,7 +216,27 @@ public class AlphaConnectionHandler extends SimpleChannelInboundHandler<Packet>
             }
         }
 
-        // Route gameplay packets
+        if (packet instanceof KeepAlivePacket) {
+            // Keep-alive response — measure RTT (only meaningful for Beta 1.8+
+            // which sends KeepAlivePacketV17 with echoed ID). Answered here so
+            // queued gameplay packets don't inflate the measurement.
+            if (player != null && packet instanceof KeepAlivePacketV17) {
+                player.updateRtt(player.getKeepAliveSentNanos());
+                player.setLastKeepAliveResponseTime(System.currentTimeMillis());
+            }
+            return;
+        }
+        if (packet instanceof DisconnectPacket) {
+            ctx.close();
+            return;
+        }
+
+        // Everything else is applied by the tick loop
+        inbound.submit(packet);
+    }
+
+    /** Route one gameplay packet. Runs on the tick thread, see {@link InboundPacketQueue}. */
+    private void handleGameplayPacket(ChannelHandlerContext ctx, Packet packet) {
         if (packet instanceof PlayerPositionAndLookC2SPacket) {
             handlePositionAndLook(ctx, (PlayerPositionAndLookC2SPacket) packet);
         } else if (packet instanceof PlayerPositionPacket) {
@@ -263,15 +302,6 @@ public class AlphaConnectionHandler extends SimpleChannelInboundHandler<Packet>
                 || packet instanceof ClientSettingsPacketV47
                 || packet instanceof TabCompletePacket) {
             // Silently accept (not yet implemented server-side)
-        } else if (packet instanceof KeepAlivePacket) {
-            // Keep-alive response — measure RTT (only meaningful for Beta 1.8+
-            // which sends KeepAlivePacketV17 with echoed ID)
-            if (player != null && packet instanceof KeepAlivePacketV17) {
-                player.updateRtt(player.getKeepAliveSentNanos());
-                player.setLastKeepAliveResponseTime(System.currentTimeMillis());
-            }
-        } else if (packet instanceof DisconnectPacket) {
-            ctx.close();
         }
     }
 
@@ -404,75 +434,99 @@ public class AlphaConnectionHandler extends SimpleChannelInboundHandler<Packet>
         }
         awaitingEncryptionResponse = false;
 
-        try {
-            // Decrypt shared secret and verify token using RSA private key
-            Cipher rsaCipher = Cipher.getInstance("RSA");
-            rsaCipher.init(Cipher.DECRYPT_MODE, rsaKeyPair.getPrivate());
-            byte[] sharedSecret = rsaCipher.doFinal(packet.getData1());
+        // RSA decryption runs on the bounded login crypto pool, not the event loop
+        byte[] expectedToken = verifyToken;
+        LoginCryptoPool.submit(() -> decryptSharedSecret(rsaKeyPair, packet, expectedToken))
+                .whenCompleteAsync((sharedSecret, error) -> {
+                    if (!ctx.channel().isActive()) return;
+                    if (error != null || sharedSecret == null) {
+                        String reason;
+                        if (error instanceof RejectedExecutionException) {
+                            reason = "Server busy, please try again in a moment";
+                        } else if (error != null) {
+                            System.err.println("Encryption handshake failed for " + pendingUsername
+                                    + ": " + error.getMessage());
+                            reason = "Encryption error";
+                        } else {
+                            reason = "Encryption verification failed";
+                        }
+                        ctx.writeAndFlush(new DisconnectPacket(reason));
+                        ctx.close();
+                        return;
+                    }
+                    enableEncryption(ctx, rsaKeyPair, sharedSecret);
+                }, ctx.executor());
+    }
 
-            if (sharedSecret.length != 16) {
-                System.err.println("Invalid shared secret length (" + sharedSecret.length
-                        + ") from " + pendingUsername);
-                ctx.writeAndFlush(new DisconnectPacket("Encryption verification failed"));
-                ctx.close();
-                return;
-            }
+    /**
+     * Decrypt the shared secret and check the verify token. Runs on the
+     * login crypto pool.
+     *
+     * @return the shared secret, or null if the response fails verification
+     */
+    private byte[] decryptSharedSecret(KeyPair rsaKeyPair, EncryptionKeyResponsePacket packet,
+                                       byte[] expectedToken) throws Exception {
+        Cipher rsaCipher = Cipher.getInstance("RSA");
+        rsaCipher.init(Cipher.DECRYPT_MODE, rsaKeyPair.getPrivate());
+        byte[] sharedSecret = rsaCipher.doFinal(packet.getData1());
+
+        if (sharedSecret.length != 16) {
+            System.err.println("Invalid shared secret length (" + sharedSecret.length
+                    + ") from " + pendingUsername);
+            return null;
+        }
 
-            rsaCipher.init(Cipher.DECRYPT_MODE, rsaKeyPair.getPrivate());
-            byte[] decryptedToken = rsaCipher.doFinal(packet.getData2());
+        rsaCipher.init(Cipher.DECRYPT_MODE, rsaKeyPair.getPrivate());
+        byte[] decryptedToken = rsaCipher.doFinal(packet.getData2());
+
+        // Verify the token matches
+        if (!Arrays.equals(decryptedToken, expectedToken)) {
+            System.err.println("Encryption verify token mismatch for " + pendingUsername);
+            return null;
+        }
+        return sharedSecret;
+    }
 
-            // Verify the token matches
-            if (!Arrays.equals(decryptedToken, verifyToken)) {
-                System.err.println("Encryption verify token mismatch for " + pendingUsername);
-                ctx.writeAndFlush(new DisconnectPacket("Encryption verification failed"));
+    private void enableEncryption(ChannelHandlerContext ctx, KeyPair rsaKeyPair, byte[] sharedSecret) {
+        // Send empty EncryptionKeyResponse to signal "enable encryption now"
+        ctx.writeAndFlush(new EncryptionKeyResponsePacket(new byte[0], new byte[0]))
+                .addListener(future -> {
+            if (!future.isSuccess()) {
                 ctx.close();
                 return;
             }
-
-            // Send empty EncryptionKeyResponse to signal "enable encryption now"
-            ctx.writeAndFlush(new EncryptionKeyResponsePacket(new byte[0], new byte[0]))
-                    .addListener(future -> {
-                if (!future.isSuccess()) {
-                    ctx.close();
-                    return;
-                }
-                // Install cipher handlers in the pipeline
-                MinecraftCipher decryptCipher = new MinecraftCipher(Cipher.DECRYPT_MODE, sharedSecret);
-                MinecraftCipher encryptCipher = new MinecraftCipher(Cipher.ENCRYPT_MODE, sharedSecret);
-                ctx.pipeline().addBefore("decoder", "decrypt", new CipherDecoder(decryptCipher));
-                ctx.pipeline().addBefore("encoder", "encrypt", new CipherEncoder(encryptCipher));
-
-                awaitingClientStatus = true;
-                if (ServerProperties.isOnlineMode()) {
-                    authPending = true;
-                    MojangSessionVerifier.verifySession(pendingUsername, sharedSecret,
-                                    rsaKeyPair.getPublic().getEncoded())
-                            .thenAcceptAsync(result -> {
-                                authPending = false;
-                                if (!ctx.channel().isActive()) return;
-                                if (result.isSuccess()) {
-                                    authenticatedUuid = result.uuid;
-                                    pendingUsername = result.name;
-                                    System.out.println("[AUTH] Verified " + pendingUsername
-                                            + " (UUID: " + authenticatedUuid + ")");
-                                    if (clientStatusReceived) {
-                                        handleLogin(clientStatusCtx, clientVersion.getVersionNumber());
-                                    }
-                                } else {
-                                    System.err.println("[AUTH] Failed to verify " + pendingUsername
-                                            + " (" + ctx.channel().remoteAddress() + ", "
-                                            + clientVersion.getDisplayName() + "): " + result.failureMessage);
-                                    ctx.writeAndFlush(new DisconnectPacket(result.failureMessage));
-                                    ctx.close();
+            // Install cipher handlers in the pipeline
+            MinecraftCipher decryptCipher = new MinecraftCipher(Cipher.DECRYPT_MODE, sharedSecret);
+            MinecraftCipher encryptCipher = new MinecraftCipher(Cipher.ENCRYPT_MODE, sharedSecret);
+            ctx.pipeline().addBefore("decoder", "decrypt", new CipherDecoder(decryptCipher));
+            ctx.pipeline().addBefore("encoder", "encrypt", new CipherEncoder(encryptCipher));
+
+            awaitingClientStatus = true;
+            if (ServerProperties.isOnlineMode()) {
+                authPending = true;
+                MojangSessionVerifier.verifySession(pendingUsername, sharedSecret,
+                                rsaKeyPair.getPublic().getEncoded())
+                        .thenAcceptAsync(result -> {
+                            authPending = false;
+                            if (!ctx.channel().isActive()) return;
+                            if (result.isSuccess()) {
+                                authenticatedUuid = result.uuid;
+                                pendingUsername = result.name;
+                                System.out.println("[AUTH] Verified " + pendingUsername
+                                        + " (UUID: " + authenticatedUuid + ")");
+                                if (clientStatusReceived) {
+                                    handleLogin(clientStatusCtx, clientVersion.getVersionNumber());
                                 }
-                            }, ctx.executor());
-                }
-            });
-        } catch (Exception e) {
-            System.err.println("Encryption handshake failed for " + pendingUsername + ": " + e.getMessage());
-            ctx.writeAndFlush(new DisconnectPacket("Encryption error"));
-            ctx.close();
-        }
+                            } else {
+                                System.err.println("[AUTH] Failed to verify " + pendingUsername
+                                        + " (" + ctx.channel().remoteAddress() + ", "
+                                        + clientVersion.getDisplayName() + "): " + result.failureMessage);
+                                ctx.writeAndFlush(new DisconnectPacket(result.failureMessage));
+                                ctx.close();
+                            }
+                        }, ctx.executor());
+            }
+        });
     }
 
     private void handleClientStatus(ChannelHandlerContext ctx, ClientStatusPacket packet) {
@@ -549,8 +603,7 @@ public class AlphaConnectionHandler extends SimpleChannelInboundHandler<Packet>
         // On first connect (no saved position), kick with the required JVM flag
         // and save a default spawn position so they're recognized next time.
         if (!clientVersion.isAtLeast(ProtocolVersion.ALPHA_1_2_0)) {
-            Map<String, short[]> savedPositions = world.loadPlayerPositions();
-            if (!savedPositions.containsKey(pendingUsername.trim())) {
+            if (!world.hasSavedPlayer(pendingUsername.trim())) {
                 System.out.println("Rejected " + pendingUsername
                         + ": " + clientVersion.getDisplayName() + " requires JVM flags (first connect)");
                 // Save default spawn so they're allowed through next time
@@ -729,7 +782,12 @@ public class AlphaConnectionHandler extends SimpleChannelInboundHandler<Packet>
         // Broadcast new player's spawn to everyone else (as Classic packet, translator converts)
         playerManager.broadcastPlayerSpawn(player);
 
+        inbound = new InboundPacketQueue(player, world::getBlock, packet -> handleGameplayPacket(ctx, packet));
+        player.setInboundQueue(inbound);
         loginComplete = true;
+        if (loginTicket != null) {
+            loginTicket.release();
+        }
 
         // Initialize inventory adapter tracking
         InventoryAdapter adapter = playerManager.getInventoryAdapter();
@@ -1346,7 +1404,9 @@ public class AlphaConnectionHandler extends SimpleChannelInboundHandler<Packet>
         if (replenishTask != null) {
             replenishTask.cancel(false);
         }
-        replenishTask = ctx.executor().schedule(() -> {
+        // The tasks run on the event loop but share the tracker with the
+        // packet handlers on the tick thread
+        replenishTask = ctx.executor().schedule(() -> inbound.runExclusive(() -> {
             int deficit = 64 - trackedCobblestone;
             boolean gave = false;
             if (ctx.channel().isActive() && deficit > 0) {
@@ -1360,7 +1420,7 @@ public class AlphaConnectionHandler extends SimpleChannelInboundHandler<Packet>
             // tracker was stale when the first round fired. Only sends the
             // remaining deficit (not a full 64) to avoid creating extra stacks.
             if (gave) {
-                ctx.executor().schedule(() -> {
+                ctx.executor().schedule(() -> inbound.runExclusive(() -> {
                     if (replenishTask == null && ctx.channel().isActive()) {
                         int followUpDeficit = 64 - trackedCobblestone;
                         if (followUpDeficit > 0) {
@@ -1368,9 +1428,9 @@ public class AlphaConnectionHandler extends SimpleChannelInboundHandler<Packet>
                             trackedCobblestone = 64;
                         }
                     }
-                }, REPLENISH_DELAY_MS, TimeUnit.MILLISECONDS);
+                }), REPLENISH_DELAY_MS, TimeUnit.MILLISECONDS);
             }
-        }, REPLENISH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }), REPLENISH_DELAY_MS, TimeUnit.MILLISECONDS);
     }
 
     private void handleWindowClick(ChannelHandlerContext ctx, WindowClickPacket packet) {
@@ -1422,22 +1482,31 @@ public class AlphaConnectionHandler extends SimpleChannelInboundHandler<Packet>
         if (keepAliveTask != null) {
             keepAliveTask.cancel(false);
         }
-        if (player != null) {
-            // Remove player first so getPlayerCount() is accurate for event listeners
-            playerManager.removePlayer(ctx.channel());
-            System.out.println(player.getUsername() + " disconnected"
-                    + " (" + playerManager.getPlayerCount() + " online)");
-            ServerEvents.PLAYER_LEAVE.invoker().onPlayerLeave(player.getUsername());
-            playerManager.getInventoryAdapter().removePlayer(player.getUsername());
-            world.rememberPlayerPosition(player);
-            chunkManager.removePlayer(player);
-            playerManager.broadcastPlayerListRemove(player);
-            playerManager.broadcastChat((byte) 0, player.getUsername() + " left the game");
-            playerManager.broadcastPlayerDespawn(player);
+        if (inbound != null) {
+            // The tick thread tears the player down once it stops applying
+            // this connection's packets, so none lands after the removal
+            inbound.close(() -> leaveWorld(ctx));
+        } else if (player != null) {
+            leaveWorld(ctx);
         }
         super.channelInactive(ctx);
     }
 
+    /** Remove the disconnected player from the server and tell everyone. */
+    private void leaveWorld(ChannelHandlerContext ctx) {
+        // Remove player first so getPlayerCount() is accurate for event listeners
+        playerManager.removePlayer(ctx.channel());
+        System.out.println(player.getUsername() + " disconnected"
+                + " (" + playerManager.getPlayerCount() + " online)");
+        ServerEvents.PLAYER_LEAVE.invoker().onPlayerLeave(player.getUsername());
+        playerManager.getInventoryAdapter().removePlayer(player.getUsername(), player.getUuid());
+        world.rememberPlayerPosition(player);
+        chunkManager.removePlayer(player);
+        playerManager.broadcastPlayerListRemove(player);
+        playerManager.broadcastChat((byte) 0, player.getUsername() + " left the game");
+        playerManager.broadcastPlayerDespawn(player);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         if (cause instanceof ReadTimeoutException) {
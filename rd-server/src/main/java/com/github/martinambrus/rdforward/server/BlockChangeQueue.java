@@ -0,0 +1,86 @@
+package com.github.martinambrus.rdforward.server;
+
+/**
+ * Block changes queued by connection threads for the tick loop, held in
+ * two primitive ring buffers (packed positions and block types) instead
+ * of one object per change.
+ *
+ * Producers take a short monitor to append; the tick thread empties the
+ * whole ring into a {@link BlockChangeSet} with at most two array copies
+ * per column. The ring doubles when full and keeps its size afterwards,
+ * so a burst such as a mass explosion allocates only while it grows.
+ */
+final class BlockChangeQueue {
+
+    private long[] positions;
+    private byte[] types;
+    /** Index of the oldest entry. */
+    private int head;
+    private int size;
+
+    BlockChangeQueue(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity, 16) - 1) << 1;
+        positions = new long[capacity];
+        types = new byte[capacity];
+    }
+
+    synchronized void add(long position, byte blockType) {
+        if (size == positions.length) {
+            grow();
+        }
+        int tail = (head + size) & (positions.length - 1);
+        positions[tail] = position;
+        types[tail] = blockType;
+        size++;
+    }
+
+    /** Append every change in {@code changes}, in order, under one lock. */
+    synchronized void addAll(BlockChangeSet changes) {
+        for (int i = 0; i < changes.size(); i++) {
+            if (size == positions.length) {
+                grow();
+            }
+            int tail = (head + size) & (positions.length - 1);
+            positions[tail] = changes.getPosition(i);
+            types[tail] = changes.getType(i);
+            size++;
+        }
+    }
+
+    /** Move every queued change, oldest first, onto the end of {@code target}. */
+    synchronized int drainTo(BlockChangeSet target) {
+        int count = size;
+        if (count == 0) return 0;
+        int firstRun = Math.min(count, positions.length - head);
+        target.addAll(positions, types, head, firstRun);
+        if (firstRun < count) {
+            target.addAll(positions, types, 0, count - firstRun);
+        }
+        head = (head + count) & (positions.length - 1);
+        size = 0;
+        return count;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized int capacity() {
+        return positions.length;
+    }
+
+    /** Double the ring, unwrapping it so the oldest entry is at index 0. */
+    private void grow() {
+        int capacity = positions.length << 1;
+        long[] newPositions = new long[capacity];
+        byte[] newTypes = new byte[capacity];
+        int firstRun = positions.length - head;
+        System.arraycopy(positions, head, newPositions, 0, firstRun);
+        System.arraycopy(positions, 0, newPositions, firstRun, head);
+        System.arraycopy(types, head, newTypes, 0, firstRun);
+        System.arraycopy(types, 0, newTypes, firstRun, head);
+        positions = newPositions;
+        types = newTypes;
+        head = 0;
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.martinambrus.rdforward.server;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of block changes stored column-wise: one packed long
+ * position and one block type byte per change.
+ *
+ * Used by the bulk paths ({@link ServerWorld#fillRegion},
+ * {@link ServerWorld#applyBlockChanges}) to collect the changes that were
+ * actually applied, so chunk updates and client packets can then be
+ * produced per chunk instead of per block. Not thread-safe.
+ *
+ * Positions are packed like Minecraft's BlockPos: 26 bits of x, 26 bits
+ * of z and 12 bits of y, all signed. A coordinate outside that range
+ * is stored as {@link #INVALID}, which is outside every world.
+ */
+public final class BlockChangeSet {
+
+    /** Packed position that no world contains (x = -2^25). */
+    static final long INVALID = pack(-(1 << 25), 0, 0);
+
+    private long[] positions;
+    private byte[] types;
+    private int size;
+
+    public BlockChangeSet() {
+        this(64);
+    }
+
+    public BlockChangeSet(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        positions = new long[capacity];
+        types = new byte[capacity];
+    }
+
+    /** Pack a block position into a long; see the class comment for the layout. */
+    public static long pack(int x, int y, int z) {
+        if (x < -(1 << 25) || x >= 1 << 25 || z < -(1 << 25) || z >= 1 << 25 || y < -2048 || y >= 2048) {
+            return INVALID;
+        }
+        return ((long) x & 0x3FFFFFF) << 38 | ((long) z & 0x3FFFFFF) << 12 | (y & 0xFFF);
+    }
+
+    public static int unpackX(long position) { return (int) (position >> 38); }
+    public static int unpackY(long position) { return (int) (position << 52 >> 52); }
+    public static int unpackZ(long position) { return (int) (position << 26 >> 38); }
+
+    public void add(int x, int y, int z, byte blockType) {
+        add(pack(x, y, z), blockType);
+    }
+
+    public void add(long position, byte blockType) {
+        if (size == positions.length) {
+            grow(size + 1);
+        }
+        positions[size] = position;
+        types[size] = blockType;
+        size++;
+    }
+
+    /** Append {@code length} changes from parallel position and type arrays. */
+    void addAll(long[] srcPositions, byte[] srcTypes, int offset, int length) {
+        if (size + length > positions.length) {
+            grow(size + length);
+        }
+        System.arraycopy(srcPositions, offset, positions, size, length);
+        System.arraycopy(srcTypes, offset, types, size, length);
+        size += length;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(positions.length * 2, minCapacity);
+        positions = Arrays.copyOf(positions, capacity);
+        types = Arrays.copyOf(types, capacity);
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public long getPosition(int i) { return positions[i]; }
+    public int getX(int i) { return unpackX(positions[i]); }
+    public int getY(int i) { return unpackY(positions[i]); }
+    public int getZ(int i) { return unpackZ(positions[i]); }
+    public byte getType(int i) { return types[i]; }
+
+    public void clear() { size = 0; }
+}
@@ -0,0 +1,102 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.protocol.codec.NettyPacketEncoder;
+import com.github.martinambrus.rdforward.protocol.codec.PacketCompressEncoder;
+import com.github.martinambrus.rdforward.protocol.codec.PreEncodedFrame;
+import com.github.martinambrus.rdforward.protocol.codec.VarIntFrameEncoder;
+import com.github.martinambrus.rdforward.protocol.packet.ConnectionState;
+import com.github.martinambrus.rdforward.protocol.packet.NettyPacketRegistry;
+import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import com.github.martinambrus.rdforward.protocol.packet.PacketDirection;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelPipeline;
+
+import java.util.zip.Deflater;
+
+/**
+ * Encodes cached chunk packets into shareable wire frames.
+ *
+ * A "wire variant" packs everything besides the packets themselves that
+ * decides the encoded bytes into one long: the packet IDs the connection
+ * uses for them (IDs shift between versions that share a serialization
+ * bucket), its compression threshold and its deflate level. Players
+ * whose variants match can share the same {@link PreEncodedFrame} bytes;
+ * a connection whose compression policy picked a different level gets
+ * frames of its own.
+ *
+ * Only plain TCP 1.7.2+ pipelines (VarIntFrameEncoder framing, in PLAY
+ * state) take frames. LCE, EaglerCraft, pre-Netty, Bedrock and MCPE
+ * connections report no variant and keep receiving packet objects.
+ */
+final class ChunkFrameEncoder {
+
+    /** Returned by {@link #variantFor} when the connection cannot take frames. */
+    static final long NO_VARIANT = -1;
+
+    private static final int MAX_PACKETS = 4;
+    private static final int MAX_THRESHOLD = (1 << 24) - 2;
+
+    /** Generation pool threads are long-lived; one deflater per level each, created on first use. */
+    private static final ThreadLocal<Deflater[]> DEFLATERS =
+            ThreadLocal.withInitial(() -> new Deflater[Deflater.BEST_COMPRESSION + 1]);
+
+    private ChunkFrameEncoder() {}
+
+    /**
+     * Wire variant for sending {@code packets} to this player, or
+     * {@link #NO_VARIANT}. Safe to call from any thread.
+     */
+    static long variantFor(ConnectedPlayer player, Packet[] packets) {
+        Channel channel = player.getChannel();
+        if (channel == null || packets.length == 0 || packets.length > MAX_PACKETS) return NO_VARIANT;
+        ChannelPipeline pipeline = channel.pipeline();
+        if (!(pipeline.get("encoder") instanceof VarIntFrameEncoder)) return NO_VARIANT;
+        if (!(pipeline.get("packetEncoder") instanceof NettyPacketEncoder encoder)
+                || encoder.getConnectionState() != ConnectionState.PLAY) {
+            return NO_VARIANT;
+        }
+        int threshold = PreEncodedFrame.NO_COMPRESSION;
+        int level = 0;
+        if (pipeline.get("compress") instanceof PacketCompressEncoder compress) {
+            threshold = compress.getThreshold();
+            level = compress.getLevel();
+        }
+        if (threshold > MAX_THRESHOLD) return NO_VARIANT;
+
+        long ids = 0;
+        for (int i = 0; i < packets.length; i++) {
+            int id;
+            try {
+                id = NettyPacketRegistry.getPacketId(ConnectionState.PLAY,
+                        PacketDirection.SERVER_TO_CLIENT, packets[i].getClass(), encoder.getProtocolVersion());
+            } catch (IllegalArgumentException e) {
+                return NO_VARIANT;
+            }
+            if (id < 0 || id > 0xFF) return NO_VARIANT;
+            ids |= (long) id << (i * 8);
+        }
+        // [level: 4 bits][threshold+1: 24 bits][count: 3 bits][4 x 8-bit packet IDs]
+        return (long) level << 59 | (long) (threshold + 1) << 35 | (long) packets.length << 32 | ids;
+    }
+
+    /** Encode packets for a variant from {@link #variantFor}. Runs on a pool thread. */
+    static ByteBuf encode(Packet[] packets, long variant) {
+        int count = (int) (variant >>> 32) & 0x7;
+        if (count != packets.length) {
+            throw new IllegalArgumentException("Variant is for " + count + " packets, got " + packets.length);
+        }
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = (int) (variant >>> (i * 8)) & 0xFF;
+        }
+        int threshold = (int) (variant >>> 35 & 0xFFFFFF) - 1;
+        int level = (int) (variant >>> 59);
+        Deflater[] deflaters = DEFLATERS.get();
+        Deflater deflater = deflaters[level];
+        if (deflater == null) {
+            deflater = deflaters[level] = new Deflater(level);
+        }
+        return PreEncodedFrame.encode(packets, ids, threshold, deflater);
+    }
+}
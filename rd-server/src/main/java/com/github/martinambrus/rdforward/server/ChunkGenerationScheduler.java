@@ -0,0 +1,294 @@
+package com.github.martinambrus.rdforward.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Worker pool for CPU-bound chunk work (generation, skylight, packet
+ * serialization) that runs tasks in priority order instead of FIFO.
+ *
+ * Tasks are ordered by lane, then priority, then submission order:
+ * <ol>
+ *   <li>{@link #LANE_EXPRESS} — chunks a player is blocked on right now
+ *       (teleport destination, spawn area on login).</li>
+ *   <li>{@link #LANE_SERIALIZE} — packet serialization for chunks that are
+ *       already loaded; these are cheap and a player is waiting on them.</li>
+ *   <li>{@link #LANE_GENERATE} — regular streaming generation, keyed on the
+ *       Chebyshev distance to the nearest interested player.</li>
+ * </ol>
+ *
+ * Generation priorities go stale as players move, so the tick thread calls
+ * {@link #reprioritize} periodically. It recomputes each queued chunk's
+ * priority and cancels cancellable tasks that no player wants any more
+ * (priority {@link #NOT_WANTED}) — previously such tasks ran to completion
+ * even after the player had moved away or disconnected.
+ *
+ * Queue depth and wait time (submit to start) are tracked for the
+ * ChunkManager stats line.
+ */
+public class ChunkGenerationScheduler implements Executor {
+
+    public static final int LANE_EXPRESS = 0;
+    public static final int LANE_SERIALIZE = 1;
+    public static final int LANE_GENERATE = 2;
+
+    /** Priority value meaning no player wants the chunk; cancellable tasks are dropped. */
+    public static final long NOT_WANTED = Long.MAX_VALUE;
+
+    private static final AtomicInteger WORKER_ID = new AtomicInteger();
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final PriorityBlockingQueue<Task> queue = new PriorityBlockingQueue<>();
+    private final Thread[] workers;
+    private volatile boolean running = true;
+
+    /** Queued generation tasks by coord, for promotion to the express lane. */
+    private final ConcurrentHashMap<ChunkCoord, Task> queuedByCoord = new ConcurrentHashMap<>();
+    /**
+     * Coords whose generation task will be submitted once their disk load
+     * finishes, mapped to whether they were promoted meanwhile.
+     */
+    private final ConcurrentHashMap<ChunkCoord, Boolean> pendingLoads = new ConcurrentHashMap<>();
+
+    // Metrics since the last snapshot
+    private final AtomicLong waitNanosTotal = new AtomicLong();
+    private final AtomicLong waitNanosMax = new AtomicLong();
+    private final AtomicInteger executed = new AtomicInteger();
+    private final AtomicInteger cancelled = new AtomicInteger();
+
+    public ChunkGenerationScheduler(int threads) {
+        workers = new Thread[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            Thread t = new Thread(this::workerLoop, "chunk-gen-" + WORKER_ID.incrementAndGet());
+            t.setDaemon(true);
+            workers[i] = t;
+            t.start();
+        }
+    }
+
+    /** Number of worker threads. */
+    public int getThreadCount() {
+        return workers.length;
+    }
+
+    /**
+     * Submit a serialization task. Runs ahead of all generation work but
+     * behind the express lane.
+     *
+     * @throws RejectedExecutionException if the scheduler is shut down
+     */
+    @Override
+    public void execute(Runnable action) {
+        enqueue(new Task(null, LANE_SERIALIZE, 0, false, action, null));
+    }
+
+    /**
+     * Announce that a generation task for {@code coord} will be submitted
+     * once its disk load finishes, so {@link #promote} can reach it in the
+     * meantime. {@link #submit} consumes the announcement; call
+     * {@link #loadAbandoned} if the task will never be submitted.
+     */
+    public void awaitingLoad(ChunkCoord coord) {
+        pendingLoads.put(coord, Boolean.FALSE);
+    }
+
+    /** Drop the announcement for a disk load that will not lead to a submit. */
+    public void loadAbandoned(ChunkCoord coord) {
+        pendingLoads.remove(coord);
+    }
+
+    /**
+     * Submit a generation task for a chunk. Runs in the express lane if the
+     * chunk was promoted while its disk load was in flight.
+     *
+     * @param coord       chunk being generated (used for re-prioritization)
+     * @param priority    distance to the nearest interested player; lower runs first
+     * @param express     run ahead of all streaming work
+     * @param cancellable allow {@link #reprioritize} to drop the task when no player wants it
+     * @param action      the work
+     * @param onCancel    called instead of {@code action} if the task is cancelled
+     * @throws RejectedExecutionException if the scheduler is shut down
+     */
+    public synchronized void submit(ChunkCoord coord, long priority, boolean express, boolean cancellable,
+                                    Runnable action, Runnable onCancel) {
+        if (Boolean.TRUE.equals(pendingLoads.remove(coord))) express = true;
+        Task task = new Task(coord, express ? LANE_EXPRESS : LANE_GENERATE,
+                express ? 0 : priority, cancellable && !express, action, onCancel);
+        queuedByCoord.put(coord, task);
+        enqueue(task);
+    }
+
+    /**
+     * Move a chunk's generation into the express lane. Works whether the
+     * task is already queued or still waiting on its disk load; a task that
+     * is already running or finished is left alone.
+     */
+    public synchronized void promote(ChunkCoord coord) {
+        Task task = queuedByCoord.get(coord);
+        if (task != null && queue.remove(task)) {
+            task.lane = LANE_EXPRESS;
+            task.priority = 0;
+            task.cancellable = false;
+            queue.add(task);
+        } else if (task == null) {
+            pendingLoads.replace(coord, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Recompute the priority of every queued generation task and cancel the
+     * cancellable ones whose new priority is {@link #NOT_WANTED}. Express and
+     * serialization tasks keep their position.
+     */
+    public synchronized void reprioritize(ToLongFunction<ChunkCoord> priorityFn) {
+        if (queue.isEmpty()) return;
+        List<Task> drained = new ArrayList<>(queue.size());
+        queue.drainTo(drained);
+        for (Task task : drained) {
+            if (task.lane == LANE_GENERATE) {
+                long priority = priorityFn.applyAsLong(task.coord);
+                if (priority == NOT_WANTED && task.cancellable) {
+                    cancel(task);
+                    continue;
+                }
+                task.priority = priority;
+            }
+            queue.add(task);
+        }
+    }
+
+    private void cancel(Task task) {
+        queuedByCoord.remove(task.coord, task);
+        cancelled.incrementAndGet();
+        if (task.onCancel != null) {
+            try {
+                task.onCancel.run();
+            } catch (Exception e) {
+                System.err.println("[ChunkGen] Cancel callback failed for " + task.coord + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void enqueue(Task task) {
+        if (!running) {
+            if (task.coord != null) queuedByCoord.remove(task.coord, task);
+            throw new RejectedExecutionException("Chunk generation scheduler is shut down");
+        }
+        queue.add(task);
+    }
+
+    private void workerLoop() {
+        while (running || !queue.isEmpty()) {
+            Task task;
+            try {
+                task = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                if (!running) break;
+                continue;
+            }
+            if (task == null) continue;
+            if (task.coord != null) queuedByCoord.remove(task.coord, task);
+
+            long wait = System.nanoTime() - task.enqueuedNanos;
+            waitNanosTotal.addAndGet(wait);
+            waitNanosMax.accumulateAndGet(wait, Math::max);
+            executed.incrementAndGet();
+            try {
+                task.action.run();
+            } catch (Throwable t) {
+                System.err.println("[ChunkGen] Task failed" + (task.coord != null ? " for " + task.coord : "")
+                        + ": " + t.getMessage());
+            }
+        }
+    }
+
+    /** Current number of queued (not yet started) tasks. */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Format queue metrics for the stats line and reset the interval counters.
+     * Called from the tick thread only.
+     */
+    public String snapshotAndResetStats() {
+        int count = executed.getAndSet(0);
+        long total = waitNanosTotal.getAndSet(0);
+        long max = waitNanosMax.getAndSet(0);
+        int dropped = cancelled.getAndSet(0);
+        long avgMs = count > 0 ? TimeUnit.NANOSECONDS.toMillis(total / count) : 0;
+        return "genQueue=" + queue.size()
+                + " genRun=" + count
+                + " genWaitAvg=" + avgMs + "ms"
+                + " genWaitMax=" + TimeUnit.NANOSECONDS.toMillis(max) + "ms"
+                + " genCancelled=" + dropped;
+    }
+
+    /** Stop accepting tasks. Already-queued tasks still run. */
+    public void shutdown() {
+        running = false;
+    }
+
+    /** Wait for queued tasks to finish after {@link #shutdown()}. */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread t : workers) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+            TimeUnit.NANOSECONDS.timedJoin(t, remaining);
+            if (t.isAlive()) return false;
+        }
+        return true;
+    }
+
+    /** Drop queued tasks and interrupt workers. */
+    public void shutdownNow() {
+        running = false;
+        List<Task> drained = new ArrayList<>();
+        queue.drainTo(drained);
+        for (Task task : drained) {
+            if (task.onCancel != null) cancel(task);
+        }
+        pendingLoads.clear();
+        for (Thread t : workers) {
+            t.interrupt();
+        }
+    }
+
+    /** A queued unit of work. Mutable fields change only while the task is out of the queue. */
+    private static final class Task implements Comparable<Task> {
+        final ChunkCoord coord;
+        final Runnable action;
+        final Runnable onCancel;
+        final long seq = SEQUENCE.incrementAndGet();
+        final long enqueuedNanos = System.nanoTime();
+        int lane;
+        long priority;
+        boolean cancellable;
+
+        Task(ChunkCoord coord, int lane, long priority, boolean cancellable,
+             Runnable action, Runnable onCancel) {
+            this.coord = coord;
+            this.lane = lane;
+            this.priority = priority;
+            this.cancellable = cancellable;
+            this.action = action;
+            this.onCancel = onCancel;
+        }
+
+        @Override
+        public int compareTo(Task o) {
+            if (lane != o.lane) return Integer.compare(lane, o.lane);
+            if (priority != o.priority) return Long.compare(priority, o.priority);
+            return Long.compare(seq, o.seq);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import io.netty.util.internal.PlatformDependent;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -102,11 +103,38 @@ public class ChunkIOThread implements Runnable {
         return loadFuture;
     }
 
+    /**
+     * Submit a batch of chunk saves as a single queue entry. All coords are
+     * tracked as in-flight until the whole batch has been written, so a load
+     * racing the batch waits for it like it would for a single save.
+     * Used by world pregeneration, which produces thousands of saves in bursts
+     * and would otherwise flood the queue with one task per chunk.
+     */
+    public CompletableFuture<Void> submitSaveBatch(List<ChunkCoord> coords,
+                                                   List<AlphaLevelFormat.SaveTask> saveTasks) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        for (ChunkCoord coord : coords) {
+            inFlightSaves.put(coord, future);
+        }
+        future.whenComplete((v, ex) -> {
+            for (ChunkCoord coord : coords) {
+                inFlightSaves.remove(coord, future);
+            }
+        });
+        submit(new SaveBatchTask(saveTasks, future));
+        return future;
+    }
+
     /** Submit a generic write task (e.g., world save, player save). */
     public void submitWrite(Runnable writeAction) {
         submit(new GenericWriteTask(writeAction));
     }
 
+    /** Tasks queued but not yet picked up by the I/O thread. */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
     /** Get the number of tasks processed since startup. */
     public int getTasksProcessed() {
         return tasksProcessed.get();
@@ -171,7 +199,7 @@ public class ChunkIOThread implements Runnable {
     // === Task types ===
 
     /** Base interface for all I/O tasks. */
-    sealed interface IOTask permits SaveChunkTask, LoadChunkTask, GenericWriteTask {
+    sealed interface IOTask permits SaveChunkTask, SaveBatchTask, LoadChunkTask, GenericWriteTask {
         void execute() throws Exception;
         default void completeExceptionally(Exception e) {}
     }
@@ -196,6 +224,28 @@ public class ChunkIOThread implements Runnable {
         }
     }
 
+    /** Save several chunks to disk in one queue entry. */
+    record SaveBatchTask(List<AlphaLevelFormat.SaveTask> saveTasks,
+                         CompletableFuture<Void> future) implements IOTask {
+        @Override
+        public void execute() throws IOException {
+            try {
+                for (AlphaLevelFormat.SaveTask saveTask : saveTasks) {
+                    saveTask.writeToDisk();
+                }
+                future.complete(null);
+            } catch (IOException e) {
+                future.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void completeExceptionally(Exception e) {
+            future.completeExceptionally(e);
+        }
+    }
+
     /** Load a chunk from disk. */
     record LoadChunkTask(File worldDir, ChunkCoord coord,
                          CompletableFuture<AlphaChunk> future) implements IOTask {
@@ -36,6 +36,8 @@ import com.github.martinambrus.rdforward.world.alpha.CanonicalSectionWriter;
 
 import com.github.martinambrus.rdforward.protocol.packet.Packet;
 import com.github.martinambrus.rdforward.server.api.Scheduler;
+import com.github.martinambrus.rdforward.server.cache.ChunkDataCache;
+import io.netty.buffer.ByteBuf;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -51,8 +53,6 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -134,20 +134,26 @@ public class ChunkManager {
     private static final ThreadLocal<List<ChunkCoord>> TL_TO_LOAD = ThreadLocal.withInitial(() -> new ArrayList<>(128));
     private static final ThreadLocal<List<ChunkCoord>> TL_TO_UNLOAD = ThreadLocal.withInitial(() -> new ArrayList<>(32));
 
-    /** Max chunks to deliver per player per tick (pacing). */
-    private static final int MAX_CHUNKS_PER_PLAYER_PER_TICK = 4;
+    /** Max chunks to deliver per player per tick, on top of the connection's own pacing. */
+    private static final int MAX_CHUNKS_PER_PLAYER_PER_TICK = 16;
     /** Max total chunk deliveries across all players per tick (bounds worst-case tick time). */
     private static final int MAX_TOTAL_DELIVERIES_PER_TICK = 32;
     /** Max dirty chunks to save per incremental save call. */
     private static final int INCREMENTAL_SAVE_BATCH = 4;
 
-    /** Worker pool for CPU-bound chunk generation and skylight computation. */
-    private static final AtomicInteger WORKER_ID = new AtomicInteger();
-    private final ExecutorService generationPool = Executors.newFixedThreadPool(2, r -> {
-        Thread t = new Thread(r, "chunk-gen-" + WORKER_ID.incrementAndGet());
-        t.setDaemon(true);
-        return t;
-    });
+    /** Chunks around a joining player's spawn that skip the streaming queue. */
+    private static final int EXPRESS_INITIAL_RADIUS = 2;
+    /** How long teleport preloading waits for an express chunk before generating inline. */
+    private static final long EXPRESS_WAIT_MS = 2000;
+    /** How long teleport preloading waits on in-flight serialization before redoing it. */
+    private static final long SETTLE_WAIT_MS = 500;
+
+    /**
+     * Priority-ordered worker pool for CPU-bound chunk generation, skylight
+     * computation and packet serialization. Thread count: chunk-gen-threads.
+     */
+    private final ChunkGenerationScheduler generationPool =
+            new ChunkGenerationScheduler(ServerProperties.getChunkGenThreads());
 
     /** Dedicated I/O thread for all disk reads/writes (MPSC lock-free queue). */
     private final ChunkIOThread ioThread = new ChunkIOThread();
@@ -158,6 +164,12 @@ public class ChunkManager {
     /** Fine-grained per-chunk locking for concurrent operations. */
     private final ChunkLockManager chunkLocks = new ChunkLockManager();
 
+    /** Background region pregeneration (/pregen). */
+    private final WorldPregenerator pregenerator;
+
+    /** Expose the pregenerator for the /pregen command and plugins. */
+    public WorldPregenerator getPregenerator() { return pregenerator; }
+
     /** Tracks in-flight generation tasks to prevent duplicate work. */
     private final ConcurrentHashMap<ChunkCoord, CompletableFuture<AlphaChunk>> pendingChunks =
             new ConcurrentHashMap<>();
@@ -169,19 +181,27 @@ public class ChunkManager {
     /** Scheduler task handle for the delivery loop. */
     private Scheduler.ScheduledTask deliveryTask;
 
+    /** Players with pending sends, in this tick's service order (tick thread, reused). */
+    private final List<ConnectedPlayer> deliveryOrder = new ArrayList<>();
+    /** Last player that received chunks; the next tick's round starts after it. */
+    private ConnectedPlayer lastServed;
+
     /**
      * Cache of serialized chunk packets keyed by (chunkX, chunkZ, protocolBucket).
      * Eliminates redundant serialization+compression when multiple players of the
      * same protocol version need the same chunk. Invalidated when blocks change.
+     * Bounded by chunk-cache-mb and shared with the Bedrock converter; eviction
+     * runs on the cache's own thread.
      */
-    private final ConcurrentHashMap<Long, FutureChunkPackets> chunkPacketCache = new ConcurrentHashMap<>();
-
-    /** Max entries in the chunk packet cache before eviction. */
-    private static final int MAX_CACHE_SIZE = 2000;
+    private final ChunkDataCache chunkPacketCache =
+            new ChunkDataCache(ServerProperties.getChunkCacheMb() * 1024L * 1024L);
 
     /** Cache hit/miss counters for observability (reset on stats log). */
     private final AtomicInteger cacheHits = new AtomicInteger();
     private final AtomicInteger cacheMisses = new AtomicInteger();
+    /** Cache hits served as pre-encoded frames, and frame encodes performed. */
+    private final AtomicInteger frameHits = new AtomicInteger();
+    private final AtomicInteger frameEncodes = new AtomicInteger();
 
     /** Tick counter for periodic stats logging. */
     private int statsTicks = 0;
@@ -192,16 +212,35 @@ public class ChunkManager {
 
     /**
      * Per-chunk block change counter for adaptive batching.
-     * When a chunk accumulates more than {@link #BATCH_RESEND_THRESHOLD}
-     * changes, it is flagged for full resend instead of individual updates.
+     * When a chunk accumulates more than {@link #batchResendThreshold}
+     * changes in a tick, it is flagged for full resend instead of
+     * multi-block updates.
      */
     private final ConcurrentHashMap<ChunkCoord, AtomicInteger> chunkChangeCounts = new ConcurrentHashMap<>();
 
     /** Chunks that need a full resend due to excessive individual block changes. */
     private final Set<ChunkCoord> batchResendChunks = ConcurrentHashMap.newKeySet();
 
-    /** Number of individual block changes in a chunk before triggering a full resend. */
-    private static final int BATCH_RESEND_THRESHOLD = 64;
+    /**
+     * Block changes in a chunk within one tick before a full resend is
+     * cheaper than the multi-block updates. Recomputed every tick by
+     * {@link #resetChangeCounters()} from the average encoded chunk size.
+     */
+    private volatile int batchResendThreshold = computeBatchResendThreshold(0, 0);
+
+    /** Bounds for {@link #batchResendThreshold}. */
+    private static final int BATCH_RESEND_MIN = 64;
+    private static final int BATCH_RESEND_MAX = 4096;
+
+    /** Assumed encoded chunk size until the packet cache has entries. */
+    private static final int DEFAULT_CHUNK_PACKET_BYTES = 8192;
+
+    /**
+     * Wire cost of one change in a multi-block packet: packed position
+     * plus a VarInt/VarLong block value, with the per-section header
+     * spread over its records.
+     */
+    private static final int MULTI_BLOCK_RECORD_BYTES = 4;
 
     /** Pre-filled sky light array for empty air sections above terrain (V755 light). */
     private static final byte[] FULL_SKY_LIGHT = new byte[2048];
@@ -224,6 +263,10 @@ public class ChunkManager {
         this.seed = seed;
         this.worldDir = worldDir;
         this.viewDistance = viewDistance;
+        this.pregenerator = new WorldPregenerator(this, worldGenerator, seed, worldDir, ioThread, chunkLocks);
+        for (int bucket = BUCKET_ALPHAVER; bucket <= BUCKET_LCE; bucket++) {
+            chunkPacketCache.setBucketName(bucket, BUCKET_NAMES[bucket]);
+        }
     }
 
     /**
@@ -232,6 +275,7 @@ public class ChunkManager {
      */
     public void initAsyncDelivery() {
         ioThread.start();
+        chunkPacketCache.start();
         deliveryTask = Scheduler.runRepeating(0, 1, this::deliverReadyChunks);
     }
 
@@ -320,6 +364,13 @@ public class ChunkManager {
     static final int BUCKET_V770        = 19; // 1.21.5+
     static final int BUCKET_V775        = 20; // 26.1+
     static final int BUCKET_LCE         = 21; // Legacy Console Edition
+    // 22 = Bedrock, see BedrockChunkConverter.CACHE_BUCKET
+
+    /** Bucket labels for cache metrics, indexed by bucket. */
+    private static final String[] BUCKET_NAMES = {
+            null, "alphaver", "alpha", "1.2.1", "1.3.1", "1.8", "1.9", "1.9.4", "1.13", "1.14", "1.15",
+            "1.16", "1.16.2", "1.17", "1.18", "1.19", "1.20", "1.20.2", "1.20.5", "1.21.5", "26.1", "lce"
+    };
 
     /**
      * Map a protocol bucket to a {@link CanonicalSectionWriter} target constant.
@@ -339,13 +390,9 @@ public class ChunkManager {
         return -1; // not a paletted bucket
     }
 
-    /**
-     * Encode a cache key from chunk coordinates and protocol bucket.
-     * Layout: bits 47..28 = chunkX (20 bits), bits 27..8 = chunkZ (20 bits),
-     * bits 7..0 = bucket (8 bits). Supports coords up to +/-524287.
-     */
+    /** Encode a cache key from chunk coordinates and protocol bucket (see {@link ChunkDataCache#key}). */
     private static long cacheKey(int chunkX, int chunkZ, int bucket) {
-        return ((long) (chunkX & 0xFFFFF) << 28) | ((long) (chunkZ & 0xFFFFF) << 8) | (bucket & 0xFF);
+        return ChunkDataCache.key(chunkX, chunkZ, bucket);
     }
 
     /**
@@ -391,9 +438,9 @@ public class ChunkManager {
      * Called when a block changes in that chunk.
      */
     private void invalidateChunkCache(int chunkX, int chunkZ) {
-        for (int bucket = BUCKET_ALPHA; bucket <= BUCKET_LCE; bucket++) {
-            FutureChunkPackets entry = chunkPacketCache.remove(cacheKey(chunkX, chunkZ, bucket));
-            if (entry != null) entry.invalidate(); // signal in-flight serialization to discard
+        for (int bucket = BUCKET_ALPHAVER; bucket <= BUCKET_LCE; bucket++) {
+            // Removal invalidates the entry, signalling in-flight serialization to discard
+            chunkPacketCache.remove(cacheKey(chunkX, chunkZ, bucket));
         }
         // Also invalidate Bedrock chunk cache
         BedrockChunkConverter converter = bedrockChunkConverter;
@@ -415,6 +462,24 @@ public class ChunkManager {
         }
     }
 
+    /**
+     * True while chunks are projected from the ServerWorld. Nothing is
+     * persisted as Alpha chunk files in this mode.
+     */
+    boolean isOverlayMode() {
+        return serverWorld != null;
+    }
+
+    /** True if the chunk is in memory or a load/generation for it is in flight. */
+    boolean isChunkLoadedOrPending(ChunkCoord coord) {
+        return loadedChunks.containsKey(coord) || pendingChunks.containsKey(coord);
+    }
+
+    /** True if any player is currently tracked for chunk streaming. */
+    boolean hasPlayers() {
+        return !playerChunks.isEmpty();
+    }
+
     /** Get or create a ChunkHolder for the given coordinate. */
     private ChunkHolder getOrCreateHolder(ChunkCoord coord) {
         return chunkHolders.computeIfAbsent(coord, ChunkHolder::new);
@@ -473,6 +538,18 @@ public class ChunkManager {
      * returns the existing future.
      */
     public CompletableFuture<AlphaChunk> getOrLoadChunkAsync(ChunkCoord coord) {
+        return loadChunkAsync(coord, false, false);
+    }
+
+    /**
+     * Async load/generate with scheduling options.
+     *
+     * @param express     jump ahead of streaming work (a player is blocked on this chunk)
+     * @param cancellable drop the generation if no player wants the chunk by the time
+     *                    it would run; the future then completes with a CancellationException
+     */
+    private CompletableFuture<AlphaChunk> loadChunkAsync(ChunkCoord coord, boolean express,
+                                                         boolean cancellable) {
         // Fast path: already cached
         AlphaChunk cached = loadedChunks.get(coord);
         if (cached != null) {
@@ -483,6 +560,7 @@ public class ChunkManager {
         CompletableFuture<AlphaChunk> future = new CompletableFuture<>();
         CompletableFuture<AlphaChunk> existing = pendingChunks.putIfAbsent(coord, future);
         if (existing != null) {
+            if (express) generationPool.promote(coord);
             return existing; // Another request already started this chunk
         }
 
@@ -491,8 +569,11 @@ public class ChunkManager {
         holder.setStatus(ChunkStatus.LOADING);
         holder.setCurrentTransition(future);
 
-        // Phase 1: Load from disk on the I/O thread
-        ioThread.submitLoad(worldDir, coord).thenAcceptAsync(diskChunk -> {
+        // Phase 1: Load from disk on the I/O thread, then queue generation
+        // on the scheduler at the chunk's current priority
+        generationPool.awaitingLoad(coord);
+        ioThread.submitLoad(worldDir, coord).thenAccept(diskChunk -> generationPool.submit(coord,
+                generationPriority(coord), express, cancellable, () -> {
             try (LockToken lock = chunkLocks.acquire(coord, Usage.WORLDGEN)) {
                 holder.setStatus(ChunkStatus.GENERATING);
 
@@ -532,8 +613,14 @@ public class ChunkManager {
                 pendingChunks.remove(coord);
                 future.completeExceptionally(e);
             }
-        }, generationPool).exceptionally(ex -> {
+        }, () -> {
+            // No player wants this chunk any more — skip generating it
+            pendingChunks.remove(coord, future);
+            if (holder.getStatus() == ChunkStatus.LOADING) holder.setStatus(ChunkStatus.EMPTY);
+            future.cancel(false);
+        })).exceptionally(ex -> {
             // Handle RejectedExecutionException from pool shutdown
+            generationPool.loadAbandoned(coord);
             if (!future.isDone()) {
                 pendingChunks.remove(coord);
                 future.completeExceptionally(ex);
@@ -544,10 +631,45 @@ public class ChunkManager {
         return future;
     }
 
+    /**
+     * Generation priority for a chunk: Chebyshev distance (in chunks) to the
+     * nearest tracking player that still has it in view, or
+     * {@link ChunkGenerationScheduler#NOT_WANTED} if no such player exists.
+     */
+    private long generationPriority(ChunkCoord coord) {
+        ChunkHolder holder = chunkHolders.get(coord);
+        if (holder == null) return ChunkGenerationScheduler.NOT_WANTED;
+        long best = ChunkGenerationScheduler.NOT_WANTED;
+        for (ConnectedPlayer player : holder.getTrackers()) {
+            if (!playerChunks.containsKey(player)) continue; // disconnected
+            int dx = Math.abs(coord.getX() - ((player.getX() / 32) >> 4));
+            int dz = Math.abs(coord.getZ() - ((player.getZ() / 32) >> 4));
+            int dist = Math.max(dx, dz);
+            if (dist <= viewDistance && dist < best) best = dist;
+        }
+        return best;
+    }
+
+    /**
+     * Re-rank queued chunk generation by the players' current positions and
+     * cancel generation nobody needs any more. Called from the tick loop
+     * after the periodic chunk tracking pass.
+     */
+    public void reprioritizeGeneration() {
+        generationPool.reprioritize(this::generationPriority);
+    }
+
     /**
      * Deliver ready chunks to players. Called every tick by the Scheduler.
-     * Drains the pending-sends queue, sending up to {@link #MAX_CHUNKS_PER_PLAYER_PER_TICK}
-     * per player per tick.
+     *
+     * TCP connections are paced by their {@link ChunkSendPacer}: a player
+     * only gets chunks while its channel is writable and it has byte credit
+     * left from its measured drain rate, so slow links stop queueing data
+     * in server memory and fast links are not held to a fixed rate.
+     * Bedrock/MCPE keep the RTT-based chunk budget. Players are served
+     * round robin, starting after the last player served, so the per-tick
+     * cap ({@link #MAX_TOTAL_DELIVERIES_PER_TICK}) rotates across players
+     * instead of always favouring the same ones.
      */
     private void deliverReadyChunks() {
         // Periodic stats logging
@@ -559,42 +681,51 @@ public class ChunkManager {
             int hitRate = total > 0 ? (hits * 100 / total) : 0;
             System.out.println("[ChunkManager] Stats: loaded=" + loadedChunks.size()
                     + " cached=" + chunkPacketCache.size()
+                    + " cacheMB=" + (chunkPacketCache.getWeightedSize() >> 20)
                     + " cacheHitRate=" + hitRate + "% (" + hits + "/" + total + ")"
-                    + " ioTasks=" + ioThread.getTasksProcessed());
+                    + " frameHits=" + frameHits.getAndSet(0)
+                    + " frameEncodes=" + frameEncodes.getAndSet(0)
+                    + " ioTasks=" + ioThread.getTasksProcessed()
+                    + " " + generationPool.snapshotAndResetStats());
         }
 
-        // Evict stale cache entries on the tick thread (avoids contention with async serialization)
-        if (chunkPacketCache.size() >= MAX_CACHE_SIZE) {
-            int toEvict = MAX_CACHE_SIZE / 2;
-            Iterator<Long> cacheIt = chunkPacketCache.keySet().iterator();
-            while (cacheIt.hasNext() && toEvict-- > 0) {
-                cacheIt.next();
-                cacheIt.remove();
-            }
+        List<ConnectedPlayer> order = deliveryOrder;
+        order.clear();
+        order.addAll(pendingSendsPerPlayer.keySet());
+        int playerCount = order.size();
+        if (playerCount == 0) return;
+        int start = lastServed != null ? order.indexOf(lastServed) + 1 : 0;
+
+        // Every paced connection measures and earns credit each tick, even
+        // if the global cap stops this round before reaching it
+        for (ConnectedPlayer player : order) {
+            ChunkSendPacer pacer = player.getChunkPacer();
+            if (pacer != null) pacer.sample(player.getChannel(), player.getTraffic());
         }
 
         int totalSent = 0;
-        Iterator<Map.Entry<ConnectedPlayer, Queue<ChunkCoord>>> outerIt =
-                pendingSendsPerPlayer.entrySet().iterator();
-        while (outerIt.hasNext() && totalSent < MAX_TOTAL_DELIVERIES_PER_TICK) {
-            Map.Entry<ConnectedPlayer, Queue<ChunkCoord>> entry = outerIt.next();
-            ConnectedPlayer player = entry.getKey();
-            Queue<ChunkCoord> pending = entry.getValue();
+        for (int n = 0; n < playerCount && totalSent < MAX_TOTAL_DELIVERIES_PER_TICK; n++) {
+            ConnectedPlayer player = order.get((start + n) % playerCount);
+            Queue<ChunkCoord> pending = pendingSendsPerPlayer.get(player);
+            if (pending == null) continue;
             Set<ChunkCoord> current = playerChunks.get(player);
             if (current == null) {
                 pending.clear();
-                outerIt.remove();
+                pendingSendsPerPlayer.remove(player, pending);
                 continue;
             }
 
+            ChunkSendPacer pacer = player.getChunkPacer();
+            if (pacer != null && !pacer.hasCredit()) continue; // not writable, or out of credit
+
             boolean needsBatch = player.getProtocolVersion().isAtLeast(ProtocolVersion.RELEASE_1_20_2);
             boolean batchStarted = false;
-            int playerBudget = player.getChunkSendBudget();
+            int playerBudget = pacer != null ? MAX_CHUNKS_PER_PLAYER_PER_TICK : player.getChunkSendBudget();
             int perPlayerLimit = Math.min(playerBudget,
                     MAX_TOTAL_DELIVERIES_PER_TICK - totalSent);
             int sent = 0;
             Iterator<ChunkCoord> it = pending.iterator();
-            while (it.hasNext() && sent < perPlayerLimit) {
+            while (it.hasNext() && sent < perPlayerLimit && (pacer == null || pacer.hasCredit())) {
                 ChunkCoord coord = it.next();
                 AlphaChunk chunk = loadedChunks.get(coord);
                 if (chunk != null) {
@@ -608,6 +739,7 @@ public class ChunkManager {
                             getOrCreateHolder(coord).addTracker(player);
                             it.remove();
                             sent++;
+                            if (pacer != null) pacer.charge();
                         }
                         // else: async serialization in flight, leave in queue
                     } else {
@@ -625,11 +757,12 @@ public class ChunkManager {
                 player.writePacket(new ChunkBatchFinishedPacket(sent));
                 player.flushPackets();
             }
-            player.updateChunkSendRate(sent);
+            if (pacer == null) player.updateChunkSendRate(sent);
             totalSent += sent;
+            if (sent > 0) lastServed = player;
 
             if (pending.isEmpty()) {
-                outerIt.remove();
+                pendingSendsPerPlayer.remove(player, pending);
             }
         }
     }
@@ -655,6 +788,9 @@ public class ChunkManager {
      * the pool drains would reject those saves.
      */
     public void shutdown() {
+        // 0. Stop pregeneration first; it keeps its progress file for resume
+        pregenerator.shutdown();
+
         // 1. Stop accepting new generation/serialization tasks
         generationPool.shutdown();
         if (deliveryTask != null) deliveryTask.cancel();
@@ -674,6 +810,7 @@ public class ChunkManager {
         // 3. Now safe to save + stop I/O thread (no more gen tasks will submit saves)
         pendingSendsPerPlayer.clear();
         pendingChunks.clear();
+        chunkPacketCache.shutdown(); // invalidates entries, releasing cached frames
         saveAllDirty();
         ioThread.shutdown();
     }
@@ -772,7 +909,7 @@ public class ChunkManager {
         }
 
         // Send cached chunks immediately; queue uncached for async generation
-        sendOrQueueChunks(player, toLoad, current);
+        sendOrQueueChunks(player, toLoad, current, 0);
     }
 
     /**
@@ -807,17 +944,18 @@ public class ChunkManager {
     }
 
     /**
-     * Pre-send chunks around a teleport destination synchronously so the client
-     * has terrain data before the position packet arrives. Uses blocking
-     * serialization to guarantee chunk data is in the channel buffer before
-     * the position write.
+     * Pre-send chunks around a teleport destination so the client has terrain
+     * data before the position packet arrives. The returned future completes
+     * once every chunk is in the player's outbound queue; the caller writes
+     * the position packet from it.
      *
      * @param player the player being teleported
      * @param x      destination X (block coordinate as double)
      * @param z      destination Z (block coordinate as double)
      * @param radius chunk radius to preload (0 = 1×1, 1 = 3×3, 2 = 5×5, etc.)
+     * @return completes after the chunks (and any batch end marker) are written
      */
-    public void preloadChunksForTeleport(ConnectedPlayer player, double x, double z, int radius) {
+    public CompletableFuture<Void> preloadChunksForTeleport(ConnectedPlayer player, double x, double z, int radius) {
         int destChunkX = ((int) Math.floor(x)) >> 4;
         int destChunkZ = ((int) Math.floor(z)) >> 4;
 
@@ -844,37 +982,61 @@ public class ChunkManager {
 
         boolean needsBatch = player.getProtocolVersion().isAtLeast(ProtocolVersion.RELEASE_1_20_2);
         boolean batchStarted = false;
-        int sent = 0;
+        List<CompletableFuture<Boolean>> sends = new ArrayList<>();
 
-        // Send chunks in spiral order (closest first) within the requested radius.
-        // Uses blocking sends — serialization completes synchronously if needed
-        // so the client has terrain data before the position packet.
+        // Queue every missing chunk in the express lane first so the workers
+        // generate them in parallel while this thread waits on the closest one.
         ChunkCoord[] spiral = SpiralIterator.computeOffsets(radius);
+        List<CompletableFuture<AlphaChunk>> loads = new ArrayList<>(spiral.length);
         for (ChunkCoord offset : spiral) {
             ChunkCoord coord = new ChunkCoord(destChunkX + offset.getX(),
                     destChunkZ + offset.getZ());
-            if (current.contains(coord)) continue; // already sent
+            loads.add(current.contains(coord) ? null : loadChunkAsync(coord, true, false));
+        }
 
-            AlphaChunk chunk = getOrLoadChunk(coord);
+        // Send chunks in spiral order (closest first) within the requested radius.
+        // A chunk still being serialized is written by its completion callback.
+        for (int i = 0; i < spiral.length; i++) {
+            CompletableFuture<AlphaChunk> load = loads.get(i);
+            if (load == null) continue; // already sent
+            ChunkCoord coord = new ChunkCoord(destChunkX + spiral[i].getX(),
+                    destChunkZ + spiral[i].getZ());
+
+            AlphaChunk chunk;
+            try {
+                chunk = load.get(EXPRESS_WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                // Timed out or failed: fall back to generating on this thread
+                chunk = null;
+            }
+            if (chunk == null) chunk = getOrLoadChunk(coord);
             if (chunk != null) {
                 getOrCreateHolder(coord).addTracker(player);
                 if (needsBatch && !batchStarted) {
                     player.writePacket(CHUNK_BATCH_START);
                     batchStarted = true;
                 }
-                if (sendChunkToPlayerBlocking(player, chunk)) {
-                    current.add(coord);
-                    sent++;
-                }
+                current.add(coord); // claimed now so the streaming cycle doesn't send it too
+                sends.add(sendChunkToPlayerWhenReady(player, chunk).thenApply(ok -> {
+                    if (!ok) current.remove(coord);
+                    return ok;
+                }));
             }
         }
 
-        if (batchStarted) {
-            player.writePacket(new ChunkBatchFinishedPacket(sent));
-        }
-        if (sent > 0) {
-            player.flushPackets();
-        }
+        boolean batch = batchStarted;
+        return CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).thenRun(() -> {
+            int sent = 0;
+            for (CompletableFuture<Boolean> send : sends) {
+                if (send.join()) sent++;
+            }
+            if (batch) {
+                player.writePacket(new ChunkBatchFinishedPacket(sent));
+            }
+            if (sent > 0) {
+                player.flushPackets();
+            }
+        });
     }
 
     /**
@@ -905,7 +1067,11 @@ public class ChunkManager {
                     centerChunkZ + offset.getZ()));
         }
 
-        int[] counts = sendOrQueueChunks(player, toSend, current);
+        // The spawn area goes through the express lane so the player isn't
+        // stuck in the void behind other players' streaming
+        int expressCount = Math.min(toSend.size(),
+                (2 * EXPRESS_INITIAL_RADIUS + 1) * (2 * EXPRESS_INITIAL_RADIUS + 1));
+        int[] counts = sendOrQueueChunks(player, toSend, current, expressCount);
         player.flushPackets();
         System.out.println("[ChunkManager] Sent " + counts[0] + " initial chunks to " + player.getUsername()
                 + " (+" + counts[1] + " async), centered at chunk ("
@@ -914,15 +1080,18 @@ public class ChunkManager {
 
     /**
      * Send already-cached chunks immediately and queue uncached ones for
-     * async generation. Returns [sentCount, asyncCount].
+     * async generation. The first {@code expressCount} coords are generated
+     * in the express lane; the rest are cancellable streaming work.
+     * Returns [sentCount, asyncCount].
      */
     private int[] sendOrQueueChunks(ConnectedPlayer player, List<ChunkCoord> coords,
-                                     Set<ChunkCoord> current) {
+                                     Set<ChunkCoord> current, int expressCount) {
         boolean needsBatch = player.getProtocolVersion().isAtLeast(ProtocolVersion.RELEASE_1_20_2);
         boolean batchStarted = false;
         Queue<ChunkCoord> pendingQueue = null;
         int sentCount = 0;
-        for (ChunkCoord coord : coords) {
+        for (int i = 0; i < coords.size(); i++) {
+            ChunkCoord coord = coords.get(i);
             AlphaChunk cached = loadedChunks.get(coord);
             if (cached != null) {
                 if (needsBatch && !batchStarted) {
@@ -944,11 +1113,10 @@ public class ChunkManager {
                     pendingQueue.add(coord);
                 }
             } else {
-                if (cached == null) {
-                    getOrLoadChunkAsync(coord);
-                }
-                // Add tracker now so the chunk isn't unloaded while pending.
+                // Add tracker first so the chunk isn't unloaded while pending
+                // and the scheduler sees this player as interested.
                 getOrCreateHolder(coord).addTracker(player);
+                loadChunkAsync(coord, i < expressCount, i >= expressCount);
                 if (pendingQueue == null) {
                     pendingQueue = pendingSendsPerPlayer.computeIfAbsent(
                             player, k -> new ConcurrentLinkedQueue<>());
@@ -1109,7 +1277,7 @@ public class ChunkManager {
         invalidateChunkCache(coord.getX(), coord.getZ());
 
         AtomicInteger counter = chunkChangeCounts.computeIfAbsent(coord, k -> new AtomicInteger());
-        if (counter.incrementAndGet() >= BATCH_RESEND_THRESHOLD) {
+        if (counter.incrementAndGet() >= batchResendThreshold) {
             batchResendChunks.add(coord);
             counter.set(0);
         }
@@ -1117,6 +1285,89 @@ public class ChunkManager {
         return true;
     }
 
+    /**
+     * Mirror a set of already-applied block changes into the chunk world.
+     * Consecutive changes in the same chunk (as produced by
+     * {@link ServerWorld#fillRegion} and {@link ServerWorld#applyBlockChanges})
+     * load the chunk, mark it dirty and invalidate its cached packets once
+     * for the whole run rather than once per block. Only changes that
+     * alter a chunk block count: a run that changes nothing leaves the
+     * chunk untouched, and a chunk whose changes this tick reach
+     * {@link #getBatchResendThreshold()} is flagged for a full resend.
+     */
+    public void applyBlockChanges(BlockChangeSet changes) {
+        int count = changes.size();
+        int start = 0;
+        while (start < count) {
+            int chunkX = changes.getX(start) >> 4;
+            int chunkZ = changes.getZ(start) >> 4;
+            int end = start + 1;
+            while (end < count && changes.getX(end) >> 4 == chunkX && changes.getZ(end) >> 4 == chunkZ) end++;
+
+            ChunkCoord coord = new ChunkCoord(chunkX, chunkZ);
+            AlphaChunk chunk = getOrLoadChunk(coord);
+            if (chunk != null) {
+                int changed = 0;
+                for (int i = start; i < end; i++) {
+                    int y = changes.getY(i);
+                    if (y < 0 || y >= AlphaChunk.HEIGHT) continue;
+                    int localX = changes.getX(i) & 15, localZ = changes.getZ(i) & 15;
+                    int blockType = changes.getType(i) & 0xFF;
+                    if (chunk.getBlock(localX, y, localZ) == blockType) continue;
+                    chunk.setBlock(localX, y, localZ, blockType);
+                    changed++;
+                }
+                if (changed > 0) {
+                    if (serverWorld == null) {
+                        dirtyChunks.add(coord);
+                    }
+                    ChunkHolder holder = chunkHolders.get(coord);
+                    if (holder != null) {
+                        holder.markDirty();
+                        holder.invalidatePacketCache();
+                    }
+                    invalidateChunkCache(chunkX, chunkZ);
+
+                    AtomicInteger counter = chunkChangeCounts.computeIfAbsent(coord, k -> new AtomicInteger());
+                    if (counter.addAndGet(changed) >= batchResendThreshold) {
+                        batchResendChunks.add(coord);
+                        counter.set(0);
+                    }
+                }
+            }
+            start = end;
+        }
+        if (DebugLog.blocks() && count > 0) {
+            DebugLog.log(DebugLog.BLOCK, "CM.applyBlockChanges " + count + " change(s)");
+        }
+    }
+
+    /** Block changes per chunk per tick that trigger a full chunk resend. */
+    public int getBatchResendThreshold() {
+        return batchResendThreshold;
+    }
+
+    /**
+     * Resend threshold for an average encoded chunk of
+     * {@code cachedBytes / cachedEntries} bytes: the number of multi-block
+     * records that cost as much on the wire as the chunk itself, clamped
+     * to [{@value #BATCH_RESEND_MIN}, {@value #BATCH_RESEND_MAX}].
+     */
+    static int computeBatchResendThreshold(long cachedBytes, int cachedEntries) {
+        long chunkBytes = cachedEntries > 0 ? cachedBytes / cachedEntries : DEFAULT_CHUNK_PACKET_BYTES;
+        long records = chunkBytes / MULTI_BLOCK_RECORD_BYTES;
+        return (int) Math.max(BATCH_RESEND_MIN, Math.min(BATCH_RESEND_MAX, records));
+    }
+
+    /**
+     * Whether a chunk is waiting for a full resend in the next
+     * {@link #checkBatchResend()}. Players that have the chunk loaded
+     * don't need individual block updates for it.
+     */
+    public boolean isBatchResendPending(int chunkX, int chunkZ) {
+        return !batchResendChunks.isEmpty() && batchResendChunks.contains(new ChunkCoord(chunkX, chunkZ));
+    }
+
     /**
      * Get the owner ID of a block at world coordinates.
      * Returns 0 (unowned) if the chunk isn't loaded or coordinates are invalid.
@@ -1150,8 +1401,8 @@ public class ChunkManager {
     /**
      * Check for chunks that need a full resend due to excessive individual block changes.
      * Called from the tick loop. When a chunk accumulates more than
-     * {@link #BATCH_RESEND_THRESHOLD} individual block changes, resending the full
-     * chunk is more efficient than many individual UpdateBlockPacket messages.
+     * {@link #getBatchResendThreshold()} block changes in a tick, resending the
+     * full chunk is cheaper than the multi-block updates that would describe them.
      */
     public void checkBatchResend() {
         if (batchResendChunks.isEmpty()) return;
@@ -1178,9 +1429,12 @@ public class ChunkManager {
      * allow a fresh window of changes before triggering the next batch resend.
      * Removes entries with zero counts (no changes this tick) to prevent
      * unbounded growth, while keeping active entries in-place to avoid
-     * ConcurrentHashMap segment rebuild overhead.
+     * ConcurrentHashMap segment rebuild overhead. Also re-derives the
+     * resend threshold from the current chunk packet cache.
      */
     public void resetChangeCounters() {
+        batchResendThreshold = computeBatchResendThreshold(
+                chunkPacketCache.getWeightedSize(), chunkPacketCache.size());
         if (!chunkChangeCounts.isEmpty()) {
             Iterator<Map.Entry<ChunkCoord, AtomicInteger>> it =
                     chunkChangeCounts.entrySet().iterator();
@@ -1324,9 +1578,7 @@ public class ChunkManager {
         if (cached != null && cached != FutureChunkPackets.EMPTY) {
             if (cached.isReady()) {
                 cacheHits.incrementAndGet();
-                for (Packet p : cached.getPackets()) {
-                    player.writePacket(p);
-                }
+                writeCachedChunk(player, key, cached);
                 return true;
             }
             // Serialization in flight — not ready yet
@@ -1339,9 +1591,7 @@ public class ChunkManager {
         if (existing != null && existing != FutureChunkPackets.EMPTY) {
             // Another thread beat us — check if it's already ready
             if (existing.isReady()) {
-                for (Packet p : existing.getPackets()) {
-                    player.writePacket(p);
-                }
+                writeCachedChunk(player, key, existing);
                 return true;
             }
             return false; // in-flight from other thread
@@ -1350,26 +1600,35 @@ public class ChunkManager {
         // Submit serialization to the generation pool
         FutureChunkPackets toComplete = (existing == null) ? future : existing;
         try {
-            generationPool.submit(() -> {
+            generationPool.execute(() -> {
                 try {
                     if (toComplete.isInvalidated()) return; // chunk was modified, discard
-                    Packet[] packets = buildChunkPackets(chunk, bucket);
+                    BuiltChunkPackets built = buildChunkPackets(chunk, bucket);
+                    Packet[] packets = built.packets();
                     if (!toComplete.isInvalidated()) {
-                        toComplete.complete(packets);
+                        // Encode frames for the requesting player's wire variant
+                        // before publishing, so its delivery next tick hits them
+                        long variant = ChunkFrameEncoder.variantFor(player, packets);
+                        if (variant != ChunkFrameEncoder.NO_VARIANT && toComplete.claimFrames(variant)) {
+                            encodeFrames(key, toComplete, packets, variant);
+                        }
+                        toComplete.complete(packets, built.payloadBytes());
+                        chunkPacketCache.refreshWeight(key);
                     }
                 } catch (Exception e) {
                     System.err.println("[ChunkManager] Async serialization failed for chunk ("
                             + chunk.getXPos() + ", " + chunk.getZPos() + ") bucket " + bucket
                             + ": " + e.getMessage());
-                    chunkPacketCache.remove(key); // allow retry
+                    chunkPacketCache.remove(key, toComplete); // allow retry
+                    toComplete.invalidate(); // wake anyone waiting on it
                 }
             });
         } catch (java.util.concurrent.RejectedExecutionException e) {
             // Pool is shutting down — fall back to synchronous serialization
             chunkPacketCache.remove(key);
-            Packet[] packets = buildChunkPackets(chunk, bucket);
-            toComplete.complete(packets);
-            for (Packet p : packets) {
+            BuiltChunkPackets built = buildChunkPackets(chunk, bucket);
+            toComplete.complete(built.packets(), built.payloadBytes());
+            for (Packet p : built.packets()) {
                 player.writePacket(p);
             }
             return true;
@@ -1378,22 +1637,68 @@ public class ChunkManager {
     }
 
     /**
-     * Send a chunk to a player, blocking until serialization completes if necessary.
-     * Used by teleport preloading where chunks MUST be sent before the position packet.
+     * Write a ready cache entry to a player. Connections that can take
+     * pre-encoded frames get the entry's shared wire bytes when they exist;
+     * otherwise the packets go through the pipeline as usual and a frame
+     * encode for this player's wire variant is queued, so the next player
+     * with the same variant skips encoding and compression.
+     */
+    private void writeCachedChunk(ConnectedPlayer player, long key, FutureChunkPackets entry) {
+        Packet[] packets = entry.getPackets();
+        long variant = ChunkFrameEncoder.variantFor(player, packets);
+        if (variant != ChunkFrameEncoder.NO_VARIANT) {
+            ByteBuf frames = entry.retainFrames(variant);
+            if (frames != null) {
+                frameHits.incrementAndGet();
+                player.writeFrames(frames);
+                return;
+            }
+            if (entry.claimFrames(variant)) {
+                try {
+                    generationPool.execute(() -> encodeFrames(key, entry, packets, variant));
+                } catch (java.util.concurrent.RejectedExecutionException e) {
+                    entry.putFrames(variant, null); // shutting down
+                }
+            }
+        }
+        for (Packet p : packets) {
+            player.writePacket(p);
+        }
+    }
+
+    /** Encode and store frames claimed via {@link FutureChunkPackets#claimFrames}. */
+    private void encodeFrames(long key, FutureChunkPackets entry, Packet[] packets, long variant) {
+        ByteBuf frames = null;
+        try {
+            frames = ChunkFrameEncoder.encode(packets, variant);
+            frameEncodes.incrementAndGet();
+        } catch (Exception e) {
+            System.err.println("[ChunkManager] Frame encode failed: " + e.getMessage());
+        }
+        entry.putFrames(variant, frames);
+        if (frames != null) chunkPacketCache.refreshWeight(key);
+    }
+
+    /**
+     * Send a chunk to a player as soon as its packets exist. Used by teleport
+     * preloading, where chunks MUST be written before the position packet;
+     * the returned future completes with whether the chunk was written.
      *
      * <p>If the cache already has a ready entry, sends immediately (same as non-blocking).
-     * If serialization is in-flight, spin-waits up to 500ms for it to complete.
-     * If no cache entry exists, serializes synchronously on the calling thread.
+     * If serialization is in-flight, the entry's completion callback sends it; if the
+     * entry is invalidated or hasn't settled within {@link #SETTLE_WAIT_MS}, the chunk
+     * is serialized on the thread that noticed. If no cache entry exists, serializes
+     * synchronously on the calling thread.
      */
-    private boolean sendChunkToPlayerBlocking(ConnectedPlayer player, AlphaChunk chunk) {
+    private CompletableFuture<Boolean> sendChunkToPlayerWhenReady(ConnectedPlayer player, AlphaChunk chunk) {
         // Bedrock/MCPE: always synchronous
         if (player.getBedrockSession() != null) {
             player.getBedrockSession().sendChunkData(chunk);
-            return true;
+            return CompletableFuture.completedFuture(true);
         }
         if (player.getMcpeSession() != null) {
             player.getMcpeSession().sendChunkData(serverWorld, chunk.getXPos(), chunk.getZPos());
-            return true;
+            return CompletableFuture.completedFuture(true);
         }
 
         int bucket = (player.getProtocolVersion() == ProtocolVersion.ALPHA_1_1_0) ? BUCKET_ALPHAVER
@@ -1404,40 +1709,43 @@ public class ChunkManager {
         if (DebugLog.chunks() && DebugLog.forPlayer(player.getUsername())) {
             String cacheStatus = (cached != null && cached != FutureChunkPackets.EMPTY && cached.isReady()) ? "HIT"
                     : (cached != null && cached != FutureChunkPackets.EMPTY) ? "PENDING" : "MISS";
-            DebugLog.log(DebugLog.CHUNK, player.getUsername() + " sendBlocking"
+            DebugLog.log(DebugLog.CHUNK, player.getUsername() + " sendWhenReady"
                     + " chunk=(" + chunk.getXPos() + "," + chunk.getZPos() + ")"
                     + " bucket=" + bucket + " cache=" + cacheStatus);
         }
 
         // Case 1: cache hit, already ready
         if (cached != null && cached != FutureChunkPackets.EMPTY && cached.isReady()) {
-            for (Packet p : cached.getPackets()) {
-                player.writePacket(p);
-            }
-            return true;
+            writeCachedChunk(player, key, cached);
+            return CompletableFuture.completedFuture(true);
         }
 
-        // Case 2: serialization in-flight — wait for it
+        // Case 2: serialization in-flight — send from its completion callback
         if (cached != null && cached != FutureChunkPackets.EMPTY) {
-            long deadline = System.nanoTime() + 500_000_000L; // 500ms
-            while (!cached.isReady() && System.nanoTime() < deadline) {
-                Thread.yield();
-            }
-            if (cached.isReady()) {
-                for (Packet p : cached.getPackets()) {
-                    player.writePacket(p);
-                }
-                return true;
-            }
-            // Timed out — fall through to synchronous serialization
+            CompletableFuture<Void> settled = new CompletableFuture<>();
+            cached.whenSettled(() -> settled.complete(null));
+            return settled.completeOnTimeout(null, SETTLE_WAIT_MS, TimeUnit.MILLISECONDS)
+                    .thenApply(ignored -> {
+                        if (cached.isReady()) {
+                            writeCachedChunk(player, key, cached);
+                            return true;
+                        }
+                        // Invalidated or timed out — serialize here instead
+                        return buildAndSendChunk(player, chunk, bucket, key);
+                    });
         }
 
-        // Case 3: no cache entry or timed out — serialize synchronously
+        // Case 3: no cache entry — serialize synchronously
+        return CompletableFuture.completedFuture(buildAndSendChunk(player, chunk, bucket, key));
+    }
+
+    /** Serialize a chunk, cache the packets and write them to the player. */
+    private boolean buildAndSendChunk(ConnectedPlayer player, AlphaChunk chunk, int bucket, long key) {
         try {
-            Packet[] packets = buildChunkPackets(chunk, bucket);
-            FutureChunkPackets entry = new FutureChunkPackets(packets);
-            chunkPacketCache.put(key, entry);
-            for (Packet p : packets) {
+            BuiltChunkPackets built = buildChunkPackets(chunk, bucket);
+            FutureChunkPackets entry = new FutureChunkPackets(built.packets(), built.payloadBytes());
+            chunkPacketCache.put(key, entry); // a replaced entry releases its frames
+            for (Packet p : built.packets()) {
                 player.writePacket(p);
             }
             return true;
@@ -1460,23 +1768,33 @@ public class ChunkManager {
      * pre-packed index arrays, then each version only remaps ~10-15 palette
      * entries and copies the packed data. This eliminates redundant 32K-block
      * iterations when multiple protocol versions view the same chunk.
+     *
+     * Alongside the packets it records the size of the chunk data they
+     * carry, which the packet cache uses as the entry's weight.
      */
-    private Packet[] buildChunkPackets(AlphaChunk chunk, int bucket) {
+    private BuiltChunkPackets buildChunkPackets(AlphaChunk chunk, int bucket) {
         List<Packet> collectedPackets = new ArrayList<>();
+        long payloadBytes = 0;
 
         int target = bucketToTarget(bucket);
 
         if (target >= 0) {
             // === Canonical path for all paletted versions (V109 through V770) ===
             CanonicalChunkData canonical = chunk.getOrBuildCanonical();
-            buildCanonicalChunkPackets(chunk, bucket, target, canonical, collectedPackets);
+            payloadBytes = buildCanonicalChunkPackets(chunk, bucket, target, canonical, collectedPackets);
         } else if (bucket == BUCKET_LCE) {
             // LCE: ChunkVisibility + BlockRegionUpdate with RLE+zlib compression
-            java.util.Collections.addAll(collectedPackets,
-                    com.github.martinambrus.rdforward.server.lce.LCEChunkSerializer.buildChunkPackets(chunk));
+            Packet[] lcePackets = com.github.martinambrus.rdforward.server.lce.LCEChunkSerializer.buildChunkPackets(chunk);
+            java.util.Collections.addAll(collectedPackets, lcePackets);
+            for (Packet p : lcePackets) {
+                if (p instanceof com.github.martinambrus.rdforward.protocol.packet.lce.LCEBlockRegionUpdatePacket region) {
+                    payloadBytes += region.getCompressedData().length;
+                }
+            }
         } else if (bucket >= BUCKET_V47) { // 1.8+
             // v47: ushort blockStates, raw (uncompressed), VarInt data size
             AlphaChunk.V47ChunkData v47Data = chunk.serializeForV47Protocol();
+            payloadBytes = v47Data.getRawData().length;
             collectedPackets.add(new MapChunkPacketV47(
                 chunk.getXPos(), chunk.getZPos(), true,
                 v47Data.getPrimaryBitMask() & 0xFFFF,
@@ -1486,6 +1804,7 @@ public class ChunkManager {
             // v39+: no PreChunk, use MapChunkPacketV39 (no unused int)
             try {
                 AlphaChunk.V28ChunkData v28Data = chunk.serializeForV28Protocol();
+                payloadBytes = v28Data.getCompressedData().length;
                 collectedPackets.add(new MapChunkPacketV39(
                     chunk.getXPos(), chunk.getZPos(), true,
                     v28Data.getPrimaryBitMask(), (short) 0,
@@ -1500,6 +1819,7 @@ public class ChunkManager {
             collectedPackets.add(new PreChunkPacket(chunk.getXPos(), chunk.getZPos(), true));
             try {
                 AlphaChunk.V28ChunkData v28Data = chunk.serializeForV28Protocol();
+                payloadBytes = v28Data.getCompressedData().length;
                 collectedPackets.add(new MapChunkPacketV28(
                     chunk.getXPos(), chunk.getZPos(), true,
                     v28Data.getPrimaryBitMask(), (short) 0,
@@ -1515,11 +1835,13 @@ public class ChunkManager {
             // KeepAlive no-ops (which would overwhelm the client's packet-per-tick limit).
             byte[] hd = new byte[1536];
             float[] heights = buildCompatHeightData(chunk.getXPos(), chunk.getZPos(), hd);
+            payloadBytes = hd.length;
             collectedPackets.add(new PreChunkPacketAlphaver(
                     chunk.getXPos(), chunk.getZPos(), true,
                     heights[0], heights[1], hd));
             try {
                 byte[] compressed = chunk.serializeForAlphaProtocol();
+                payloadBytes += compressed.length;
                 int blockX = chunk.getXPos() * AlphaChunk.WIDTH;
                 int blockZ = chunk.getZPos() * AlphaChunk.DEPTH;
                 collectedPackets.add(new MapChunkPacket(
@@ -1538,6 +1860,7 @@ public class ChunkManager {
             collectedPackets.add(new PreChunkPacket(chunk.getXPos(), chunk.getZPos(), true));
             try {
                 byte[] compressed = chunk.serializeForAlphaProtocol();
+                payloadBytes += compressed.length;
                 int blockX = chunk.getXPos() * AlphaChunk.WIDTH;
                 int blockZ = chunk.getZPos() * AlphaChunk.DEPTH;
                 collectedPackets.add(new MapChunkPacket(
@@ -1553,15 +1876,20 @@ public class ChunkManager {
             }
         }
 
-        return collectedPackets.toArray(new Packet[0]);
+        return new BuiltChunkPackets(collectedPackets.toArray(new Packet[0]), payloadBytes);
     }
 
+    /** Packets for one chunk and bucket, with the size of the chunk data they carry. */
+    private record BuiltChunkPackets(Packet[] packets, long payloadBytes) {}
+
     /**
      * Build chunk packets using canonical data for paletted versions (V109 through V770).
      * Sections are serialized via CanonicalSectionWriter which only remaps the small
      * palette (~10-15 entries) and copies pre-packed long arrays.
+     *
+     * @return size of the section, light and biome data the packets carry
      */
-    private void buildCanonicalChunkPackets(AlphaChunk chunk, int bucket, int target,
+    private long buildCanonicalChunkPackets(AlphaChunk chunk, int bucket, int target,
                                              CanonicalChunkData canonical,
                                              List<Packet> collectedPackets) {
         int chunkX = chunk.getXPos();
@@ -1629,6 +1957,7 @@ public class ChunkManager {
             }
 
             byte[] sectionData = baos.toByteArray();
+            long payloadBytes = sectionData.length;
 
             // --- Construct version-specific packets ---
             if (bucket >= BUCKET_V759) {
@@ -1638,6 +1967,7 @@ public class ChunkManager {
                 if (bucket >= BUCKET_V770) {
                     // v770: binary heightmaps, 24-section world
                     byte[] adjusted = build24SectionData(sectionData, target);
+                    payloadBytes = adjusted.length;
                     long[] adjustedHeightmap = buildHeightmapForMinY(chunk, 64);
                     int adjSkyMask = skyLightMask << 4;
                     int adjBlockMask = blockLightMask << 4;
@@ -1650,6 +1980,7 @@ public class ChunkManager {
                 } else if (bucket >= BUCKET_V766) {
                     // v766+: 24-section world
                     byte[] adjusted = build24SectionData(sectionData, target);
+                    payloadBytes = adjusted.length;
                     long[] adjustedHeightmap = buildHeightmapForMinY(chunk, 64);
                     int adjSkyMask = skyLightMask << 4;
                     int adjBlockMask = blockLightMask << 4;
@@ -1707,6 +2038,7 @@ public class ChunkManager {
                     v755SkyArr[skyCount + section - 8] = FULL_SKY_LIGHT;
                 }
                 int v755EmptySkyMask = ~v755SkyMask & 0x3FFFF;
+                payloadBytes += 8L * FULL_SKY_LIGHT.length + PLAINS_BIOMES_1024.length * 4L;
                 int v755EmptyBlockMask = ~v755BlockMask & 0x3FFFF;
 
                 collectedPackets.add(new UpdateLightPacketV755(
@@ -1724,6 +2056,7 @@ public class ChunkManager {
             } else if (bucket >= BUCKET_V735) {
                 // 1.16+: separate UpdateLight + MapChunk
                 long[] heightmap = buildHeightmapLongArrayNonSpanning(chunk);
+                payloadBytes += PLAINS_BIOMES_1024.length * 4L;
 
                 if (bucket >= BUCKET_V751) {
                     collectedPackets.add(new UpdateLightPacketV735(
@@ -1752,6 +2085,7 @@ public class ChunkManager {
             } else if (bucket >= BUCKET_V573) {
                 // 1.15: separate UpdateLight + MapChunk, biomes separate int[1024]
                 long[] heightmap = buildHeightmapLongArray(chunk);
+                payloadBytes += PLAINS_BIOMES_1024.length * 4L;
 
                 collectedPackets.add(new UpdateLightPacketV477(
                     chunkX, chunkZ,
@@ -1798,6 +2132,13 @@ public class ChunkManager {
                     sectionData,
                     writeBlockEntityCount));
             }
+
+            if (bucket >= BUCKET_V477) {
+                // 1.14+ send light arrays beside the sections, not inside them
+                for (byte[] light : skyArr) payloadBytes += light.length;
+                for (byte[] light : blockArr) payloadBytes += light.length;
+            }
+            return payloadBytes;
         } finally {
             ChunkSerializationPool.returnBAOS(baos);
         }
@@ -1912,6 +2253,35 @@ public class ChunkManager {
         return loadedChunks.size();
     }
 
+    /** Chunks queued for generation or serialization on the worker pool. */
+    public int getGenerationQueueDepth() {
+        return generationPool.getQueueDepth();
+    }
+
+    /** Chunks whose async load/generation has been requested but not completed. */
+    public int getPendingChunkCount() {
+        return pendingChunks.size();
+    }
+
+    /** Ready chunks waiting for the per-tick delivery budget, summed over all players. */
+    public int getPendingSendCount() {
+        int total = 0;
+        for (Queue<ChunkCoord> queue : pendingSendsPerPlayer.values()) {
+            total += queue.size();
+        }
+        return total;
+    }
+
+    /** Entries in the serialized chunk packet cache (all buckets, Bedrock included). */
+    public int getPacketCacheSize() {
+        return chunkPacketCache.size();
+    }
+
+    /** The shared serialized-chunk cache, for the Bedrock converter and metrics. */
+    public ChunkDataCache getDataCache() {
+        return chunkPacketCache;
+    }
+
     /**
      * Get the view distance (in chunks).
      */
@@ -0,0 +1,120 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.server.profiler.TrafficCounter;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+
+/**
+ * Per-connection chunk pacing for TCP clients, driven by how fast the
+ * connection actually drains rather than by a fixed chunks-per-tick.
+ *
+ * Once per tick {@link #sample} compares the bytes that reached the
+ * socket end of the pipeline ({@link TrafficCounter}) with how much is
+ * still sitting in Netty's outbound buffer. The difference is what the
+ * kernel accepted this tick; an EMA of it is the drain rate. While the
+ * link is idle (nothing pending) the estimate can't be measured, so it
+ * probes upward instead, letting fast links fill their pipe.
+ *
+ * Sending is deficit round robin: every tick the connection earns a
+ * quantum of bytes (the drain rate, capped by the room left before the
+ * channel's high water mark) and spends it on chunks. Chunks are charged
+ * an estimated size when written; the next sample swaps the estimate for
+ * the bytes really written, including everything else sent meanwhile.
+ * A non-writable channel earns nothing, so a slow link stops receiving
+ * chunks instead of piling them up in server memory.
+ *
+ * Tick thread only.
+ */
+final class ChunkSendPacer {
+
+    /** Starting drain estimate: 64 KB/tick, about 1.3 MB/s. */
+    private static final double INITIAL_DRAIN_PER_TICK = 64 * 1024;
+    private static final double MIN_DRAIN_PER_TICK = 4 * 1024;
+    private static final double MAX_DRAIN_PER_TICK = 16 * 1024 * 1024;
+    /** Growth per idle tick while probing for more bandwidth. */
+    private static final double PROBE_FACTOR = 1.25;
+    private static final double EMA_ALPHA = 0.2;
+    /** Size assumed for a chunk until real ones have been measured. */
+    private static final double INITIAL_CHUNK_BYTES = 8 * 1024;
+    private static final long TICK_NANOS = 50_000_000L;
+
+    private double drainPerTick = INITIAL_DRAIN_PER_TICK;
+    private double chunkBytes = INITIAL_CHUNK_BYTES;
+    private long deficit;
+
+    private long lastBytesOut = -1;
+    private long lastPending;
+    private long lastSampleNanos;
+    /** Estimated bytes charged for chunks since the last sample, and their count. */
+    private long charged;
+    private int chunksSinceSample;
+
+    /**
+     * Measure what drained since the last call and earn this tick's
+     * quantum. Returns false if the channel is not writable.
+     */
+    boolean sample(Channel channel, TrafficCounter traffic) {
+        long bytesOut = traffic.getBytesOut();
+        long pending = pendingBytes(channel);
+        long now = System.nanoTime();
+        if (lastBytesOut >= 0) {
+            long written = bytesOut - lastBytesOut;
+            long drained = written - (pending - lastPending);
+            // Not sampled every tick when there was nothing to send
+            long ticks = Math.max(1, (now - lastSampleNanos + TICK_NANOS / 2) / TICK_NANOS);
+            if (pending > 0 || lastPending > 0) {
+                // Backlogged at some point: what drained is the link's capacity
+                drainPerTick += EMA_ALPHA * (Math.max(drained, 0) / (double) ticks - drainPerTick);
+            } else if (ticks == 1 && written >= drainPerTick / 2) {
+                // Idle link kept up with a meaningful load: probe for more
+                drainPerTick *= PROBE_FACTOR;
+            }
+            drainPerTick = Math.max(MIN_DRAIN_PER_TICK, Math.min(MAX_DRAIN_PER_TICK, drainPerTick));
+
+            if (chunksSinceSample > 0) {
+                chunkBytes += EMA_ALPHA * ((double) written / chunksSinceSample - chunkBytes);
+            }
+            // Settle estimated charges against what was really written
+            deficit += charged - written;
+            // A burst of other traffic delays chunks by at most one tick's worth
+            deficit = Math.max(deficit, -(long) drainPerTick);
+        }
+        lastBytesOut = bytesOut;
+        lastPending = pending;
+        lastSampleNanos = now;
+        charged = 0;
+        chunksSinceSample = 0;
+
+        if (!channel.isWritable()) {
+            deficit = Math.min(deficit, 0);
+            return false;
+        }
+        long room = channel.bytesBeforeUnwritable();
+        long quantum = Math.min((long) drainPerTick, room);
+        // Unused credit doesn't accumulate beyond one quantum
+        deficit = Math.min(deficit + quantum, quantum);
+        return true;
+    }
+
+    /** Whether the connection still has credit for another chunk this tick. */
+    boolean hasCredit() {
+        return deficit > 0;
+    }
+
+    /** Charge one chunk at its estimated size. */
+    void charge() {
+        long estimate = (long) chunkBytes;
+        deficit -= estimate;
+        charged += estimate;
+        chunksSinceSample++;
+    }
+
+    long getDrainPerTick() {
+        return (long) drainPerTick;
+    }
+
+    private static long pendingBytes(Channel channel) {
+        ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+        return buffer != null ? buffer.totalPendingWriteBytes() : 0;
+    }
+}
@@ -0,0 +1,207 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import com.github.martinambrus.rdforward.protocol.packet.classic.DespawnPlayerPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.MessagePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.OrientationUpdatePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.PlayerTeleportPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.PositionOrientationUpdatePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.PositionUpdatePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.SpawnPlayerPacket;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Per-viewer player ID table for Classic-format clients.
+ *
+ * Player IDs are server-wide ints, but Classic packets carry a signed
+ * byte (0-127, -1 = self), so a Classic client can see at most
+ * {@link #SIZE} other players. Each Classic viewer gets its own window:
+ * a dynamically allocated mapping from the players it currently tracks
+ * to wire IDs. Packets about tracked players are rewritten to the wire
+ * ID; packets about anyone else are dropped. Every other client family
+ * carries int entity IDs and sees the real IDs.
+ *
+ * A player is tracked from the moment a slot is free for their spawn.
+ * Once the server has more players than slots, {@link #refresh} keeps
+ * the window on the nearest ones: every few ticks it despawns tracked
+ * players that fell out of the nearest {@link #SIZE} and spawns the ones
+ * that came into it. Tracked players are ranked as if somewhat closer
+ * than they are, so two players at the edge don't swap every refresh.
+ *
+ * A player keeps wire ID = server ID when that slot is free, which is
+ * always the case below 128 players; packets then pass through without
+ * being copied.
+ *
+ * Lookups in both directions are primitive array reads. Callers
+ * serialize access on the window (see ConnectedPlayer) so the mapping
+ * order matches the order packets are queued in.
+ */
+final class ClassicEntityWindow {
+
+    /** Wire IDs available to other players: 0-127. */
+    static final int SIZE = 128;
+    private static final int NONE = -1;
+
+    /** Tracked players are ranked as if this fraction of their distance away. */
+    private static final double INCUMBENT_BIAS = 0.8;
+
+    private final int[] wireToPlayer = new int[SIZE];
+    private int[] playerToWire = new int[SIZE];
+    private int tracked;
+
+    ClassicEntityWindow() {
+        Arrays.fill(wireToPlayer, NONE);
+        Arrays.fill(playerToWire, NONE);
+    }
+
+    /**
+     * Rewrite a packet's player ID for this viewer. Returns the packet
+     * itself if the ID is unchanged (or it isn't about a player), a copy
+     * with the wire ID, or null if the player isn't tracked.
+     */
+    Packet map(Packet packet) {
+        if (packet instanceof SpawnPlayerPacket sp) {
+            if (sp.getPlayerId() == SpawnPlayerPacket.SELF_ID) return packet;
+            int wire = wireId(sp.getPlayerId());
+            if (wire == NONE) wire = track(sp.getPlayerId());
+            if (wire == NONE) return null; // window full; refresh() decides who gets in
+            return wire == sp.getPlayerId() ? packet : new SpawnPlayerPacket(wire, sp.getPlayerName(),
+                    sp.getX(), sp.getY(), sp.getZ(), sp.getYaw(), sp.getPitch());
+        }
+        if (packet instanceof DespawnPlayerPacket dp) {
+            int wire = untrack(dp.getPlayerId());
+            if (wire == NONE) return null;
+            return wire == dp.getPlayerId() ? packet : new DespawnPlayerPacket(wire);
+        }
+        if (packet instanceof PlayerTeleportPacket pt) {
+            if (pt.getPlayerId() == -1) return packet;
+            int wire = wireId(pt.getPlayerId());
+            if (wire == NONE) return null;
+            return wire == pt.getPlayerId() ? packet : new PlayerTeleportPacket(wire,
+                    pt.getX(), pt.getY(), pt.getZ(), pt.getYaw(), pt.getPitch());
+        }
+        if (packet instanceof PositionOrientationUpdatePacket pou) {
+            int wire = wireId(pou.getPlayerId());
+            if (wire == NONE) return null;
+            return wire == pou.getPlayerId() ? packet : new PositionOrientationUpdatePacket(wire,
+                    pou.getChangeX(), pou.getChangeY(), pou.getChangeZ(), pou.getYaw(), pou.getPitch());
+        }
+        if (packet instanceof PositionUpdatePacket pu) {
+            int wire = wireId(pu.getPlayerId());
+            if (wire == NONE) return null;
+            return wire == pu.getPlayerId() ? packet : new PositionUpdatePacket(wire,
+                    pu.getChangeX(), pu.getChangeY(), pu.getChangeZ());
+        }
+        if (packet instanceof OrientationUpdatePacket ou) {
+            int wire = wireId(ou.getPlayerId());
+            if (wire == NONE) return null;
+            return wire == ou.getPlayerId() ? packet : new OrientationUpdatePacket(wire, ou.getYaw(), ou.getPitch());
+        }
+        if (packet instanceof MessagePacket mp && mp.getPlayerId() >= 0) {
+            // Sender ID only picks the name colour. A raw ID could name whoever
+            // holds that wire slot, so untracked senders go out as -1 instead.
+            int wire = wireId(mp.getPlayerId());
+            if (wire == mp.getPlayerId()) return packet;
+            return new MessagePacket(wire, mp.getMessage());
+        }
+        return packet;
+    }
+
+    /**
+     * Whether {@link #refresh} could change anything: someone is waiting
+     * for a free slot, or there are more candidates than slots.
+     */
+    boolean needsRefresh(int otherPlayers) {
+        return otherPlayers > SIZE || tracked < otherPlayers;
+    }
+
+    /**
+     * Re-pick the tracked players as the {@link #SIZE} nearest to the
+     * viewer, emitting despawns for those leaving before spawns for
+     * those joining (so freed slots can be reused).
+     *
+     * @param players every player on the server, the viewer included
+     * @param out     receives packets already carrying wire IDs
+     */
+    void refresh(ConnectedPlayer viewer, Collection<ConnectedPlayer> players, Consumer<Packet> out) {
+        long[] ranked = new long[players.size()];
+        ConnectedPlayer[] byId = new ConnectedPlayer[players.size()];
+        int count = 0;
+        int vx = viewer.getX(), vy = viewer.getY(), vz = viewer.getZ();
+        for (ConnectedPlayer p : players) {
+            if (p == viewer || count == ranked.length) continue;
+            long dx = p.getX() - vx, dy = p.getY() - vy, dz = p.getZ() - vz;
+            long distSq = dx * dx + dy * dy + dz * dz;
+            if (wireId(p.getPlayerId()) != NONE) distSq = (long) (distSq * INCUMBENT_BIAS * INCUMBENT_BIAS);
+            // Distance in the high bits, position in byId in the low 20
+            ranked[count] = (distSq << 20) | count;
+            byId[count++] = p;
+        }
+        Arrays.sort(ranked, 0, count);
+        int keep = Math.min(count, SIZE);
+
+        boolean[] wanted = new boolean[SIZE];
+        for (int i = 0; i < keep; i++) {
+            int wire = wireId(byId[(int) (ranked[i] & 0xFFFFF)].getPlayerId());
+            if (wire != NONE) wanted[wire] = true;
+        }
+        for (int wire = 0; wire < SIZE; wire++) {
+            if (wireToPlayer[wire] != NONE && !wanted[wire]) {
+                untrack(wireToPlayer[wire]);
+                out.accept(new DespawnPlayerPacket(wire));
+            }
+        }
+        for (int i = 0; i < keep; i++) {
+            ConnectedPlayer p = byId[(int) (ranked[i] & 0xFFFFF)];
+            if (wireId(p.getPlayerId()) != NONE) continue;
+            int wire = track(p.getPlayerId());
+            if (wire == NONE) break;
+            out.accept(new SpawnPlayerPacket(wire, p.getUsername(),
+                    p.getX(), p.getY(), p.getZ(), p.getYaw(), p.getPitch()));
+        }
+    }
+
+    /** Wire ID of a tracked player, or -1. */
+    int wireId(int playerId) {
+        return playerId >= 0 && playerId < playerToWire.length ? playerToWire[playerId] : NONE;
+    }
+
+    int getTrackedCount() {
+        return tracked;
+    }
+
+    private int track(int playerId) {
+        if (playerId < 0 || tracked == SIZE) return NONE;
+        int wire = playerId < SIZE && wireToPlayer[playerId] == NONE ? playerId : freeSlot();
+        if (playerId >= playerToWire.length) {
+            int oldLength = playerToWire.length;
+            playerToWire = Arrays.copyOf(playerToWire, Math.max(playerId + 1, oldLength * 2));
+            Arrays.fill(playerToWire, oldLength, playerToWire.length, NONE);
+        }
+        wireToPlayer[wire] = playerId;
+        playerToWire[playerId] = wire;
+        tracked++;
+        return wire;
+    }
+
+    private int untrack(int playerId) {
+        int wire = wireId(playerId);
+        if (wire != NONE) {
+            wireToPlayer[wire] = NONE;
+            playerToWire[playerId] = NONE;
+            tracked--;
+        }
+        return wire;
+    }
+
+    private int freeSlot() {
+        // Prefer slots above the low IDs that players < 128 would claim as their own
+        for (int wire = SIZE - 1; wire >= 0; wire--) {
+            if (wireToPlayer[wire] == NONE) return wire;
+        }
+        return NONE;
+    }
+}
@@ -20,8 +20,9 @@ import io.netty.channel.ChannelPromise;
  * Packets that are already Alpha packets (sent directly by
  * AlphaConnectionHandler) pass through unchanged.
  *
- * Entity ID mapping: Classic uses byte playerId (0-127).
- * Alpha uses int entityId. We map playerId -> playerId + 1
+ * Entity ID mapping: Classic packets carry the server-wide int playerId
+ * (only Classic clients need it squeezed into a byte, see
+ * ClassicEntityWindow). Alpha uses int entityId. We map playerId -> playerId + 1
  * (entity 0 is sometimes special in Alpha).
  */
 public class ClassicToAlphaTranslator extends ChannelOutboundHandlerAdapter {
@@ -55,6 +56,17 @@ public class ClassicToAlphaTranslator extends ChannelOutboundHandlerAdapter {
 
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof SectionBlockUpdate) {
+            // One tick's changes in a section -> 0x34 Multi Block Change,
+            // built once per client version and shared by its recipients
+            ProtocolVersion version = clientVersion != null ? clientVersion : ProtocolVersion.ALPHA_1_0_15;
+            Packet translated = ((SectionBlockUpdate) msg).encodedFor(version,
+                    version.isAtLeast(ProtocolVersion.RELEASE_1_2_1)
+                            ? ClassicToAlphaTranslator::toMultiBlockChangeV28
+                            : ClassicToAlphaTranslator::toMultiBlockChange);
+            super.write(ctx, translated, promise);
+            return;
+        }
         if (!(msg instanceof Packet)) {
             super.write(ctx, msg, promise);
             return;
@@ -220,6 +232,26 @@ public class ClassicToAlphaTranslator extends ChannelOutboundHandlerAdapter {
         return null;
     }
 
+    private static Packet toMultiBlockChange(SectionBlockUpdate update) {
+        int count = update.size();
+        short[] positions = new short[count];
+        byte[] types = new byte[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = MultiBlockChangePacket.position(update.getLocalX(i), update.getY(i), update.getLocalZ(i));
+            types[i] = (byte) update.getBlockType(i);
+        }
+        return new MultiBlockChangePacket(update.getSectionX(), update.getSectionZ(), positions, types, new byte[count]);
+    }
+
+    private static Packet toMultiBlockChangeV28(SectionBlockUpdate update) {
+        int[] records = new int[update.size()];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = MultiBlockChangePacketV28.record(update.getLocalX(i), update.getY(i), update.getLocalZ(i),
+                    update.getBlockType(i), 0);
+        }
+        return new MultiBlockChangePacketV28(update.getSectionX(), update.getSectionZ(), records);
+    }
+
     /**
      * Check if a packet is already an Alpha packet (not a Classic one).
      * Alpha packets live in the alpha package and should pass through unchanged.
@@ -55,6 +55,12 @@ public class ClassicToNettyTranslator extends ChannelOutboundHandlerAdapter {
 
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof SectionBlockUpdate) {
+            // Built once per client version and shared by its recipients
+            SectionBlockUpdate update = (SectionBlockUpdate) msg;
+            super.write(ctx, update.encodedFor(clientVersion, this::toMultiBlockChange), promise);
+            return;
+        }
         if (!(msg instanceof Packet)) {
             super.write(ctx, msg, promise);
             return;
@@ -461,6 +467,54 @@ public class ClassicToNettyTranslator extends ChannelOutboundHandlerAdapter {
         return null;
     }
 
+    /**
+     * One section's changes as the client's multi-block packet: Multi Block
+     * Change per chunk column up to 1.16.1, Section Blocks Update from 1.16.2.
+     * Block values follow the same mapping as the single-block path above.
+     */
+    private Packet toMultiBlockChange(SectionBlockUpdate update) {
+        int count = update.size();
+        if (clientVersion.isAtLeast(ProtocolVersion.RELEASE_1_16_2)) {
+            long[] records = new long[count];
+            for (int i = 0; i < count; i++) {
+                records[i] = NettySectionBlocksUpdatePacketV751.record(update.getLocalX(i), update.getLocalY(i),
+                        update.getLocalZ(i), toBlockState(update.getBlockType(i)));
+            }
+            if (clientVersion.isAtLeast(ProtocolVersion.RELEASE_1_20)) {
+                return new NettySectionBlocksUpdatePacketV763(update.getSectionX(), update.getSectionY(),
+                        update.getSectionZ(), records);
+            }
+            return new NettySectionBlocksUpdatePacketV751(update.getSectionX(), update.getSectionY(),
+                    update.getSectionZ(), records);
+        }
+        if (clientVersion.isAtLeast(ProtocolVersion.RELEASE_1_8)) {
+            short[] positions = new short[count];
+            int[] blocks = new int[count];
+            boolean flattened = clientVersion.isAtLeast(ProtocolVersion.RELEASE_1_13);
+            for (int i = 0; i < count; i++) {
+                positions[i] = NettyMultiBlockChangePacketV47.position(update.getLocalX(i), update.getY(i),
+                        update.getLocalZ(i));
+                blocks[i] = flattened ? toBlockState(update.getBlockType(i)) : update.getBlockType(i) << 4;
+            }
+            return new NettyMultiBlockChangePacketV47(update.getSectionX(), update.getSectionZ(), positions, blocks);
+        }
+        int[] records = new int[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = com.github.martinambrus.rdforward.protocol.packet.alpha.MultiBlockChangePacketV28.record(
+                    update.getLocalX(i), update.getY(i), update.getLocalZ(i), update.getBlockType(i), 0);
+        }
+        return new NettyMultiBlockChangePacket(update.getSectionX(), update.getSectionZ(), records);
+    }
+
+    /** 1.13+ global block state for a block type, per the client's version. */
+    private int toBlockState(int blockType) {
+        if (clientVersion.isAtLeast(ProtocolVersion.RELEASE_26_1)) return BlockStateMapper.toV775BlockState(blockType);
+        if (clientVersion.isAtLeast(ProtocolVersion.RELEASE_1_19)) return BlockStateMapper.toV759BlockState(blockType);
+        if (clientVersion.isAtLeast(ProtocolVersion.RELEASE_1_17)) return BlockStateMapper.toV755BlockState(blockType);
+        if (clientVersion.isAtLeast(ProtocolVersion.RELEASE_1_16)) return BlockStateMapper.toV735BlockState(blockType);
+        return BlockStateMapper.toV393BlockState(blockType);
+    }
+
     private boolean isNettyPacket(Packet packet) {
         String packageName = packet.getClass().getPackage().getName();
         return packageName.endsWith(".netty") || packageName.endsWith(".alpha");
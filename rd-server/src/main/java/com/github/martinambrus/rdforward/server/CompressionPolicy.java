@@ -0,0 +1,299 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.protocol.codec.PacketCompressEncoder;
+import com.github.martinambrus.rdforward.server.api.ServerProperties;
+import com.github.martinambrus.rdforward.server.profiler.ServerProfiler;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Picks the zlib level and threshold for one connection.
+ *
+ * A connection whose address matches a {@code compression-overrides} rule
+ * in server.properties gets that rule's fixed setting, or no compression
+ * at all for {@code off}. Rules are comma-separated
+ * {@code <cidr>=<off|level|level:threshold>} entries, first match wins:
+ * <pre>
+ *   compression-overrides=127.0.0.0/8=off,::1=off,10.0.0.0/8=1:1024
+ * </pre>
+ *
+ * Everyone else starts at the default level and announced threshold and
+ * is re-tuned on every keep-alive reply ({@link #adapt}) from the
+ * measured round trip, the drain rate {@link ChunkSendPacer} has seen,
+ * the connection's outbound backlog and the server's CPU headroom:
+ * <ul>
+ *   <li>LAN-like round trip and no backlog: nothing below 2 MiB is
+ *       compressed, since deflate only costs time on such a link</li>
+ *   <li>slow, distant or backlogged link: best compression, trading CPU
+ *       for bytes (only the default level if the server is busy)</li>
+ *   <li>server busy: fastest level and a higher threshold</li>
+ *   <li>otherwise zlib's default level</li>
+ * </ul>
+ * A new choice is applied only once {@link #SETTLE_SAMPLES} keep-alives in
+ * a row agree on it, so a link whose RTT or CPU headroom jitters around a
+ * boundary keeps its level instead of switching chunk-frame cache variants
+ * (and logging) on every reply.
+ * The announced threshold is a floor; see {@link PacketCompressEncoder}.
+ * Since levels vary, shared chunk frames are only reused between
+ * connections currently on the same level ({@link ChunkFrameEncoder}).
+ */
+final class CompressionPolicy {
+
+    /** Vanilla's network-compression-threshold default. */
+    static final int DEFAULT_THRESHOLD = 256;
+    /** Round trip at or below which a link is treated as LAN/loopback. */
+    static final long LAN_RTT_MS = 2;
+    /** Round trip at or above which a link is treated as slow (the RTT tier 1 boundary). */
+    static final long SLOW_RTT_MS = 150;
+    /** Drain rate below which a link is treated as slow, about 2 Mbit/s. */
+    static final long SLOW_LINK_BYTES_PER_SECOND = 256 * 1024;
+    /** Threshold used while the server is short on CPU. */
+    static final int BUSY_THRESHOLD = 1024;
+
+    /** Process CPU load (0-1, all cores) above which the server counts as busy. */
+    private static final double BUSY_CPU_LOAD = 0.75;
+    /** 5-second TPS below which the server counts as busy. */
+    private static final double BUSY_TPS = 19.0;
+    private static final long CPU_SAMPLE_INTERVAL_NANOS = 1_000_000_000L;
+    /** Consecutive keep-alive samples a new choice must win before it is applied. */
+    static final int SETTLE_SAMPLES = 3;
+
+    /** A level and threshold. Level -1 means compression is off. */
+    record Setting(int level, int threshold) {
+        static final Setting OFF = new Setting(-1, -1);
+
+        boolean isOff() {
+            return level < 0;
+        }
+
+        @Override
+        public String toString() {
+            if (isOff()) return "off";
+            return "level=" + level + " threshold="
+                    + (threshold >= PacketCompressEncoder.NO_COMPRESSION_THRESHOLD ? "none" : threshold);
+        }
+    }
+
+    /** One {@code compression-overrides} entry. */
+    record Rule(IpRange range, Setting setting) {}
+
+    private static volatile String parsedOverrides;
+    private static volatile List<Rule> rules = List.of();
+
+    private static volatile long cpuSampleNanos;
+    private static volatile boolean cpuBusy;
+
+    /** Fixed setting from an override rule, or null when adaptive. */
+    private final Setting pinned;
+    private final int announcedThreshold;
+    private Setting current;
+    /** Choice that differs from {@link #current}, and how many samples in a row made it. */
+    private Setting candidate;
+    private int candidateSamples;
+
+    private CompressionPolicy(Setting pinned, int announcedThreshold) {
+        this.pinned = pinned;
+        this.announcedThreshold = announcedThreshold;
+        this.current = pinned != null ? pinned
+                : new Setting(PacketCompressEncoder.DEFAULT_LEVEL, announcedThreshold);
+    }
+
+    /**
+     * Policy for a new connection. {@code defaultThreshold} is used unless
+     * an override rule sets one; a negative value turns compression off
+     * for connections no rule matches.
+     */
+    static CompressionPolicy forAddress(SocketAddress remote, int defaultThreshold) {
+        Rule rule = findRule(remote);
+        if (rule != null) {
+            Setting s = rule.setting();
+            int threshold = s.isOff() || s.threshold() >= 0 ? s.threshold()
+                    : defaultThreshold >= 0 ? defaultThreshold : DEFAULT_THRESHOLD;
+            return new CompressionPolicy(new Setting(s.level(), threshold), threshold);
+        }
+        if (defaultThreshold < 0) return new CompressionPolicy(Setting.OFF, -1);
+        return new CompressionPolicy(null, defaultThreshold);
+    }
+
+    /** Whether Set Compression should be sent at all. */
+    boolean isEnabled() {
+        return !current.isOff();
+    }
+
+    /** Threshold to announce in Set Compression. */
+    int getAnnouncedThreshold() {
+        return announcedThreshold;
+    }
+
+    /** Level to create the connection's {@link PacketCompressEncoder} with. */
+    int getInitialLevel() {
+        return current.level();
+    }
+
+    /** The setting the encoder is on. */
+    Setting getCurrent() {
+        return current;
+    }
+
+    /**
+     * Re-tune the encoder from the current link and server state. Called on
+     * the connection's event loop after each keep-alive RTT update; a no-op
+     * for overridden connections or with {@code compression-adaptive=false}.
+     */
+    void adapt(ConnectedPlayer player, PacketCompressEncoder encoder) {
+        if (pinned != null || encoder == null || !ServerProperties.isCompressionAdaptive()) return;
+        Channel channel = player.getChannel();
+        ChunkSendPacer pacer = player.getChunkPacer();
+        long bytesPerSecond = pacer != null ? pacer.getDrainPerTick() * 20 : Long.MAX_VALUE;
+        Setting next = choose(player.getRttMillis(), bytesPerSecond, isCongested(channel),
+                isCpuBusy(), announcedThreshold);
+        if (!settle(next)) return;
+        encoder.setLevel(next.level());
+        encoder.setThreshold(next.threshold());
+        System.out.println("[Compression] " + player.getUsername() + " -> " + next
+                + " (rtt=" + player.getRttMillis() + "ms, cpuBusy=" + cpuBusy + ")");
+    }
+
+    /**
+     * Feed one sample's choice. Returns true when it has now won
+     * {@link #SETTLE_SAMPLES} samples in a row and became {@link #current};
+     * a sample agreeing with the current setting, or proposing a different
+     * change, starts the count over.
+     */
+    boolean settle(Setting next) {
+        if (next.equals(current)) {
+            candidate = null;
+            candidateSamples = 0;
+            return false;
+        }
+        if (next.equals(candidate)) {
+            candidateSamples++;
+        } else {
+            candidate = next;
+            candidateSamples = 1;
+        }
+        if (candidateSamples < SETTLE_SAMPLES) return false;
+        current = next;
+        candidate = null;
+        candidateSamples = 0;
+        return true;
+    }
+
+    /** The adaptive decision, kept free of I/O so it can be tested directly. */
+    static Setting choose(long rttMillis, long bytesPerSecond, boolean congested, boolean busy,
+                          int announcedThreshold) {
+        if (rttMillis <= LAN_RTT_MS && !congested) {
+            return new Setting(Deflater.BEST_SPEED, PacketCompressEncoder.NO_COMPRESSION_THRESHOLD);
+        }
+        boolean slow = congested || rttMillis >= SLOW_RTT_MS || bytesPerSecond < SLOW_LINK_BYTES_PER_SECOND;
+        if (busy) {
+            return slow ? new Setting(PacketCompressEncoder.DEFAULT_LEVEL, announcedThreshold)
+                    : new Setting(Deflater.BEST_SPEED, Math.max(announcedThreshold, BUSY_THRESHOLD));
+        }
+        if (slow) return new Setting(Deflater.BEST_COMPRESSION, announcedThreshold);
+        return new Setting(PacketCompressEncoder.DEFAULT_LEVEL, announcedThreshold);
+    }
+
+    /**
+     * GZip level for connections that get one pre-compressed blob per
+     * player (Classic level transfer). Honours override rules ({@code off}
+     * stores without compressing); otherwise fastest when the server is busy.
+     */
+    static int transferLevel(SocketAddress remote) {
+        Rule rule = findRule(remote);
+        if (rule != null) {
+            return rule.setting().isOff() ? Deflater.NO_COMPRESSION : rule.setting().level();
+        }
+        return isCpuBusy() ? Deflater.BEST_SPEED : Deflater.DEFAULT_COMPRESSION;
+    }
+
+    private static Rule findRule(SocketAddress remote) {
+        String raw = ServerProperties.getCompressionOverrides();
+        if (!raw.equals(parsedOverrides)) {
+            rules = parseRules(raw);
+            parsedOverrides = raw;
+        }
+        for (Rule rule : rules) {
+            if (rule.range().contains(remote)) return rule;
+        }
+        return null;
+    }
+
+    /** Parse {@code compression-overrides}; malformed entries are logged and skipped. */
+    static List<Rule> parseRules(String raw) {
+        List<Rule> parsed = new ArrayList<>();
+        for (String entry : raw.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) continue;
+            int eq = entry.indexOf('=');
+            try {
+                if (eq < 0) throw new IllegalArgumentException("missing '='");
+                IpRange range = IpRange.parse(entry.substring(0, eq));
+                parsed.add(new Rule(range, parseSetting(entry.substring(eq + 1).trim())));
+            } catch (IllegalArgumentException e) {
+                System.err.println("[WARN] Ignoring compression-overrides entry '" + entry + "': "
+                        + e.getMessage() + ". Expected <cidr>=<off|level|level:threshold>");
+            }
+        }
+        return List.copyOf(parsed);
+    }
+
+    private static Setting parseSetting(String text) {
+        if (text.equalsIgnoreCase("off")) return Setting.OFF;
+        int colon = text.indexOf(':');
+        int level = parseInt(colon >= 0 ? text.substring(0, colon) : text, 0, 9, "level");
+        int threshold = colon >= 0
+                ? parseInt(text.substring(colon + 1), 0, PacketCompressEncoder.NO_COMPRESSION_THRESHOLD, "threshold")
+                : -1;
+        return new Setting(level, threshold);
+    }
+
+    private static int parseInt(String text, int min, int max, String what) {
+        int value;
+        try {
+            value = Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad " + what + " '" + text + "'");
+        }
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(what + " must be " + min + "-" + max);
+        }
+        return value;
+    }
+
+    /** Backlog beyond half the high water mark, or the channel already unwritable. */
+    private static boolean isCongested(Channel channel) {
+        if (channel == null) return false;
+        if (!channel.isWritable()) return true;
+        ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+        long pending = buffer != null ? buffer.totalPendingWriteBytes() : 0;
+        return pending > channel.config().getWriteBufferHighWaterMark() / 2;
+    }
+
+    /**
+     * Whether the server is short on CPU: high process CPU load or ticks
+     * falling behind. Sampled at most once a second, since the OS load
+     * figure is measured between calls.
+     */
+    static boolean isCpuBusy() {
+        long now = System.nanoTime();
+        if (now - cpuSampleNanos >= CPU_SAMPLE_INTERVAL_NANOS) {
+            cpuSampleNanos = now;
+            double load = -1;
+            OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+            if (os instanceof com.sun.management.OperatingSystemMXBean sun) {
+                load = sun.getProcessCpuLoad();
+            }
+            double tps = ServerProfiler.getTps(100);
+            cpuBusy = load >= BUSY_CPU_LOAD || (tps > 0 && tps < BUSY_TPS);
+        }
+        return cpuBusy;
+    }
+}
@@ -1,27 +1,52 @@
 package com.github.martinambrus.rdforward.server;
 
 import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
+import com.github.martinambrus.rdforward.protocol.codec.PacketCompressEncoder;
+import com.github.martinambrus.rdforward.protocol.codec.PreEncodedFrame;
 import com.github.martinambrus.rdforward.protocol.packet.Packet;
 import com.github.martinambrus.rdforward.server.bedrock.BedrockSessionWrapper;
 import com.github.martinambrus.rdforward.server.mcpe.MCPESessionWrapper;
+import com.github.martinambrus.rdforward.server.profiler.TrafficCounter;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.internal.PlatformDependent;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Represents a connected player on the server.
  *
  * Tracks the player's network channel, assigned ID, name, position,
- * orientation, and protocol version. Player IDs follow the MC Classic
- * convention: signed bytes (-128 to 127), with -1 reserved for "self"
+ * orientation, and protocol version. Player IDs are server-wide ints
+ * (0 and up), with -1 reserved for "self"
  * in SpawnPlayer packets.
  */
 public class ConnectedPlayer {
 
-    private final byte playerId;
+    private final int playerId;
     private final String username;
     private final String uuid;
     private final Channel channel;
     private final ProtocolVersion protocolVersion;
 
+    // Outbound traffic counter (pipeline handler for TCP, detached for Bedrock/MCPE)
+    private final TrafficCounter traffic;
+
+    // Writes from any thread, delivered in order on the connection's event loop
+    // by one drain task per flush (see scheduleDrain)
+    private final Queue<Object> outbound = PlatformDependent.newMpscQueue();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Runnable drainTask = this::drainOutbound;
+    // Whether PlayerManager lists this player, so flushAll() will reach it
+    private volatile boolean registered;
+
+    // Wire IDs of the players this client tracks (Classic-format clients only)
+    private final ClassicEntityWindow classicWindow;
+
     // Position in fixed-point units (multiply by 32 for Classic protocol)
     private volatile short x;
     private volatile short y;
@@ -60,12 +85,22 @@ public class ConnectedPlayer {
     private volatile byte lastBroadcastPitch;
     private volatile boolean hasBroadcastPosition = false;
 
-    // RTT-based entity update throttling
+    // RTT-based entity update throttling (connections without a PrioritizingOutboundHandler)
     private volatile int entityUpdateThrottleCounter = 0;
+    // Cached pipeline lookup: 0 = not checked yet, 1 = coalesces, -1 = doesn't
+    private volatile int coalescesEntityUpdates = 0;
 
     // Adaptive chunk send rate (EMA, alpha=0.1). Starts at 4 chunks/tick.
+    // Only used for Bedrock/MCPE; TCP connections are paced by chunkPacer.
     private volatile double chunkSendRate = 4.0;
 
+    // Writability/drain-rate driven chunk pacing for TCP connections (tick thread)
+    private final ChunkSendPacer chunkPacer = new ChunkSendPacer();
+
+    // Gameplay packets waiting for the tick thread (null until login completes,
+    // and for connections that apply packets elsewhere, like Bedrock/MCPE)
+    private volatile InboundPacketQueue inboundQueue;
+
     // Alphaver client flag (based on Alpha 1.0.16 with modified packet formats)
     private volatile boolean alphaverClient = false;
 
@@ -77,18 +112,21 @@ public class ConnectedPlayer {
     // position + chunk data. Prevents false "stuck at unloaded chunk" kicks.
     private volatile long teleportGraceUntil = 0;
 
-    public ConnectedPlayer(byte playerId, String username, String uuid, Channel channel, ProtocolVersion protocolVersion) {
+    public ConnectedPlayer(int playerId, String username, String uuid, Channel channel, ProtocolVersion protocolVersion) {
         this.playerId = playerId;
         this.username = username;
         this.uuid = uuid;
         this.channel = channel;
         this.protocolVersion = protocolVersion;
+        this.traffic = TrafficCounter.of(channel);
+        this.classicWindow = (protocolVersion != null && protocolVersion.isClassicFormat())
+                ? new ClassicEntityWindow() : null;
     }
 
+    /** Write a packet and deliver it (with anything queued before it) right away. */
     public void sendPacket(Packet packet) {
-        if (sendViaNonTcp(packet)) return;
-        if (channel != null && channel.isActive()) {
-            channel.writeAndFlush(packet);
+        if (enqueue(packet)) {
+            scheduleDrain();
         }
     }
 
@@ -96,37 +134,185 @@ public class ConnectedPlayer {
      * Write a packet without flushing. Use with {@link #flushPackets()}
      * to batch multiple writes, allowing the {@link PrioritizingOutboundHandler}
      * to reorder them by priority before flushing to the network.
+     *
+     * Off the connection's event loop (e.g. on the tick thread) the packet
+     * goes into a lock-free queue that the event loop drains later, so
+     * writers never hand Netty a task per write. On the event loop it is
+     * written straight away, after anything still queued.
      */
     public void writePacket(Packet packet) {
-        if (sendViaNonTcp(packet)) return;
+        enqueue(packet);
+    }
+
+    /**
+     * Write one section's block changes without flushing. The connection's
+     * translator turns them into its multi-block packet; PlayerManager only
+     * sends these to clients whose translator has one.
+     */
+    void writeSectionUpdate(SectionBlockUpdate update) {
+        if (bedrockSession != null) {
+            traffic.recordPacket();
+        } else if (mcpeSession != null || channel == null || !channel.isActive()) {
+            return;
+        }
+        outbound.offer(update);
+        EventExecutor loop = outboundLoop();
+        if (loop != null && loop.inEventLoop()) {
+            drainOutbound(false);
+        }
+    }
+
+    /**
+     * Write already-encoded wire frames (see {@link ChunkFrameEncoder})
+     * without flushing, taking ownership of the buffer. Only valid for
+     * connections that reported a frame variant.
+     */
+    public void writeFrames(ByteBuf frames) {
         if (channel != null && channel.isActive()) {
-            channel.write(packet);
+            outbound.offer(new PreEncodedFrame(frames));
+            if (channel.eventLoop().inEventLoop()) {
+                drainOutbound(false);
+            }
+        } else {
+            frames.release();
         }
     }
 
-    /** Route packet to Bedrock/MCPE transport if applicable. Returns true if handled. */
-    private boolean sendViaNonTcp(Packet packet) {
-        if (bedrockSession != null) {
-            bedrockSession.translateAndSend(packet);
-            return true;
+    private boolean enqueue(Packet packet) {
+        if (bedrockSession != null || mcpeSession != null) {
+            traffic.recordPacket();
+        } else if (channel == null || !channel.isActive()) {
+            return false;
         }
-        if (mcpeSession != null) {
-            mcpeSession.translateAndSend(packet);
-            return true;
+        ClassicEntityWindow window = classicWindow;
+        if (window == null) {
+            outbound.offer(packet);
+        } else {
+            // Map and queue under one lock so the window changes in queue order
+            synchronized (window) {
+                packet = window.map(packet);
+                if (packet == null) return false;
+                outbound.offer(packet);
+            }
+        }
+        EventExecutor loop = outboundLoop();
+        if (loop != null && loop.inEventLoop()) {
+            drainOutbound(false);
         }
-        return false;
+        return true;
     }
 
     /**
      * Flush all buffered writes. Called after a batch of {@link #writePacket}
      * calls to trigger the {@link PrioritizingOutboundHandler} to sort and send.
+     *
+     * On the tick thread this is deferred to {@link PlayerManager#flushAll()}
+     * at the end of the tick, so each player costs one event-loop task per
+     * tick however many broadcasts the tick made. A player flushAll() won't
+     * reach (not or no longer registered) is flushed right away instead.
      */
     public void flushPackets() {
-        if (channel != null && channel.isActive()) {
+        if (!registered || !ServerTickLoop.isTickThread()) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Called by PlayerManager as the player enters or leaves its player
+     * list. Leaving flushes anything a tick-thread write left for
+     * flushAll(), which will no longer see this player.
+     */
+    void setRegistered(boolean registered) {
+        this.registered = registered;
+        if (!registered) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Re-pick which players this Classic client tracks (nearest first) and
+     * queue the resulting despawns/spawns. No-op for other clients.
+     */
+    void refreshEntityWindow(Collection<ConnectedPlayer> players) {
+        ClassicEntityWindow window = classicWindow;
+        if (window == null || channel == null || !channel.isActive()) return;
+        synchronized (window) {
+            if (window.needsRefresh(players.size() - 1)) {
+                window.refresh(this, players, outbound::offer);
+            }
+        }
+    }
+
+    /** Deliver everything queued so far. Called once per player by {@link PlayerManager#flushAll()}. */
+    void flushQueued() {
+        scheduleDrain();
+    }
+
+    /**
+     * Get the queue drained and flushed on the connection's event loop:
+     * inline when already on it, otherwise by a single task however many
+     * writers and flushes race to request one.
+     */
+    private void scheduleDrain() {
+        EventExecutor loop = outboundLoop();
+        if (loop == null) {
+            discardOutbound();
+        } else if (loop.inEventLoop()) {
+            drainOutbound(true);
+        } else if (!outbound.isEmpty() && drainScheduled.compareAndSet(false, true)) {
+            loop.execute(drainTask);
+        }
+    }
+
+    /** Event loop that writes this player's packets, or null if the transport is gone. */
+    private EventExecutor outboundLoop() {
+        BedrockSessionWrapper bedrock = bedrockSession;
+        if (bedrock != null) return bedrock.eventLoop();
+        MCPESessionWrapper mcpe = mcpeSession;
+        if (mcpe != null) return mcpe.eventLoop();
+        return channel != null ? channel.eventLoop() : null;
+    }
+
+    /** Event loop only. */
+    private void drainOutbound(boolean flush) {
+        // Cleared first: a write racing with this drain schedules another
+        drainScheduled.set(false);
+        BedrockSessionWrapper bedrock = bedrockSession;
+        MCPESessionWrapper mcpe = mcpeSession;
+        if (bedrock == null && mcpe == null && (channel == null || !channel.isActive())) {
+            discardOutbound();
+            return;
+        }
+        Object msg;
+        while ((msg = outbound.poll()) != null) {
+            if (bedrock != null) {
+                if (msg instanceof SectionBlockUpdate) {
+                    bedrock.sendSectionUpdate((SectionBlockUpdate) msg);
+                } else {
+                    bedrock.translateAndSend((Packet) msg);
+                }
+            } else if (mcpe != null) {
+                mcpe.translateAndSend((Packet) msg);
+            } else {
+                channel.write(msg);
+            }
+        }
+        if (flush && bedrock == null && mcpe == null) {
             channel.flush();
         }
     }
 
+    private void drainOutbound() {
+        drainOutbound(true);
+    }
+
+    private void discardOutbound() {
+        Object msg;
+        while ((msg = outbound.poll()) != null) {
+            ReferenceCountUtil.release(msg);
+        }
+    }
+
     public void updatePosition(short x, short y, short z, byte yaw, byte pitch) {
         this.x = x;
         this.y = y;
@@ -196,10 +382,16 @@ public class ConnectedPlayer {
     public byte[] getMcpeSkinData() { return mcpeSkinData; }
     public int getMcpeSkinSlim() { return mcpeSkinSlim; }
 
-    public byte getPlayerId() { return playerId; }
+    public int getPlayerId() { return playerId; }
     public String getUsername() { return username; }
     public String getUuid() { return uuid; }
     public Channel getChannel() { return channel; }
+    public TrafficCounter getTraffic() { return traffic; }
+
+    /** The connection's compression handler, or null if it doesn't compress (pre-1.8, RakNet, overrides). */
+    public PacketCompressEncoder getCompression() {
+        return channel != null ? channel.pipeline().get(PacketCompressEncoder.class) : null;
+    }
     public ProtocolVersion getProtocolVersion() { return protocolVersion; }
     public boolean isAlphaverClient() { return alphaverClient; }
     public void setAlphaverClient(boolean alphaverClient) { this.alphaverClient = alphaverClient; }
@@ -291,6 +483,24 @@ public class ConnectedPlayer {
         return Math.min(8, ema);
     }
 
+    /**
+     * Chunk pacer for this connection, or null for Bedrock/MCPE players,
+     * whose RakNet sessions don't expose a Netty outbound buffer.
+     */
+    ChunkSendPacer getChunkPacer() {
+        if (channel == null || bedrockSession != null || mcpeSession != null) return null;
+        return chunkPacer;
+    }
+
+    /** Queue of gameplay packets the tick loop applies for this player, or null. */
+    public InboundPacketQueue getInboundQueue() {
+        return inboundQueue;
+    }
+
+    public void setInboundQueue(InboundPacketQueue inboundQueue) {
+        this.inboundQueue = inboundQueue;
+    }
+
     /**
      * Update the chunk send rate EMA based on how many chunks were actually
      * sent this tick. Alpha=0.1 for smooth adaptation.
@@ -333,4 +543,19 @@ public class ConnectedPlayer {
     // --- RTT-based throttling ---
 
     public int incrementAndGetThrottleCounter() { return ++entityUpdateThrottleCounter; }
+
+    /**
+     * Whether superseded entity updates for this player are coalesced by a
+     * {@link PrioritizingOutboundHandler}, which makes RTT-based throttling
+     * unnecessary. False for Classic, Bedrock and MCPE players.
+     */
+    public boolean coalescesEntityUpdates() {
+        if (channel == null || bedrockSession != null || mcpeSession != null) return false;
+        int cached = coalescesEntityUpdates;
+        if (cached == 0) {
+            cached = channel.pipeline().get(PrioritizingOutboundHandler.class) != null ? 1 : -1;
+            coalescesEntityUpdates = cached;
+        }
+        return cached > 0;
+    }
 }
@@ -1,6 +1,13 @@
 package com.github.martinambrus.rdforward.server;
 
 import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import com.github.martinambrus.rdforward.server.cache.ChunkDataCache;
+import io.netty.buffer.ByteBuf;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Wrapper for chunk packets that may be computed asynchronously.
@@ -15,8 +22,27 @@ import com.github.martinambrus.rdforward.protocol.packet.Packet;
  * Thread safety: {@code ready} is volatile, ensuring the happens-before
  * relationship between the serialization thread writing {@code packets}
  * and the tick thread reading them after observing {@code ready == true}.
+ * Code that must not continue without the packets registers a callback
+ * with {@link #whenSettled} instead of polling.
+ *
+ * Alongside the packets, an entry can hold their final wire bytes for each
+ * wire variant (packet IDs + compression threshold, see
+ * {@link ChunkFrameEncoder}), so cache hits skip encoding and deflate
+ * entirely. Frame buffers are reference counted: the entry owns one
+ * reference and hands out retained duplicates, and {@link #invalidate()}
+ * releases them. Frame access is synchronized so a release can never race
+ * a retain.
+ *
+ * Entries live in the shared {@link ChunkDataCache}, weighed by the
+ * chunk data size their builder recorded plus their frames. The weight grows
+ * when serialization completes or frames are added, so the owner calls
+ * {@link ChunkDataCache#refreshWeight} after either; eviction calls
+ * {@link #onRemoval()}, which invalidates the entry.
  */
-public final class FutureChunkPackets {
+public final class FutureChunkPackets implements ChunkDataCache.Weighted {
+
+    /** Weight of a pending entry: object headers and the cache node. */
+    private static final long BASE_WEIGHT = 128;
 
     /** Sentinel instance for invalidated cache entries. */
     public static final FutureChunkPackets EMPTY = new FutureChunkPackets();
@@ -24,15 +50,27 @@ public final class FutureChunkPackets {
     private volatile boolean ready;
     private Packet[] packets;
     private volatile boolean invalidated;
+    /** Size of the chunk data in {@link #packets}, as recorded by their builder. */
+    private volatile long packetBytes;
+
+    /** Wire variant -> encoded frames; a null value marks an encode in progress. */
+    private Map<Long, ByteBuf> frames;
+
+    /** Callbacks waiting for completion or invalidation; guarded by this. */
+    private List<Runnable> settleCallbacks;
 
     /** Create an empty future (not yet ready). */
     public FutureChunkPackets() {
         this.ready = false;
     }
 
-    /** Create an already-ready future with the given packets. */
-    public FutureChunkPackets(Packet[] packets) {
+    /**
+     * Create an already-ready future with the given packets and the size
+     * of the chunk data they carry.
+     */
+    public FutureChunkPackets(Packet[] packets, long packetBytes) {
         this.packets = packets;
+        this.packetBytes = packetBytes;
         this.ready = true;
     }
 
@@ -46,20 +84,118 @@ public final class FutureChunkPackets {
     public Packet[] getPackets() { return packets; }
 
     /**
-     * Complete this future with the serialized packets.
-     * Sets packets first, then the volatile ready flag to ensure
-     * visibility ordering.
+     * Complete this future with the serialized packets and the size of the
+     * chunk data they carry. Sets packets first, then the volatile ready
+     * flag to ensure visibility ordering.
      */
-    public void complete(Packet[] packets) {
+    public void complete(Packet[] packets, long packetBytes) {
         this.packets = packets;
+        this.packetBytes = packetBytes;
         this.ready = true; // volatile write — publishes packets array
+        runSettleCallbacks();
+    }
+
+    /**
+     * Run {@code callback} once this entry is ready or invalidated, right
+     * away if it already is. Otherwise it runs on the thread that completes
+     * or invalidates the entry, so it must be short and non-blocking.
+     */
+    public void whenSettled(Runnable callback) {
+        synchronized (this) {
+            if (!ready && !invalidated) {
+                if (settleCallbacks == null) settleCallbacks = new ArrayList<>(2);
+                settleCallbacks.add(callback);
+                return;
+            }
+        }
+        callback.run();
+    }
+
+    private void runSettleCallbacks() {
+        List<Runnable> callbacks;
+        synchronized (this) {
+            callbacks = settleCallbacks;
+            settleCallbacks = null;
+        }
+        if (callbacks != null) {
+            for (Runnable callback : callbacks) {
+                callback.run();
+            }
+        }
+    }
+
+    /**
+     * Retained duplicate of the frames for the given wire variant, or null
+     * if they have not been encoded (or this entry was invalidated).
+     * The caller owns the returned reference.
+     */
+    public synchronized ByteBuf retainFrames(long variant) {
+        if (invalidated || frames == null) return null;
+        ByteBuf buf = frames.get(variant);
+        return buf != null ? buf.retainedDuplicate() : null;
+    }
+
+    /**
+     * Claim the right to encode frames for a variant. Returns false if they
+     * already exist, another thread is encoding them, or the entry is
+     * invalidated.
+     */
+    public synchronized boolean claimFrames(long variant) {
+        if (invalidated) return false;
+        if (frames == null) frames = new HashMap<>(4);
+        if (frames.containsKey(variant)) return false;
+        frames.put(variant, null);
+        return true;
+    }
+
+    /**
+     * Store frames encoded after {@link #claimFrames}, taking ownership of
+     * the buffer. Pass null to give up the claim (encode failed). Released
+     * immediately if the entry was invalidated meanwhile.
+     */
+    public synchronized void putFrames(long variant, ByteBuf buf) {
+        if (invalidated || frames == null) {
+            if (buf != null) buf.release();
+            return;
+        }
+        if (buf == null) {
+            frames.remove(variant);
+        } else {
+            frames.put(variant, buf);
+        }
+    }
+
+    @Override
+    public synchronized long weightBytes() {
+        long weight = BASE_WEIGHT + packetBytes;
+        if (frames != null) {
+            for (ByteBuf buf : frames.values()) {
+                if (buf != null) weight += buf.capacity();
+            }
+        }
+        return weight;
+    }
+
+    @Override
+    public void onRemoval() {
+        invalidate();
     }
 
     /**
      * Mark this entry as invalidated. In-flight serialization will check
-     * this flag and discard results.
+     * this flag and discard results. Releases any cached frames; writes
+     * already holding a retained duplicate are unaffected.
      */
     public void invalidate() {
-        this.invalidated = true;
+        synchronized (this) {
+            this.invalidated = true;
+            if (frames != null) {
+                for (ByteBuf buf : frames.values()) {
+                    if (buf != null) buf.release();
+                }
+                frames = null;
+            }
+        }
+        runSettleCallbacks();
     }
 }
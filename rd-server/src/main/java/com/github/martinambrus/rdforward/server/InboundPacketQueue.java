@@ -0,0 +1,489 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.BlockPlacementData;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.ChatPacket;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.CloseWindowPacket;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.CreativeSlotPacket;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.CreativeSlotPacketV22;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.CreativeSlotPacketV39;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.PlayerDiggingPacket;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.PlayerInventoryPacket;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.PlayerInventoryPacketAlphaver;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.PlayerLookPacket;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.PlayerOnGroundPacket;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.PlayerPositionAndLookC2SPacket;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.PlayerPositionPacket;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.WindowClickPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.DisconnectPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.MessagePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.PlayerTeleportPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.SetBlockClientPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.SetBlockServerPacket;
+import com.github.martinambrus.rdforward.protocol.packet.netty.ChatCommandC2SPacketV759;
+import com.github.martinambrus.rdforward.protocol.packet.netty.NettyChatC2SPacket;
+import com.github.martinambrus.rdforward.protocol.packet.netty.NettyChatC2SPacketV764;
+import com.github.martinambrus.rdforward.protocol.packet.netty.NettyChatCommandC2SPacketV764;
+import com.github.martinambrus.rdforward.protocol.packet.netty.NettyCreativeSlotPacket;
+import com.github.martinambrus.rdforward.protocol.packet.netty.NettyCreativeSlotPacketV47;
+import com.github.martinambrus.rdforward.protocol.packet.netty.NettyWindowClickPacket;
+import com.github.martinambrus.rdforward.protocol.packet.netty.NettyWindowClickPacketV47;
+import com.github.martinambrus.rdforward.protocol.packet.netty.NettyWindowClickPacketV755;
+import com.github.martinambrus.rdforward.protocol.packet.netty.PlayerDiggingPacketV47;
+import com.github.martinambrus.rdforward.protocol.packet.netty.PlayerDiggingPacketV477;
+import com.github.martinambrus.rdforward.protocol.packet.netty.PlayerPositionAndLookC2SPacketV47;
+import com.github.martinambrus.rdforward.protocol.packet.netty.PlayerPositionPacketV47;
+import io.netty.channel.Channel;
+import io.netty.util.internal.PlatformDependent;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Gameplay packets a connection has decoded but the tick thread hasn't
+ * applied yet.
+ *
+ * The event loop only decodes, rate-limits and queues ({@link #submit});
+ * the tick loop applies up to {@link #getPacketsPerTick()} packets per
+ * connection per tick ({@link #drain}), so a client flooding movement or
+ * dig packets costs its own connection a backlog rather than stalling
+ * every channel on its event loop, and world writes no longer contend
+ * with the tick thread for {@link ServerWorld}'s locks.
+ *
+ * Backpressure: once {@link #getQueueLimit()} packets are waiting, reads
+ * are paused ({@code autoRead=false}) so TCP flow control pushes back on
+ * the client; they resume when the queue has drained to half the limit.
+ * A connection that somehow keeps queueing past four times the limit is
+ * kicked.
+ *
+ * Rate limits: each {@link Category} is a token bucket refilled at its
+ * packets per second and holding up to {@link #BURST_SECONDS} of them, so
+ * the backlog a client delivers at once after a short network stall still
+ * fits. While reads are paused the client isn't charged for the wait: the
+ * first refill after a resume credits the whole pause, uncapped. Packets
+ * with no token are dropped; a dropped dig or placement sends the real
+ * block state back so the client doesn't keep a change the server never
+ * applied. A client refused more than {@link #KICK_FACTOR} - 1 times the
+ * limit within one second is kicked.
+ *
+ * Teardown: {@link #close(Runnable)} hands the handler's disconnect work
+ * to the tick thread, which runs it once it has stopped applying this
+ * connection's packets, so nothing is applied for a player that has
+ * already been removed and saved, and the event loop never waits.
+ *
+ * Latency-sensitive packets (keep-alive responses) and anything that has
+ * to take effect before the next packet is decoded stay on the event loop
+ * and never reach this queue.
+ */
+public final class InboundPacketQueue {
+
+    /** Rate-limited packet groups, with the packets each allows per second. */
+    public enum Category {
+        MOVEMENT(100),
+        DIGGING(80),
+        PLACEMENT(60),
+        CHAT(10),
+        INVENTORY(80),
+        OTHER(200);
+
+        private final int perSecond;
+
+        Category(int perSecond) {
+            this.perSecond = perSecond;
+        }
+
+        public int getPerSecond() {
+            return perSecond;
+        }
+    }
+
+    private static final Category[] CATEGORIES = Category.values();
+    /** Seconds of a category's limit its bucket holds. */
+    static final int BURST_SECONDS = 2;
+    /** Being refused (this - 1) times a category's limit within one second gets the client kicked. */
+    static final int KICK_FACTOR = 3;
+    /** Queued packets, as a multiple of the queue limit, that get the client kicked. */
+    static final int OVERFLOW_FACTOR = 4;
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private static volatile boolean enabled = true;
+    private static volatile int packetsPerTick = 40;
+    private static volatile int queueLimit = 256;
+
+    // Totals across all connections, for /perf
+    private static final AtomicLong totalDropped = new AtomicLong();
+    private static final AtomicLong totalPauses = new AtomicLong();
+    private static final AtomicLong totalKicks = new AtomicLong();
+
+    private final ConnectedPlayer player;
+    private final Channel channel;
+    private final Consumer<Packet> applier;
+    private final BlockReader blocks;
+
+    private final Queue<Packet> packets = PlatformDependent.newMpscQueue();
+    private final AtomicInteger size = new AtomicInteger();
+    /** Held while packets are applied, so {@link #runExclusive} never interleaves with one. */
+    private final Object applyLock = new Object();
+    private volatile boolean closed;
+    /** Disconnect work waiting for the tick thread; taken exactly once. */
+    private final AtomicReference<Runnable> teardown = new AtomicReference<>();
+
+    // Backpressure state; only changed on the event loop
+    private boolean paused;
+    private final AtomicBoolean resumeScheduled = new AtomicBoolean();
+    private final Runnable resumeTask = this::resumeIfDrained;
+
+    // Per-category token buckets and refusals in the current one-second
+    // window (event loop only)
+    private final double[] tokens = new double[CATEGORIES.length];
+    private long lastRefill;
+    private boolean bucketsStarted;
+    /** Set on resume: the next refill credits the pause without the burst cap. */
+    private volatile boolean creditPause;
+    private final int[] refused = new int[CATEGORIES.length];
+    private long windowStart;
+    private volatile long dropped;
+
+    /** Reads the server's block type at a position, for resyncing dropped block actions. */
+    @FunctionalInterface
+    public interface BlockReader {
+        int blockAt(int x, int y, int z);
+    }
+
+    /**
+     * @param player  the connection's player; kicked through its channel
+     * @param blocks  the world's blocks, sent back when a dig or placement
+     *                is dropped; {@code null} skips the resync
+     * @param applier applies one packet on the tick thread (or inline when
+     *                queueing is disabled)
+     */
+    public InboundPacketQueue(ConnectedPlayer player, BlockReader blocks, Consumer<Packet> applier) {
+        this.player = player;
+        this.channel = player.getChannel();
+        this.blocks = blocks;
+        this.applier = applier;
+    }
+
+    /**
+     * Set the queue settings from server.properties.
+     *
+     * @param enabled        false applies packets inline on the event loop
+     *                       (rate limits still apply)
+     * @param packetsPerTick packets applied per connection per tick
+     * @param queueLimit     queued packets at which reads are paused
+     */
+    public static void configure(boolean enabled, int packetsPerTick, int queueLimit) {
+        InboundPacketQueue.enabled = enabled;
+        InboundPacketQueue.packetsPerTick = Math.max(1, packetsPerTick);
+        InboundPacketQueue.queueLimit = Math.max(2, queueLimit);
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static int getPacketsPerTick() {
+        return packetsPerTick;
+    }
+
+    public static int getQueueLimit() {
+        return queueLimit;
+    }
+
+    /**
+     * Receive a decoded gameplay packet. Call on the connection's event loop.
+     *
+     * @return whether the packet was accepted (queued or applied)
+     */
+    public boolean submit(Packet packet) {
+        return submit(packet, System.nanoTime());
+    }
+
+    boolean submit(Packet packet, long nowNanos) {
+        if (closed) return false;
+        Category category = categorize(packet);
+        refill(nowNanos);
+        int c = category.ordinal();
+        if (tokens[c] >= 1) {
+            tokens[c] -= 1;
+        } else {
+            if (nowNanos - windowStart >= WINDOW_NANOS) {
+                Arrays.fill(refused, 0);
+                windowStart = nowNanos;
+            }
+            if (++refused[c] > category.perSecond * (KICK_FACTOR - 1)) {
+                kick("Sent too many " + category.name().toLowerCase() + " packets");
+            } else {
+                dropped++;
+                totalDropped.incrementAndGet();
+                resync(packet);
+            }
+            return false;
+        }
+
+        if (!enabled) {
+            applier.accept(packet);
+            return true;
+        }
+        packets.offer(packet);
+        int queued = size.incrementAndGet();
+        if (queued >= queueLimit * OVERFLOW_FACTOR) {
+            kick("Sent packets faster than the server could apply them");
+            return false;
+        }
+        if (queued >= queueLimit && !paused) {
+            paused = true;
+            totalPauses.incrementAndGet();
+            channel.config().setAutoRead(false);
+        }
+        return true;
+    }
+
+    /**
+     * Apply up to {@code budget} queued packets in arrival order. Called by
+     * the tick loop; a packet whose handler throws is passed to the
+     * channel's exceptionCaught like an event-loop failure would be. Once
+     * the queue is closed it applies nothing more, drops what is still
+     * queued and runs the teardown passed to {@link #close(Runnable)}.
+     *
+     * @return packets applied
+     */
+    public int drain(int budget) {
+        int applied = 0;
+        if (!closed) {
+            synchronized (applyLock) {
+                while (applied < budget && !closed) {
+                    Packet packet = packets.poll();
+                    if (packet == null) break;
+                    size.decrementAndGet();
+                    applied++;
+                    try {
+                        applier.accept(packet);
+                    } catch (RuntimeException e) {
+                        channel.pipeline().fireExceptionCaught(e);
+                    }
+                }
+            }
+        }
+        if (closed) {
+            discard();
+            runTeardown();
+            return applied;
+        }
+        if (applied > 0 && size.get() <= queueLimit / 2 && resumeScheduled.compareAndSet(false, true)) {
+            channel.eventLoop().execute(resumeTask);
+        }
+        return applied;
+    }
+
+    /** Resume reads paused by {@link #submit}, if the queue has drained enough. Event loop only. */
+    private void resumeIfDrained() {
+        resumeScheduled.set(false);
+        if (paused && !closed && size.get() <= queueLimit / 2) {
+            paused = false;
+            creditPause = true;
+            channel.config().setAutoRead(true);
+        }
+    }
+
+    /**
+     * Add the tokens earned since the last refill. Buckets start full and
+     * stop at {@link #BURST_SECONDS} of their limit, except right after a
+     * resume, when the time reads were paused is credited in full.
+     */
+    private void refill(long nowNanos) {
+        if (!bucketsStarted) {
+            for (int i = 0; i < CATEGORIES.length; i++) {
+                tokens[i] = CATEGORIES[i].perSecond * (double) BURST_SECONDS;
+            }
+            lastRefill = nowNanos;
+            windowStart = nowNanos - WINDOW_NANOS;
+            bucketsStarted = true;
+            return;
+        }
+        long elapsed = nowNanos - lastRefill;
+        if (elapsed <= 0) return;
+        lastRefill = nowNanos;
+        boolean uncapped = creditPause;
+        creditPause = false;
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            int perSecond = CATEGORIES[i].perSecond;
+            double earned = tokens[i] + elapsed * (double) perSecond / WINDOW_NANOS;
+            if (uncapped) {
+                tokens[i] = earned;
+            } else {
+                double cap = perSecond * (double) BURST_SECONDS;
+                if (tokens[i] < cap) tokens[i] = Math.min(cap, earned);
+            }
+        }
+    }
+
+    /**
+     * Send the server's block state for what a dropped dig or placement
+     * changed on the client, which predicts those locally.
+     */
+    private void resync(Packet packet) {
+        if (blocks == null) return;
+        if (packet instanceof PlayerDiggingPacket p) {
+            resendBlock(p.getX(), p.getY(), p.getZ());
+        } else if (packet instanceof PlayerDiggingPacketV47 p) {
+            resendBlock(p.getX(), p.getY(), p.getZ());
+        } else if (packet instanceof PlayerDiggingPacketV477 p) {
+            resendBlock(p.getX(), p.getY(), p.getZ());
+        } else if (packet instanceof SetBlockClientPacket p) {
+            resendBlock(p.getX(), p.getY(), p.getZ());
+        } else if (packet instanceof BlockPlacementData p) {
+            int face = p.getDirection();
+            if (face < 0 || face > 5) return; // item use, no block targeted
+            resendBlock(p.getX(), p.getY(), p.getZ());
+            resendBlock(p.getX() + (face == 4 ? -1 : face == 5 ? 1 : 0),
+                    p.getY() + (face == 0 ? -1 : face == 1 ? 1 : 0),
+                    p.getZ() + (face == 2 ? -1 : face == 3 ? 1 : 0));
+        }
+    }
+
+    private void resendBlock(int x, int y, int z) {
+        player.sendPacket(new SetBlockServerPacket(x, y, z, blocks.blockAt(x, y, z) & 0xFF));
+    }
+
+    /**
+     * Stop applying and tear the player down on the tick thread. Call from
+     * the handler's channelInactive instead of removing the player there:
+     * the tick thread's next {@link #drain} drops what is still queued and
+     * then runs {@code teardown}, so it never overlaps a packet being
+     * applied. The event loop doesn't wait for it. With queueing disabled,
+     * or no tick loop running, packets are applied inline and the teardown
+     * runs right away on the calling thread.
+     */
+    public void close(Runnable teardown) {
+        close(teardown, enabled && ServerTickLoop.isDrainingInbound());
+    }
+
+    void close(Runnable teardown, boolean tickDrains) {
+        this.teardown.set(teardown);
+        closed = true;
+        if (!tickDrains) {
+            runTeardown();
+        }
+    }
+
+    /** Run the pending teardown, if any and not run yet. */
+    private void runTeardown() {
+        Runnable task = teardown.getAndSet(null);
+        if (task == null) return;
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            System.err.println("[Inbound] Teardown of " + player.getUsername() + " failed: " + e);
+            e.printStackTrace();
+        }
+    }
+
+    /** Drop everything queued. Tick thread only: it is the queue's single consumer. */
+    private void discard() {
+        int dropped = 0;
+        while (packets.poll() != null) dropped++;
+        if (dropped > 0) size.addAndGet(-dropped);
+    }
+
+    /**
+     * Run {@code task} on the calling thread without interleaving with a
+     * packet being applied, for a handler's delayed event-loop tasks that
+     * share state with its packet handlers.
+     */
+    public void runExclusive(Runnable task) {
+        synchronized (applyLock) {
+            task.run();
+        }
+    }
+
+    private void kick(String reason) {
+        if (closed) return;
+        closed = true;
+        totalKicks.incrementAndGet();
+        System.out.println("[Inbound] Kicking " + player.getUsername() + ": " + reason);
+        player.sendPacket(new DisconnectPacket(reason));
+        player.disconnect();
+    }
+
+    /** Packets waiting to be applied. */
+    public int size() {
+        return size.get();
+    }
+
+    /** Whether reads are currently paused for backpressure. */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /** Packets this connection had dropped by rate limits. */
+    public long getDropped() {
+        return dropped;
+    }
+
+    public static long getTotalDropped() {
+        return totalDropped.get();
+    }
+
+    public static long getTotalPauses() {
+        return totalPauses.get();
+    }
+
+    public static long getTotalKicks() {
+        return totalKicks.get();
+    }
+
+    /** Rate-limit group of a gameplay packet, across all protocol families. */
+    static Category categorize(Packet packet) {
+        if (packet instanceof PlayerPositionPacket
+                || packet instanceof PlayerPositionAndLookC2SPacket
+                || packet instanceof PlayerLookPacket
+                || packet instanceof PlayerOnGroundPacket
+                || packet instanceof PlayerPositionPacketV47
+                || packet instanceof PlayerPositionAndLookC2SPacketV47
+                || packet instanceof PlayerTeleportPacket) {
+            return Category.MOVEMENT;
+        }
+        if (packet instanceof PlayerDiggingPacket
+                || packet instanceof PlayerDiggingPacketV47
+                || packet instanceof PlayerDiggingPacketV477) {
+            return Category.DIGGING;
+        }
+        if (packet instanceof BlockPlacementData
+                || packet instanceof SetBlockClientPacket) {
+            return Category.PLACEMENT;
+        }
+        if (packet instanceof ChatPacket
+                || packet instanceof MessagePacket
+                || packet instanceof NettyChatC2SPacket
+                || packet instanceof NettyChatC2SPacketV764
+                || packet instanceof ChatCommandC2SPacketV759
+                || packet instanceof NettyChatCommandC2SPacketV764) {
+            return Category.CHAT;
+        }
+        if (packet instanceof WindowClickPacket
+                || packet instanceof NettyWindowClickPacket
+                || packet instanceof NettyWindowClickPacketV47
+                || packet instanceof NettyWindowClickPacketV755
+                || packet instanceof CloseWindowPacket
+                || packet instanceof PlayerInventoryPacket
+                || packet instanceof PlayerInventoryPacketAlphaver
+                || packet instanceof CreativeSlotPacket
+                || packet instanceof CreativeSlotPacketV22
+                || packet instanceof CreativeSlotPacketV39
+                || packet instanceof NettyCreativeSlotPacket
+                || packet instanceof NettyCreativeSlotPacketV47) {
+            return Category.INVENTORY;
+        }
+        return Category.OTHER;
+    }
+}
@@ -4,6 +4,7 @@ import com.github.martinambrus.rdforward.protocol.Capability;
 import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -15,12 +16,22 @@ import java.util.concurrent.ConcurrentHashMap;
  *   9-35 = main inventory, 36-44 = hotbar.
  *
  * Supports WindowClick processing for Beta v7 through Netty v340.
+ *
+ * Inventories are neither restored from nor written to the
+ * {@link PlayerDataStore} yet: clients start from the default items, and
+ * until {@link #sendFullInventory} can resync a client, restored slots
+ * would exist only on the server. Saving alone would let every session,
+ * which starts empty, overwrite the inventory stored by an older one, so
+ * both wait on {@link #PERSIST_INVENTORIES}.
  */
 public class InventoryAdapter {
 
     /** Standard player inventory: 45 slots (0-44). */
     private static final int INVENTORY_SIZE = 45;
 
+    /** Restore on join and save on leave; off until clients can be resynced. */
+    private static final boolean PERSIST_INVENTORIES = false;
+
     /** Represents a single inventory slot. */
     static class ItemStack {
         int itemId;
@@ -48,6 +59,13 @@ public class InventoryAdapter {
     /** Per-player cursor (carried item) state. */
     private final Map<String, ItemStack> cursors = new ConcurrentHashMap<>();
 
+    /** Persistent player data, or null if inventories are not saved. */
+    private volatile PlayerDataStore store;
+
+    public void setPlayerDataStore(PlayerDataStore store) {
+        this.store = store;
+    }
+
     /**
      * Initialize inventory for a new player with empty slots and empty cursor.
      */
@@ -61,13 +79,45 @@ public class InventoryAdapter {
     }
 
     /**
-     * Remove inventory tracking for a disconnected player.
+     * Remove inventory tracking for a disconnected player, saving it to the
+     * player data store first when inventories are persisted.
      */
-    public void removePlayer(String username) {
+    public void removePlayer(String username, String uuid) {
+        capture(username, uuid);
         inventories.remove(username);
         cursors.remove(username);
     }
 
+    /**
+     * Copy the inventories of online players into the player data store
+     * (before an autosave) when inventories are persisted. Only players
+     * whose items changed become dirty.
+     */
+    public void captureAll(Collection<ConnectedPlayer> players) {
+        for (ConnectedPlayer p : players) {
+            capture(p.getUsername(), p.getUuid());
+        }
+    }
+
+    private void capture(String username, String uuid) {
+        PlayerDataStore store = this.store;
+        ItemStack[] inv = inventories.get(username);
+        if (!PERSIST_INVENTORIES || store == null || inv == null) return;
+        int[] slots = new int[INVENTORY_SIZE * 3];
+        for (int i = 0; i < INVENTORY_SIZE; i++) {
+            ItemStack stack = inv[i];
+            if (stack == null || stack.isEmpty()) continue;
+            slots[i * 3] = stack.itemId;
+            slots[i * 3 + 1] = stack.count;
+            slots[i * 3 + 2] = stack.damage;
+        }
+        ItemStack cursor = cursors.get(username);
+        int[] cursorTriple = (cursor == null || cursor.isEmpty())
+                ? new int[3]
+                : new int[] {cursor.itemId, cursor.count, cursor.damage};
+        store.getOrCreate(username, uuid).setInventory(slots, cursorTriple);
+    }
+
     /**
      * Set a specific slot's contents.
      */
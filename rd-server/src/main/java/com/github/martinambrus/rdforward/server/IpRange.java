@@ -0,0 +1,106 @@
+package com.github.martinambrus.rdforward.server;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+
+/**
+ * An IPv4 or IPv6 address range in CIDR notation, e.g. {@code 127.0.0.0/8}
+ * or {@code fd00::/8}. A bare address is a range of one.
+ *
+ * Only literal addresses are accepted, so parsing never does a DNS lookup.
+ * IPv4 ranges don't match IPv6 addresses and vice versa; Java already
+ * turns IPv4-mapped IPv6 addresses into plain IPv4 ones.
+ */
+public final class IpRange {
+
+    private final byte[] network;
+    private final int prefixLength;
+
+    private IpRange(byte[] network, int prefixLength) {
+        this.network = network;
+        this.prefixLength = prefixLength;
+    }
+
+    /**
+     * Parse {@code address[/prefix]}.
+     *
+     * @throws IllegalArgumentException if it is not a literal address or
+     *         the prefix is out of range for the address family
+     */
+    public static IpRange parse(String cidr) {
+        String text = cidr.trim();
+        int slash = text.indexOf('/');
+        String address = slash >= 0 ? text.substring(0, slash) : text;
+        if (address.isEmpty() || !isLiteral(address)) {
+            throw new IllegalArgumentException("Not an IP address: " + cidr);
+        }
+        byte[] bytes;
+        try {
+            bytes = InetAddress.getByName(address).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Not an IP address: " + cidr);
+        }
+        int bits = bytes.length * 8;
+        int prefix = bits;
+        if (slash >= 0) {
+            try {
+                prefix = Integer.parseInt(text.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad prefix length in " + cidr);
+            }
+            if (prefix < 0 || prefix > bits) {
+                throw new IllegalArgumentException("Prefix length out of range in " + cidr);
+            }
+        }
+        // Clear host bits so contains() can compare whole bytes
+        for (int i = 0; i < bytes.length; i++) {
+            int keep = Math.max(0, Math.min(8, prefix - i * 8));
+            bytes[i] &= (byte) (0xFF00 >> keep);
+        }
+        return new IpRange(bytes, prefix);
+    }
+
+    private static boolean isLiteral(String address) {
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            boolean ok = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')
+                    || c == '.' || c == ':' || c == '[' || c == ']';
+            if (!ok) return false;
+        }
+        return true;
+    }
+
+    public boolean contains(InetAddress address) {
+        if (address == null) return false;
+        byte[] bytes = address.getAddress();
+        if (bytes.length != network.length) return false;
+        int i = 0;
+        int remaining = prefixLength;
+        for (; remaining >= 8; i++, remaining -= 8) {
+            if (bytes[i] != network[i]) return false;
+        }
+        if (remaining == 0) return true;
+        int mask = 0xFF00 >> remaining & 0xFF;
+        return (bytes[i] & mask) == (network[i] & 0xFF);
+    }
+
+    /** Whether a connection's remote address is in this range; false for non-IP addresses. */
+    public boolean contains(SocketAddress address) {
+        return address instanceof InetSocketAddress inet && contains(inet.getAddress());
+    }
+
+    public int getPrefixLength() {
+        return prefixLength;
+    }
+
+    @Override
+    public String toString() {
+        try {
+            return InetAddress.getByAddress(network).getHostAddress() + "/" + prefixLength;
+        } catch (UnknownHostException e) {
+            return "?/" + prefixLength;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.github.martinambrus.rdforward.server;
+
+import io.netty.channel.Channel;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Caps how many logins are in progress at once, server-wide.
+ *
+ * A login holds a slot from its first login packet (Classic
+ * identification, Alpha handshake/login, Netty LoginStart) until the
+ * player is in the world or the connection closes. RSA decryption,
+ * session server lookups and the initial world send all happen inside
+ * that window, so a burst of connections can't run them all at once.
+ *
+ * When every slot is taken a login waits in a FIFO join queue of up to
+ * {@link #getQueueLimit()} entries and continues, on its own event loop,
+ * as soon as a slot frees up. None of the login protocols can display
+ * anything before login completes except a disconnect screen, so a
+ * client whose wait runs out, or that finds the queue full, is shown its
+ * place in line in the disconnect reason.
+ */
+public final class LoginGate {
+
+    private static volatile int maxLogins = 16;
+    private static volatile int queueLimit = 64;
+    private static volatile int queueTimeoutSeconds = 20;
+
+    private static final Object lock = new Object();
+    /** Guarded by {@link #lock}. */
+    private static int inProgress;
+    /** Guarded by {@link #lock}. */
+    private static final ArrayDeque<Ticket> waiting = new ArrayDeque<>();
+
+    private static final AtomicLong totalQueued = new AtomicLong();
+    private static final AtomicLong totalRejected = new AtomicLong();
+    private static final AtomicLong totalTimedOut = new AtomicLong();
+
+    private LoginGate() {}
+
+    /**
+     * @param maxLogins           logins in progress at once; 0 for no limit
+     * @param queueLimit          logins waiting for a slot; 0 rejects at once
+     * @param queueTimeoutSeconds longest wait for a slot before disconnecting
+     */
+    public static void configure(int maxLogins, int queueLimit, int queueTimeoutSeconds) {
+        LoginGate.maxLogins = Math.max(0, maxLogins);
+        LoginGate.queueLimit = Math.max(0, queueLimit);
+        LoginGate.queueTimeoutSeconds = Math.max(1, queueTimeoutSeconds);
+    }
+
+    /**
+     * Take a login slot for {@code channel}, or queue for one.
+     * {@code proceed} runs once the slot is held: right away when one is
+     * free, later on the channel's event loop otherwise. {@code reject}
+     * runs instead, on the event loop, with a reason for the client when
+     * the queue is full or the wait times out; it should disconnect.
+     *
+     * Must be called on {@code channel}'s event loop. The slot is freed by
+     * {@link Ticket#release()} or when the channel closes.
+     */
+    public static Ticket enter(Channel channel, Runnable proceed, Consumer<String> reject) {
+        Ticket ticket = new Ticket(channel, proceed, reject);
+        int position = 0;
+        synchronized (lock) {
+            int max = maxLogins;
+            if (max == 0) {
+                ticket.admitted = true;
+            } else if (inProgress < max) {
+                inProgress++;
+                ticket.admitted = true;
+                ticket.counted = true;
+            } else if (waiting.size() < queueLimit) {
+                waiting.addLast(ticket);
+                position = waiting.size();
+            } else {
+                ticket.done = true;
+                position = -1;
+            }
+        }
+
+        if (position < 0) {
+            totalRejected.incrementAndGet();
+            reject.accept("Server busy: " + queueLimit + " players are already waiting to join."
+                    + " Please try again in a moment.");
+            return ticket;
+        }
+        channel.closeFuture().addListener(f -> ticket.release());
+        if (ticket.admitted) {
+            proceed.run();
+            return ticket;
+        }
+        totalQueued.incrementAndGet();
+        System.out.println("[Login] " + channel.remoteAddress() + " is #" + position + " in the join queue");
+        ticket.timeout = channel.eventLoop().schedule(ticket::expire, queueTimeoutSeconds, TimeUnit.SECONDS);
+        return ticket;
+    }
+
+    /** A login's claim on a slot, held or queued. */
+    public static final class Ticket {
+        private final Channel channel;
+        private final Runnable proceed;
+        private final Consumer<String> reject;
+        /** Guarded by {@link #lock}. */
+        private boolean admitted;
+        /** Whether the ticket holds one of the {@link #maxLogins} slots. Guarded by {@link #lock}. */
+        private boolean counted;
+        /** Guarded by {@link #lock}. */
+        private boolean done;
+        private ScheduledFuture<?> timeout;
+
+        private Ticket(Channel channel, Runnable proceed, Consumer<String> reject) {
+            this.channel = channel;
+            this.proceed = proceed;
+            this.reject = reject;
+        }
+
+        /** Whether the login is still waiting in the join queue. */
+        public boolean isQueued() {
+            synchronized (lock) {
+                return !admitted && !done;
+            }
+        }
+
+        /** Free the slot (or leave the queue); the next waiting login takes it. Idempotent. */
+        public void release() {
+            Ticket next = null;
+            synchronized (lock) {
+                if (done) return;
+                done = true;
+                if (!admitted) {
+                    waiting.remove(this);
+                } else if (counted) {
+                    next = waiting.pollFirst();
+                    if (next != null) {
+                        next.admitted = true;
+                        next.counted = true;
+                    } else {
+                        inProgress--;
+                    }
+                }
+            }
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            if (next != null) {
+                next.resume();
+            }
+        }
+
+        private void resume() {
+            channel.eventLoop().execute(() -> {
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+                if (!channel.isActive()) {
+                    release();
+                    return;
+                }
+                proceed.run();
+            });
+        }
+
+        private void expire() {
+            int position;
+            synchronized (lock) {
+                if (admitted || done) return;
+                position = 1;
+                for (Ticket t : waiting) {
+                    if (t == this) break;
+                    position++;
+                }
+                done = true;
+                waiting.remove(this);
+            }
+            totalTimedOut.incrementAndGet();
+            reject.accept("Server busy: still #" + position + " in the join queue after "
+                    + queueTimeoutSeconds + " seconds. Please reconnect.");
+        }
+    }
+
+    /** Logins holding a slot. */
+    public static int getInProgress() {
+        synchronized (lock) {
+            return inProgress;
+        }
+    }
+
+    /** Logins waiting for a slot. */
+    public static int getQueued() {
+        synchronized (lock) {
+            return waiting.size();
+        }
+    }
+
+    public static int getMaxLogins() {
+        return maxLogins;
+    }
+
+    public static int getQueueLimit() {
+        return queueLimit;
+    }
+
+    /** Logins that have had to wait in the queue. */
+    public static long getTotalQueued() {
+        return totalQueued.get();
+    }
+
+    /** Logins turned away because the queue was full. */
+    public static long getTotalRejected() {
+        return totalRejected.get();
+    }
+
+    /** Logins disconnected after waiting too long in the queue. */
+    public static long getTotalTimedOut() {
+        return totalTimedOut.get();
+    }
+}
@@ -17,6 +17,7 @@ import com.github.martinambrus.rdforward.protocol.packet.classic.SetBlockServerP
 import com.github.martinambrus.rdforward.protocol.packet.netty.*;
 import com.github.martinambrus.rdforward.server.api.CommandRegistry;
 import com.github.martinambrus.rdforward.server.api.ServerProperties;
+import com.github.martinambrus.rdforward.server.auth.LoginCryptoPool;
 import com.github.martinambrus.rdforward.server.auth.MojangSessionVerifier;
 import com.github.martinambrus.rdforward.api.event.server.ServerEvents;
 import com.github.martinambrus.rdforward.protocol.BlockStateMapper;
@@ -29,6 +30,7 @@ import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -38,7 +40,9 @@ import java.util.concurrent.TimeUnit;
  * 1. HANDSHAKING: Receive NettyHandshakePacket, transition to STATUS or LOGIN
  * 2. STATUS: Handle server list ping (StatusRequest/StatusPing)
  * 3. LOGIN: Encryption handshake, then send LoginSuccess and transition to PLAY
- * 4. PLAY: Gameplay packets (position, placement, digging, chat)
+ * 4. PLAY: Gameplay packets (position, placement, digging, chat), queued
+ *    through an {@link InboundPacketQueue} and applied on the tick thread;
+ *    keep-alive responses are answered on the event loop
  */
 public class NettyConnectionHandler extends SimpleChannelInboundHandler<Packet> {
 
@@ -55,6 +59,9 @@ public class NettyConnectionHandler extends SimpleChannelInboundHandler<Packet>
     private String pendingUsername;
     private ConnectedPlayer player;
     private boolean loginComplete = false;
+    private InboundPacketQueue inbound;
+    /** Login slot from {@link LoginGate}, held from LoginStart until the player joins. */
+    private LoginGate.Ticket loginTicket;
 
     // Encryption state — RSA keypair shared across all connections (thread-safe: generated once)
     private static volatile KeyPair sharedRsaKeyPair;
@@ -176,9 +183,11 @@ public class NettyConnectionHandler extends SimpleChannelInboundHandler<Packet>
 
             case LOGIN:
                 if (packet instanceof LoginStartPacketV761) {
-                    handleLoginStart(ctx, ((LoginStartPacketV761) packet).getUsername());
+                    admitLogin(ctx, ((LoginStartPacketV761) packet).getUsername());
                 } else if (packet instanceof LoginStartPacket) {
-                    handleLoginStart(ctx, ((LoginStartPacket) packet).getUsername());
+                    admitLogin(ctx, ((LoginStartPacket) packet).getUsername());
+                } else if (loginTicket != null && loginTicket.isQueued()) {
+                    // Waiting in the join queue; nothing else is valid yet
                 } else if (packet instanceof LoginAcknowledgedPacket) {
                     handleLoginAcknowledged(ctx);
                 } else if (packet instanceof NettyEncryptionResponsePacketV759) {
@@ -199,7 +208,7 @@ public class NettyConnectionHandler extends SimpleChannelInboundHandler<Packet>
                 break;
 
             case PLAY:
-                handlePlayPacket(ctx, packet);
+                receivePlayPacket(ctx, packet);
                 break;
         }
     }
@@ -356,6 +365,13 @@ public class NettyConnectionHandler extends SimpleChannelInboundHandler<Packet>
     // Login state
     // ========================================================================
 
+    /** Start the login once {@link LoginGate} has a slot for it. */
+    private void admitLogin(ChannelHandlerContext ctx, String username) {
+        if (loginTicket != null) return; // duplicate LoginStart
+        loginTicket = LoginGate.enter(ctx.channel(), () -> handleLoginStart(ctx, username),
+                reason -> sendLoginDisconnect(ctx, reason));
+    }
+
     private void handleLoginStart(ChannelHandlerContext ctx, String username) {
         pendingUsername = username;
 
@@ -387,15 +403,16 @@ public class NettyConnectionHandler extends SimpleChannelInboundHandler<Packet>
         }
     }
 
-    /** Compression threshold in bytes. Packets smaller than this are sent uncompressed. */
-    private static final int COMPRESSION_THRESHOLD = 256;
+    /** Compression level/threshold choice for 1.8+ connections; null until login completes. */
+    private CompressionPolicy compressionPolicy;
 
     /**
      * Send LoginSuccess and transition to PLAY (or CONFIGURATION for v764+).
      * Called after encryption completes or directly for offline-mode logins.
      *
      * For 1.8+ clients, sends Set Compression before LoginSuccess to enable
-     * zlib packet compression. 1.7.x clients do not support compression.
+     * zlib packet compression, as chosen by {@link CompressionPolicy}.
+     * 1.7.x clients do not support compression.
      */
     private void completeLogin(ChannelHandlerContext ctx) {
         // Remove login timeout
@@ -406,19 +423,27 @@ public class NettyConnectionHandler extends SimpleChannelInboundHandler<Packet>
         // Enable compression for 1.8+ clients (protocol 47+).
         // SetCompression MUST be sent before LoginSuccess.
         // EaglerCraft clients do not support MC-level compression (WebSocket handles framing).
+        // Per-address overrides may turn it off entirely (e.g. loopback bots).
         if (!eaglecraftClient && clientVersion.isAtLeast(ProtocolVersion.RELEASE_1_8)) {
-            ctx.writeAndFlush(new SetCompressionPacket(COMPRESSION_THRESHOLD));
+            compressionPolicy = CompressionPolicy.forAddress(ctx.channel().remoteAddress(),
+                    ServerProperties.getNetworkCompressionThreshold());
+        }
+        if (compressionPolicy != null && compressionPolicy.isEnabled()) {
+            int threshold = compressionPolicy.getAnnouncedThreshold();
+            ctx.writeAndFlush(new SetCompressionPacket(threshold));
 
             // Insert compress/decompress handlers into the pipeline.
             // Inbound (head-to-tail): decoder -> decompress -> packetDecoder
             // Outbound (tail-to-head): packetEncoder -> compress -> encoder
             // addBefore in head-to-tail means AFTER in outbound direction.
             ctx.pipeline().addAfter("decoder", "decompress",
-                    new PacketDecompressDecoder(COMPRESSION_THRESHOLD));
+                    new PacketDecompressDecoder(threshold));
             ctx.pipeline().addBefore("packetEncoder", "compress",
-                    new PacketCompressEncoder(COMPRESSION_THRESHOLD));
-            System.out.println("[Netty] Compression enabled (threshold=" + COMPRESSION_THRESHOLD
-                    + ") for " + pendingUsername);
+                    new PacketCompressEncoder(threshold, compressionPolicy.getInitialLevel()));
+            System.out.println("[Netty] Compression enabled (threshold=" + threshold
+                    + ", level=" + compressionPolicy.getInitialLevel() + ") for " + pendingUsername);
+        } else if (compressionPolicy != null) {
+            System.out.println("[Netty] Compression off for " + pendingUsername + " (compression-overrides)");
         }
 
         // Send LoginSuccess — use Mojang UUID in online mode, offline UUID otherwise
@@ -478,43 +503,71 @@ public class NettyConnectionHandler extends SimpleChannelInboundHandler<Packet>
         }
         awaitingEncryptionResponse = false;
 
-        try {
-            Cipher rsaCipher = Cipher.getInstance("RSA");
-            rsaCipher.init(Cipher.DECRYPT_MODE, rsaKeyPair.getPrivate());
-            byte[] sharedSecret = rsaCipher.doFinal(encryptedSharedSecret);
-
-            if (sharedSecret.length != 16) {
-                System.err.println("Invalid shared secret length (" + sharedSecret.length
-                        + ") from " + pendingUsername);
-                sendLoginDisconnect(ctx, "Encryption verification failed");
-                return;
-            }
-
-            if (encryptedVerifyToken != null) {
-                rsaCipher.init(Cipher.DECRYPT_MODE, rsaKeyPair.getPrivate());
-                byte[] decryptedToken = rsaCipher.doFinal(encryptedVerifyToken);
+        // RSA decryption runs on the bounded login crypto pool, not the event loop
+        byte[] expectedToken = verifyToken;
+        LoginCryptoPool.submit(() -> decryptSharedSecret(rsaKeyPair,
+                        encryptedSharedSecret, encryptedVerifyToken, expectedToken))
+                .whenCompleteAsync((sharedSecret, error) -> {
+                    if (!ctx.channel().isActive()) return;
+                    if (error instanceof RejectedExecutionException) {
+                        sendLoginDisconnect(ctx, "Server busy, please try again in a moment");
+                        return;
+                    }
+                    if (error != null) {
+                        System.err.println("Encryption handshake failed for " + pendingUsername
+                                + ": " + error.getMessage());
+                        sendLoginDisconnect(ctx, "Encryption error");
+                        return;
+                    }
+                    if (sharedSecret == null) {
+                        sendLoginDisconnect(ctx, "Encryption verification failed");
+                        return;
+                    }
+                    try {
+                        MinecraftCipher decryptCipher = new MinecraftCipher(Cipher.DECRYPT_MODE, sharedSecret);
+                        MinecraftCipher encryptCipher = new MinecraftCipher(Cipher.ENCRYPT_MODE, sharedSecret);
+                        ctx.pipeline().addBefore("decoder", "decrypt", new CipherDecoder(decryptCipher));
+                        ctx.pipeline().addBefore("encoder", "encrypt", new CipherEncoder(encryptCipher));
+
+                        verifyAndCompleteLogin(ctx, sharedSecret);
+                    } catch (Exception e) {
+                        System.err.println("Encryption handshake failed for " + pendingUsername
+                                + ": " + e.getMessage());
+                        sendLoginDisconnect(ctx, "Encryption error");
+                    }
+                }, ctx.executor());
+    }
 
-                if (!Arrays.equals(decryptedToken, verifyToken)) {
-                    System.err.println("Encryption verify token mismatch for " + pendingUsername);
-                    sendLoginDisconnect(ctx, "Encryption verification failed");
-                    return;
-                }
-            }
-            // null verify token: V759 chat signing mode — the RSA-encrypted shared
-            // secret already proves the client received our encryption request.
+    /**
+     * Decrypt the shared secret and check the verify token (unless null for
+     * V759 chat signing mode). Runs on the login crypto pool.
+     *
+     * @return the shared secret, or null if the response fails verification
+     */
+    private byte[] decryptSharedSecret(KeyPair rsaKeyPair, byte[] encryptedSharedSecret,
+                                       byte[] encryptedVerifyToken, byte[] expectedToken) throws Exception {
+        Cipher rsaCipher = Cipher.getInstance("RSA");
+        rsaCipher.init(Cipher.DECRYPT_MODE, rsaKeyPair.getPrivate());
+        byte[] sharedSecret = rsaCipher.doFinal(encryptedSharedSecret);
 
-            MinecraftCipher decryptCipher = new MinecraftCipher(Cipher.DECRYPT_MODE, sharedSecret);
-            MinecraftCipher encryptCipher = new MinecraftCipher(Cipher.ENCRYPT_MODE, sharedSecret);
-            ctx.pipeline().addBefore("decoder", "decrypt", new CipherDecoder(decryptCipher));
-            ctx.pipeline().addBefore("encoder", "encrypt", new CipherEncoder(encryptCipher));
+        if (sharedSecret.length != 16) {
+            System.err.println("Invalid shared secret length (" + sharedSecret.length
+                    + ") from " + pendingUsername);
+            return null;
+        }
 
-            verifyAndCompleteLogin(ctx, sharedSecret);
+        if (encryptedVerifyToken != null) {
+            rsaCipher.init(Cipher.DECRYPT_MODE, rsaKeyPair.getPrivate());
+            byte[] decryptedToken = rsaCipher.doFinal(encryptedVerifyToken);
 
-        } catch (Exception e) {
-            System.err.println("Encryption handshake failed for " + pendingUsername
-                    + ": " + e.getMessage());
-            sendLoginDisconnect(ctx, "Encryption error");
+            if (!Arrays.equals(decryptedToken, expectedToken)) {
+                System.err.println("Encryption verify token mismatch for " + pendingUsername);
+                return null;
+            }
         }
+        // null verify token: V759 chat signing mode — the RSA-encrypted shared
+        // secret already proves the client received our encryption request.
+        return sharedSecret;
     }
 
     private void sendLoginDisconnect(ChannelHandlerContext ctx, String reason) {
@@ -1094,7 +1147,12 @@ public class NettyConnectionHandler extends SimpleChannelInboundHandler<Packet>
         // Configure translator with client version BEFORE broadcasts —
         // broadcastPlayerListAdd sends to ALL players including this one,
         // so the translator must know the version to emit the correct format.
+        inbound = new InboundPacketQueue(player, world::getBlock, packet -> handlePlayPacket(ctx, packet));
+        player.setInboundQueue(inbound);
         loginComplete = true;
+        if (loginTicket != null) {
+            loginTicket.release();
+        }
         ClassicToNettyTranslator translator = ctx.pipeline().get(ClassicToNettyTranslator.class);
         if (translator != null) {
             translator.setClientVersion(clientVersion);
@@ -1212,9 +1270,31 @@ public class NettyConnectionHandler extends SimpleChannelInboundHandler<Packet>
     // Play state: gameplay packets
     // ========================================================================
 
-    private void handlePlayPacket(ChannelHandlerContext ctx, Packet packet) {
+    private void receivePlayPacket(ChannelHandlerContext ctx, Packet packet) {
         if (!loginComplete) return;
 
+        if (packet instanceof KeepAlivePacketV47
+                || packet instanceof KeepAlivePacketV17
+                || packet instanceof KeepAlivePacketV340) {
+            // Keep-alive response — measure RTT. Answered here so queued
+            // gameplay packets don't inflate the measurement.
+            if (player != null) {
+                player.updateRtt(player.getKeepAliveSentNanos());
+                player.setLastKeepAliveResponseTime(System.currentTimeMillis());
+                if (compressionPolicy != null) {
+                    compressionPolicy.adapt(player, ctx.pipeline().get(PacketCompressEncoder.class));
+                }
+            }
+            return;
+        }
+
+        // Everything else is applied by the tick loop
+        inbound.submit(packet);
+    }
+
+    /** Route one gameplay packet. Runs on the tick thread, see {@link InboundPacketQueue}. */
+    private void handlePlayPacket(ChannelHandlerContext ctx, Packet packet) {
+
         // V47 position packets (must be checked before base Alpha versions)
         if (packet instanceof PlayerPositionAndLookC2SPacketV47) {
             PlayerPositionAndLookC2SPacketV47 p = (PlayerPositionAndLookC2SPacketV47) packet;
@@ -1259,14 +1339,6 @@ public class NettyConnectionHandler extends SimpleChannelInboundHandler<Packet>
             }
         } else if (packet instanceof TeleportConfirmPacketV109) {
             awaitingTeleportConfirm = false;
-        } else if (packet instanceof KeepAlivePacketV47
-                || packet instanceof KeepAlivePacketV17
-                || packet instanceof KeepAlivePacketV340) {
-            // Keep-alive response — measure RTT
-            if (player != null) {
-                player.updateRtt(player.getKeepAliveSentNanos());
-                player.setLastKeepAliveResponseTime(System.currentTimeMillis());
-            }
         } else if (packet instanceof NettyPluginMessagePacket pm17) {
             com.github.martinambrus.rdforward.server.network.PluginChannelManager
                     .dispatchInbound(player, pm17.getChannel(), pm17.getData());
@@ -1925,22 +1997,31 @@ public class NettyConnectionHandler extends SimpleChannelInboundHandler<Packet>
         if (keepAliveTask != null) {
             keepAliveTask.cancel(false);
         }
-        if (player != null) {
-            // Remove player first so getPlayerCount() is accurate for event listeners
-            playerManager.removePlayer(ctx.channel());
-            System.out.println(player.getUsername() + " disconnected"
-                    + " (" + playerManager.getPlayerCount() + " online)");
-            ServerEvents.PLAYER_LEAVE.invoker().onPlayerLeave(player.getUsername());
-            playerManager.getInventoryAdapter().removePlayer(player.getUsername());
-            world.rememberPlayerPosition(player);
-            chunkManager.removePlayer(player);
-            playerManager.broadcastPlayerListRemove(player);
-            playerManager.broadcastChat((byte) 0, player.getUsername() + " left the game");
-            playerManager.broadcastPlayerDespawn(player);
+        if (inbound != null) {
+            // The tick thread tears the player down once it stops applying
+            // this connection's packets, so none lands after the removal
+            inbound.close(() -> leaveWorld(ctx));
+        } else if (player != null) {
+            leaveWorld(ctx);
         }
         super.channelInactive(ctx);
     }
 
+    /** Remove the disconnected player from the server and tell everyone. */
+    private void leaveWorld(ChannelHandlerContext ctx) {
+        // Remove player first so getPlayerCount() is accurate for event listeners
+        playerManager.removePlayer(ctx.channel());
+        System.out.println(player.getUsername() + " disconnected"
+                + " (" + playerManager.getPlayerCount() + " online)");
+        ServerEvents.PLAYER_LEAVE.invoker().onPlayerLeave(player.getUsername());
+        playerManager.getInventoryAdapter().removePlayer(player.getUsername(), player.getUuid());
+        world.rememberPlayerPosition(player);
+        chunkManager.removePlayer(player);
+        playerManager.broadcastPlayerListRemove(player);
+        playerManager.broadcastChat((byte) 0, player.getUsername() + " left the game");
+        playerManager.broadcastPlayerDespawn(player);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         if (isNormalDisconnect(cause)) {
@@ -0,0 +1,245 @@
+package com.github.martinambrus.rdforward.server;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Everything the server persists about one player: position, rotation,
+ * dimension, inventory, cursor and free-form metadata.
+ *
+ * Positions are eye-level doubles, so they survive any coordinate range
+ * (the old {@code server-players.dat} kept 1/32-block shorts, which wrap
+ * past about ±1024 blocks). Rotation is in degrees, Classic convention.
+ *
+ * Every change bumps a version counter; {@link PlayerDataStore} writes a
+ * player only while the version differs from the last one saved, and
+ * setters that don't change anything leave the player clean. All access
+ * is synchronized on the instance: connection threads, the tick loop and
+ * the save thread all touch it.
+ */
+public final class PlayerData {
+
+    /** Slots in the standard player inventory, see {@link InventoryAdapter}. */
+    public static final int INVENTORY_SLOTS = 45;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final String key;
+    private String username;
+    private String uuid;
+
+    private boolean hasPosition;
+    private double x, y, z;
+    private float yaw, pitch;
+    private int dimension;
+
+    /** (itemId, count, damage) per slot, or null if never captured. */
+    private int[] inventory;
+    /** (itemId, count, damage), or null if never captured. */
+    private int[] cursor;
+    private final TreeMap<String, String> metadata = new TreeMap<>();
+
+    private long version;
+    private long savedVersion;
+    private long lastTouched = System.currentTimeMillis();
+
+    PlayerData(String key, String username, String uuid) {
+        this.key = key;
+        this.username = username;
+        this.uuid = uuid;
+    }
+
+    /** Save key: the UUID in online mode, otherwise the username. */
+    public String getKey() { return key; }
+    public synchronized String getUsername() { return username; }
+    public synchronized String getUuid() { return uuid; }
+
+    public synchronized boolean hasPosition() { return hasPosition; }
+    public synchronized double getX() { return x; }
+    /** Eye-level Y. */
+    public synchronized double getY() { return y; }
+    public synchronized double getZ() { return z; }
+    public synchronized float getYaw() { return yaw; }
+    public synchronized float getPitch() { return pitch; }
+    public synchronized int getDimension() { return dimension; }
+
+    /** Yaw as a Classic angle byte (256 steps per turn). */
+    public synchronized byte getYawByte() { return toAngleByte(yaw); }
+    public synchronized byte getPitchByte() { return toAngleByte(pitch); }
+
+    /** Set position and rotation; eye-level Y, degrees. */
+    public synchronized void setPosition(double x, double y, double z, float yaw, float pitch) {
+        if (hasPosition && this.x == x && this.y == y && this.z == z
+                && this.yaw == yaw && this.pitch == pitch) {
+            return;
+        }
+        this.hasPosition = true;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.yaw = yaw;
+        this.pitch = pitch;
+        changed();
+    }
+
+    public synchronized void setDimension(int dimension) {
+        if (this.dimension == dimension) return;
+        this.dimension = dimension;
+        changed();
+    }
+
+    /** Copy of the inventory as (itemId, count, damage) triples, or null if none saved. */
+    public synchronized int[] getInventory() {
+        return inventory != null ? inventory.clone() : null;
+    }
+
+    /** Copy of the cursor as (itemId, count, damage), or null if none saved. */
+    public synchronized int[] getCursor() {
+        return cursor != null ? cursor.clone() : null;
+    }
+
+    /**
+     * Replace inventory and cursor. {@code slots} holds (itemId, count,
+     * damage) for each of the {@link #INVENTORY_SLOTS} slots.
+     */
+    public synchronized void setInventory(int[] slots, int[] cursor) {
+        if (slots != null && slots.length != INVENTORY_SLOTS * 3) {
+            throw new IllegalArgumentException("expected " + INVENTORY_SLOTS * 3 + " ints, got " + slots.length);
+        }
+        if (Arrays.equals(inventory, slots) && Arrays.equals(this.cursor, cursor)) return;
+        this.inventory = slots != null ? slots.clone() : null;
+        this.cursor = cursor != null ? cursor.clone() : null;
+        changed();
+    }
+
+    public synchronized String getMetadata(String name) {
+        return metadata.get(name);
+    }
+
+    public synchronized Map<String, String> getMetadata() {
+        return Collections.unmodifiableMap(new TreeMap<>(metadata));
+    }
+
+    /** Set (or with a null value, remove) one metadata entry. */
+    public synchronized void setMetadata(String name, String value) {
+        String old = value != null ? metadata.put(name, value) : metadata.remove(name);
+        if (value == null ? old != null : !value.equals(old)) changed();
+    }
+
+    synchronized void setIdentity(String username, String uuid) {
+        boolean changed = false;
+        if (username != null && !username.equals(this.username)) {
+            this.username = username;
+            changed = true;
+        }
+        if (uuid != null && !uuid.equals(this.uuid)) {
+            this.uuid = uuid;
+            changed = true;
+        }
+        if (changed) changed();
+    }
+
+    public synchronized boolean isDirty() {
+        return version != savedVersion;
+    }
+
+    private void changed() {
+        version++;
+        lastTouched = System.currentTimeMillis();
+    }
+
+    synchronized void touch() {
+        lastTouched = System.currentTimeMillis();
+    }
+
+    synchronized long getLastTouched() { return lastTouched; }
+    synchronized long getVersion() { return version; }
+
+    /** Record that {@code savedVersion} reached disk; later changes keep the player dirty. */
+    synchronized void markSaved(long savedVersion) {
+        if (savedVersion > this.savedVersion) this.savedVersion = savedVersion;
+    }
+
+    /** Serialize; returns the version the bytes correspond to through {@code versionOut[0]}. */
+    synchronized void write(DataOutputStream out, long[] versionOut) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        writeNullableUTF(out, username);
+        writeNullableUTF(out, uuid);
+        out.writeBoolean(hasPosition);
+        out.writeDouble(x);
+        out.writeDouble(y);
+        out.writeDouble(z);
+        out.writeFloat(yaw);
+        out.writeFloat(pitch);
+        out.writeInt(dimension);
+        writeInts(out, inventory);
+        writeInts(out, cursor);
+        out.writeInt(metadata.size());
+        for (Map.Entry<String, String> e : metadata.entrySet()) {
+            out.writeUTF(e.getKey());
+            out.writeUTF(e.getValue());
+        }
+        versionOut[0] = version;
+    }
+
+    static PlayerData read(String key, DataInputStream in) throws IOException {
+        int format = in.readInt();
+        if (format != FORMAT_VERSION) {
+            throw new IOException("unknown player data format " + format);
+        }
+        PlayerData data = new PlayerData(key, readNullableUTF(in), readNullableUTF(in));
+        data.hasPosition = in.readBoolean();
+        data.x = in.readDouble();
+        data.y = in.readDouble();
+        data.z = in.readDouble();
+        data.yaw = in.readFloat();
+        data.pitch = in.readFloat();
+        data.dimension = in.readInt();
+        data.inventory = readInts(in);
+        data.cursor = readInts(in);
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            data.metadata.put(in.readUTF(), in.readUTF());
+        }
+        return data;
+    }
+
+    static float fromAngleByte(int angle) {
+        float degrees = (angle & 0xFF) * 360.0f / 256.0f;
+        return degrees > 180.0f ? degrees - 360.0f : degrees;
+    }
+
+    private static byte toAngleByte(float degrees) {
+        return (byte) Math.round(degrees * 256.0f / 360.0f);
+    }
+
+    private static void writeNullableUTF(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readNullableUTF(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values != null ? values.length : -1);
+        if (values != null) {
+            for (int v : values) out.writeInt(v);
+        }
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        if (length > 4096) throw new IOException("corrupt array length " + length);
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) values[i] = in.readInt();
+        return values;
+    }
+}
@@ -0,0 +1,371 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.server.api.ServerProperties;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Per-player save files under {@code playerdata/}, one GZip file per
+ * player named after its save key (UUID in online mode, username
+ * otherwise).
+ *
+ * Players are loaded lazily the first time they're looked up (on join)
+ * and cached; a save writes only players whose data changed since their
+ * last write, each to its own file via temp file, fsync and atomic
+ * rename, so a crash mid-save leaves every file either old or new.
+ * Clean players nobody has touched for {@link #EVICT_AFTER_MS} drop out
+ * of the cache again.
+ *
+ * The first access migrates an old single-file {@code server-players.dat}
+ * (fixed-point positions only) into per-player files and renames it to
+ * {@code server-players.dat.migrated}.
+ */
+public class PlayerDataStore {
+
+    static final String DIRECTORY_NAME = "playerdata";
+    static final String LEGACY_FILE_NAME = "server-players.dat";
+    private static final String EXTENSION = ".dat";
+
+    /** Clean, untouched players are dropped from the cache after this long. */
+    static final long EVICT_AFTER_MS = 10 * 60_000L;
+
+    private final File directory;
+    private final File legacyFile;
+    private final ConcurrentHashMap<String, PlayerData> cache = new ConcurrentHashMap<>();
+    /**
+     * Held while a lookup takes and touches a cached player and while idle
+     * players are evicted, so an entry a caller just got can't be evicted
+     * out from under it.
+     */
+    private final Object cacheLock = new Object();
+    private volatile boolean migrated;
+
+    public PlayerDataStore(File dataDir) {
+        File dir = (dataDir != null) ? dataDir : new File(".");
+        this.directory = new File(dir, DIRECTORY_NAME);
+        this.legacyFile = new File(dir, LEGACY_FILE_NAME);
+    }
+
+    /** Save key for a player: UUID in online mode (when known), otherwise the username. */
+    public static String keyFor(String username, String uuid) {
+        return (ServerProperties.isOnlineMode() && uuid != null) ? uuid : username;
+    }
+
+    /**
+     * Look up saved data by username or UUID, loading it from disk if
+     * needed. In online mode the UUID is tried first, then the username
+     * (handles switching from offline to online mode); offline mode tries
+     * the other way round. Returns null if the player was never saved.
+     */
+    public PlayerData find(String username, String uuid) {
+        ensureMigrated();
+        String name = (username != null) ? username.trim() : null;
+        String first, second;
+        if (ServerProperties.isOnlineMode() && uuid != null) {
+            first = uuid;
+            second = name;
+        } else {
+            first = name;
+            second = uuid;
+        }
+        PlayerData data = first != null ? lookup(first) : null;
+        if (data == null && second != null) data = lookup(second);
+        return data;
+    }
+
+    /** Saved data for this player, created (empty, not yet dirty) if there is none. */
+    public PlayerData getOrCreate(String username, String uuid) {
+        String name = (username != null) ? username.trim() : null;
+        PlayerData data = find(name, uuid);
+        if (data == null) {
+            String key = keyFor(name, uuid);
+            synchronized (cacheLock) {
+                data = cache.computeIfAbsent(key, k -> new PlayerData(k, name, uuid));
+                data.touch();
+            }
+        }
+        data.setIdentity(name, uuid);
+        return data;
+    }
+
+    /** Drop a player's cached data and file, so they get a fresh spawn. */
+    public void forget(String key) {
+        ensureMigrated();
+        cache.remove(key);
+        File file = fileFor(key);
+        if (file.exists() && !file.delete()) {
+            System.err.println("[PlayerData] Could not delete " + file);
+        }
+    }
+
+    /**
+     * Copy an online player's position into their saved data. Marks the
+     * player dirty only if the position actually moved.
+     */
+    public void capture(ConnectedPlayer p) {
+        double x, y, z;
+        float yaw, pitch;
+        if (p.getDoubleX() != 0 || p.getDoubleY() != 0 || p.getDoubleZ() != 0) {
+            x = p.getDoubleX();
+            y = p.getDoubleY();
+            z = p.getDoubleZ();
+            yaw = p.getFloatYaw();
+            pitch = p.getFloatPitch();
+        } else {
+            // Classic/RubyDung clients only update the fixed-point fields
+            x = p.getX() / 32.0;
+            y = p.getY() / 32.0;
+            z = p.getZ() / 32.0;
+            yaw = PlayerData.fromAngleByte(p.getYaw());
+            pitch = PlayerData.fromAngleByte(p.getPitch());
+        }
+        if (DebugLog.pos() && DebugLog.forPlayer(p.getUsername())) {
+            DebugLog.log(DebugLog.POS, "save " + p.getUsername()
+                    + " d=(" + String.format("%.2f,%.2f,%.2f", x, y, z) + ")");
+        }
+        PlayerData data = getOrCreate(p.getUsername(), p.getUuid());
+        data.setPosition(x, y, z, yaw, pitch);
+        data.touch();
+    }
+
+    /** Number of cached players with unsaved changes. */
+    public int getDirtyCount() {
+        int dirty = 0;
+        for (PlayerData data : cache.values()) {
+            if (data.isDirty()) dirty++;
+        }
+        return dirty;
+    }
+
+    /**
+     * Write every dirty player. Serialization happens on the calling
+     * thread; the file writes go to {@code io} when given, otherwise they
+     * run inline. Also evicts clean players idle past {@link #EVICT_AFTER_MS}.
+     *
+     * @return number of players submitted for writing
+     */
+    public int saveDirty(ChunkIOThread io) {
+        ensureMigrated();
+        return writeDirty(io);
+    }
+
+    private int writeDirty(ChunkIOThread io) {
+        List<Runnable> writes = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (cacheLock) {
+            for (Iterator<PlayerData> it = cache.values().iterator(); it.hasNext(); ) {
+                PlayerData data = it.next();
+                if (!data.isDirty() && now - data.getLastTouched() > EVICT_AFTER_MS) it.remove();
+            }
+        }
+        for (PlayerData data : cache.values()) {
+            if (!data.isDirty()) continue;
+            long[] version = new long[1];
+            byte[] bytes;
+            try {
+                bytes = encode(data, version);
+            } catch (IOException e) {
+                System.err.println("[PlayerData] Failed to encode " + data.getKey() + ": " + e.getMessage());
+                continue;
+            }
+            long savedVersion = version[0];
+            writes.add(() -> {
+                if (writeFile(data.getKey(), bytes)) data.markSaved(savedVersion);
+            });
+        }
+        for (Runnable write : writes) {
+            if (io != null) {
+                io.submitWrite(write);
+            } else {
+                write.run();
+            }
+        }
+        return writes.size();
+    }
+
+    /** Capture {@code players} and write every dirty player synchronously (shutdown). */
+    public int saveAll(Collection<ConnectedPlayer> players) {
+        for (ConnectedPlayer p : players) capture(p);
+        return saveDirty(null);
+    }
+
+    /** Cached or loaded player for {@code key}, touched under {@link #cacheLock}. */
+    private PlayerData lookup(String key) {
+        synchronized (cacheLock) {
+            PlayerData data = cache.get(key);
+            if (data != null) {
+                data.touch();
+                return data;
+            }
+        }
+        File file = fileFor(key);
+        if (!file.isFile()) return null;
+        PlayerData loaded = load(key, file);
+        if (loaded == null) return null;
+        synchronized (cacheLock) {
+            PlayerData raced = cache.putIfAbsent(key, loaded);
+            PlayerData data = raced != null ? raced : loaded;
+            data.touch();
+            return data;
+        }
+    }
+
+    private PlayerData load(String key, File file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            PlayerData data = PlayerData.read(key, in);
+            data.markSaved(data.getVersion());
+            return data;
+        } catch (IOException e) {
+            System.err.println("[PlayerData] Failed to load " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static byte[] encode(PlayerData data, long[] version) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            data.write(out, version);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Temp file + fsync + atomic rename. */
+    private boolean writeFile(String key, byte[] bytes) {
+        File file = fileFor(key);
+        File tmp = new File(file.getPath() + ".tmp");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            System.err.println("[PlayerData] Could not create " + directory);
+            return false;
+        }
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(bytes);
+            out.getFD().sync();
+        } catch (IOException e) {
+            tmp.delete();
+            System.err.println("[PlayerData] Failed to save " + key + ": " + e.getMessage());
+            return false;
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // ATOMIC_MOVE not supported (e.g. cross-filesystem); try REPLACE_EXISTING alone
+            try {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e2) {
+                tmp.delete();
+                System.err.println("[PlayerData] Failed to rename " + tmp + " -> " + file + ": " + e2.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    File fileFor(String key) {
+        return new File(directory, fileName(key) + EXTENSION);
+    }
+
+    /**
+     * File name for a save key. Lowercase letters, digits, '_' and '-'
+     * pass through; uppercase becomes '^' + lowercase (so names differing
+     * only in case don't collide on case-insensitive file systems) and
+     * anything else becomes '~' + 4 hex digits.
+     */
+    static String fileName(String key) {
+        StringBuilder sb = new StringBuilder(key.length() + 8);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-') {
+                sb.append(c);
+            } else if (c >= 'A' && c <= 'Z') {
+                sb.append('^').append((char) (c + ('a' - 'A')));
+            } else {
+                sb.append('~').append(String.format("%04x", (int) c));
+            }
+        }
+        return sb.toString();
+    }
+
+    // === Migration from server-players.dat ===
+
+    private void ensureMigrated() {
+        if (!migrated) migrateLegacyFile();
+    }
+
+    private synchronized void migrateLegacyFile() {
+        if (migrated) return;
+        try {
+            if (legacyFile.isFile()) migrate();
+        } finally {
+            migrated = true;
+        }
+    }
+
+    private void migrate() {
+        int count = 0;
+        try (DataInputStream dis = new DataInputStream(new GZIPInputStream(new FileInputStream(legacyFile)))) {
+            int entries = dis.readInt();
+            for (int i = 0; i < entries; i++) {
+                String key = dis.readUTF();
+                short x = dis.readShort();
+                short y = dis.readShort();
+                short z = dis.readShort();
+                byte yaw = dis.readByte();
+                byte pitch = dis.readByte();
+                // Files written since the last load are newer than the legacy snapshot
+                if (cache.containsKey(key) || fileFor(key).exists()) continue;
+                PlayerData data = isUuid(key)
+                        ? new PlayerData(key, null, key)
+                        : new PlayerData(key, key, null);
+                data.setPosition(x / 32.0, y / 32.0, z / 32.0,
+                        PlayerData.fromAngleByte(yaw), PlayerData.fromAngleByte(pitch));
+                cache.put(key, data);
+                count++;
+            }
+        } catch (IOException e) {
+            System.err.println("[PlayerData] Failed to read " + legacyFile + ": " + e.getMessage());
+            return;
+        }
+
+        writeDirty(null);
+        if (getDirtyCount() > 0) {
+            System.err.println("[PlayerData] Some players from " + legacyFile
+                    + " could not be written; keeping it for the next start");
+            return;
+        }
+        File done = new File(legacyFile.getPath() + ".migrated");
+        if (!legacyFile.renameTo(done)) {
+            System.err.println("[PlayerData] Could not rename " + legacyFile + " -> " + done);
+        }
+        System.out.println("[PlayerData] Migrated " + count + " player(s) from " + legacyFile
+                + " to " + directory);
+    }
+
+    private static boolean isUuid(String key) {
+        if (key.length() != 36) return false;
+        try {
+            UUID.fromString(key);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import com.github.martinambrus.rdforward.protocol.packet.classic.OrientationUpda
 import com.github.martinambrus.rdforward.protocol.packet.classic.PlayerTeleportPacket;
 import com.github.martinambrus.rdforward.protocol.packet.classic.PositionOrientationUpdatePacket;
 import com.github.martinambrus.rdforward.protocol.packet.classic.PositionUpdatePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.SetBlockServerPacket;
 import com.github.martinambrus.rdforward.protocol.packet.classic.SpawnPlayerPacket;
 import com.github.martinambrus.rdforward.protocol.packet.netty.NettyChangeGameStatePacket;
 import com.github.martinambrus.rdforward.protocol.packet.netty.NettyPlayerPositionS2CPacket;
@@ -36,23 +37,29 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Manages connected players on the server.
  *
- * Handles player ID assignment (MC Classic uses signed byte IDs, 0-127 usable,
- * -1 reserved for "self" in spawn packets), join/leave lifecycle, and
- * broadcasting packets to all or specific players.
+ * Handles player ID assignment (server-wide ints, -1 reserved for "self" in
+ * spawn packets; Classic clients see them through a per-viewer
+ * {@link ClassicEntityWindow}), join/leave lifecycle, and broadcasting
+ * packets to all or specific players.
  *
  * Thread-safe: uses ConcurrentHashMap since Netty I/O threads and the
  * tick loop access this concurrently.
  */
 public class PlayerManager {
 
-    /** Hard ceiling for player IDs: MC Classic uses signed byte IDs (0-127). */
-    public static final int MAX_PLAYER_IDS = 128;
+    /**
+     * Hard ceiling for player IDs. Netty, Alpha, LCE, Bedrock and MCPE
+     * clients take int entity IDs; Classic clients see at most
+     * {@link ClassicEntityWindow#SIZE} of them at a time.
+     */
+    public static final int MAX_PLAYER_IDS = 4096;
 
     /** Configurable max players (set via ServerProperties). Capped at MAX_PLAYER_IDS. */
     private static volatile int maxPlayers = MAX_PLAYER_IDS;
@@ -78,7 +85,7 @@ public class PlayerManager {
     private final Map<Channel, ConnectedPlayer> playersByChannel = new ConcurrentHashMap<>();
 
     /** Map from player ID to player (for looking up by ID). */
-    private final Map<Byte, ConnectedPlayer> playersById = new ConcurrentHashMap<>();
+    private final Map<Integer, ConnectedPlayer> playersById = new ConcurrentHashMap<>();
 
     /** Tracks which IDs are in use. */
     private final boolean[] usedIds = new boolean[MAX_PLAYER_IDS];
@@ -94,7 +101,7 @@ public class PlayerManager {
      * Returns null if the server is full.
      */
     public synchronized ConnectedPlayer addPlayer(String username, String uuid, Channel channel, ProtocolVersion version) {
-        byte id = allocateId();
+        int id = allocateId();
         if (id == -1) {
             return null; // Server full
         }
@@ -124,6 +131,7 @@ public class PlayerManager {
             playersByChannel.put(channel, player);
         }
         playersById.put(id, player);
+        player.setRegistered(true);
         ClassicToNettyTranslator.registerPlayerUuid(username, uuid);
         return player;
     }
@@ -135,6 +143,7 @@ public class PlayerManager {
         ConnectedPlayer player = playersByChannel.remove(channel);
         if (player != null) {
             playersById.remove(player.getPlayerId());
+            player.setRegistered(false);
             usedIds[player.getPlayerId()] = false;
             ClassicToNettyTranslator.unregisterPlayerUuid(player.getUsername());
         }
@@ -144,9 +153,10 @@ public class PlayerManager {
      * Remove a player by their ID and free the ID.
      * Used for Bedrock players which don't have a Netty channel.
      */
-    public synchronized void removePlayerById(byte playerId) {
+    public synchronized void removePlayerById(int playerId) {
         ConnectedPlayer player = playersById.remove(playerId);
         if (player != null) {
+            player.setRegistered(false);
             if (player.getChannel() != null) {
                 playersByChannel.remove(player.getChannel());
             }
@@ -165,7 +175,7 @@ public class PlayerManager {
     /**
      * Look up a player by their ID.
      */
-    public ConnectedPlayer getPlayer(byte playerId) {
+    public ConnectedPlayer getPlayer(int playerId) {
         return playersById.get(playerId);
     }
 
@@ -208,7 +218,9 @@ public class PlayerManager {
      * Send a packet to all players except the specified one.
      * Uses write+flush batching for priority reordering.
      * Entity position packets are throttled for high-RTT players to
-     * prevent saturating their connection with updates they can't keep up with.
+     * prevent saturating their connection with updates they can't keep up with,
+     * unless their pipeline coalesces superseded updates instead (see
+     * {@link PrioritizingOutboundHandler}), which keeps their view exact.
      */
     public void broadcastPacketExcept(Packet packet, ConnectedPlayer exclude) {
         boolean isEntityPositionPacket = (packet instanceof PlayerTeleportPacket)
@@ -218,7 +230,7 @@ public class PlayerManager {
 
         for (ConnectedPlayer player : playersById.values()) {
             if (player == exclude) continue;
-            if (isEntityPositionPacket) {
+            if (isEntityPositionPacket && !player.coalescesEntityUpdates()) {
                 int tier = player.getRttTier();
                 if (tier == 1 && player.incrementAndGetThrottleCounter() % 2 != 0) continue;
                 else if (tier == 2 && player.incrementAndGetThrottleCounter() % 5 != 0) continue;
@@ -243,6 +255,93 @@ public class PlayerManager {
         }
     }
 
+    /**
+     * Write block updates for a set of applied changes grouped by chunk
+     * section (see {@link ServerWorld#applyBlockChanges}). Chunks flagged
+     * for a full resend are skipped for players that have them loaded,
+     * since the resend replaces the individual updates.
+     *
+     * Each section's changes go out as one {@link SectionBlockUpdate},
+     * which the Alpha, Netty and Bedrock translators turn into their
+     * multi-block packet once per protocol version. Clients with no such
+     * packet (Classic, MCPE, LCE) and single-change sections get one
+     * SetBlock per block. Does not flush.
+     */
+    public void broadcastBlockChanges(BlockChangeSet changes, ChunkManager chunkManager) {
+        int count = changes.size();
+        if (count == 0 || playersById.isEmpty()) return;
+        List<ConnectedPlayer> grouped = new ArrayList<>(playersById.size());
+        List<ConnectedPlayer> perBlock = new ArrayList<>(playersById.size());
+        int start = 0;
+        while (start < count) {
+            int chunkX = changes.getX(start) >> 4;
+            int chunkZ = changes.getZ(start) >> 4;
+            int end = start + 1;
+            while (end < count && changes.getX(end) >> 4 == chunkX && changes.getZ(end) >> 4 == chunkZ) end++;
+
+            grouped.clear();
+            perBlock.clear();
+            boolean resend = chunkManager != null && chunkManager.isBatchResendPending(chunkX, chunkZ);
+            for (ConnectedPlayer player : playersById.values()) {
+                if (resend && chunkManager.isChunkSentToPlayer(player, chunkX, chunkZ)) continue;
+                (receivesSectionUpdates(player) ? grouped : perBlock).add(player);
+            }
+            if (!grouped.isEmpty() || !perBlock.isEmpty()) {
+                int sectionStart = start;
+                while (sectionStart < end) {
+                    int sectionY = changes.getY(sectionStart) >> 4;
+                    int sectionEnd = sectionStart + 1;
+                    while (sectionEnd < end && changes.getY(sectionEnd) >> 4 == sectionY) sectionEnd++;
+                    if (sectionEnd - sectionStart > 1 && !grouped.isEmpty()) {
+                        SectionBlockUpdate update = toSectionUpdate(changes, sectionStart, sectionEnd);
+                        for (ConnectedPlayer player : grouped) {
+                            player.writeSectionUpdate(update);
+                        }
+                        writeSetBlocks(changes, sectionStart, sectionEnd, perBlock);
+                    } else {
+                        writeSetBlocks(changes, sectionStart, sectionEnd, grouped);
+                        writeSetBlocks(changes, sectionStart, sectionEnd, perBlock);
+                    }
+                    sectionStart = sectionEnd;
+                }
+            }
+            start = end;
+        }
+    }
+
+    /** Whether the player's translator understands {@link SectionBlockUpdate}. */
+    private static boolean receivesSectionUpdates(ConnectedPlayer player) {
+        if (player.getBedrockSession() != null) return true;
+        if (player.getMcpeSession() != null) return false;
+        ProtocolVersion version = player.getProtocolVersion();
+        return version != null && !version.isClassicFormat()
+                && version.getFamily() != ProtocolVersion.Family.LCE;
+    }
+
+    private static SectionBlockUpdate toSectionUpdate(BlockChangeSet changes, int start, int end) {
+        int n = end - start;
+        short[] positions = new short[n];
+        byte[] types = new byte[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = SectionBlockUpdate.position(
+                    changes.getX(start + i), changes.getY(start + i), changes.getZ(start + i));
+            types[i] = changes.getType(start + i);
+        }
+        return new SectionBlockUpdate(changes.getX(start) >> 4, changes.getY(start) >> 4,
+                changes.getZ(start) >> 4, positions, types);
+    }
+
+    private static void writeSetBlocks(BlockChangeSet changes, int start, int end, List<ConnectedPlayer> players) {
+        if (players.isEmpty()) return;
+        for (int i = start; i < end; i++) {
+            SetBlockServerPacket packet = new SetBlockServerPacket(
+                    changes.getX(i), changes.getY(i), changes.getZ(i), changes.getType(i));
+            for (ConnectedPlayer player : players) {
+                player.writePacket(packet);
+            }
+        }
+    }
+
     /**
      * Flush all buffered writes for all connected players.
      * Call once at the end of the tick loop to coalesce all
@@ -250,7 +349,19 @@ public class PlayerManager {
      */
     public void flushAll() {
         for (ConnectedPlayer player : playersById.values()) {
-            player.flushPackets();
+            player.flushQueued();
+        }
+    }
+
+    /**
+     * Re-pick the players each Classic client tracks: the nearest
+     * {@link ClassicEntityWindow#SIZE} once there are more than that.
+     * Called periodically by the tick loop; no-op for other clients.
+     */
+    public void refreshEntityWindows() {
+        Collection<ConnectedPlayer> players = playersById.values();
+        for (ConnectedPlayer player : players) {
+            player.refreshEntityWindow(players);
         }
     }
 
@@ -299,7 +410,7 @@ public class PlayerManager {
      * Broadcast a chat message to all players. Long messages are auto-split
      * into multiple chat packets so legacy clients don't disconnect.
      */
-    public void broadcastChat(byte senderId, String message) {
+    public void broadcastChat(int senderId, String message) {
         for (String chunk : splitChatMessage(message)) {
             broadcastPacket(new MessagePacket(senderId, chunk));
         }
@@ -312,7 +423,7 @@ public class PlayerManager {
      */
     public void sendChat(ConnectedPlayer player, String message) {
         for (String chunk : splitChatMessage(message)) {
-            player.sendPacket(new MessagePacket((byte) 0, chunk));
+            player.sendPacket(new MessagePacket(0, chunk));
         }
     }
 
@@ -518,7 +629,7 @@ public class PlayerManager {
         System.out.println("Kicking duplicate login for " + existing.getUsername());
         broadcastPlayerListRemove(existing);
         world.rememberPlayerPosition(existing);
-        broadcastChat((byte) 0, existing.getUsername() + " left the game");
+        broadcastChat(0, existing.getUsername() + " left the game");
         broadcastPlayerDespawn(existing);
 
         // Send disconnect reason then close. For TCP clients (Classic/Alpha),
@@ -537,6 +648,7 @@ public class PlayerManager {
             playersByChannel.remove(existing.getChannel());
         }
         playersById.remove(existing.getPlayerId());
+        existing.setRegistered(false);
         usedIds[existing.getPlayerId()] = false;
     }
 
@@ -554,7 +666,7 @@ public class PlayerManager {
 
         broadcastPlayerListRemove(existing);
         world.rememberPlayerPosition(existing);
-        broadcastChat((byte) 0, existing.getUsername() + " was kicked: " + reason);
+        broadcastChat(0, existing.getUsername() + " was kicked: " + reason);
         broadcastPlayerDespawn(existing);
 
         if (existing.getBedrockSession() != null) {
@@ -568,6 +680,7 @@ public class PlayerManager {
             playersByChannel.remove(existing.getChannel());
         }
         playersById.remove(existing.getPlayerId());
+        existing.setRegistered(false);
         usedIds[existing.getPlayerId()] = false;
         return true;
     }
@@ -602,14 +715,14 @@ public class PlayerManager {
         // updatePlayerChunks use the destination as the reference point.
         target.updatePositionDouble(x, eyeY, z, classicYaw, pitch);
 
-        // Pre-send a 3×3 ring of chunks around the destination synchronously
-        // so the client has terrain under their feet before the position snap.
-        chunkManager.preloadChunksForTeleport(target, x, z, 1);
+        // Pre-send a 3×3 ring of chunks around the destination so the client
+        // has terrain under their feet before the position snap.
+        CompletableFuture<Void> preloaded = chunkManager.preloadChunksForTeleport(target, x, z, 1);
 
-        // Schedule the position packet on the next event loop tick. This ensures
-        // the chunk data flushes to the wire first (Netty's channelReadComplete
-        // flush happens between ticks), so old clients have terrain before the
-        // camera snaps to the destination.
+        // Once the chunks are queued, schedule the position packet on the next
+        // event loop tick. This ensures the chunk data flushes to the wire first
+        // (Netty's channelReadComplete flush happens between ticks), so old
+        // clients have terrain before the camera snaps to the destination.
         double feetY = eyeY - PLAYER_EYE_HEIGHT;
         float alphaYaw = (classicYaw + 180.0f) % 360.0f;
         ProtocolVersion version = target.getProtocolVersion();
@@ -672,13 +785,17 @@ public class PlayerManager {
         };
 
         // For TCP clients, schedule on the next event loop tick so chunk data
-        // flushes before the position packet. For non-TCP clients, run inline.
+        // flushes before the position packet. For non-TCP clients, run inline
+        // (their chunks are sent synchronously, so the preload is already done).
+        // A failed preload still moves the player.
         Channel ch = target.getChannel();
-        if (ch != null && ch.eventLoop() != null) {
-            ch.eventLoop().execute(sendPositionAndFinish);
-        } else {
-            sendPositionAndFinish.run();
-        }
+        preloaded.whenComplete((ignored, error) -> {
+            if (ch != null && ch.eventLoop() != null) {
+                ch.eventLoop().execute(sendPositionAndFinish);
+            } else {
+                sendPositionAndFinish.run();
+            }
+        });
     }
 
     /**
@@ -775,14 +892,14 @@ public class PlayerManager {
     }
 
     /**
-     * Allocate the next available player ID (0-127).
+     * Allocate the lowest free player ID (0 to max-players - 1).
      * Returns -1 if all slots are taken.
      */
-    private byte allocateId() {
+    private int allocateId() {
         for (int i = 0; i < maxPlayers; i++) {
             if (!usedIds[i]) {
                 usedIds[i] = true;
-                return (byte) i;
+                return i;
             }
         }
         return -1;
@@ -0,0 +1,108 @@
+package com.github.martinambrus.rdforward.server;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+/**
+ * Token-bucket rate limit per source address prefix (/24 for IPv4, /64
+ * for IPv6 by default), in fixed memory.
+ *
+ * Buckets live in a fixed-size table indexed by a hash of the prefix, so
+ * a flood of spoofed source addresses can never grow it. Prefixes that
+ * collide on a slot simply share one budget; with a few thousand slots
+ * that only matters under exactly the kind of flood the limiter is for.
+ *
+ * Thread-safe; slots are guarded by striped locks.
+ */
+public final class PrefixRateLimiter {
+
+    private static final int STRIPES = 64;
+    /** Token amounts are kept in millitokens so fractional refill isn't lost. */
+    private static final long SCALE = 1000;
+
+    private final int mask;
+    private final long ratePerSecond;
+    private final long burstScaled;
+    /** Time an empty bucket takes to fill up. */
+    private final long fillNanos;
+    private final int ipv4Bits;
+    private final int ipv6Bits;
+
+    private final long[] tokens;
+    private final long[] lastRefill;
+    private final Object[] locks = new Object[STRIPES];
+
+    /**
+     * @param slots         bucket table size, rounded up to a power of two
+     * @param ratePerSecond sustained events per second per prefix
+     * @param burst         bucket capacity
+     * @param ipv4Bits      IPv4 prefix length buckets are keyed by
+     * @param ipv6Bits      IPv6 prefix length buckets are keyed by
+     */
+    public PrefixRateLimiter(int slots, int ratePerSecond, int burst, int ipv4Bits, int ipv6Bits) {
+        if (ratePerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("rate and burst must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(STRIPES, slots - 1) << 1);
+        this.mask = size - 1;
+        this.ratePerSecond = ratePerSecond;
+        this.burstScaled = burst * SCALE;
+        this.fillNanos = burstScaled * 1_000_000L / ratePerSecond;
+        this.ipv4Bits = Math.max(0, Math.min(32, ipv4Bits));
+        this.ipv6Bits = Math.max(0, Math.min(128, ipv6Bits));
+        this.tokens = new long[size];
+        this.lastRefill = new long[size];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public PrefixRateLimiter(int slots, int ratePerSecond, int burst) {
+        this(slots, ratePerSecond, burst, 24, 64);
+    }
+
+    public boolean tryAcquire(InetSocketAddress address) {
+        return tryAcquire(address.getAddress(), System.nanoTime());
+    }
+
+    /** Take one token from the bucket of {@code address}'s prefix, if there is one. */
+    public boolean tryAcquire(InetAddress address, long nowNanos) {
+        if (address == null) return true;
+        int slot = slotOf(address);
+        synchronized (locks[slot & (STRIPES - 1)]) {
+            long last = lastRefill[slot];
+            long available;
+            if (last == 0) {
+                available = burstScaled;
+            } else {
+                long elapsed = Math.max(0, nowNanos - last);
+                // elapsed (ns) * rate (/s) * SCALE / 1e9; long idle gaps just refill to the brim
+                long refill = elapsed >= fillNanos ? burstScaled : elapsed * ratePerSecond / 1_000_000L;
+                available = Math.min(burstScaled, tokens[slot] + refill);
+            }
+            lastRefill[slot] = nowNanos == 0 ? 1 : nowNanos;
+            if (available < SCALE) {
+                tokens[slot] = available;
+                return false;
+            }
+            tokens[slot] = available - SCALE;
+            return true;
+        }
+    }
+
+    int slotOf(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        int bits = address instanceof Inet4Address ? ipv4Bits : ipv6Bits;
+        int h = bytes.length;
+        for (int i = 0; i < bytes.length; i++) {
+            int keep = Math.max(0, Math.min(8, bits - i * 8));
+            int b = keep == 0 ? 0 : bytes[i] & (0xFF << (8 - keep)) & 0xFF;
+            h = h * 31 + b;
+        }
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+}
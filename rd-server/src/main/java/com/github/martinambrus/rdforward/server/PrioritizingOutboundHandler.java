@@ -1,12 +1,22 @@
 package com.github.martinambrus.rdforward.server;
 
+import com.github.martinambrus.rdforward.protocol.codec.PreEncodedFrame;
 import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.ChangeGameStatePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.DespawnPlayerPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.DespawnPlayerPacketV015a;
+import com.github.martinambrus.rdforward.protocol.packet.classic.OrientationUpdatePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.PlayerTeleportPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.PositionOrientationUpdatePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.PositionUpdatePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.SpawnPlayerPacket;
+import com.github.martinambrus.rdforward.protocol.packet.netty.NettyChangeGameStatePacket;
+import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelPromise;
+import io.netty.util.ReferenceCountUtil;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -16,77 +26,309 @@ import java.util.concurrent.ConcurrentHashMap;
  * packets like keep-alive and teleport corrections are sent first.
  *
  * Priority levels (lower = higher priority):
- *   0 - Critical: KeepAlive, Disconnect, LoginSuccess
+ *   0 - Critical: KeepAlive, Ping, Disconnect, LoginSuccess
  *   1 - Correction: PlayerPosition/teleport (self), TeleportConfirm
- *   2 - Confirmation: BlockChangedAck, AcknowledgePlayerDigging, BlockChange
- *   3 - Entity: EntityRelativeMove, EntityTeleport, SpawnPlayer, DestroyEntities
- *   4 - Bulk: MapChunk, UpdateLight, UpdateTags
+ *   2 - Confirmation: BlockChangedAck, AcknowledgePlayerDigging, BlockChange,
+ *       SectionBlockUpdate
+ *   3 - Default: SpawnPlayer, DespawnPlayer, player list, chat, ...
+ *   4 - Motion: entity moves/looks/teleports, time of day, weather
+ *   5 - Bulk: MapChunk, UpdateLight, UpdateTags, pre-encoded chunk frames
  *
- * Within the same priority level, packets are written in FIFO order.
+ * Each level is a ring buffer of message/promise slots reused across
+ * flushes, so queueing a write allocates nothing and a flush walks the
+ * rings in order instead of sorting. Within a level, packets are written
+ * in FIFO order. Motion goes after Default so an entity is always spawned
+ * before it moves.
+ *
+ * Motion packets only describe current state, so a newer one supersedes
+ * an unsent older one for the same subject: a second update for entity X
+ * replaces the queued one in place, as does a newer time of day or rain
+ * state. The handler sits on the Classic side of the version translator
+ * and follows each entity's absolute position through spawn, teleport and
+ * relative move packets, so a relative move that lands on a queued one is
+ * folded into a single PlayerTeleport to the current position rather than
+ * dropped (which would leave the client drifting).
+ *
+ * While the channel is not writable, flushes hold Motion back instead of
+ * pushing it into Netty's outbound buffer; it keeps coalescing and goes
+ * out once the channel drains. A client that falls far behind costs one
+ * queued update per entity, not one per tick. Each ring is capped at
+ * {@link #MAX_RING_SIZE}; when one fills up, everything queued is written
+ * through to the next handler.
  */
-public class PrioritizingOutboundHandler extends ChannelOutboundHandlerAdapter {
+public class PrioritizingOutboundHandler extends ChannelDuplexHandler {
 
     private static final int PRIORITY_CRITICAL = 0;
     private static final int PRIORITY_CORRECTION = 1;
     private static final int PRIORITY_CONFIRMATION = 2;
-    private static final int PRIORITY_ENTITY = 3;
-    private static final int PRIORITY_BULK = 4;
     private static final int PRIORITY_DEFAULT = 3;
+    private static final int PRIORITY_MOTION = 4;
+    private static final int PRIORITY_BULK = 5;
+    private static final int PRIORITY_COUNT = 6;
+
+    private static final int INITIAL_RING_SIZE = 16;
+    static final int MAX_RING_SIZE = 4096;
+    private static final int INITIAL_ENTITY_CAPACITY = 128;
+
+    // Coalescing keys: kind in the high word, subject in the low word (0 = none)
+    private static final long KEY_ENTITY = 1L << 32;
+    private static final long KEY_TIME = 2L << 32;
+    private static final long KEY_WEATHER = 3L << 32;
 
     /** Cache classification result per packet class to avoid repeated getSimpleName() allocations. */
     private static final ConcurrentHashMap<Class<?>, Integer> classifyCache = new ConcurrentHashMap<>();
 
-    private final List<PendingWrite> buffer = new ArrayList<>();
-    private int sequence = 0;
+    private final Ring[] rings = new Ring[PRIORITY_COUNT];
+    /** Coalescing key -> sequence of the queued Motion slot carrying it. May hold stale entries. */
+    private final KeyIndex queuedMotion = new KeyIndex();
 
-    private static final class PendingWrite implements Comparable<PendingWrite> {
-        final Object msg;
-        final ChannelPromise promise;
-        final int priority;
-        final int order;
+    // Last absolute state sent for each entity, Classic fixed-point, indexed by player ID
+    private boolean[] entityKnown = new boolean[INITIAL_ENTITY_CAPACITY];
+    private short[] entityX = new short[INITIAL_ENTITY_CAPACITY];
+    private short[] entityY = new short[INITIAL_ENTITY_CAPACITY];
+    private short[] entityZ = new short[INITIAL_ENTITY_CAPACITY];
+    private byte[] entityYaw = new byte[INITIAL_ENTITY_CAPACITY];
+    private byte[] entityPitch = new byte[INITIAL_ENTITY_CAPACITY];
 
-        PendingWrite(Object msg, ChannelPromise promise, int priority, int order) {
-            this.msg = msg;
-            this.promise = promise;
-            this.priority = priority;
-            this.order = order;
-        }
+    private long coalesced;
 
-        @Override
-        public int compareTo(PendingWrite other) {
-            int cmp = Integer.compare(this.priority, other.priority);
-            return cmp != 0 ? cmp : Integer.compare(this.order, other.order);
+    public PrioritizingOutboundHandler() {
+        for (int i = 0; i < PRIORITY_COUNT; i++) {
+            rings[i] = new Ring();
         }
     }
 
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
         int priority = classify(msg);
-        buffer.add(new PendingWrite(msg, promise, priority, sequence++));
+        trackEntity(msg);
+        if (priority == PRIORITY_MOTION) {
+            queueMotion(ctx, (Packet) msg, promise);
+        } else {
+            enqueue(ctx, priority, msg, promise, 0);
+        }
     }
 
     @Override
-    public void flush(ChannelHandlerContext ctx) throws Exception {
-        if (buffer.isEmpty()) {
-            ctx.flush();
-            return;
+    public void flush(ChannelHandlerContext ctx) {
+        writeQueued(ctx, ctx.channel().isWritable());
+        ctx.flush();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        // Motion held back by an earlier flush can go now
+        if (ctx.channel().isWritable() && rings[PRIORITY_MOTION].size() > 0) {
+            flush(ctx);
         }
+        ctx.fireChannelWritabilityChanged();
+    }
 
-        if (buffer.size() > 1) {
-            buffer.sort(null); // natural ordering via Comparable
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        for (Ring ring : rings) {
+            ring.discard();
         }
+        queuedMotion.clear();
+    }
 
-        for (PendingWrite pw : buffer) {
-            ctx.write(pw.msg, pw.promise);
+    /** Number of motion packets superseded by a newer one before they were sent. */
+    long getCoalescedCount() {
+        return coalesced;
+    }
+
+    private long enqueue(ChannelHandlerContext ctx, int priority, Object msg, ChannelPromise promise, long key) {
+        Ring ring = rings[priority];
+        if (ring.size() >= MAX_RING_SIZE) {
+            // Too far behind to keep reordering: hand everything to Netty
+            writeQueued(ctx, true);
         }
-        buffer.clear();
-        ctx.flush();
+        return ring.add(msg, promise, key);
+    }
+
+    private void writeQueued(ChannelHandlerContext ctx, boolean includeMotion) {
+        for (int p = 0; p < PRIORITY_COUNT; p++) {
+            if (p != PRIORITY_MOTION || includeMotion) {
+                rings[p].drainTo(ctx);
+            }
+        }
+        if (includeMotion) {
+            queuedMotion.clear();
+        }
+    }
+
+    // --- Motion coalescing ---
+
+    private void queueMotion(ChannelHandlerContext ctx, Packet packet, ChannelPromise promise) {
+        long key = motionKey(packet);
+        Ring ring = rings[PRIORITY_MOTION];
+        long seq = queuedMotion.get(key);
+        if (seq >= 0 && ring.holds(seq, key)) {
+            Packet merged = merge((Packet) ring.message(seq), packet);
+            if (merged != null) {
+                ring.replace(seq, merged, promise);
+                coalesced++;
+                return;
+            }
+        }
+        queuedMotion.put(key, enqueue(ctx, PRIORITY_MOTION, packet, promise, key));
+    }
+
+    /**
+     * Combine a queued motion packet with a newer one for the same key.
+     * Returns null if they can't be combined (relative moves of an entity
+     * whose absolute position is unknown).
+     */
+    private Packet merge(Packet queued, Packet newer) {
+        if (!isEntityMotion(newer)) {
+            return newer; // time of day, weather: last value wins
+        }
+        if (newer instanceof PlayerTeleportPacket
+                || (newer instanceof OrientationUpdatePacket && queued instanceof OrientationUpdatePacket)) {
+            return newer; // absolute, covers everything the queued one said
+        }
+        int slot = entityId(newer);
+        if (!isKnown(slot)) {
+            return null;
+        }
+        return new PlayerTeleportPacket(entityId(newer), entityX[slot], entityY[slot], entityZ[slot],
+                entityYaw[slot] & 0xFF, entityPitch[slot] & 0xFF);
+    }
+
+    /** Follow each entity's absolute position through the packets written for it. */
+    private void trackEntity(Object msg) {
+        if (msg instanceof SpawnPlayerPacket sp) {
+            if (sp.getPlayerId() == SpawnPlayerPacket.SELF_ID) return;
+            cancelMotion(sp.getPlayerId());
+            setEntity(sp.getPlayerId(), sp.getX(), sp.getY(), sp.getZ(), sp.getYaw(), sp.getPitch());
+        } else if (msg instanceof DespawnPlayerPacket dp) {
+            forgetEntity(dp.getPlayerId());
+        } else if (msg instanceof DespawnPlayerPacketV015a dp) {
+            forgetEntity(dp.getPlayerId());
+        } else if (msg instanceof PlayerTeleportPacket pt) {
+            if (pt.getPlayerId() == -1) return;
+            setEntity(pt.getPlayerId(), pt.getX(), pt.getY(), pt.getZ(), pt.getYaw(), pt.getPitch());
+        } else if (msg instanceof PositionOrientationUpdatePacket pou) {
+            int slot = pou.getPlayerId();
+            if (!isKnown(slot)) return;
+            moveEntity(slot, pou.getChangeX(), pou.getChangeY(), pou.getChangeZ());
+            entityYaw[slot] = (byte) pou.getYaw();
+            entityPitch[slot] = (byte) pou.getPitch();
+        } else if (msg instanceof PositionUpdatePacket pu) {
+            int slot = pu.getPlayerId();
+            if (!isKnown(slot)) return;
+            moveEntity(slot, pu.getChangeX(), pu.getChangeY(), pu.getChangeZ());
+        } else if (msg instanceof OrientationUpdatePacket ou) {
+            int slot = ou.getPlayerId();
+            if (!isKnown(slot)) return;
+            entityYaw[slot] = (byte) ou.getYaw();
+            entityPitch[slot] = (byte) ou.getPitch();
+        }
+    }
+
+    private boolean isKnown(int playerId) {
+        return playerId >= 0 && playerId < entityKnown.length && entityKnown[playerId];
+    }
+
+    private void forgetEntity(int playerId) {
+        cancelMotion(playerId);
+        if (isKnown(playerId)) entityKnown[playerId] = false;
+    }
+
+    private void setEntity(int playerId, short x, short y, short z, int yaw, int pitch) {
+        if (playerId < 0) return;
+        if (playerId >= entityKnown.length) {
+            int capacity = Math.max(playerId + 1, entityKnown.length * 2);
+            entityKnown = Arrays.copyOf(entityKnown, capacity);
+            entityX = Arrays.copyOf(entityX, capacity);
+            entityY = Arrays.copyOf(entityY, capacity);
+            entityZ = Arrays.copyOf(entityZ, capacity);
+            entityYaw = Arrays.copyOf(entityYaw, capacity);
+            entityPitch = Arrays.copyOf(entityPitch, capacity);
+        }
+        int slot = playerId;
+        entityKnown[slot] = true;
+        entityX[slot] = x;
+        entityY[slot] = y;
+        entityZ[slot] = z;
+        entityYaw[slot] = (byte) yaw;
+        entityPitch[slot] = (byte) pitch;
+    }
+
+    private void moveEntity(int slot, int dx, int dy, int dz) {
+        entityX[slot] += dx;
+        entityY[slot] += dy;
+        entityZ[slot] += dz;
+    }
+
+    /** Drop queued motion for an entity that is being despawned or respawned. */
+    private void cancelMotion(int playerId) {
+        rings[PRIORITY_MOTION].cancel(KEY_ENTITY | (playerId & 0xFFFFFFFFL));
+    }
+
+    private static boolean isEntityMotion(Packet packet) {
+        return packet instanceof PlayerTeleportPacket || packet instanceof PositionOrientationUpdatePacket
+                || packet instanceof PositionUpdatePacket || packet instanceof OrientationUpdatePacket;
+    }
+
+    private static int entityId(Packet packet) {
+        if (packet instanceof PlayerTeleportPacket pt) return pt.getPlayerId();
+        if (packet instanceof PositionOrientationUpdatePacket pou) return pou.getPlayerId();
+        if (packet instanceof PositionUpdatePacket pu) return pu.getPlayerId();
+        return ((OrientationUpdatePacket) packet).getPlayerId();
+    }
+
+    private static long motionKey(Packet packet) {
+        if (isEntityMotion(packet)) {
+            return KEY_ENTITY | (entityId(packet) & 0xFFFFFFFFL);
+        }
+        if (packet instanceof ChangeGameStatePacket cgs) {
+            return KEY_WEATHER | weatherSubject(cgs.getReason(), false);
+        }
+        if (packet instanceof NettyChangeGameStatePacket ncgs) {
+            return KEY_WEATHER | weatherSubject(ncgs.getReason(), true);
+        }
+        return KEY_TIME;
     }
 
+    /**
+     * Which weather value a game state change sets, or -1 if it isn't
+     * weather. Begin and end rain set the same value.
+     */
+    private static int weatherSubject(int reason, boolean netty) {
+        if (reason == ChangeGameStatePacket.BEGIN_RAIN || reason == ChangeGameStatePacket.END_RAIN) {
+            return 1;
+        }
+        if (netty && (reason == NettyChangeGameStatePacket.RAIN_LEVEL
+                || reason == NettyChangeGameStatePacket.THUNDER_LEVEL)) {
+            return reason;
+        }
+        return -1;
+    }
+
+    // --- Classification ---
+
     private static int classify(Object msg) {
+        if (msg instanceof PreEncodedFrame) {
+            // Cached chunk data; must stay ordered with ChunkBatchStart/Finished
+            return PRIORITY_BULK;
+        }
+        if (msg instanceof SectionBlockUpdate) {
+            return PRIORITY_CONFIRMATION;
+        }
         if (!(msg instanceof Packet)) {
             return PRIORITY_DEFAULT;
         }
+        // Classes whose priority depends on their content
+        if (msg instanceof PlayerTeleportPacket pt) {
+            return pt.getPlayerId() == -1 ? PRIORITY_CORRECTION : PRIORITY_MOTION;
+        }
+        if (msg instanceof ChangeGameStatePacket cgs) {
+            return weatherSubject(cgs.getReason(), false) >= 0 ? PRIORITY_MOTION : PRIORITY_DEFAULT;
+        }
+        if (msg instanceof NettyChangeGameStatePacket ncgs) {
+            return weatherSubject(ncgs.getReason(), true) >= 0 ? PRIORITY_MOTION : PRIORITY_DEFAULT;
+        }
         return classifyCache.computeIfAbsent(msg.getClass(), PrioritizingOutboundHandler::classifyByName);
     }
 
@@ -94,7 +336,7 @@ public class PrioritizingOutboundHandler extends ChannelOutboundHandlerAdapter {
         String name = clazz.getSimpleName();
 
         // Critical: keep-alive, disconnect, login
-        if (name.startsWith("KeepAlive")
+        if (name.startsWith("KeepAlive") || name.equals("PingPacket")
                 || name.startsWith("Disconnect") || name.startsWith("NettyDisconnect")
                 || name.startsWith("LoginDisconnect") || name.startsWith("LoginSuccess")) {
             return PRIORITY_CRITICAL;
@@ -115,6 +357,13 @@ public class PrioritizingOutboundHandler extends ChannelOutboundHandlerAdapter {
             return PRIORITY_CONFIRMATION;
         }
 
+        // Motion: Classic entity moves (before translation), time of day
+        if (name.equals("PositionOrientationUpdatePacket") || name.equals("PositionUpdatePacket")
+                || name.equals("OrientationUpdatePacket")
+                || name.startsWith("TimeUpdate") || name.startsWith("NettyTimeUpdate")) {
+            return PRIORITY_MOTION;
+        }
+
         // Bulk: chunks, light, tags
         if (name.startsWith("MapChunk") || name.startsWith("UpdateLight")
                 || name.startsWith("UpdateTags") || name.startsWith("ChunkBatch")
@@ -123,7 +372,167 @@ public class PrioritizingOutboundHandler extends ChannelOutboundHandlerAdapter {
             return PRIORITY_BULK;
         }
 
-        // Everything else: entity updates, chat, etc.
+        // Everything else: spawns, chat, etc.
         return PRIORITY_DEFAULT;
     }
+
+    /**
+     * FIFO of queued writes addressed by ever-increasing sequence numbers,
+     * so a slot can be found again (and checked for reuse) after later
+     * writes. Grows by doubling and keeps its arrays between flushes.
+     */
+    private static final class Ring {
+        private Object[] messages = new Object[INITIAL_RING_SIZE];
+        private ChannelPromise[] promises = new ChannelPromise[INITIAL_RING_SIZE];
+        private long[] keys = new long[INITIAL_RING_SIZE];
+        private long head;
+        private long tail;
+
+        int size() {
+            return (int) (tail - head);
+        }
+
+        long add(Object msg, ChannelPromise promise, long key) {
+            if (size() == messages.length) {
+                grow();
+            }
+            int i = slot(tail);
+            messages[i] = msg;
+            promises[i] = promise;
+            keys[i] = key;
+            return tail++;
+        }
+
+        /** Whether the write at {@code seq} is still queued and carries {@code key}. */
+        boolean holds(long seq, long key) {
+            return seq >= head && seq < tail && keys[slot(seq)] == key;
+        }
+
+        Object message(long seq) {
+            return messages[slot(seq)];
+        }
+
+        /** Swap in a superseding message; the superseded write counts as done. */
+        void replace(long seq, Object msg, ChannelPromise promise) {
+            int i = slot(seq);
+            promises[i].trySuccess();
+            messages[i] = msg;
+            promises[i] = promise;
+        }
+
+        /** Remove every queued write carrying {@code key}. */
+        void cancel(long key) {
+            for (long seq = head; seq < tail; seq++) {
+                int i = slot(seq);
+                if (keys[i] == key) {
+                    promises[i].trySuccess();
+                    messages[i] = null;
+                    promises[i] = null;
+                    keys[i] = 0;
+                }
+            }
+        }
+
+        void drainTo(ChannelHandlerContext ctx) {
+            while (head < tail) {
+                int i = slot(head++);
+                Object msg = messages[i];
+                ChannelPromise promise = promises[i];
+                messages[i] = null;
+                promises[i] = null;
+                keys[i] = 0;
+                if (msg != null) {
+                    ctx.write(msg, promise);
+                }
+            }
+        }
+
+        void discard() {
+            while (head < tail) {
+                int i = slot(head++);
+                if (messages[i] != null) {
+                    ReferenceCountUtil.release(messages[i]);
+                    if (!promises[i].isVoid()) {
+                        promises[i].tryFailure(new IllegalStateException("Channel pipeline torn down"));
+                    }
+                }
+                messages[i] = null;
+                promises[i] = null;
+                keys[i] = 0;
+            }
+        }
+
+        private int slot(long seq) {
+            return (int) seq & (messages.length - 1);
+        }
+
+        private void grow() {
+            int capacity = messages.length << 1;
+            Object[] newMessages = new Object[capacity];
+            ChannelPromise[] newPromises = new ChannelPromise[capacity];
+            long[] newKeys = new long[capacity];
+            for (long seq = head; seq < tail; seq++) {
+                int from = slot(seq);
+                int to = (int) seq & (capacity - 1);
+                newMessages[to] = messages[from];
+                newPromises[to] = promises[from];
+                newKeys[to] = keys[from];
+            }
+            messages = newMessages;
+            promises = newPromises;
+            keys = newKeys;
+        }
+    }
+
+    /** Open-addressing long -> long map; cleared whenever Motion drains. */
+    private static final class KeyIndex {
+        private long[] keys = new long[64];
+        private long[] values = new long[64];
+        private int size;
+
+        long get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            return -1;
+        }
+
+        void put(long key, long value) {
+            if ((size + 1) * 2 > keys.length) {
+                rehash(keys.length << 1);
+            }
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0) size++;
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        void clear() {
+            if (size > 0) {
+                Arrays.fill(keys, 0);
+                size = 0;
+            }
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[capacity];
+            values = new long[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
 }
@@ -16,6 +16,7 @@ import com.github.martinambrus.rdforward.server.eaglercraft.EaglerCraftPipelineC
 import com.github.martinambrus.rdforward.server.lce.LCEConnectionHandler;
 import com.github.martinambrus.rdforward.server.lce.ClassicToLCETranslator;
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelPipeline;
@@ -23,56 +24,97 @@ import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
 import io.netty.handler.flush.FlushConsolidationHandler;
 
+import java.util.Locale;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Detects whether a connecting client uses the Nati-framed protocol
- * (our custom client) or the raw MC Alpha protocol (real MC client).
+ * Detects which protocol a connecting client speaks and rebuilds the
+ * pipeline for it.
  *
- * Inserted first in the pipeline, before the decoder. On the first
- * {@code channelRead}, peeks at the first byte:
- * - 0x02 (Alpha Handshake): reconfigure pipeline for raw Alpha protocol
- * - Anything else: keep the existing Nati-framed pipeline
+ * Inserted first in the pipeline, before the decoder. Incoming bytes are
+ * classified by {@link ProtocolSniffer}; while the verdict needs more
+ * bytes they are held here. Then the pipeline is reconfigured for the
+ * detected family, this handler removes itself and the buffered bytes
+ * are re-fired from the head so the correct decoder processes them.
  *
- * After detection, removes itself from the pipeline and re-fires the
- * buffered ByteBuf so the correct decoder processes it.
+ * LCE clients send nothing until the server sends their small ID, so on
+ * a shared port they are recognized by silence after
+ * {@link ServerProperties#getLceDetectDelayMs()}. A port dedicated to one
+ * family (see {@link ServerProperties#getDedicatedPorts()}) skips the
+ * sniffing and the silence window.
  */
 public class ProtocolDetectionHandler extends ChannelInboundHandlerAdapter {
 
     /** LCE small ID counter — assigns unique IDs to LCE clients (0-254). */
     private static final AtomicInteger lceSmallIdCounter = new AtomicInteger(0);
 
-    /** How long to wait (ms) for client data before assuming LCE (server-sends-first). */
-    private static final int LCE_DETECT_DELAY_MS = 300;
+    private static final ProtocolSniffer SNIFFER = ProtocolSniffer.standard();
 
     private final ProtocolVersion serverVersion;
     private final ServerWorld world;
     private final PlayerManager playerManager;
     private final ChunkManager chunkManager;
+    /** Family served by a dedicated port, or null to sniff. */
+    private final ProtocolSniffer.Family dedicatedFamily;
 
     private volatile boolean dataReceived = false;
     private ScheduledFuture<?> lceDetectTask;
+    /** Bytes received while the sniffer needs more; released if the channel closes first. */
+    private ByteBuf buffered;
 
     public ProtocolDetectionHandler(ProtocolVersion serverVersion, ServerWorld world,
                                     PlayerManager playerManager, ChunkManager chunkManager) {
+        this(serverVersion, world, playerManager, chunkManager, null);
+    }
+
+    public ProtocolDetectionHandler(ProtocolVersion serverVersion, ServerWorld world,
+                                    PlayerManager playerManager, ChunkManager chunkManager,
+                                    ProtocolSniffer.Family dedicatedFamily) {
         this.serverVersion = serverVersion;
         this.world = world;
         this.playerManager = playerManager;
         this.chunkManager = chunkManager;
+        this.dedicatedFamily = dedicatedFamily;
     }
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         super.channelActive(ctx);
+        if (dedicatedFamily == ProtocolSniffer.Family.LCE) {
+            configureLCEPipeline(ctx);
+            return;
+        }
+        if (dedicatedFamily != null) {
+            return;
+        }
         // Schedule LCE detection: if no data arrives within the delay,
         // assume it's an LCE client (which waits for server to send a small ID first).
+        int delayMs = ServerProperties.getLceDetectDelayMs();
+        if (delayMs > 0) {
+            scheduleLceDetect(ctx, delayMs, true);
+        }
+    }
+
+    /**
+     * If the event loop stalled so long that the timer fires more than a
+     * whole delay late, the client's first bytes may still be unread in
+     * the socket, so give it one more window before assuming LCE.
+     */
+    private void scheduleLceDetect(ChannelHandlerContext ctx, int delayMs, boolean mayRearm) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
         lceDetectTask = ctx.executor().schedule(() -> {
-            if (!dataReceived && ctx.channel().isActive()) {
-                configureLCEPipeline(ctx);
+            if (dataReceived || !ctx.channel().isActive()) {
+                return;
             }
-        }, LCE_DETECT_DELAY_MS, TimeUnit.MILLISECONDS);
+            long lateMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - deadline);
+            if (mayRearm && lateMs > delayMs) {
+                scheduleLceDetect(ctx, delayMs, false);
+                return;
+            }
+            configureLCEPipeline(ctx);
+        }, delayMs, TimeUnit.MILLISECONDS);
     }
 
     private void configureLCEPipeline(ChannelHandlerContext ctx) {
@@ -86,9 +128,8 @@ public class ProtocolDetectionHandler extends ChannelInboundHandlerAdapter {
         ctx.writeAndFlush(idBuf);
 
         // LCE uses 4-byte big-endian length-prefixed framing
-        pipeline.replace("decoder", "decoder",
-                new LengthFieldBasedFrameDecoder(4 * 1024 * 1024, 0, 4, 0, 4));
-        pipeline.replace("encoder", "encoder", new LengthFieldPrepender(4));
+        installCodecs(pipeline, new LengthFieldBasedFrameDecoder(4 * 1024 * 1024, 0, 4, 0, 4),
+                new LengthFieldPrepender(4));
 
         // Add packet-level codec after frame decoder (reads packet ID + fields from frame)
         RawPacketDecoder packetDecoder = new RawPacketDecoder(
@@ -102,16 +143,15 @@ public class ProtocolDetectionHandler extends ChannelInboundHandlerAdapter {
         packetEncoder.setUseString16(true);
         pipeline.addAfter("encoder", "packetEncoder", packetEncoder);
 
-        pipeline.addBefore("decoder", "flushConsolidation",
-                new FlushConsolidationHandler(256, true));
-        pipeline.addAfter("packetEncoder", "prioritizer", new PrioritizingOutboundHandler());
-        pipeline.addAfter("prioritizer", "lceTranslator", new ClassicToLCETranslator());
+        pipeline.addAfter("packetEncoder", "lceTranslator", new ClassicToLCETranslator());
+        pipeline.addAfter("lceTranslator", "prioritizer", new PrioritizingOutboundHandler());
         pipeline.replace("handler", "handler",
                 new LCEConnectionHandler(serverVersion, world, playerManager, chunkManager));
 
         pipeline.remove(this);
 
-        System.out.println("Detected LCE client (no initial data, sent small ID "
+        String how = dedicatedFamily == ProtocolSniffer.Family.LCE ? "dedicated port" : "no initial data";
+        System.out.println("Detected LCE client (" + how + ", sent small ID "
                 + smallId + "), pipeline reconfigured");
     }
 
@@ -129,227 +169,266 @@ public class ProtocolDetectionHandler extends ChannelInboundHandlerAdapter {
         }
 
         ByteBuf buf = (ByteBuf) msg;
+        if (buffered != null) {
+            buffered.writeBytes(buf);
+            buf.release();
+            buf = buffered;
+            buffered = null;
+        }
         if (buf.readableBytes() < 1) {
-            super.channelRead(ctx, msg);
+            super.channelRead(ctx, buf);
             return;
         }
 
-        // Peek at the first byte without consuming it
-        int firstByte = buf.getUnsignedByte(buf.readerIndex());
-
-        if (firstByte == 0xFE) {
-            // Server list ping. Three formats exist:
-            // - Old (Beta 1.8 - 1.3.2): client sends 0xFE alone.
-            //   Response: 0xFF + String16("motd§playerCount§maxPlayers")
-            // - New (1.4.2 - 1.5.2): client sends 0xFE 0x01 (no payload).
-            //   Response: 0xFF + String16("§1\0protocol\0version\0motd\0players\0max")
-            // - New with MC|PingHost (1.6+): client sends 0xFE 0x01 0xFA + payload
-            //   containing the client's protocol version. Response same as above,
-            //   but we mirror the client's version so every client sees "compatible".
-            boolean newPing = buf.readableBytes() >= 2
-                    && buf.getUnsignedByte(buf.readerIndex() + 1) == 0x01;
-
-            // Try to parse client protocol version from MC|PingHost (1.6+ only).
-            int clientProtocol = -1;
-            if (newPing && buf.readableBytes() > 2
-                    && buf.getUnsignedByte(buf.readerIndex() + 2) == 0xFA) {
-                int savedIndex = buf.readerIndex();
-                try {
-                    buf.skipBytes(3); // FE 01 FA
-                    int channelNameLen = buf.readUnsignedShort();
-                    buf.skipBytes(channelNameLen * 2); // UTF-16BE channel name
-                    buf.readShort(); // data length
-                    clientProtocol = buf.readUnsignedByte();
-                } catch (Exception e) {
-                    // Buffer underflow — fall back to default
-                }
-                buf.readerIndex(savedIndex);
-            }
+        ProtocolSniffer.Verdict verdict = dedicatedFamily != null
+                ? SNIFFER.sniffAs(dedicatedFamily, buf) : SNIFFER.sniff(buf);
+        if (verdict.needsMore()) {
+            // The first packet was split; hold a copy until the next read
+            // rather than pinning the pooled read buffer.
+            buffered = ctx.alloc().buffer(Math.max(ProtocolSniffer.MAX_SNIFF_BYTES, buf.readableBytes()));
+            buffered.writeBytes(buf);
             buf.release();
+            return;
+        }
+        if (verdict.confidence() != ProtocolSniffer.Confidence.CERTAIN) {
+            System.out.println("[Detect] " + ctx.channel().remoteAddress() + " treated as "
+                    + verdict.family().configName() + " (" + verdict.confidence().name().toLowerCase(Locale.ROOT)
+                    + " match on " + buf.readableBytes() + " bytes)");
+        }
 
-            String response;
-            if (newPing) {
-                // Mirror the client's protocol version so it sees "compatible".
-                // 1.6+ sends MC|PingHost with the client's version.
-                // 1.4.2-1.5.2 sends no MC|PingHost — we can't detect the exact
-                // version, so default to 51 (1.4.7), the highest 1.4.x protocol.
-                // Non-matching versions will show incompatible but can use
-                // Direct Connect.
-                int reportProtocol = clientProtocol > 0 ? clientProtocol : 51;
-                String reportVersion = clientProtocol > 0
-                        ? pingVersionString(clientProtocol) : "1.4.7";
-                // For 1.4.2-1.5.2 (no MC|PingHost), show hint about Direct Connect
-                // since some versions in this range will see "incompatible".
-                String motd = clientProtocol > 0
-                        ? ServerProperties.getMotd()
-                        : "Incompatible? Use Direct Connect";
-                // Strip null chars so MOTD can't break the \u0000-delimited response
-                motd = motd.replace("\u0000", "");
-                response = "\u00A71\u0000"
-                        + reportProtocol + "\u0000"
-                        + reportVersion + "\u0000"
-                        + motd + "\u0000"
-                        + playerManager.getPlayerCount() + "\u0000"
-                        + PlayerManager.getMaxPlayers();
-            } else {
-                // Old ping (Beta 1.8 - 1.3.2): no version field.
-                // Strip section signs so MOTD can't break the \u00A7-delimited response
-                String motd = ServerProperties.getMotd().replace("\u00A7", "");
-                response = motd + "\u00A7"
-                        + playerManager.getPlayerCount() + "\u00A7"
-                        + PlayerManager.getMaxPlayers();
-            }
+        switch (verdict.family()) {
+            case LEGACY_PING:
+                answerLegacyPing(ctx, buf);
+                break;
+            case ALPHA:
+                configureAlphaPipeline(ctx, buf);
+                break;
+            case NETTY:
+                configureNettyPipeline(ctx, buf);
+                break;
+            case CLASSIC:
+                configureClassicPipeline(ctx, buf);
+                break;
+            case EAGLERCRAFT:
+                // Delegate to EaglerCraftPipelineConfigurer (lazy-loading boundary:
+                // HTTP/WebSocket classes are not loaded until this branch executes).
+                EaglerCraftPipelineConfigurer.configure(
+                        ctx, buf, serverVersion, world, playerManager, chunkManager);
+                break;
+            default:
+                // Nati client — remove self and forward from HEAD
+                ChannelPipeline pipeline = ctx.pipeline();
+                pipeline.remove(this);
+                pipeline.fireChannelRead(buf);
+                break;
+        }
+    }
 
-            ByteBuf out = ctx.alloc().buffer();
-            out.writeByte(0xFF); // Disconnect packet ID
-            McDataTypes.writeString16(out, response);
-            ctx.channel().writeAndFlush(out)
-                    .addListener(io.netty.channel.ChannelFutureListener.CLOSE);
-            return;
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) {
+        if (lceDetectTask != null) {
+            lceDetectTask.cancel(false);
         }
+        if (buffered != null) {
+            buffered.release();
+            buffered = null;
+        }
+    }
 
-        if (firstByte == 0x02 || firstByte == 0x01) {
-            // 0x02 = Alpha Handshake (v14+ / post-rewrite clients)
-            // 0x01 = Alpha Login (v13 / pre-rewrite clients that skip Handshake)
-            // A Nati-framed client's first 4 bytes are a length prefix; a frame
-            // starting with 0x01 would imply 16+ MB, which is unreasonable.
-            ChannelPipeline pipeline = ctx.pipeline();
-
-            // Replace handlers FIRST so that this handler's context.next
-            // pointers get updated to the new handlers. If we removed self
-            // first, context.next would point to the old (removed) decoder.
-            pipeline.replace("decoder", "decoder",
-                    new RawPacketDecoder(PacketDirection.CLIENT_TO_SERVER, ProtocolVersion.ALPHA_1_2_5));
-
-            pipeline.replace("encoder", "encoder", new RawPacketEncoder());
-
-            // Consolidate outbound flushes: placed before decoder (head of pipeline)
-            // so in outbound direction it's the last handler before the socket,
-            // catching ALL flushes including mid-tick writeAndFlush() calls.
-            pipeline.addBefore("decoder", "flushConsolidation",
-                    new FlushConsolidationHandler(256, true));
-
-            // Add packet prioritizer AFTER encoder in head-to-tail order.
-            // In the outbound direction (tail-to-head), the prioritizer
-            // buffers writes from the translator and reorders by priority on flush.
-            pipeline.addAfter("encoder", "prioritizer", new PrioritizingOutboundHandler());
-
-            // Add outbound translator AFTER prioritizer in head-to-tail order,
-            // so in the outbound direction (tail-to-head) the translator
-            // receives Packet objects BEFORE the prioritizer buffers them.
-            pipeline.addAfter("prioritizer", "alphaTranslator", new ClassicToAlphaTranslator());
-
-            pipeline.replace("handler", "handler",
-                    new AlphaConnectionHandler(serverVersion, world, playerManager, chunkManager));
-
-            // Remove self from pipeline
-            pipeline.remove(this);
-
-            System.out.println("Detected raw TCP client (Alpha/Beta/Release), pipeline reconfigured");
-
-            // Forward the ByteBuf from the pipeline HEAD so it reaches the
-            // new decoder without relying on the removed context's pointers.
-            pipeline.fireChannelRead(buf);
-        } else if (firstByte > 0x02 && buf.readableBytes() >= 2
-                && buf.getUnsignedByte(buf.readerIndex() + 1) == 0x00) {
-            // 1.7.2+ Netty client: first byte is VarInt packet length (> 2 for any
-            // reasonable Handshake), second byte is packet ID 0x00 (Handshake).
-            // A Nati-framed first message with byte[0] > 0x02 would imply >50MB frame.
-            ChannelPipeline pipeline = ctx.pipeline();
-
-            // Replace frame-level codecs
-            pipeline.replace("decoder", "decoder", new VarIntFrameDecoder());
-            pipeline.replace("encoder", "encoder", VarIntFrameEncoder.INSTANCE);
-
-            // Consolidate outbound flushes (same rationale as Alpha branch)
-            pipeline.addBefore("decoder", "flushConsolidation",
-                    new FlushConsolidationHandler(256, true));
-
-            // Add packet-level codecs after frame codecs
-            pipeline.addAfter("decoder", "packetDecoder",
-                    new NettyPacketDecoder(ConnectionState.HANDSHAKING));
-            pipeline.addAfter("encoder", "packetEncoder",
-                    new NettyPacketEncoder(ConnectionState.HANDSHAKING));
-
-            // Add packet prioritizer after packet encoder
-            pipeline.addAfter("packetEncoder", "prioritizer",
-                    new PrioritizingOutboundHandler());
-
-            // Add outbound translator (Classic→Netty) after prioritizer
-            pipeline.addAfter("prioritizer", "nettyTranslator",
-                    new ClassicToNettyTranslator());
-
-            // Replace handler
-            pipeline.replace("handler", "handler",
-                    new NettyConnectionHandler(serverVersion, world, playerManager, chunkManager));
-
-            pipeline.remove(this);
-
-            pipeline.fireChannelRead(buf);
-        } else if (firstByte == 0x00 && buf.readableBytes() >= 2
-                && buf.getUnsignedByte(buf.readerIndex() + 1) != 0x00) {
-            // Real Classic client: first byte is packet ID 0x00 (PlayerIdentification).
-            // Second byte is either a protocol version (0x01-0x07 for Classic v3-v7)
-            // or the first character of a username (>= 0x20 for 0.0.15a, which has
-            // no protocol version byte).
-            // A Nati-framed client's first 4 bytes are a big-endian length prefix;
-            // for a 131-byte identification, bytes are 0x00 0x00 0x00 0x83 — so
-            // byte[1] == 0x00 distinguishes Nati from real Classic.
-            int secondByte = buf.getUnsignedByte(buf.readerIndex() + 1);
-            boolean isClassic015a = secondByte >= 0x20; // printable ASCII = username, not version
-
-            ProtocolVersion classicVersion;
-            if (isClassic015a) {
-                classicVersion = ProtocolVersion.CLASSIC_0_0_15A;
-            } else if (secondByte == 6) {
-                // Protocol version 6: Classic 0.0.20a-0.27 (HAS unused/userType
-                // trailing byte in identification, but no UpdateUserType packet)
-                classicVersion = ProtocolVersion.CLASSIC_0_0_20A;
-            } else if (secondByte < 7) {
-                // Protocol version 3-5: Classic 0.0.16a-0.0.19a (no unused byte
-                // in identification, no UpdateUserType packet)
-                classicVersion = ProtocolVersion.CLASSIC_0_0_16A;
-            } else {
-                classicVersion = ProtocolVersion.CLASSIC;
+    /**
+     * Replace the frame-level codecs and consolidate outbound flushes.
+     * Replacing while this handler is still in the pipeline updates its
+     * context.next pointers to the new handlers; if we removed self
+     * first, context.next would point to the old (removed) decoder.
+     *
+     * The consolidator is placed before the decoder (head of pipeline) so
+     * in the outbound direction it's the last handler before the socket,
+     * catching ALL flushes including mid-tick writeAndFlush() calls.
+     */
+    private static void installCodecs(ChannelPipeline pipeline, ChannelHandler decoder,
+                                      ChannelHandler encoder) {
+        pipeline.replace("decoder", "decoder", decoder);
+        pipeline.replace("encoder", "encoder", encoder);
+        pipeline.addBefore("decoder", "flushConsolidation",
+                new FlushConsolidationHandler(256, true));
+    }
+
+    private void answerLegacyPing(ChannelHandlerContext ctx, ByteBuf buf) {
+        // Server list ping. Three formats exist:
+        // - Old (Beta 1.8 - 1.3.2): client sends 0xFE alone.
+        //   Response: 0xFF + String16("motd§playerCount§maxPlayers")
+        // - New (1.4.2 - 1.5.2): client sends 0xFE 0x01 (no payload).
+        //   Response: 0xFF + String16("§1\0protocol\0version\0motd\0players\0max")
+        // - New with MC|PingHost (1.6+): client sends 0xFE 0x01 0xFA + payload
+        //   containing the client's protocol version. Response same as above,
+        //   but we mirror the client's version so every client sees "compatible".
+        boolean newPing = buf.readableBytes() >= 2
+                && buf.getUnsignedByte(buf.readerIndex() + 1) == 0x01;
+
+        // Try to parse client protocol version from MC|PingHost (1.6+ only).
+        int clientProtocol = -1;
+        if (newPing && buf.readableBytes() > 2
+                && buf.getUnsignedByte(buf.readerIndex() + 2) == 0xFA) {
+            int savedIndex = buf.readerIndex();
+            try {
+                buf.skipBytes(3); // FE 01 FA
+                int channelNameLen = buf.readUnsignedShort();
+                buf.skipBytes(channelNameLen * 2); // UTF-16BE channel name
+                buf.readShort(); // data length
+                clientProtocol = buf.readUnsignedByte();
+            } catch (Exception e) {
+                // Buffer underflow — fall back to default
             }
+            buf.readerIndex(savedIndex);
+        }
+        buf.release();
+
+        String response;
+        if (newPing) {
+            // Mirror the client's protocol version so it sees "compatible".
+            // 1.6+ sends MC|PingHost with the client's version.
+            // 1.4.2-1.5.2 sends no MC|PingHost — we can't detect the exact
+            // version, so default to 51 (1.4.7), the highest 1.4.x protocol.
+            // Non-matching versions will show incompatible but can use
+            // Direct Connect.
+            int reportProtocol = clientProtocol > 0 ? clientProtocol : 51;
+            String reportVersion = clientProtocol > 0
+                    ? pingVersionString(clientProtocol) : "1.4.7";
+            // For 1.4.2-1.5.2 (no MC|PingHost), show hint about Direct Connect
+            // since some versions in this range will see "incompatible".
+            String motd = clientProtocol > 0
+                    ? ServerProperties.getMotd()
+                    : "Incompatible? Use Direct Connect";
+            // Strip null chars so MOTD can't break the \u0000-delimited response
+            motd = motd.replace("\u0000", "");
+            response = "\u00A71\u0000"
+                    + reportProtocol + "\u0000"
+                    + reportVersion + "\u0000"
+                    + motd + "\u0000"
+                    + playerManager.getPlayerCount() + "\u0000"
+                    + PlayerManager.getMaxPlayers();
+        } else {
+            // Old ping (Beta 1.8 - 1.3.2): no version field.
+            // Strip section signs so MOTD can't break the \u00A7-delimited response
+            String motd = ServerProperties.getMotd().replace("\u00A7", "");
+            response = motd + "\u00A7"
+                    + playerManager.getPlayerCount() + "\u00A7"
+                    + PlayerManager.getMaxPlayers();
+        }
 
-            ChannelPipeline pipeline = ctx.pipeline();
+        ByteBuf out = ctx.alloc().buffer();
+        out.writeByte(0xFF); // Disconnect packet ID
+        McDataTypes.writeString16(out, response);
+        ctx.channel().writeAndFlush(out)
+                .addListener(io.netty.channel.ChannelFutureListener.CLOSE);
+    }
 
-            pipeline.replace("decoder", "decoder",
-                    new RawPacketDecoder(PacketDirection.CLIENT_TO_SERVER, classicVersion));
-            pipeline.replace("encoder", "encoder", new RawPacketEncoder());
+    private void configureAlphaPipeline(ChannelHandlerContext ctx, ByteBuf buf) {
+        // 0x02 = Alpha Handshake (v14+ / post-rewrite clients)
+        // 0x01 = Alpha Login (v13 / pre-rewrite clients that skip Handshake)
+        ChannelPipeline pipeline = ctx.pipeline();
 
-            pipeline.addBefore("decoder", "flushConsolidation",
-                    new FlushConsolidationHandler(256, true));
+        installCodecs(pipeline,
+                new RawPacketDecoder(PacketDirection.CLIENT_TO_SERVER, ProtocolVersion.ALPHA_1_2_5),
+                new RawPacketEncoder());
 
-            // No translator needed for Classic v7 (native internal protocol).
-            // For 0.0.15a, ServerConnectionHandler inserts the VersionTranslator
-            // after login when it detects the version mismatch.
+        // Add outbound translator AFTER encoder in head-to-tail order,
+        // so in the outbound direction (tail-to-head) it converts
+        // Classic packets right before encoding.
+        pipeline.addAfter("encoder", "alphaTranslator", new ClassicToAlphaTranslator());
 
-            // Keep ServerConnectionHandler — it already handles Classic packets.
-            // No handler replacement needed.
+        // Add packet prioritizer AFTER translator in head-to-tail order.
+        // In the outbound direction (tail-to-head), the prioritizer
+        // buffers Classic-level writes, coalesces superseded entity
+        // updates and reorders by priority on flush.
+        pipeline.addAfter("alphaTranslator", "prioritizer", new PrioritizingOutboundHandler());
 
-            pipeline.remove(this);
+        pipeline.replace("handler", "handler",
+                new AlphaConnectionHandler(serverVersion, world, playerManager, chunkManager));
 
-            String classicDesc = isClassic015a ? " (0.0.15a — no protocol version byte)"
-                    : " (v" + secondByte + ")";
-            System.out.println("Detected real Classic client" + classicDesc
-                    + ", pipeline reconfigured");
+        // Remove self from pipeline
+        pipeline.remove(this);
 
-            pipeline.fireChannelRead(buf);
-        } else if (firstByte == 0x47) {
-            // 0x47 = 'G' from HTTP "GET /" — EaglerCraft WebSocket upgrade request.
-            // Delegate to EaglerCraftPipelineConfigurer (lazy-loading boundary:
-            // HTTP/WebSocket classes are not loaded until this branch executes).
-            EaglerCraftPipelineConfigurer.configure(
-                    ctx, buf, serverVersion, world, playerManager, chunkManager);
-            return;
+        System.out.println("Detected raw TCP client (Alpha/Beta/Release), pipeline reconfigured");
+
+        // Forward the ByteBuf from the pipeline HEAD so it reaches the
+        // new decoder without relying on the removed context's pointers.
+        pipeline.fireChannelRead(buf);
+    }
+
+    private void configureNettyPipeline(ChannelHandlerContext ctx, ByteBuf buf) {
+        // 1.7.2+ Netty client: VarInt packet length, then packet ID 0x00 (Handshake).
+        ChannelPipeline pipeline = ctx.pipeline();
+
+        installCodecs(pipeline, new VarIntFrameDecoder(), VarIntFrameEncoder.INSTANCE);
+
+        // Add packet-level codecs after frame codecs
+        pipeline.addAfter("decoder", "packetDecoder",
+                new NettyPacketDecoder(ConnectionState.HANDSHAKING));
+        pipeline.addAfter("encoder", "packetEncoder",
+                new NettyPacketEncoder(ConnectionState.HANDSHAKING));
+
+        // Add outbound translator (Classic→Netty) after packet encoder
+        pipeline.addAfter("packetEncoder", "nettyTranslator",
+                new ClassicToNettyTranslator());
+
+        // Add packet prioritizer after translator (sees Classic-level packets)
+        pipeline.addAfter("nettyTranslator", "prioritizer",
+                new PrioritizingOutboundHandler());
+
+        // Replace handler
+        pipeline.replace("handler", "handler",
+                new NettyConnectionHandler(serverVersion, world, playerManager, chunkManager));
+
+        pipeline.remove(this);
+
+        pipeline.fireChannelRead(buf);
+    }
+
+    private void configureClassicPipeline(ChannelHandlerContext ctx, ByteBuf buf) {
+        // Real Classic client: first byte is packet ID 0x00 (PlayerIdentification).
+        // Second byte is either a protocol version (0x01-0x07 for Classic v3-v7)
+        // or the first character of a username (>= 0x20 for 0.0.15a, which has
+        // no protocol version byte).
+        int secondByte = buf.getUnsignedByte(buf.readerIndex() + 1);
+        boolean isClassic015a = secondByte >= 0x20; // printable ASCII = username, not version
+
+        ProtocolVersion classicVersion;
+        if (isClassic015a) {
+            classicVersion = ProtocolVersion.CLASSIC_0_0_15A;
+        } else if (secondByte == 6) {
+            // Protocol version 6: Classic 0.0.20a-0.27 (HAS unused/userType
+            // trailing byte in identification, but no UpdateUserType packet)
+            classicVersion = ProtocolVersion.CLASSIC_0_0_20A;
+        } else if (secondByte < 7) {
+            // Protocol version 3-5: Classic 0.0.16a-0.0.19a (no unused byte
+            // in identification, no UpdateUserType packet)
+            classicVersion = ProtocolVersion.CLASSIC_0_0_16A;
         } else {
-            // Nati client — remove self and forward from HEAD
-            ChannelPipeline pipeline = ctx.pipeline();
-            pipeline.remove(this);
-            pipeline.fireChannelRead(buf);
+            classicVersion = ProtocolVersion.CLASSIC;
         }
+
+        ChannelPipeline pipeline = ctx.pipeline();
+
+        installCodecs(pipeline,
+                new RawPacketDecoder(PacketDirection.CLIENT_TO_SERVER, classicVersion),
+                new RawPacketEncoder());
+
+        // No translator needed for Classic v7 (native internal protocol).
+        // For 0.0.15a, ServerConnectionHandler inserts the VersionTranslator
+        // after login when it detects the version mismatch.
+
+        // Keep ServerConnectionHandler — it already handles Classic packets.
+        // No handler replacement needed.
+
+        pipeline.remove(this);
+
+        String classicDesc = isClassic015a ? " (0.0.15a — no protocol version byte)"
+                : " (v" + secondByte + ")";
+        System.out.println("Detected real Classic client" + classicDesc
+                + ", pipeline reconfigured");
+
+        pipeline.fireChannelRead(buf);
     }
 
     /**
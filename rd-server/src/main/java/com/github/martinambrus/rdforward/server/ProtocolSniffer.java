@@ -0,0 +1,234 @@
+package com.github.martinambrus.rdforward.server;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Classifies a TCP connection by the first bytes the client sends.
+ *
+ * Each {@link Family} that speaks first registers a {@link Matcher} in
+ * {@link #standard()}; a matcher looks at the buffered bytes (without
+ * consuming them) and answers with a {@link Confidence}. The first
+ * {@link Confidence#CERTAIN} answer in table order wins. Otherwise, as
+ * long as some matcher needs more bytes and fewer than
+ * {@link #MAX_SNIFF_BYTES} have arrived, the caller waits for the next
+ * read; after that the first {@link Confidence#LIKELY} answer wins, and
+ * with no answer at all the connection is treated as {@link Family#NATI},
+ * which is what the pipeline was built for.
+ *
+ * {@link Family#LCE} clients wait for the server to speak first, so they
+ * have no matcher: they are recognized by silence, or by connecting to a
+ * port dedicated to them.
+ */
+public final class ProtocolSniffer {
+
+    /** Protocol families a TCP listener can serve. */
+    public enum Family {
+        /** Pre-Netty server list ping (0xFE), answered and closed. */
+        LEGACY_PING,
+        /** Raw Alpha through 1.6.4 protocol. */
+        ALPHA,
+        /** 1.7.2+ VarInt-framed protocol. */
+        NETTY,
+        /** Real Classic clients (unframed). */
+        CLASSIC,
+        /** EaglerCraft over WebSocket. */
+        EAGLERCRAFT,
+        /** Our own client, 4-byte length framing. */
+        NATI,
+        /** Legacy Console Edition, which waits for the server's small ID. */
+        LCE;
+
+        /** Lower-case name used in server.properties keys and logs. */
+        public String configName() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+
+        /** Family for a {@link #configName()}, or null. */
+        public static Family byConfigName(String name) {
+            for (Family f : values()) {
+                if (f.configName().equalsIgnoreCase(name.trim())) return f;
+            }
+            return null;
+        }
+    }
+
+    /** How sure a matcher is, in ascending order. */
+    public enum Confidence {
+        /** Not this family. */
+        NONE,
+        /** Could be this family; decide after more bytes. */
+        NEED_MORE,
+        /** Plausible, but a better match would win. */
+        LIKELY,
+        /** Unambiguous. */
+        CERTAIN
+    }
+
+    /** Looks at {@code buf} from its reader index without changing it. */
+    @FunctionalInterface
+    public interface Matcher {
+        Confidence match(ByteBuf buf);
+    }
+
+    /** One table entry. */
+    public record Rule(Family family, Matcher matcher) {}
+
+    /** Outcome of {@link #sniff}: a family, or {@code family == null} to wait for more bytes. */
+    public record Verdict(Family family, Confidence confidence) {
+
+        static final Verdict NEED_MORE = new Verdict(null, Confidence.NEED_MORE);
+
+        public boolean needsMore() {
+            return family == null;
+        }
+    }
+
+    /** Bytes after which a matcher asking for more no longer holds up the decision. */
+    public static final int MAX_SNIFF_BYTES = 32;
+
+    /** Largest plausible 1.7+ Handshake frame: VarInts, a 255-char host and a port. */
+    private static final int MAX_NETTY_HANDSHAKE = 1024;
+    private static final byte[] HTTP_GET = {'G', 'E', 'T', ' '};
+
+    private static final ProtocolSniffer STANDARD = new ProtocolSniffer(List.of(
+            new Rule(Family.LEGACY_PING, ProtocolSniffer::matchLegacyPing),
+            new Rule(Family.ALPHA, ProtocolSniffer::matchAlpha),
+            new Rule(Family.NETTY, ProtocolSniffer::matchNetty),
+            new Rule(Family.CLASSIC, ProtocolSniffer::matchClassic),
+            new Rule(Family.NATI, ProtocolSniffer::matchNati),
+            new Rule(Family.EAGLERCRAFT, ProtocolSniffer::matchHttpGet)));
+
+    private final List<Rule> rules;
+
+    public ProtocolSniffer(List<Rule> rules) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+    }
+
+    /** The table for every family this server speaks. */
+    public static ProtocolSniffer standard() {
+        return STANDARD;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /** Classify the bytes received so far. */
+    public Verdict sniff(ByteBuf buf) {
+        boolean needMore = false;
+        Rule likely = null;
+        for (Rule rule : rules) {
+            Confidence c = buf.isReadable() ? rule.matcher().match(buf) : Confidence.NEED_MORE;
+            if (c == Confidence.CERTAIN) return new Verdict(rule.family(), c);
+            if (c == Confidence.NEED_MORE) needMore = true;
+            if (c == Confidence.LIKELY && likely == null) likely = rule;
+        }
+        if (needMore && buf.readableBytes() < MAX_SNIFF_BYTES) return Verdict.NEED_MORE;
+        if (likely != null) return new Verdict(likely.family(), Confidence.LIKELY);
+        return new Verdict(Family.NATI, Confidence.NONE);
+    }
+
+    /**
+     * Classify a connection on a port dedicated to {@code family}: only a
+     * legacy server list ping is still told apart, everything else is
+     * {@code family}, once its matcher has the bytes it needs.
+     */
+    public Verdict sniffAs(Family family, ByteBuf buf) {
+        if (!buf.isReadable()) return Verdict.NEED_MORE;
+        if (family != Family.LEGACY_PING && matchLegacyPing(buf) == Confidence.CERTAIN) {
+            return new Verdict(Family.LEGACY_PING, Confidence.CERTAIN);
+        }
+        for (Rule rule : rules) {
+            if (rule.family() != family) continue;
+            Confidence c = rule.matcher().match(buf);
+            if (c == Confidence.NEED_MORE && buf.readableBytes() < MAX_SNIFF_BYTES) return Verdict.NEED_MORE;
+            return new Verdict(family, c);
+        }
+        return new Verdict(family, Confidence.NONE);
+    }
+
+    // --- Matchers ---
+
+    /**
+     * 0xFE alone (Beta 1.8-1.3), 0xFE 0x01 (1.4-1.5) or 0xFE 0x01 0xFA
+     * (1.6, MC|PingHost). Anything else after 0xFE is a 1.7+ Handshake
+     * whose VarInt length starts with 0xFE: 0xFE 0x01 0x00 for 254 bytes,
+     * 0xFE 0x02 for 382 (long BungeeCord-forwarded hosts), and so on.
+     */
+    static Confidence matchLegacyPing(ByteBuf buf) {
+        int i = buf.readerIndex();
+        int n = buf.readableBytes();
+        if (buf.getUnsignedByte(i) != 0xFE) return Confidence.NONE;
+        if (n == 1) return Confidence.CERTAIN;
+        if (buf.getUnsignedByte(i + 1) != 0x01) return Confidence.NONE;
+        if (n == 2) return Confidence.CERTAIN;
+        return buf.getUnsignedByte(i + 2) == 0xFA ? Confidence.CERTAIN : Confidence.NONE;
+    }
+
+    /**
+     * 0x02 Handshake (v14 and later) or 0x01 Login (v13, which skips the
+     * Handshake). A VarInt frame of 1-2 bytes can't hold a 1.7+ Handshake,
+     * and a Nati frame starting 0x01 would be 16+ MB.
+     */
+    static Confidence matchAlpha(ByteBuf buf) {
+        int first = buf.getUnsignedByte(buf.readerIndex());
+        return first == 0x01 || first == 0x02 ? Confidence.CERTAIN : Confidence.NONE;
+    }
+
+    /** VarInt frame length, then packet ID 0x00 (Handshake). */
+    static Confidence matchNetty(ByteBuf buf) {
+        int i = buf.readerIndex();
+        int n = buf.readableBytes();
+        int length = 0;
+        int pos = 0;
+        while (true) {
+            if (pos == n) return Confidence.NEED_MORE;
+            if (pos == 3) return Confidence.NONE; // > 2 MB
+            int b = buf.getUnsignedByte(i + pos);
+            length |= (b & 0x7F) << (7 * pos);
+            pos++;
+            if ((b & 0x80) == 0) break;
+        }
+        if (length < 3) return Confidence.NONE; // ID + protocol VarInt + next state at least
+        if (pos == n) return Confidence.NEED_MORE;
+        if (buf.getUnsignedByte(i + pos) != 0x00) return Confidence.NONE;
+        return length <= MAX_NETTY_HANDSHAKE ? Confidence.CERTAIN : Confidence.LIKELY;
+    }
+
+    /**
+     * PlayerIdentification (0x00) followed by the protocol version (3-7),
+     * or by the username's first character for 0.0.15a, which sends no
+     * version. A Nati frame's length prefix has 0x00 there instead.
+     */
+    static Confidence matchClassic(ByteBuf buf) {
+        int i = buf.readerIndex();
+        if (buf.getUnsignedByte(i) != 0x00) return Confidence.NONE;
+        if (buf.readableBytes() < 2) return Confidence.NEED_MORE;
+        int second = buf.getUnsignedByte(i + 1);
+        if (second == 0x00) return Confidence.NONE;
+        return (second >= 3 && second <= 7) || second >= 0x20 ? Confidence.CERTAIN : Confidence.LIKELY;
+    }
+
+    /** Big-endian 4-byte frame length; any real frame is well under 16 MB. */
+    static Confidence matchNati(ByteBuf buf) {
+        int i = buf.readerIndex();
+        if (buf.getUnsignedByte(i) != 0x00) return Confidence.NONE;
+        if (buf.readableBytes() < 2) return Confidence.NEED_MORE;
+        return buf.getUnsignedByte(i + 1) == 0x00 ? Confidence.CERTAIN : Confidence.NONE;
+    }
+
+    /** "GET " starting an HTTP WebSocket upgrade. */
+    static Confidence matchHttpGet(ByteBuf buf) {
+        int i = buf.readerIndex();
+        int n = Math.min(buf.readableBytes(), HTTP_GET.length);
+        for (int k = 0; k < n; k++) {
+            if (buf.getByte(i + k) != HTTP_GET[k]) return Confidence.NONE;
+        }
+        return n == HTTP_GET.length ? Confidence.CERTAIN : Confidence.NEED_MORE;
+    }
+}
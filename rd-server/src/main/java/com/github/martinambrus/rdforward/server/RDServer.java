@@ -13,6 +13,7 @@ import com.github.martinambrus.rdforward.server.api.CommandRegistry;
 import com.github.martinambrus.rdforward.server.api.PermissionManager;
 import com.github.martinambrus.rdforward.server.api.Scheduler;
 import com.github.martinambrus.rdforward.server.api.ServerProperties;
+import com.github.martinambrus.rdforward.server.auth.LoginCryptoPool;
 import com.github.martinambrus.rdforward.world.FlatWorldGenerator;
 import com.github.martinambrus.rdforward.world.WorldGenerator;
 import com.github.martinambrus.rdforward.world.convert.ConversionRegistry;
@@ -21,6 +22,7 @@ import com.github.martinambrus.rdforward.world.convert.ServerWorldHeader;
 import com.github.martinambrus.rdforward.world.convert.WorldFormat;
 import com.github.martinambrus.rdforward.world.convert.WorldFormatDetector;
 import com.github.martinambrus.rdforward.server.bedrock.BedrockBlockMapper;
+import com.github.martinambrus.rdforward.server.bedrock.BedrockChildRoute;
 import com.github.martinambrus.rdforward.server.bedrock.BedrockChunkConverter;
 import com.github.martinambrus.rdforward.server.bedrock.BedrockLoginHandler;
 import com.github.martinambrus.rdforward.server.bedrock.BedrockProtocolConstants;
@@ -28,10 +30,14 @@ import com.github.martinambrus.rdforward.server.bedrock.BedrockRegistryData;
 import com.github.martinambrus.rdforward.server.mcpe.BedrockOutboundRedirector;
 import com.github.martinambrus.rdforward.server.mcpe.LegacyRakNetServer;
 import com.github.martinambrus.rdforward.server.mcpe.MCPEConstants;
+import com.github.martinambrus.rdforward.server.mcpe.UdpFrontEnd;
 import com.github.martinambrus.rdforward.server.mcpe.UdpFrontEndHandler;
+import com.github.martinambrus.rdforward.server.profiler.MetricsHttpServer;
+import com.github.martinambrus.rdforward.server.profiler.ModTimeAccounting;
+import com.github.martinambrus.rdforward.server.profiler.ServerProfiler;
+import com.github.martinambrus.rdforward.server.profiler.TrafficCounter;
 import com.github.martinambrus.rdforward.api.event.EventResult;
 import com.github.martinambrus.rdforward.api.event.server.ServerEvents;
-import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
 import io.netty.channel.nio.NioEventLoopGroup;
@@ -52,7 +58,10 @@ import java.io.InputStreamReader;
 import java.lang.reflect.Method;
 import java.net.InetSocketAddress;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * The RDForward dedicated server.
@@ -115,9 +124,14 @@ public class RDServer {
     private Channel serverChannel;
     /** Secondary listener on port 5565 for Classic 0.0.15a (hardcoded port in client). */
     private Channel classicChannel;
+    /** Listeners from {@code listen-port.<family>} keys, each serving one protocol family. */
+    private List<Channel> dedicatedChannels = List.of();
     private Channel bedrockChannel;
     private com.github.martinambrus.rdforward.server.lce.LCELanAdvertiser lceLanAdvertiser;
     private Channel udpFrontEndChannel;
+    /** Every front-end UDP socket; {@link #udpFrontEndChannel} is the first. */
+    private List<Channel> udpFrontEndChannels = List.of();
+    private MetricsHttpServer metricsServer;
     private LegacyRakNetServer mcpeServer;
     private UdpFrontEndHandler udpFrontEndHandler;
     private volatile BedrockBlockMapper bedrockBlockMapper;
@@ -160,7 +174,7 @@ public class RDServer {
             synchronized (this) {
                 converter = bedrockChunkConverter;
                 if (converter == null) {
-                    converter = new BedrockChunkConverter(getBedrockBlockMapper());
+                    converter = new BedrockChunkConverter(getBedrockBlockMapper(), chunkManager.getDataCache());
                     bedrockChunkConverter = converter;
                     chunkManager.setBedrockChunkConverter(converter);
                 }
@@ -211,6 +225,7 @@ public class RDServer {
         this.dataDir = dataDir;
         this.world = new ServerWorld(worldWidth, worldHeight, worldDepth, dataDir);
         this.playerManager = new PlayerManager();
+        this.playerManager.getInventoryAdapter().setPlayerDataStore(world.getPlayerDataStore());
         String levelName = ServerProperties.getLevelName();
         File worldDir = (dataDir != null) ? new File(dataDir, levelName) : new File(levelName);
         this.chunkManager = new ChunkManager(worldGenerator, worldSeed, worldDir);
@@ -218,7 +233,8 @@ public class RDServer {
                 + ChunkManager.DEFAULT_VIEW_DISTANCE);
         this.chunkManager.setServerWorld(world);
         this.world.setIOThread(chunkManager.getIOThread());
-        this.tickLoop = new ServerTickLoop(playerManager, world, chunkManager);
+        this.tickLoop = new ServerTickLoop(playerManager, world, chunkManager, dataDir);
+        this.tickLoop.getWatchdog().setHardStallAction(this::stopAfterHardStall);
     }
 
     /**
@@ -233,8 +249,23 @@ public class RDServer {
         BlockOwnerRegistry.load(dataDir);
         Scheduler.init();
         chunkManager.initAsyncDelivery();
+        if (chunkManager.getPregenerator().hasResumableProgress()) {
+            System.out.println("[Pregen] An unfinished pregeneration job was found."
+                    + " Use /pregen resume to continue or /pregen cancel to discard it.");
+        }
         registerBuiltInCommands();
         registerSpawnProtection();
+        ServerProfiler.bind(playerManager, chunkManager);
+        ServerProfiler.setModTiming(ServerProperties.isPerfModTiming());
+        ModTimeAccounting.configure(ServerProperties.getModBudgetMs(), ServerProperties.getModBudgetOverrides(),
+                ModTimeAccounting.parseAction(ServerProperties.getModBudgetAction()),
+                ServerProperties.getModBudgetStrikes(), ServerProperties.isPerfModCpuTiming());
+        InboundPacketQueue.configure(ServerProperties.isInboundQueueEnabled(),
+                ServerProperties.getInboundPacketsPerTick(), ServerProperties.getInboundQueueLimit());
+        LoginGate.configure(ServerProperties.getMaxConcurrentLogins(), ServerProperties.getJoinQueueSize(),
+                ServerProperties.getJoinQueueTimeoutSeconds());
+        LoginCryptoPool.configure(ServerProperties.getLoginCryptoThreads());
+        startMetricsServer();
         GriefProtection.init(ServerProperties.getMaxBlockChangesPerSecond(), playerManager, world, chunkManager);
 
         // Track player activity for block ownership and protection budget
@@ -310,24 +341,15 @@ public class RDServer {
         ServerBootstrap bootstrap = new ServerBootstrap();
         bootstrap.group(bossGroup, workerGroup)
                 .channel(NioServerSocketChannel.class)
-                .childHandler(new ChannelInitializer<SocketChannel>() {
-                    @Override
-                    protected void initChannel(SocketChannel ch) {
-                        ChannelPipeline pipeline = ch.pipeline();
-                        pipeline.addLast("loginTimeout", new ReadTimeoutHandler(
-                                ServerConnectionHandler.LOGIN_TIMEOUT_SECONDS));
-                        pipeline.addLast("protocolDetect", new ProtocolDetectionHandler(
-                                protocolVersion, world, playerManager, chunkManager));
-                        pipeline.addLast("decoder", new PacketDecoder(
-                                PacketDirection.CLIENT_TO_SERVER, protocolVersion));
-                        pipeline.addLast("encoder", new PacketEncoder());
-                        pipeline.addLast("handler", new ServerConnectionHandler(
-                                protocolVersion, world, playerManager, chunkManager));
-                    }
-                })
-                .option(ChannelOption.SO_BACKLOG, 128)
+                .handler(new AcceptLimiter(ServerProperties.getAcceptRate(),
+                        ServerProperties.getMaxConnectionsPerIp()))
+                .childHandler(childInitializer(null))
+                .option(ChannelOption.SO_BACKLOG, ServerProperties.getAcceptBacklog())
                 .childOption(ChannelOption.SO_KEEPALIVE, true)
-                .childOption(ChannelOption.TCP_NODELAY, true);
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(
+                        ServerProperties.getWriteBufferLowKb() * 1024,
+                        ServerProperties.getWriteBufferHighKb() * 1024));
 
         serverChannel = bootstrap.bind(port).sync().channel();
         System.out.println("RDForward server started on port " + port
@@ -344,10 +366,59 @@ public class RDServer {
             }
         }
 
+        bindDedicatedPorts(bootstrap);
+
         // Start unified UDP server (legacy MCPE + modern Bedrock on port 19132)
         startUnifiedUdpServer();
     }
 
+    /**
+     * Pipeline for an accepted TCP connection. With a {@code family} the
+     * connection skips protocol sniffing (and, for LCE, the silence wait).
+     */
+    private ChannelInitializer<SocketChannel> childInitializer(ProtocolSniffer.Family family) {
+        return new ChannelInitializer<SocketChannel>() {
+            @Override
+            protected void initChannel(SocketChannel ch) {
+                ChannelPipeline pipeline = ch.pipeline();
+                pipeline.addLast(TrafficCounter.HANDLER_NAME, new TrafficCounter());
+                pipeline.addLast("loginTimeout", new ReadTimeoutHandler(
+                        ServerConnectionHandler.LOGIN_TIMEOUT_SECONDS));
+                pipeline.addLast("protocolDetect", new ProtocolDetectionHandler(
+                        protocolVersion, world, playerManager, chunkManager, family));
+                pipeline.addLast("decoder", new PacketDecoder(
+                        PacketDirection.CLIENT_TO_SERVER, protocolVersion));
+                pipeline.addLast("encoder", new PacketEncoder());
+                pipeline.addLast("handler", new ServerConnectionHandler(
+                        protocolVersion, world, playerManager, chunkManager));
+            }
+        };
+    }
+
+    /** Bind the {@code listen-port.<family>} listeners from server.properties. */
+    private void bindDedicatedPorts(ServerBootstrap bootstrap) {
+        List<Channel> bound = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : ServerProperties.getDedicatedPorts().entrySet()) {
+            ProtocolSniffer.Family family = ProtocolSniffer.Family.byConfigName(entry.getKey());
+            if (family == null || family == ProtocolSniffer.Family.LEGACY_PING) {
+                System.err.println("[RDServer] Ignoring listen-port." + entry.getKey()
+                        + ": not a protocol family");
+                continue;
+            }
+            int dedicatedPort = entry.getValue();
+            try {
+                bound.add(bootstrap.clone().childHandler(childInitializer(family))
+                        .bind(dedicatedPort).sync().channel());
+                System.out.println("Dedicated " + family.configName() + " listener started on port "
+                        + dedicatedPort);
+            } catch (Exception e) {
+                System.err.println("Could not bind dedicated " + family.configName() + " port "
+                        + dedicatedPort + ": " + e.getMessage());
+            }
+        }
+        dedicatedChannels = bound;
+    }
+
     /**
      * Detect and convert world files to the server format if needed.
      *
@@ -637,11 +708,13 @@ public class RDServer {
      * and modern Bedrock (RakNet v10/v11) on a single port (19132).
      *
      * Architecture:
-     * 1. Front-end NioDatagramChannel on 0.0.0.0:19132 receives all UDP traffic
+     * 1. Front-end NioDatagramChannels on 0.0.0.0:19132 (several with
+     *    SO_REUSEPORT, see udp-frontend-sockets) receive all UDP traffic
      * 2. UdpFrontEndHandler detects client type from RakNet protocol version
      * 3. Legacy MCPE packets → LegacyRakNetServer (direct method dispatch)
-     * 4. Bedrock packets → injected into CloudburstMC's internal pipeline
-     * 5. CloudburstMC's outbound responses → redirected through front-end channel
+     * 4. Connected Bedrock datagrams → straight to their RakNet child channel;
+     *    offline ones → injected into CloudburstMC's internal pipeline
+     * 5. CloudburstMC's outbound responses → redirected through a front-end channel
      */
     private void startUnifiedUdpServer() {
         int udpPort = bedrockPort; // default 19132, overridable via setBedrockPort()
@@ -680,16 +753,18 @@ public class RDServer {
                 mcpeGuid, ServerProperties.getMotd(), world, playerManager, mcpePongUpdater);
 
         // --- Create front-end handler ---
-        udpFrontEndHandler = new UdpFrontEndHandler(mcpeServer);
+        udpFrontEndHandler = new UdpFrontEndHandler(mcpeServer,
+                ServerProperties.getUdpMaxClients(), ServerProperties.getUdpHandshakeRate());
 
-        // --- Start front-end UDP channel on port 19132 ---
+        // --- Start front-end UDP sockets on port 19132 ---
         try {
-            Bootstrap frontEndBootstrap = new Bootstrap()
-                    .group(workerGroup)
-                    .channel(NioDatagramChannel.class)
-                    .handler(udpFrontEndHandler);
-
-            udpFrontEndChannel = frontEndBootstrap.bind(udpPort).sync().channel();
+            udpFrontEndChannels = UdpFrontEnd.bind(workerGroup, udpPort,
+                    ServerProperties.getUdpFrontEndSockets(), udpFrontEndHandler);
+            udpFrontEndChannel = udpFrontEndChannels.get(0);
+            if (udpFrontEndChannels.size() > 1) {
+                System.out.println("[UdpFrontEnd] " + udpFrontEndChannels.size()
+                        + " UDP sockets sharing port " + udpPort + " (SO_REUSEPORT)");
+            }
         } catch (Exception e) {
             System.err.println("Failed to start UDP front-end on port " + udpPort
                     + ": " + e.getMessage());
@@ -719,6 +794,8 @@ public class RDServer {
                 .option(RakChannelOption.RAK_GUID, bedrockGuid)
                 .option(RakChannelOption.RAK_SUPPORTED_PROTOCOLS, new int[]{11})
                 .option(RakChannelOption.RAK_ADVERTISEMENT, initialPong.toByteBuf())
+                // No child channel until the client echoes the Reply 1 cookie (spoofed-source floods)
+                .option(RakChannelOption.RAK_SEND_COOKIE, true)
                 .childOption(RakChannelOption.RAK_PROTOCOL_VERSION, 11)
                 .childOption(RakChannelOption.RAK_SESSION_TIMEOUT, 30000L)
                 .childHandler(new BedrockServerInitializer() {
@@ -742,10 +819,12 @@ public class RDServer {
             // bedrockChannel.parent() is the internal NioDatagramChannel (via ProxyChannel).
             Channel bedrockInternalChannel = bedrockChannel.parent();
             udpFrontEndHandler.setBedrockInternalChannel(bedrockInternalChannel);
+            // Connected datagrams skip the server pipeline and go to their child channel
+            udpFrontEndHandler.setBedrockRoute(new BedrockChildRoute(bedrockChannel));
 
             // Add outbound redirector so CloudburstMC's responses go through the front-end
             bedrockInternalChannel.pipeline().addFirst("outboundRedirector",
-                    new BedrockOutboundRedirector(udpFrontEndChannel));
+                    new BedrockOutboundRedirector(udpFrontEndHandler));
 
             // Update pong advertisement on player join/leave
             ServerEvents.PLAYER_JOIN.register((name, version) -> bedrockPongUpdater.run());
@@ -786,13 +865,17 @@ public class RDServer {
 
         System.out.println("Saving world and player data...");
         world.save();
+        playerManager.getInventoryAdapter().captureAll(playerManager.getAllPlayers());
         world.savePlayers(playerManager.getAllPlayers());
         BlockOwnerRegistry.saveIfDirty();
         TeamManager.saveIfDirty();
         chunkManager.shutdown();
 
-        if (udpFrontEndChannel != null) {
-            udpFrontEndChannel.close();
+        if (metricsServer != null) {
+            metricsServer.stop();
+        }
+        for (Channel udp : udpFrontEndChannels) {
+            udp.close();
         }
         if (bedrockChannel != null) {
             bedrockChannel.close();
@@ -800,6 +883,9 @@ public class RDServer {
         if (classicChannel != null) {
             classicChannel.close();
         }
+        for (Channel dedicated : dedicatedChannels) {
+            dedicated.close();
+        }
         if (serverChannel != null) {
             serverChannel.close();
         }
@@ -814,10 +900,51 @@ public class RDServer {
         // subsequent server instances (e.g. in test suites) start clean.
         ServerEvents.clearAll();
         Scheduler.reset();
+        ServerProfiler.setModTiming(false);
+        ModTimeAccounting.reset();
 
         System.out.println("RDForward server stopped.");
     }
 
+    /**
+     * Run by the tick watchdog when a tick stalls past watchdog-shutdown-ms.
+     * Saves and stops as on a normal shutdown, then exits; if saving blocks
+     * on a lock the stuck tick holds, the JVM is halted after 30 seconds.
+     */
+    private void stopAfterHardStall() {
+        Thread halt = new Thread(() -> {
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                return;
+            }
+            System.err.println("[Watchdog] Shutdown did not finish in 30s, halting");
+            Runtime.getRuntime().halt(1);
+        }, "RDForward-WatchdogHalt");
+        halt.setDaemon(true);
+        halt.start();
+        stop();
+        System.exit(1);
+    }
+
+    /**
+     * Start the Prometheus metrics endpoint if perf-metrics-port is set.
+     * A bind failure is logged and the server keeps running without it.
+     */
+    private void startMetricsServer() {
+        int metricsPort = ServerProperties.getPerfMetricsPort();
+        if (metricsPort <= 0) return;
+        String bind = ServerProperties.getPerfMetricsBind();
+        try {
+            metricsServer = MetricsHttpServer.start(bind, metricsPort);
+            System.out.println("[Perf] Metrics endpoint listening on http://" + bind + ":"
+                    + metricsServer.getPort() + "/metrics");
+        } catch (IOException e) {
+            System.err.println("[Perf] Could not start metrics endpoint on " + bind + ":"
+                    + metricsPort + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Discover and boot the mod loader if it is on the runtime classpath.
      * Absence of the {@code ModSystem} class is not an error — stripped
@@ -1064,6 +1191,7 @@ public class RDServer {
 
         CommandRegistry.registerOp("save", "Save the world to disk", PermissionManager.OP_ADMIN, ctx -> {
             world.save();
+            playerManager.getInventoryAdapter().captureAll(playerManager.getAllPlayers());
             world.savePlayers(playerManager.getAllPlayers());
             BlockOwnerRegistry.saveIfDirty();
             TeamManager.saveIfDirty();
@@ -1071,6 +1199,138 @@ public class RDServer {
             ctx.reply("World saved.");
         });
 
+        CommandRegistry.registerOp("pregen", "Pregenerate chunks around a point", PermissionManager.OP_ADMIN, ctx -> {
+            String[] args = ctx.getArgs();
+            WorldPregenerator pregen = chunkManager.getPregenerator();
+            String sub = args.length > 0 ? args[0].toLowerCase() : "status";
+            switch (sub) {
+                case "status":
+                    ctx.reply("[Pregen] " + pregen.getStatus());
+                    return;
+                case "pause":
+                    ctx.reply(pregen.pause() ? "Pregeneration will pause after the current batch."
+                            : "No running pregeneration job.");
+                    return;
+                case "resume": {
+                    String error = pregen.resume();
+                    ctx.reply(error != null ? error : "Pregeneration resumed.");
+                    return;
+                }
+                case "cancel":
+                    ctx.reply(pregen.cancel() ? "Pregeneration cancelled. Chunks already written are kept."
+                            : "No pregeneration job to cancel.");
+                    return;
+                default:
+                    break;
+            }
+
+            int radius;
+            int centerX = 0;
+            int centerZ = 0;
+            try {
+                radius = Integer.parseInt(args[0]);
+                if (args.length >= 3) {
+                    centerX = Integer.parseInt(args[1]);
+                    centerZ = Integer.parseInt(args[2]);
+                } else if (!ctx.isConsole()) {
+                    ConnectedPlayer sender = playerManager.getPlayerByName(ctx.getSenderName());
+                    if (sender != null) {
+                        centerX = (int) Math.floor(sender.getDoubleX());
+                        centerZ = (int) Math.floor(sender.getDoubleZ());
+                    }
+                }
+            } catch (NumberFormatException e) {
+                ctx.reply("Usage: pregen <radius> [x z] | pause | resume | cancel | status");
+                ctx.reply("  radius is in chunks; x z are block coordinates (default: your position, or 0 0 from console)");
+                return;
+            }
+            String error = pregen.start(centerX >> 4, centerZ >> 4, radius);
+            if (error != null) {
+                ctx.reply(error);
+                return;
+            }
+            long side = 2L * radius + 1;
+            ctx.reply("Pregenerating " + (side * side) + " chunk(s) around " + centerX + ", " + centerZ
+                    + ". Progress: /pregen status");
+            System.out.println("[INFO] " + ctx.getSenderName() + " started pregeneration, radius "
+                    + radius + " around " + centerX + ", " + centerZ);
+        });
+
+        CommandRegistry.registerOp("perf", "Show tick timings, TPS, queues and traffic", PermissionManager.OP_ADMIN, ctx -> {
+            String[] args = ctx.getArgs();
+            String sub = args.length > 0 ? args[0].toLowerCase() : "summary";
+            List<String> lines;
+            switch (sub) {
+                case "summary":
+                    lines = ServerProfiler.describeSummary();
+                    break;
+                case "phases":
+                    lines = ServerProfiler.describePhases();
+                    break;
+                case "mods":
+                    lines = ServerProfiler.describeMods();
+                    break;
+                case "players":
+                    lines = ServerProfiler.describePlayers();
+                    break;
+                case "cache":
+                    lines = ServerProfiler.describeCache();
+                    break;
+                case "reset":
+                    ServerProfiler.reset();
+                    ctx.reply("Profiler histograms and counters reset.");
+                    return;
+                case "modtiming":
+                    if (args.length < 2 || !(args[1].equalsIgnoreCase("on") || args[1].equalsIgnoreCase("off"))) {
+                        ctx.reply("Mod listener timing is " + (ServerProfiler.isModTiming() ? "on" : "off")
+                                + ". Usage: perf modtiming <on|off>");
+                        return;
+                    }
+                    ServerProfiler.setModTiming(args[1].equalsIgnoreCase("on"));
+                    ctx.reply("Mod listener timing " + args[1].toLowerCase() + ".");
+                    return;
+                default:
+                    ctx.reply("Usage: perf [summary | phases | mods | players | cache | reset | modtiming <on|off>]");
+                    return;
+            }
+            for (String line : lines) {
+                ctx.reply(line);
+            }
+        });
+
+        CommandRegistry.registerOp("modperf", "Show per-mod listener and task time, lift mod throttles", PermissionManager.OP_ADMIN, ctx -> {
+            String[] args = ctx.getArgs();
+            String sub = args.length > 0 ? args[0].toLowerCase() : "list";
+            switch (sub) {
+                case "list":
+                    if (!ServerProfiler.isModTiming()) {
+                        ctx.reply("Mod timing is off; enable it with /perf modtiming on.");
+                    }
+                    for (String line : ModTimeAccounting.describe()) {
+                        ctx.reply(line);
+                    }
+                    return;
+                case "reset":
+                    ModTimeAccounting.reset();
+                    ctx.reply("Mod time accounting reset; all throttled and disabled mods re-enabled.");
+                    return;
+                case "enable":
+                    if (args.length < 2) {
+                        ctx.reply("Usage: modperf enable <modId>");
+                        return;
+                    }
+                    if (ModTimeAccounting.enable(args[1])) {
+                        ctx.reply("Mod '" + args[1] + "' re-enabled.");
+                        System.out.println("[ModPerf] " + ctx.getSenderName() + " re-enabled mod '" + args[1] + "'");
+                    } else {
+                        ctx.reply("Mod '" + args[1] + "' is not throttled or disabled.");
+                    }
+                    return;
+                default:
+                    ctx.reply("Usage: modperf [list | reset | enable <modId>]");
+            }
+        });
+
         CommandRegistry.registerOp("stop", "Save and stop the server (use: stop confirm)", PermissionManager.OP_ADMIN, ctx -> {
             if (!ctx.isConsole() && (ctx.getArgs().length == 0 || !ctx.getArgs()[0].equalsIgnoreCase("confirm"))) {
                 ctx.reply("This will shut down the server. Use /stop confirm to proceed.");
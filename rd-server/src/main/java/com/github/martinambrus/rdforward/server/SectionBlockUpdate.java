@@ -0,0 +1,67 @@
+package com.github.martinambrus.rdforward.server;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Every block change one tick made inside a single 16x16x16 chunk
+ * section, queued to players with {@link ConnectedPlayer#writeSectionUpdate}.
+ *
+ * It is a plain value, not a {@link com.github.martinambrus.rdforward.protocol.packet.Packet}:
+ * the per-client translators turn it into the multi-block packet their
+ * protocol has (Multi Block Change, Section Blocks Update,
+ * UpdateSubChunkBlocks), and a pipeline without one drops it instead of
+ * trying to encode it. One instance is shared by every recipient, so
+ * the translated packet is built once per protocol and reused through
+ * {@link #encodedFor}. Clients without a multi-block packet get plain
+ * SetBlock packets from {@link PlayerManager#broadcastBlockChanges}
+ * instead.
+ */
+public final class SectionBlockUpdate {
+
+    private final int sectionX;
+    private final int sectionY;
+    private final int sectionZ;
+    /** Section-relative positions, (x << 8) | (z << 4) | y. */
+    private final short[] positions;
+    private final byte[] blockTypes;
+
+    /** Translated packet per protocol (or per block mapping, for Bedrock). */
+    private final ConcurrentHashMap<Object, Object> encoded = new ConcurrentHashMap<>(4);
+
+    SectionBlockUpdate(int sectionX, int sectionY, int sectionZ, short[] positions, byte[] blockTypes) {
+        this.sectionX = sectionX;
+        this.sectionY = sectionY;
+        this.sectionZ = sectionZ;
+        this.positions = positions;
+        this.blockTypes = blockTypes;
+    }
+
+    /** Section-relative position of one change. */
+    static short position(int x, int y, int z) {
+        return (short) ((x & 0xF) << 8 | (z & 0xF) << 4 | (y & 0xF));
+    }
+
+    public int getSectionX() { return sectionX; }
+    public int getSectionY() { return sectionY; }
+    public int getSectionZ() { return sectionZ; }
+    public int size() { return positions.length; }
+
+    public int getLocalX(int i) { return positions[i] >> 8 & 0xF; }
+    public int getLocalY(int i) { return positions[i] & 0xF; }
+    public int getLocalZ(int i) { return positions[i] >> 4 & 0xF; }
+    public int getX(int i) { return (sectionX << 4) + getLocalX(i); }
+    public int getY(int i) { return (sectionY << 4) + getLocalY(i); }
+    public int getZ(int i) { return (sectionZ << 4) + getLocalZ(i); }
+    public int getBlockType(int i) { return blockTypes[i] & 0xFF; }
+
+    /**
+     * The translated packet for {@code key}, built by {@code encoder} the
+     * first time any recipient with that key asks for it. Translators run
+     * on different event loops, hence the concurrent map.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T encodedFor(Object key, Function<SectionBlockUpdate, T> encoder) {
+        return (T) encoded.computeIfAbsent(key, k -> encoder.apply(this));
+    }
+}
@@ -27,7 +27,8 @@ import java.util.Arrays;
  * 3. Insert VersionTranslator into the pipeline if client version differs
  * 4. Send the full world via Classic level transfer sequence
  * 5. Spawn self and existing players for the new client
- * 6. Route game packets (block changes, position updates, chat) to the server
+ * 6. Route game packets (block changes, position updates, chat) to the server,
+ *    queued through an {@link InboundPacketQueue} and applied on the tick thread
  *
  * Login sequence (MC Classic protocol):
  *   Client: PlayerIdentification (0x00) — protocol version, username, key
@@ -54,6 +55,9 @@ public class ServerConnectionHandler extends SimpleChannelInboundHandler<Packet>
     private ProtocolVersion clientVersion;
     private ConnectedPlayer player;
     private boolean loginComplete = false;
+    private InboundPacketQueue inbound;
+    /** Login slot from {@link LoginGate}, held from identification until the player joins. */
+    private LoginGate.Ticket loginTicket;
 
     public ServerConnectionHandler(ProtocolVersion serverVersion, ServerWorld world,
                                    PlayerManager playerManager, ChunkManager chunkManager) {
@@ -65,6 +69,20 @@ public class ServerConnectionHandler extends SimpleChannelInboundHandler<Packet>
 
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, Packet packet) {
+        if (!loginComplete && loginTicket != null && loginTicket.isQueued()) {
+            return; // waiting in the join queue
+        }
+        if (!loginComplete && loginTicket == null && (packet instanceof PlayerIdentificationPacket
+                || packet instanceof PlayerIdentificationPacketV016a
+                || packet instanceof PlayerIdentificationPacketV015a)) {
+            // Take a login slot first; the identification is handled once it's held
+            loginTicket = LoginGate.enter(ctx.channel(), () -> channelRead0(ctx, packet), reason -> {
+                ctx.writeAndFlush(new DisconnectPacket(reason));
+                ctx.close();
+            });
+            return;
+        }
+
         // First packet must be PlayerIdentification (Classic 0x00)
         if (!loginComplete && packet instanceof PlayerIdentificationPacket) {
             handlePlayerIdentification(ctx, (PlayerIdentificationPacket) packet);
@@ -89,7 +107,12 @@ public class ServerConnectionHandler extends SimpleChannelInboundHandler<Packet>
             return;
         }
 
-        // Route game packets by type
+        // Game packets are applied by the tick loop
+        inbound.submit(packet);
+    }
+
+    /** Route one game packet. Runs on the tick thread, see {@link InboundPacketQueue}. */
+    private void handleGamePacket(ChannelHandlerContext ctx, Packet packet) {
         if (packet instanceof SetBlockClientPacket) {
             handleSetBlock(ctx, (SetBlockClientPacket) packet);
         } else if (packet instanceof PlayerTeleportPacket) {
@@ -196,16 +219,16 @@ public class ServerConnectionHandler extends SimpleChannelInboundHandler<Packet>
         // Restore saved position if available, otherwise spawn at world center
         // Use the assigned username (player.getUsername()), not the raw packet name,
         // because empty names get renamed to "Player<ID>" by addPlayer().
-        short[] savedPos = world.getSavedPlayerPosition(player.getUsername(), player.getUuid());
+        PlayerData saved = world.getSavedPlayer(player.getUsername(), player.getUuid());
 
         short spawnX, spawnY, spawnZ;
         byte spawnYaw = 0, spawnPitch = 0;
-        if (savedPos != null) {
-            spawnX = savedPos[0];
-            spawnY = savedPos[1];
-            spawnZ = savedPos[2];
-            spawnYaw = (byte) savedPos[3];
-            spawnPitch = (byte) savedPos[4];
+        if (saved != null) {
+            spawnX = (short) Math.round(saved.getX() * 32);
+            spawnY = (short) Math.round(saved.getY() * 32);
+            spawnZ = (short) Math.round(saved.getZ() * 32);
+            spawnYaw = saved.getYawByte();
+            spawnPitch = saved.getPitchByte();
             System.out.println("Restored position for " + player.getUsername());
         } else {
             // Default: center of the chunk containing the world midpoint.
@@ -230,10 +253,11 @@ public class ServerConnectionHandler extends SimpleChannelInboundHandler<Packet>
             -1, username, spawnX, spawnY, spawnZ, spawnYaw & 0xFF, spawnPitch & 0xFF
         ));
 
-        // Send existing players to the new client
+        // Send existing players to the new client. Goes through the player so
+        // IDs are mapped into the client's entity window (see ClassicEntityWindow).
         for (ConnectedPlayer existing : playerManager.getAllPlayers()) {
             if (existing != player) {
-                ctx.writeAndFlush(new SpawnPlayerPacket(
+                player.sendPacket(new SpawnPlayerPacket(
                     existing.getPlayerId(), existing.getUsername(),
                     existing.getX(), existing.getY(), existing.getZ(),
                     existing.getYaw(), existing.getPitch()
@@ -248,7 +272,12 @@ public class ServerConnectionHandler extends SimpleChannelInboundHandler<Packet>
         // Broadcast new player's spawn to everyone else
         playerManager.broadcastPlayerSpawn(player);
 
+        inbound = new InboundPacketQueue(player, world::getBlock, packet -> handleGamePacket(ctx, packet));
+        player.setInboundQueue(inbound);
         loginComplete = true;
+        if (loginTicket != null) {
+            loginTicket.release();
+        }
 
         // Remove the login timeout — normal gameplay uses keep-alive pings instead
         if (ctx.pipeline().get("loginTimeout") != null) {
@@ -274,7 +303,8 @@ public class ServerConnectionHandler extends SimpleChannelInboundHandler<Packet>
         ctx.writeAndFlush(new LevelInitializePacket());
 
         try {
-            byte[] compressed = world.serializeForClassicProtocol(clientVersion);
+            byte[] compressed = world.serializeForClassicProtocol(clientVersion,
+                    CompressionPolicy.transferLevel(ctx.channel().remoteAddress()));
             int totalLength = compressed.length;
             int offset = 0;
 
@@ -421,20 +451,29 @@ public class ServerConnectionHandler extends SimpleChannelInboundHandler<Packet>
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
-        if (player != null) {
-            // Remove player first so getPlayerCount() is accurate for event listeners
-            playerManager.removePlayer(ctx.channel());
-            System.out.println(player.getUsername() + " disconnected"
-                + " (" + playerManager.getPlayerCount() + " online)");
-            ServerEvents.PLAYER_LEAVE.invoker().onPlayerLeave(player.getUsername());
-            world.rememberPlayerPosition(player);
-            chunkManager.removePlayer(player);
-            playerManager.broadcastChat((byte) 0, player.getUsername() + " left the game");
-            playerManager.broadcastPlayerDespawn(player);
+        if (inbound != null) {
+            // The tick thread tears the player down once it stops applying
+            // this connection's packets, so none lands after the removal
+            inbound.close(() -> leaveWorld(ctx));
+        } else if (player != null) {
+            leaveWorld(ctx);
         }
         super.channelInactive(ctx);
     }
 
+    /** Remove the disconnected player from the server and tell everyone. */
+    private void leaveWorld(ChannelHandlerContext ctx) {
+        // Remove player first so getPlayerCount() is accurate for event listeners
+        playerManager.removePlayer(ctx.channel());
+        System.out.println(player.getUsername() + " disconnected"
+            + " (" + playerManager.getPlayerCount() + " online)");
+        ServerEvents.PLAYER_LEAVE.invoker().onPlayerLeave(player.getUsername());
+        world.rememberPlayerPosition(player);
+        chunkManager.removePlayer(player);
+        playerManager.broadcastChat((byte) 0, player.getUsername() + " left the game");
+        playerManager.broadcastPlayerDespawn(player);
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
         if (cause instanceof ReadTimeoutException) {
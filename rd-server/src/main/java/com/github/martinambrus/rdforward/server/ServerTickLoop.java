@@ -2,17 +2,19 @@ package com.github.martinambrus.rdforward.server;
 
 import com.github.martinambrus.rdforward.protocol.packet.Packet;
 import com.github.martinambrus.rdforward.protocol.packet.classic.PingPacket;
-import com.github.martinambrus.rdforward.protocol.packet.classic.SetBlockServerPacket;
 
 import com.github.martinambrus.rdforward.server.api.BlockOwnerRegistry;
 import com.github.martinambrus.rdforward.server.api.GriefProtection;
 import com.github.martinambrus.rdforward.server.api.TeamManager;
 import com.github.martinambrus.rdforward.server.api.ServerProperties;
+import com.github.martinambrus.rdforward.server.api.Scheduler;
 import com.github.martinambrus.rdforward.server.bedrock.BedrockSessionWrapper;
+import com.github.martinambrus.rdforward.server.profiler.ServerProfiler;
+import com.github.martinambrus.rdforward.server.profiler.TickPhase;
 import com.github.martinambrus.rdforward.api.event.server.ServerEvents;
 import org.cloudburstmc.protocol.bedrock.packet.NetworkStackLatencyPacket;
 
-import java.util.List;
+import java.io.File;
 import java.util.concurrent.locks.LockSupport;
 
 /**
@@ -23,14 +25,16 @@ import java.util.concurrent.locks.LockSupport;
  * (e.g. GC pause), it catches up by running ticks back-to-back, capped
  * at {@link #MAX_CATCH_UP_TICKS} to prevent death spirals.
  *
- * Each tick:
- *   1. Sends keep-alive pings to all clients (interval from keep-alive-interval config)
- *   2. Future: process queued player actions
- *   3. Future: update world state (physics, redstone, etc.)
- *   4. Future: dispatch tick events to mods
+ * Each tick runs the {@link TickPhase}s in order; interval phases (pings,
+ * probes, saves...) only on the ticks they're due. A phase that throws
+ * is logged and the tick continues with the next phase, so one broken
+ * mod listener or subsystem can't stop the simulation.
  *
  * The tick loop runs on its own daemon thread so it doesn't block
- * the Netty event loop or prevent JVM shutdown.
+ * the Netty event loop or prevent JVM shutdown. A {@link TickWatchdog}
+ * watches it for ticks that hang.
+ *
+ * Every phase is timed by {@link ServerProfiler} (see /perf).
  */
 public class ServerTickLoop implements Runnable {
 
@@ -43,19 +47,41 @@ public class ServerTickLoop implements Runnable {
     private static final int BEDROCK_PROBE_INTERVAL_TICKS = 100; // Every 5 seconds
     private static final int SAVE_INTERVAL_TICKS = 6000; // Every 5 minutes
     private static final int INCREMENTAL_SAVE_INTERVAL_TICKS = 100; // Every 5 seconds
+    /** Consecutive failures of one phase that are logged with a stack trace. */
+    private static final int LOGGED_PHASE_FAILURES = 3;
+    private static final TickPhase[] PHASES = TickPhase.values();
 
     private final PlayerManager playerManager;
     private final ServerWorld world;
     private final ChunkManager chunkManager;
+    /** This tick's applied block changes, grouped by section; reused across ticks. */
+    private final BlockChangeSet blockChanges = new BlockChangeSet(256);
+    private final TickWatchdog watchdog;
+    /** Consecutive failures per phase, indexed by ordinal. */
+    private final int[] phaseFailures = new int[PHASES.length];
+    private volatile long totalPhaseFailures;
     private volatile boolean running;
     private Thread thread;
-    private long tickCount;
+    private volatile long tickCount;
+
+    /** Thread running the (single) tick loop, for {@link #isTickThread()}. */
+    private static volatile Thread tickThread;
+    /** Whether a tick loop is running that will still drain inbound queues. */
+    private static volatile boolean drainingInbound;
 
     public ServerTickLoop(PlayerManager playerManager, ServerWorld world, ChunkManager chunkManager) {
+        this(playerManager, world, chunkManager, null);
+    }
+
+    /** @param dataDir server data directory, for watchdog stall reports */
+    public ServerTickLoop(PlayerManager playerManager, ServerWorld world, ChunkManager chunkManager,
+                          File dataDir) {
         this.playerManager = playerManager;
         this.world = world;
         this.chunkManager = chunkManager;
         this.pingIntervalTicks = Math.max(1, ServerProperties.getKeepAliveIntervalSeconds() * 20);
+        this.watchdog = new TickWatchdog(ServerProperties.getWatchdogWarnMs(),
+                ServerProperties.getWatchdogReportMs(), ServerProperties.getWatchdogShutdownMs(), dataDir);
     }
 
     /**
@@ -64,17 +90,37 @@ public class ServerTickLoop implements Runnable {
     public void start() {
         if (running) return;
         running = true;
+        drainingInbound = true;
         thread = new Thread(this, "RDForward-TickLoop");
         thread.setDaemon(true);
+        tickThread = thread;
         thread.start();
+        watchdog.start(thread);
+    }
+
+    /** Whether the calling thread is the tick loop. */
+    public static boolean isTickThread() {
+        return Thread.currentThread() == tickThread;
     }
 
     /**
-     * Stop the tick loop and wait for the thread to finish.
+     * Whether a running tick loop will still drain inbound queues, and so
+     * run the teardown of connections that close; see
+     * {@link InboundPacketQueue#close(Runnable)}.
+     */
+    public static boolean isDrainingInbound() {
+        return drainingInbound;
+    }
+
+    /**
+     * Stop the tick loop and wait for the thread to finish. Called on the
+     * tick thread itself (an in-game /stop runs as a tick-thread command),
+     * it can't wait for itself, so the loop just ends after the current tick.
      */
     public void stop() {
         running = false;
-        if (thread != null) {
+        watchdog.stop();
+        if (thread != null && thread != Thread.currentThread()) {
             thread.interrupt();
             try {
                 thread.join(1000);
@@ -99,9 +145,17 @@ public class ServerTickLoop implements Runnable {
                     nextTick += skipped * TICK_NANOS;
                     System.err.println("[TickLoop] Skipped " + skipped
                             + " tick(s) - can't keep up!");
+                    ServerProfiler.recordSkippedTicks(skipped);
                 }
 
-                tick();
+                try {
+                    tick();
+                } catch (Throwable e) {
+                    // Only fatal VM errors get past the per-phase handlers
+                    System.err.println("[TickLoop] Tick " + tickCount + " failed: " + e);
+                    e.printStackTrace();
+                    watchdog.tickEnded();
+                }
                 nextTick += TICK_NANOS;
             } else {
                 // Sleep until the next tick, using appropriate precision
@@ -119,96 +173,194 @@ public class ServerTickLoop implements Runnable {
                 }
             }
         }
+        // Connections that closed from here on tear down inline; finish the
+        // ones already handed to this thread
+        drainingInbound = false;
+        for (ConnectedPlayer player : playerManager.getAllPlayers()) {
+            InboundPacketQueue inbound = player.getInboundQueue();
+            if (inbound != null && inbound.isClosed()) {
+                inbound.drain(0);
+            }
+        }
     }
 
     private void tick() {
         tickCount++;
+        long tickStart = ServerProfiler.tickStart();
+        watchdog.tickStarted(tickCount, tickStart);
 
-        // Advance world time (day/night cycle + weather duration)
-        world.tickTime();
-
-        // Process queued block changes and broadcast results
-        List<SetBlockServerPacket> blockChanges = world.processPendingBlockChanges();
-        for (SetBlockServerPacket sb : blockChanges) {
-            playerManager.broadcastWrite(sb);
-            chunkManager.setBlock(sb.getX(), sb.getY(), sb.getZ(), (byte) sb.getBlockType());
+        long t = tickStart;
+        for (TickPhase phase : PHASES) {
+            if (!isDue(phase)) continue;
+            watchdog.enterPhase(phase);
+            try {
+                runPhase(phase);
+                phaseFailures[phase.ordinal()] = 0;
+            } catch (Throwable e) {
+                if (e instanceof VirtualMachineError && !(e instanceof StackOverflowError)) throw e;
+                phaseFailed(phase, e);
+            }
+            t = ServerProfiler.phase(phase, t);
         }
+        watchdog.tickEnded();
+        ServerProfiler.tickEnd(tickStart);
+    }
 
-        // Send keep-alive pings periodically
-        if (tickCount % pingIntervalTicks == 0) {
-            playerManager.broadcastWrite(new PingPacket());
-        }
+    /** Whether an interval phase runs on this tick. */
+    private boolean isDue(TickPhase phase) {
+        return switch (phase) {
+            case PINGS -> tickCount % pingIntervalTicks == 0;
+            case BEDROCK_PROBES -> tickCount % BEDROCK_PROBE_INTERVAL_TICKS == 0;
+            case TIME_BROADCAST -> tickCount % TIME_BROADCAST_INTERVAL_TICKS == 0;
+            case CHUNK_TRACKING -> tickCount % CHUNK_UPDATE_INTERVAL_TICKS == 0;
+            // Skip on full-save ticks to avoid racing with saveAllDirty().
+            case INCREMENTAL_SAVE -> tickCount % INCREMENTAL_SAVE_INTERVAL_TICKS == 0
+                    && tickCount % SAVE_INTERVAL_TICKS != 0;
+            case FULL_SAVE -> tickCount % SAVE_INTERVAL_TICKS == 0;
+            default -> true;
+        };
+    }
 
-        // Bedrock clients need server-initiated NetworkStackLatencyPacket probes.
-        // The Classic PingPacket is dropped by ClassicToBedrockTranslator (RakNet
-        // handles connection-level keep-alive), but the Bedrock client's application
-        // layer times out without periodic server probes. Sent every 5 seconds,
-        // well within the 10-second default RakNet session timeout.
-        if (tickCount % BEDROCK_PROBE_INTERVAL_TICKS == 0) {
-            long timestamp = System.currentTimeMillis();
-            for (ConnectedPlayer player : playerManager.getAllPlayers()) {
-                BedrockSessionWrapper bsw = player.getBedrockSession();
-                if (bsw != null) {
-                    NetworkStackLatencyPacket probe = new NetworkStackLatencyPacket();
-                    probe.setTimestamp(timestamp);
-                    probe.setFromServer(true);
-                    bsw.sendDirect(probe);
+    private void runPhase(TickPhase phase) {
+        switch (phase) {
+            case TIME -> {
+                // Advance world time (day/night cycle + weather duration)
+                world.tickTime();
+            }
+            case INBOUND -> {
+                // Apply the gameplay packets each connection queued since the
+                // last tick, a bounded number per connection
+                int budget = InboundPacketQueue.getPacketsPerTick();
+                for (ConnectedPlayer player : playerManager.getAllPlayers()) {
+                    InboundPacketQueue inbound = player.getInboundQueue();
+                    if (inbound != null) {
+                        inbound.drain(budget);
+                    }
                 }
             }
-        }
-
-        // Broadcast time update periodically
-        if (tickCount % TIME_BROADCAST_INTERVAL_TICKS == 0) {
-            long timeOfDay = world.isTimeFrozen() ? -world.getWorldTime() : world.getWorldTime();
-            playerManager.broadcastTimeUpdateWrite(tickCount, timeOfDay);
-        }
-
-        // Update chunk loading/unloading for all players periodically
-        if (tickCount % CHUNK_UPDATE_INTERVAL_TICKS == 0) {
-            for (ConnectedPlayer player : playerManager.getAllPlayers()) {
-                chunkManager.updatePlayerChunks(player);
+            case BLOCK_CHANGES -> {
+                // Process queued block changes and broadcast results, one
+                // multi-block update per changed section
+                blockChanges.clear();
+                world.processPendingBlockChanges(blockChanges);
+                if (!blockChanges.isEmpty()) {
+                    chunkManager.applyBlockChanges(blockChanges);
+                    playerManager.broadcastBlockChanges(blockChanges, chunkManager);
+                }
+            }
+            case PINGS -> {
+                // Send keep-alive pings periodically
+                playerManager.broadcastWrite(new PingPacket());
+            }
+            case BEDROCK_PROBES -> {
+                // Bedrock clients need server-initiated NetworkStackLatencyPacket probes.
+                // The Classic PingPacket is dropped by ClassicToBedrockTranslator (RakNet
+                // handles connection-level keep-alive), but the Bedrock client's application
+                // layer times out without periodic server probes. Sent every 5 seconds,
+                // well within the 10-second default RakNet session timeout.
+                long timestamp = System.currentTimeMillis();
+                for (ConnectedPlayer player : playerManager.getAllPlayers()) {
+                    BedrockSessionWrapper bsw = player.getBedrockSession();
+                    if (bsw != null) {
+                        NetworkStackLatencyPacket probe = new NetworkStackLatencyPacket();
+                        probe.setTimestamp(timestamp);
+                        probe.setFromServer(true);
+                        bsw.sendDirect(probe);
+                    }
+                }
+            }
+            case TIME_BROADCAST -> {
+                // Broadcast time update periodically
+                long timeOfDay = world.isTimeFrozen() ? -world.getWorldTime() : world.getWorldTime();
+                playerManager.broadcastTimeUpdateWrite(tickCount, timeOfDay);
+            }
+            case CHUNK_TRACKING -> {
+                // Update chunk loading/unloading for all players periodically
+                for (ConnectedPlayer player : playerManager.getAllPlayers()) {
+                    chunkManager.updatePlayerChunks(player);
+                }
+                // Re-rank queued generation by the new positions and drop
+                // chunks players have moved away from
+                chunkManager.reprioritizeGeneration();
+                // Classic clients only see 128 players: keep them on the nearest
+                playerManager.refreshEntityWindows();
+            }
+            case BATCH_RESEND -> {
+                // Adaptive block change batching: if any chunk accumulated too many
+                // individual block changes, resend the full chunk to affected players.
+                chunkManager.checkBatchResend();
+                chunkManager.resetChangeCounters();
+            }
+            case INCREMENTAL_SAVE -> {
+                // Incremental chunk saves: spread disk I/O over time by saving
+                // a few dirty chunks every 5 seconds on the worker pool thread.
+                chunkManager.saveIncrementally();
+            }
+            case FULL_SAVE -> {
+                // Auto-save world and player positions asynchronously.
+                // Snapshots are taken on this thread (fast), disk I/O runs on
+                // the background save thread so the tick loop doesn't stall.
+                ServerEvents.WORLD_SAVE.invoker().onWorldSave();
+                world.saveIfDirtyAsync();
+                playerManager.getInventoryAdapter().captureAll(playerManager.getAllPlayers());
+                world.savePlayersAsync(playerManager.getAllPlayers());
+                BlockOwnerRegistry.saveIfDirty();
+                TeamManager.saveIfDirty();
+                GriefProtection.evictStaleEntries();
+                chunkManager.saveAllDirty();
+            }
+            case MOD_TICK -> {
+                // Run due scheduled tasks (each timed against its own mod),
+                // then fire the tick event for mods
+                Scheduler.tick(tickCount);
+                ServerEvents.SERVER_TICK.invoker().onServerTick(tickCount);
+            }
+            case FLUSH -> {
+                // Flush all buffered writes for this tick in a single batch.
+                // This coalesces block changes, pings, time updates, and chunk
+                // sends into one network flush per player instead of per-packet.
+                playerManager.flushAll();
             }
         }
+    }
 
-        // Adaptive block change batching: if any chunk accumulated too many
-        // individual block changes, resend the full chunk to affected players.
-        chunkManager.checkBatchResend();
-        chunkManager.resetChangeCounters();
-
-        // Incremental chunk saves: spread disk I/O over time by saving
-        // a few dirty chunks every 5 seconds on the worker pool thread.
-        // Skip on full-save ticks to avoid racing with saveAllDirty().
-        if (tickCount % INCREMENTAL_SAVE_INTERVAL_TICKS == 0
-                && tickCount % SAVE_INTERVAL_TICKS != 0) {
-            chunkManager.saveIncrementally();
-        }
-
-        // Auto-save world and player positions asynchronously.
-        // Snapshots are taken on this thread (fast), disk I/O runs on
-        // the background save thread so the tick loop doesn't stall.
-        if (tickCount % SAVE_INTERVAL_TICKS == 0) {
-            ServerEvents.WORLD_SAVE.invoker().onWorldSave();
-            world.saveIfDirtyAsync();
-            world.savePlayersAsync(playerManager.getAllPlayers());
-            BlockOwnerRegistry.saveIfDirty();
-            TeamManager.saveIfDirty();
-            GriefProtection.evictStaleEntries();
-            chunkManager.saveAllDirty();
+    /**
+     * Log a phase that threw and carry on with the next phase. The first
+     * {@link #LOGGED_PHASE_FAILURES} consecutive failures of a phase get a
+     * stack trace; after that only every 200th is mentioned until the phase
+     * succeeds again.
+     */
+    private void phaseFailed(TickPhase phase, Throwable e) {
+        int failures = ++phaseFailures[phase.ordinal()];
+        totalPhaseFailures++;
+        if (failures <= LOGGED_PHASE_FAILURES) {
+            String mod = TickWatchdog.modOf(e.getStackTrace());
+            System.err.println("[TickLoop] Phase " + phase.getMetricName() + " failed in tick " + tickCount
+                    + (mod != null ? " (mod " + mod + ")" : "") + ": " + e);
+            e.printStackTrace();
+            if (failures == LOGGED_PHASE_FAILURES) {
+                System.err.println("[TickLoop] Phase " + phase.getMetricName()
+                        + " keeps failing; suppressing further stack traces");
+            }
+        } else if (failures % 200 == 0) {
+            System.err.println("[TickLoop] Phase " + phase.getMetricName() + " has failed "
+                    + failures + " ticks in a row: " + e);
         }
-
-        // Fire tick event for mods
-        ServerEvents.SERVER_TICK.invoker().onServerTick(tickCount);
-
-        // Flush all buffered writes for this tick in a single batch.
-        // This coalesces block changes, pings, time updates, and chunk
-        // sends into one network flush per player instead of per-packet.
-        playerManager.flushAll();
     }
 
     public long getTickCount() {
         return tickCount;
     }
 
+    /** Phase invocations that threw since startup. */
+    public long getPhaseFailures() {
+        return totalPhaseFailures;
+    }
+
+    public TickWatchdog getWatchdog() {
+        return watchdog;
+    }
+
     public boolean isRunning() {
         return running;
     }
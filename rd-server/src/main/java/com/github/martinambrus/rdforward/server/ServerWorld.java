@@ -1,7 +1,7 @@
 package com.github.martinambrus.rdforward.server;
 
 import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
-import com.github.martinambrus.rdforward.server.api.ServerProperties;
+import com.github.martinambrus.rdforward.protocol.translation.ChunkTranslator;
 import com.github.martinambrus.rdforward.world.BlockRegistry;
 import com.github.martinambrus.rdforward.world.WorldGenerator;
 import com.github.martinambrus.rdforward.world.convert.ServerWorldHeader;
@@ -20,14 +20,9 @@ import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -49,7 +44,6 @@ import java.util.zip.GZIPOutputStream;
 public class ServerWorld {
 
     private static final String SAVE_FILE_NAME = "server-world.dat";
-    private static final String PLAYERS_FILE_NAME = "server-players.dat";
 
     private final int width;
     private final int height;
@@ -62,7 +56,7 @@ public class ServerWorld {
      */
     private volatile short[] blockOwnerIds;
     private final File saveFile;
-    private final File playersFile;
+    private final PlayerDataStore playerData;
     private volatile boolean dirty = false;
 
     /** Read-write lock replacing synchronized for block access. */
@@ -84,11 +78,12 @@ public class ServerWorld {
     public enum WeatherState { CLEAR, RAIN, THUNDER }
 
     /** Queued block changes from clients, processed during tick loop. */
-    private final Queue<PendingBlockChange> pendingBlockChanges = new ConcurrentLinkedQueue<>();
-
-    /** In-memory cache of all known player positions (online + disconnected). */
-    private final ConcurrentHashMap<String, short[]> playerPositionCache =
-            new ConcurrentHashMap<>();
+    private final BlockChangeQueue pendingBlockChanges = new BlockChangeQueue(256);
+    /** Changes already applied off the tick thread, waiting to be published by it. */
+    private final BlockChangeQueue appliedBlockChanges = new BlockChangeQueue(256);
+    /** Tick-thread scratch for draining {@link #pendingBlockChanges}; reused every tick. */
+    private final BlockChangeSet drainedBlockChanges = new BlockChangeSet(256);
+    private long[] drainedOrder = new long[256];
 
     /** Set the shared I/O thread for async saves. Call before tick loop starts. */
     public void setIOThread(ChunkIOThread ioThread) {
@@ -107,7 +102,7 @@ public class ServerWorld {
         this.blockOwnerIds = null; // lazy-allocated on first ownership write
         File dir = (dataDir != null) ? dataDir : new File(".");
         this.saveFile = new File(dir, SAVE_FILE_NAME);
-        this.playersFile = new File(dir, PLAYERS_FILE_NAME);
+        this.playerData = new PlayerDataStore(dir);
     }
 
     /**
@@ -238,6 +233,135 @@ public class ServerWorld {
         }
     }
 
+    /**
+     * Copy the box [min, max] (inclusive) into {@code dest} under a single
+     * read lock. The buffer uses the same order as the world array (x
+     * fastest, then z, then y), so each in-bounds row is one arraycopy.
+     * Positions outside the world read as air.
+     */
+    public void readRegion(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, byte[] dest) {
+        int sizeX = maxX - minX + 1;
+        int sizeZ = maxZ - minZ + 1;
+        int x0 = Math.max(minX, 0), x1 = Math.min(maxX, width - 1);
+        int y0 = Math.max(minY, 0), y1 = Math.min(maxY, height - 1);
+        int z0 = Math.max(minZ, 0), z1 = Math.min(maxZ, depth - 1);
+        boolean clipped = x0 != minX || x1 != maxX || y0 != minY || y1 != maxY || z0 != minZ || z1 != maxZ;
+        if (clipped) {
+            Arrays.fill(dest, 0, (maxY - minY + 1) * sizeZ * sizeX, (byte) BlockRegistry.AIR);
+        }
+        if (x0 > x1 || y0 > y1 || z0 > z1) return;
+        int rowLength = x1 - x0 + 1;
+        rwLock.readLock().lock();
+        try {
+            for (int y = y0; y <= y1; y++) {
+                for (int z = z0; z <= z1; z++) {
+                    int destIndex = ((y - minY) * sizeZ + (z - minZ)) * sizeX + (x0 - minX);
+                    System.arraycopy(blocks, blockIndex(x0, y, z), dest, destIndex, rowLength);
+                }
+            }
+        } finally {
+            rwLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Set every in-bounds block in the box [min, max] (inclusive) to
+     * {@code blockType}. Works through the box one 16x16x16 section at a
+     * time, taking the write lock once per section so readers (chunk
+     * serialization, saves) can interleave with a large fill. Sections
+     * are visited chunk column by chunk column, so {@code applied} ends
+     * up grouped by chunk.
+     *
+     * @param applied receives the blocks that actually changed
+     */
+    public void fillRegion(int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                           byte blockType, BlockChangeSet applied) {
+        int x0 = Math.max(minX, 0), x1 = Math.min(maxX, width - 1);
+        int y0 = Math.max(minY, 0), y1 = Math.min(maxY, height - 1);
+        int z0 = Math.max(minZ, 0), z1 = Math.min(maxZ, depth - 1);
+        if (x0 > x1 || y0 > y1 || z0 > z1) return;
+        for (int cx = x0 >> 4; cx <= x1 >> 4; cx++) {
+            int sx0 = Math.max(x0, cx << 4), sx1 = Math.min(x1, (cx << 4) + 15);
+            for (int cz = z0 >> 4; cz <= z1 >> 4; cz++) {
+                int sz0 = Math.max(z0, cz << 4), sz1 = Math.min(z1, (cz << 4) + 15);
+                for (int sy = y0 >> 4; sy <= y1 >> 4; sy++) {
+                    int sy0 = Math.max(y0, sy << 4), sy1 = Math.min(y1, (sy << 4) + 15);
+                    rwLock.writeLock().lock();
+                    try {
+                        for (int y = sy0; y <= sy1; y++) {
+                            for (int z = sz0; z <= sz1; z++) {
+                                int index = blockIndex(sx0, y, z);
+                                for (int x = sx0; x <= sx1; x++, index++) {
+                                    if (blocks[index] == blockType) continue;
+                                    blocks[index] = blockType;
+                                    dirty = true;
+                                    applied.add(x, y, z, blockType);
+                                }
+                            }
+                        }
+                    } finally {
+                        rwLock.writeLock().unlock();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Apply a list of block changes, grouped by chunk column with the
+     * write lock taken once per chunk. Out-of-bounds entries are skipped.
+     * Within a section changes keep their original order, so for a
+     * repeated position the last change wins. {@code applied} ends up
+     * grouped by chunk column, then by section.
+     *
+     * @param applied receives the changes that actually changed a block
+     */
+    public void applyBlockChanges(BlockChangeSet changes, BlockChangeSet applied) {
+        if (changes.isEmpty()) return;
+        applyBlockChanges(changes, applied, new long[changes.size()]);
+    }
+
+    /** {@link #applyBlockChanges(BlockChangeSet, BlockChangeSet)} with a caller-owned sort buffer. */
+    private void applyBlockChanges(BlockChangeSet changes, BlockChangeSet applied, long[] order) {
+        int count = changes.size();
+        int chunksZ = (depth + 15) >> 4;
+        int sectionsY = (height + 15) >> 4;
+        // Section key in the high 32 bits, input position in the low 32:
+        // sorting groups by chunk column, then section, then input order
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            int x = changes.getX(i), y = changes.getY(i), z = changes.getZ(i);
+            if (!inBounds(x, y, z)) continue;
+            long section = ((long) (x >> 4) * chunksZ + (z >> 4)) * sectionsY + (y >> 4);
+            order[n++] = (section << 32) | i;
+        }
+        Arrays.sort(order, 0, n);
+
+        int start = 0;
+        while (start < n) {
+            long chunk = (order[start] >>> 32) / sectionsY;
+            int end = start;
+            while (end < n && (order[end] >>> 32) / sectionsY == chunk) end++;
+            rwLock.writeLock().lock();
+            try {
+                for (int k = start; k < end; k++) {
+                    int i = (int) order[k];
+                    long position = changes.getPosition(i);
+                    byte blockType = changes.getType(i);
+                    int index = blockIndex(BlockChangeSet.unpackX(position),
+                            BlockChangeSet.unpackY(position), BlockChangeSet.unpackZ(position));
+                    if (blocks[index] == blockType) continue;
+                    blocks[index] = blockType;
+                    dirty = true;
+                    applied.add(position, blockType);
+                }
+            } finally {
+                rwLock.writeLock().unlock();
+            }
+            start = end;
+        }
+    }
+
     /**
      * Return a snapshot of the entire block array under a single read lock.
      * Callers can read from the snapshot without any locking. The snapshot
@@ -273,10 +397,15 @@ public class ServerWorld {
      * reordering needed.
      */
     public byte[] serializeForClassicProtocol(ProtocolVersion version) throws IOException {
+        return serializeForClassicProtocol(version, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /** As {@link #serializeForClassicProtocol(ProtocolVersion)}, at a given GZip level. */
+    public byte[] serializeForClassicProtocol(ProtocolVersion version, int level) throws IOException {
         int volume = width * height * depth;
         byte[] snapshot = getBlockSnapshot();
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (GZIPOutputStream gzip = new GZIPOutputStream(baos);
+        try (GZIPOutputStream gzip = ChunkTranslator.gzipStream(baos, level);
              DataOutputStream dos = new DataOutputStream(gzip)) {
             dos.writeInt(volume);
             // All Classic versions (c0.0.15a through c0.30) use the same
@@ -467,228 +596,141 @@ public class ServerWorld {
     }
 
     /**
-     * Save player positions asynchronously. Gathers position data on the
-     * calling thread, then submits GZip+write to the background save thread.
+     * Save player data asynchronously. Captures the online players'
+     * positions on the calling thread, then writes every player whose data
+     * changed since the last save on the background save thread.
      */
     public void savePlayersAsync(Collection<ConnectedPlayer> players) {
-        gatherPlayerPositions(players);
-        if (playerPositionCache.isEmpty()) return;
-        Map<String, short[]> snapshot = new HashMap<>(playerPositionCache);
-        ChunkIOThread io = this.ioThread;
-        if (io != null) {
-            io.submitWrite(() -> writePlayerSnapshot(snapshot));
-        } else {
-            writePlayerSnapshot(snapshot);
+        for (ConnectedPlayer p : players) {
+            playerData.capture(p);
         }
+        playerData.saveDirty(ioThread);
     }
 
-    /** Write player position snapshot to disk via temp file + atomic rename. */
-    private void writePlayerSnapshot(Map<String, short[]> snapshot) {
-        File tmp = new File(playersFile.getPath() + ".tmp");
-        try (DataOutputStream dos = new DataOutputStream(
-                new GZIPOutputStream(new FileOutputStream(tmp)))) {
-            dos.writeInt(snapshot.size());
-            for (Map.Entry<String, short[]> entry : snapshot.entrySet()) {
-                dos.writeUTF(entry.getKey());
-                short[] pos = entry.getValue();
-                dos.writeShort(pos[0]);
-                dos.writeShort(pos[1]);
-                dos.writeShort(pos[2]);
-                dos.writeByte(pos[3]);
-                dos.writeByte(pos[4]);
-            }
-        } catch (IOException e) {
-            tmp.delete();
-            System.err.println("Failed to save player data: " + e.getMessage());
-            return;
-        }
-        if (!tmp.renameTo(playersFile)) {
-            playersFile.delete();
-            if (!tmp.renameTo(playersFile)) {
-                System.err.println("Failed to rename player save " + tmp + " -> " + playersFile);
-                return;
-            }
-        }
-        System.out.println("Saved " + snapshot.size() + " player position(s) to " + playersFile);
+    /** Per-player save data (position, inventory, metadata). */
+    public PlayerDataStore getPlayerDataStore() {
+        return playerData;
     }
 
-
     private int blockIndex(int x, int y, int z) {
         return (y * depth + z) * width + x;
     }
 
     /**
      * Queue a block change for processing during the next tick.
+     * Out-of-bounds changes are dropped here rather than queued.
      */
     public void queueBlockChange(int x, int y, int z, byte blockType) {
-        pendingBlockChanges.add(new PendingBlockChange(x, y, z, blockType));
+        if (!inBounds(x, y, z)) return;
+        pendingBlockChanges.add(BlockChangeSet.pack(x, y, z), blockType);
     }
 
     /**
-     * Process all queued block changes. Called by the tick loop.
-     * Returns the list of changes that were actually applied (for broadcasting).
-     * Acquires the write lock once for the entire batch to avoid per-block
-     * lock overhead.
+     * Process all queued block changes. Returns the changes that were
+     * actually applied, as packets (for broadcasting). Kept for callers
+     * that want packets; the tick loop uses
+     * {@link #processPendingBlockChanges(BlockChangeSet)}.
      */
     public List<SetBlockServerPacket> processPendingBlockChanges() {
-        // Drain the queue first (lock-free)
-        List<PendingBlockChange> batch = new ArrayList<>();
-        PendingBlockChange change;
-        while ((change = pendingBlockChanges.poll()) != null) {
-            batch.add(change);
+        BlockChangeSet applied = new BlockChangeSet();
+        processPendingBlockChanges(applied);
+        if (applied.isEmpty()) return List.of();
+        List<SetBlockServerPacket> packets = new ArrayList<>(applied.size());
+        for (int i = 0; i < applied.size(); i++) {
+            packets.add(new SetBlockServerPacket(applied.getX(i), applied.getY(i), applied.getZ(i), applied.getType(i)));
         }
-        if (batch.isEmpty()) return List.of();
+        return packets;
+    }
 
-        // Apply all changes under a single write lock
-        List<SetBlockServerPacket> applied = new ArrayList<>();
-        rwLock.writeLock().lock();
-        try {
-            for (PendingBlockChange c : batch) {
-                if (!inBounds(c.x, c.y, c.z)) continue;
-                int index = blockIndex(c.x, c.y, c.z);
-                if (blocks[index] == c.blockType) continue;
-                blocks[index] = c.blockType;
-                dirty = true;
-                applied.add(new SetBlockServerPacket(c.x, c.y, c.z, c.blockType));
+    /**
+     * Process all queued block changes through {@link #applyBlockChanges}:
+     * one lock per chunk, and {@code applied} comes out grouped by chunk
+     * section, ready for {@link ChunkManager#applyBlockChanges} and
+     * {@link PlayerManager#broadcastBlockChanges}. Called by the tick
+     * loop; the drain and sort buffers are reused, so a steady stream of
+     * changes allocates nothing.
+     */
+    public void processPendingBlockChanges(BlockChangeSet applied) {
+        BlockChangeSet batch = drainedBlockChanges;
+        batch.clear();
+        int count = pendingBlockChanges.drainTo(batch);
+        if (count > 0) {
+            if (drainedOrder.length < count) {
+                drainedOrder = new long[Math.max(count, drainedOrder.length * 2)];
             }
-        } finally {
-            rwLock.writeLock().unlock();
+            applyBlockChanges(batch, applied, drainedOrder);
         }
-        return applied;
+        appliedBlockChanges.drainTo(applied);
     }
 
     /**
-     * Remember a player's position in the in-memory cache.
-     * Called when a player disconnects so their position survives until the next save.
+     * Hand changes that {@link #fillRegion} or {@link #applyBlockChanges}
+     * already made to the tick loop. It publishes them (chunk mirror and
+     * client updates) with its own changes on the next
+     * {@link #processPendingBlockChanges(BlockChangeSet)}, so the chunk
+     * world and broadcasts are only ever touched from the tick thread.
+     * {@code applied} keeps its chunk grouping and can be reused afterwards.
      */
-    public void rememberPlayerPosition(ConnectedPlayer player) {
-        gatherPlayerPositions(Collections.singletonList(player));
+    public void publishAppliedChanges(BlockChangeSet applied) {
+        appliedBlockChanges.addAll(applied);
     }
 
     /**
-     * Update the in-memory position cache from a collection of online players.
-     * Uses double-precision with rounding for Alpha/Bedrock clients to avoid
-     * fixed-point truncation that shifts Y downward on restore.
-     * Classic/RubyDung clients only use short fields (doubleX/Y/Z stay 0.0),
-     * so fall back to the short coordinates for those clients.
+     * Remember a player's position in their saved data.
+     * Called when a player disconnects so their position survives until the next save.
      */
-    private void gatherPlayerPositions(Collection<ConnectedPlayer> players) {
-        boolean online = ServerProperties.isOnlineMode();
-        for (ConnectedPlayer p : players) {
-            short fx, fy, fz;
-            if (p.getDoubleX() != 0 || p.getDoubleY() != 0 || p.getDoubleZ() != 0) {
-                fx = (short) Math.round(p.getDoubleX() * 32);
-                fy = (short) Math.round(p.getDoubleY() * 32);
-                fz = (short) Math.round(p.getDoubleZ() * 32);
-            } else {
-                fx = p.getX(); fy = p.getY(); fz = p.getZ();
-            }
-            if (DebugLog.pos() && DebugLog.forPlayer(p.getUsername())) {
-                DebugLog.log(DebugLog.POS, "save " + p.getUsername()
-                        + " d=(" + String.format("%.2f,%.2f,%.2f", p.getDoubleX(), p.getDoubleY(), p.getDoubleZ()) + ")"
-                        + " f=(" + fx + "," + fy + "," + fz + ")");
-            }
-            // In online mode, use UUID as save key; in offline mode, use username
-            String key = (online && p.getUuid() != null) ? p.getUuid() : p.getUsername();
-            playerPositionCache.put(key, new short[]{
-                fx, fy, fz, p.getYaw(), p.getPitch()
-            });
-        }
+    public void rememberPlayerPosition(ConnectedPlayer player) {
+        playerData.capture(player);
     }
 
     /**
-     * Remove a player's saved position from the in-memory cache.
-     * Used by E2E tests and when a player needs a fresh spawn position.
+     * Remove a player's saved data so they get a fresh spawn position.
+     * Used by E2E tests.
      */
     public void forgetPlayerPosition(String username) {
-        playerPositionCache.remove(username);
+        playerData.forget(username);
     }
 
+    /** Save a default spawn position for a player who has none yet. */
     public void savePlayerPosition(String username) {
         int cx = getSpawnX();
         int cz = getSpawnZ();
         int spawnY = height * 2 / 3 + 1;
         int[] safe = findSafePosition(cx, spawnY, cz, 50);
-        short fx = (short) Math.round((safe[0] + 0.5) * 32);
-        short fy = (short) Math.round((safe[1] + (double) 1.62f) * 32);
-        short fz = (short) Math.round((safe[2] + 0.5) * 32);
-        playerPositionCache.put(username, new short[]{fx, fy, fz, 0, 0});
+        playerData.getOrCreate(username, null).setPosition(
+                safe[0] + 0.5, safe[1] + (double) 1.62f, safe[2] + 0.5, 0, 0);
     }
 
     /**
-     * Save player positions so they can be restored when a player reconnects.
-     * Merges the in-memory cache (disconnected players) with currently online players.
-     * Format: [int count] then for each player: [UTF name] [short x,y,z] [byte yaw,pitch].
+     * Save all player data synchronously (shutdown). Captures online
+     * players first; only players with changes are written.
      */
     public void savePlayers(Collection<ConnectedPlayer> players) {
-        gatherPlayerPositions(players);
-        if (playerPositionCache.isEmpty()) return;
-        writePlayerSnapshot(new HashMap<>(playerPositionCache));
-    }
-
-    private volatile boolean playersLoadedFromDisk = false;
-
-    /**
-     * Load saved player positions into the in-memory cache and return it.
-     * Only reads from disk once; subsequent calls return the cache directly.
-     */
-    public Map<String, short[]> loadPlayerPositions() {
-        if (playersLoadedFromDisk) return playerPositionCache;
-        return loadPlayerPositionsFromDisk();
-    }
-
-    private synchronized Map<String, short[]> loadPlayerPositionsFromDisk() {
-        if (playersLoadedFromDisk) return playerPositionCache;
-        if (!playersFile.exists()) {
-            playersLoadedFromDisk = true;
-            return playerPositionCache;
+        int written = playerData.saveAll(players);
+        if (written > 0) {
+            System.out.println("Saved " + written + " player(s) to " + PlayerDataStore.DIRECTORY_NAME);
         }
+    }
 
-        try (DataInputStream dis = new DataInputStream(new GZIPInputStream(new FileInputStream(playersFile)))) {
-            int count = dis.readInt();
-            for (int i = 0; i < count; i++) {
-                String name = dis.readUTF();
-                short x = dis.readShort();
-                short y = dis.readShort();
-                short z = dis.readShort();
-                byte yaw = dis.readByte();
-                byte pitch = dis.readByte();
-                // putIfAbsent: in-memory positions (from rememberPlayerPosition) take
-                // priority over stale file data
-                playerPositionCache.putIfAbsent(name, new short[]{x, y, z, yaw, pitch});
-            }
-            System.out.println("Loaded " + count + " saved player position(s) from " + playersFile);
-        } catch (IOException e) {
-            System.err.println("Failed to load player data: " + e.getMessage());
-        }
-        playersLoadedFromDisk = true;
-        return playerPositionCache;
+    /** Whether any data (at least a position) was ever saved for this username. */
+    public boolean hasSavedPlayer(String username) {
+        PlayerData data = playerData.find(username, null);
+        return data != null && data.hasPosition();
     }
 
     /**
-     * Look up a saved player position by username or UUID, depending on online mode.
-     * In online mode, tries UUID first, then falls back to username (handles
-     * transition from offline to online mode). In offline mode, tries username
-     * first, then falls back to UUID.
-     * Returns null if no saved position exists.
+     * Look up a player's saved data by username or UUID, depending on
+     * online mode (see {@link PlayerDataStore#find}). Returns null if the
+     * player has no saved position.
      */
-    public short[] getSavedPlayerPosition(String username, String uuid) {
+    public PlayerData getSavedPlayer(String username, String uuid) {
         if (username == null && uuid == null) return null;
-        Map<String, short[]> saved = loadPlayerPositions();
-        String trimmedName = (username != null) ? username.trim() : null;
-        short[] result;
-        if (ServerProperties.isOnlineMode() && uuid != null) {
-            result = saved.get(uuid);
-            if (result == null && trimmedName != null) result = saved.get(trimmedName);
-        } else if (trimmedName != null) {
-            result = saved.get(trimmedName);
-            if (result == null && uuid != null) result = saved.get(uuid);
-        } else {
-            result = saved.get(uuid);
-        }
+        PlayerData result = playerData.find(username, uuid);
+        if (result != null && !result.hasPosition()) result = null;
         if (DebugLog.pos() && username != null && DebugLog.forPlayer(username)) {
-            DebugLog.log(DebugLog.POS, "restore " + username
-                    + (result != null ? " f=(" + result[0] + "," + result[1] + "," + result[2] + ")" : " (no saved pos)"));
+            DebugLog.log(DebugLog.POS, "restore " + username + (result != null
+                    ? " d=(" + String.format("%.2f,%.2f,%.2f", result.getX(), result.getY(), result.getZ()) + ")"
+                    : " (no saved pos)"));
         }
         return result;
     }
@@ -814,17 +856,4 @@ public class ServerWorld {
 
     /** Spawn Z coordinate (chunk-aligned world center). */
     public int getSpawnZ() { return ((depth / 2) >> 4) * 16 + 8; }
-
-    /** A queued block change waiting to be processed. */
-    static class PendingBlockChange {
-        final int x, y, z;
-        final byte blockType;
-
-        PendingBlockChange(int x, int y, int z, byte blockType) {
-            this.x = x;
-            this.y = y;
-            this.z = z;
-            this.blockType = blockType;
-        }
-    }
 }
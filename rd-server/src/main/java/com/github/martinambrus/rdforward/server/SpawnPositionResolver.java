@@ -5,7 +5,7 @@ package com.github.martinambrus.rdforward.server;
  * Shared by AlphaConnectionHandler, NettyConnectionHandler, and LCEConnectionHandler.
  *
  * Steps:
- * 1. Look up saved position (fixed-point short[5])
+ * 1. Look up saved position ({@link PlayerData}, eye-level doubles)
  * 2. Validate bounds, convert to double, snap feet to block surface
  * 3. Check if inside solid blocks, relocate via findSafePosition if so
  * 4. If no saved position, default to chunk center + findSafePosition
@@ -34,35 +34,34 @@ public final class SpawnPositionResolver {
      * Returns eye-level coordinates with Classic yaw convention.
      */
     public static SpawnPosition resolve(ServerWorld world, String username, String uuid) {
-        short[] savedPos = world.getSavedPlayerPosition(username, uuid);
+        PlayerData saved = world.getSavedPlayer(username, uuid);
 
         double spawnX, spawnY, spawnZ;
         float spawnYaw = 0, spawnPitch = 0;
 
         // Validate saved position is within world bounds
-        if (savedPos != null) {
-            double sx = savedPos[0] / 32.0;
-            double sy = savedPos[1] / 32.0;
-            double sz = savedPos[2] / 32.0;
+        if (saved != null) {
+            double sx = saved.getX();
+            double sy = saved.getY();
+            double sz = saved.getZ();
             if (sx < 0 || sx >= world.getWidth()
                     || sy < PLAYER_EYE_HEIGHT || sy >= world.getHeight() + PLAYER_EYE_HEIGHT
                     || sz < 0 || sz >= world.getDepth()) {
-                savedPos = null;
+                saved = null;
             }
         }
 
-        if (savedPos != null) {
-            spawnX = savedPos[0] / 32.0;
-            spawnY = savedPos[1] / 32.0;
-            spawnZ = savedPos[2] / 32.0;
-            spawnYaw = (savedPos[3] & 0xFF) * 360.0f / 256.0f;
-            spawnPitch = (savedPos[4] & 0xFF) * 360.0f / 256.0f;
-            if (spawnPitch > 180.0f) spawnPitch -= 360.0f;
+        if (saved != null) {
+            spawnX = saved.getX();
+            spawnY = saved.getY();
+            spawnZ = saved.getZ();
+            spawnYaw = saved.getYaw();
+            spawnPitch = saved.getPitch();
 
-            // Snap feet to nearest block surface if within fixed-point tolerance.
-            // Eye-level Y is saved as fixed-point (round(eyeY*32)/32), so the
-            // round-trip through fixed-point + eye height subtraction can shift
-            // feet up to ~0.02 blocks from their original integer position.
+            // Snap feet to nearest block surface if within tolerance. Positions
+            // migrated from the old fixed-point format (and ones reported by
+            // Classic clients) are only 1/32-block precise, so the eye height
+            // subtraction can leave feet up to ~0.02 blocks off an integer.
             double feetY = spawnY - PLAYER_EYE_HEIGHT;
             double fracFeet = feetY - Math.floor(feetY);
             if (fracFeet > 1.0 - (1.0 / 16.0)) {
@@ -0,0 +1,369 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.server.profiler.ServerProfiler;
+import com.github.martinambrus.rdforward.server.profiler.TickPhase;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MonitorInfo;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Watches the tick loop from its own thread and reports ticks that run
+ * too long.
+ *
+ * The tick thread publishes the tick number, its start time and the
+ * current {@link TickPhase} through {@link #tickStarted}, {@link #enterPhase}
+ * and {@link #tickEnded} (a few volatile writes per tick). Every
+ * {@link #POLL_MS} the watchdog compares the running tick's age against
+ * three thresholds:
+ * <ul>
+ *   <li>warn: one log line with the phase, the suspected mod and the
+ *       tick thread's top frames</li>
+ *   <li>report: a full diagnostic file in {@code stall-reports/} with the
+ *       tick thread's stack and held/awaited locks, the stack of the
+ *       thread owning the awaited lock, a profiler summary and a dump of
+ *       every other thread</li>
+ *   <li>shutdown (optional): run the hard-stall action, which stops the
+ *       server gracefully</li>
+ * </ul>
+ * A tick thread that died while the loop should be running counts as a
+ * stall of unlimited length.
+ *
+ * Stalls are attributed to a mod by the class loader of the innermost
+ * stack frame loaded by a mod class loader (named {@code mod:<id>}).
+ */
+public final class TickWatchdog implements Runnable {
+
+    /** How often the watchdog samples the tick. */
+    static final long POLL_MS = 100;
+    private static final int WARN_FRAMES = 8;
+    static final String REPORT_DIR_NAME = "stall-reports";
+    private static final String MOD_LOADER_PREFIX = "mod:";
+
+    private final long warnNanos;
+    private final long reportNanos;
+    private final long shutdownNanos;
+    private final File reportDir;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private volatile Runnable hardStallAction;
+    private volatile boolean running;
+    private Thread thread;
+
+    // Published by the tick thread
+    private volatile Thread tickThread;
+    private volatile long tickNumber;
+    /** Start of the running tick, or 0 between ticks. */
+    private volatile long tickStartNanos;
+    private volatile TickPhase phase;
+
+    // Watchdog thread state for the stall being tracked
+    private long stallTick = -1;
+    private boolean warned;
+    private boolean reported;
+    private boolean shutdownTriggered;
+    private volatile long stallsDetected;
+    private volatile File lastReport;
+
+    /**
+     * @param warnMs     stall length that logs a warning; 0 disables the watchdog
+     * @param reportMs   stall length that writes a report; 0 disables reports
+     * @param shutdownMs stall length that runs the hard-stall action; 0 disables it
+     * @param dataDir    server data directory; reports go to {@code stall-reports/} under it
+     */
+    public TickWatchdog(long warnMs, long reportMs, long shutdownMs, File dataDir) {
+        this.warnNanos = warnMs * 1_000_000L;
+        this.reportNanos = reportMs * 1_000_000L;
+        this.shutdownNanos = shutdownMs * 1_000_000L;
+        this.reportDir = new File(dataDir != null ? dataDir : new File("."), REPORT_DIR_NAME);
+    }
+
+    /** Action run (once, on a new thread) when a stall passes the shutdown threshold. */
+    public void setHardStallAction(Runnable action) {
+        this.hardStallAction = action;
+    }
+
+    public boolean isEnabled() {
+        return warnNanos > 0;
+    }
+
+    /** Start watching {@code tickThread} on a new daemon thread. No-op when disabled. */
+    public void start(Thread tickThread) {
+        watch(tickThread);
+        if (!isEnabled() || running) return;
+        running = true;
+        thread = new Thread(this, "RDForward-TickWatchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Set the thread {@link #check} samples, without starting the watchdog thread. */
+    void watch(Thread tickThread) {
+        this.tickThread = tickThread;
+    }
+
+    public void stop() {
+        running = false;
+        tickThread = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    // === Tick thread hooks ===
+
+    void tickStarted(long tick, long startNanos) {
+        tickNumber = tick;
+        phase = null;
+        tickStartNanos = startNanos;
+    }
+
+    void enterPhase(TickPhase phase) {
+        this.phase = phase;
+    }
+
+    void tickEnded() {
+        tickStartNanos = 0;
+    }
+
+    // === Watchdog thread ===
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                Thread.sleep(POLL_MS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            try {
+                check(System.nanoTime());
+            } catch (RuntimeException e) {
+                System.err.println("[Watchdog] Check failed: " + e);
+            }
+        }
+    }
+
+    /** Sample the tick once. Called from the watchdog thread (and tests). */
+    void check(long now) {
+        Thread target = tickThread;
+        if (target == null) return;
+        long start = tickStartNanos;
+        long tick = tickNumber;
+        boolean dead = !target.isAlive();
+
+        if (!dead && start == 0) {
+            if (stallTick >= 0 && warned) {
+                System.out.println("[Watchdog] Tick " + stallTick + " finished");
+            }
+            stallTick = -1;
+            return;
+        }
+        if (tick != stallTick) {
+            if (stallTick >= 0 && warned) {
+                System.out.println("[Watchdog] Tick " + stallTick + " finished");
+            }
+            stallTick = tick;
+            warned = false;
+            reported = false;
+        }
+
+        long stalled = dead ? Long.MAX_VALUE : now - start;
+        if (stalled < warnNanos) return;
+
+        if (!warned) {
+            warned = true;
+            stallsDetected++;
+            warn(target, tick, stalled, dead);
+        }
+        if (!reported && reportNanos > 0 && stalled >= reportNanos) {
+            reported = true;
+            lastReport = writeReport(target, tick, stalled, dead);
+        }
+        if (!shutdownTriggered && shutdownNanos > 0 && stalled >= shutdownNanos) {
+            shutdownTriggered = true;
+            Runnable action = hardStallAction;
+            System.err.println("[Watchdog] Tick " + tick + " stalled past the "
+                    + (shutdownNanos / 1_000_000) + "ms hard limit"
+                    + (action != null ? " - shutting down" : ""));
+            if (action != null) {
+                Thread shutdown = new Thread(action, "RDForward-WatchdogShutdown");
+                shutdown.start();
+            }
+        }
+    }
+
+    private void warn(Thread target, long tick, long stalled, boolean dead) {
+        if (dead) {
+            System.err.println("[Watchdog] Tick thread died during tick " + tick
+                    + (phase != null ? " in phase " + phase.getMetricName() : ""));
+            return;
+        }
+        ThreadInfo info = threadInfo(target);
+        StackTraceElement[] stack = info != null ? info.getStackTrace() : target.getStackTrace();
+        StringBuilder sb = new StringBuilder();
+        sb.append("[Watchdog] Tick ").append(tick).append(" running for ")
+                .append(stalled / 1_000_000).append("ms").append(describeSuspect(stack));
+        if (info != null && info.getLockName() != null) {
+            sb.append(", ").append(info.getThreadState()).append(" on ").append(info.getLockName());
+            if (info.getLockOwnerName() != null) {
+                sb.append(" held by \"").append(info.getLockOwnerName()).append('"');
+            }
+        }
+        System.err.println(sb);
+        for (int i = 0; i < Math.min(WARN_FRAMES, stack.length); i++) {
+            System.err.println("[Watchdog]     at " + stack[i]);
+        }
+    }
+
+    /** " in phase X, mod Y" for the current phase and the mod found on the stack. */
+    private String describeSuspect(StackTraceElement[] stack) {
+        TickPhase p = phase;
+        String mod = modOf(stack);
+        return (p != null ? " in phase " + p.getMetricName() : "")
+                + (mod != null ? ", mod " + mod : "");
+    }
+
+    private File writeReport(Thread target, long tick, long stalled, boolean dead) {
+        if (!reportDir.isDirectory() && !reportDir.mkdirs()) {
+            System.err.println("[Watchdog] Could not create " + reportDir);
+            return null;
+        }
+        String stamp = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
+        File file = new File(reportDir, "stall-" + stamp + "-tick" + tick + ".txt");
+        try (PrintWriter out = new PrintWriter(new FileWriter(file))) {
+            writeReport(out, target, tick, stalled, dead);
+        } catch (IOException e) {
+            System.err.println("[Watchdog] Failed to write " + file + ": " + e.getMessage());
+            return null;
+        }
+        System.err.println("[Watchdog] Stall report written to " + file);
+        return file;
+    }
+
+    void writeReport(PrintWriter out, Thread target, long tick, long stalled, boolean dead) {
+        TickPhase p = phase;
+        out.println("RDForward tick stall report");
+        out.println("Time:    " + new Date());
+        out.println("Tick:    " + tick);
+        out.println("Stalled: " + (dead ? "tick thread is dead" : (stalled / 1_000_000) + " ms"));
+        out.println("Phase:   " + (p != null ? p.getMetricName() : "(between phases)"));
+
+        ThreadInfo info = dead ? null : threadInfo(target);
+        StackTraceElement[] stack = info != null ? info.getStackTrace() : new StackTraceElement[0];
+        String mod = modOf(stack);
+        out.println("Mod:     " + (mod != null ? mod : "(no mod code on the tick thread's stack)"));
+        out.println();
+
+        out.println("--- Tick thread ---");
+        if (info != null) {
+            printThread(out, info);
+            if (info.getLockOwnerId() >= 0) {
+                ThreadInfo owner = threadInfo(info.getLockOwnerId());
+                if (owner != null) {
+                    out.println();
+                    out.println("--- Owner of " + info.getLockName() + " ---");
+                    printThread(out, owner);
+                }
+            }
+        } else {
+            out.println("\"" + target.getName() + "\" " + target.getState());
+        }
+        long[] deadlocked = threads.isSynchronizerUsageSupported()
+                ? threads.findDeadlockedThreads() : threads.findMonitorDeadlockedThreads();
+        if (deadlocked != null) {
+            out.println();
+            out.println("--- Deadlocked threads ---");
+            for (ThreadInfo t : threads.getThreadInfo(deadlocked, true, true)) {
+                if (t != null) printThread(out, t);
+            }
+        }
+
+        out.println();
+        out.println("--- Profiler ---");
+        for (String line : ServerProfiler.describeSummary()) {
+            out.println(line);
+        }
+        for (String line : ServerProfiler.describePhases()) {
+            out.println(line);
+        }
+
+        out.println();
+        out.println("--- All threads ---");
+        for (ThreadInfo t : threads.dumpAllThreads(threads.isObjectMonitorUsageSupported(),
+                threads.isSynchronizerUsageSupported())) {
+            if (t.getThreadId() == target.threadId()) continue;
+            printThread(out, t);
+            out.println();
+        }
+    }
+
+    private ThreadInfo threadInfo(Thread t) {
+        return threadInfo(t.threadId());
+    }
+
+    private ThreadInfo threadInfo(long id) {
+        ThreadInfo[] infos = threads.getThreadInfo(new long[] {id},
+                threads.isObjectMonitorUsageSupported(), threads.isSynchronizerUsageSupported());
+        return infos.length > 0 ? infos[0] : null;
+    }
+
+    /** Full stack with lock annotations (ThreadInfo.toString cuts off at 8 frames). */
+    private static void printThread(PrintWriter out, ThreadInfo info) {
+        out.print("\"" + info.getThreadName() + "\" id=" + info.getThreadId() + " " + info.getThreadState());
+        if (info.getLockName() != null) out.print(" on " + info.getLockName());
+        if (info.getLockOwnerName() != null) {
+            out.print(" owned by \"" + info.getLockOwnerName() + "\" id=" + info.getLockOwnerId());
+        }
+        out.println();
+        StackTraceElement[] stack = info.getStackTrace();
+        MonitorInfo[] monitors = info.getLockedMonitors();
+        for (int i = 0; i < stack.length; i++) {
+            out.println("    at " + stack[i]);
+            if (i == 0 && info.getLockInfo() != null) {
+                out.println("    - waiting on " + info.getLockInfo());
+            }
+            for (MonitorInfo m : monitors) {
+                if (m.getLockedStackDepth() == i) out.println("    - locked " + m);
+            }
+        }
+        LockInfo[] synchronizers = info.getLockedSynchronizers();
+        if (synchronizers.length > 0) {
+            out.println("    Locked synchronizers:");
+            for (LockInfo l : synchronizers) out.println("    - " + l);
+        }
+    }
+
+    /**
+     * Id of the mod whose code is innermost on {@code stack}, from the
+     * {@code mod:<id>} name of its class loader, or null if no frame
+     * belongs to a mod.
+     */
+    static String modOf(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            String loader = frame.getClassLoaderName();
+            if (loader != null && loader.startsWith(MOD_LOADER_PREFIX)) {
+                return loader.substring(MOD_LOADER_PREFIX.length());
+            }
+        }
+        return null;
+    }
+
+    /** Stalls that crossed the warn threshold since startup. */
+    public long getStallsDetected() {
+        return stallsDetected;
+    }
+
+    /** Most recent report file, or null if none was written. */
+    public File getLastReport() {
+        return lastReport;
+    }
+}
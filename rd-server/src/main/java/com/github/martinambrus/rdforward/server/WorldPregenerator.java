@@ -0,0 +1,463 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.server.api.ServerProperties;
+import com.github.martinambrus.rdforward.world.WorldGenerator;
+import com.github.martinambrus.rdforward.world.alpha.AlphaChunk;
+import com.github.martinambrus.rdforward.world.alpha.AlphaLevelFormat;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates and persists every chunk in a square region ahead of time,
+ * so players don't pay generation cost while exploring.
+ *
+ * Pipeline per chunk: generate -> skylight -> NBT snapshot. Chunks are
+ * processed in batches on a work-stealing {@link ForkJoinPool} sized to the
+ * machine; each finished batch is handed to the {@link ChunkIOThread} as a
+ * single queue entry so a burst of thousands of saves doesn't flood the
+ * I/O queue ahead of gameplay saves.
+ *
+ * Chunks are visited in the same outward spiral as {@link SpiralIterator},
+ * so the progress of a job is a single index. That index is persisted to
+ * {@value #PROGRESS_FILE_NAME} in the world directory after every batch,
+ * which lets an interrupted job resume after a restart. When players are
+ * online the job runs smaller batches with a pause between them so it
+ * doesn't starve on-demand generation.
+ *
+ * Chunks that already exist on disk, are loaded in memory, or are being
+ * loaded by {@link ChunkManager} for a player are skipped — pregeneration
+ * never overwrites a chunk a player may have modified.
+ */
+public class WorldPregenerator {
+
+    /** Progress file in the world directory, present while a job is unfinished. */
+    static final String PROGRESS_FILE_NAME = "pregen.properties";
+
+    /** Chunks per batch when no players are online. */
+    private static final int BATCH_SIZE = 256;
+    /** Chunks per batch while players are online. */
+    private static final int THROTTLED_BATCH_SIZE = 16;
+    /** Minimum interval between console progress lines. */
+    private static final long REPORT_INTERVAL_MS = 10_000;
+
+    private final ChunkManager chunkManager;
+    private final WorldGenerator worldGenerator;
+    private final long seed;
+    private final File worldDir;
+    private final ChunkIOThread ioThread;
+    private final ChunkLockManager chunkLocks;
+
+    /** Non-null while a job exists (running or paused). */
+    private volatile Job job;
+
+    WorldPregenerator(ChunkManager chunkManager, WorldGenerator worldGenerator, long seed,
+                      File worldDir, ChunkIOThread ioThread, ChunkLockManager chunkLocks) {
+        this.chunkManager = chunkManager;
+        this.worldGenerator = worldGenerator;
+        this.seed = seed;
+        this.worldDir = worldDir;
+        this.ioThread = ioThread;
+        this.chunkLocks = chunkLocks;
+    }
+
+    /**
+     * Start pregenerating a square of (2*radius+1)^2 chunks around the given
+     * chunk coordinate. Returns null on success, or a human-readable reason
+     * why the job could not be started.
+     */
+    public synchronized String start(int centerChunkX, int centerChunkZ, int radius) {
+        String reason = checkCanRun();
+        if (reason != null) return reason;
+        if (job != null) return "A pregeneration job is already " + (job.paused ? "paused" : "running") + ".";
+        if (radius < 0) return "Radius must not be negative.";
+
+        job = new Job(centerChunkX, centerChunkZ, radius, 0);
+        job.start();
+        return null;
+    }
+
+    /**
+     * Resume a paused job, or an unfinished job from the progress file left
+     * behind by a previous server run. Returns null on success, or a reason.
+     */
+    public synchronized String resume() {
+        String reason = checkCanRun();
+        if (reason != null) return reason;
+        Job current = job;
+        if (current != null) {
+            if (!current.paused) return "Pregeneration is already running.";
+            current.setPaused(false);
+            return null;
+        }
+
+        Job restored = readProgress();
+        if (restored == null) return "No pregeneration job to resume.";
+        job = restored;
+        restored.start();
+        return null;
+    }
+
+    /** Pause the running job after its current batch. Returns false if there's nothing to pause. */
+    public boolean pause() {
+        Job current = job;
+        if (current == null || current.paused) return false;
+        current.setPaused(true);
+        return true;
+    }
+
+    /**
+     * Cancel the current job and delete its progress file. Chunks already
+     * written stay on disk. Returns false if no job exists.
+     */
+    public boolean cancel() {
+        // Not synchronized: stop() joins the coordinator, which briefly
+        // locks this instance when it clears the job reference.
+        Job current = job;
+        if (current == null) {
+            File progress = new File(worldDir, PROGRESS_FILE_NAME);
+            return progress.isFile() && progress.delete();
+        }
+        current.stop(true);
+        return true;
+    }
+
+    /** True if a job exists and is not paused. */
+    public boolean isRunning() {
+        Job current = job;
+        return current != null && !current.paused;
+    }
+
+    /** True if an unfinished job from a previous run can be resumed. */
+    public boolean hasResumableProgress() {
+        return job == null && new File(worldDir, PROGRESS_FILE_NAME).isFile();
+    }
+
+    /** One-line status summary for the admin command. */
+    public String getStatus() {
+        Job current = job;
+        if (current == null) {
+            return hasResumableProgress()
+                    ? "No job running. An unfinished job can be resumed with /pregen resume."
+                    : "No job running.";
+        }
+        return current.describe();
+    }
+
+    /**
+     * Stop the running job without deleting its progress file, so it can be
+     * resumed after restart. Waits for the in-flight batch to reach the I/O
+     * queue. Must be called before the I/O thread shuts down.
+     */
+    public void shutdown() {
+        Job current = job;
+        if (current != null) {
+            current.stop(false);
+        }
+    }
+
+    private String checkCanRun() {
+        if (!worldGenerator.supportsChunkGeneration()) {
+            return "The world generator does not support per-chunk generation.";
+        }
+        if (chunkManager.isOverlayMode()) {
+            return "Chunks are projected from server-world.dat and are not persisted; nothing to pregenerate.";
+        }
+        return null;
+    }
+
+    /**
+     * Generate a single chunk. Returns the save snapshot, or null if the
+     * chunk already exists somewhere and must not be overwritten.
+     */
+    private AlphaLevelFormat.SaveTask generateOne(ChunkCoord coord) {
+        try (LockToken lock = chunkLocks.acquire(coord, Usage.WORLDGEN)) {
+            if (chunkManager.isChunkLoadedOrPending(coord)
+                    || ioThread.isSaveInFlight(coord)
+                    || AlphaLevelFormat.chunkExists(worldDir, coord.getX(), coord.getZ())) {
+                return null;
+            }
+            AlphaChunk chunk = worldGenerator.generateChunk(coord.getX(), coord.getZ(), seed);
+            if (chunk == null) return null;
+            chunk.generateSkylightMap();
+            // The chunk never becomes visible to other threads, so the NBT
+            // snapshot can be taken right here on the worker.
+            return AlphaLevelFormat.prepareSave(worldDir, chunk);
+        }
+    }
+
+    /**
+     * Map a spiral index to a chunk offset, matching the ring order of
+     * {@link SpiralIterator} without materializing the whole spiral
+     * (a radius of 1000 would be four million coordinates).
+     */
+    static void spiralOffset(long index, int[] out) {
+        if (index == 0) {
+            out[0] = 0;
+            out[1] = 0;
+            return;
+        }
+        int ring = (int) Math.ceil((Math.sqrt(index + 1) - 1) / 2);
+        long ringStart = (long) (2 * ring - 1) * (2 * ring - 1);
+        int pos = (int) (index - ringStart);
+        int edgeLen = 2 * ring;
+        int i = pos % edgeLen;
+        switch (pos / edgeLen) {
+            case 0: out[0] = -ring + i; out[1] = -ring; break;
+            case 1: out[0] = ring; out[1] = -ring + i; break;
+            case 2: out[0] = ring - i; out[1] = ring; break;
+            default: out[0] = -ring; out[1] = ring - i; break;
+        }
+    }
+
+    private Job readProgress() {
+        File file = new File(worldDir, PROGRESS_FILE_NAME);
+        if (!file.isFile()) return null;
+        Properties props = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            props.load(in);
+            return new Job(
+                    Integer.parseInt(props.getProperty("center-x")),
+                    Integer.parseInt(props.getProperty("center-z")),
+                    Integer.parseInt(props.getProperty("radius")),
+                    Long.parseLong(props.getProperty("next-index")));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("[Pregen] Ignoring unreadable progress file " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeProgress(Job job, long nextIndex) {
+        Properties props = new Properties();
+        props.setProperty("center-x", Integer.toString(job.centerX));
+        props.setProperty("center-z", Integer.toString(job.centerZ));
+        props.setProperty("radius", Integer.toString(job.radius));
+        props.setProperty("next-index", Long.toString(nextIndex));
+        File file = new File(worldDir, PROGRESS_FILE_NAME);
+        File tmp = new File(worldDir, PROGRESS_FILE_NAME + ".tmp");
+        try {
+            worldDir.mkdirs();
+            try (OutputStream out = new FileOutputStream(tmp)) {
+                props.store(out, "RDForward pregeneration progress");
+            }
+            try {
+                Files.move(tmp.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("[Pregen] Failed to write progress file: " + e.getMessage());
+        }
+    }
+
+    /** A single pregeneration run, driven by its own coordinator thread. */
+    private final class Job implements Runnable {
+        final int centerX;
+        final int centerZ;
+        final int radius;
+        final long total;
+
+        volatile long nextIndex;
+        volatile boolean paused;
+        private volatile boolean stopped;
+        private volatile boolean deleteProgressOnStop;
+
+        final AtomicInteger generated = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        private final long startedAtNanos = System.nanoTime();
+        private long activeNanos;
+
+        private ForkJoinPool pool;
+        private Thread thread;
+
+        Job(int centerX, int centerZ, int radius, long nextIndex) {
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+            this.radius = radius;
+            long side = 2L * radius + 1;
+            this.total = side * side;
+            this.nextIndex = Math.min(nextIndex, total);
+        }
+
+        void start() {
+            int threads = Math.max(1, ServerProperties.getPregenThreads());
+            AtomicInteger workerId = new AtomicInteger();
+            pool = new ForkJoinPool(threads, p -> {
+                ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                t.setName("pregen-" + workerId.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, null, false);
+            thread = new Thread(this, "RDForward-Pregen");
+            thread.setDaemon(true);
+            thread.start();
+            System.out.println("[Pregen] " + (nextIndex > 0 ? "Resuming" : "Starting")
+                    + " pregeneration of " + total + " chunk(s) around chunk (" + centerX + ", " + centerZ
+                    + "), radius " + radius + ", " + threads + " thread(s)"
+                    + (nextIndex > 0 ? ", from chunk " + nextIndex : ""));
+        }
+
+        synchronized void setPaused(boolean paused) {
+            this.paused = paused;
+            notifyAll();
+        }
+
+        void stop(boolean deleteProgress) {
+            synchronized (this) {
+                deleteProgressOnStop = deleteProgress;
+                stopped = true;
+                notifyAll();
+            }
+            if (thread != null && thread != Thread.currentThread()) {
+                try {
+                    thread.join(30_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int[] offset = new int[2];
+            long lastReportMs = System.currentTimeMillis();
+            int lastReportCount = 0;
+            try {
+                while (nextIndex < total && !stopped) {
+                    if (!awaitUnpaused()) break;
+
+                    boolean throttled = chunkManager.hasPlayers();
+                    int batchSize = throttled ? THROTTLED_BATCH_SIZE : BATCH_SIZE;
+                    long batchEnd = Math.min(total, nextIndex + batchSize);
+                    long batchStart = System.nanoTime();
+
+                    List<ForkJoinTask<AlphaLevelFormat.SaveTask>> tasks = new ArrayList<>(batchSize);
+                    List<ChunkCoord> coords = new ArrayList<>(batchSize);
+                    for (long i = nextIndex; i < batchEnd; i++) {
+                        spiralOffset(i, offset);
+                        ChunkCoord coord = new ChunkCoord(centerX + offset[0], centerZ + offset[1]);
+                        coords.add(coord);
+                        tasks.add(pool.submit(() -> generateOne(coord)));
+                    }
+
+                    List<ChunkCoord> saveCoords = new ArrayList<>(coords.size());
+                    List<AlphaLevelFormat.SaveTask> saves = new ArrayList<>(coords.size());
+                    for (int i = 0; i < tasks.size(); i++) {
+                        AlphaLevelFormat.SaveTask save = tasks.get(i).join();
+                        ChunkCoord coord = coords.get(i);
+                        // A player may have started loading this chunk since it was
+                        // generated; their copy is authoritative from here on.
+                        if (save == null || chunkManager.isChunkLoadedOrPending(coord)) {
+                            skipped.incrementAndGet();
+                        } else {
+                            saveCoords.add(coord);
+                            saves.add(save);
+                        }
+                    }
+
+                    if (!saves.isEmpty()) {
+                        // Wait for the batch to hit disk before recording progress,
+                        // so a crash never marks unwritten chunks as done.
+                        ioThread.submitSaveBatch(saveCoords, saves).join();
+                        generated.addAndGet(saves.size());
+                    }
+                    nextIndex = batchEnd;
+                    activeNanos += System.nanoTime() - batchStart;
+                    writeProgress(this, nextIndex);
+
+                    long now = System.currentTimeMillis();
+                    if (now - lastReportMs >= REPORT_INTERVAL_MS) {
+                        int done = generated.get() + skipped.get();
+                        double rate = (done - lastReportCount) * 1000.0 / (now - lastReportMs);
+                        System.out.println("[Pregen] " + describe()
+                                + String.format(" (last %ds: %.1f chunks/s)", (now - lastReportMs) / 1000, rate));
+                        lastReportMs = now;
+                        lastReportCount = done;
+                    }
+
+                    if (throttled) {
+                        Thread.sleep(ServerProperties.getPregenThrottleMs());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                System.err.println("[Pregen] Job failed at chunk " + nextIndex + ": " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                pool.shutdownNow();
+                finish();
+            }
+        }
+
+        /** Block while paused. Returns false if the job was stopped meanwhile. */
+        private synchronized boolean awaitUnpaused() throws InterruptedException {
+            boolean announced = false;
+            while (paused && !stopped) {
+                if (!announced) {
+                    System.out.println("[Pregen] Paused at " + describe());
+                    announced = true;
+                }
+                wait(1000);
+            }
+            return !stopped;
+        }
+
+        private void finish() {
+            File progress = new File(worldDir, PROGRESS_FILE_NAME);
+            if (nextIndex >= total) {
+                progress.delete();
+                System.out.println("[Pregen] Finished: " + generated.get() + " chunk(s) generated, "
+                        + skipped.get() + " skipped in "
+                        + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedAtNanos) + "s ("
+                        + String.format("%.1f", chunksPerSecond()) + " chunks/s)");
+            } else if (deleteProgressOnStop) {
+                progress.delete();
+                System.out.println("[Pregen] Cancelled at " + describe());
+            } else {
+                System.out.println("[Pregen] Stopped at " + describe() + "; resume with /pregen resume");
+            }
+            synchronized (WorldPregenerator.this) {
+                if (job == this) job = null;
+            }
+        }
+
+        private double chunksPerSecond() {
+            long nanos = activeNanos;
+            if (nanos <= 0) return 0;
+            return (generated.get() + skipped.get()) * 1_000_000_000.0 / nanos;
+        }
+
+        String describe() {
+            long done = nextIndex;
+            double percent = total > 0 ? done * 100.0 / total : 100.0;
+            double rate = chunksPerSecond();
+            String eta = rate > 0 ? formatDuration((long) ((total - done) / rate)) : "?";
+            return String.format("%d/%d chunks (%.1f%%), %d generated, %d skipped, %.1f chunks/s, ETA %s%s",
+                    done, total, percent, generated.get(), skipped.get(), rate, eta,
+                    paused ? " [paused]" : chunkManager.hasPlayers() ? " [throttled]" : "");
+        }
+    }
+
+    private static String formatDuration(long seconds) {
+        if (seconds >= 3600) return (seconds / 3600) + "h " + (seconds % 3600 / 60) + "m";
+        if (seconds >= 60) return (seconds / 60) + "m " + (seconds % 60) + "s";
+        return seconds + "s";
+    }
+}
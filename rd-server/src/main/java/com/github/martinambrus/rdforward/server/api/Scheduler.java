@@ -1,17 +1,27 @@
 package com.github.martinambrus.rdforward.server.api;
 
-import com.github.martinambrus.rdforward.api.event.server.ServerEvents;
+import com.github.martinambrus.rdforward.api.event.Event;
+import com.github.martinambrus.rdforward.api.event.EventOwnership;
+import com.github.martinambrus.rdforward.api.event.PrioritizedEvent;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Server-side task scheduler. Runs tasks on future server ticks.
  *
- * The scheduler hooks into the server tick event to process pending tasks.
- * Tasks are guaranteed to run on the tick loop thread, making them safe
- * for world/player manipulation without additional synchronization.
+ * The tick loop calls {@link #tick(long)} once per tick, just before it
+ * fires the server tick event. Tasks are guaranteed to run on the tick
+ * loop thread, making them safe for world/player manipulation without
+ * additional synchronization.
+ *
+ * Each task carries the id of the mod that scheduled it and runs through
+ * {@link Event#runTimed}, so its time is charged to that mod (and only to
+ * that mod) and a mod over its tick budget has its tasks held back like
+ * its listeners are skipped.
  *
  * Example:
  * <pre>
@@ -30,18 +40,16 @@ public final class Scheduler {
     private static boolean initialized = false;
 
     /**
-     * Initialize the scheduler by registering with the server tick event.
-     * Called once during server startup.
+     * Start running tasks from {@link #tick(long)}. Called once during
+     * server startup.
      */
     public static void init() {
-        if (initialized) return;
         initialized = true;
-        ServerEvents.SERVER_TICK.register(Scheduler::tick);
     }
 
     /**
-     * Reset the scheduler state. Called during server shutdown so that
-     * a subsequent {@link #init()} re-registers with the (cleared) tick event.
+     * Reset the scheduler state. Called during server shutdown; tasks
+     * don't run again until the next {@link #init()}.
      */
     public static void reset() {
         initialized = false;
@@ -56,7 +64,12 @@ public final class Scheduler {
      * @return a handle that can be used to cancel the task
      */
     public static ScheduledTask runLater(int delayTicks, Runnable task) {
-        ScheduledTask scheduled = new ScheduledTask(task, delayTicks, 0);
+        return runLater(currentOwner(), delayTicks, task);
+    }
+
+    /** {@link #runLater(int, Runnable)} on behalf of {@code owner}. */
+    public static ScheduledTask runLater(String owner, int delayTicks, Runnable task) {
+        ScheduledTask scheduled = new ScheduledTask(owner, task, delayTicks, 0);
         tasks.add(scheduled);
         return scheduled;
     }
@@ -70,12 +83,38 @@ public final class Scheduler {
      * @return a handle that can be used to cancel the task
      */
     public static ScheduledTask runRepeating(int initialDelay, int periodTicks, Runnable task) {
-        ScheduledTask scheduled = new ScheduledTask(task, initialDelay, periodTicks);
+        return runRepeating(currentOwner(), initialDelay, periodTicks, task);
+    }
+
+    /** {@link #runRepeating(int, int, Runnable)} on behalf of {@code owner}. */
+    public static ScheduledTask runRepeating(String owner, int initialDelay, int periodTicks, Runnable task) {
+        ScheduledTask scheduled = new ScheduledTask(owner, task, initialDelay, periodTicks);
         tasks.add(scheduled);
         return scheduled;
     }
 
-    private static void tick(long tickCount) {
+    /** Snapshot of tasks still queued, cancelled ones excluded — for leak diagnostics. */
+    public static List<ScheduledTask> pendingTasks() {
+        List<ScheduledTask> out = new ArrayList<>();
+        for (ScheduledTask t : tasks) {
+            if (!t.cancelled) out.add(t);
+        }
+        return out;
+    }
+
+    /** The mod whose enable scope is active, else the server itself. */
+    private static String currentOwner() {
+        String owner = EventOwnership.currentOwner();
+        return owner != null ? owner : PrioritizedEvent.SERVER_OWNER;
+    }
+
+    /**
+     * Run every task that is due. Called by the tick loop once per tick,
+     * outside any timed listener, so a task's time is charged only to
+     * the mod that scheduled it.
+     */
+    public static void tick(long tickCount) {
+        if (!initialized) return;
         Iterator<ScheduledTask> it = tasks.iterator();
         while (it.hasNext()) {
             ScheduledTask task = it.next();
@@ -86,7 +125,11 @@ public final class Scheduler {
             task.remainingDelay--;
             if (task.remainingDelay <= 0) {
                 try {
-                    task.runnable.run();
+                    if (!Event.runTimed(task.owner, task.runnable)) {
+                        // Refused (owner over budget or disabled): try again next tick
+                        task.remainingDelay = 1;
+                        continue;
+                    }
                 } catch (Exception e) {
                     System.err.println("Scheduled task error: " + e.getMessage());
                 }
@@ -100,12 +143,14 @@ public final class Scheduler {
     }
 
     public static class ScheduledTask {
+        final String owner;
         final Runnable runnable;
         final int periodTicks;
         int remainingDelay;
         volatile boolean cancelled = false;
 
-        ScheduledTask(Runnable runnable, int delayTicks, int periodTicks) {
+        ScheduledTask(String owner, Runnable runnable, int delayTicks, int periodTicks) {
+            this.owner = owner;
             this.runnable = runnable;
             this.remainingDelay = delayTicks;
             this.periodTicks = periodTicks;
@@ -119,5 +164,15 @@ public final class Scheduler {
         public boolean isCancelled() {
             return cancelled;
         }
+
+        /** Id of the mod this task runs on behalf of. */
+        public String getOwner() {
+            return owner;
+        }
+
+        /** The runnable this task executes. */
+        public Runnable getTask() {
+            return runnable;
+        }
     }
 }
@@ -457,6 +457,305 @@ public final class ServerProperties {
         return Double.parseDouble(props.getProperty("grief-threshold-tempban", "20.0").trim());
     }
 
+    // --- Chunk generation config ---
+
+    /** Worker threads for on-demand chunk generation and chunk packet serialization. */
+    public static int getChunkGenThreads() {
+        warnIfNotLoaded();
+        return Math.max(1, getInt("chunk-gen-threads", 2));
+    }
+
+    // --- Chunk cache config ---
+
+    /**
+     * Memory budget in MB for serialized chunk data cached for sending,
+     * shared by all protocol versions including Bedrock.
+     */
+    public static int getChunkCacheMb() {
+        warnIfNotLoaded();
+        return Math.max(1, getInt("chunk-cache-mb", 256));
+    }
+
+    // --- Network config ---
+
+    /**
+     * Outbound buffer size in KB above which a TCP connection reports
+     * itself unwritable and chunk delivery to it pauses.
+     */
+    public static int getWriteBufferHighKb() {
+        warnIfNotLoaded();
+        return Math.max(16, getInt("write-buffer-high-kb", 1024));
+    }
+
+    /** Outbound buffer size in KB below which a paused connection is writable again. */
+    public static int getWriteBufferLowKb() {
+        warnIfNotLoaded();
+        return Math.max(1, Math.min(getWriteBufferHighKb() - 1, getInt("write-buffer-low-kb", 256)));
+    }
+
+    // --- Compression config ---
+
+    /**
+     * Packets at least this many bytes are compressed for 1.8+ clients
+     * (vanilla's key). Negative disables compression.
+     */
+    public static int getNetworkCompressionThreshold() {
+        warnIfNotLoaded();
+        return getInt("network-compression-threshold", 256);
+    }
+
+    /** Re-tune each connection's compression level/threshold from link and CPU measurements. */
+    public static boolean isCompressionAdaptive() {
+        warnIfNotLoaded();
+        return getBoolean("compression-adaptive", true);
+    }
+
+    /**
+     * Per-address-range compression rules, e.g. {@code 127.0.0.0/8=off,10.0.0.0/8=1:1024}.
+     * Empty by default.
+     */
+    public static String getCompressionOverrides() {
+        warnIfNotLoaded();
+        return props.getProperty("compression-overrides", "").trim();
+    }
+
+    /**
+     * UDP sockets bound to the Bedrock/MCPE port (SO_REUSEPORT), each on
+     * its own event loop. 0 (default) means one per CPU, up to 8.
+     */
+    public static int getUdpFrontEndSockets() {
+        warnIfNotLoaded();
+        int value = getInt("udp-frontend-sockets", 0);
+        if (value <= 0) {
+            value = Math.min(8, Runtime.getRuntime().availableProcessors());
+        }
+        return Math.max(1, Math.min(64, value));
+    }
+
+    /**
+     * Most Bedrock/MCPE clients the UDP front end keeps routing state and
+     * legacy RakNet sessions for. Default 4096.
+     */
+    public static int getUdpMaxClients() {
+        warnIfNotLoaded();
+        return Math.max(16, getInt("udp-max-clients", 4096));
+    }
+
+    /**
+     * Unconnected RakNet packets (pings, connection requests) accepted per
+     * second from one /24 (IPv4) or /64 (IPv6) prefix; bursts of up to
+     * twice as many are allowed. Default 20.
+     */
+    public static int getUdpHandshakeRate() {
+        warnIfNotLoaded();
+        return Math.max(1, getInt("udp-handshake-rate", 20));
+    }
+
+    // --- World pregeneration config ---
+
+    /** Worker threads for /pregen. Defaults to one per available CPU. */
+    public static int getPregenThreads() {
+        warnIfNotLoaded();
+        return Math.max(1, getInt("pregen-threads", Runtime.getRuntime().availableProcessors()));
+    }
+
+    /** Pause between pregeneration batches while players are online. */
+    public static int getPregenThrottleMs() {
+        warnIfNotLoaded();
+        return Math.max(0, getInt("pregen-throttle-ms", 250));
+    }
+
+    // --- Profiler / metrics config ---
+
+    /** Time every mod event listener call for /perf mods. */
+    public static boolean isPerfModTiming() {
+        warnIfNotLoaded();
+        return getBoolean("perf-mod-timing", true);
+    }
+
+    /** Port for the Prometheus metrics endpoint, or 0 to disable it. */
+    public static int getPerfMetricsPort() {
+        warnIfNotLoaded();
+        return Math.max(0, getInt("perf-metrics-port", 0));
+    }
+
+    /** Address the metrics endpoint binds to. Loopback-only unless changed. */
+    public static String getPerfMetricsBind() {
+        warnIfNotLoaded();
+        return props.getProperty("perf-metrics-bind", "127.0.0.1").trim();
+    }
+
+    // --- Tick watchdog config ---
+
+    /** A single tick running this long logs a stall warning with the tick thread's position. 0 disables the watchdog. */
+    public static int getWatchdogWarnMs() {
+        warnIfNotLoaded();
+        return Math.max(0, getInt("watchdog-warn-ms", 2000));
+    }
+
+    /** A tick stalled this long gets a full diagnostic report in stall-reports/. */
+    public static int getWatchdogReportMs() {
+        warnIfNotLoaded();
+        return Math.max(0, getInt("watchdog-report-ms", 10000));
+    }
+
+    /**
+     * A tick stalled this long (or a dead tick thread) stops the server,
+     * saving what it can. 0 (default) only reports.
+     */
+    public static int getWatchdogShutdownMs() {
+        warnIfNotLoaded();
+        return Math.max(0, getInt("watchdog-shutdown-ms", 0));
+    }
+
+    // --- Per-mod tick budgets ---
+
+    /**
+     * Listener and scheduled-task time a mod may use per tick before it
+     * collects a strike. 0 turns budgets off (time is still accounted).
+     */
+    public static int getModBudgetMs() {
+        warnIfNotLoaded();
+        return Math.max(0, getInt("mod-budget-ms", 25));
+    }
+
+    /** Per-mod budgets from {@code mod-budget-ms.<modId>} keys, overriding {@link #getModBudgetMs()}. */
+    public static Map<String, Integer> getModBudgetOverrides() {
+        warnIfNotLoaded();
+        Map<String, Integer> overrides = new LinkedHashMap<String, Integer>();
+        String prefix = "mod-budget-ms.";
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith(prefix) && key.length() > prefix.length()) {
+                overrides.put(key.substring(prefix.length()), Math.max(0, getInt(key, 0)));
+            }
+        }
+        return overrides;
+    }
+
+    /** What happens to a mod that runs out of strikes: warn, throttle or disable. */
+    public static String getModBudgetAction() {
+        warnIfNotLoaded();
+        return props.getProperty("mod-budget-action", "warn").trim();
+    }
+
+    /** Over-budget ticks (one forgiven per second) before the budget action fires. */
+    public static int getModBudgetStrikes() {
+        warnIfNotLoaded();
+        return Math.max(1, getInt("mod-budget-strikes", 20));
+    }
+
+    /** Also measure thread CPU time of mod listeners and tasks (needs perf-mod-timing). */
+    public static boolean isPerfModCpuTiming() {
+        warnIfNotLoaded();
+        return getBoolean("perf-mod-cpu-timing", true);
+    }
+
+    // --- Inbound packet handling ---
+
+    /**
+     * Queue gameplay packets on the event loop and apply them on the tick
+     * thread. false applies them on the event loop as they arrive.
+     */
+    public static boolean isInboundQueueEnabled() {
+        warnIfNotLoaded();
+        return getBoolean("inbound-queue", true);
+    }
+
+    /** Queued gameplay packets the tick loop applies per connection per tick. */
+    public static int getInboundPacketsPerTick() {
+        warnIfNotLoaded();
+        return Math.max(1, getInt("inbound-packets-per-tick", 40));
+    }
+
+    /** Queued packets at which a connection's reads pause until the tick loop catches up. */
+    public static int getInboundQueueLimit() {
+        warnIfNotLoaded();
+        return Math.max(2, getInt("inbound-queue-limit", 256));
+    }
+
+    // --- Connection admission ---
+
+    /** Pending TCP connections the OS queues before the server accepts them. */
+    public static int getAcceptBacklog() {
+        warnIfNotLoaded();
+        return Math.max(16, getInt("accept-backlog", 128));
+    }
+
+    /**
+     * TCP connections accepted per second from one /24 (IPv4) or /64
+     * (IPv6) prefix, with bursts of twice as many. 0 disables. Loopback
+     * is exempt.
+     */
+    public static int getAcceptRate() {
+        warnIfNotLoaded();
+        return Math.max(0, getInt("accept-rate", 10));
+    }
+
+    /** Open TCP connections allowed from one address. 0 disables. Loopback is exempt. */
+    public static int getMaxConnectionsPerIp() {
+        warnIfNotLoaded();
+        return Math.max(0, getInt("max-connections-per-ip", 16));
+    }
+
+    /** Logins (crypto, session lookup, initial world send) in progress at once. 0 for no limit. */
+    public static int getMaxConcurrentLogins() {
+        warnIfNotLoaded();
+        return Math.max(0, getInt("max-concurrent-logins", 16));
+    }
+
+    /** Logins that may wait for a slot when {@link #getMaxConcurrentLogins()} are in progress. */
+    public static int getJoinQueueSize() {
+        warnIfNotLoaded();
+        return Math.max(0, getInt("join-queue-size", 64));
+    }
+
+    /**
+     * Seconds a login may wait in the join queue before it is disconnected.
+     * Keep below the 30 s login read timeout.
+     */
+    public static int getJoinQueueTimeoutSeconds() {
+        warnIfNotLoaded();
+        return Math.max(1, getInt("join-queue-timeout-seconds", 20));
+    }
+
+    /** Threads decrypting login RSA secrets, off the network event loops. */
+    public static int getLoginCryptoThreads() {
+        warnIfNotLoaded();
+        return Math.max(1, getInt("login-crypto-threads", 2));
+    }
+
+    // --- Protocol detection ---
+
+    /**
+     * Silence in ms after which a client on a shared port is assumed to be
+     * LCE, which waits for the server to speak first. 0 disables LCE
+     * detection on shared ports.
+     */
+    public static int getLceDetectDelayMs() {
+        warnIfNotLoaded();
+        return Math.max(0, getInt("lce-detect-delay-ms", 300));
+    }
+
+    /**
+     * Extra listen ports that serve a single protocol family without
+     * detection, from {@code listen-port.<family>} keys (e.g.
+     * {@code listen-port.lce=25566}).
+     */
+    public static Map<String, Integer> getDedicatedPorts() {
+        warnIfNotLoaded();
+        Map<String, Integer> ports = new LinkedHashMap<String, Integer>();
+        String prefix = "listen-port.";
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith(prefix) && key.length() > prefix.length()) {
+                int port = getInt(key, 0);
+                if (port > 0 && port <= 65535) {
+                    ports.put(key.substring(prefix.length()), port);
+                }
+            }
+        }
+        return ports;
+    }
+
     /**
      * Get the locked world time, or -1 if time should flow normally.
      * Value is in MC ticks: 0=dawn, 6000=noon, 12000=sunset, 18000=midnight.
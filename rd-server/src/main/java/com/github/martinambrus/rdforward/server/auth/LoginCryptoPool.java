@@ -0,0 +1,70 @@
+package com.github.martinambrus.rdforward.server.auth;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small fixed pool for login-phase crypto (RSA decryption of the shared
+ * secret and verify token), so it runs off the Netty event loops that
+ * also serve every connected player, and never on more than a few cores
+ * at once however many clients are logging in.
+ *
+ * The work queue is bounded; when it is full the returned future fails
+ * with {@link RejectedExecutionException} and the caller disconnects the
+ * client instead of piling up work.
+ */
+public final class LoginCryptoPool {
+
+    /** Jobs that may wait for a thread. */
+    static final int QUEUE_CAPACITY = 256;
+
+    private static volatile ThreadPoolExecutor executor = create(2);
+
+    private LoginCryptoPool() {}
+
+    /** Resize the pool; jobs already submitted finish on the old threads. */
+    public static synchronized void configure(int threads) {
+        ThreadPoolExecutor old = executor;
+        executor = create(Math.max(1, threads));
+        old.shutdown();
+    }
+
+    /** Run {@code job} on the pool; the future completes on a pool thread. */
+    public static <T> CompletableFuture<T> submit(Callable<T> job) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(job.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /** Jobs waiting for a pool thread. */
+    public static int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private static ThreadPoolExecutor create(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread t = new Thread(r, "login-crypto-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.martinambrus.rdforward.server.bedrock;
+
+import com.github.martinambrus.rdforward.server.mcpe.UdpFrontEndHandler;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+import io.netty.channel.socket.DatagramPacket;
+import org.cloudburstmc.netty.channel.raknet.RakChildChannel;
+import org.cloudburstmc.netty.channel.raknet.RakServerChannel;
+
+/**
+ * Hands connected Bedrock datagrams straight to the CloudburstMC child
+ * channel of their sender.
+ *
+ * Without it every datagram the UDP front end receives is written into
+ * the internal Bedrock server channel and travels its whole pipeline
+ * (server-side RakNet handlers, child lookup) before reaching the
+ * session. Once a session exists only the child's own RakNet pipeline
+ * needs to see it, so this route fires the datagram into that pipeline
+ * directly — inline when the child shares the front-end socket's event
+ * loop, otherwise with a single executor hop.
+ *
+ * Offline messages (pings, open-connection requests) are not routed
+ * here; the front end keeps injecting those into the server channel so
+ * CloudburstMC can create the child in the first place.
+ */
+public final class BedrockChildRoute implements UdpFrontEndHandler.BedrockRoute {
+
+    private final RakServerChannel server;
+
+    public BedrockChildRoute(Channel bedrockChannel) {
+        this.server = (RakServerChannel) bedrockChannel;
+    }
+
+    @Override
+    public boolean deliver(DatagramPacket packet) {
+        RakChildChannel child = server.getChildChannel(packet.sender());
+        if (child == null || !child.isActive()) {
+            return false;
+        }
+
+        DatagramPacket copy = new DatagramPacket(
+                packet.content().retainedSlice(0, packet.content().writerIndex()),
+                packet.recipient(), packet.sender());
+        EventLoop loop = child.eventLoop();
+        if (loop.inEventLoop()) {
+            child.rakPipeline().fireChannelRead(copy).fireChannelReadComplete();
+        } else {
+            loop.execute(() -> child.rakPipeline().fireChannelRead(copy).fireChannelReadComplete());
+        }
+        return true;
+    }
+}
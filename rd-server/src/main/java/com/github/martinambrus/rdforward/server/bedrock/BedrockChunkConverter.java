@@ -1,6 +1,7 @@
 package com.github.martinambrus.rdforward.server.bedrock;
 
 import com.github.martinambrus.rdforward.server.ServerWorld;
+import com.github.martinambrus.rdforward.server.cache.ChunkDataCache;
 import com.github.martinambrus.rdforward.world.alpha.AlphaChunk;
 import com.github.martinambrus.rdforward.world.alpha.CanonicalChunkData;
 import com.github.martinambrus.rdforward.world.alpha.CanonicalSection;
@@ -11,10 +12,7 @@ import org.cloudburstmc.protocol.bedrock.packet.LevelChunkPacket;
 import org.cloudburstmc.protocol.common.util.VarInts;
 
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Converts world data (ServerWorld flat array or AlphaChunk) to Bedrock
@@ -35,6 +33,8 @@ import java.util.concurrent.atomic.AtomicInteger;
  *
  * Performance optimizations applied:
  * 1. Chunk cache: serialized chunk data cached by coordinate, invalidated on block change.
+ *    Lives in the server's shared {@link ChunkDataCache} under {@link #CACHE_BUCKET}, so
+ *    Bedrock and Java chunk data compete for one memory budget.
  * 2. Top-down empty section scan: only encodes sub-chunks up to the highest non-empty one.
  * 3. Last-value palette cache: skips HashMap lookups for runs of the same block type.
  * 4. Singleton palette: uniform sections use 0-bpb fast path (no indices written).
@@ -60,24 +60,24 @@ public class BedrockChunkConverter {
     /** Plains biome runtime ID. */
     private static final int BIOME_PLAINS = 1;
 
+    /** Bucket of Bedrock entries in the shared cache, after ChunkManager's Java buckets. */
+    public static final int CACHE_BUCKET = 22;
+
+    /** Budget of a converter's private cache when no shared cache is given. */
+    private static final long STANDALONE_CACHE_BYTES = 64L * 1024 * 1024;
+
     private final BedrockBlockMapper blockMapper;
 
     /** Cached air runtime ID (avoids repeated lookup). */
     private final int airRuntimeId;
 
     /**
-     * Cache of serialized chunk data, keyed by encoded (chunkX, chunkZ).
+     * Cache of serialized chunk data, keyed by (chunkX, chunkZ, CACHE_BUCKET).
      * Eliminates redundant serialization when the same chunk is requested
      * multiple times (e.g., multiple Bedrock clients, or client reconnection).
      * Invalidated when blocks change via {@link #invalidateCache(int, int)}.
      */
-    private final ConcurrentHashMap<Long, CachedChunkData> chunkCache = new ConcurrentHashMap<>();
-
-    /** Max entries in the chunk cache before eviction. */
-    private static final int MAX_CACHE_SIZE = 2000;
-
-    /** Tracks cache size without O(n) ConcurrentHashMap.size() calls. */
-    private final AtomicInteger cacheSize = new AtomicInteger();
+    private final ChunkDataCache chunkCache;
 
     /**
      * Reusable int arrays for palette building (one per thread).
@@ -89,9 +89,17 @@ public class BedrockChunkConverter {
     private static final ThreadLocal<int[]> TL_PALETTE =
             ThreadLocal.withInitial(() -> new int[BLOCKS_PER_SUB_CHUNK]);
 
+    /** Converter with its own cache (tools and benchmarks without a server). */
     public BedrockChunkConverter(BedrockBlockMapper blockMapper) {
+        this(blockMapper, new ChunkDataCache(STANDALONE_CACHE_BYTES));
+    }
+
+    /** Converter storing its chunk data in the server's shared cache. */
+    public BedrockChunkConverter(BedrockBlockMapper blockMapper, ChunkDataCache sharedCache) {
         this.blockMapper = blockMapper;
         this.airRuntimeId = blockMapper.toRuntimeId(0);
+        this.chunkCache = sharedCache;
+        sharedCache.setBucketName(CACHE_BUCKET, "bedrock");
     }
 
     /**
@@ -99,40 +107,24 @@ public class BedrockChunkConverter {
      * Called when a block changes in that chunk.
      */
     public void invalidateCache(int chunkX, int chunkZ) {
-        if (chunkCache.remove(cacheKey(chunkX, chunkZ)) != null) {
-            cacheSize.decrementAndGet();
-        }
+        chunkCache.remove(cacheKey(chunkX, chunkZ));
     }
 
     /**
-     * Clear the entire chunk cache (e.g., on shutdown or world reset).
+     * Clear all cached Bedrock chunk data (e.g., on shutdown or world reset).
+     * Other buckets of a shared cache are left alone.
      */
     public void clearCache() {
-        chunkCache.clear();
-        cacheSize.set(0);
+        chunkCache.clearBucket(CACHE_BUCKET);
     }
 
-    /**
-     * Insert into the chunk cache with eviction when full.
-     * Evicts ~half of entries (arbitrary order ≈ random eviction).
-     */
+    /** Insert into the chunk cache; the cache evicts by its memory budget. */
     private void cacheInsert(long key, CachedChunkData entry) {
-        if (cacheSize.get() >= MAX_CACHE_SIZE) {
-            int toEvict = MAX_CACHE_SIZE / 2;
-            Iterator<Long> it = chunkCache.keySet().iterator();
-            while (it.hasNext() && toEvict-- > 0) {
-                it.next();
-                it.remove();
-                cacheSize.decrementAndGet();
-            }
-        }
-        if (chunkCache.putIfAbsent(key, entry) == null) {
-            cacheSize.incrementAndGet();
-        }
+        chunkCache.putIfAbsent(key, entry);
     }
 
     private static long cacheKey(int chunkX, int chunkZ) {
-        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+        return ChunkDataCache.key(chunkX, chunkZ, CACHE_BUCKET);
     }
 
     /**
@@ -140,7 +132,7 @@ public class BedrockChunkConverter {
      * Stores the raw bytes and sub-chunk count so a LevelChunkPacket
      * can be reconstructed without re-serialization.
      */
-    private static final class CachedChunkData {
+    private static final class CachedChunkData implements ChunkDataCache.Weighted {
         final byte[] data;
         final int subChunksLength;
 
@@ -149,6 +141,11 @@ public class BedrockChunkConverter {
             this.subChunksLength = subChunksLength;
         }
 
+        @Override
+        public long weightBytes() {
+            return data.length + 64;
+        }
+
         LevelChunkPacket toPacket(int chunkX, int chunkZ) {
             LevelChunkPacket packet = new LevelChunkPacket();
             packet.setChunkX(chunkX);
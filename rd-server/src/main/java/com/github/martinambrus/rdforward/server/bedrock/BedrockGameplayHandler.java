@@ -5,6 +5,7 @@ import com.github.martinambrus.rdforward.api.event.EventResult;
 import com.github.martinambrus.rdforward.protocol.packet.classic.SetBlockServerPacket;
 import com.github.martinambrus.rdforward.server.ChunkManager;
 import com.github.martinambrus.rdforward.server.ConnectedPlayer;
+import com.github.martinambrus.rdforward.server.PlayerData;
 import com.github.martinambrus.rdforward.server.PlayerManager;
 import com.github.martinambrus.rdforward.server.ServerWorld;
 import com.github.martinambrus.rdforward.server.api.CommandRegistry;
@@ -147,17 +148,16 @@ public class BedrockGameplayHandler implements BedrockPacketHandler {
         player.setBedrockSession(sessionWrapper);
 
         // Determine spawn position (lookup by UUID in online mode, username in offline mode)
-        short[] savedPos = world.getSavedPlayerPosition(player.getUsername(), player.getUuid());
+        PlayerData saved = world.getSavedPlayer(player.getUsername(), player.getUuid());
 
         double spawnX, spawnY, spawnZ;
         float spawnYaw = 0, spawnPitch = 0;
-        if (savedPos != null && savedPos.length >= 5) {
-            spawnX = savedPos[0] / 32.0;
-            spawnY = savedPos[1] / 32.0; // eye-level
-            spawnZ = savedPos[2] / 32.0;
-            spawnYaw = (savedPos[3] & 0xFF) * 360.0f / 256.0f;
-            spawnPitch = (savedPos[4] & 0xFF) * 360.0f / 256.0f;
-            if (spawnPitch > 180.0f) spawnPitch -= 360.0f;
+        if (saved != null) {
+            spawnX = saved.getX();
+            spawnY = saved.getY(); // eye-level
+            spawnZ = saved.getZ();
+            spawnYaw = saved.getYaw();
+            spawnPitch = saved.getPitch();
 
             // Safety check: ensure player isn't inside solid blocks.
             // Fixed-point truncation can place feet slightly inside the ground,
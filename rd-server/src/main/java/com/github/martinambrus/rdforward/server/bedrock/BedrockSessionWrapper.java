@@ -1,8 +1,10 @@
 package com.github.martinambrus.rdforward.server.bedrock;
 
 import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import com.github.martinambrus.rdforward.server.SectionBlockUpdate;
 import com.github.martinambrus.rdforward.server.ServerWorld;
 import com.github.martinambrus.rdforward.world.alpha.AlphaChunk;
+import io.netty.channel.EventLoop;
 import org.cloudburstmc.math.vector.Vector3i;
 import org.cloudburstmc.protocol.bedrock.BedrockServerSession;
 import org.cloudburstmc.protocol.bedrock.packet.LevelChunkPacket;
@@ -80,6 +82,13 @@ public class BedrockSessionWrapper {
         }
     }
 
+    /** Send one section's block changes as an UpdateSubChunkBlocks. */
+    public void sendSectionUpdate(SectionBlockUpdate update) {
+        if (session.isConnected()) {
+            session.sendPacket(translator.translate(update));
+        }
+    }
+
     /**
      * Send a Bedrock packet directly (not translated from Classic).
      */
@@ -89,6 +98,14 @@ public class BedrockSessionWrapper {
         }
     }
 
+    /**
+     * Event loop of the session's RakNet channel. ConnectedPlayer drains its
+     * outbound queue here, so translation and sending stay on one thread.
+     */
+    public EventLoop eventLoop() {
+        return session.getPeer().getChannel().eventLoop();
+    }
+
     /**
      * Disconnect the Bedrock session.
      */
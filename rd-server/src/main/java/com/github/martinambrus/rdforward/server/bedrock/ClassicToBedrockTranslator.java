@@ -9,8 +9,10 @@ import com.github.martinambrus.rdforward.protocol.packet.classic.PositionOrienta
 import com.github.martinambrus.rdforward.protocol.packet.classic.PositionUpdatePacket;
 import com.github.martinambrus.rdforward.protocol.packet.classic.SetBlockServerPacket;
 import com.github.martinambrus.rdforward.protocol.packet.classic.SpawnPlayerPacket;
+import com.github.martinambrus.rdforward.server.SectionBlockUpdate;
 import org.cloudburstmc.math.vector.Vector3f;
 import org.cloudburstmc.math.vector.Vector3i;
+import org.cloudburstmc.protocol.bedrock.data.BlockChangeEntry;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityDataMap;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityDataTypes;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityFlag;
@@ -23,6 +25,7 @@ import org.cloudburstmc.protocol.bedrock.packet.PlayerListPacket;
 import org.cloudburstmc.protocol.bedrock.packet.RemoveEntityPacket;
 import org.cloudburstmc.protocol.bedrock.packet.TextPacket;
 import org.cloudburstmc.protocol.bedrock.packet.UpdateBlockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.UpdateSubChunkBlocksPacket;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -93,7 +96,7 @@ public class ClassicToBedrockTranslator {
      * Must be called when spawning existing players directly (bypassing translateAll)
      * so that subsequent delta movement packets can be resolved.
      *
-     * @param playerId Classic player ID (signed byte)
+     * @param playerId server-wide player ID
      * @param x        fixed-point X (eye-level convention)
      * @param y        fixed-point Y (eye-level convention)
      * @param z        fixed-point Z (eye-level convention)
@@ -168,6 +171,30 @@ public class ClassicToBedrockTranslator {
         return ubp;
     }
 
+    /**
+     * Translate one section's block changes, built once per block mapper
+     * and shared by every session using it.
+     */
+    public UpdateSubChunkBlocksPacket translate(SectionBlockUpdate update) {
+        return update.encodedFor(blockMapper, this::translateSectionBlockUpdate);
+    }
+
+    /** One tick's changes in a section as a single UpdateSubChunkBlocks. */
+    private UpdateSubChunkBlocksPacket translateSectionBlockUpdate(SectionBlockUpdate update) {
+        UpdateSubChunkBlocksPacket pkt = new UpdateSubChunkBlocksPacket();
+        pkt.setChunkX(update.getSectionX());
+        pkt.setChunkY(update.getSectionY());
+        pkt.setChunkZ(update.getSectionZ());
+        int flags = 0b11; // NEIGHBORS | NETWORK, as in translateSetBlock
+        for (int i = 0; i < update.size(); i++) {
+            pkt.getStandardBlocks().add(new BlockChangeEntry(
+                    Vector3i.from(update.getX(i), update.getY(i), update.getZ(i)),
+                    blockMapper.toDefinition(update.getBlockType(i)),
+                    flags, -1, BlockChangeEntry.MessageType.NONE));
+        }
+        return pkt;
+    }
+
     private AddPlayerPacket translateSpawnPlayer(SpawnPlayerPacket pkt) {
         if (pkt.getPlayerId() == -1) return null; // self-spawn not applicable
 
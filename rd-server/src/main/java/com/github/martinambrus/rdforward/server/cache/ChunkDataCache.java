@@ -0,0 +1,547 @@
+package com.github.martinambrus.rdforward.server.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Memory-bounded cache for serialized chunk data, shared by every protocol
+ * bucket (Java Edition packet sets per wire format, Bedrock sub-chunk
+ * data).
+ *
+ * Entries are weighed in bytes and the cache keeps their total under one
+ * budget, so a bucket whose chunks are large (1.18+ with light data) and
+ * one whose chunks are small (Classic-era Alpha) compete fairly for the
+ * same memory. Which entries stay is decided by a W-TinyLFU policy:
+ * <ul>
+ *   <li>new entries land in a small LRU <em>window</em> (1% of the budget)
+ *       so a burst of one-off chunks cannot flush the cache</li>
+ *   <li>entries leaving the window only get into the <em>main</em> area
+ *       if a {@link FrequencySketch} says they are accessed more often
+ *       than the entry they would displace</li>
+ *   <li>the main area is a segmented LRU: entries hit again while on
+ *       <em>probation</em> are promoted to the <em>protected</em> segment
+ *       (80% of main)</li>
+ * </ul>
+ * Chunks near spawn and other popular areas therefore survive players
+ * streaming through fresh terrain, instead of being thrown out by the old
+ * "drop half of the entries in hash order" eviction.
+ *
+ * Reads and writes never take the policy lock. A read records the entry in
+ * a lossy ring buffer and a write queues a task; a background thread
+ * ({@link #start()}) drains both and evicts, so the tick thread and chunk
+ * workers do no eviction work. If the thread is not running, or writes
+ * outpace it, writers run the maintenance themselves.
+ *
+ * Keys carry their bucket in the low 8 bits (see {@link #key}); hits,
+ * misses, evictions and resident bytes are counted per bucket.
+ */
+public final class ChunkDataCache {
+
+    /** A cached value that knows its size. */
+    public interface Weighted {
+        /** Approximate retained size in bytes. May grow while cached; see {@link #refreshWeight}. */
+        long weightBytes();
+
+        /** Called once when the entry leaves the cache (evicted, replaced, removed or cleared). */
+        default void onRemoval() {}
+    }
+
+    public static final int BUCKETS = 256;
+
+    private static final double WINDOW_FRACTION = 0.01;
+    private static final double PROTECTED_FRACTION = 0.80;
+    /** Assumed average entry size, for sizing the frequency sketch. */
+    private static final long TYPICAL_ENTRY_BYTES = 16 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 1024; // power of two
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    /** Queued writes beyond which writers drain the queue themselves. */
+    private static final int WRITE_BUFFER_LIMIT = 4096;
+    private static final long MAINTENANCE_INTERVAL_NANOS = 100_000_000L;
+
+    private static final byte NOT_LINKED = 0, WINDOW = 1, PROBATION = 2, PROTECTED = 3;
+
+    private static final class Node {
+        final long key;
+        final Weighted value;
+        // Policy state below is only accessed under the eviction lock
+        long weight;
+        byte queue;
+        boolean dead;
+        Node prev, next;
+
+        Node(long key, Weighted value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /** Doubly linked LRU queue, head = least recently used. */
+    private static final class AccessQueue {
+        Node head, tail;
+        long weight;
+
+        void addLast(Node n) {
+            n.prev = tail;
+            n.next = null;
+            if (tail == null) head = n; else tail.next = n;
+            tail = n;
+        }
+
+        void unlink(Node n) {
+            if (n.prev == null) head = n.next; else n.prev.next = n.next;
+            if (n.next == null) tail = n.prev; else n.next.prev = n.prev;
+            n.prev = n.next = null;
+        }
+
+        void moveToLast(Node n) {
+            if (tail != n) {
+                unlink(n);
+                addLast(n);
+            }
+        }
+    }
+
+    private final ConcurrentHashMap<Long, Node> data = new ConcurrentHashMap<>();
+
+    private final long maxWeight;
+    private final long windowMax;
+    private final long protectedMax;
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
+    private final FrequencySketch sketch;
+
+    private final AtomicReferenceArray<Node> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong readsRecorded = new AtomicLong();
+    private long readsDrained;
+
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+
+    private volatile Thread maintenanceThread;
+    private volatile boolean running;
+
+    // Per-bucket metrics; resident counts are written under the eviction lock
+    private final AtomicLongArray hits = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray misses = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray evictions = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray bucketWeight = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray bucketEntries = new AtomicLongArray(BUCKETS);
+    private final String[] bucketNames = new String[BUCKETS];
+    private volatile long weightedSize;
+
+    /** @param maxWeightBytes memory budget for all cached values together */
+    public ChunkDataCache(long maxWeightBytes) {
+        if (maxWeightBytes <= 0) throw new IllegalArgumentException("Cache budget must be positive: " + maxWeightBytes);
+        this.maxWeight = maxWeightBytes;
+        this.windowMax = Math.max(1, (long) (maxWeightBytes * WINDOW_FRACTION));
+        this.protectedMax = (long) ((maxWeightBytes - windowMax) * PROTECTED_FRACTION);
+        long expected = Math.min(1 << 20, Math.max(256, maxWeightBytes / TYPICAL_ENTRY_BYTES));
+        this.sketch = new FrequencySketch((int) expected);
+    }
+
+    /**
+     * Pack a chunk position and bucket into a key.
+     * Layout: bits 47..28 = chunkX (20 bits), bits 27..8 = chunkZ (20 bits),
+     * bits 7..0 = bucket. Supports coords up to +/-524287.
+     */
+    public static long key(int chunkX, int chunkZ, int bucket) {
+        return ((long) (chunkX & 0xFFFFF) << 28) | ((long) (chunkZ & 0xFFFFF) << 8) | (bucket & 0xFF);
+    }
+
+    public static int bucketOf(long key) {
+        return (int) key & 0xFF;
+    }
+
+    /** Label a bucket for {@link #describe()} and metrics. */
+    public void setBucketName(int bucket, String name) {
+        bucketNames[bucket & 0xFF] = name;
+    }
+
+    public String getBucketName(int bucket) {
+        String name = bucketNames[bucket & 0xFF];
+        return name != null ? name : "bucket" + (bucket & 0xFF);
+    }
+
+    // === Lifecycle ===
+
+    /** Start the background maintenance thread. */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        Thread t = new Thread(this::maintenanceLoop, "RDForward-ChunkCache");
+        t.setDaemon(true);
+        maintenanceThread = t;
+        t.start();
+    }
+
+    /** Stop the maintenance thread and drop every entry. */
+    public synchronized void shutdown() {
+        running = false;
+        Thread t = maintenanceThread;
+        maintenanceThread = null;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        clear();
+    }
+
+    private void maintenanceLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, MAINTENANCE_INTERVAL_NANOS);
+            try {
+                evictionLock.lock();
+                try {
+                    maintenance();
+                } finally {
+                    evictionLock.unlock();
+                }
+            } catch (RuntimeException e) {
+                System.err.println("[ChunkCache] Maintenance failed: " + e);
+            }
+        }
+    }
+
+    // === Map operations ===
+
+    /** Cached value for the key, or null. Counts a hit or miss for the key's bucket. */
+    @SuppressWarnings("unchecked")
+    public <V extends Weighted> V get(long key) {
+        Node node = data.get(key);
+        int bucket = bucketOf(key);
+        if (node == null) {
+            misses.incrementAndGet(bucket);
+            return null;
+        }
+        hits.incrementAndGet(bucket);
+        recordRead(node);
+        return (V) node.value;
+    }
+
+    /** Cached value for the key without counting a hit or an access. */
+    @SuppressWarnings("unchecked")
+    public <V extends Weighted> V peek(long key) {
+        Node node = data.get(key);
+        return node != null ? (V) node.value : null;
+    }
+
+    /** Insert unless present. Returns the existing value, or null if {@code value} was inserted. */
+    @SuppressWarnings("unchecked")
+    public <V extends Weighted> V putIfAbsent(long key, V value) {
+        Node node = new Node(key, value);
+        Node existing = data.putIfAbsent(key, node);
+        if (existing != null) {
+            recordRead(existing);
+            return (V) existing.value;
+        }
+        afterWrite(() -> onAdd(node));
+        return null;
+    }
+
+    /** Insert or replace. A replaced value gets {@link Weighted#onRemoval()}. */
+    public void put(long key, Weighted value) {
+        Node node = new Node(key, value);
+        Node replaced = data.put(key, node);
+        if (replaced != null) {
+            replaced.value.onRemoval();
+            afterWrite(() -> discard(replaced));
+        }
+        afterWrite(() -> onAdd(node));
+    }
+
+    /** Remove the key. The removed value gets {@link Weighted#onRemoval()}. */
+    @SuppressWarnings("unchecked")
+    public <V extends Weighted> V remove(long key) {
+        Node node = data.remove(key);
+        if (node == null) return null;
+        node.value.onRemoval();
+        afterWrite(() -> discard(node));
+        return (V) node.value;
+    }
+
+    /** Remove the key only while it still maps to {@code value}. */
+    public boolean remove(long key, Weighted value) {
+        Node node = data.get(key);
+        if (node == null || node.value != value || !data.remove(key, node)) return false;
+        node.value.onRemoval();
+        afterWrite(() -> discard(node));
+        return true;
+    }
+
+    /** Re-read the weight of a cached value after it grew or shrank. */
+    public void refreshWeight(long key) {
+        Node node = data.get(key);
+        if (node != null) {
+            afterWrite(() -> onWeightChange(node));
+        }
+    }
+
+    /** Drop every entry. */
+    public void clear() {
+        evictionLock.lock();
+        try {
+            maintenance();
+            for (Node node : data.values()) {
+                if (data.remove(node.key, node)) {
+                    node.value.onRemoval();
+                    discard(node);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /** Drop every entry of one bucket. */
+    public void clearBucket(int bucket) {
+        for (Long key : data.keySet()) {
+            if (bucketOf(key) == (bucket & 0xFF)) {
+                remove((long) key);
+            }
+        }
+    }
+
+    /** Run pending maintenance now (tests, or callers that need exact sizes). */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // === Read / write buffers ===
+
+    private void recordRead(Node node) {
+        long index = readsRecorded.getAndIncrement();
+        readBuffer.lazySet((int) index & READ_BUFFER_MASK, node);
+    }
+
+    private void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        int pending = pendingWrites.incrementAndGet();
+        Thread t = maintenanceThread;
+        if (t != null && pending < WRITE_BUFFER_LIMIT && weightedSize <= maxWeight) {
+            LockSupport.unpark(t);
+            return;
+        }
+        // No background thread, or it is falling behind: maintain inline
+        if (pending >= WRITE_BUFFER_LIMIT) {
+            evictionLock.lock(); // backpressure on writers
+        } else if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /** Apply buffered reads and writes, then evict down to the budget. Holds the eviction lock. */
+    private void maintenance() {
+        drainReadBuffer();
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            pendingWrites.decrementAndGet();
+            task.run();
+        }
+        evict();
+        weightedSize = window.weight + probation.weight + protectedQueue.weight;
+    }
+
+    private void drainReadBuffer() {
+        long end = readsRecorded.get();
+        long start = Math.max(readsDrained, end - READ_BUFFER_SIZE);
+        for (long i = start; i < end; i++) {
+            Node node = readBuffer.getAndSet((int) i & READ_BUFFER_MASK, null);
+            if (node != null) onAccess(node);
+        }
+        readsDrained = end;
+    }
+
+    // === Policy (eviction lock held) ===
+
+    private void onAccess(Node node) {
+        sketch.increment(node.key);
+        if (node.dead) return;
+        switch (node.queue) {
+            case WINDOW -> window.moveToLast(node);
+            case PROBATION -> {
+                // Hit while on probation: promote, demoting protected overflow
+                probation.unlink(node);
+                probation.weight -= node.weight;
+                node.queue = PROTECTED;
+                protectedQueue.addLast(node);
+                protectedQueue.weight += node.weight;
+                while (protectedQueue.weight > protectedMax && protectedQueue.head != node) {
+                    Node demoted = protectedQueue.head;
+                    protectedQueue.unlink(demoted);
+                    protectedQueue.weight -= demoted.weight;
+                    demoted.queue = PROBATION;
+                    probation.addLast(demoted);
+                    probation.weight += demoted.weight;
+                }
+            }
+            case PROTECTED -> protectedQueue.moveToLast(node);
+            default -> { }
+        }
+    }
+
+    private void onAdd(Node node) {
+        if (node.dead) return; // removed before its add was applied
+        sketch.increment(node.key);
+        node.weight = Math.max(0, node.value.weightBytes());
+        node.queue = WINDOW;
+        window.addLast(node);
+        window.weight += node.weight;
+        int bucket = bucketOf(node.key);
+        bucketWeight.addAndGet(bucket, node.weight);
+        bucketEntries.incrementAndGet(bucket);
+    }
+
+    private void onWeightChange(Node node) {
+        if (node.dead || node.queue == NOT_LINKED) return;
+        long newWeight = Math.max(0, node.value.weightBytes());
+        long delta = newWeight - node.weight;
+        if (delta == 0) return;
+        node.weight = newWeight;
+        queueOf(node).weight += delta;
+        bucketWeight.addAndGet(bucketOf(node.key), delta);
+        if (node.queue == WINDOW) window.moveToLast(node);
+    }
+
+    /** Unlink a node that has left the map. Idempotent. */
+    private void discard(Node node) {
+        if (node.dead) return;
+        node.dead = true;
+        if (node.queue == NOT_LINKED) return;
+        AccessQueue queue = queueOf(node);
+        queue.unlink(node);
+        queue.weight -= node.weight;
+        node.queue = NOT_LINKED;
+        int bucket = bucketOf(node.key);
+        bucketWeight.addAndGet(bucket, -node.weight);
+        bucketEntries.decrementAndGet(bucket);
+    }
+
+    private AccessQueue queueOf(Node node) {
+        return switch (node.queue) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            default -> protectedQueue;
+        };
+    }
+
+    private void evict() {
+        // Window overflow moves to the probation tail as admission candidates
+        Node candidate = null;
+        while (window.weight > windowMax && window.head != null) {
+            Node n = window.head;
+            window.unlink(n);
+            window.weight -= n.weight;
+            n.queue = PROBATION;
+            probation.addLast(n);
+            probation.weight += n.weight;
+            if (candidate == null) candidate = n;
+        }
+
+        while (window.weight + probation.weight + protectedQueue.weight > maxWeight) {
+            Node victim = probation.head;
+            if (victim == null) {
+                // Everything is protected or in the window: plain LRU
+                victim = protectedQueue.head != null ? protectedQueue.head : window.head;
+                if (victim == null) break;
+                evictNode(victim);
+                continue;
+            }
+            if (candidate == null || candidate == victim) {
+                // No newcomers left to judge, or only newcomers on probation
+                if (candidate == victim) candidate = victim.next;
+                evictNode(victim);
+                continue;
+            }
+            // TinyLFU admission: the newcomer must be more popular than the LRU victim
+            if (candidate.weight > maxWeight
+                    || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                Node next = candidate.next;
+                evictNode(candidate);
+                candidate = next;
+            } else {
+                evictNode(victim);
+            }
+        }
+    }
+
+    private void evictNode(Node node) {
+        if (data.remove(node.key, node)) {
+            evictions.incrementAndGet(bucketOf(node.key));
+            node.value.onRemoval();
+        }
+        discard(node);
+    }
+
+    // === Metrics ===
+
+    public int size() {
+        return data.size();
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /** Resident bytes as of the last maintenance run. */
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    public long getHits(int bucket) { return hits.get(bucket & 0xFF); }
+    public long getMisses(int bucket) { return misses.get(bucket & 0xFF); }
+    public long getEvictions(int bucket) { return evictions.get(bucket & 0xFF); }
+    public long getWeight(int bucket) { return bucketWeight.get(bucket & 0xFF); }
+    public long getEntries(int bucket) { return bucketEntries.get(bucket & 0xFF); }
+
+    /** Buckets that have been used since startup, in ascending order. */
+    public List<Integer> getActiveBuckets() {
+        List<Integer> active = new ArrayList<>();
+        for (int b = 0; b < BUCKETS; b++) {
+            if (bucketEntries.get(b) != 0 || hits.get(b) != 0 || misses.get(b) != 0) {
+                active.add(b);
+            }
+        }
+        return active;
+    }
+
+    /** Human-readable summary, one line per active bucket. */
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("Chunk cache: %d entries, %.1f/%.1f MB", size(),
+                weightedSize / 1048576.0, maxWeight / 1048576.0));
+        for (int b : getActiveBuckets()) {
+            long h = getHits(b), m = getMisses(b);
+            long rate = h + m > 0 ? h * 100 / (h + m) : 0;
+            lines.add(String.format("  %-10s entries=%-6d size=%.1fMB hits=%d misses=%d (%d%%) evictions=%d",
+                    getBucketName(b), getEntries(b), getWeight(b) / 1048576.0, h, m, rate, getEvictions(b)));
+        }
+        return lines;
+    }
+}
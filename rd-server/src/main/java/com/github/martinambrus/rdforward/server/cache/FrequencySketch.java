@@ -0,0 +1,83 @@
+package com.github.martinambrus.rdforward.server.cache;
+
+/**
+ * Approximate access frequency of cache keys: a count-min sketch of 4-bit
+ * counters, four per key, packed sixteen to a long.
+ *
+ * Counters saturate at 15. After ten increments per tracked key every
+ * counter is halved, so the sketch tracks recent popularity rather than
+ * all-time totals (a chunk at spawn that everyone loads stays hot, a
+ * chunk one player flew past an hour ago fades out).
+ *
+ * Not thread-safe; {@link ChunkDataCache} only touches it under its
+ * eviction lock.
+ */
+final class FrequencySketch {
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private final long[] table;
+    private final int counterMask;
+    private final int sampleSize;
+    private int additions;
+
+    /** @param expectedEntries roughly how many keys the cache holds at once */
+    FrequencySketch(int expectedEntries) {
+        int counters = Integer.highestOneBit(Math.max(expectedEntries, 64) - 1) << 3; // 4 per key, power of two
+        this.table = new long[Math.max(1, counters >>> 4)];
+        this.counterMask = counters - 1;
+        this.sampleSize = 10 * (counters >>> 2);
+    }
+
+    /** Estimated recent accesses of the key, 0..15. */
+    int frequency(long key) {
+        long hash = spread(key);
+        int min = 15;
+        for (long seed : SEEDS) {
+            int index = indexOf(hash, seed);
+            int count = (int) (table[index >>> 4] >>> ((index & 15) << 2)) & 0xF;
+            if (count < min) min = count;
+        }
+        return min;
+    }
+
+    /** Count one access of the key. */
+    void increment(long key) {
+        long hash = spread(key);
+        boolean added = false;
+        for (long seed : SEEDS) {
+            int index = indexOf(hash, seed);
+            int word = index >>> 4;
+            int shift = (index & 15) << 2;
+            if (((table[word] >>> shift) & 0xF) != 0xF) {
+                table[word] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /** Halve every counter. */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private int indexOf(long hash, long seed) {
+        long h = (hash + seed) * seed;
+        h ^= h >>> 32;
+        return (int) h & counterMask;
+    }
+
+    private static long spread(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
@@ -841,8 +841,8 @@ public class EaglerCraftHandshakeHandler extends ChannelInboundHandlerAdapter {
         if (useString16) encoder.setUseString16(true);
         pipeline.addAfter("wsFrameEncoder", "encoder", encoder);
 
-        pipeline.addAfter("encoder", "prioritizer", new PrioritizingOutboundHandler());
-        pipeline.addAfter("prioritizer", "alphaTranslator", new ClassicToAlphaTranslator());
+        pipeline.addAfter("encoder", "alphaTranslator", new ClassicToAlphaTranslator());
+        pipeline.addAfter("alphaTranslator", "prioritizer", new PrioritizingOutboundHandler());
 
         AlphaConnectionHandler handler = new AlphaConnectionHandler(
                 serverVersion, world, playerManager, chunkManager);
@@ -861,10 +861,10 @@ public class EaglerCraftHandshakeHandler extends ChannelInboundHandlerAdapter {
                 new NettyPacketDecoder(ConnectionState.PLAY));
         pipeline.addAfter("wsFrameEncoder", "packetEncoder",
                 new NettyPacketEncoder(ConnectionState.PLAY));
-        pipeline.addAfter("packetEncoder", "prioritizer",
-                new PrioritizingOutboundHandler());
-        pipeline.addAfter("prioritizer", "nettyTranslator",
+        pipeline.addAfter("packetEncoder", "nettyTranslator",
                 new ClassicToNettyTranslator());
+        pipeline.addAfter("nettyTranslator", "prioritizer",
+                new PrioritizingOutboundHandler());
 
         NettyConnectionHandler handler = new NettyConnectionHandler(
                 serverVersion, world, playerManager, chunkManager);
@@ -125,7 +125,7 @@ public class ClassicToLCETranslator extends ChannelOutboundHandlerAdapter {
     }
 
     private Packet translateSpawnPlayer(com.github.martinambrus.rdforward.protocol.packet.classic.SpawnPlayerPacket classic) {
-        int entityId = (classic.getPlayerId() & 0xFF) + 1;
+        int entityId = classic.getPlayerId() + 1;
         int feetY = classic.getY() - EYE_HEIGHT_FIXED;
         // Classic yaw 0=North; Alpha/LCE yaw 0=South: +128 byte rotation
         int alphaYaw = (classic.getYaw() + 128) & 0xFF;
@@ -138,7 +138,7 @@ public class ClassicToLCETranslator extends ChannelOutboundHandlerAdapter {
     }
 
     private Packet[] translatePlayerTeleport(PlayerTeleportPacket classic) {
-        int entityId = (classic.getPlayerId() & 0xFF) + 1;
+        int entityId = classic.getPlayerId() + 1;
         int feetY = classic.getY() - EYE_HEIGHT_FIXED;
         int alphaYaw = (classic.getYaw() + 128) & 0xFF;
         int pitch = classic.getPitch() & 0xFF;
@@ -152,7 +152,7 @@ public class ClassicToLCETranslator extends ChannelOutboundHandlerAdapter {
     }
 
     private Packet[] translatePosOriUpdate(PositionOrientationUpdatePacket classic) {
-        int entityId = (classic.getPlayerId() & 0xFF) + 1;
+        int entityId = classic.getPlayerId() + 1;
         int alphaYaw = (classic.getYaw() + 128) & 0xFF;
         int pitch = classic.getPitch() & 0xFF;
         // LCE MoveEntity uses RELATIVE body rotation — compute deltas
@@ -170,13 +170,13 @@ public class ClassicToLCETranslator extends ChannelOutboundHandlerAdapter {
     }
 
     private Packet translatePosUpdate(PositionUpdatePacket classic) {
-        int entityId = (classic.getPlayerId() & 0xFF) + 1;
+        int entityId = classic.getPlayerId() + 1;
         return new LCEEntityRelativeMovePacket(entityId,
                 classic.getChangeX(), classic.getChangeY(), classic.getChangeZ());
     }
 
     private Packet[] translateOriUpdate(OrientationUpdatePacket classic) {
-        int entityId = (classic.getPlayerId() & 0xFF) + 1;
+        int entityId = classic.getPlayerId() + 1;
         int alphaYaw = (classic.getYaw() + 128) & 0xFF;
         int pitch = classic.getPitch() & 0xFF;
         // LCE MoveEntity uses RELATIVE body rotation — compute deltas
@@ -209,7 +209,7 @@ public class ClassicToLCETranslator extends ChannelOutboundHandlerAdapter {
     }
 
     private Packet translateDespawn(DespawnPlayerPacket classic) {
-        int entityId = (classic.getPlayerId() & 0xFF) + 1;
+        int entityId = classic.getPlayerId() + 1;
         lastEntityRot.remove(entityId);
         return new DestroyEntityPacketV39(new int[]{entityId});
     }
@@ -33,6 +33,8 @@ public class LCEConnectionHandler extends SimpleChannelInboundHandler<Packet> {
     private static final int KEEPALIVE_TIMEOUT_MS = 30_000;
     private static final short LCE_NETCODE_VERSION = 560;
     private static final int LCE_PROTOCOL_VERSION = 78;
+    /** Login's playerIndex is one unsigned byte. */
+    private static final int MAX_PLAYER_INDEX = 0xFF;
     private static final double PLAYER_EYE_HEIGHT = (double) 1.62f;
     private static final int PLAYER_EYE_HEIGHT_FIXED = (int) Math.ceil(PLAYER_EYE_HEIGHT * 32);
 
@@ -178,6 +180,14 @@ public class LCEConnectionHandler extends SimpleChannelInboundHandler<Packet> {
             ctx.close();
             return;
         }
+        if (player.getPlayerId() > MAX_PLAYER_INDEX) {
+            // A wrapped index would name another player; LCE clients can't take this ID
+            playerManager.removePlayer(ctx.channel());
+            player = null;
+            ctx.writeAndFlush(new DisconnectPacket("Server is full!"));
+            ctx.close();
+            return;
+        }
 
         // Configure translator
         ClassicToLCETranslator translator = ctx.pipeline().get(ClassicToLCETranslator.class);
@@ -194,7 +204,7 @@ public class LCEConnectionHandler extends SimpleChannelInboundHandler<Packet> {
                 .mapHeight((byte) -128)         // signed byte: -128 = 128
                 .maxPlayers((byte) 8)
                 .difficulty((byte) 1)           // easy
-                .playerIndex((byte) (player.getPlayerId() & 0xFF))
+                .playerIndex((byte) player.getPlayerId())
                 .gamePrivileges(0x1FB30)        // Op, CanFly, Invulnerable, CreativeMode, etc.
                 .xzSize((short) 320)            // LEVEL_MAX_WIDTH = 5*64
                 .hellScale((byte) 8)            // HELL_LEVEL_MAX_SCALE
@@ -6,6 +6,8 @@ import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.socket.DatagramPacket;
 
+import java.nio.channels.ClosedChannelException;
+
 /**
  * Intercepts outbound writes on CloudburstMC's internal NioDatagramChannel
  * and redirects them through the front-end channel (port 19132).
@@ -13,14 +15,15 @@ import io.netty.channel.socket.DatagramPacket;
  * Without this, CloudburstMC would try to send responses from its internal
  * loopback socket (127.0.0.1:ephemeral), which real clients can't receive.
  * By redirecting through the front-end, responses appear to come from
- * the public port 19132.
+ * the public port 19132. With several front-end sockets the recipient's
+ * routing shard picks which one sends.
  */
 public class BedrockOutboundRedirector extends ChannelOutboundHandlerAdapter {
 
-    private final Channel frontEndChannel;
+    private final UdpFrontEndHandler frontEnd;
 
-    public BedrockOutboundRedirector(Channel frontEndChannel) {
-        this.frontEndChannel = frontEndChannel;
+    public BedrockOutboundRedirector(UdpFrontEndHandler frontEnd) {
+        this.frontEnd = frontEnd;
     }
 
     @Override
@@ -29,6 +32,12 @@ public class BedrockOutboundRedirector extends ChannelOutboundHandlerAdapter {
             DatagramPacket pkt = (DatagramPacket) msg;
             // Redirect through the front-end channel so the client sees
             // the response coming from port 19132, not the internal loopback port.
+            Channel frontEndChannel = frontEnd.channelFor(pkt.recipient());
+            if (frontEndChannel == null) {
+                pkt.release();
+                promise.setFailure(new ClosedChannelException());
+                return;
+            }
             frontEndChannel.writeAndFlush(
                     new DatagramPacket(pkt.content().retain(), pkt.recipient())
             ).addListener(f -> {
@@ -0,0 +1,71 @@
+package com.github.martinambrus.rdforward.server.mcpe;
+
+import java.net.InetSocketAddress;
+import java.security.SecureRandom;
+
+/**
+ * Stateless return-address check for the legacy RakNet handshake.
+ *
+ * RakNet v6 clients don't understand the security cookie newer RakNet
+ * sends in Open Connection Reply 1, but they do echo the MTU from that
+ * reply back in Open Connection Request 2. So the server hides a few
+ * bits of a keyed hash of the sender address in the MTU it advertises
+ * (lowering it by at most {@link #MAX_MTU_REDUCTION} bytes) and only
+ * creates a session when Request 2 carries an MTU with the right bits.
+ * Nothing is remembered between the two packets.
+ *
+ * The key rotates every {@link #EPOCH_MS} ms and the previous epoch is
+ * still accepted, so a handshake straddling a rotation works. With
+ * {@link #BITS} bits a blind spoofer needs about 32 Request 2 packets
+ * per session, each one charged against its prefix's rate limit.
+ */
+public final class HandshakeCookie {
+
+    static final int BITS = 5;
+    static final int MAX_MTU_REDUCTION = (1 << BITS) - 1;
+    static final long EPOCH_MS = 30_000;
+
+    private final long secret;
+
+    public HandshakeCookie() {
+        this(new SecureRandom().nextLong());
+    }
+
+    HandshakeCookie(long secret) {
+        this.secret = secret;
+    }
+
+    /** MTU to advertise to {@code sender} in place of {@code mtu}. */
+    public int advertiseMtu(InetSocketAddress sender, int mtu) {
+        return advertiseMtu(sender, mtu, System.currentTimeMillis());
+    }
+
+    int advertiseMtu(InetSocketAddress sender, int mtu, long nowMillis) {
+        int cookie = cookie(sender, nowMillis / EPOCH_MS);
+        return mtu - ((mtu - cookie) & MAX_MTU_REDUCTION);
+    }
+
+    /** Whether the MTU echoed in Open Connection Request 2 was advertised to {@code sender}. */
+    public boolean verify(InetSocketAddress sender, int echoedMtu) {
+        return verify(sender, echoedMtu, System.currentTimeMillis());
+    }
+
+    boolean verify(InetSocketAddress sender, int echoedMtu, long nowMillis) {
+        long epoch = nowMillis / EPOCH_MS;
+        int bits = echoedMtu & MAX_MTU_REDUCTION;
+        return bits == cookie(sender, epoch) || bits == cookie(sender, epoch - 1);
+    }
+
+    private int cookie(InetSocketAddress sender, long epoch) {
+        long h = secret ^ epoch * 0x9E3779B97F4A7C15L;
+        byte[] address = sender.getAddress().getAddress();
+        for (byte b : address) {
+            h = (h ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        h = (h ^ sender.getPort()) * 0x100000001B3L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h & MAX_MTU_REDUCTION;
+    }
+}
@@ -2,6 +2,7 @@ package com.github.martinambrus.rdforward.server.mcpe;
 
 import com.github.martinambrus.rdforward.server.PlayerManager;
 import com.github.martinambrus.rdforward.server.ServerWorld;
+import com.github.martinambrus.rdforward.server.api.ServerProperties;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -15,6 +16,9 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.InflaterInputStream;
@@ -24,7 +28,8 @@ import java.util.zip.InflaterInputStream;
  * Uses Netty NioDatagramChannel for raw UDP, implementing the RakNet
  * handshake, reliability layer, and encapsulation/decapsulation.
  */
-public class LegacyRakNetServer extends SimpleChannelInboundHandler<DatagramPacket> {
+public class LegacyRakNetServer extends SimpleChannelInboundHandler<DatagramPacket>
+        implements UdpFrontEndHandler.LegacyBackend {
 
     private final long serverGuid;
     private final String serverName;
@@ -35,6 +40,15 @@ public class LegacyRakNetServer extends SimpleChannelInboundHandler<DatagramPack
     /** Active sessions keyed by client address. */
     private final Map<InetSocketAddress, LegacyRakNetSession> sessions = new ConcurrentHashMap<>();
 
+    /** Return-address check between Open Connection Request 1 and 2. */
+    private final HandshakeCookie handshakeCookie = new HandshakeCookie();
+    private final int maxSessions;
+
+    /** At most one "session limit" line per interval; refusals in between are counted. */
+    private static final long LIMIT_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private final AtomicLong limitLoggedAt = new AtomicLong(System.nanoTime() - LIMIT_LOG_INTERVAL_NANOS);
+    private final LongAdder limitRefused = new LongAdder();
+
     /** Own channel when running in standalone mode (null in front-end mode). */
     private Channel channel;
 
@@ -49,6 +63,7 @@ public class LegacyRakNetServer extends SimpleChannelInboundHandler<DatagramPack
         this.world = world;
         this.playerManager = playerManager;
         this.pongUpdater = pongUpdater;
+        this.maxSessions = ServerProperties.getUdpMaxClients();
     }
 
     /**
@@ -72,9 +87,14 @@ public class LegacyRakNetServer extends SimpleChannelInboundHandler<DatagramPack
     /**
      * Configure this server to run behind a UdpFrontEndHandler.
      * In this mode, the server does not bind its own socket; all I/O
-     * goes through the front-end channel.
+     * goes through the front-end channel. Called once per front-end
+     * socket; the first one becomes the fallback send channel and runs
+     * the timeout check. Sessions reply on the socket their datagrams
+     * arrive on (see {@link LegacyRakNetSession#getCachedCtx()}).
      */
-    public void setFrontEndChannel(Channel frontEnd) {
+    @Override
+    public synchronized void setFrontEndChannel(Channel frontEnd) {
+        if (frontEndChannel != null && frontEndChannel.isActive()) return;
         this.frontEndChannel = frontEnd;
         // Schedule timeout check on the front-end's event loop
         frontEnd.eventLoop().scheduleAtFixedRate(this::checkTimeouts,
@@ -85,6 +105,7 @@ public class LegacyRakNetServer extends SimpleChannelInboundHandler<DatagramPack
      * Handle an incoming datagram forwarded by the UdpFrontEndHandler.
      * Delegates to the same logic as channelRead0.
      */
+    @Override
     public void handleDatagram(ChannelHandlerContext ctx, DatagramPacket packet) {
         try {
             channelRead0(ctx, packet);
@@ -97,6 +118,11 @@ public class LegacyRakNetServer extends SimpleChannelInboundHandler<DatagramPack
     public Channel getSendChannel() { return (frontEndChannel != null) ? frontEndChannel : channel; }
     public Map<InetSocketAddress, LegacyRakNetSession> getSessions() { return sessions; }
 
+    @Override
+    public boolean hasSession(InetSocketAddress address) {
+        return sessions.containsKey(address);
+    }
+
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket packet) {
         ByteBuf buf = packet.content();
@@ -294,6 +320,8 @@ public class LegacyRakNetServer extends SimpleChannelInboundHandler<DatagramPack
         int protocolVersion = buf.readUnsignedByte();
         // Remaining bytes = MTU padding; MTU = total packet size
         int mtu = buf.readableBytes() + 1 + MCPEConstants.RAKNET_MAGIC_LENGTH + 1 + 28; // +28 for UDP/IP headers
+        // The client echoes this MTU in Request 2, which is how it proves it owns its address
+        mtu = handshakeCookie.advertiseMtu(sender, mtu);
 
         // Send Open Connection Reply 1
         ByteBuf reply = Unpooled.buffer();
@@ -315,6 +343,13 @@ public class LegacyRakNetServer extends SimpleChannelInboundHandler<DatagramPack
         int mtu = buf.readUnsignedShort();
         long clientGuid = buf.readLong();
 
+        // No session for senders that never got our Reply 1 (spoofed source address)
+        if (!handshakeCookie.verify(sender, mtu)) return;
+        if (sessions.size() >= maxSessions && !sessions.containsKey(sender)) {
+            logSessionLimit(sender);
+            return;
+        }
+
         // Create session
         LegacyRakNetSession session = new LegacyRakNetSession(sender, clientGuid, mtu, serverGuid);
         sessions.put(sender, session);
@@ -338,6 +373,21 @@ public class LegacyRakNetServer extends SimpleChannelInboundHandler<DatagramPack
 
     // ========== Data Packet Handling ==========
 
+    /**
+     * Report refused connection requests without a line per request: a
+     * flood of Open Connection Request 2 over the cap would otherwise flood
+     * the log as well.
+     */
+    private void logSessionLimit(InetSocketAddress sender) {
+        limitRefused.increment();
+        long now = System.nanoTime();
+        long last = limitLoggedAt.get();
+        if (now - last < LIMIT_LOG_INTERVAL_NANOS || !limitLoggedAt.compareAndSet(last, now)) return;
+        System.err.println("[MCPE] Session limit (" + maxSessions + ") reached, ignored "
+                + limitRefused.sumThenReset() + " connection request(s) since the last report, latest from "
+                + sender);
+    }
+
     private void handleDataPacket(ChannelHandlerContext ctx, LegacyRakNetSession session, ByteBuf buf) {
         // Cache ctx for outgoing writes (ensures same write path as handshake)
         session.setCachedCtx(ctx);
@@ -2,6 +2,7 @@ package com.github.martinambrus.rdforward.server.mcpe;
 
 import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
 import com.github.martinambrus.rdforward.server.ConnectedPlayer;
+import com.github.martinambrus.rdforward.server.PlayerData;
 import com.github.martinambrus.rdforward.server.PlayerManager;
 import com.github.martinambrus.rdforward.server.ServerWorld;
 import com.github.martinambrus.rdforward.server.api.ServerProperties;
@@ -236,18 +237,17 @@ public class MCPELoginHandler {
         // Calculate spawn position
         double spawnX, spawnY = 0, spawnZ;
         float spawnYaw = 0, spawnPitch = 0;
-        short[] savedPos = world.getSavedPlayerPosition(player.getUsername(), player.getUuid());
+        PlayerData saved = world.getSavedPlayer(player.getUsername(), player.getUuid());
 
         spawnX = world.getWidth() / 2.0 + 0.5;
         spawnZ = world.getDepth() / 2.0 + 0.5;
 
-        if (savedPos != null && savedPos.length >= 5) {
-            spawnX = savedPos[0] / 32.0;
-            spawnY = savedPos[1] / 32.0;
-            spawnZ = savedPos[2] / 32.0;
-            spawnYaw = (savedPos[3] & 0xFF) * 360.0f / 256.0f;
-            spawnPitch = (savedPos[4] & 0xFF) * 360.0f / 256.0f;
-            if (spawnPitch > 180.0f) spawnPitch -= 360.0f;
+        if (saved != null) {
+            spawnX = saved.getX();
+            spawnY = saved.getY();
+            spawnZ = saved.getZ();
+            spawnYaw = saved.getYaw();
+            spawnPitch = saved.getPitch();
         }
 
         // Always validate spawn against terrain — recalculate if feet would be inside a solid block
@@ -255,7 +255,7 @@ public class MCPELoginHandler {
             int sx = (int) Math.floor(spawnX);
             int sz = (int) Math.floor(spawnZ);
             int feetBlock = (int) Math.floor(spawnY - PLAYER_EYE_HEIGHT);
-            if (savedPos == null || savedPos.length < 5
+            if (saved == null
                     || (feetBlock >= 0 && feetBlock < world.getHeight()
                         && world.getBlock(sx, feetBlock, sz) != 0)) {
                 // Recalculate from terrain
@@ -648,7 +648,7 @@ public class MCPELoginHandler {
             float ox = other.getX() / 32.0f;
             float oy = other.getY() / 32.0f - (float) PLAYER_EYE_HEIGHT;
             float oz = other.getZ() / 32.0f;
-            int oeid = (other.getPlayerId() & 0xFF) + 1;
+            int oeid = other.getPlayerId() + 1;
             float yaw = ((other.getYaw() + 128) & 0xFF) * 360.0f / 256.0f;
             float pitch = (other.getPitch() & 0xFF) * 360.0f / 256.0f;
             if (pitch > 180.0f) pitch -= 360.0f;
@@ -796,7 +796,7 @@ public class MCPELoginHandler {
             float ox = other.getX() / 32.0f;
             float oy = other.getY() / 32.0f - (float) PLAYER_EYE_HEIGHT;
             float oz = other.getZ() / 32.0f;
-            int oeid = (other.getPlayerId() & 0xFF) + 1;
+            int oeid = other.getPlayerId() + 1;
             boolean isV9 = session.getMcpeProtocolVersion() < MCPEConstants.MCPE_PROTOCOL_VERSION_11;
             // All MCPE versions use 0=South; Classic byte is 0=North. +128 = +180°.
             float yaw = ((other.getYaw() + 128) & 0xFF) * 360.0f / 256.0f;
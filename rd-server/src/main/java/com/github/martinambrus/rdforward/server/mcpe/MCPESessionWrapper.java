@@ -12,6 +12,9 @@ import com.github.martinambrus.rdforward.protocol.packet.classic.SpawnPlayerPack
 import com.github.martinambrus.rdforward.server.ConnectedPlayer;
 import com.github.martinambrus.rdforward.server.PlayerManager;
 import com.github.martinambrus.rdforward.server.ServerWorld;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.EventLoop;
 
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
@@ -107,7 +110,7 @@ public class MCPESessionWrapper {
         float yaw = classicYawToMcpeDegrees(pkt.getYaw());
         float pitch = classicPitchToMcpeDegrees(pkt.getPitch());
 
-        ConnectedPlayer spawnedPlayer = playerManager.getPlayer((byte) pkt.getPlayerId());
+        ConnectedPlayer spawnedPlayer = playerManager.getPlayer(pkt.getPlayerId());
         byte[] skinData = (spawnedPlayer != null) ? spawnedPlayer.getMcpeSkinData() : null;
         int skinSlim = (spawnedPlayer != null) ? spawnedPlayer.getMcpeSkinSlim() : 0;
 
@@ -119,7 +122,7 @@ public class MCPESessionWrapper {
         // v9 AddPlayer has no rotation fields at all; v11-v20 use byte yaw whose
         // convention may differ from MovePlayer float yaw. Sending MovePlayer
         // ensures the correct float yaw (0=South) is always applied.
-        int entityId = (pkt.getPlayerId() & 0xFF) + 1;
+        int entityId = pkt.getPlayerId() + 1;
         MCPEPacketBuffer buf = new MCPEPacketBuffer();
         codec.writePlayerTeleport(buf, entityId, x, pkt.getY() / 32.0f, z, yaw, pitch);
         server.sendGamePacket(session, buf.getBuf());
@@ -127,8 +130,8 @@ public class MCPESessionWrapper {
 
     private void translateDespawnPlayer(DespawnPlayerPacket pkt) {
         entityPositions.remove(pkt.getPlayerId());
-        int entityId = (pkt.getPlayerId() & 0xFF) + 1;
-        ConnectedPlayer despawned = playerManager.getPlayer((byte) pkt.getPlayerId());
+        int entityId = pkt.getPlayerId() + 1;
+        ConnectedPlayer despawned = playerManager.getPlayer(pkt.getPlayerId());
         UUID despawnUuid = (despawned != null)
                 ? UUID.nameUUIDFromBytes(despawned.getUsername().getBytes(StandardCharsets.UTF_8))
                 : new UUID(0, entityId);
@@ -146,7 +149,7 @@ public class MCPESessionWrapper {
         // Pass eye-level Y — the codec adjusts to feet-level for versions that need it
         float y = pkt.getY() / 32.0f;
         float z = pkt.getZ() / 32.0f;
-        int entityId = (pkt.getPlayerId() & 0xFF) + 1;
+        int entityId = pkt.getPlayerId() + 1;
         float yaw = classicYawToMcpeDegrees(pkt.getYaw());
         float pitch = classicPitchToMcpeDegrees(pkt.getPitch());
 
@@ -248,6 +251,17 @@ public class MCPESessionWrapper {
         codec.sendChunkData(server, session, world, chunkX, chunkZ);
     }
 
+    /**
+     * Event loop of the UDP channel this session's datagrams go out on, or
+     * null if it is gone. ConnectedPlayer drains its outbound queue here, so
+     * sends don't each hop threads in {@link LegacyRakNetServer#sendGamePacket}.
+     */
+    public EventLoop eventLoop() {
+        ChannelHandlerContext ctx = session.getCachedCtx();
+        Channel channel = (ctx != null) ? ctx.channel() : server.getSendChannel();
+        return (channel != null) ? channel.eventLoop() : null;
+    }
+
     public void disconnect(String reason) {
         // Send disconnect packet
         MCPEPacketBuffer buf = new MCPEPacketBuffer();
@@ -0,0 +1,79 @@
+package com.github.martinambrus.rdforward.server.mcpe;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.nio.NioChannelOption;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds the UDP front-end sockets for Bedrock and legacy MCPE.
+ *
+ * With SO_REUSEPORT (Linux, macOS, the BSDs) several sockets share one
+ * port and the kernel spreads incoming datagrams across them by source
+ * address, so a given client always lands on the same socket. Each socket
+ * is registered on its own event loop from the group, which lets datagram
+ * demultiplexing use as many cores as there are sockets instead of one.
+ * Where the JDK can't set SO_REUSEPORT a single socket is bound.
+ */
+public final class UdpFrontEnd {
+
+    private UdpFrontEnd() {}
+
+    /** Whether this platform lets several UDP sockets share a port. */
+    public static boolean isReusePortSupported() {
+        try (DatagramChannel probe = DatagramChannel.open()) {
+            return probe.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT);
+        } catch (IOException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Bind {@code sockets} front-end sockets (fewer if SO_REUSEPORT is
+     * unavailable) to {@code port}, all sharing {@code handler}. Port 0
+     * picks a free port for the first socket and reuses it for the rest.
+     *
+     * @return the bound channels; the first is the primary one
+     * @throws Exception if the first socket cannot be bound. A later socket
+     *         failing to bind is logged and the front end runs with fewer.
+     */
+    public static List<Channel> bind(EventLoopGroup group, int port, int sockets,
+                                     UdpFrontEndHandler handler) throws Exception {
+        boolean reusePort = sockets > 1 && isReusePortSupported();
+        int count = reusePort ? sockets : 1;
+        if (sockets > 1 && !reusePort) {
+            System.out.println("[UdpFrontEnd] SO_REUSEPORT not supported here; using one UDP socket");
+        }
+
+        Bootstrap bootstrap = new Bootstrap()
+                .group(group)
+                .channel(NioDatagramChannel.class)
+                .handler(handler);
+        if (reusePort) {
+            bootstrap.option(NioChannelOption.of(StandardSocketOptions.SO_REUSEPORT), true);
+        }
+
+        List<Channel> channels = new ArrayList<>(count);
+        Channel first = bootstrap.bind(port).sync().channel();
+        channels.add(first);
+        int boundPort = ((InetSocketAddress) first.localAddress()).getPort();
+        for (int i = 1; i < count; i++) {
+            try {
+                channels.add(bootstrap.bind(boundPort).sync().channel());
+            } catch (Exception e) {
+                System.err.println("[UdpFrontEnd] Could not bind extra socket " + (i + 1) + " on port "
+                        + boundPort + ": " + e.getMessage());
+                break;
+            }
+        }
+        return channels;
+    }
+}
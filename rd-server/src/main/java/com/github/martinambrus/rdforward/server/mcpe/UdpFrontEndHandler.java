@@ -1,14 +1,22 @@
 package com.github.martinambrus.rdforward.server.mcpe;
 
+import com.github.martinambrus.rdforward.server.PrefixRateLimiter;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.socket.DatagramPacket;
 
 import java.net.InetSocketAddress;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Front-end UDP handler that multiplexes legacy MCPE (RakNet v6) and
@@ -19,25 +27,119 @@ import java.util.concurrent.ConcurrentHashMap;
  *   CloudburstMC pipeline if clientGUID is present (Bedrock/0.9.0).
  * - Open Connection Request 1: RakNet protocol version byte after magic
  *   determines routing (v6 = legacy, >= 10 = Bedrock).
- * - Subsequent packets: routed based on the mapping established at OCR1.
+ * - Open Connection Request 2: told apart by layout, since Bedrock's
+ *   carries the security cookie and legacy's doesn't.
+ * - Connected datagrams: routed by the table below.
+ *
+ * The handshake leaves no state here. Both backends answer Request 1
+ * with a stateless cookie (CloudburstMC's RakNet cookie for Bedrock,
+ * {@link HandshakeCookie} for legacy) and only create a session for a
+ * Request 2 that echoes it, so a spoofed source address never gets one.
+ * A sender enters the routing table on its first connected datagram,
+ * once a backend confirms it has a session for it. The table is bounded
+ * (least recently seen entries are evicted first) and entries expire
+ * after {@link #IDLE_EXPIRY_MS} of silence; an evicted client is simply
+ * looked up in the backends again. Unconnected packets are rate limited
+ * per source prefix, and connected datagrams from unknown senders are
+ * dropped instead of defaulting to the legacy server.
+ *
+ * One instance is shared by every front-end socket ({@link UdpFrontEnd}
+ * binds several to the same port with SO_REUSEPORT, each on its own
+ * event loop). The routing table is split into shards by sender address
+ * hash so the socket threads rarely contend, and the same hash picks the
+ * socket replies to that sender go out on.
+ *
+ * Connected Bedrock datagrams go straight to the sender's RakNet child
+ * channel through {@link BedrockRoute}; only offline packets (pings,
+ * handshake) still pass through CloudburstMC's server pipeline.
  */
+@ChannelHandler.Sharable
 public class UdpFrontEndHandler extends SimpleChannelInboundHandler<DatagramPacket> {
 
     enum ClientType { LEGACY, BEDROCK }
 
-    private final LegacyRakNetServer legacyServer;
+    /** The legacy RakNet server, as far as the front end needs it. */
+    public interface LegacyBackend {
+        /** Handle one datagram; takes ownership of {@code packet}. */
+        void handleDatagram(ChannelHandlerContext ctx, DatagramPacket packet);
+
+        /** Called once per front-end socket as it becomes active. */
+        void setFrontEndChannel(Channel frontEnd);
+
+        /** Whether a (cookie-verified) session exists for {@code address}. */
+        boolean hasSession(InetSocketAddress address);
+    }
+
+    /** Direct delivery of connected Bedrock datagrams to their RakNet child channel. */
+    public interface BedrockRoute {
+        /**
+         * Deliver {@code packet} (not retained by the caller) to the child
+         * channel for its sender. Returns false if there is no such child,
+         * in which case the packet goes through the server pipeline.
+         */
+        boolean deliver(DatagramPacket packet);
+    }
+
+    /** RakNet's "valid datagram" flag; set on every connected-session packet. */
+    private static final int DATAGRAM_FLAG = 0x80;
+
+    private static final int SHARDS = 16;
+
+    /** Routing entries unused this long are dropped; longer than both backends' session timeouts. */
+    static final long IDLE_EXPIRY_MS = 60_000;
+
+    /** Open Connection Request 2 sizes for RakNet v6 (IPv4, IPv6 address). */
+    private static final int LEGACY_OCR2_V4 = 1 + 16 + 7 + 2 + 8;
+    private static final int LEGACY_OCR2_V6 = 1 + 16 + 27 + 2 + 8;
+
+    private final LegacyBackend legacyServer;
 
     /** The NioDatagramChannel inside CloudburstMC's RakServerChannel. */
     private volatile Channel bedrockInternalChannel;
+    private volatile BedrockRoute bedrockRoute;
+
+    /** Active front-end sockets, in bind order. */
+    private final List<Channel> frontEndChannels = new CopyOnWriteArrayList<>();
+
+    /** Routing table entry; guarded by its shard's lock. */
+    private static final class Route {
+        final ClientType type;
+        long lastSeen;
+
+        Route(ClientType type, long now) {
+            this.type = type;
+            this.lastSeen = now;
+        }
+    }
 
-    /** This handler's own channel (the front-end NioDatagramChannel on port 19132). */
-    private Channel frontEndChannel;
+    /**
+     * Client address -> detected type for connected-phase routing, sharded
+     * by address hash. Each shard is an access-ordered LinkedHashMap capped
+     * at its share of the client limit, guarded by itself.
+     */
+    @SuppressWarnings("unchecked")
+    private final LinkedHashMap<InetSocketAddress, Route>[] clientTypes = new LinkedHashMap[SHARDS];
 
-    /** Maps client addresses to their detected type for connected-phase routing. */
-    private final Map<InetSocketAddress, ClientType> clientTypes = new ConcurrentHashMap<>();
+    private final PrefixRateLimiter handshakeLimiter;
+    private final AtomicBoolean expirySweepScheduled = new AtomicBoolean();
+    private final LongAdder droppedPackets = new LongAdder();
 
-    public UdpFrontEndHandler(LegacyRakNetServer legacyServer) {
+    /**
+     * @param maxClients    routing table capacity
+     * @param handshakeRate unconnected packets per second per source prefix
+     */
+    public UdpFrontEndHandler(LegacyBackend legacyServer, int maxClients, int handshakeRate) {
         this.legacyServer = legacyServer;
+        int perShard = Math.max(1, (maxClients + SHARDS - 1) / SHARDS);
+        for (int i = 0; i < SHARDS; i++) {
+            clientTypes[i] = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<InetSocketAddress, Route> eldest) {
+                    return size() > perShard;
+                }
+            };
+        }
+        this.handshakeLimiter = new PrefixRateLimiter(4096, handshakeRate, handshakeRate * 2);
     }
 
     /**
@@ -49,26 +151,75 @@ public class UdpFrontEndHandler extends SimpleChannelInboundHandler<DatagramPack
         this.bedrockInternalChannel = ch;
     }
 
+    /** Set the direct child-channel route for connected Bedrock traffic. */
+    public void setBedrockRoute(BedrockRoute route) {
+        this.bedrockRoute = route;
+    }
+
+    /** The first front-end socket, or null before any is active. */
     public Channel getFrontEndChannel() {
-        return frontEndChannel;
+        return frontEndChannels.isEmpty() ? null : frontEndChannels.get(0);
+    }
+
+    public List<Channel> getFrontEndChannels() {
+        return frontEndChannels;
+    }
+
+    /**
+     * Socket to send to {@code address} from. Any of them works, since all
+     * share the port; picking by the routing shard keeps one client's
+     * replies on one event loop.
+     */
+    public Channel channelFor(InetSocketAddress address) {
+        List<Channel> channels = frontEndChannels;
+        int n = channels.size();
+        if (n == 0) return null;
+        return channels.get(n == 1 ? 0 : shardOf(address) % n);
+    }
+
+    static int shardOf(InetSocketAddress address) {
+        int h = address.hashCode();
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        h ^= h >>> 16;
+        return h & (SHARDS - 1);
     }
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
-        this.frontEndChannel = ctx.channel();
-        legacyServer.setFrontEndChannel(frontEndChannel);
+        frontEndChannels.add(ctx.channel());
+        legacyServer.setFrontEndChannel(ctx.channel());
+        if (expirySweepScheduled.compareAndSet(false, true)) {
+            ctx.channel().eventLoop().scheduleAtFixedRate(() -> expireIdle(System.nanoTime()),
+                    10, 10, TimeUnit.SECONDS);
+        }
         super.channelActive(ctx);
     }
 
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        frontEndChannels.remove(ctx.channel());
+        super.channelInactive(ctx);
+    }
+
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket packet) {
         ByteBuf buf = packet.content();
         InetSocketAddress sender = packet.sender();
 
         if (!buf.isReadable()) return;
-        buf.markReaderIndex();
-        int packetId = buf.readUnsignedByte();
-        buf.resetReaderIndex();
+        int packetId = buf.getUnsignedByte(buf.readerIndex());
+
+        if ((packetId & DATAGRAM_FLAG) != 0) {
+            routeConnected(ctx, packet, sender);
+            return;
+        }
+
+        // Unconnected packets cost the backends a reply each: rate limit per prefix
+        if (!handshakeLimiter.tryAcquire(sender.getAddress(), System.nanoTime())) {
+            droppedPackets.increment();
+            return;
+        }
 
         // Unconnected Ping: forward to both backends as needed
         if (packetId == 0x01 || packetId == 0x02) {
@@ -76,22 +227,23 @@ public class UdpFrontEndHandler extends SimpleChannelInboundHandler<DatagramPack
             return;
         }
 
-        // Open Connection Request 1: detect RakNet version and establish routing
+        // Open Connection Requests: route by content, remember nothing yet
         if (packetId == 0x05) {
-            ClientType type = detectFromOCR1(buf);
-            clientTypes.put(sender, type);
-            routePacket(ctx, packet, type);
+            routeOffline(ctx, packet, detectFromOCR1(buf));
+            return;
+        }
+        if (packetId == 0x07) {
+            routeOffline(ctx, packet, detectFromOCR2(buf));
             return;
         }
 
-        // All other packets: route based on established mapping
-        ClientType type = clientTypes.get(sender);
+        // Anything else only makes sense from a client we already route
+        ClientType type = lookup(sender, System.nanoTime());
         if (type == null) {
-            // No OCR1 seen yet — try to detect from packet characteristics.
-            // Default to legacy for safety (most packets will have been mapped already).
-            type = ClientType.LEGACY;
+            droppedPackets.increment();
+            return;
         }
-        routePacket(ctx, packet, type);
+        routeOffline(ctx, packet, type);
     }
 
     /**
@@ -102,15 +254,8 @@ public class UdpFrontEndHandler extends SimpleChannelInboundHandler<DatagramPack
      */
     private void handlePing(ChannelHandlerContext ctx, DatagramPacket packet) {
         ByteBuf buf = packet.content();
-        buf.markReaderIndex();
-        buf.skipBytes(1); // packet ID
-
-        boolean hasClientGuid = false;
-        if (buf.readableBytes() >= 24) { // 8 (pingTime) + 16 (magic)
-            buf.skipBytes(24);
-            hasClientGuid = buf.readableBytes() >= 8;
-        }
-        buf.resetReaderIndex();
+        // 1 (ID) + 8 (pingTime) + 16 (magic) + 8 (clientGUID)
+        boolean hasClientGuid = buf.readableBytes() >= 33;
 
         // Always forward to legacy server
         legacyServer.handleDatagram(ctx, packet.retain());
@@ -127,19 +272,30 @@ public class UdpFrontEndHandler extends SimpleChannelInboundHandler<DatagramPack
      * RakNet v6 = legacy MCPE (0.7.x-0.9.0), v10+ = modern Bedrock.
      */
     private ClientType detectFromOCR1(ByteBuf buf) {
-        buf.markReaderIndex();
-        buf.skipBytes(1); // packet ID (0x05)
-        if (buf.readableBytes() < 17) { // 16 (magic) + 1 (version)
-            buf.resetReaderIndex();
+        if (buf.readableBytes() < 18) { // 1 (ID) + 16 (magic) + 1 (version)
             return ClientType.LEGACY;
         }
-        buf.skipBytes(16); // magic
-        int rakNetVersion = buf.readUnsignedByte();
-        buf.resetReaderIndex();
+        int rakNetVersion = buf.getUnsignedByte(buf.readerIndex() + 17);
         return rakNetVersion >= 10 ? ClientType.BEDROCK : ClientType.LEGACY;
     }
 
-    private void routePacket(ChannelHandlerContext ctx, DatagramPacket packet, ClientType type) {
+    /**
+     * Detect client type from Open Connection Request 2. The legacy layout
+     * is [0x07][magic:16][address][mtu:2][guid:8] with a 7 or 27 byte
+     * address whose first byte is the family (4 or 6); Bedrock's has the
+     * 4-byte cookie and a security flag in front of the address.
+     */
+    private ClientType detectFromOCR2(ByteBuf buf) {
+        if (bedrockInternalChannel == null) return ClientType.LEGACY;
+        int length = buf.readableBytes();
+        int family = length > 17 ? buf.getUnsignedByte(buf.readerIndex() + 17) : -1;
+        if ((length == LEGACY_OCR2_V4 && family == 4) || (length == LEGACY_OCR2_V6 && family == 6)) {
+            return ClientType.LEGACY;
+        }
+        return ClientType.BEDROCK;
+    }
+
+    private void routeOffline(ChannelHandlerContext ctx, DatagramPacket packet, ClientType type) {
         if (type == ClientType.LEGACY) {
             legacyServer.handleDatagram(ctx, packet.retain());
         } else {
@@ -147,6 +303,89 @@ public class UdpFrontEndHandler extends SimpleChannelInboundHandler<DatagramPack
         }
     }
 
+    /**
+     * Route a connected datagram. Senders missing from the table (new,
+     * evicted or expired) are looked up in the backends; only one that
+     * completed the cookie handshake has a session there.
+     */
+    private void routeConnected(ChannelHandlerContext ctx, DatagramPacket packet, InetSocketAddress sender) {
+        long now = System.nanoTime();
+        ClientType type = lookup(sender, now);
+        BedrockRoute route = bedrockRoute;
+
+        if (type == ClientType.LEGACY || (type == null && legacyServer.hasSession(sender))) {
+            if (type == null) remember(sender, ClientType.LEGACY, now);
+            legacyServer.handleDatagram(ctx, packet.retain());
+            return;
+        }
+        if (route != null) {
+            if (route.deliver(packet)) {
+                if (type == null) remember(sender, ClientType.BEDROCK, now);
+            } else if (type != null) {
+                // Child is gone; CloudburstMC may still be closing it
+                removeClient(sender);
+                injectIntoBedrock(packet);
+            } else {
+                droppedPackets.increment();
+            }
+            return;
+        }
+        if (bedrockInternalChannel == null) {
+            droppedPackets.increment();
+            return;
+        }
+        // No direct route: CloudburstMC checks its own sessions
+        injectIntoBedrock(packet);
+    }
+
+    private ClientType lookup(InetSocketAddress sender, long now) {
+        LinkedHashMap<InetSocketAddress, Route> shard = clientTypes[shardOf(sender)];
+        synchronized (shard) {
+            Route route = shard.get(sender);
+            if (route == null) return null;
+            route.lastSeen = now;
+            return route.type;
+        }
+    }
+
+    private void remember(InetSocketAddress sender, ClientType type, long now) {
+        LinkedHashMap<InetSocketAddress, Route> shard = clientTypes[shardOf(sender)];
+        synchronized (shard) {
+            shard.put(sender, new Route(type, now));
+        }
+    }
+
+    /** Drop routing entries not used for {@link #IDLE_EXPIRY_MS}. */
+    void expireIdle(long now) {
+        long cutoff = now - TimeUnit.MILLISECONDS.toNanos(IDLE_EXPIRY_MS);
+        for (LinkedHashMap<InetSocketAddress, Route> shard : clientTypes) {
+            synchronized (shard) {
+                // Access order: least recently seen first
+                Iterator<Route> it = shard.values().iterator();
+                while (it.hasNext()) {
+                    if (it.next().lastSeen - cutoff > 0) break;
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /** Clients currently in the routing table. */
+    public int getRoutedClients() {
+        int total = 0;
+        for (LinkedHashMap<InetSocketAddress, Route> shard : clientTypes) {
+            synchronized (shard) {
+                total += shard.size();
+            }
+        }
+        return total;
+    }
+
+    /** Packets dropped by the rate limit or for coming from unknown senders. */
+    public long getDroppedPackets() {
+        return droppedPackets.sum();
+    }
+
     /**
      * Inject a DatagramPacket into CloudburstMC's internal pipeline as if it
      * arrived on the network. The sender address is preserved so CloudburstMC
@@ -172,7 +411,10 @@ public class UdpFrontEndHandler extends SimpleChannelInboundHandler<DatagramPack
      * Remove a client's routing entry (called on disconnect/timeout).
      */
     public void removeClient(InetSocketAddress address) {
-        clientTypes.remove(address);
+        LinkedHashMap<InetSocketAddress, Route> shard = clientTypes[shardOf(address)];
+        synchronized (shard) {
+            shard.remove(address);
+        }
     }
 
     @Override
@@ -0,0 +1,112 @@
+package com.github.martinambrus.rdforward.server.profiler;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size log-linear histogram of nanosecond durations, in the spirit of
+ * HdrHistogram: values below 32 are counted exactly, larger values fall into
+ * one of 16 linear sub-buckets per power of two, giving a worst-case relative
+ * error of about 6%. The bucket array is allocated once, so recording never
+ * allocates and costs a few arithmetic ops plus one atomic increment.
+ *
+ * Safe to record from several threads at once. Readers see a consistent
+ * enough view for reporting; {@link #reset()} is not atomic with respect to
+ * concurrent recording, which only ever loses a handful of samples.
+ */
+public final class LatencyHistogram {
+
+    /** Values below 2^SUB_BITS get their own bucket. */
+    private static final int SUB_BITS = 5;
+    private static final int LINEAR_LIMIT = 1 << SUB_BITS;
+    /** Sub-buckets per power of two above the linear range. */
+    private static final int HALF = LINEAR_LIMIT >> 1;
+    /** Highest tracked magnitude: 2^40 ns is about 18 minutes; larger values are clamped. */
+    private static final int MAX_MSB = 40;
+    private static final int BUCKETS = LINEAR_LIMIT + (MAX_MSB - SUB_BITS + 1) * HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /** Record one sample. Negative values are treated as zero. */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucketOf(nanos));
+        total.incrementAndGet();
+        sum.addAndGet(nanos);
+        if (nanos > max.get()) max.accumulateAndGet(nanos, Math::max);
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) return (int) value;
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        if (msb > MAX_MSB) return BUCKETS - 1;
+        int shift = msb - (SUB_BITS - 1);
+        int sub = (int) (value >>> shift) - HALF;
+        return LINEAR_LIMIT + (msb - SUB_BITS) * HALF + sub;
+    }
+
+    /** Highest value that lands in the given bucket. */
+    static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR_LIMIT) return bucket;
+        int offset = bucket - LINEAR_LIMIT;
+        int msb = SUB_BITS + offset / HALF;
+        int sub = HALF + offset % HALF;
+        int shift = msb - (SUB_BITS - 1);
+        return ((long) (sub + 1) << shift) - 1;
+    }
+
+    /** Number of samples recorded since the last reset. */
+    public long getCount() {
+        return total.get();
+    }
+
+    /** Sum of all samples since the last reset, in nanoseconds. */
+    public long getSum() {
+        return sum.get();
+    }
+
+    /** Largest sample since the last reset, in nanoseconds. */
+    public long getMax() {
+        return max.get();
+    }
+
+    /** Mean sample in nanoseconds, or 0 if empty. */
+    public long getMean() {
+        long n = total.get();
+        return n == 0 ? 0 : sum.get() / n;
+    }
+
+    /**
+     * Value at the given percentile (0-100), reported as the upper bound of
+     * the bucket holding it and never more than the recorded maximum.
+     * Returns 0 if no samples have been recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long n = total.get();
+        if (n == 0) return 0;
+        long rank = (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * n);
+        if (rank < 1) rank = 1;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                // The last bucket also holds clamped overflow values
+                return i == BUCKETS - 1 ? max.get() : Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /** Clear all samples. */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+}
@@ -0,0 +1,322 @@
+package com.github.martinambrus.rdforward.server.profiler;
+
+import com.github.martinambrus.rdforward.api.event.PrioritizedEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-mod wall and CPU time accounting with tick budgets.
+ *
+ * Every timed listener call and scheduled task reports here through the
+ * profiler's listener timer. Time is summed per tick, rolled into one
+ * bucket per 20 ticks of the mod's life, and kept for a minute, so
+ * /modperf can show what each mod costs over the last 10 and 60 seconds.
+ *
+ * A mod whose time in one tick exceeds its budget collects a strike; one
+ * strike is forgiven per second. When strikes reach the limit the
+ * configured {@link Action} fires:
+ * <ul>
+ *   <li>WARN logs (at most once a minute per mod)</li>
+ *   <li>THROTTLE skips the mod's calls for the rest of any tick in which it
+ *       is already over budget, for {@link #THROTTLE_TICKS} ticks</li>
+ *   <li>DISABLE skips all of the mod's calls until {@link #enable}</li>
+ * </ul>
+ * The server itself ({@link PrioritizedEvent#SERVER_OWNER}) is accounted
+ * but never budgeted.
+ *
+ * {@link #record} and {@link #admit} may be called from any thread;
+ * {@link #endTick} runs on the tick thread.
+ */
+public final class ModTimeAccounting {
+
+    public enum Action { WARN, THROTTLE, DISABLE }
+
+    public enum State { NORMAL, THROTTLED, DISABLED }
+
+    /** How long THROTTLE lasts once triggered: 30 seconds at 20 TPS. */
+    static final int THROTTLE_TICKS = 600;
+    private static final int TICKS_PER_SECOND = 20;
+    private static final int WINDOW_SECONDS = 60;
+    private static final int SHORT_WINDOW_SECONDS = 10;
+    private static final long WARN_INTERVAL_NANOS = 60_000_000_000L;
+
+    private static final ConcurrentHashMap<String, ModStats> MODS = new ConcurrentHashMap<>();
+
+    private static volatile long defaultBudgetNanos = 25_000_000L;
+    private static volatile Map<String, Long> budgetOverrides = Collections.emptyMap();
+    private static volatile Action action = Action.WARN;
+    private static volatile int strikeLimit = 20;
+    private static volatile boolean cpuTiming = true;
+
+    private ModTimeAccounting() {}
+
+    /**
+     * @param budgetMs  default per-tick budget, 0 for none
+     * @param overrides per-mod budgets in ms (0 exempts the mod)
+     * @param action    what to do when a mod runs out of strikes
+     * @param strikes   over-budget ticks before the action fires
+     * @param cpu       also measure thread CPU time
+     */
+    public static void configure(int budgetMs, Map<String, Integer> overrides, Action action,
+                                 int strikes, boolean cpu) {
+        Map<String, Long> nanos = new HashMap<>();
+        for (Map.Entry<String, Integer> e : overrides.entrySet()) {
+            nanos.put(e.getKey(), e.getValue() * 1_000_000L);
+        }
+        defaultBudgetNanos = budgetMs * 1_000_000L;
+        budgetOverrides = nanos;
+        ModTimeAccounting.action = action;
+        strikeLimit = Math.max(1, strikes);
+        cpuTiming = cpu;
+    }
+
+    /** Parse a mod-budget-action value, falling back to WARN. */
+    public static Action parseAction(String value) {
+        try {
+            return Action.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("[WARN] Invalid mod-budget-action '" + value + "', using warn");
+            return Action.WARN;
+        }
+    }
+
+    public static boolean measuresCpuTime() {
+        return cpuTiming;
+    }
+
+    // === Recording ===
+
+    /** Charge one call to {@code modId}. {@code cpuNanos} is negative when not measured. */
+    public static void record(String modId, long wallNanos, long cpuNanos) {
+        ModStats stats = MODS.get(modId);
+        if (stats == null) {
+            stats = MODS.computeIfAbsent(modId, ModStats::new);
+        }
+        stats.tickWall.add(wallNanos);
+        if (cpuNanos >= 0) stats.tickCpu.add(cpuNanos);
+        stats.tickCalls.increment();
+        stats.maxCall.accumulate(wallNanos);
+    }
+
+    /** Whether {@code modId}'s next call may run. A refused call is counted as skipped. */
+    public static boolean admit(String modId) {
+        ModStats stats = MODS.get(modId);
+        if (stats == null) return true;
+        switch (stats.state) {
+            case DISABLED:
+                stats.tickSkipped.increment();
+                return false;
+            case THROTTLED:
+                if (stats.tickWall.sum() < budgetNanos(modId)) return true;
+                stats.tickSkipped.increment();
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /** Close the current tick: check budgets and roll per-second buckets. Tick thread only. */
+    public static void endTick() {
+        for (ModStats stats : MODS.values()) {
+            long wall = stats.tickWall.sumThenReset();
+            stats.secWall += wall;
+            stats.secCpu += stats.tickCpu.sumThenReset();
+            stats.secCalls += stats.tickCalls.sumThenReset();
+            stats.secSkipped += stats.tickSkipped.sumThenReset();
+
+            long budget = budgetNanos(stats.modId);
+            if (budget > 0 && wall > budget) {
+                stats.overTicks++;
+                if (++stats.strikes >= strikeLimit) {
+                    stats.strikes = 0;
+                    act(stats, wall, budget);
+                }
+            }
+            if (stats.state == State.THROTTLED && --stats.throttleTicksLeft <= 0) {
+                stats.state = State.NORMAL;
+                System.out.println("[ModPerf] Mod '" + stats.modId + "' is no longer throttled");
+            }
+            if (++stats.ticksThisSecond == TICKS_PER_SECOND) {
+                stats.rollSecond();
+                if (stats.strikes > 0) stats.strikes--;
+            }
+        }
+    }
+
+    private static void act(ModStats stats, long wall, long budget) {
+        String over = "Mod '" + stats.modId + "' exceeded its tick budget of " + ms(budget)
+                + " ms in " + strikeLimit + " ticks (last: " + ms(wall) + " ms)";
+        switch (action) {
+            case DISABLE:
+                if (stats.state == State.DISABLED) return;
+                stats.state = State.DISABLED;
+                System.err.println("[ModPerf] " + over + ", disabling its listeners and tasks."
+                        + " Re-enable with /modperf enable " + stats.modId);
+                break;
+            case THROTTLE:
+                if (stats.state != State.THROTTLED) {
+                    System.err.println("[ModPerf] " + over + ", throttling it for "
+                            + THROTTLE_TICKS / TICKS_PER_SECOND + "s");
+                }
+                stats.state = State.THROTTLED;
+                stats.throttleTicksLeft = THROTTLE_TICKS;
+                break;
+            default:
+                long now = System.nanoTime();
+                if (stats.lastWarnNanos == 0 || now - stats.lastWarnNanos >= WARN_INTERVAL_NANOS) {
+                    stats.lastWarnNanos = now;
+                    System.err.println("[ModPerf] " + over);
+                }
+        }
+    }
+
+    /** Lift a throttle or disable. Returns false if the mod was running normally. */
+    public static boolean enable(String modId) {
+        ModStats stats = MODS.get(modId);
+        if (stats == null || stats.state == State.NORMAL) return false;
+        stats.state = State.NORMAL;
+        stats.strikes = 0;
+        stats.throttleTicksLeft = 0;
+        return true;
+    }
+
+    /** Forget all accounting and lift every throttle and disable. */
+    public static void reset() {
+        MODS.clear();
+    }
+
+    static long budgetNanos(String modId) {
+        if (PrioritizedEvent.SERVER_OWNER.equals(modId)) return 0;
+        Long override = budgetOverrides.get(modId);
+        return override != null ? override : defaultBudgetNanos;
+    }
+
+    // === Reading ===
+
+    public static State getState(String modId) {
+        ModStats stats = MODS.get(modId);
+        return stats == null ? State.NORMAL : stats.state;
+    }
+
+    /** Calls refused for {@code modId} in completed seconds of the last minute. */
+    public static long getSkippedCalls(String modId) {
+        ModStats stats = MODS.get(modId);
+        return stats == null ? 0 : stats.windowSum(stats.skipped, WINDOW_SECONDS);
+    }
+
+    /** Over-budget ticks for {@code modId} since startup or the last reset. */
+    public static long getOverBudgetTicks(String modId) {
+        ModStats stats = MODS.get(modId);
+        return stats == null ? 0 : stats.overTicks;
+    }
+
+    /** One line per mod, heaviest over the last minute first. */
+    public static List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        long budget = defaultBudgetNanos;
+        lines.add("Budget " + (budget > 0 ? ms(budget) + " ms/tick" : "off") + ", action "
+                + action.name().toLowerCase(Locale.ROOT) + " after " + strikeLimit + " strikes"
+                + (cpuTiming ? "" : " (cpu timing off)"));
+        List<ModStats> mods = new ArrayList<>(MODS.values());
+        if (mods.isEmpty()) {
+            lines.add("No mod time recorded yet.");
+            return lines;
+        }
+        mods.sort((a, b) -> Long.compare(b.windowSum(b.wall, WINDOW_SECONDS), a.windowSum(a.wall, WINDOW_SECONDS)));
+        for (ModStats s : mods) {
+            int shortSecs = s.seconds(SHORT_WINDOW_SECONDS);
+            int longSecs = s.seconds(WINDOW_SECONDS);
+            StringBuilder line = new StringBuilder(s.modId).append(':');
+            line.append(String.format(Locale.ROOT, " calls/s=%.1f",
+                    perSecond(s.windowSum(s.calls, WINDOW_SECONDS), longSecs)));
+            line.append(" wall ms/s 10s=").append(perSecondMs(s.windowSum(s.wall, SHORT_WINDOW_SECONDS), shortSecs))
+                    .append(" 1m=").append(perSecondMs(s.windowSum(s.wall, WINDOW_SECONDS), longSecs));
+            if (cpuTiming) {
+                line.append(" cpu ms/s 10s=").append(perSecondMs(s.windowSum(s.cpu, SHORT_WINDOW_SECONDS), shortSecs))
+                        .append(" 1m=").append(perSecondMs(s.windowSum(s.cpu, WINDOW_SECONDS), longSecs));
+            }
+            line.append(" max=").append(ms(s.maxCall.get())).append("ms");
+            line.append(" over-budget=").append(s.overTicks);
+            long skipped = s.windowSum(s.skipped, WINDOW_SECONDS);
+            if (skipped > 0) line.append(" skipped/1m=").append(skipped);
+            if (s.state != State.NORMAL) line.append(" [").append(s.state).append(']');
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    private static double perSecond(long total, int seconds) {
+        return seconds == 0 ? 0 : (double) total / seconds;
+    }
+
+    private static String perSecondMs(long totalNanos, int seconds) {
+        return ms(seconds == 0 ? 0 : totalNanos / seconds);
+    }
+
+    private static String ms(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+
+    private static final class ModStats {
+        final String modId;
+
+        // Current tick, written from any thread
+        final LongAdder tickWall = new LongAdder();
+        final LongAdder tickCpu = new LongAdder();
+        final LongAdder tickCalls = new LongAdder();
+        final LongAdder tickSkipped = new LongAdder();
+        final LongAccumulator maxCall = new LongAccumulator(Math::max, 0);
+
+        // Current second and the one-minute ring, tick thread only
+        int ticksThisSecond;
+        long secWall, secCpu, secCalls, secSkipped;
+        final long[] wall = new long[WINDOW_SECONDS];
+        final long[] cpu = new long[WINDOW_SECONDS];
+        final long[] calls = new long[WINDOW_SECONDS];
+        final long[] skipped = new long[WINDOW_SECONDS];
+        int head;
+        int filled;
+
+        long overTicks;
+        int strikes;
+        int throttleTicksLeft;
+        long lastWarnNanos;
+        volatile State state = State.NORMAL;
+
+        ModStats(String modId) {
+            this.modId = modId;
+        }
+
+        void rollSecond() {
+            wall[head] = secWall;
+            cpu[head] = secCpu;
+            calls[head] = secCalls;
+            skipped[head] = secSkipped;
+            head = (head + 1) % WINDOW_SECONDS;
+            if (filled < WINDOW_SECONDS) filled++;
+            secWall = secCpu = secCalls = secSkipped = 0;
+            ticksThisSecond = 0;
+        }
+
+        int seconds(int window) {
+            return Math.min(window, filled);
+        }
+
+        long windowSum(long[] buckets, int window) {
+            int n = seconds(window);
+            long sum = 0;
+            for (int i = 1; i <= n; i++) {
+                sum += buckets[(head - i + WINDOW_SECONDS) % WINDOW_SECONDS];
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package com.github.martinambrus.rdforward.server.profiler;
+
+import com.github.martinambrus.rdforward.api.event.Event;
+import com.github.martinambrus.rdforward.api.event.ListenerTimer;
+import com.github.martinambrus.rdforward.protocol.codec.PacketCompressEncoder;
+import com.github.martinambrus.rdforward.server.AcceptLimiter;
+import com.github.martinambrus.rdforward.server.ChunkManager;
+import com.github.martinambrus.rdforward.server.ConnectedPlayer;
+import com.github.martinambrus.rdforward.server.InboundPacketQueue;
+import com.github.martinambrus.rdforward.server.LoginGate;
+import com.github.martinambrus.rdforward.server.PlayerManager;
+import com.github.martinambrus.rdforward.server.cache.ChunkDataCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Always-on tick profiler. The tick loop brackets each phase with
+ * {@link #phase}, which costs one {@link System#nanoTime()} and one
+ * histogram update, so it is cheap enough to leave enabled in production.
+ *
+ * Collects:
+ * <ul>
+ *   <li>tick duration (MSPT) histogram, overrun and skipped-tick counters</li>
+ *   <li>TPS over the last 5 seconds and 1 minute from tick start times</li>
+ *   <li>a duration histogram per {@link TickPhase}</li>
+ *   <li>per-mod event listener time, via {@link Event#setListenerTimer},
+ *       also fed to {@link ModTimeAccounting} for /modperf and budgets</li>
+ * </ul>
+ * and reads per-player traffic ({@link TrafficCounter}) and compression
+ * ratio, and chunk pipeline queue depths, on demand from the bound managers.
+ *
+ * Histograms accumulate from server start or the last {@link #reset()}.
+ * Surfaced through the /perf command and {@link MetricsHttpServer}.
+ */
+public final class ServerProfiler {
+
+    private static final long TICK_NANOS = 50_000_000L;
+    /** Tick start times kept for TPS: one minute at 20 TPS. */
+    private static final int TPS_WINDOW_TICKS = 1200;
+    private static final int TPS_SHORT_WINDOW_TICKS = 100;
+
+    private static final TickPhase[] PHASES = TickPhase.values();
+    private static final LatencyHistogram TICK = new LatencyHistogram();
+    private static final LatencyHistogram[] PHASE_HISTOGRAMS = new LatencyHistogram[PHASES.length];
+    private static final ConcurrentHashMap<String, LatencyHistogram> MOD_LISTENERS = new ConcurrentHashMap<>();
+
+    private static final long[] tickStarts = new long[TPS_WINDOW_TICKS];
+    /** Ticks recorded since startup; written by the tick thread only. */
+    private static volatile long ticksRecorded;
+    private static final AtomicLong overruns = new AtomicLong();
+    private static final AtomicLong skippedTicks = new AtomicLong();
+
+    /** Feeds the per-mod histograms and {@link ModTimeAccounting}, which also decides admission. */
+    private static final ListenerTimer LISTENER_TIMER = new ListenerTimer() {
+        @Override
+        public void record(String modId, long nanos) {
+            record(modId, nanos, -1);
+        }
+
+        @Override
+        public void record(String modId, long wallNanos, long cpuNanos) {
+            recordListener(modId, wallNanos);
+            ModTimeAccounting.record(modId, wallNanos, cpuNanos);
+        }
+
+        @Override
+        public boolean measuresCpuTime() {
+            return ModTimeAccounting.measuresCpuTime();
+        }
+
+        @Override
+        public boolean admit(String modId) {
+            return ModTimeAccounting.admit(modId);
+        }
+    };
+
+    private static volatile PlayerManager playerManager;
+    private static volatile ChunkManager chunkManager;
+
+    static {
+        for (int i = 0; i < PHASE_HISTOGRAMS.length; i++) {
+            PHASE_HISTOGRAMS[i] = new LatencyHistogram();
+        }
+    }
+
+    private ServerProfiler() {}
+
+    /** Bind the managers that per-player and queue metrics are read from. */
+    public static void bind(PlayerManager players, ChunkManager chunks) {
+        playerManager = players;
+        chunkManager = chunks;
+    }
+
+    /** Turn per-mod listener timing on or off. Rebuilds every event invoker. */
+    public static void setModTiming(boolean enabled) {
+        Event.setListenerTimer(enabled ? LISTENER_TIMER : null);
+    }
+
+    public static boolean isModTiming() {
+        return Event.getListenerTimer() == LISTENER_TIMER;
+    }
+
+    // === Recording (tick thread) ===
+
+    /** Mark the start of a tick. Returns the start time to pass to {@link #phase} and {@link #tickEnd}. */
+    public static long tickStart() {
+        long now = System.nanoTime();
+        long n = ticksRecorded;
+        tickStarts[(int) (n % TPS_WINDOW_TICKS)] = now;
+        ticksRecorded = n + 1;
+        return now;
+    }
+
+    /**
+     * Record the phase that began at {@code phaseStart} as finished now.
+     * Returns the current time, which is the start of the next phase.
+     */
+    public static long phase(TickPhase phase, long phaseStart) {
+        long now = System.nanoTime();
+        PHASE_HISTOGRAMS[phase.ordinal()].record(now - phaseStart);
+        return now;
+    }
+
+    /** Record the full tick duration. */
+    public static void tickEnd(long tickStart) {
+        long duration = System.nanoTime() - tickStart;
+        TICK.record(duration);
+        if (duration > TICK_NANOS) overruns.incrementAndGet();
+        ModTimeAccounting.endTick();
+    }
+
+    /** Called by the tick loop when it gives up on catching up. */
+    public static void recordSkippedTicks(long count) {
+        skippedTicks.addAndGet(count);
+    }
+
+    private static void recordListener(String modId, long nanos) {
+        LatencyHistogram histogram = MOD_LISTENERS.get(modId);
+        if (histogram == null) {
+            histogram = MOD_LISTENERS.computeIfAbsent(modId, k -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    /** Clear all histograms and counters. TPS history is kept. */
+    public static void reset() {
+        TICK.reset();
+        for (LatencyHistogram h : PHASE_HISTOGRAMS) h.reset();
+        MOD_LISTENERS.clear();
+        overruns.set(0);
+        skippedTicks.set(0);
+    }
+
+    // === Reading ===
+
+    /**
+     * Ticks per second over the last {@code windowTicks} ticks (capped at
+     * the one-minute history), or 0 before two ticks have run.
+     */
+    public static double getTps(int windowTicks) {
+        long n = ticksRecorded;
+        int window = (int) Math.min(Math.min(windowTicks, TPS_WINDOW_TICKS), n);
+        if (window < 2) return 0;
+        long newest = tickStarts[(int) ((n - 1) % TPS_WINDOW_TICKS)];
+        long oldest = tickStarts[(int) ((n - window) % TPS_WINDOW_TICKS)];
+        long elapsed = newest - oldest;
+        if (elapsed <= 0) return 0;
+        return Math.min(20.0, (window - 1) * 1_000_000_000.0 / elapsed);
+    }
+
+    public static LatencyHistogram getTickHistogram() {
+        return TICK;
+    }
+
+    public static LatencyHistogram getPhaseHistogram(TickPhase phase) {
+        return PHASE_HISTOGRAMS[phase.ordinal()];
+    }
+
+    /** Per-mod listener histograms, sorted by mod id. */
+    public static Map<String, LatencyHistogram> getModListenerHistograms() {
+        return new TreeMap<>(MOD_LISTENERS);
+    }
+
+    public static long getOverruns() {
+        return overruns.get();
+    }
+
+    public static long getSkippedTicks() {
+        return skippedTicks.get();
+    }
+
+    // === Text output for /perf ===
+
+    public static List<String> describeSummary() {
+        List<String> lines = new ArrayList<>();
+        LatencyHistogram tick = TICK;
+        lines.add(String.format("TPS 5s/1m: %.1f / %.1f | ticks=%d overruns=%d skipped=%d",
+                getTps(TPS_SHORT_WINDOW_TICKS), getTps(TPS_WINDOW_TICKS),
+                tick.getCount(), overruns.get(), skippedTicks.get()));
+        lines.add("MSPT mean=" + ms(tick.getMean()) + " p50=" + ms(tick.getValueAtPercentile(50))
+                + " p95=" + ms(tick.getValueAtPercentile(95)) + " p99=" + ms(tick.getValueAtPercentile(99))
+                + " max=" + ms(tick.getMax()));
+
+        // Three phases with the highest p99
+        List<TickPhase> slowest = new ArrayList<>(List.of(PHASES));
+        slowest.sort((a, b) -> Long.compare(
+                getPhaseHistogram(b).getValueAtPercentile(99), getPhaseHistogram(a).getValueAtPercentile(99)));
+        StringBuilder phases = new StringBuilder("Slowest phases (p99):");
+        for (int i = 0; i < 3; i++) {
+            TickPhase p = slowest.get(i);
+            phases.append(' ').append(p.getMetricName()).append('=')
+                    .append(ms(getPhaseHistogram(p).getValueAtPercentile(99)));
+        }
+        lines.add(phases.toString());
+
+        ChunkManager chunks = chunkManager;
+        if (chunks != null) {
+            lines.add("Queues: chunkIO=" + chunks.getIOThread().getQueueDepth()
+                    + " generation=" + chunks.getGenerationQueueDepth()
+                    + " pendingChunks=" + chunks.getPendingChunkCount()
+                    + " pendingSends=" + chunks.getPendingSendCount()
+                    + " loaded=" + chunks.getLoadedChunkCount()
+                    + " packetCache=" + chunks.getPacketCacheSize()
+                    + " (" + bytes(chunks.getDataCache().getWeightedSize()) + ")");
+        }
+        lines.add("Network out: " + bytes(TrafficCounter.getTotalBytesOut()) + " in "
+                + TrafficCounter.getTotalPacketsOut() + " packet(s)");
+        lines.add("Network in: rate-limited=" + InboundPacketQueue.getTotalDropped()
+                + " read pauses=" + InboundPacketQueue.getTotalPauses()
+                + " flood kicks=" + InboundPacketQueue.getTotalKicks());
+        lines.add("Admission: refused rate=" + AcceptLimiter.getTotalRateLimited()
+                + " per-ip=" + AcceptLimiter.getTotalOverCap()
+                + " logins=" + LoginGate.getInProgress() + "/" + LoginGate.getMaxLogins()
+                + " join queue=" + LoginGate.getQueued()
+                + " (queued=" + LoginGate.getTotalQueued()
+                + " full=" + LoginGate.getTotalRejected()
+                + " timed out=" + LoginGate.getTotalTimedOut() + ")");
+        return lines;
+    }
+
+    public static List<String> describePhases() {
+        List<String> lines = new ArrayList<>();
+        for (TickPhase p : PHASES) {
+            LatencyHistogram h = getPhaseHistogram(p);
+            lines.add(String.format("%-16s runs=%-7d mean=%s p50=%s p99=%s max=%s", p.getMetricName(),
+                    h.getCount(), ms(h.getMean()), ms(h.getValueAtPercentile(50)),
+                    ms(h.getValueAtPercentile(99)), ms(h.getMax())));
+        }
+        return lines;
+    }
+
+    public static List<String> describeMods() {
+        List<String> lines = new ArrayList<>();
+        if (!isModTiming()) {
+            lines.add("Mod listener timing is off (perf-mod-timing=false). Enable with /perf modtiming on");
+        }
+        Map<String, LatencyHistogram> mods = getModListenerHistograms();
+        if (mods.isEmpty()) {
+            lines.add("No listener calls recorded.");
+            return lines;
+        }
+        for (Map.Entry<String, LatencyHistogram> e : mods.entrySet()) {
+            LatencyHistogram h = e.getValue();
+            lines.add(String.format("%-20s calls=%-8d total=%sms mean=%sus p99=%sus max=%sms", e.getKey(),
+                    h.getCount(), ms(h.getSum()), us(h.getMean()),
+                    us(h.getValueAtPercentile(99)), ms(h.getMax())));
+        }
+        return lines;
+    }
+
+    public static List<String> describeCache() {
+        ChunkManager chunks = chunkManager;
+        if (chunks == null) {
+            return List.of("Chunk manager not running.");
+        }
+        return chunks.getDataCache().describe();
+    }
+
+    public static List<String> describePlayers() {
+        List<String> lines = new ArrayList<>();
+        PlayerManager players = playerManager;
+        if (players == null || players.getPlayerCount() == 0) {
+            lines.add("No players online.");
+            return lines;
+        }
+        for (ConnectedPlayer p : players.getAllPlayers()) {
+            TrafficCounter t = p.getTraffic();
+            String sent = p.getBedrockSession() != null || p.getMcpeSession() != null
+                    ? "n/a (RakNet)" : bytes(t.getBytesOut());
+            PacketCompressEncoder zlib = p.getCompression();
+            String compression = zlib == null ? "off" : String.format("L%d/%s ratio=%.2f", zlib.getLevel(),
+                    zlib.getThreshold() >= PacketCompressEncoder.NO_COMPRESSION_THRESHOLD ? "-" : zlib.getThreshold(),
+                    zlib.getCompressionRatio());
+            lines.add(String.format("%-16s out=%s packets=%d rtt=%dms zlib=%s", p.getUsername(),
+                    sent, t.getPacketsOut(), p.getRttMillis(), compression));
+        }
+        return lines;
+    }
+
+    // === Prometheus text exposition format (0.0.4) ===
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /** Append all metrics in Prometheus text format. */
+    public static void writePrometheus(StringBuilder out) {
+        gaugeHeader(out, "rdforward_tps", "Ticks per second over a sliding window.");
+        out.append("rdforward_tps{window=\"5s\"} ").append(getTps(TPS_SHORT_WINDOW_TICKS)).append('\n');
+        out.append("rdforward_tps{window=\"1m\"} ").append(getTps(TPS_WINDOW_TICKS)).append('\n');
+
+        summaryHeader(out, "rdforward_tick_duration_seconds", "Duration of a full server tick.");
+        summary(out, "rdforward_tick_duration_seconds", null, null, TICK);
+
+        counter(out, "rdforward_tick_overruns_total", "Ticks that took longer than 50ms.", overruns.get());
+        counter(out, "rdforward_ticks_skipped_total", "Ticks dropped because the loop fell too far behind.",
+                skippedTicks.get());
+
+        summaryHeader(out, "rdforward_tick_phase_duration_seconds", "Duration of each tick phase when it runs.");
+        for (TickPhase p : PHASES) {
+            summary(out, "rdforward_tick_phase_duration_seconds", "phase", p.getMetricName(), getPhaseHistogram(p));
+        }
+
+        summaryHeader(out, "rdforward_mod_listener_duration_seconds", "Time spent in event listeners per mod.");
+        for (Map.Entry<String, LatencyHistogram> e : getModListenerHistograms().entrySet()) {
+            summary(out, "rdforward_mod_listener_duration_seconds", "mod", e.getKey(), e.getValue());
+        }
+
+        counter(out, "rdforward_network_sent_bytes_total", "Bytes written to TCP clients.",
+                TrafficCounter.getTotalBytesOut());
+        counter(out, "rdforward_network_sent_packets_total", "Packets sent to all clients.",
+                TrafficCounter.getTotalPacketsOut());
+
+        PlayerManager players = playerManager;
+        if (players != null) {
+            gauge(out, "rdforward_players_online", "Connected players.", players.getPlayerCount());
+            out.append("# HELP rdforward_player_sent_bytes_total Bytes written to a TCP player this session.\n")
+                    .append("# TYPE rdforward_player_sent_bytes_total counter\n");
+            List<ConnectedPlayer> snapshot = new ArrayList<>(players.getAllPlayers());
+            for (ConnectedPlayer p : snapshot) {
+                out.append("rdforward_player_sent_bytes_total{player=\"").append(escape(p.getUsername()))
+                        .append("\"} ").append(p.getTraffic().getBytesOut()).append('\n');
+            }
+            out.append("# HELP rdforward_player_sent_packets_total Packets sent to a player this session.\n")
+                    .append("# TYPE rdforward_player_sent_packets_total counter\n");
+            for (ConnectedPlayer p : snapshot) {
+                out.append("rdforward_player_sent_packets_total{player=\"").append(escape(p.getUsername()))
+                        .append("\"} ").append(p.getTraffic().getPacketsOut()).append('\n');
+            }
+            out.append("# HELP rdforward_player_compression_ratio Bytes out per byte in of a player's packet compressor.\n")
+                    .append("# TYPE rdforward_player_compression_ratio gauge\n");
+            for (ConnectedPlayer p : snapshot) {
+                PacketCompressEncoder zlib = p.getCompression();
+                if (zlib == null) continue;
+                out.append("rdforward_player_compression_ratio{player=\"").append(escape(p.getUsername()))
+                        .append("\",level=\"").append(zlib.getLevel())
+                        .append("\"} ").append(zlib.getCompressionRatio()).append('\n');
+            }
+        }
+
+        ChunkManager chunks = chunkManager;
+        if (chunks != null) {
+            gauge(out, "rdforward_chunk_io_queue_depth", "Tasks waiting for the chunk I/O thread.",
+                    chunks.getIOThread().getQueueDepth());
+            gauge(out, "rdforward_chunk_generation_queue_depth", "Tasks waiting for a chunk worker.",
+                    chunks.getGenerationQueueDepth());
+            gauge(out, "rdforward_chunk_pending_loads", "Chunk loads/generations in flight.",
+                    chunks.getPendingChunkCount());
+            gauge(out, "rdforward_chunk_pending_sends", "Ready chunks waiting for the delivery budget.",
+                    chunks.getPendingSendCount());
+            gauge(out, "rdforward_chunks_loaded", "Chunks held in memory.", chunks.getLoadedChunkCount());
+            gauge(out, "rdforward_chunk_packet_cache_entries", "Serialized chunk packets cached.",
+                    chunks.getPacketCacheSize());
+            writeCacheMetrics(out, chunks.getDataCache());
+        }
+    }
+
+    private static void writeCacheMetrics(StringBuilder out, ChunkDataCache cache) {
+        gauge(out, "rdforward_chunk_cache_budget_bytes", "Memory budget of the chunk data cache.",
+                cache.getMaxWeight());
+        List<Integer> buckets = cache.getActiveBuckets();
+        bucketMetric(out, cache, buckets, "rdforward_chunk_cache_bytes", "gauge",
+                "Resident bytes in the chunk data cache.", ChunkDataCache::getWeight);
+        bucketMetric(out, cache, buckets, "rdforward_chunk_cache_entries", "gauge",
+                "Entries in the chunk data cache.", ChunkDataCache::getEntries);
+        bucketMetric(out, cache, buckets, "rdforward_chunk_cache_hits_total", "counter",
+                "Chunk data cache lookups that found an entry.", ChunkDataCache::getHits);
+        bucketMetric(out, cache, buckets, "rdforward_chunk_cache_misses_total", "counter",
+                "Chunk data cache lookups that found nothing.", ChunkDataCache::getMisses);
+        bucketMetric(out, cache, buckets, "rdforward_chunk_cache_evictions_total", "counter",
+                "Entries evicted to stay within the memory budget.", ChunkDataCache::getEvictions);
+    }
+
+    private interface BucketValue {
+        long get(ChunkDataCache cache, int bucket);
+    }
+
+    private static void bucketMetric(StringBuilder out, ChunkDataCache cache, List<Integer> buckets,
+                                     String name, String type, String help, BucketValue value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        for (int b : buckets) {
+            out.append(name).append("{bucket=\"").append(escape(cache.getBucketName(b))).append("\"} ")
+                    .append(value.get(cache, b)).append('\n');
+        }
+    }
+
+    private static void summaryHeader(StringBuilder out, String name, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" summary\n");
+    }
+
+    private static void summary(StringBuilder out, String name, String label, String value, LatencyHistogram h) {
+        String labels = label == null ? "" : label + "=\"" + escape(value) + "\",";
+        for (double q : QUANTILES) {
+            out.append(name).append("{").append(labels).append("quantile=\"").append(q).append("\"} ")
+                    .append(seconds(h.getValueAtPercentile(q * 100))).append('\n');
+        }
+        String suffixLabels = label == null ? "" : "{" + label + "=\"" + escape(value) + "\"}";
+        out.append(name).append("_sum").append(suffixLabels).append(' ').append(seconds(h.getSum())).append('\n');
+        out.append(name).append("_count").append(suffixLabels).append(' ').append(h.getCount()).append('\n');
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" counter\n")
+                .append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, long value) {
+        gaugeHeader(out, name, help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gaugeHeader(StringBuilder out, String name, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" gauge\n");
+    }
+
+    static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+
+    private static String ms(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+
+    private static String us(long nanos) {
+        return String.format("%.1f", nanos / 1_000.0);
+    }
+
+    private static String bytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        if (bytes < 1024L * 1024 * 1024) return String.format("%.1f MB", bytes / (1024.0 * 1024));
+        return String.format("%.2f GB", bytes / (1024.0 * 1024 * 1024));
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.martinambrus.rdforward.server.profiler;
+
+/**
+ * The fixed sequence of phases in {@code ServerTickLoop.tick()}. Interval
+ * phases (pings, probes, saves...) are only recorded on ticks where they
+ * actually run, so their percentiles describe the work itself rather than
+ * being dominated by empty ticks.
+ */
+public enum TickPhase {
+    TIME("time"),
+    INBOUND("inbound"),
+    BLOCK_CHANGES("block_changes"),
+    PINGS("pings"),
+    BEDROCK_PROBES("bedrock_probes"),
+    TIME_BROADCAST("time_broadcast"),
+    CHUNK_TRACKING("chunk_tracking"),
+    BATCH_RESEND("batch_resend"),
+    INCREMENTAL_SAVE("incremental_save"),
+    FULL_SAVE("full_save"),
+    MOD_TICK("mod_tick"),
+    FLUSH("flush");
+
+    private final String metricName;
+
+    TickPhase(String metricName) {
+        this.metricName = metricName;
+    }
+
+    /** Lower-case name used in /perf output and as the Prometheus label value. */
+    public String getMetricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.martinambrus.rdforward.server.profiler;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufHolder;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outbound byte/packet counter. Installed at the head of every TCP
+ * pipeline (closest to the socket) so it sees the final wire bytes after
+ * encoding, compression and framing, whichever protocol the connection
+ * ends up speaking. Each message reaching it counts as one packet.
+ *
+ * Bedrock and legacy MCPE players are sent through their RakNet sessions
+ * instead; {@code ConnectedPlayer} gives them a detached counter that
+ * only tracks packets via {@link #recordPacket()}.
+ */
+public class TrafficCounter extends ChannelOutboundHandlerAdapter {
+
+    public static final String HANDLER_NAME = "trafficCounter";
+
+    /** Totals across all connections, including ones that never logged in. */
+    private static final LongAdder TOTAL_BYTES = new LongAdder();
+    private static final LongAdder TOTAL_PACKETS = new LongAdder();
+
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder packets = new LongAdder();
+
+    /** The counter installed on the channel, or a fresh detached one if there is none. */
+    public static TrafficCounter of(Channel channel) {
+        if (channel != null) {
+            TrafficCounter counter = channel.pipeline().get(TrafficCounter.class);
+            if (counter != null) return counter;
+        }
+        return new TrafficCounter();
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        int size = 0;
+        if (msg instanceof ByteBuf buf) {
+            size = buf.readableBytes();
+        } else if (msg instanceof ByteBufHolder holder) {
+            size = holder.content().readableBytes();
+        }
+        bytes.add(size);
+        packets.increment();
+        TOTAL_BYTES.add(size);
+        TOTAL_PACKETS.increment();
+        super.write(ctx, msg, promise);
+    }
+
+    /** Count a packet sent outside the channel pipeline (Bedrock/MCPE sessions). */
+    public void recordPacket() {
+        packets.increment();
+        TOTAL_PACKETS.increment();
+    }
+
+    public long getBytesOut() {
+        return bytes.sum();
+    }
+
+    public long getPacketsOut() {
+        return packets.sum();
+    }
+
+    public static long getTotalBytesOut() {
+        return TOTAL_BYTES.sum();
+    }
+
+    public static long getTotalPacketsOut() {
+        return TOTAL_PACKETS.sum();
+    }
+}
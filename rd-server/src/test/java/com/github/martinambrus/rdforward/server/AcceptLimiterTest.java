@@ -0,0 +1,90 @@
+package com.github.martinambrus.rdforward.server;
+
+import io.netty.channel.Channel;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for AcceptLimiter: accepts are rate-limited per source prefix,
+ * open connections are capped per address until one closes, loopback is
+ * exempt, and a refused connection is closed before it reaches the
+ * acceptor.
+ */
+class AcceptLimiterTest {
+
+    /** Accepted child channel with a chosen remote address. */
+    private static final class Accepted extends EmbeddedChannel {
+        private final InetSocketAddress remote;
+
+        Accepted(String ip) throws Exception {
+            this.remote = new InetSocketAddress(InetAddress.getByName(ip), 50000);
+        }
+
+        @Override
+        protected SocketAddress remoteAddress0() {
+            return remote;
+        }
+    }
+
+    @Test
+    void acceptsAreRateLimitedPerPrefix() throws Exception {
+        AcceptLimiter limiter = new AcceptLimiter(2, 0);
+        long now = 1_000_000_000L;
+        long before = AcceptLimiter.getTotalRateLimited();
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(limiter.admit(new Accepted("203.0.113." + i), now), "burst of twice the rate");
+        }
+        assertFalse(limiter.admit(new Accepted("203.0.113.99"), now), "same /24");
+        assertTrue(limiter.admit(new Accepted("198.51.100.1"), now), "other prefix has its own budget");
+        assertEquals(before + 1, AcceptLimiter.getTotalRateLimited());
+
+        assertTrue(limiter.admit(new Accepted("203.0.113.5"), now + 500_000_000L), "refills at the rate");
+    }
+
+    @Test
+    void openConnectionsAreCappedPerAddress() throws Exception {
+        AcceptLimiter limiter = new AcceptLimiter(0, 2);
+        InetAddress address = InetAddress.getByName("192.0.2.7");
+        Accepted first = new Accepted("192.0.2.7");
+        Accepted second = new Accepted("192.0.2.7");
+        assertTrue(limiter.admit(first, 0));
+        assertTrue(limiter.admit(second, 0));
+        assertFalse(limiter.admit(new Accepted("192.0.2.7"), 0));
+        assertTrue(limiter.admit(new Accepted("192.0.2.8"), 0), "neighbour address is separate");
+        assertEquals(2, limiter.getOpenConnections(address));
+
+        first.close();
+        assertEquals(1, limiter.getOpenConnections(address));
+        assertTrue(limiter.admit(new Accepted("192.0.2.7"), 0));
+        second.close();
+    }
+
+    @Test
+    void loopbackIsExempt() throws Exception {
+        AcceptLimiter limiter = new AcceptLimiter(1, 1);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.admit(new Accepted("127.0.0.1"), 0));
+        }
+    }
+
+    @Test
+    void refusedConnectionIsClosedAndNotPassedOn() throws Exception {
+        EmbeddedChannel server = new EmbeddedChannel(new AcceptLimiter(0, 1));
+        Channel kept = new Accepted("192.0.2.50");
+        Channel refused = new Accepted("192.0.2.50");
+        server.writeInbound(kept);
+        server.writeInbound(refused);
+        assertSame(kept, server.readInbound());
+        assertNull(server.readInbound());
+        assertTrue(kept.isOpen());
+        assertFalse(refused.isOpen());
+        kept.close();
+        server.finishAndReleaseAll();
+    }
+}
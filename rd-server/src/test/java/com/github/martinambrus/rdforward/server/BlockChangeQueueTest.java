@@ -0,0 +1,74 @@
+package com.github.martinambrus.rdforward.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for BlockChangeQueue and the packed positions it stores: changes
+ * come out oldest first across a wrap and a grow, concurrent producers
+ * lose nothing, and packing round-trips every coordinate a world can
+ * have while anything outside the packed range stays out of bounds.
+ */
+class BlockChangeQueueTest {
+
+    @Test
+    void packingRoundTripsSignedCoordinates() {
+        int[][] cases = {{0, 0, 0}, {1, 2, 3}, {-1, -1, -1}, {33554431, 2047, -33554432}, {-33554432, -2048, 33554431}};
+        for (int[] c : cases) {
+            long packed = BlockChangeSet.pack(c[0], c[1], c[2]);
+            assertEquals(c[0], BlockChangeSet.unpackX(packed));
+            assertEquals(c[1], BlockChangeSet.unpackY(packed));
+            assertEquals(c[2], BlockChangeSet.unpackZ(packed));
+        }
+        assertEquals(BlockChangeSet.INVALID, BlockChangeSet.pack(1 << 25, 0, 0));
+        assertEquals(BlockChangeSet.INVALID, BlockChangeSet.pack(0, 4096, 0));
+        assertTrue(BlockChangeSet.unpackX(BlockChangeSet.INVALID) < 0, "invalid is outside every world");
+    }
+
+    @Test
+    void drainsOldestFirstAcrossWrapAndGrow() {
+        BlockChangeQueue queue = new BlockChangeQueue(16);
+        BlockChangeSet out = new BlockChangeSet(4);
+        for (int i = 0; i < 10; i++) queue.add(BlockChangeSet.pack(i, 0, 0), (byte) i);
+        assertEquals(10, queue.drainTo(out));
+        out.clear();
+
+        // Head is now at 10: these wrap, then force a grow while wrapped
+        for (int i = 0; i < 20; i++) queue.add(BlockChangeSet.pack(i, 1, 0), (byte) i);
+        assertEquals(32, queue.capacity());
+        assertEquals(20, queue.drainTo(out));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, out.getX(i), "entry " + i);
+            assertEquals(1, out.getY(i));
+            assertEquals((byte) i, out.getType(i));
+        }
+        assertEquals(0, queue.size());
+        assertEquals(0, queue.drainTo(out));
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() throws Exception {
+        BlockChangeQueue queue = new BlockChangeQueue(16);
+        int producers = 4, perProducer = 5000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int z = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) queue.add(BlockChangeSet.pack(i, 0, z), (byte) 1);
+            });
+            threads[p].start();
+        }
+        BlockChangeSet out = new BlockChangeSet();
+        for (Thread t : threads) t.join();
+        queue.drainTo(out);
+
+        assertEquals(producers * perProducer, out.size());
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < out.size(); i++) seen.add(out.getPosition(i));
+        assertEquals(producers * perProducer, seen.size());
+    }
+}
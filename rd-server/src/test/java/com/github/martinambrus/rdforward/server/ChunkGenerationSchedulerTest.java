@@ -0,0 +1,141 @@
+package com.github.martinambrus.rdforward.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ChunkGenerationScheduler: lane/priority ordering, express
+ * promotion and cancellation of unwanted generation.
+ */
+class ChunkGenerationSchedulerTest {
+
+    private final ChunkGenerationScheduler scheduler = new ChunkGenerationScheduler(1);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    /** Occupy the single worker until the returned latch is released. */
+    private CountDownLatch blockWorker() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        scheduler.submit(new ChunkCoord(1000, 1000), Long.MAX_VALUE - 1, false, false, done::countDown, null);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void runsExpressThenSerializationThenNearestFirst() throws InterruptedException {
+        CountDownLatch release = blockWorker();
+        List<String> order = new CopyOnWriteArrayList<>();
+        scheduler.submit(new ChunkCoord(5, 0), 5, false, true, () -> order.add("far"), null);
+        scheduler.submit(new ChunkCoord(1, 0), 1, false, true, () -> order.add("near"), null);
+        scheduler.execute(() -> order.add("serialize"));
+        scheduler.submit(new ChunkCoord(9, 9), 9, true, false, () -> order.add("express"), null);
+        release.countDown();
+        awaitIdle();
+
+        assertEquals(List.of("express", "serialize", "near", "far"), order);
+    }
+
+    @Test
+    void reprioritizeReordersAndCancelsUnwanted() throws InterruptedException {
+        CountDownLatch release = blockWorker();
+        List<String> order = new CopyOnWriteArrayList<>();
+        AtomicInteger cancelled = new AtomicInteger();
+        ChunkCoord a = new ChunkCoord(1, 0);
+        ChunkCoord b = new ChunkCoord(2, 0);
+        ChunkCoord gone = new ChunkCoord(3, 0);
+        scheduler.submit(a, 1, false, true, () -> order.add("a"), cancelled::incrementAndGet);
+        scheduler.submit(b, 2, false, true, () -> order.add("b"), cancelled::incrementAndGet);
+        scheduler.submit(gone, 3, false, true, () -> order.add("gone"), cancelled::incrementAndGet);
+
+        // Player moved: b is now closest, "gone" is out of everyone's view
+        scheduler.reprioritize(coord -> coord.equals(gone) ? ChunkGenerationScheduler.NOT_WANTED
+                : coord.equals(b) ? 0 : 4);
+        release.countDown();
+        awaitIdle();
+
+        assertEquals(List.of("b", "a"), order);
+        assertEquals(1, cancelled.get());
+    }
+
+    @Test
+    void promoteMovesQueuedTaskToExpressLane() throws InterruptedException {
+        CountDownLatch release = blockWorker();
+        List<String> order = new CopyOnWriteArrayList<>();
+        ChunkCoord teleport = new ChunkCoord(50, 50);
+        scheduler.submit(new ChunkCoord(0, 0), 0, false, true, () -> order.add("stream"), null);
+        scheduler.submit(teleport, 8, false, true, () -> order.add("teleport"), null);
+        scheduler.promote(teleport);
+
+        // Promoted tasks are no longer cancellable
+        scheduler.reprioritize(coord -> ChunkGenerationScheduler.NOT_WANTED);
+        release.countDown();
+        awaitIdle();
+
+        assertEquals(List.of("teleport"), order);
+    }
+
+    @Test
+    void promoteDuringDiskLoadExpressesTheLaterSubmit() throws InterruptedException {
+        CountDownLatch release = blockWorker();
+        List<String> order = new CopyOnWriteArrayList<>();
+        ChunkCoord teleport = new ChunkCoord(50, 50);
+        scheduler.awaitingLoad(teleport);
+        scheduler.promote(teleport);
+        scheduler.submit(new ChunkCoord(0, 0), 0, false, true, () -> order.add("stream"), null);
+        scheduler.submit(teleport, 8, false, true, () -> order.add("teleport"), null);
+        release.countDown();
+        awaitIdle();
+
+        assertEquals(List.of("teleport", "stream"), order);
+    }
+
+    @Test
+    void promotingAFinishedChunkLeavesLaterSubmitsAlone() throws InterruptedException {
+        ChunkCoord coord = new ChunkCoord(7, 7);
+        CountDownLatch ran = new CountDownLatch(1);
+        scheduler.submit(coord, 7, false, true, ran::countDown, null);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        scheduler.promote(coord);
+
+        // A later, unrelated submit for the same coord keeps its own lane
+        CountDownLatch release = blockWorker();
+        List<String> order = new CopyOnWriteArrayList<>();
+        scheduler.submit(new ChunkCoord(0, 0), 0, false, true, () -> order.add("near"), null);
+        scheduler.submit(coord, 7, false, true, () -> order.add("again"), null);
+        release.countDown();
+        awaitIdle();
+
+        assertEquals(List.of("near", "again"), order);
+    }
+
+    @Test
+    void rejectsAfterShutdown() {
+        scheduler.shutdown();
+        assertThrows(java.util.concurrent.RejectedExecutionException.class,
+                () -> scheduler.execute(() -> {}));
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.server.profiler.TrafficCounter;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ChunkSendPacer: credit follows channel writability, chunk
+ * charges use up the quantum, and a backlogged link lowers the drain
+ * estimate.
+ */
+class ChunkSendPacerTest {
+
+    private final TrafficCounter traffic = new TrafficCounter();
+    private final EmbeddedChannel channel = new EmbeddedChannel(traffic);
+    private final ChunkSendPacer pacer = new ChunkSendPacer();
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void writableChannelEarnsCreditThatChunksSpend() {
+        assertTrue(pacer.sample(channel, traffic));
+        int chunks = 0;
+        while (pacer.hasCredit() && chunks < 1000) {
+            pacer.charge();
+            chunks++;
+        }
+        assertTrue(chunks > 1, "quantum should cover several chunks");
+        assertTrue(chunks < 1000, "credit must run out");
+    }
+
+    @Test
+    void unwritableChannelGetsNoCredit() {
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(8, 16));
+        channel.write(Unpooled.wrappedBuffer(new byte[64])); // queued, not flushed
+        assertFalse(channel.isWritable());
+
+        assertFalse(pacer.sample(channel, traffic));
+        assertFalse(pacer.hasCredit());
+    }
+
+    @Test
+    void backloggedLinkLowersDrainEstimate() {
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1 << 20, 2 << 20));
+        channel.write(Unpooled.wrappedBuffer(new byte[4096])); // stays pending: nothing drains
+        pacer.sample(channel, traffic);
+        long initial = pacer.getDrainPerTick();
+        for (int i = 0; i < 20; i++) {
+            pacer.sample(channel, traffic);
+        }
+        assertTrue(pacer.getDrainPerTick() < initial / 2,
+                "drain estimate " + pacer.getDrainPerTick() + " should fall from " + initial);
+    }
+}
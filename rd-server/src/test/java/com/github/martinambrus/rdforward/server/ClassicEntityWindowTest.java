@@ -0,0 +1,117 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
+import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import com.github.martinambrus.rdforward.protocol.packet.classic.DespawnPlayerPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.MessagePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.PositionUpdatePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.SpawnPlayerPacket;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ClassicEntityWindow: IDs below 128 pass through unchanged,
+ * higher IDs get a free wire slot, a full window drops untracked players,
+ * chat senders are mapped like everything else, and refresh keeps the
+ * nearest players tracked.
+ */
+class ClassicEntityWindowTest {
+
+    private static ConnectedPlayer player(int id, int x) {
+        ConnectedPlayer p = new ConnectedPlayer(id, "P" + id, null, null, ProtocolVersion.CLASSIC);
+        p.updatePosition((short) x, (short) 0, (short) 0, (byte) 0, (byte) 0);
+        return p;
+    }
+
+    private static SpawnPlayerPacket spawn(int id) {
+        return new SpawnPlayerPacket(id, "P" + id, (short) 0, (short) 0, (short) 0, 0, 0);
+    }
+
+    @Test
+    void lowIdsPassThroughUnchanged() {
+        ClassicEntityWindow window = new ClassicEntityWindow();
+        SpawnPlayerPacket spawn = spawn(5);
+        assertSame(spawn, window.map(spawn));
+        PositionUpdatePacket move = new PositionUpdatePacket(5, 1, 0, 0);
+        assertSame(move, window.map(move));
+    }
+
+    @Test
+    void highIdsGetAFreeWireSlot() {
+        ClassicEntityWindow window = new ClassicEntityWindow();
+        SpawnPlayerPacket mapped = assertInstanceOf(SpawnPlayerPacket.class, window.map(spawn(300)));
+        int wire = mapped.getPlayerId();
+        assertTrue(wire >= 0 && wire < ClassicEntityWindow.SIZE);
+
+        PositionUpdatePacket move = assertInstanceOf(PositionUpdatePacket.class,
+                window.map(new PositionUpdatePacket(300, 1, 2, 3)));
+        assertEquals(wire, move.getPlayerId());
+        assertEquals(2, move.getChangeY());
+
+        DespawnPlayerPacket despawn = assertInstanceOf(DespawnPlayerPacket.class,
+                window.map(new DespawnPlayerPacket(300)));
+        assertEquals(wire, despawn.getPlayerId());
+        assertEquals(0, window.getTrackedCount());
+    }
+
+    @Test
+    void fullWindowDropsUntrackedPlayers() {
+        ClassicEntityWindow window = new ClassicEntityWindow();
+        for (int id = 0; id < ClassicEntityWindow.SIZE; id++) {
+            assertNotNull(window.map(spawn(id)));
+        }
+        assertNull(window.map(spawn(200)));
+        assertNull(window.map(new PositionUpdatePacket(200, 1, 0, 0)));
+        assertNull(window.map(new DespawnPlayerPacket(200)));
+    }
+
+    @Test
+    void chatSendersAreMappedThroughTheWindow() {
+        ClassicEntityWindow window = new ClassicEntityWindow();
+        window.map(spawn(5));
+        MessagePacket tracked = new MessagePacket(5, "hi");
+        assertSame(tracked, window.map(tracked));
+
+        // 300 takes a free slot; an untracked low ID must not borrow that slot's colour
+        int wire = assertInstanceOf(SpawnPlayerPacket.class, window.map(spawn(300))).getPlayerId();
+        MessagePacket fromHigh = assertInstanceOf(MessagePacket.class, window.map(new MessagePacket(300, "hi")));
+        assertEquals(wire, fromHigh.getPlayerId());
+        MessagePacket fromUntracked = assertInstanceOf(MessagePacket.class,
+                window.map(new MessagePacket(wire, "hi")));
+        assertEquals(-1, fromUntracked.getPlayerId());
+        assertEquals("hi", fromUntracked.getMessage());
+    }
+
+    @Test
+    void refreshTracksTheNearestPlayers() {
+        ClassicEntityWindow window = new ClassicEntityWindow();
+        ConnectedPlayer viewer = player(0, 0);
+        List<ConnectedPlayer> players = new ArrayList<>();
+        players.add(viewer);
+        // 128 far players fill the window first
+        for (int id = 1; id <= ClassicEntityWindow.SIZE; id++) {
+            players.add(player(id, 10_000 + id));
+            window.map(spawn(id));
+        }
+        // A nearby player arrives after the window is full
+        ConnectedPlayer near = player(500, 32);
+        players.add(near);
+        assertNull(window.map(spawn(500)));
+        assertTrue(window.needsRefresh(players.size() - 1));
+
+        List<Packet> out = new ArrayList<>();
+        window.refresh(viewer, players, out::add);
+
+        DespawnPlayerPacket evicted = assertInstanceOf(DespawnPlayerPacket.class, out.get(0));
+        SpawnPlayerPacket spawned = assertInstanceOf(SpawnPlayerPacket.class, out.get(1));
+        assertEquals(2, out.size());
+        assertEquals(evicted.getPlayerId(), spawned.getPlayerId(), "freed slot is reused");
+        assertEquals("P500", spawned.getPlayerName());
+        assertEquals(spawned.getPlayerId(), window.wireId(500));
+        assertEquals(-1, window.wireId(ClassicEntityWindow.SIZE), "farthest player was evicted");
+    }
+}
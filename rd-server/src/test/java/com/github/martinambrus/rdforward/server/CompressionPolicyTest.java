@@ -0,0 +1,128 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.protocol.codec.PacketCompressEncoder;
+import com.github.martinambrus.rdforward.server.api.ServerProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for CompressionPolicy: override rule parsing and address matching,
+ * the adaptive level/threshold choice, and the hysteresis that keeps a
+ * jittery link on one setting.
+ */
+class CompressionPolicyTest {
+
+    private static final int THRESHOLD = 256;
+
+    @AfterEach
+    void tearDown() {
+        ServerProperties.set("compression-overrides", "");
+    }
+
+    private static InetSocketAddress addr(String ip) throws Exception {
+        return new InetSocketAddress(InetAddress.getByName(ip), 25565);
+    }
+
+    @Test
+    void ipRangeMatchesPrefixOnly() throws Exception {
+        IpRange loopback = IpRange.parse("127.0.0.0/8");
+        assertTrue(loopback.contains(InetAddress.getByName("127.45.0.1")));
+        assertFalse(loopback.contains(InetAddress.getByName("128.0.0.1")));
+        assertFalse(loopback.contains(InetAddress.getByName("::1")));
+
+        IpRange odd = IpRange.parse("10.1.2.3/20");
+        assertEquals("10.1.0.0/20", odd.toString());
+        assertTrue(odd.contains(InetAddress.getByName("10.1.15.255")));
+        assertFalse(odd.contains(InetAddress.getByName("10.1.16.0")));
+
+        assertTrue(IpRange.parse("::1").contains(InetAddress.getByName("0:0:0:0:0:0:0:1")));
+        assertThrows(IllegalArgumentException.class, () -> IpRange.parse("example.com/8"));
+        assertThrows(IllegalArgumentException.class, () -> IpRange.parse("10.0.0.0/33"));
+    }
+
+    @Test
+    void malformedRulesAreSkipped() {
+        List<CompressionPolicy.Rule> rules = CompressionPolicy.parseRules(
+                "127.0.0.0/8=off, 10.0.0.0/8=1:1024, bogus=3, 192.168.0.0/16=12, fd00::/8=9");
+        assertEquals(3, rules.size());
+        assertTrue(rules.get(0).setting().isOff());
+        assertEquals(new CompressionPolicy.Setting(1, 1024), rules.get(1).setting());
+        assertEquals(new CompressionPolicy.Setting(9, -1), rules.get(2).setting());
+    }
+
+    @Test
+    void overrideRulesPinTheSetting() throws Exception {
+        ServerProperties.set("compression-overrides", "127.0.0.0/8=off,10.0.0.0/8=1:1024,172.16.0.0/12=9");
+
+        assertFalse(CompressionPolicy.forAddress(addr("127.0.0.1"), THRESHOLD).isEnabled());
+        assertEquals(Deflater.NO_COMPRESSION, CompressionPolicy.transferLevel(addr("127.0.0.1")));
+
+        CompressionPolicy lan = CompressionPolicy.forAddress(addr("10.2.3.4"), THRESHOLD);
+        assertTrue(lan.isEnabled());
+        assertEquals(1024, lan.getAnnouncedThreshold());
+        assertEquals(Deflater.BEST_SPEED, lan.getInitialLevel());
+
+        CompressionPolicy levelOnly = CompressionPolicy.forAddress(addr("172.20.0.1"), -1);
+        assertEquals(CompressionPolicy.DEFAULT_THRESHOLD, levelOnly.getAnnouncedThreshold());
+        assertEquals(9, levelOnly.getInitialLevel());
+
+        CompressionPolicy other = CompressionPolicy.forAddress(addr("203.0.113.7"), THRESHOLD);
+        assertEquals(THRESHOLD, other.getAnnouncedThreshold());
+        assertEquals(PacketCompressEncoder.DEFAULT_LEVEL, other.getInitialLevel());
+        assertFalse(CompressionPolicy.forAddress(addr("203.0.113.7"), -1).isEnabled());
+    }
+
+    @Test
+    void adaptiveChoiceFollowsLinkAndCpu() {
+        long fast = 10L * 1024 * 1024;
+        assertEquals(PacketCompressEncoder.NO_COMPRESSION_THRESHOLD,
+                CompressionPolicy.choose(1, fast, false, false, THRESHOLD).threshold(),
+                "LAN link skips compression");
+        assertEquals(new CompressionPolicy.Setting(Deflater.BEST_COMPRESSION, THRESHOLD),
+                CompressionPolicy.choose(1, fast, true, false, THRESHOLD), "backlogged link compresses hardest");
+        assertEquals(new CompressionPolicy.Setting(PacketCompressEncoder.DEFAULT_LEVEL, THRESHOLD),
+                CompressionPolicy.choose(40, fast, false, false, THRESHOLD));
+        assertEquals(new CompressionPolicy.Setting(Deflater.BEST_COMPRESSION, THRESHOLD),
+                CompressionPolicy.choose(300, fast, false, false, THRESHOLD), "distant link");
+        assertEquals(new CompressionPolicy.Setting(Deflater.BEST_COMPRESSION, THRESHOLD),
+                CompressionPolicy.choose(40, 64 * 1024, false, false, THRESHOLD), "slow drain rate");
+        assertEquals(new CompressionPolicy.Setting(Deflater.BEST_SPEED, CompressionPolicy.BUSY_THRESHOLD),
+                CompressionPolicy.choose(40, fast, false, true, THRESHOLD), "busy server");
+        assertEquals(new CompressionPolicy.Setting(PacketCompressEncoder.DEFAULT_LEVEL, THRESHOLD),
+                CompressionPolicy.choose(300, fast, false, true, THRESHOLD), "busy server, slow link");
+    }
+
+    @Test
+    void jitterAroundABoundaryKeepsTheLevel() throws Exception {
+        CompressionPolicy policy = CompressionPolicy.forAddress(addr("203.0.113.7"), THRESHOLD);
+        CompressionPolicy.Setting start = policy.getCurrent();
+        long fast = 10L * 1024 * 1024;
+        long[] rtts = {1, 3, 2, 40, 149, 150, 151, 2, 150};
+        for (int round = 0; round < 5; round++) {
+            for (long rtt : rtts) {
+                assertFalse(policy.settle(CompressionPolicy.choose(rtt, fast, false, false, THRESHOLD)), "rtt " + rtt);
+                assertFalse(policy.settle(CompressionPolicy.choose(40, fast, false, round % 2 == 0, THRESHOLD)));
+            }
+        }
+        assertEquals(start, policy.getCurrent());
+    }
+
+    @Test
+    void persistentChangeIsAppliedAfterSettling() throws Exception {
+        CompressionPolicy policy = CompressionPolicy.forAddress(addr("203.0.113.7"), THRESHOLD);
+        CompressionPolicy.Setting slow = CompressionPolicy.choose(300, 10L * 1024 * 1024, false, false, THRESHOLD);
+        for (int i = 1; i < CompressionPolicy.SETTLE_SAMPLES; i++) {
+            assertFalse(policy.settle(slow));
+        }
+        assertTrue(policy.settle(slow));
+        assertEquals(slow, policy.getCurrent());
+        assertFalse(policy.settle(slow), "Already applied");
+    }
+}
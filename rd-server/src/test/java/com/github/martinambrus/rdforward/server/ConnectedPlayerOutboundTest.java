@@ -0,0 +1,168 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.ChatPacket;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ConnectedPlayer's outbound queue on a real event loop: writes
+ * from several threads keep each thread's order, any number of writes and
+ * flushes made while a drain is pending cost one drain and one flush, and
+ * what is still queued when the channel closes is released, not written.
+ */
+class ConnectedPlayerOutboundTest {
+
+    /** Records what reaches the socket end of the pipeline, and flushes. */
+    private static final class Recorder extends ChannelOutboundHandlerAdapter {
+        final List<Object> written = new CopyOnWriteArrayList<>();
+        final AtomicInteger flushes = new AtomicInteger();
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            written.add(msg);
+            ReferenceCountUtil.release(msg);
+            promise.trySuccess();
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) {
+            flushes.incrementAndGet();
+        }
+    }
+
+    private final EventLoopGroup group = new DefaultEventLoopGroup(1);
+    private final Recorder recorder = new Recorder();
+    private Channel server;
+    private Channel channel;
+    private ConnectedPlayer player;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        LocalAddress address = new LocalAddress("outbound-" + System.nanoTime());
+        server = new ServerBootstrap().group(group).channel(LocalServerChannel.class)
+                .childHandler(new ChannelInboundHandlerAdapter())
+                .bind(address).sync().channel();
+        channel = new Bootstrap().group(group).channel(LocalChannel.class)
+                .handler(recorder)
+                .connect(address).sync().channel();
+        player = new ConnectedPlayer(0, "writer", null, channel, ProtocolVersion.BETA_1_7_3);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.close().sync();
+        server.close().sync();
+        group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+    }
+
+    @Test
+    void writesFromSeveralThreadsKeepEachThreadsOrder() throws Exception {
+        int producers = 4, perProducer = 500;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int id = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    player.writePacket(new ChatPacket(id + ":" + i));
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread t : threads) t.join();
+        player.flushPackets();
+        awaitWritten(producers * perProducer);
+
+        int[] next = new int[producers];
+        for (Object msg : recorder.written) {
+            String[] parts = ((ChatPacket) msg).getMessage().split(":");
+            int producer = Integer.parseInt(parts[0]);
+            assertEquals(next[producer]++, Integer.parseInt(parts[1]), "producer " + producer);
+        }
+        for (int count : next) assertEquals(perProducer, count);
+    }
+
+    @Test
+    void writesAndFlushesWhileADrainIsPendingFlushOnce() throws Exception {
+        CountDownLatch release = blockEventLoop();
+        for (int i = 0; i < 100; i++) {
+            player.writePacket(new ChatPacket("batch " + i));
+            if (i % 10 == 0) player.flushPackets();
+        }
+        release.countDown();
+        awaitWritten(100);
+        runOnEventLoop(() -> {});
+
+        assertEquals(100, recorder.written.size());
+        assertEquals(1, recorder.flushes.get(), "One drain task, one flush");
+    }
+
+    @Test
+    void queuedWritesAreReleasedWhenTheChannelClosesFirst() throws Exception {
+        CountDownLatch release = blockEventLoop();
+        ByteBuf frames = Unpooled.buffer(8).writeLong(42);
+        player.writeFrames(frames);
+        player.writePacket(new ChatPacket("too late"));
+        channel.close();
+        player.flushPackets();
+        release.countDown();
+        channel.closeFuture().sync();
+        runOnEventLoop(() -> {});
+
+        assertTrue(recorder.written.isEmpty(), "Nothing is written to a closed channel");
+        assertEquals(0, frames.refCnt(), "Queued frames are released");
+    }
+
+    /** Park the event loop until the returned latch is released. */
+    private CountDownLatch blockEventLoop() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        channel.eventLoop().execute(() -> {
+            running.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private void runOnEventLoop(Runnable task) throws Exception {
+        channel.eventLoop().submit(task).get(5, TimeUnit.SECONDS);
+    }
+
+    private void awaitWritten(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (recorder.written.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        List<Object> snapshot = new ArrayList<>(recorder.written);
+        assertEquals(count, snapshot.size());
+    }
+}
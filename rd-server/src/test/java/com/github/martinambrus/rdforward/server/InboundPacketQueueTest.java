@@ -0,0 +1,278 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
+import com.github.martinambrus.rdforward.protocol.packet.Packet;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.ChatPacket;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.PlayerDiggingPacket;
+import com.github.martinambrus.rdforward.protocol.packet.alpha.PlayerPositionPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.MessagePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.PingPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.SetBlockClientPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.SetBlockServerPacket;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for InboundPacketQueue: packets wait for the tick loop and are
+ * applied in order within the per-tick budget, a full queue pauses reads
+ * until it drains, rate limits drop (resyncing dropped block actions) and
+ * then kick without charging the backlog read after a pause, and a closed queue
+ * applies nothing and tears the player down on the draining thread,
+ * after any packet being applied, without making the closing thread wait.
+ */
+class InboundPacketQueueTest {
+
+    /** Catches exceptions fired down the pipeline, like a connection handler would. */
+    private static final class ErrorCatcher extends ChannelInboundHandlerAdapter {
+        final List<Throwable> caught = new ArrayList<>();
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            caught.add(cause);
+        }
+    }
+
+    private final ErrorCatcher errors = new ErrorCatcher();
+    private final EmbeddedChannel channel = new EmbeddedChannel(errors);
+    private final ConnectedPlayer player = new ConnectedPlayer(0, "flooder", null, channel, ProtocolVersion.BETA_1_7_3);
+    private final List<Packet> applied = new ArrayList<>();
+    /** Every block in the test world is stone. */
+    private final InboundPacketQueue queue = new InboundPacketQueue(player, (x, y, z) -> 1, applied::add);
+
+    @AfterEach
+    void tearDown() {
+        InboundPacketQueue.configure(true, 40, 256);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void packetsWaitForTheTickAndApplyInOrderWithinBudget() {
+        InboundPacketQueue.configure(true, 2, 256);
+        Packet first = new PlayerPositionPacket(1, 65, 66.62, 1, true);
+        Packet second = new PlayerDiggingPacket(0, 1, 64, 1, 1);
+        Packet third = new ChatPacket("hi");
+        assertTrue(queue.submit(first));
+        assertTrue(queue.submit(second));
+        assertTrue(queue.submit(third));
+        assertTrue(applied.isEmpty(), "Nothing is applied on the event loop");
+        assertEquals(3, queue.size());
+
+        assertEquals(2, queue.drain(InboundPacketQueue.getPacketsPerTick()));
+        assertEquals(List.of(first, second), applied);
+        assertEquals(1, queue.drain(InboundPacketQueue.getPacketsPerTick()));
+        assertEquals(List.of(first, second, third), applied);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void fullQueuePausesReadsUntilDrained() {
+        InboundPacketQueue.configure(true, 40, 8);
+        for (int i = 0; i < 7; i++) {
+            queue.submit(new PingPacket());
+        }
+        assertTrue(channel.config().isAutoRead());
+        queue.submit(new PingPacket());
+        assertTrue(queue.isPaused());
+        assertFalse(channel.config().isAutoRead(), "Reads pause at the limit");
+
+        // Still above half the limit: stays paused
+        queue.drain(3);
+        channel.runPendingTasks();
+        assertFalse(channel.config().isAutoRead());
+
+        queue.drain(1);
+        channel.runPendingTasks();
+        assertFalse(queue.isPaused());
+        assertTrue(channel.config().isAutoRead(), "Reads resume at half the limit");
+    }
+
+    @Test
+    void overflowingTheQueueKicks() {
+        InboundPacketQueue.configure(true, 40, 4);
+        for (int i = 0; i < 4 * InboundPacketQueue.OVERFLOW_FACTOR; i++) {
+            queue.submit(new PingPacket());
+        }
+        channel.runPendingTasks();
+        assertTrue(queue.isClosed());
+        assertFalse(channel.isActive());
+    }
+
+    @Test
+    void rateLimitDropsThenKicks() {
+        int limit = InboundPacketQueue.Category.CHAT.getPerSecond();
+        long now = 1_000_000_000L;
+        for (int i = 0; i < limit * InboundPacketQueue.BURST_SECONDS; i++) {
+            assertTrue(queue.submit(new ChatPacket("spam " + i), now));
+        }
+        assertFalse(queue.submit(new ChatPacket("one too many"), now));
+        assertEquals(1, queue.getDropped());
+        assertTrue(queue.submit(new PlayerPositionPacket(0, 65, 66.62, 0, true), now),
+                "Other categories have their own limit");
+
+        // A new second brings a fresh allowance
+        now += 1_000_000_000L;
+        assertTrue(queue.submit(new ChatPacket("later"), now));
+
+        for (int i = 1; i < limit * InboundPacketQueue.KICK_FACTOR; i++) {
+            queue.submit(new ChatPacket("flood"), now);
+        }
+        assertTrue(channel.isActive(), "At the kick threshold, not past it");
+        queue.submit(new ChatPacket("flood"), now);
+        channel.runPendingTasks();
+        assertTrue(queue.isClosed());
+        assertFalse(channel.isActive());
+        assertFalse(queue.submit(new ChatPacket("after kick"), now));
+    }
+
+    @Test
+    void droppedDigSendsTheRealBlockBack() {
+        int limit = InboundPacketQueue.Category.DIGGING.getPerSecond();
+        long now = 1_000_000_000L;
+        for (int i = 0; i < limit * InboundPacketQueue.BURST_SECONDS; i++) {
+            queue.submit(new PlayerDiggingPacket(0, 1, 64, 1, 1), now);
+        }
+        assertNull(channel.readOutbound());
+        assertFalse(queue.submit(new PlayerDiggingPacket(2, 5, 64, 7, 1), now));
+        SetBlockServerPacket resync = channel.readOutbound();
+        assertNotNull(resync, "Dropped dig is answered with the server's block");
+        assertEquals(List.of(5, 64, 7, 1),
+                List.of(resync.getX(), resync.getY(), resync.getZ(), resync.getBlockType()));
+    }
+
+    @Test
+    void backlogReadAfterAResumeIsNotCharged() {
+        InboundPacketQueue.configure(true, 40, 8);
+        int limit = InboundPacketQueue.Category.CHAT.getPerSecond();
+        long now = 1_000_000_000L;
+        for (int i = 0; i < 8; i++) {
+            assertTrue(queue.submit(new ChatPacket("before " + i), now));
+        }
+        assertTrue(queue.isPaused());
+        queue.drain(40);
+        channel.runPendingTasks();
+        assertFalse(queue.isPaused());
+
+        // Ten seconds of chat at the limit arrive at once when reads resume
+        now += 10_000_000_000L;
+        for (int i = 0; i < limit * 10; i++) {
+            assertTrue(queue.submit(new ChatPacket("backlog " + i), now), "packet " + i);
+            queue.drain(40);
+        }
+        assertEquals(0, queue.getDropped());
+        assertTrue(channel.isActive());
+    }
+
+    @Test
+    void stallWithoutAPauseOnlyKeepsTheBurstAllowance() {
+        int limit = InboundPacketQueue.Category.CHAT.getPerSecond();
+        long now = 1_000_000_000L;
+        queue.submit(new ChatPacket("first"), now);
+        now += 10_000_000_000L;
+        int accepted = 0;
+        for (int i = 0; i < limit * 3; i++) {
+            if (queue.submit(new ChatPacket("burst " + i), now)) accepted++;
+            queue.drain(40);
+        }
+        assertEquals(limit * InboundPacketQueue.BURST_SECONDS, accepted);
+        assertEquals(limit * 3 - accepted, queue.getDropped());
+        assertTrue(channel.isActive(), "Dropped, not kicked");
+    }
+
+    @Test
+    void closedQueueAppliesNothingAndTearsDownOnDrain() {
+        List<String> teardowns = new ArrayList<>();
+        queue.submit(new SetBlockClientPacket(1, 2, 3, 1, 1));
+        queue.close(() -> teardowns.add(Thread.currentThread().getName()), true);
+        assertTrue(teardowns.isEmpty(), "Teardown waits for the tick thread");
+        assertEquals(0, queue.drain(40));
+        assertTrue(applied.isEmpty());
+        assertEquals(0, queue.size());
+        assertEquals(1, teardowns.size());
+        queue.drain(40);
+        assertEquals(1, teardowns.size(), "Teardown runs once");
+        assertFalse(queue.submit(new SetBlockClientPacket(1, 2, 3, 1, 1)));
+    }
+
+    @Test
+    void closeWithoutATickLoopTearsDownInline() {
+        List<String> teardowns = new ArrayList<>();
+        queue.close(() -> teardowns.add("down"), false);
+        assertEquals(List.of("down"), teardowns);
+    }
+
+    @Test
+    void teardownWaitsForAPacketBeingAppliedButCloseDoesNot() throws Exception {
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new java.util.concurrent.CopyOnWriteArrayList<>();
+        InboundPacketQueue blocking = new InboundPacketQueue(player, null, packet -> {
+            applying.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+            order.add("applied");
+        });
+        blocking.submit(new ChatPacket("slow"));
+        blocking.submit(new ChatPacket("queued"));
+        Thread tick = new Thread(() -> blocking.drain(1));
+        tick.start();
+        assertTrue(applying.await(5, TimeUnit.SECONDS));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> blocking.close(() -> order.add("teardown"), true));
+        release.countDown();
+        tick.join(5000);
+
+        // The same drain stops after the packet, drops the rest and tears down
+        assertEquals(List.of("applied", "teardown"), order);
+        assertEquals(0, blocking.size());
+        assertEquals(0, blocking.drain(40));
+    }
+
+    @Test
+    void failingPacketGoesToExceptionCaughtAndDrainContinues() {
+        RuntimeException boom = new IllegalStateException("boom");
+        List<Packet> seen = new ArrayList<>();
+        InboundPacketQueue failing = new InboundPacketQueue(player, null, packet -> {
+            seen.add(packet);
+            if (packet instanceof ChatPacket) throw boom;
+        });
+        failing.submit(new ChatPacket("bad"));
+        failing.submit(new PingPacket());
+        assertEquals(2, failing.drain(40));
+        assertEquals(2, seen.size());
+        assertEquals(List.of(boom), errors.caught);
+    }
+
+    @Test
+    void disabledQueueAppliesInline() {
+        InboundPacketQueue.configure(false, 40, 256);
+        Packet packet = new MessagePacket(-1, "hello");
+        assertTrue(queue.submit(packet));
+        assertEquals(List.of(packet), applied);
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void packetsAreCategorized() {
+        assertEquals(InboundPacketQueue.Category.MOVEMENT,
+                InboundPacketQueue.categorize(new PlayerPositionPacket(0, 65, 66.62, 0, true)));
+        assertEquals(InboundPacketQueue.Category.DIGGING,
+                InboundPacketQueue.categorize(new PlayerDiggingPacket(0, 1, 64, 1, 1)));
+        assertEquals(InboundPacketQueue.Category.PLACEMENT,
+                InboundPacketQueue.categorize(new SetBlockClientPacket(1, 2, 3, 1, 1)));
+        assertEquals(InboundPacketQueue.Category.CHAT, InboundPacketQueue.categorize(new MessagePacket(-1, "x")));
+        assertEquals(InboundPacketQueue.Category.OTHER, InboundPacketQueue.categorize(new PingPacket()));
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.martinambrus.rdforward.server;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for LoginGate: logins beyond the cap wait in a FIFO join queue
+ * and continue when a slot frees up, a full queue or a wait that runs
+ * out disconnects with the client's place in line, and closing a
+ * connection gives up its slot or place.
+ */
+class LoginGateTest {
+
+    private final List<EmbeddedChannel> channels = new ArrayList<>();
+    private final List<String> proceeded = new ArrayList<>();
+    private final List<String> rejections = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (EmbeddedChannel ch : channels) {
+            ch.finishAndReleaseAll();
+        }
+        LoginGate.configure(16, 64, 20);
+        assertEquals(0, LoginGate.getInProgress(), "Every slot is given back");
+        assertEquals(0, LoginGate.getQueued());
+    }
+
+    private LoginGate.Ticket enter(String name) {
+        EmbeddedChannel ch = new EmbeddedChannel();
+        ch.freezeTime();
+        channels.add(ch);
+        return LoginGate.enter(ch, () -> proceeded.add(name), rejections::add);
+    }
+
+    private void runTasks() {
+        for (EmbeddedChannel ch : channels) {
+            ch.runPendingTasks();
+        }
+    }
+
+    @Test
+    void loginsBeyondTheCapWaitInOrder() {
+        LoginGate.configure(2, 8, 20);
+        LoginGate.Ticket a = enter("a");
+        LoginGate.Ticket b = enter("b");
+        LoginGate.Ticket c = enter("c");
+        LoginGate.Ticket d = enter("d");
+        assertEquals(List.of("a", "b"), proceeded);
+        assertTrue(c.isQueued());
+        assertEquals(2, LoginGate.getInProgress());
+        assertEquals(2, LoginGate.getQueued());
+
+        a.release();
+        a.release(); // idempotent
+        runTasks();
+        assertEquals(List.of("a", "b", "c"), proceeded, "The slot passes to the head of the queue");
+        assertFalse(c.isQueued());
+        assertTrue(d.isQueued());
+        assertEquals(2, LoginGate.getInProgress());
+
+        b.release();
+        c.release();
+        runTasks();
+        d.release();
+        assertEquals(List.of("a", "b", "c", "d"), proceeded);
+        assertTrue(rejections.isEmpty());
+    }
+
+    @Test
+    void fullQueueRejectsAtOnce() {
+        LoginGate.configure(1, 1, 20);
+        enter("a");
+        enter("b");
+        long before = LoginGate.getTotalRejected();
+        LoginGate.Ticket c = enter("c");
+        assertFalse(c.isQueued());
+        assertEquals(1, rejections.size());
+        assertTrue(rejections.get(0).startsWith("Server busy: 1 players are already waiting"), rejections.get(0));
+        assertEquals(before + 1, LoginGate.getTotalRejected());
+        channels.forEach(EmbeddedChannel::close);
+    }
+
+    @Test
+    void queuedLoginTimesOutWithItsPosition() {
+        LoginGate.configure(1, 4, 5);
+        enter("a");
+        enter("b");
+        LoginGate.Ticket c = enter("c");
+        for (EmbeddedChannel ch : channels) {
+            ch.advanceTimeBy(6, TimeUnit.SECONDS);
+            ch.runScheduledPendingTasks();
+        }
+        assertFalse(c.isQueued());
+        assertEquals(List.of("Server busy: still #1 in the join queue after 5 seconds. Please reconnect.",
+                "Server busy: still #1 in the join queue after 5 seconds. Please reconnect."), rejections);
+        assertEquals(List.of("a"), proceeded);
+        channels.forEach(EmbeddedChannel::close);
+    }
+
+    @Test
+    void closingAConnectionFreesItsSlotOrPlace() {
+        LoginGate.configure(1, 4, 20);
+        enter("a");
+        enter("b");
+        enter("c");
+        channels.get(1).close(); // b leaves the queue
+        assertEquals(1, LoginGate.getQueued());
+
+        channels.get(0).close(); // a's slot goes to c
+        runTasks();
+        assertEquals(List.of("a", "c"), proceeded);
+        assertEquals(1, LoginGate.getInProgress());
+        channels.get(2).close();
+    }
+
+    @Test
+    void zeroMeansNoLimit() {
+        LoginGate.configure(0, 0, 20);
+        for (int i = 0; i < 50; i++) {
+            enter("p" + i);
+        }
+        assertEquals(50, proceeded.size());
+        assertEquals(0, LoginGate.getInProgress());
+    }
+}
@@ -0,0 +1,157 @@
+package com.github.martinambrus.rdforward.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for PlayerDataStore: double-precision round trips far outside the
+ * old fixed-point range, dirty-only writes, lazy loading, inventories and
+ * migration of the legacy server-players.dat.
+ */
+class PlayerDataStoreTest {
+
+    @TempDir
+    File dataDir;
+
+    @Test
+    void farCoordinatesSurviveRoundTrip() {
+        PlayerDataStore store = new PlayerDataStore(dataDir);
+        store.getOrCreate("Steve", null).setPosition(100000.25, 71.62, -250000.5, 90.0f, -45.0f);
+        assertEquals(1, store.saveDirty(null));
+
+        PlayerData loaded = new PlayerDataStore(dataDir).find("Steve", null);
+        assertNotNull(loaded);
+        assertTrue(loaded.hasPosition());
+        assertEquals(100000.25, loaded.getX());
+        assertEquals(71.62, loaded.getY());
+        assertEquals(-250000.5, loaded.getZ());
+        assertEquals(90.0f, loaded.getYaw());
+        assertEquals(-45.0f, loaded.getPitch());
+        assertEquals(64, loaded.getYawByte());
+        assertEquals(-32, loaded.getPitchByte());
+    }
+
+    @Test
+    void onlyDirtyPlayersAreWritten() {
+        PlayerDataStore store = new PlayerDataStore(dataDir);
+        store.getOrCreate("a", null).setPosition(1, 2, 3, 0, 0);
+        store.getOrCreate("b", null).setPosition(4, 5, 6, 0, 0);
+        assertEquals(2, store.saveDirty(null));
+        assertEquals(0, store.saveDirty(null));
+
+        // Setting the same position again doesn't dirty the player
+        store.getOrCreate("a", null).setPosition(1, 2, 3, 0, 0);
+        assertEquals(0, store.getDirtyCount());
+
+        File b = store.fileFor("b");
+        long bModified = b.lastModified();
+        store.getOrCreate("a", null).setPosition(7, 8, 9, 0, 0);
+        assertEquals(1, store.saveDirty(null));
+        assertEquals(bModified, b.lastModified());
+        assertFalse(new File(b.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    void inventoryAndMetadataAreLoadedLazily() {
+        PlayerDataStore store = new PlayerDataStore(dataDir);
+        int[] slots = new int[PlayerData.INVENTORY_SLOTS * 3];
+        slots[36 * 3] = 4;
+        slots[36 * 3 + 1] = 64;
+        PlayerData data = store.getOrCreate("Alex", null);
+        data.setInventory(slots, new int[] {1, 2, 0});
+        data.setDimension(-1);
+        data.setMetadata("home", "10,64,10");
+        store.saveDirty(null);
+
+        PlayerDataStore fresh = new PlayerDataStore(dataDir);
+        assertNull(fresh.find("Nobody", null));
+        PlayerData loaded = fresh.find("Alex", null);
+        assertNotNull(loaded);
+        assertFalse(loaded.isDirty());
+        assertFalse(loaded.hasPosition());
+        assertArrayEquals(slots, loaded.getInventory());
+        assertArrayEquals(new int[] {1, 2, 0}, loaded.getCursor());
+        assertEquals(-1, loaded.getDimension());
+        assertEquals("10,64,10", loaded.getMetadata("home"));
+    }
+
+    @Test
+    void inventoryAdapterLeavesTheStoredInventoryAlone() {
+        PlayerDataStore seeded = new PlayerDataStore(dataDir);
+        int[] slots = new int[45 * 3];
+        slots[9 * 3] = 20;
+        slots[9 * 3 + 1] = 12;
+        seeded.getOrCreate("Steve", null).setInventory(slots, new int[3]);
+        seeded.saveDirty(null);
+
+        // Clients can't be resynced yet, so a session starts from empty slots...
+        PlayerDataStore store = new PlayerDataStore(dataDir);
+        InventoryAdapter adapter = new InventoryAdapter();
+        adapter.setPlayerDataStore(store);
+        adapter.initPlayer("Steve");
+        assertTrue(adapter.getSlot("Steve", 9).isEmpty());
+
+        // ...and must not overwrite the stored inventory with that state
+        adapter.setSlot("Steve", 10, 4, 1, 0);
+        adapter.removePlayer("Steve", null);
+        store.saveDirty(null);
+
+        PlayerData saved = new PlayerDataStore(dataDir).find("Steve", null);
+        assertNotNull(saved);
+        assertEquals(20, saved.getInventory()[9 * 3]);
+        assertEquals(12, saved.getInventory()[9 * 3 + 1]);
+        assertEquals(0, saved.getInventory()[10 * 3]);
+    }
+
+    @Test
+    void legacyFileIsMigrated() throws IOException {
+        File legacy = new File(dataDir, PlayerDataStore.LEGACY_FILE_NAME);
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(legacy)))) {
+            out.writeInt(2);
+            out.writeUTF("Notch");
+            out.writeShort(128 * 32 + 16);
+            out.writeShort((int) Math.round(43.62 * 32));
+            out.writeShort(-5 * 32);
+            out.writeByte(64);
+            out.writeByte(0);
+            out.writeUTF("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+            out.writeShort(32);
+            out.writeShort(64);
+            out.writeShort(96);
+            out.writeByte(0);
+            out.writeByte(0);
+        }
+
+        PlayerDataStore store = new PlayerDataStore(dataDir);
+        PlayerData notch = store.find("Notch", null);
+        assertNotNull(notch);
+        assertEquals(128.5, notch.getX());
+        assertEquals(Math.round(43.62 * 32) / 32.0, notch.getY());
+        assertEquals(-5.0, notch.getZ());
+        assertEquals(90.0f, notch.getYaw());
+        assertFalse(legacy.exists());
+        assertTrue(new File(legacy.getPath() + ".migrated").exists());
+        assertTrue(store.fileFor("069a79f4-44e9-4726-a5be-fca90e38aaf5").isFile());
+
+        PlayerData byUuid = new PlayerDataStore(dataDir).find(null, "069a79f4-44e9-4726-a5be-fca90e38aaf5");
+        assertNotNull(byUuid);
+        assertEquals(2.0, byUuid.getY());
+    }
+
+    @Test
+    void fileNamesAreSafeAndCaseDistinct() {
+        assertEquals("steve", PlayerDataStore.fileName("steve"));
+        assertEquals("^steve", PlayerDataStore.fileName("Steve"));
+        assertNotEquals(PlayerDataStore.fileName("steve"), PlayerDataStore.fileName("Steve"));
+        assertEquals("a~002e~002e~002fb", PlayerDataStore.fileName("a../b"));
+        assertEquals("069a79f4-44e9", PlayerDataStore.fileName("069a79f4-44e9"));
+    }
+}
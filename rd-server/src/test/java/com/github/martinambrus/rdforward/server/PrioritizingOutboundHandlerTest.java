@@ -0,0 +1,132 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.protocol.packet.alpha.TimeUpdatePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.DespawnPlayerPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.LevelDataChunkPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.MessagePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.PingPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.PlayerTeleportPacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.PositionOrientationUpdatePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.PositionUpdatePacket;
+import com.github.martinambrus.rdforward.protocol.packet.classic.SpawnPlayerPacket;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for PrioritizingOutboundHandler: priority order on flush,
+ * folding of queued relative moves into one teleport, and holding
+ * coalesced motion back while the channel is not writable.
+ */
+class PrioritizingOutboundHandlerTest {
+
+    /** Sits between the handler and the socket, recording what gets through. */
+    private static final class Recorder extends ChannelOutboundHandlerAdapter {
+        final List<Object> written = new ArrayList<>();
+        boolean blockFlush;
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+            written.add(msg);
+            ctx.write(msg, promise);
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) {
+            if (!blockFlush) ctx.flush();
+        }
+    }
+
+    private final Recorder recorder = new Recorder();
+    private final PrioritizingOutboundHandler handler = new PrioritizingOutboundHandler();
+    private final EmbeddedChannel channel = new EmbeddedChannel(recorder, handler);
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void flushWritesInPriorityOrder() {
+        MessagePacket chat = new MessagePacket(0, "hello");
+        LevelDataChunkPacket chunk = new LevelDataChunkPacket(1, new byte[1024], 0);
+        PingPacket ping = new PingPacket();
+        PositionUpdatePacket move = new PositionUpdatePacket(3, 1, 0, 0);
+        channel.write(chunk);
+        channel.write(move);
+        channel.write(chat);
+        channel.write(ping);
+        assertTrue(recorder.written.isEmpty(), "nothing goes out before the flush");
+
+        channel.flush();
+        assertEquals(List.of(ping, chat, move, chunk), recorder.written);
+    }
+
+    @Test
+    void queuedRelativeMovesFoldIntoOneTeleport() {
+        channel.writeAndFlush(new SpawnPlayerPacket(5, "Steve", (short) 100, (short) 200, (short) 300, 0, 0));
+        recorder.written.clear();
+
+        channel.write(new PositionUpdatePacket(5, 10, 0, 0));
+        channel.write(new PositionOrientationUpdatePacket(5, 5, 1, -2, 20, 30));
+        channel.write(new PositionUpdatePacket(5, 1, 0, 0));
+        channel.flush();
+
+        assertEquals(1, recorder.written.size());
+        PlayerTeleportPacket folded = assertInstanceOf(PlayerTeleportPacket.class, recorder.written.get(0));
+        assertEquals(5, folded.getPlayerId());
+        assertEquals(116, folded.getX());
+        assertEquals(201, folded.getY());
+        assertEquals(298, folded.getZ());
+        assertEquals(20, folded.getYaw());
+        assertEquals(30, folded.getPitch());
+        assertEquals(2, handler.getCoalescedCount());
+    }
+
+    @Test
+    void despawnCancelsQueuedMoves() {
+        channel.writeAndFlush(new SpawnPlayerPacket(7, "Alex", (short) 0, (short) 0, (short) 0, 0, 0));
+        recorder.written.clear();
+
+        DespawnPlayerPacket despawn = new DespawnPlayerPacket(7);
+        channel.write(new PositionUpdatePacket(7, 3, 0, 0));
+        channel.write(despawn);
+        channel.flush();
+        assertEquals(List.of(despawn), recorder.written);
+    }
+
+    @Test
+    void motionIsHeldAndCoalescedWhileUnwritable() {
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(8, 16));
+        // Fill the outbound buffer below the handler without flushing it
+        channel.pipeline().context(recorder).write(Unpooled.wrappedBuffer(new byte[64]));
+        assertFalse(channel.isWritable());
+
+        recorder.blockFlush = true;
+        MessagePacket chat = new MessagePacket(0, "still delivered");
+        TimeUpdatePacket latest = new TimeUpdatePacket(3000);
+        channel.write(new TimeUpdatePacket(1000));
+        channel.write(chat);
+        channel.writeAndFlush(new TimeUpdatePacket(2000));
+        channel.writeAndFlush(latest);
+        assertEquals(List.of(chat), recorder.written, "time of day waits for the channel to drain");
+
+        // Socket drains: writability returns and the held update follows
+        recorder.blockFlush = false;
+        channel.flush();
+        channel.runPendingTasks();
+        assertTrue(channel.isWritable());
+        assertEquals(List.of(chat, latest), recorder.written);
+        assertEquals(2, handler.getCoalescedCount());
+    }
+}
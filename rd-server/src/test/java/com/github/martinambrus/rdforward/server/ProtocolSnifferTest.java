@@ -0,0 +1,175 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.protocol.ProtocolVersion;
+import com.github.martinambrus.rdforward.server.ProtocolSniffer.Confidence;
+import com.github.martinambrus.rdforward.server.ProtocolSniffer.Family;
+import com.github.martinambrus.rdforward.server.ProtocolSniffer.Verdict;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ProtocolSniffer against a corpus of first packets, one per
+ * supported version: every packet is classified as its family, a packet
+ * split at any byte is either waited on or classified the same way, and
+ * a dedicated port only tells legacy pings apart.
+ */
+class ProtocolSnifferTest {
+
+    private record Capture(String label, Family family, byte[] bytes) {}
+
+    private final ProtocolSniffer sniffer = ProtocolSniffer.standard();
+
+    private static List<Capture> corpus() throws IOException {
+        List<Capture> captures = new ArrayList<>();
+        try (InputStream in = ProtocolSnifferTest.class.getResourceAsStream("/protocol-detection/first-packets.txt")) {
+            assertNotNull(in, "corpus resource");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+                String[] parts = line.trim().split(" ");
+                Family family = Family.byConfigName(parts[1]);
+                assertNotNull(family, line);
+                byte[] bytes = "-".equals(parts[2]) ? new byte[0] : HexFormat.of().parseHex(parts[2]);
+                captures.add(new Capture(parts[0], family, bytes));
+            }
+        }
+        return captures;
+    }
+
+    @Test
+    void corpusCoversEveryTcpVersion() throws IOException {
+        Set<String> labels = new HashSet<>();
+        for (Capture c : corpus()) labels.add(c.label());
+        for (ProtocolVersion v : ProtocolVersion.values()) {
+            if (v == ProtocolVersion.BEDROCK) continue;
+            assertTrue(labels.contains(v.name()), "No first packet for " + v.name());
+        }
+    }
+
+    @Test
+    void everyCapturedFirstPacketIsClassified() throws IOException {
+        Set<Family> seen = EnumSet.noneOf(Family.class);
+        for (Capture c : corpus()) {
+            ByteBuf buf = Unpooled.wrappedBuffer(c.bytes());
+            Verdict verdict = sniffer.sniff(buf);
+            if (c.family() == Family.LCE) {
+                // Nothing to sniff: LCE is recognized by the silence timer
+                assertTrue(verdict.needsMore(), c.label());
+            } else {
+                assertEquals(c.family(), verdict.family(), c.label());
+                assertEquals(Confidence.CERTAIN, verdict.confidence(), c.label());
+                assertEquals(0, buf.readerIndex(), "Sniffing consumes nothing");
+            }
+            seen.add(c.family());
+        }
+        assertEquals(EnumSet.allOf(Family.class), seen);
+    }
+
+    @Test
+    void splitFirstPacketWaitsOrAgrees() throws IOException {
+        for (Capture c : corpus()) {
+            boolean decided = false;
+            // A lone 0xFE is a complete Beta ping, so a Handshake whose length
+            // starts with 0xFE can only be told apart from its second byte on
+            int first = c.bytes().length > 0 && (c.bytes()[0] & 0xFF) == 0xFE && c.family() == Family.NETTY ? 2 : 1;
+            for (int n = first; n <= c.bytes().length && !decided; n++) {
+                Verdict verdict = sniffer.sniff(Unpooled.wrappedBuffer(c.bytes(), 0, n));
+                if (verdict.needsMore()) continue;
+                assertEquals(c.family(), verdict.family(), c.label() + " split after " + n + " bytes");
+                decided = true;
+            }
+            assertEquals(c.family() != Family.LCE, decided, c.label());
+        }
+    }
+
+    @Test
+    void splitNettyHandshakeNeedsTheSecondByte() {
+        byte[] handshake = HexFormat.of().parseHex("0f002f096c6f63616c686f737463dd02");
+        assertTrue(sniffer.sniff(Unpooled.wrappedBuffer(handshake, 0, 1)).needsMore());
+        assertEquals(Family.NETTY, sniffer.sniff(Unpooled.wrappedBuffer(handshake, 0, 2)).family());
+    }
+
+    @Test
+    void nettyHandshakeOfLength254IsNotAPing() {
+        // VarInt 254 is FE 01, the same start as a 1.4 ping; the packet ID tells them apart
+        Verdict verdict = sniffer.sniff(Unpooled.wrappedBuffer(HexFormat.of().parseHex("fe0100")));
+        assertEquals(Family.NETTY, verdict.family());
+    }
+
+    @Test
+    void nettyHandshakeWhoseLengthStartsWithFeIsNotAPing() {
+        // 382 bytes is FE 02, 510 is FE 03: only FE, FE 01 and FE 01 FA are pings
+        for (String hex : new String[] {"fe0200", "fe0300", "fe7f00", "fe01fb"}) {
+            ByteBuf buf = Unpooled.wrappedBuffer(HexFormat.of().parseHex(hex));
+            assertNotEquals(Family.LEGACY_PING, sniffer.sniff(buf).family(), hex);
+            assertNotEquals(Family.LEGACY_PING, sniffer.sniffAs(Family.NETTY, buf).family(), hex);
+        }
+        assertEquals(Family.NETTY, sniffer.sniff(Unpooled.wrappedBuffer(HexFormat.of().parseHex("fe0200"))).family());
+    }
+
+    @Test
+    void ambiguousBytesFallBackToLikelyThenNati() {
+        // Classic with an unknown version byte is only likely
+        Verdict classic = sniffer.sniff(Unpooled.wrappedBuffer(new byte[] {0x00, 0x01, 'x'}));
+        assertEquals(Family.CLASSIC, classic.family());
+        assertEquals(Confidence.LIKELY, classic.confidence());
+
+        // A 2 KB Netty frame is plausible but unusual for a Handshake
+        Verdict big = sniffer.sniff(Unpooled.wrappedBuffer(new byte[] {(byte) 0x80, 0x10, 0x00}));
+        assertEquals(Family.NETTY, big.family());
+        assertEquals(Confidence.LIKELY, big.confidence());
+
+        // Nothing matches at all: the pipeline's default
+        Verdict fallback = sniffer.sniff(Unpooled.wrappedBuffer(new byte[] {0x05, 0x05}));
+        assertEquals(Family.NATI, fallback.family());
+        assertEquals(Confidence.NONE, fallback.confidence());
+    }
+
+    @Test
+    void matcherThatKeepsAskingStopsHoldingUpAtTheSniffLimit() {
+        ProtocolSniffer undecided = new ProtocolSniffer(List.of(
+                new ProtocolSniffer.Rule(Family.EAGLERCRAFT, buf -> Confidence.NEED_MORE)));
+        byte[] bytes = new byte[ProtocolSniffer.MAX_SNIFF_BYTES];
+        assertTrue(undecided.sniff(Unpooled.wrappedBuffer(bytes, 0, bytes.length - 1)).needsMore());
+        assertEquals(Family.NATI, undecided.sniff(Unpooled.wrappedBuffer(bytes)).family());
+    }
+
+    @Test
+    void dedicatedPortOnlyTellsPingsApart() {
+        byte[] netty = HexFormat.of().parseHex("0f002f096c6f63616c686f737463dd02");
+        assertEquals(Family.NETTY, sniffer.sniffAs(Family.NETTY, Unpooled.wrappedBuffer(netty)).family());
+        assertEquals(Family.LEGACY_PING,
+                sniffer.sniffAs(Family.NETTY, Unpooled.wrappedBuffer(new byte[] {(byte) 0xFE, 0x01})).family());
+
+        // Whatever arrives on a dedicated port is that family, however unlikely
+        Verdict forced = sniffer.sniffAs(Family.CLASSIC, Unpooled.wrappedBuffer(netty));
+        assertEquals(Family.CLASSIC, forced.family());
+        assertEquals(Confidence.NONE, forced.confidence());
+
+        assertTrue(sniffer.sniffAs(Family.EAGLERCRAFT, Unpooled.wrappedBuffer(new byte[] {'G', 'E'})).needsMore());
+        assertEquals(Family.NATI, sniffer.sniffAs(Family.NATI, Unpooled.wrappedBuffer(new byte[] {0, 0})).family());
+    }
+
+    @Test
+    void familiesParseFromConfigNames() {
+        assertEquals(Family.LEGACY_PING, Family.byConfigName("legacy-ping"));
+        assertEquals(Family.LCE, Family.byConfigName(" LCE "));
+        assertNull(Family.byConfigName("bedrock"));
+    }
+}
@@ -7,7 +7,10 @@ import org.junit.jupiter.api.Test;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -154,4 +157,129 @@ class ServerWorldTest {
         assertEquals(1, world.getBlock(0, 0, 0));
         assertEquals(2, world.getBlock(15, 7, 15));
     }
+
+    @Test
+    void readRegionCopiesInWorldOrderAndPadsOutOfBoundsWithAir() {
+        ServerWorld world = new ServerWorld(16, 8, 16);
+        world.setBlock(0, 0, 0, (byte) 1);
+        world.setBlock(1, 2, 3, (byte) 4);
+
+        // Box from (-1,0,0) to (1,2,3): 3 wide, 3 tall, 4 deep
+        byte[] dest = new byte[3 * 3 * 4];
+        Arrays.fill(dest, (byte) 9);
+        world.readRegion(-1, 0, 0, 1, 2, 3, dest);
+
+        assertEquals(0, dest[0], "x = -1 is outside the world");
+        assertEquals(1, dest[1]);
+        assertEquals(4, dest[(2 * 4 + 3) * 3 + 2]);
+        for (byte b : dest) assertNotEquals(9, b);
+    }
+
+    @Test
+    void fillRegionReportsOnlyChangedBlocksGroupedByChunk() {
+        ServerWorld world = new ServerWorld(32, 8, 32);
+        world.setBlock(20, 1, 20, (byte) 5);
+
+        BlockChangeSet applied = new BlockChangeSet();
+        world.fillRegion(10, 1, 10, 40, 1, 21, (byte) 5, applied);
+
+        // x 10..31 (clipped) * z 10..21, minus the block that was already 5
+        assertEquals(22 * 12 - 1, applied.size());
+        assertEquals(5, world.getBlock(31, 1, 21));
+        assertEquals(0, world.getBlock(10, 2, 10));
+
+        // Each chunk's changes form one contiguous run
+        Set<Long> seen = new HashSet<>();
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < applied.size(); i++) {
+            long chunk = ((long) (applied.getX(i) >> 4) << 32) | (applied.getZ(i) >> 4);
+            if (chunk != previous) {
+                assertTrue(seen.add(chunk), "chunk revisited after its run ended");
+                previous = chunk;
+            }
+        }
+        assertEquals(4, seen.size());
+    }
+
+    @Test
+    void applyBlockChangesSkipsOutOfBoundsAndLastChangeWins() {
+        ServerWorld world = new ServerWorld(32, 8, 32);
+        BlockChangeSet changes = new BlockChangeSet();
+        changes.add(20, 0, 3, (byte) 1);
+        changes.add(2, 0, 3, (byte) 1);
+        changes.add(99, 0, 3, (byte) 1);
+        changes.add(2, 0, 3, (byte) 7);
+        changes.add(5, 5, 5, (byte) 0); // already air
+
+        BlockChangeSet applied = new BlockChangeSet();
+        world.applyBlockChanges(changes, applied);
+
+        assertEquals(3, applied.size());
+        assertEquals(7, world.getBlock(2, 0, 3));
+        assertEquals(1, world.getBlock(20, 0, 3));
+        // Grouped by chunk: the chunk-0 changes come first, in input order
+        assertEquals(2, applied.getX(0));
+        assertEquals(1, applied.getType(0));
+        assertEquals(7, applied.getType(1));
+        assertEquals(20, applied.getX(2));
+    }
+
+    @Test
+    void processPendingIntoSetGroupsBySection() {
+        ServerWorld world = new ServerWorld(32, 32, 16);
+        world.queueBlockChange(1, 20, 1, (byte) 1);
+        world.queueBlockChange(17, 1, 1, (byte) 2);
+        world.queueBlockChange(2, 1, 2, (byte) 3);
+        world.queueBlockChange(3, 21, 3, (byte) 4);
+
+        BlockChangeSet applied = new BlockChangeSet();
+        world.processPendingBlockChanges(applied);
+
+        assertEquals(4, applied.size());
+        int[] expectedY = {1, 20, 21, 1};
+        for (int i = 0; i < expectedY.length; i++) {
+            assertEquals(expectedY[i], applied.getY(i), "entry " + i);
+        }
+        assertEquals(17, applied.getX(3));
+
+        BlockChangeSet none = new BlockChangeSet();
+        world.processPendingBlockChanges(none);
+        assertTrue(none.isEmpty(), "queue was drained");
+    }
+
+    @Test
+    void outOfBoundsQueuedChangesNeverAliasIntoTheWorld() {
+        ServerWorld world = new ServerWorld(16, 8, 16);
+        world.queueBlockChange(-1, 1, 1, (byte) 1);
+        world.queueBlockChange(1 << 26, 1, 1, (byte) 1); // would wrap to x=0 if packed unchecked
+        world.queueBlockChange(1, 1, 1, (byte) 2);
+
+        BlockChangeSet applied = new BlockChangeSet();
+        world.processPendingBlockChanges(applied);
+        assertEquals(1, applied.size());
+        assertEquals(0, world.getBlock(0, 1, 1));
+        assertEquals(2, world.getBlock(1, 1, 1));
+    }
+
+    @Test
+    void changesAppliedOffTheTickThreadArePublishedWithTheNextBatch() {
+        ServerWorld world = new ServerWorld(32, 8, 32);
+        BlockChangeSet filled = new BlockChangeSet();
+        world.fillRegion(0, 0, 0, 1, 0, 0, (byte) 4, filled);
+        world.publishAppliedChanges(filled);
+        filled.clear(); // the hand-off copied the changes
+        world.queueBlockChange(20, 1, 1, (byte) 2);
+
+        BlockChangeSet applied = new BlockChangeSet();
+        world.processPendingBlockChanges(applied);
+        assertEquals(3, applied.size());
+        assertEquals(20, applied.getX(0), "queued changes first");
+        assertEquals(0, applied.getX(1));
+        assertEquals(1, applied.getX(2));
+        assertEquals(4, applied.getType(2));
+
+        BlockChangeSet none = new BlockChangeSet();
+        world.processPendingBlockChanges(none);
+        assertTrue(none.isEmpty(), "published once");
+    }
 }
@@ -0,0 +1,121 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.server.profiler.TickPhase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TickWatchdog: a tick blocked on a lock held by another thread
+ * produces a report naming the phase, the blocked lock and its owner's
+ * stack; the hard-stall action runs once; a dead tick thread counts as a
+ * stall; mod attribution comes from the mod class loader name.
+ */
+class TickWatchdogTest {
+
+    @TempDir
+    File dataDir;
+
+    private final Object worldLock = new Object();
+
+    @Test
+    void blockedTickIsReportedWithLockOwner() throws Exception {
+        TickWatchdog watchdog = new TickWatchdog(100, 200, 400, dataDir);
+        AtomicInteger shutdowns = new AtomicInteger();
+        watchdog.setHardStallAction(shutdowns::incrementAndGet);
+
+        CountDownLatch entered = new CountDownLatch(1);
+        Thread tick = new Thread(() -> {
+            watchdog.tickStarted(42, System.nanoTime());
+            watchdog.enterPhase(TickPhase.MOD_TICK);
+            entered.countDown();
+            synchronized (worldLock) {
+                watchdog.tickEnded();
+            }
+        }, "FakeTickLoop");
+
+        Thread holder = Thread.currentThread();
+        synchronized (worldLock) {
+            tick.start();
+            watchdog.watch(tick); // check() is driven by hand below
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (tick.getState() != Thread.State.BLOCKED && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+
+            long now = System.nanoTime();
+            watchdog.check(now + 50_000_000L);
+            assertEquals(0, watchdog.getStallsDetected(), "Under the warn threshold");
+            watchdog.check(now + 150_000_000L);
+            assertEquals(1, watchdog.getStallsDetected());
+            assertNull(watchdog.getLastReport());
+
+            watchdog.check(now + 250_000_000L);
+            File report = watchdog.getLastReport();
+            assertNotNull(report);
+            assertEquals(new File(dataDir, TickWatchdog.REPORT_DIR_NAME), report.getParentFile());
+            String text = Files.readString(report.toPath());
+            assertTrue(text.contains("Tick:    42"), text);
+            assertTrue(text.contains("Phase:   mod_tick"), text);
+            assertTrue(text.contains("\"FakeTickLoop\""), text);
+            assertTrue(text.contains("BLOCKED"), text);
+            assertTrue(text.contains("--- Owner of "), text);
+            assertTrue(text.contains("\"" + holder.getName() + "\""), text);
+            assertTrue(text.contains("blockedTickIsReportedWithLockOwner"), "Owner stack is included");
+
+            // Reports and shutdown happen once per stall
+            watchdog.check(now + 500_000_000L);
+            watchdog.check(now + 600_000_000L);
+            assertEquals(report, watchdog.getLastReport());
+            assertEquals(1, watchdog.getStallsDetected());
+        }
+        tick.join(5000);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (shutdowns.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, shutdowns.get());
+    }
+
+    @Test
+    void deadTickThreadIsAStall() throws Exception {
+        TickWatchdog watchdog = new TickWatchdog(100, 0, 0, dataDir);
+        Thread tick = new Thread(() -> watchdog.tickStarted(7, System.nanoTime()), "FakeTickLoop");
+        tick.start();
+        tick.join();
+        watchdog.watch(tick);
+        watchdog.check(System.nanoTime());
+        assertEquals(1, watchdog.getStallsDetected());
+    }
+
+    @Test
+    void finishedTicksAreNotStalls() {
+        TickWatchdog watchdog = new TickWatchdog(100, 200, 0, dataDir);
+        watchdog.watch(Thread.currentThread());
+        long start = System.nanoTime();
+        watchdog.tickStarted(1, start);
+        watchdog.tickEnded();
+        watchdog.check(start + 1_000_000_000L);
+        assertEquals(0, watchdog.getStallsDetected());
+    }
+
+    @Test
+    void modIsTakenFromModClassLoaderName() {
+        StackTraceElement[] stack = {
+                new StackTraceElement("app", "java.base", null, "java.lang.Object", "wait", null, -1),
+                new StackTraceElement("mod:slowmod", null, null, "com.example.SlowMod", "lambda$onEnable$0", "SlowMod.java", 12),
+                new StackTraceElement("mod:other", null, null, "com.example.Other", "run", "Other.java", 3),
+                new StackTraceElement("app", null, null, "com.github.martinambrus.rdforward.server.ServerTickLoop", "tick", "ServerTickLoop.java", 1),
+        };
+        assertEquals("slowmod", TickWatchdog.modOf(stack));
+        assertNull(TickWatchdog.modOf(new StackTraceElement[] {stack[0], stack[3]}));
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.martinambrus.rdforward.server;
+
+import com.github.martinambrus.rdforward.world.FlatWorldGenerator;
+import com.github.martinambrus.rdforward.world.alpha.AlphaLevelFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for WorldPregenerator: spiral ordering (which the progress file
+ * depends on) and an end-to-end run writing chunk files to disk.
+ */
+class WorldPregeneratorTest {
+
+    @TempDir
+    File worldDir;
+
+    @Test
+    void spiralOffsetMatchesSpiralIterator() {
+        int[] out = new int[2];
+        for (int radius = 0; radius <= 6; radius++) {
+            ChunkCoord[] expected = SpiralIterator.computeOffsets(radius);
+            for (int i = 0; i < expected.length; i++) {
+                WorldPregenerator.spiralOffset(i, out);
+                assertEquals(expected[i].getX(), out[0], "x at index " + i + ", radius " + radius);
+                assertEquals(expected[i].getZ(), out[1], "z at index " + i + ", radius " + radius);
+            }
+        }
+    }
+
+    @Test
+    void pregeneratesRegionAndRemovesProgressFile() throws InterruptedException {
+        ChunkManager chunkManager = new ChunkManager(new FlatWorldGenerator(), 1L, worldDir);
+        chunkManager.getIOThread().start();
+        try {
+            WorldPregenerator pregen = chunkManager.getPregenerator();
+            assertNull(pregen.start(3, -2, 2));
+
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (pregen.isRunning() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertFalse(pregen.isRunning());
+
+            for (int x = 1; x <= 5; x++) {
+                for (int z = -4; z <= 0; z++) {
+                    assertTrue(AlphaLevelFormat.chunkExists(worldDir, x, z), "chunk " + x + "," + z);
+                }
+            }
+            assertFalse(AlphaLevelFormat.chunkExists(worldDir, 6, 0));
+            assertFalse(new File(worldDir, WorldPregenerator.PROGRESS_FILE_NAME).exists());
+        } finally {
+            chunkManager.shutdown();
+        }
+    }
+
+    @Test
+    void refusesSecondJobWhileRunning() {
+        ChunkManager chunkManager = new ChunkManager(new FlatWorldGenerator(), 1L, worldDir);
+        chunkManager.getIOThread().start();
+        try {
+            WorldPregenerator pregen = chunkManager.getPregenerator();
+            assertNull(pregen.start(0, 0, 40));
+            assertNotNull(pregen.start(0, 0, 1));
+            assertTrue(pregen.cancel());
+        } finally {
+            chunkManager.shutdown();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.martinambrus.rdforward.server.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ChunkDataCache: byte budget, frequency-based admission,
+ * removal callbacks and per-bucket metrics. No maintenance thread is
+ * started, so writers run maintenance inline and sizes are exact after
+ * {@link ChunkDataCache#cleanUp()}.
+ */
+class ChunkDataCacheTest {
+
+    private static final long KB = 1024;
+
+    private static final class Entry implements ChunkDataCache.Weighted {
+        long weight;
+        final AtomicInteger removals = new AtomicInteger();
+
+        Entry(long weight) {
+            this.weight = weight;
+        }
+
+        @Override
+        public long weightBytes() {
+            return weight;
+        }
+
+        @Override
+        public void onRemoval() {
+            removals.incrementAndGet();
+        }
+    }
+
+    @Test
+    void staysWithinByteBudget() {
+        ChunkDataCache cache = new ChunkDataCache(100 * KB);
+        for (int i = 0; i < 500; i++) {
+            cache.putIfAbsent(ChunkDataCache.key(i, 0, 1), new Entry(4 * KB));
+        }
+        cache.cleanUp();
+        assertTrue(cache.getWeightedSize() <= 100 * KB, "weighted size " + cache.getWeightedSize());
+        assertEquals(25, cache.size());
+        assertEquals(cache.getWeightedSize(), cache.getWeight(1));
+        assertEquals(475, cache.getEvictions(1));
+    }
+
+    @Test
+    void frequentlyReadEntriesSurviveAScan() {
+        ChunkDataCache cache = new ChunkDataCache(100 * KB);
+        // A "spawn area" every player keeps loading
+        for (int i = 0; i < 10; i++) {
+            cache.putIfAbsent(ChunkDataCache.key(i, 0, 1), new Entry(4 * KB));
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 10; i++) {
+                assertNotNull(cache.get(ChunkDataCache.key(i, 0, 1)));
+            }
+            cache.cleanUp();
+        }
+        // One player flying through fresh terrain: each chunk seen once
+        for (int i = 0; i < 1000; i++) {
+            cache.putIfAbsent(ChunkDataCache.key(i, 100, 1), new Entry(4 * KB));
+        }
+        cache.cleanUp();
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(cache.peek(ChunkDataCache.key(i, 0, 1)), "hot chunk " + i + " was evicted");
+        }
+    }
+
+    @Test
+    void removalCallbackRunsOnceForEveryExit() {
+        ChunkDataCache cache = new ChunkDataCache(100 * KB);
+        long key = ChunkDataCache.key(3, 4, 5);
+        Entry first = new Entry(KB);
+        Entry second = new Entry(KB);
+        cache.putIfAbsent(key, first);
+        cache.put(key, second);
+        assertEquals(1, first.removals.get(), "replaced entry is removed");
+        assertFalse(cache.remove(key, first), "conditional remove must not drop the replacement");
+        assertSame(second, cache.remove(key));
+        assertNull(cache.remove(key));
+        cache.cleanUp();
+        assertEquals(1, first.removals.get());
+        assertEquals(1, second.removals.get());
+        assertEquals(0, cache.getWeightedSize());
+        assertEquals(0, cache.getEntries(5));
+    }
+
+    @Test
+    void refreshWeightTracksGrowth() {
+        ChunkDataCache cache = new ChunkDataCache(100 * KB);
+        long key = ChunkDataCache.key(0, 0, 7);
+        Entry entry = new Entry(KB);
+        cache.putIfAbsent(key, entry);
+        cache.cleanUp();
+        assertEquals(KB, cache.getWeight(7));
+
+        entry.weight = 10 * KB;
+        cache.refreshWeight(key);
+        cache.cleanUp();
+        assertEquals(10 * KB, cache.getWeight(7));
+        assertEquals(10 * KB, cache.getWeightedSize());
+    }
+
+    @Test
+    void oversizedEntryIsNotKept() {
+        ChunkDataCache cache = new ChunkDataCache(10 * KB);
+        Entry huge = new Entry(50 * KB);
+        cache.putIfAbsent(ChunkDataCache.key(0, 0, 1), huge);
+        cache.cleanUp();
+        assertEquals(0, cache.size());
+        assertEquals(1, huge.removals.get());
+    }
+
+    @Test
+    void countsHitsAndMissesPerBucket() {
+        ChunkDataCache cache = new ChunkDataCache(100 * KB);
+        cache.setBucketName(2, "alpha");
+        cache.putIfAbsent(ChunkDataCache.key(1, 1, 2), new Entry(KB));
+        cache.get(ChunkDataCache.key(1, 1, 2));
+        cache.get(ChunkDataCache.key(1, 1, 2));
+        cache.get(ChunkDataCache.key(9, 9, 2));
+        cache.get(ChunkDataCache.key(1, 1, 3));
+        assertEquals(2, cache.getHits(2));
+        assertEquals(1, cache.getMisses(2));
+        assertEquals(1, cache.getMisses(3));
+        assertEquals("alpha", cache.getBucketName(2));
+        assertEquals(java.util.List.of(2, 3), cache.getActiveBuckets());
+    }
+
+    @Test
+    void clearBucketLeavesOtherBuckets() {
+        ChunkDataCache cache = new ChunkDataCache(100 * KB);
+        for (int i = 0; i < 5; i++) {
+            cache.putIfAbsent(ChunkDataCache.key(i, 0, 1), new Entry(KB));
+            cache.putIfAbsent(ChunkDataCache.key(i, 0, 22), new Entry(KB));
+        }
+        cache.clearBucket(22);
+        cache.cleanUp();
+        assertEquals(5, cache.size());
+        assertEquals(0, cache.getEntries(22));
+        assertEquals(5, cache.getEntries(1));
+    }
+
+    @Test
+    void backgroundThreadEvicts() throws InterruptedException {
+        ChunkDataCache cache = new ChunkDataCache(50 * KB);
+        cache.start();
+        try {
+            for (int i = 0; i < 200; i++) {
+                cache.putIfAbsent(ChunkDataCache.key(i, 0, 1), new Entry(2 * KB));
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (cache.getWeightedSize() > 50 * KB || cache.size() > 25) {
+                assertTrue(System.currentTimeMillis() < deadline, "background eviction did not catch up");
+                Thread.sleep(20);
+            }
+        } finally {
+            cache.shutdown();
+        }
+        assertEquals(0, cache.size());
+    }
+}
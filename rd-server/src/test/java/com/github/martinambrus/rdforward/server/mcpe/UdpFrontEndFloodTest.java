@@ -0,0 +1,242 @@
+package com.github.martinambrus.rdforward.server.mcpe;
+
+import com.github.martinambrus.rdforward.server.PrefixRateLimiter;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramPacket;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Loopback flood test for the UDP front end's handshake hardening: spoofed
+ * Open Connection Requests and stray datagrams must not create routing
+ * entries or sessions, the per-prefix rate limit must cap what reaches
+ * the backend, and a client that really owns its address must still get
+ * through the cookie exchange and be routed afterwards.
+ */
+class UdpFrontEndFloodTest {
+
+    private static final int RATE = 50;
+    private static final int MAX_CLIENTS = 64;
+    private static final byte[] MAGIC = MCPEConstants.RAKNET_MAGIC;
+
+    /** Legacy backend doing the same cookie handshake as LegacyRakNetServer. */
+    private static class CookieBackend implements UdpFrontEndHandler.LegacyBackend {
+        final HandshakeCookie cookie = new HandshakeCookie();
+        final Set<InetSocketAddress> sessions = ConcurrentHashMap.newKeySet();
+        final LongAdder offlinePackets = new LongAdder();
+        final LongAdder connectedPackets = new LongAdder();
+
+        @Override
+        public void handleDatagram(ChannelHandlerContext ctx, DatagramPacket packet) {
+            try {
+                ByteBuf buf = packet.content();
+                int id = buf.readUnsignedByte();
+                if ((id & 0x80) != 0) {
+                    if (sessions.contains(packet.sender())) connectedPackets.increment();
+                    return;
+                }
+                offlinePackets.increment();
+                if (id == 0x05) {
+                    int mtu = cookie.advertiseMtu(packet.sender(), 1492);
+                    ByteBuf reply = Unpooled.buffer();
+                    reply.writeByte(0x06).writeBytes(MAGIC).writeLong(1).writeByte(0).writeShort(mtu);
+                    ctx.writeAndFlush(new DatagramPacket(reply, packet.sender()));
+                } else if (id == 0x07) {
+                    int mtu = buf.getUnsignedShort(1 + 16 + 7);
+                    if (cookie.verify(packet.sender(), mtu)) sessions.add(packet.sender());
+                }
+            } finally {
+                packet.release();
+            }
+        }
+
+        @Override
+        public void setFrontEndChannel(Channel frontEnd) {}
+
+        @Override
+        public boolean hasSession(InetSocketAddress address) {
+            return sessions.contains(address);
+        }
+    }
+
+    @Test
+    void floodCreatesNoStateAndRealClientStillConnects() throws Exception {
+        CookieBackend backend = new CookieBackend();
+        UdpFrontEndHandler handler = new UdpFrontEndHandler(backend, MAX_CLIENTS, RATE);
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        try {
+            List<Channel> channels = UdpFrontEnd.bind(group, 0, 1, handler);
+            InetSocketAddress server = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    ((InetSocketAddress) channels.get(0).localAddress()).getPort());
+
+            // Flood: 200 sources each sending OCR1, a blind OCR2 and stray connected datagrams
+            int sources = 200;
+            long floodStart = System.nanoTime();
+            for (int i = 0; i < sources; i++) {
+                try (DatagramSocket spoofer = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+                    send(spoofer, server, ocr1());
+                    send(spoofer, server, ocr2(1400 + i % 32));
+                    for (int j = 0; j < 5; j++) {
+                        send(spoofer, server, new byte[] {(byte) 0x84, 0, 0, 0});
+                    }
+                }
+            }
+            double floodSeconds = (System.nanoTime() - floodStart) / 1e9;
+            Thread.sleep(300);
+
+            long allowed = 2L * RATE + (long) Math.ceil(RATE * (floodSeconds + 0.3)) + 5;
+            System.out.printf("[PERF] UDP flood: %d offline packets sent, %d reached backend, %d dropped%n",
+                    sources * 2, backend.offlinePackets.sum(), handler.getDroppedPackets());
+            assertTrue(backend.offlinePackets.sum() <= allowed,
+                    "Rate limit let " + backend.offlinePackets.sum() + " through, expected <= " + allowed);
+            // A blind OCR2 guesses the cookie 1 time in 32; only those senders may get through
+            assertTrue(backend.sessions.size() <= sources / 8,
+                    "Blind OCR2s created " + backend.sessions.size() + " sessions");
+            assertTrue(backend.connectedPackets.sum() <= 5L * backend.sessions.size(),
+                    "Stray datagrams from senders without a session reached the backend");
+            assertTrue(handler.getRoutedClients() <= backend.sessions.size());
+
+            // Let the prefix bucket refill, then do a real handshake
+            Thread.sleep(1000);
+            try (DatagramSocket client = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+                client.setSoTimeout(2000);
+                send(client, server, ocr1());
+                byte[] reply = new byte[64];
+                java.net.DatagramPacket in = new java.net.DatagramPacket(reply, reply.length);
+                client.receive(in);
+                assertEquals(0x06, reply[0] & 0xFF);
+                int mtu = (reply[1 + 16 + 8 + 1] & 0xFF) << 8 | reply[1 + 16 + 8 + 2] & 0xFF;
+                assertTrue(mtu <= 1492 && mtu > 1492 - 32, "Advertised MTU " + mtu);
+
+                send(client, server, ocr2(mtu));
+                Thread.sleep(100);
+                InetSocketAddress self = (InetSocketAddress) client.getLocalSocketAddress();
+                assertTrue(backend.sessions.contains(self), "Real client got no session");
+
+                long before = backend.connectedPackets.sum();
+                for (int i = 0; i < 10; i++) {
+                    send(client, server, new byte[] {(byte) 0x84, (byte) i, 0, 0});
+                }
+                Thread.sleep(200);
+                assertEquals(before + 10, backend.connectedPackets.sum());
+                assertTrue(handler.getRoutedClients() >= 1);
+            }
+
+            // Idle entries expire
+            handler.expireIdle(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(UdpFrontEndHandler.IDLE_EXPIRY_MS + 1000));
+            assertEquals(0, handler.getRoutedClients());
+            for (Channel ch : channels) {
+                ch.close().sync();
+            }
+        } finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test
+    void routingTableIsBounded() throws Exception {
+        CookieBackend backend = new CookieBackend() {
+            @Override
+            public boolean hasSession(InetSocketAddress address) {
+                return true;
+            }
+        };
+        UdpFrontEndHandler handler = new UdpFrontEndHandler(backend, MAX_CLIENTS, RATE);
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        try {
+            List<Channel> channels = UdpFrontEnd.bind(group, 0, 1, handler);
+            InetSocketAddress server = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    ((InetSocketAddress) channels.get(0).localAddress()).getPort());
+            for (int i = 0; i < 1000; i++) {
+                try (DatagramSocket sender = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+                    send(sender, server, new byte[] {(byte) 0x84, 0, 0, 0});
+                }
+            }
+            Thread.sleep(300);
+            int routed = handler.getRoutedClients();
+            assertTrue(routed > 0 && routed <= MAX_CLIENTS, "Routing table holds " + routed);
+            for (Channel ch : channels) {
+                ch.close().sync();
+            }
+        } finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test
+    void cookieSurvivesOneRotationAndRejectsOtherAddresses() {
+        HandshakeCookie cookie = new HandshakeCookie(42);
+        long now = 10 * HandshakeCookie.EPOCH_MS + 5;
+        int rejectedOthers = 0;
+        int rejectedStale = 0;
+        for (int port = 20000; port < 21000; port++) {
+            InetSocketAddress addr = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+            int mtu = cookie.advertiseMtu(addr, 1492, now);
+            assertTrue(mtu <= 1492 && mtu >= 1492 - HandshakeCookie.MAX_MTU_REDUCTION);
+            assertTrue(cookie.verify(addr, mtu, now));
+            assertTrue(cookie.verify(addr, mtu, now + HandshakeCookie.EPOCH_MS));
+            if (!cookie.verify(addr, mtu, now + 3 * HandshakeCookie.EPOCH_MS)) rejectedStale++;
+            InetSocketAddress other = new InetSocketAddress(InetAddress.getLoopbackAddress(), port + 5000);
+            if (!cookie.verify(other, mtu, now)) rejectedOthers++;
+        }
+        // Two chances of 1/32 to collide by accident
+        assertTrue(rejectedOthers > 900, "Only " + rejectedOthers + " foreign addresses rejected");
+        assertTrue(rejectedStale > 900, "Only " + rejectedStale + " stale cookies rejected");
+    }
+
+    @Test
+    void prefixLimiterSharesBudgetWithinPrefixAndRefills() throws Exception {
+        PrefixRateLimiter limiter = new PrefixRateLimiter(1024, 10, 20);
+        InetAddress a = InetAddress.getByName("192.0.2.1");
+        InetAddress b = InetAddress.getByName("192.0.2.200");
+        InetAddress other = InetAddress.getByName("198.51.100.7");
+        long t = 1_000_000_000L;
+        int granted = 0;
+        for (int i = 0; i < 50; i++) {
+            if (limiter.tryAcquire(i % 2 == 0 ? a : b, t)) granted++;
+        }
+        assertEquals(20, granted, "Burst is shared by the whole /24");
+        assertTrue(limiter.tryAcquire(other, t), "Other prefixes keep their own budget");
+        assertFalse(limiter.tryAcquire(a, t + 50_000_000L));
+        assertTrue(limiter.tryAcquire(a, t + 150_000_000L), "One token refills after 100 ms at 10/s");
+    }
+
+    private static byte[] ocr1() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(0x05).writeBytes(MAGIC).writeByte(6).writeZero(400);
+        return bytes(buf);
+    }
+
+    private static byte[] ocr2(int mtu) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(0x07).writeBytes(MAGIC);
+        buf.writeByte(4).writeInt(~0x7F000001).writeShort(19132); // server address, inverted bytes
+        buf.writeShort(mtu).writeLong(1234);
+        return bytes(buf);
+    }
+
+    private static byte[] bytes(ByteBuf buf) {
+        byte[] out = new byte[buf.readableBytes()];
+        buf.readBytes(out);
+        buf.release();
+        return out;
+    }
+
+    private static void send(DatagramSocket socket, InetSocketAddress to, byte[] data) throws Exception {
+        socket.send(new java.net.DatagramPacket(data, data.length, to));
+    }
+}
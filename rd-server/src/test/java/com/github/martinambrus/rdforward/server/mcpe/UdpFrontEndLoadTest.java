@@ -0,0 +1,178 @@
+package com.github.martinambrus.rdforward.server.mcpe;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramPacket;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Loopback load test for the UDP front end: many senders blast connected
+ * RakNet datagrams at one port and the test counts how many the backend
+ * processes per second with one socket versus several SO_REUSEPORT
+ * sockets. The default suite only checks that traffic is split and
+ * processed; the scaling comparison is tagged {@code perf} and runs
+ * through {@code :rd-server:testPerf}, printing [PERF] lines.
+ */
+class UdpFrontEndLoadTest {
+
+    private static final int SENDERS = 32;
+    private static final long DURATION_MS = 1500;
+
+    /** Legacy backend that does a little work per datagram, like a real session would. */
+    private static final class CountingBackend implements UdpFrontEndHandler.LegacyBackend {
+        final LongAdder packets = new LongAdder();
+        final Map<Channel, LongAdder> perSocket = new ConcurrentHashMap<>();
+        volatile long sink;
+
+        @Override
+        public void handleDatagram(ChannelHandlerContext ctx, DatagramPacket packet) {
+            try {
+                long h = 0;
+                for (int round = 0; round < 20; round++) {
+                    for (int i = 0; i < packet.content().readableBytes(); i++) {
+                        h = h * 31 + packet.content().getByte(packet.content().readerIndex() + i);
+                    }
+                }
+                sink = h;
+                packets.increment();
+                perSocket.computeIfAbsent(ctx.channel(), c -> new LongAdder()).increment();
+            } finally {
+                packet.release();
+            }
+        }
+
+        @Override
+        public void setFrontEndChannel(Channel frontEnd) {}
+
+        @Override
+        public boolean hasSession(InetSocketAddress address) {
+            return true;
+        }
+    }
+
+    @Test
+    void multipleSocketsShareThePortAndSplitTraffic() throws Exception {
+        assumeTrue(UdpFrontEnd.isReusePortSupported(), "SO_REUSEPORT not supported");
+
+        Result result = run(4);
+        assertTrue(result.sockets > 1, "Expected several bound sockets, got " + result.sockets);
+        assertTrue(result.activeSockets > 1,
+                "Expected traffic on more than one socket, got " + result.activeSockets);
+        assertTrue(result.packetsPerSecond > 0, "No packets processed");
+    }
+
+    @Test
+    @Tag("perf")
+    void shardedFrontEndScalesWithCores() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        Result single = run(1);
+        System.out.printf("[PERF] UDP front end, 1 socket: %.0f packets/sec%n", single.packetsPerSecond);
+
+        assumeTrue(UdpFrontEnd.isReusePortSupported(), "SO_REUSEPORT not supported");
+        Result sharded = run(4);
+        System.out.printf("[PERF] UDP front end, %d sockets (%d active): %.0f packets/sec (%.2fx)%n",
+                sharded.sockets, sharded.activeSockets, sharded.packetsPerSecond,
+                sharded.packetsPerSecond / single.packetsPerSecond);
+
+        assertTrue(single.packetsPerSecond > 0, "No packets processed");
+        assumeTrue(cores >= 4, "Scaling needs at least 4 cores, have " + cores);
+        assertTrue(sharded.packetsPerSecond > single.packetsPerSecond * 1.3,
+                "4 sockets should beat 1 on " + cores + " cores");
+    }
+
+    @Test
+    void shardIsStablePerAddressAndSpreadsPorts() {
+        InetSocketAddress a = new InetSocketAddress(InetAddress.getLoopbackAddress(), 40000);
+        assertEquals(UdpFrontEndHandler.shardOf(a),
+                UdpFrontEndHandler.shardOf(new InetSocketAddress(InetAddress.getLoopbackAddress(), 40000)));
+
+        boolean[] seen = new boolean[16];
+        for (int port = 40000; port < 40256; port++) {
+            seen[UdpFrontEndHandler.shardOf(new InetSocketAddress(InetAddress.getLoopbackAddress(), port))] = true;
+        }
+        for (int i = 0; i < seen.length; i++) {
+            assertTrue(seen[i], "Shard " + i + " never used");
+        }
+    }
+
+    private record Result(int sockets, int activeSockets, double packetsPerSecond) {}
+
+    private static Result run(int sockets) throws Exception {
+        CountingBackend backend = new CountingBackend();
+        UdpFrontEndHandler handler = new UdpFrontEndHandler(backend, 4096, 20);
+        NioEventLoopGroup group = new NioEventLoopGroup(sockets);
+        List<DatagramChannel> senders = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        try {
+            List<Channel> channels = UdpFrontEnd.bind(group, 0, sockets, handler);
+            int port = ((InetSocketAddress) channels.get(0).localAddress()).getPort();
+            InetSocketAddress target = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+
+            for (int i = 0; i < SENDERS; i++) {
+                DatagramChannel ch = DatagramChannel.open();
+                ch.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+                senders.add(ch);
+            }
+
+            AtomicLong deadline = new AtomicLong(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MS));
+            int senderThreads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+            for (int t = 0; t < senderThreads; t++) {
+                int offset = t;
+                Thread thread = new Thread(() -> {
+                    ByteBuffer payload = ByteBuffer.allocate(64);
+                    payload.put((byte) 0x84);
+                    try {
+                        while (System.nanoTime() < deadline.get()) {
+                            for (int i = offset; i < senders.size(); i += senderThreads) {
+                                payload.rewind();
+                                senders.get(i).send(payload, target);
+                            }
+                        }
+                    } catch (Exception ignored) {
+                        // socket closed at shutdown
+                    }
+                }, "UdpLoad-" + t);
+                thread.start();
+                threads.add(thread);
+            }
+
+            long start = System.nanoTime();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            Thread.sleep(100); // let in-flight datagrams drain
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            int active = 0;
+            for (LongAdder count : backend.perSocket.values()) {
+                if (count.sum() > 0) active++;
+            }
+            for (Channel ch : channels) {
+                ch.close().sync();
+            }
+            return new Result(channels.size(), active, backend.packets.sum() / seconds);
+        } finally {
+            for (DatagramChannel ch : senders) {
+                ch.close();
+            }
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.martinambrus.rdforward.server.profiler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for LatencyHistogram bucket math and percentile accuracy.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void bucketBoundsContainTheirValues() {
+        for (long v = 0; v < 1_000_000; v += (v < 4096 ? 1 : 997)) {
+            int bucket = LatencyHistogram.bucketOf(v);
+            assertTrue(LatencyHistogram.upperBoundOf(bucket) >= v, "upper bound for " + v);
+            if (bucket > 0) {
+                assertTrue(LatencyHistogram.upperBoundOf(bucket - 1) < v, "previous bucket for " + v);
+            }
+        }
+    }
+
+    @Test
+    void percentilesWithinSixPercent() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            h.record(i * 1_000);
+        }
+        assertEquals(10_000, h.getCount());
+        assertEquals(10_000_000, h.getMax());
+        assertEquals(5_000_500, h.getMean());
+        assertEquals(5_000_000, h.getValueAtPercentile(50), 5_000_000 * 0.0625);
+        assertEquals(9_900_000, h.getValueAtPercentile(99), 9_900_000 * 0.0625);
+        assertEquals(10_000_000, h.getValueAtPercentile(100));
+    }
+
+    @Test
+    void clampsHugeAndNegativeValues() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-5);
+        h.record(Long.MAX_VALUE / 2);
+        assertEquals(0, h.getValueAtPercentile(50));
+        assertEquals(Long.MAX_VALUE / 2, h.getValueAtPercentile(100));
+    }
+
+    @Test
+    void resetClearsEverything() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(123);
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMax());
+        assertEquals(0, h.getValueAtPercentile(99));
+    }
+}
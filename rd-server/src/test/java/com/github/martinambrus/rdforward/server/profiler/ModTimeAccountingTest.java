@@ -0,0 +1,206 @@
+package com.github.martinambrus.rdforward.server.profiler;
+
+import com.github.martinambrus.rdforward.api.event.EventOwnership;
+import com.github.martinambrus.rdforward.api.event.EventPriority;
+import com.github.martinambrus.rdforward.api.event.EventResult;
+import com.github.martinambrus.rdforward.api.event.PrioritizedEvent;
+import com.github.martinambrus.rdforward.api.event.server.BlockBreakCallback;
+import com.github.martinambrus.rdforward.api.event.server.ServerEvents;
+import com.github.martinambrus.rdforward.server.api.Scheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ModTimeAccounting: a listener that spins past its budget gets
+ * disabled or throttled while other mods keep running, the server is
+ * exempt, scheduled tasks are charged to the mod that scheduled them and
+ * held back (not dropped) while it is over budget, and the summary shows
+ * per-mod time.
+ */
+class ModTimeAccountingTest {
+
+    private final PrioritizedEvent<BlockBreakCallback> event = ServerEvents.BLOCK_BREAK;
+    private final AtomicInteger slowCalls = new AtomicInteger();
+    private final AtomicInteger fastCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ModTimeAccounting.reset();
+        // Registered inside the owner scope with the owner-less overload, like a bridged plugin
+        EventOwnership.withOwner("spinner", () -> event.register((player, x, y, z, blockType) -> {
+            slowCalls.incrementAndGet();
+            spin(3_000_000L);
+            return EventResult.PASS;
+        }));
+        event.register(EventPriority.NORMAL, (player, x, y, z, blockType) -> {
+            fastCalls.incrementAndGet();
+            return EventResult.PASS;
+        }, "polite");
+        ServerProfiler.setModTiming(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ServerProfiler.setModTiming(false);
+        ServerProfiler.reset();
+        ModTimeAccounting.reset();
+        ModTimeAccounting.configure(25, Map.of(), ModTimeAccounting.Action.WARN, 20, true);
+        event.clearListeners();
+    }
+
+    @Test
+    void overBudgetModIsDisabledUntilReEnabled() {
+        ModTimeAccounting.configure(1, Map.of(), ModTimeAccounting.Action.DISABLE, 3, true);
+        for (int i = 0; i < 3; i++) {
+            breakBlock();
+            ModTimeAccounting.endTick();
+        }
+        assertEquals(ModTimeAccounting.State.DISABLED, ModTimeAccounting.getState("spinner"));
+        assertEquals(ModTimeAccounting.State.NORMAL, ModTimeAccounting.getState("polite"));
+        assertEquals(3, ModTimeAccounting.getOverBudgetTicks("spinner"));
+
+        // Finish the mod's first accounted second
+        int before = slowCalls.get();
+        for (int i = 0; i < 17; i++) {
+            breakBlock();
+            ModTimeAccounting.endTick();
+        }
+        assertEquals(before, slowCalls.get(), "Disabled listener never runs");
+        assertEquals(20, fastCalls.get(), "Other mods are unaffected");
+        assertEquals(17, ModTimeAccounting.getSkippedCalls("spinner"));
+
+        assertTrue(ModTimeAccounting.enable("spinner"));
+        assertFalse(ModTimeAccounting.enable("spinner"));
+        breakBlock();
+        assertEquals(before + 1, slowCalls.get());
+    }
+
+    @Test
+    void throttledModRunsOnlyUntilItsTickBudgetIsSpent() {
+        ModTimeAccounting.configure(5, Map.of(), ModTimeAccounting.Action.THROTTLE, 2, true);
+        // Two calls (~6 ms) per tick push the spinner over 5 ms
+        for (int i = 0; i < 2; i++) {
+            breakBlock();
+            breakBlock();
+            ModTimeAccounting.endTick();
+        }
+        assertEquals(ModTimeAccounting.State.THROTTLED, ModTimeAccounting.getState("spinner"));
+
+        int before = slowCalls.get();
+        for (int i = 0; i < 5; i++) {
+            breakBlock();
+        }
+        // Calls run until the 5 ms budget is used up, then are skipped for the rest of the tick
+        int ran = slowCalls.get() - before;
+        assertTrue(ran >= 2 && ran < 5, "ran " + ran);
+        ModTimeAccounting.endTick();
+
+        breakBlock();
+        assertEquals(before + ran + 1, slowCalls.get(), "A new tick brings a fresh budget");
+    }
+
+    @Test
+    void overridesAndServerOwnerAreRespected() {
+        ModTimeAccounting.configure(1, Map.of("spinner", 0), ModTimeAccounting.Action.DISABLE, 1, false);
+        ModTimeAccounting.record(PrioritizedEvent.SERVER_OWNER, 100_000_000L, -1);
+        breakBlock();
+        ModTimeAccounting.endTick();
+
+        assertEquals(ModTimeAccounting.State.NORMAL, ModTimeAccounting.getState("spinner"));
+        assertEquals(ModTimeAccounting.State.NORMAL, ModTimeAccounting.getState(PrioritizedEvent.SERVER_OWNER));
+        assertEquals(0, ModTimeAccounting.getOverBudgetTicks(PrioritizedEvent.SERVER_OWNER));
+    }
+
+    @Test
+    void scheduledTasksAreChargedToTheirMod() {
+        ModTimeAccounting.configure(1, Map.of(), ModTimeAccounting.Action.DISABLE, 1, true);
+        AtomicInteger runs = new AtomicInteger();
+        Scheduler.init();
+        try {
+            EventOwnership.withOwner("tasker", () -> Scheduler.runRepeating(0, 1, () -> {
+                runs.incrementAndGet();
+                spin(2_000_000L);
+            }));
+            Scheduler.tick(1);
+            ModTimeAccounting.endTick();
+            assertEquals(ModTimeAccounting.State.DISABLED, ModTimeAccounting.getState("tasker"));
+            assertEquals(0, ModTimeAccounting.getOverBudgetTicks(PrioritizedEvent.SERVER_OWNER));
+            assertEquals(0, ServerEvents.SERVER_TICK.listenerCount(), "Tasks don't run inside a tick listener");
+
+            Scheduler.tick(2);
+            assertEquals(1, runs.get(), "A disabled mod's tasks are skipped");
+            ModTimeAccounting.enable("tasker");
+            Scheduler.tick(3);
+            assertEquals(2, runs.get(), "and stay scheduled");
+        } finally {
+            Scheduler.reset();
+        }
+    }
+
+    @Test
+    void refusedOneShotTaskRunsOnceTheModIsEnabled() {
+        ModTimeAccounting.configure(1, Map.of(), ModTimeAccounting.Action.DISABLE, 1, true);
+        AtomicInteger oneShot = new AtomicInteger();
+        Scheduler.init();
+        try {
+            EventOwnership.withOwner("tasker", () -> {
+                Scheduler.runLater(0, () -> spin(2_000_000L));
+                Scheduler.runLater(2, oneShot::incrementAndGet);
+            });
+            Scheduler.tick(1);
+            ModTimeAccounting.endTick();
+            assertEquals(ModTimeAccounting.State.DISABLED, ModTimeAccounting.getState("tasker"));
+
+            for (int t = 2; t < 6; t++) {
+                Scheduler.tick(t);
+            }
+            assertEquals(0, oneShot.get(), "Refused while the mod is disabled");
+            assertEquals(1, Scheduler.pendingTasks().size(), "but still scheduled");
+
+            ModTimeAccounting.enable("tasker");
+            Scheduler.tick(6);
+            Scheduler.tick(7);
+            assertEquals(1, oneShot.get(), "Runs exactly once after re-enabling");
+            assertTrue(Scheduler.pendingTasks().isEmpty());
+        } finally {
+            Scheduler.reset();
+        }
+    }
+
+    @Test
+    void describeListsModsByTime() {
+        for (int i = 0; i < 20; i++) {
+            breakBlock();
+            ModTimeAccounting.endTick();
+        }
+        List<String> lines = ModTimeAccounting.describe();
+        assertTrue(lines.get(0).startsWith("Budget 25.00 ms/tick, action warn"), lines.get(0));
+        assertTrue(lines.get(1).startsWith("spinner: calls/s=20.0 wall ms/s 10s="), lines.get(1));
+        assertTrue(lines.get(1).contains(" cpu ms/s "), lines.get(1));
+        assertTrue(lines.get(2).startsWith("polite:"), lines.get(2));
+    }
+
+    @Test
+    void parseActionFallsBackToWarn() {
+        assertEquals(ModTimeAccounting.Action.THROTTLE, ModTimeAccounting.parseAction(" Throttle "));
+        assertEquals(ModTimeAccounting.Action.WARN, ModTimeAccounting.parseAction("explode"));
+    }
+
+    private void breakBlock() {
+        event.invoker().onBlockBreak("player", 1, 64, 1, 1);
+    }
+
+    private static void spin(long nanos) {
+        long end = System.nanoTime() + nanos;
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.martinambrus.rdforward.server.profiler;
+
+import com.github.martinambrus.rdforward.api.event.Event;
+import com.github.martinambrus.rdforward.api.event.server.ServerEvents;
+import com.github.martinambrus.rdforward.api.event.server.WorldSaveCallback;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ServerProfiler phase recording, per-mod listener timing and
+ * the Prometheus text output.
+ */
+class ServerProfilerTest {
+
+    @AfterEach
+    void tearDown() {
+        ServerProfiler.setModTiming(false);
+        ServerProfiler.reset();
+    }
+
+    @Test
+    void recordsPhasesAndTick() {
+        ServerProfiler.reset();
+        long start = ServerProfiler.tickStart();
+        long t = ServerProfiler.phase(TickPhase.TIME, start);
+        ServerProfiler.phase(TickPhase.FLUSH, t);
+        ServerProfiler.tickEnd(start);
+
+        assertEquals(1, ServerProfiler.getTickHistogram().getCount());
+        assertEquals(1, ServerProfiler.getPhaseHistogram(TickPhase.TIME).getCount());
+        assertEquals(1, ServerProfiler.getPhaseHistogram(TickPhase.FLUSH).getCount());
+        assertEquals(0, ServerProfiler.getPhaseHistogram(TickPhase.FULL_SAVE).getCount());
+    }
+
+    @Test
+    void modTimingAttributesListenersToServerOwner() {
+        Event<WorldSaveCallback> event = ServerEvents.WORLD_SAVE;
+        WorldSaveCallback listener = () -> {};
+        event.register(listener);
+        ServerProfiler.setModTiming(true);
+        assertTrue(ServerProfiler.isModTiming());
+
+        event.invoker().onWorldSave();
+        event.invoker().onWorldSave();
+        event.unregister(listener);
+
+        LatencyHistogram server = ServerProfiler.getModListenerHistograms().get("__server__");
+        assertNotNull(server);
+        assertEquals(2, server.getCount());
+    }
+
+    @Test
+    void prometheusOutputHasSummariesAndEscapedLabels() {
+        long start = ServerProfiler.tickStart();
+        ServerProfiler.phase(TickPhase.TIME, start);
+        ServerProfiler.tickEnd(start);
+
+        StringBuilder sb = new StringBuilder();
+        ServerProfiler.writePrometheus(sb);
+        String text = sb.toString();
+
+        assertTrue(text.contains("# TYPE rdforward_tick_duration_seconds summary"));
+        assertTrue(text.contains("rdforward_tick_duration_seconds{quantile=\"0.99\"}"));
+        assertTrue(text.contains("rdforward_tick_phase_duration_seconds_count{phase=\"time\"} 1"));
+        assertTrue(text.contains("rdforward_tps{window=\"1m\"}"));
+        assertEquals("a\\\"b\\\\c\\n", ServerProfiler.escape("a\"b\\c\n"));
+        for (String line : text.split("\n")) {
+            assertTrue(line.startsWith("#") || line.matches("[a-z_]+(\\{.*\\})? [0-9.E-]+"), line);
+        }
+    }
+}
@@ -68,6 +68,14 @@ public class AlphaLevelFormat {
         }
     }
 
+    /**
+     * Check whether a chunk file exists on disk without reading it.
+     * Used by world pregeneration to skip chunks that were already saved.
+     */
+    public static boolean chunkExists(File worldDir, int xPos, int zPos) {
+        return getChunkFile(worldDir, xPos, zPos).exists();
+    }
+
     /**
      * Load a chunk from disk in Alpha format.
      * Returns null if the chunk file doesn't exist.